@@ -0,0 +1,103 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.benchmark.index.codec;
+
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.store.ByteArrayDataOutput;
+import org.elasticsearch.index.codec.TimeSeriesEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how fast {@link TimeSeriesEncoder} encodes and decodes a block of values that looks like a counter, a timestamp, a gauge or
+ * random noise.
+ */
+@Fork(1)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@SuppressWarnings("unused") // invoked by benchmarking framework
+public class TimeSeriesEncoderBenchmark {
+
+    @Param({ "counter", "timestamp", "gauge", "random" })
+    private String values;
+
+    private final TimeSeriesEncoder encoder = new TimeSeriesEncoder();
+    private final long[] block = new long[TimeSeriesEncoder.BLOCK_SIZE];
+    private final long[] decoded = new long[TimeSeriesEncoder.BLOCK_SIZE];
+    private final byte[] buffer = new byte[TimeSeriesEncoder.BLOCK_SIZE * Long.BYTES * 2];
+    private final ByteArrayDataOutput out = new ByteArrayDataOutput();
+    private final ByteArrayDataInput in = new ByteArrayDataInput();
+    private int encodedLength;
+
+    @Setup
+    public void setup() throws IOException {
+        final Random random = new Random(42);
+        switch (values) {
+            case "counter":
+                block[0] = 1_000_000;
+                for (int i = 1; i < block.length; i++) {
+                    block[i] = block[i - 1] + random.nextInt(1000);
+                }
+                break;
+            case "timestamp":
+                block[0] = 1_600_000_000_000L;
+                for (int i = 1; i < block.length; i++) {
+                    block[i] = block[i - 1] + 10_000 + random.nextInt(3) - 1;
+                }
+                break;
+            case "gauge":
+                double gauge = 42.5;
+                for (int i = 0; i < block.length; i++) {
+                    gauge += (random.nextInt(5) - 2) * 0.25;
+                    block[i] = Double.doubleToLongBits(gauge);
+                }
+                break;
+            case "random":
+                for (int i = 0; i < block.length; i++) {
+                    block[i] = random.nextLong();
+                }
+                break;
+            default:
+                throw new IllegalArgumentException("unknown values [" + values + "]");
+        }
+        out.reset(buffer);
+        encoder.encode(block, block.length, out);
+        encodedLength = out.getPosition();
+    }
+
+    @Benchmark
+    public int encode() throws IOException {
+        out.reset(buffer);
+        encoder.encode(block, block.length, out);
+        return out.getPosition();
+    }
+
+    @Benchmark
+    public long[] decode() throws IOException {
+        in.reset(buffer, 0, encodedLength);
+        encoder.decode(in, decoded, decoded.length);
+        return decoded;
+    }
+}
@@ -55,6 +55,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiFunction;
@@ -104,7 +105,7 @@ public abstract class AbstractAsyncBulkByScrollAction<Request extends AbstractBu
      * {@link RequestWrapper} completely.
      */
     private final BiFunction<RequestWrapper<?>, ScrollableHitSource.Hit, RequestWrapper<?>> scriptApplier;
-    private int lastBatchSize;
+    private volatile int lastBatchSize;
     /**
      * Keeps track of the total number of bulk operations performed
      * from a single scroll response. It is possible that
@@ -113,6 +114,26 @@ public abstract class AbstractAsyncBulkByScrollAction<Request extends AbstractBu
      * in order to compute a correct scroll keep alive time.
      */
     private final AtomicInteger totalBatchSizeInSingleScrollResponse = new AtomicInteger();
+    /**
+     * Keeps track of the bulk requests in flight if more than one is allowed by
+     * {@link AbstractBulkByScrollRequest#getMaxConcurrentBulks()}, {@code null} otherwise.
+     */
+    @Nullable
+    private final BulkPipeline pipeline;
+    private final AtomicBoolean finished = new AtomicBoolean();
+    /**
+     * Guards {@link #scrollInFlight} and {@link #pendingScrollClose}.
+     */
+    private final Object scrollMutex = new Object();
+    /**
+     * Whether a search or scroll request is in flight. The scroll is only cleared once it returned since it may return a new scroll id.
+     */
+    private boolean scrollInFlight;
+    /**
+     * Clears the scroll and completes the request once the scroll request in flight returned, set if the request finished while it was
+     * in flight.
+     */
+    private Runnable pendingScrollClose;
 
     AbstractAsyncBulkByScrollAction(BulkByScrollTask task, boolean needsSourceDocumentVersions,
                                     boolean needsSourceDocumentSeqNoAndPrimaryTerm, Logger logger, ParentTaskAssigningClient client,
@@ -144,6 +165,7 @@ public abstract class AbstractAsyncBulkByScrollAction<Request extends AbstractBu
         bulkRetry = new Retry(BackoffPolicy.wrap(backoffPolicy, worker::countBulkRetry), threadPool);
         scrollSource = buildScrollableResultSource(backoffPolicy);
         scriptApplier = Objects.requireNonNull(buildScriptApplier(), "script applier must not be null");
+        pipeline = mainRequest.getMaxConcurrentBulks() > 1 ? new BulkPipeline(mainRequest.getMaxConcurrentBulks()) : null;
         /*
          * Default to sorting by doc. We can't do this in the request itself because it is normal to *add* to the sorts rather than replace
          * them and if we add _doc as the first sort by default then sorts will never work.... So we add it here, only if there isn't
@@ -222,7 +244,7 @@ public abstract class AbstractAsyncBulkByScrollAction<Request extends AbstractBu
 
     protected ScrollableHitSource buildScrollableResultSource(BackoffPolicy backoffPolicy) {
         return new ClientScrollableHitSource(logger, backoffPolicy, threadPool, worker::countSearchRetry,
-            this::onScrollResponse, this::finishHim, searchClient,
+            this::onScrollResponse, this::onScrollFailure, searchClient,
                 mainRequest.getSearchRequest());
     }
 
@@ -246,16 +268,56 @@ public abstract class AbstractAsyncBulkByScrollAction<Request extends AbstractBu
         }
         try {
             startTime.set(System.nanoTime());
+            onScrollRequested();
             scrollSource.start();
         } catch (Exception e) {
-            finishHim(e);
+            onScrollFailure(e);
         }
     }
 
     void onScrollResponse(ScrollableHitSource.AsyncResponse asyncResponse) {
+        if (onScrollReturned() == false) {
+            logger.debug("[{}]: ignoring scroll response since the request already finished", task.getId());
+            return;
+        }
         onScrollResponse(new ScrollConsumableHitsResponse(asyncResponse));
     }
 
+    /**
+     * Called if the search or scroll request failed.
+     */
+    protected void onScrollFailure(Exception e) {
+        if (onScrollReturned()) {
+            finishHim(e);
+        }
+    }
+
+    private void onScrollRequested() {
+        synchronized (scrollMutex) {
+            assert scrollInFlight == false : "only one scroll request may be in flight";
+            scrollInFlight = true;
+        }
+    }
+
+    /**
+     * Clears the scroll if the request finished while the scroll request was in flight.
+     *
+     * @return {@code false} if the request already finished
+     */
+    private boolean onScrollReturned() {
+        final Runnable close;
+        synchronized (scrollMutex) {
+            scrollInFlight = false;
+            close = pendingScrollClose;
+            pendingScrollClose = null;
+        }
+        if (close != null) {
+            scrollSource.close(close);
+            return false;
+        }
+        return finished.get() == false;
+    }
+
     void onScrollResponse(ScrollConsumableHitsResponse asyncResponse) {
         // lastBatchStartTime is essentially unused (see WorkerBulkByScrollTaskState.throttleWaitTime. Leaving it for now, since it seems
         // like a bug?
@@ -321,7 +383,11 @@ public abstract class AbstractAsyncBulkByScrollAction<Request extends AbstractBu
             return;
         }
         if (asyncResponse.hasRemainingHits() == false) {
-            refreshAndFinish(emptyList(), emptyList(), false);
+            if (pipeline != null) {
+                pipeline.onScrollExhausted();
+            } else {
+                refreshAndFinish(emptyList(), emptyList(), false);
+            }
             return;
         }
         worker.countBatch();
@@ -346,7 +412,11 @@ public abstract class AbstractAsyncBulkByScrollAction<Request extends AbstractBu
         }
         request.timeout(mainRequest.getTimeout());
         request.waitForActiveShards(mainRequest.getWaitForActiveShards());
-        sendBulkRequest(request, () -> notifyDone(thisBatchStartTimeNS, asyncResponse, request.requests().size()));
+        if (pipeline != null) {
+            pipeline.sendBulkRequest(request, () -> notifyDone(thisBatchStartTimeNS, asyncResponse, request.requests().size()));
+        } else {
+            sendBulkRequest(request, () -> notifyDone(thisBatchStartTimeNS, asyncResponse, request.requests().size()));
+        }
     }
 
     /**
@@ -445,6 +515,7 @@ public abstract class AbstractAsyncBulkByScrollAction<Request extends AbstractBu
 
         if (asyncResponse.hasRemainingHits() == false) {
             int totalBatchSize = totalBatchSizeInSingleScrollResponse.getAndSet(0);
+            onScrollRequested();
             asyncResponse.done(worker.throttleWaitTime(thisBatchStartTimeNS, System.nanoTime(), totalBatchSize));
         } else {
             onScrollResponse(asyncResponse);
@@ -506,8 +577,13 @@ public abstract class AbstractAsyncBulkByScrollAction<Request extends AbstractBu
      */
     protected void finishHim(Exception failure, List<Failure> indexingFailures,
             List<SearchFailure> searchFailures, boolean timedOut) {
+        if (finished.compareAndSet(false, true) == false) {
+            // with concurrent bulk requests more than one of them may fail or see the task being cancelled
+            logger.debug("[{}]: already finished", task.getId());
+            return;
+        }
         logger.debug("[{}]: finishing without any catastrophic failures", task.getId());
-        scrollSource.close(() -> {
+        final Runnable onClosed = () -> {
             if (failure == null) {
                 BulkByScrollResponse response = buildResponse(
                         timeValueNanos(System.nanoTime() - startTime.get()),
@@ -516,7 +592,16 @@ public abstract class AbstractAsyncBulkByScrollAction<Request extends AbstractBu
             } else {
                 listener.onFailure(failure);
             }
-        });
+        };
+        synchronized (scrollMutex) {
+            if (scrollInFlight) {
+                // a bulk request failed while the next batch is fetched, clearing the scroll now could miss the id it returns
+                logger.debug("[{}]: clearing the scroll once the scroll request in flight returned", task.getId());
+                pendingScrollClose = onClosed;
+                return;
+            }
+        }
+        scrollSource.close(onClosed);
     }
 
     /**
@@ -541,6 +626,73 @@ public abstract class AbstractAsyncBulkByScrollAction<Request extends AbstractBu
         scrollSource.setScroll(scroll);
     }
 
+    /**
+     * Allows up to {@code maxConcurrentBulks} bulk requests to be in flight at the same time by fetching the next batch of documents as
+     * soon as the bulk request of the current batch was sent instead of once it completed. Scroll requests are still sent one after the
+     * other since each of them continues from the previous one, so at most one batch waits for a bulk request to complete.
+     */
+    private final class BulkPipeline {
+        private final int maxConcurrentBulks;
+        private int inFlightBulks;
+        /**
+         * Fetches the next batch once a bulk request completes, set if all allowed bulk requests were in flight when the current batch
+         * was sent.
+         */
+        private Runnable pendingNextBatch;
+        private boolean scrollExhausted;
+
+        BulkPipeline(int maxConcurrentBulks) {
+            this.maxConcurrentBulks = maxConcurrentBulks;
+        }
+
+        void sendBulkRequest(BulkRequest request, Runnable nextBatch) {
+            synchronized (this) {
+                inFlightBulks++;
+            }
+            AbstractAsyncBulkByScrollAction.this.sendBulkRequest(request, this::onBulkCompleted);
+            final boolean fetchNow;
+            synchronized (this) {
+                fetchNow = inFlightBulks < maxConcurrentBulks;
+                if (fetchNow == false) {
+                    pendingNextBatch = nextBatch;
+                }
+            }
+            if (fetchNow && finished.get() == false) {
+                nextBatch.run();
+            }
+        }
+
+        void onScrollExhausted() {
+            final boolean done;
+            synchronized (this) {
+                scrollExhausted = true;
+                done = inFlightBulks == 0;
+            }
+            if (done) {
+                refreshAndFinish(emptyList(), emptyList(), false);
+            }
+        }
+
+        private void onBulkCompleted() {
+            final Runnable nextBatch;
+            final boolean done;
+            synchronized (this) {
+                inFlightBulks--;
+                nextBatch = pendingNextBatch;
+                pendingNextBatch = null;
+                done = scrollExhausted && inFlightBulks == 0;
+            }
+            if (finished.get()) {
+                return;
+            }
+            if (nextBatch != null) {
+                nextBatch.run();
+            } else if (done) {
+                refreshAndFinish(emptyList(), emptyList(), false);
+            }
+        }
+    }
+
     /**
      * Wrapper for the {@link DocWriteRequest} that are used in this action class.
      */
@@ -84,6 +84,8 @@ public abstract class AbstractBaseReindexRestHandler<
             request.setSlices(slices);
         }
 
+        request.setMaxConcurrentBulks(restRequest.paramAsInt("max_concurrent_bulks", request.getMaxConcurrentBulks()));
+
         String waitForActiveShards = restRequest.param("wait_for_active_shards");
         if (waitForActiveShards != null) {
             request.setWaitForActiveShards(ActiveShardCount.parseString(waitForActiveShards));
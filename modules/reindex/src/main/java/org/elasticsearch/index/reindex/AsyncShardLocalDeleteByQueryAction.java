@@ -0,0 +1,167 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.reindex;
+
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.ActionListenerResponseHandler;
+import org.elasticsearch.action.NoShardAvailableActionException;
+import org.elasticsearch.action.admin.indices.refresh.RefreshRequest;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.routing.GroupShardsIterator;
+import org.elasticsearch.cluster.routing.ShardIterator;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.transport.TransportRequestOptions;
+import org.elasticsearch.transport.TransportService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.elasticsearch.core.TimeValue.timeValueNanos;
+
+/**
+ * Coordinates a {@link DeleteByQueryRequest#isShardLocal() shard local} delete-by-query: sends a {@link ShardDeleteByQueryRequest} to
+ * the primary of every shard that the request targets and merges the per-shard results as if each shard were a slice. At most
+ * {@link DeleteByQueryRequest#getSlices()} shards are processed concurrently, or one per data node if slicing is automatic.
+ */
+class AsyncShardLocalDeleteByQueryAction {
+
+    private final BulkByScrollTask task;
+    private final Logger logger;
+    private final TransportService transportService;
+    private final Client client;
+    private final ClusterService clusterService;
+    private final IndexNameExpressionResolver indexNameExpressionResolver;
+    private final ClusterState clusterState;
+    private final DeleteByQueryRequest request;
+    private final ActionListener<BulkByScrollResponse> listener;
+
+    private final List<ShardId> shards = new ArrayList<>();
+    private final AtomicInteger nextShard = new AtomicInteger();
+    private String[] concreteIndices;
+
+    AsyncShardLocalDeleteByQueryAction(BulkByScrollTask task, Logger logger, TransportService transportService, Client client,
+                                       ClusterService clusterService, IndexNameExpressionResolver indexNameExpressionResolver,
+                                       DeleteByQueryRequest request, ActionListener<BulkByScrollResponse> listener) {
+        this.task = task;
+        this.logger = logger;
+        this.transportService = transportService;
+        this.client = client;
+        this.clusterService = clusterService;
+        this.indexNameExpressionResolver = indexNameExpressionResolver;
+        this.clusterState = clusterService.state();
+        this.request = request;
+        this.listener = listener;
+    }
+
+    void start() {
+        final long startTime = System.nanoTime();
+        try {
+            concreteIndices = indexNameExpressionResolver.concreteIndexNames(clusterState, request);
+            final Map<String, Set<String>> routing = indexNameExpressionResolver.resolveSearchRouting(clusterState,
+                request.getSearchRequest().routing(), request.indices());
+            final GroupShardsIterator<ShardIterator> shardIterators = clusterService.operationRouting().searchShards(clusterState,
+                concreteIndices, routing, request.getSearchRequest().preference());
+            for (ShardIterator shardIterator : shardIterators) {
+                shards.add(shardIterator.shardId());
+            }
+        } catch (Exception e) {
+            listener.onFailure(e);
+            return;
+        }
+        if (shards.isEmpty()) {
+            listener.onResponse(new BulkByScrollResponse(timeValueNanos(System.nanoTime() - startTime),
+                new BulkByScrollTask.Status(emptyList(), null), emptyList(), emptyList(), false));
+            return;
+        }
+        task.setWorkerCount(shards.size());
+        final int concurrency;
+        if (request.getSlices() == AbstractBulkByScrollRequest.AUTO_SLICES) {
+            concurrency = Math.max(1, clusterState.nodes().getDataNodes().size());
+        } else {
+            concurrency = request.getSlices();
+        }
+        logger.debug("[{}]: deleting matching documents of [{}] shards with a concurrency of [{}]", task.getId(), shards.size(),
+            concurrency);
+        final ActionListener<BulkByScrollResponse> finalListener = refreshingListener();
+        for (int i = 0; i < Math.min(concurrency, shards.size()); i++) {
+            sendNextShardRequest(finalListener);
+        }
+    }
+
+    private void sendNextShardRequest(ActionListener<BulkByScrollResponse> finalListener) {
+        final int sliceId = nextShard.getAndIncrement();
+        if (sliceId >= shards.size()) {
+            return;
+        }
+        final ShardId shardId = shards.get(sliceId);
+        final ActionListener<BulkByScrollResponse> shardListener = new ActionListener<>() {
+            @Override
+            public void onResponse(BulkByScrollResponse response) {
+                task.getLeaderState().onSliceResponse(finalListener, sliceId, response);
+                sendNextShardRequest(finalListener);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                logger.debug(() -> new ParameterizedMessage("[{}]: failed to delete the matching documents of {}", task.getId(),
+                    shardId), e);
+                onResponse(shardFailureResponse(sliceId, shardId, e));
+            }
+        };
+        final ShardRouting primary = clusterState.routingTable().shardRoutingTable(shardId).primaryShard();
+        if (primary == null || primary.active() == false) {
+            shardListener.onFailure(new NoShardAvailableActionException(shardId, "primary shard is not active"));
+            return;
+        }
+        final DiscoveryNode node = clusterState.nodes().get(primary.currentNodeId());
+        if (node == null) {
+            shardListener.onFailure(new NoShardAvailableActionException(shardId, "node of the primary shard is not known"));
+            return;
+        }
+        transportService.sendChildRequest(node, ShardDeleteByQueryAction.NAME, new ShardDeleteByQueryRequest(shardId, sliceId, request),
+            task, TransportRequestOptions.EMPTY, new ActionListenerResponseHandler<>(shardListener, BulkByScrollResponse::new));
+    }
+
+    private BulkByScrollResponse shardFailureResponse(int sliceId, ShardId shardId, Exception e) {
+        final BulkByScrollTask.Status status = new BulkByScrollTask.Status(sliceId, 0, 0, 0, 0, 0, 0, 0, 0, 0,
+            TimeValue.ZERO, Float.POSITIVE_INFINITY, null, TimeValue.ZERO);
+        return new BulkByScrollResponse(TimeValue.ZERO, status, emptyList(),
+            singletonList(new ScrollableHitSource.SearchFailure(e, shardId.getIndexName(), shardId.id(), null)), false);
+    }
+
+    /**
+     * Refreshes the indices the documents were deleted from, if the request asks for it, before responding.
+     */
+    private ActionListener<BulkByScrollResponse> refreshingListener() {
+        if (request.isRefresh() == false) {
+            return listener;
+        }
+        return ActionListener.wrap(response -> {
+            if (task.isCancelled()) {
+                listener.onResponse(response);
+                return;
+            }
+            client.admin().indices().refresh(new RefreshRequest(concreteIndices),
+                ActionListener.wrap(r -> listener.onResponse(response), listener::onFailure));
+        }, listener::onFailure);
+    }
+}
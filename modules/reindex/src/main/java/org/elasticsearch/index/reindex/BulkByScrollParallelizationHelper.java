@@ -8,6 +8,7 @@
 
 package org.elasticsearch.index.reindex;
 
+import org.elasticsearch.action.ActionListenerResponseHandler;
 import org.elasticsearch.action.ActionType;
 import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.admin.cluster.shards.ClusterSearchShardsRequest;
@@ -15,15 +16,22 @@ import org.elasticsearch.action.admin.cluster.shards.ClusterSearchShardsResponse
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.client.Client;
 import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.index.Index;
 import org.elasticsearch.index.mapper.IdFieldMapper;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.search.slice.SliceBuilder;
 import org.elasticsearch.tasks.TaskId;
+import org.elasticsearch.transport.TransportRequestOptions;
+import org.elasticsearch.transport.TransportService;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -45,7 +53,8 @@ class BulkByScrollParallelizationHelper {
      * slice and sent.
      *
      * If slices are set as {@code "auto"}, this class will resolve that to a specific number based on characteristics of the source
-     * indices. A request with {@code "auto"} slices may end up being sliced or unsliced.
+     * indices and the nodes holding them. A request with {@code "auto"} slices may end up being sliced or unsliced, and its slices are
+     * spread across the data nodes of the cluster unless it reindexes from a remote cluster.
      *
      * This method is equivalent to calling {@link #initTaskState} followed by {@link #executeSlicedAction}
      */
@@ -55,10 +64,11 @@ class BulkByScrollParallelizationHelper {
         ActionType<BulkByScrollResponse> action,
         ActionListener<BulkByScrollResponse> listener,
         Client client,
-        DiscoveryNode node,
+        ClusterService clusterService,
+        TransportService transportService,
         Runnable workerAction) {
         initTaskState(task, request, client, listener.delegateFailure(
-                (l, v) -> executeSlicedAction(task, request, action, l, client, node, workerAction)));
+                (l, v) -> executeSlicedAction(task, request, action, l, client, clusterService, transportService, workerAction)));
     }
 
     /**
@@ -77,10 +87,11 @@ class BulkByScrollParallelizationHelper {
         ActionType<BulkByScrollResponse> action,
         ActionListener<BulkByScrollResponse> listener,
         Client client,
-        DiscoveryNode node,
+        ClusterService clusterService,
+        TransportService transportService,
         Runnable workerAction) {
         if (task.isLeader()) {
-            sendSubRequests(client, action, node.getId(), task, request, listener);
+            sendSubRequests(client, clusterService, transportService, action, task, request, listener);
         } else if (task.isWorker()) {
             workerAction.run();
         } else {
@@ -106,7 +117,7 @@ class BulkByScrollParallelizationHelper {
             ClusterSearchShardsRequest shardsRequest = new ClusterSearchShardsRequest();
             shardsRequest.indices(request.getSearchRequest().indices());
             client.admin().cluster().searchShards(shardsRequest, listener.delegateFailure((l, response) -> {
-                setWorkerCount(request, task, countSlicesBasedOnShards(response));
+                setWorkerCount(request, task, countSlices(response));
                 l.onResponse(null);
             }));
         } else {
@@ -128,7 +139,12 @@ class BulkByScrollParallelizationHelper {
         }
     }
 
-    private static int countSlicesBasedOnShards(ClusterSearchShardsResponse response) {
+    /**
+     * Counts the slices based on the index with the fewest shards, since slicing a shard any further is slower than scrolling it in one
+     * go, and allows for at least one slice per node holding one of those shards on clusters with more nodes than
+     * {@link #AUTO_SLICE_CEILING}.
+     */
+    static int countSlices(ClusterSearchShardsResponse response) {
         Map<Index, Integer> countsByIndex = Arrays.stream(response.getGroups()).collect(Collectors.toMap(
             group -> group.getShardId().getIndex(),
             group -> 1,
@@ -136,30 +152,63 @@ class BulkByScrollParallelizationHelper {
         ));
         Set<Integer> counts = new HashSet<>(countsByIndex.values());
         int leastShards = counts.isEmpty() ? 1 : Collections.min(counts);
-        return Math.min(leastShards, AUTO_SLICE_CEILING);
+        return Math.min(leastShards, Math.max(AUTO_SLICE_CEILING, response.getNodes().length));
     }
 
     private static <Request extends AbstractBulkByScrollRequest<Request>> void sendSubRequests(
             Client client,
+            ClusterService clusterService,
+            TransportService transportService,
             ActionType<BulkByScrollResponse> action,
-            String localNodeId,
             BulkByScrollTask task,
             Request request,
             ActionListener<BulkByScrollResponse> listener) {
 
         LeaderBulkByScrollTaskState worker = task.getLeaderState();
         int totalSlices = worker.getSlices();
-        TaskId parentTaskId = new TaskId(localNodeId, task.getId());
+        DiscoveryNode localNode = clusterService.localNode();
+        TaskId parentTaskId = new TaskId(localNode.getId(), task.getId());
+        List<DiscoveryNode> sliceNodes = request.getSlices() == AbstractBulkByScrollRequest.AUTO_SLICES && isRemoteReindex(request) == false
+            ? sliceNodes(clusterService.state().nodes(), localNode)
+            : Collections.emptyList();
         for (final SearchRequest slice : sliceIntoSubRequests(request.getSearchRequest(), IdFieldMapper.NAME, totalSlices)) {
-            // TODO move the request to the correct node. maybe here or somehow do it as part of startup for reindex in general....
             Request requestForSlice = request.forSlice(parentTaskId, slice, totalSlices);
+            int sliceId = slice.source().slice().getId();
             ActionListener<BulkByScrollResponse> sliceListener = ActionListener.wrap(
-                    r -> worker.onSliceResponse(listener, slice.source().slice().getId(), r),
-                    e -> worker.onSliceFailure(listener, slice.source().slice().getId(), e));
-            client.execute(action, requestForSlice, sliceListener);
+                    r -> worker.onSliceResponse(listener, sliceId, r),
+                    e -> worker.onSliceFailure(listener, sliceId, e));
+            DiscoveryNode sliceNode = sliceNodes.isEmpty() ? localNode : sliceNodes.get(sliceId % sliceNodes.size());
+            if (sliceNode.equals(localNode)) {
+                client.execute(action, requestForSlice, sliceListener);
+            } else {
+                transportService.sendChildRequest(sliceNode, action.name(), requestForSlice, task, TransportRequestOptions.EMPTY,
+                    new ActionListenerResponseHandler<>(sliceListener, BulkByScrollResponse::new));
+            }
         }
     }
 
+    /**
+     * The data nodes to spread the slices of an automatically sliced request across, starting with the local node if it holds data.
+     * Nodes on an older version than the local node are left out as they may not understand all of the request's options.
+     */
+    static List<DiscoveryNode> sliceNodes(DiscoveryNodes discoveryNodes, DiscoveryNode localNode) {
+        List<DiscoveryNode> nodes = new ArrayList<>();
+        discoveryNodes.getDataNodes().valuesIt().forEachRemaining(node -> {
+            if (node.getVersion().onOrAfter(localNode.getVersion())) {
+                nodes.add(node);
+            }
+        });
+        nodes.sort(Comparator.comparing((DiscoveryNode node) -> node.equals(localNode) == false).thenComparing(DiscoveryNode::getId));
+        return nodes;
+    }
+
+    /**
+     * Slices of a reindex from a remote cluster stay on the local node since only it is known to be allowed to connect to the remote.
+     */
+    private static boolean isRemoteReindex(AbstractBulkByScrollRequest<?> request) {
+        return request instanceof ReindexRequest && ((ReindexRequest) request).getRemoteInfo() != null;
+    }
+
     /**
      * Slice a search request into {@code times} separate search requests slicing on {@code field}. Note that the slices are *shallow*
      * copies of this request so don't change them.
@@ -42,6 +42,7 @@ import org.elasticsearch.index.reindex.remote.RemoteScrollableHitSource;
 import org.elasticsearch.script.Script;
 import org.elasticsearch.script.ScriptService;
 import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportService;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -63,14 +64,16 @@ public class Reindexer {
     private static final Logger logger = LogManager.getLogger(Reindexer.class);
 
     private final ClusterService clusterService;
+    private final TransportService transportService;
     private final Client client;
     private final ThreadPool threadPool;
     private final ScriptService scriptService;
     private final ReindexSslConfig reindexSslConfig;
 
-    Reindexer(ClusterService clusterService, Client client, ThreadPool threadPool, ScriptService scriptService,
-              ReindexSslConfig reindexSslConfig) {
+    Reindexer(ClusterService clusterService, TransportService transportService, Client client, ThreadPool threadPool,
+              ScriptService scriptService, ReindexSslConfig reindexSslConfig) {
         this.clusterService = clusterService;
+        this.transportService = transportService;
         this.client = client;
         this.threadPool = threadPool;
         this.scriptService = scriptService;
@@ -83,7 +86,7 @@ public class Reindexer {
 
     public void execute(BulkByScrollTask task, ReindexRequest request, Client bulkClient, ActionListener<BulkByScrollResponse> listener) {
         BulkByScrollParallelizationHelper.executeSlicedAction(task, request, ReindexAction.INSTANCE, listener, client,
-            clusterService.localNode(),
+            clusterService, transportService,
             () -> {
                 ParentTaskAssigningClient assigningClient = new ParentTaskAssigningClient(client, clusterService.localNode(), task);
                 ParentTaskAssigningClient assigningBulkClient =
@@ -179,7 +182,7 @@ public class Reindexer {
                 assert sslConfig != null : "Reindex ssl config must be set";
                 RestClient restClient = buildRestClient(remoteInfo, sslConfig, task.getId(), createdThreads);
                 return new RemoteScrollableHitSource(logger, backoffPolicy, threadPool, worker::countSearchRetry,
-                    this::onScrollResponse, this::finishHim,
+                    this::onScrollResponse, this::onScrollFailure,
                     restClient, remoteInfo.getQuery(), mainRequest.getSearchRequest());
             }
             return super.buildScrollableResultSource(backoffPolicy);
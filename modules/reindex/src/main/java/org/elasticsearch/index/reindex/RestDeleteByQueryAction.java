@@ -62,6 +62,7 @@ public class RestDeleteByQueryAction extends AbstractBulkByQueryRestHandler<Dele
         consumers.put("max_docs", s -> setMaxDocsValidateIdentical(internal, ((Number) s).intValue()));
 
         parseInternalRequest(internal, request, namedWriteableRegistry, consumers);
+        internal.setShardLocal(request.paramAsBoolean("shard_local", internal.isShardLocal()));
 
         return internal;
     }
@@ -0,0 +1,23 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.reindex;
+
+import org.elasticsearch.action.ActionType;
+
+/**
+ * Deletes the documents of a single shard that match a query, on the node that holds the shard's primary.
+ */
+public class ShardDeleteByQueryAction extends ActionType<BulkByScrollResponse> {
+    public static final ShardDeleteByQueryAction INSTANCE = new ShardDeleteByQueryAction();
+    public static final String NAME = DeleteByQueryAction.NAME + "[s]";
+
+    private ShardDeleteByQueryAction() {
+        super(NAME, BulkByScrollResponse::new);
+    }
+}
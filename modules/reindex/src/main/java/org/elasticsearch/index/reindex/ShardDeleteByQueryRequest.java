@@ -0,0 +1,173 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.reindex;
+
+import org.elasticsearch.action.ActionRequest;
+import org.elasticsearch.action.ActionRequestValidationException;
+import org.elasticsearch.action.IndicesRequest;
+import org.elasticsearch.action.support.ActiveShardCount;
+import org.elasticsearch.action.support.IndicesOptions;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.index.query.QueryBuilder;
+import org.elasticsearch.index.seqno.SequenceNumbers;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.tasks.CancellableTask;
+import org.elasticsearch.tasks.Task;
+import org.elasticsearch.tasks.TaskId;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static org.elasticsearch.action.ValidateActions.addValidationError;
+
+/**
+ * Request to delete the documents of a single shard that match a query, see {@link ShardDeleteByQueryAction}.
+ */
+public class ShardDeleteByQueryRequest extends ActionRequest implements IndicesRequest {
+
+    private final ShardId shardId;
+    private final int sliceId;
+    private final QueryBuilder query;
+    private final int batchSize;
+    private final boolean abortOnVersionConflict;
+    private final TimeValue timeout;
+    private final ActiveShardCount waitForActiveShards;
+    private final long maxSeqNo;
+
+    /**
+     * @param shardId the shard to delete the matching documents from
+     * @param sliceId the position of the shard amongst the shards of the delete-by-query, reported as the slice id of the response
+     * @param request the delete-by-query request that this shard request is part of
+     */
+    public ShardDeleteByQueryRequest(ShardId shardId, int sliceId, DeleteByQueryRequest request) {
+        this.shardId = shardId;
+        this.sliceId = sliceId;
+        this.query = request.getSearchRequest().source().query();
+        this.batchSize = request.getBatchSize();
+        this.abortOnVersionConflict = request.isAbortOnVersionConflict();
+        this.timeout = request.getTimeout();
+        this.waitForActiveShards = request.getWaitForActiveShards();
+        this.maxSeqNo = SequenceNumbers.UNASSIGNED_SEQ_NO;
+    }
+
+    /**
+     * Creates a request to continue the given one on another copy of the shard, which only deletes the documents whose sequence number
+     * is at most the given one, like the copy that started the work.
+     */
+    ShardDeleteByQueryRequest(ShardDeleteByQueryRequest request, long maxSeqNo) {
+        this.shardId = request.shardId;
+        this.sliceId = request.sliceId;
+        this.query = request.query;
+        this.batchSize = request.batchSize;
+        this.abortOnVersionConflict = request.abortOnVersionConflict;
+        this.timeout = request.timeout;
+        this.waitForActiveShards = request.waitForActiveShards;
+        this.maxSeqNo = maxSeqNo;
+    }
+
+    public ShardDeleteByQueryRequest(StreamInput in) throws IOException {
+        super(in);
+        shardId = new ShardId(in);
+        sliceId = in.readVInt();
+        query = in.readNamedWriteable(QueryBuilder.class);
+        batchSize = in.readVInt();
+        abortOnVersionConflict = in.readBoolean();
+        timeout = in.readTimeValue();
+        waitForActiveShards = ActiveShardCount.readFrom(in);
+        maxSeqNo = in.readZLong();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        shardId.writeTo(out);
+        out.writeVInt(sliceId);
+        out.writeNamedWriteable(query);
+        out.writeVInt(batchSize);
+        out.writeBoolean(abortOnVersionConflict);
+        out.writeTimeValue(timeout);
+        waitForActiveShards.writeTo(out);
+        out.writeZLong(maxSeqNo);
+    }
+
+    @Override
+    public ActionRequestValidationException validate() {
+        ActionRequestValidationException e = null;
+        if (query == null) {
+            e = addValidationError("query is missing", e);
+        }
+        if (batchSize <= 0) {
+            e = addValidationError("batch size must be greater than 0 but was [" + batchSize + "]", e);
+        }
+        return e;
+    }
+
+    public ShardId getShardId() {
+        return shardId;
+    }
+
+    public int getSliceId() {
+        return sliceId;
+    }
+
+    public QueryBuilder getQuery() {
+        return query;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public boolean isAbortOnVersionConflict() {
+        return abortOnVersionConflict;
+    }
+
+    public TimeValue getTimeout() {
+        return timeout;
+    }
+
+    public ActiveShardCount getWaitForActiveShards() {
+        return waitForActiveShards;
+    }
+
+    /**
+     * @return the maximum sequence number of the documents to delete, which is the maximum sequence number of the shard when the work
+     *         on it started, or {@link SequenceNumbers#UNASSIGNED_SEQ_NO} if the work did not start yet
+     */
+    public long getMaxSeqNo() {
+        return maxSeqNo;
+    }
+
+    @Override
+    public String[] indices() {
+        return new String[] { shardId.getIndexName() };
+    }
+
+    @Override
+    public IndicesOptions indicesOptions() {
+        return IndicesOptions.strictSingleIndexNoExpandForbidClosed();
+    }
+
+    @Override
+    public Task createTask(long id, String type, String action, TaskId parentTaskId, Map<String, String> headers) {
+        return new CancellableTask(id, type, action, getDescription(), parentTaskId, headers);
+    }
+
+    @Override
+    public String getDescription() {
+        return "delete-by-query " + shardId + " [" + query + "]";
+    }
+
+    @Override
+    public String toString() {
+        return getDescription();
+    }
+}
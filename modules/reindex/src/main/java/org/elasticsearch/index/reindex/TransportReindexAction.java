@@ -53,7 +53,7 @@ public class TransportReindexAction extends HandledTransportAction<ReindexReques
         super(name, transportService, actionFilters, ReindexRequest::new);
         this.client = client;
         this.reindexValidator = new ReindexValidator(settings, clusterService, indexNameExpressionResolver, autoCreateIndex);
-        this.reindexer = new Reindexer(clusterService, client, threadPool, scriptService, sslConfig);
+        this.reindexer = new Reindexer(clusterService, transportService, client, threadPool, scriptService, sslConfig);
     }
 
     @Override
@@ -0,0 +1,381 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.reindex;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.util.Bits;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.ActionListenerResponseHandler;
+import org.elasticsearch.action.DocWriteResponse;
+import org.elasticsearch.action.NoShardAvailableActionException;
+import org.elasticsearch.action.bulk.BulkItemRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
+import org.elasticsearch.action.bulk.BulkShardRequest;
+import org.elasticsearch.action.bulk.BulkShardResponse;
+import org.elasticsearch.action.bulk.TransportShardBulkAction;
+import org.elasticsearch.action.delete.DeleteRequest;
+import org.elasticsearch.action.support.ActionFilters;
+import org.elasticsearch.action.support.HandledTransportAction;
+import org.elasticsearch.action.support.TransportActions;
+import org.elasticsearch.action.support.WriteRequest;
+import org.elasticsearch.client.Client;
+import org.elasticsearch.cluster.ClusterState;
+import org.elasticsearch.cluster.ClusterStateObserver;
+import org.elasticsearch.cluster.routing.IndexRoutingTable;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.inject.Inject;
+import org.elasticsearch.common.lucene.search.Queries;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.index.IndexService;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.engine.VersionConflictEngineException;
+import org.elasticsearch.index.fieldvisitor.FieldsVisitor;
+import org.elasticsearch.index.mapper.SeqNoFieldMapper;
+import org.elasticsearch.index.query.SearchExecutionContext;
+import org.elasticsearch.index.seqno.SequenceNumbers;
+import org.elasticsearch.index.shard.IndexShard;
+import org.elasticsearch.index.shard.IndexShardState;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.indices.IndicesService;
+import org.elasticsearch.node.NodeClosedException;
+import org.elasticsearch.tasks.CancellableTask;
+import org.elasticsearch.tasks.Task;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.elasticsearch.transport.TransportRequestOptions;
+import org.elasticsearch.transport.TransportService;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
+
+import static java.util.Collections.emptyMap;
+import static org.elasticsearch.core.TimeValue.timeValueNanos;
+
+/**
+ * Deletes the documents of a shard that match a query on the node that holds the shard's primary. The ids, sequence numbers and
+ * primary terms of the matching documents are read straight from a searcher of the shard, without loading their {@code _source} or
+ * sending them through a scroll, and are deleted in batches of conditional deletes. The deletes are applied to the primary's engine
+ * by the shard level bulk action, which assigns each of them a sequence number and records it in the translog, so that they are
+ * replicated and recovered like any other delete.
+ * <p>
+ * Every batch is read from a fresh searcher, after a refresh that makes the deletes of the previous batches visible, so that no searcher
+ * is held for the whole run. Only documents whose sequence number is not above the shard's maximum sequence number at the start of the
+ * run are deleted, which means that documents that were modified concurrently are not deleted, as with a scroll based delete-by-query.
+ * If the primary is relocated or fails over while the documents are deleted, the rest of the work is handed over to the new primary
+ * together with that maximum sequence number, so that the new primary does not delete documents indexed after the run started either.
+ * The refreshes and reads run on the generic thread pool rather than on the search thread pool, since they are part of a write.
+ * <p>
+ * Like the deletes of a scroll based delete-by-query, each delete leaves a tombstone in the version map of the primary and of the
+ * replicas until {@code index.gc_deletes} elapsed. The refresh before every batch lets the engine prune the expired tombstones, but
+ * deleting the documents without tombstones would need a range delete operation in the engine and the translog, which this action does
+ * not add.
+ */
+public class TransportShardDeleteByQueryAction extends HandledTransportAction<ShardDeleteByQueryRequest, BulkByScrollResponse> {
+
+    private static final Logger logger = LogManager.getLogger(TransportShardDeleteByQueryAction.class);
+
+    private final TransportService transportService;
+    private final ThreadPool threadPool;
+    private final ClusterService clusterService;
+    private final IndicesService indicesService;
+    private final Client client;
+
+    @Inject
+    public TransportShardDeleteByQueryAction(TransportService transportService, ActionFilters actionFilters, ThreadPool threadPool,
+                                             ClusterService clusterService, IndicesService indicesService, Client client) {
+        super(ShardDeleteByQueryAction.NAME, transportService, actionFilters, ShardDeleteByQueryRequest::new, ThreadPool.Names.GENERIC);
+        this.transportService = transportService;
+        this.threadPool = threadPool;
+        this.clusterService = clusterService;
+        this.indicesService = indicesService;
+        this.client = client;
+    }
+
+    @Override
+    protected void doExecute(Task task, ShardDeleteByQueryRequest request, ActionListener<BulkByScrollResponse> listener) {
+        new ShardDeleter((CancellableTask) task, request, listener).run();
+    }
+
+    /**
+     * Walks the documents of the shard that match the query and deletes them one batch at a time, so that at most one bulk request
+     * per shard is in flight.
+     */
+    private class ShardDeleter extends AbstractRunnable {
+        private final CancellableTask task;
+        private final ShardDeleteByQueryRequest request;
+        private final ActionListener<BulkByScrollResponse> listener;
+        private final long startTime = System.nanoTime();
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private final List<BulkItemResponse.Failure> failures = new ArrayList<>();
+        private final List<ScrollableHitSource.SearchFailure> searchFailures = new ArrayList<>();
+        // the last document that was read from each segment, segments are immutable so documents before it need not be read again
+        private final Map<Object, Integer> lastDocs = new HashMap<>();
+
+        private long maxSeqNo;
+        private long total;
+        private long deleted;
+        private long versionConflicts;
+        private int batches;
+
+        ShardDeleter(CancellableTask task, ShardDeleteByQueryRequest request, ActionListener<BulkByScrollResponse> listener) {
+            this.task = task;
+            this.request = request;
+            this.listener = listener;
+            this.maxSeqNo = request.getMaxSeqNo();
+        }
+
+        @Override
+        protected void doRun() throws Exception {
+            if (task.isCancelled()) {
+                finish(null);
+                return;
+            }
+            final IndexShard indexShard = localPrimary();
+            if (indexShard == null) {
+                handOver(new NoShardAvailableActionException(request.getShardId(), "primary shard is not active on this node"));
+                return;
+            }
+            if (maxSeqNo == SequenceNumbers.UNASSIGNED_SEQ_NO) {
+                maxSeqNo = indexShard.seqNoStats().getMaxSeqNo();
+            } else {
+                // make the deletes of the previous batch visible so they are not read again, including the deletes that were applied to
+                // this copy as a replica if the work was handed over from another primary
+                indexShard.refresh("delete_by_query");
+            }
+            final List<BulkItemRequest> items = nextBatch(indexShard);
+            if (items.isEmpty()) {
+                finish(null);
+                return;
+            }
+            batches++;
+            final BulkShardRequest bulkShardRequest = new BulkShardRequest(request.getShardId(), WriteRequest.RefreshPolicy.NONE,
+                items.toArray(new BulkItemRequest[0]));
+            bulkShardRequest.timeout(request.getTimeout());
+            bulkShardRequest.waitForActiveShards(request.getWaitForActiveShards());
+            bulkShardRequest.setParentTask(clusterService.localNode().getId(), task.getId());
+            client.execute(TransportShardBulkAction.TYPE, bulkShardRequest, new ActionListener<BulkShardResponse>() {
+                @Override
+                public void onResponse(BulkShardResponse response) {
+                    if (onBulkResponse(response)) {
+                        threadPool.generic().execute(ShardDeleter.this);
+                    } else {
+                        finish(null);
+                    }
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    finish(e);
+                }
+            });
+        }
+
+        /**
+         * @return the shard if this node holds its started primary, or {@code null} otherwise
+         */
+        private IndexShard localPrimary() {
+            final IndexService indexService = indicesService.indexService(request.getShardId().getIndex());
+            final IndexShard indexShard = indexService == null ? null : indexService.getShardOrNull(request.getShardId().id());
+            if (indexShard == null || indexShard.routingEntry().primary() == false || indexShard.state() != IndexShardState.STARTED
+                || indexShard.isRelocatedPrimary()) {
+                return null;
+            }
+            return indexShard;
+        }
+
+        /**
+         * Collects the next batch of conditional deletes, which only succeed if the documents were not modified since they were read.
+         */
+        private List<BulkItemRequest> nextBatch(IndexShard indexShard) throws IOException {
+            final List<BulkItemRequest> items = new ArrayList<>(request.getBatchSize());
+            final ShardId shardId = request.getShardId();
+            try (Engine.Searcher searcher = indexShard.acquireSearcher("delete_by_query")) {
+                final SearchExecutionContext context = indicesService.indexServiceSafe(shardId.getIndex())
+                    .newSearchExecutionContext(shardId.id(), 0, searcher, threadPool::absoluteTimeInMillis, null, emptyMap());
+                final Query query = new BooleanQuery.Builder()
+                    .add(context.toQuery(request.getQuery()).query(), BooleanClause.Occur.FILTER)
+                    .add(Queries.newNonNestedFilter(), BooleanClause.Occur.FILTER)
+                    .add(LongPoint.newRangeQuery(SeqNoFieldMapper.NAME, Long.MIN_VALUE, maxSeqNo), BooleanClause.Occur.FILTER)
+                    .build();
+                final Weight weight = searcher.createWeight(searcher.rewrite(query), ScoreMode.COMPLETE_NO_SCORES, 1f);
+                final FieldsVisitor fieldsVisitor = new FieldsVisitor(false);
+                for (LeafReaderContext leaf : searcher.getIndexReader().leaves()) {
+                    if (items.size() >= request.getBatchSize()) {
+                        break;
+                    }
+                    final Scorer scorer = weight.scorer(leaf);
+                    if (scorer == null) {
+                        continue;
+                    }
+                    final IndexReader.CacheHelper cacheHelper = leaf.reader().getCoreCacheHelper();
+                    final Object segmentKey = cacheHelper == null ? null : cacheHelper.getKey();
+                    final Integer lastDoc = segmentKey == null ? null : lastDocs.get(segmentKey);
+                    final DocIdSetIterator iterator = scorer.iterator();
+                    final Bits liveDocs = leaf.reader().getLiveDocs();
+                    final NumericDocValues seqNos = leaf.reader().getNumericDocValues(SeqNoFieldMapper.NAME);
+                    final NumericDocValues primaryTerms = leaf.reader().getNumericDocValues(SeqNoFieldMapper.PRIMARY_TERM_NAME);
+                    if (seqNos == null || primaryTerms == null) {
+                        throw new IllegalStateException("segment [" + leaf.ord + "] of " + shardId +
+                            " has no sequence numbers or primary terms");
+                    }
+                    int doc = lastDoc == null ? iterator.nextDoc() : iterator.advance(lastDoc + 1);
+                    for (; doc != DocIdSetIterator.NO_MORE_DOCS; doc = iterator.nextDoc()) {
+                        if (liveDocs != null && liveDocs.get(doc) == false) {
+                            continue;
+                        }
+                        if (seqNos.advanceExact(doc) == false || primaryTerms.advanceExact(doc) == false) {
+                            throw new IllegalStateException("document [" + doc + "] of " + shardId +
+                                " has no sequence number or primary term");
+                        }
+                        fieldsVisitor.reset();
+                        leaf.reader().document(doc, fieldsVisitor);
+                        final DeleteRequest delete = new DeleteRequest(shardId.getIndexName(), fieldsVisitor.id());
+                        delete.routing(fieldsVisitor.routing());
+                        delete.setIfSeqNo(seqNos.longValue());
+                        delete.setIfPrimaryTerm(primaryTerms.longValue());
+                        items.add(new BulkItemRequest(items.size(), delete));
+                        total++;
+                        if (segmentKey != null) {
+                            lastDocs.put(segmentKey, doc);
+                        }
+                        if (items.size() >= request.getBatchSize()) {
+                            break;
+                        }
+                    }
+                }
+            }
+            return items;
+        }
+
+        /**
+         * @return {@code true} if the next batch should be deleted
+         */
+        private boolean onBulkResponse(BulkShardResponse response) {
+            boolean carryOn = true;
+            for (BulkItemResponse item : response.getResponses()) {
+                if (item.isFailed()) {
+                    final BulkItemResponse.Failure failure = item.getFailure();
+                    if (failure.getCause() instanceof VersionConflictEngineException) {
+                        versionConflicts++;
+                        if (request.isAbortOnVersionConflict() == false) {
+                            continue;
+                        }
+                    }
+                    failures.add(failure);
+                    carryOn = false;
+                } else if (item.getResponse().getResult() == DocWriteResponse.Result.DELETED) {
+                    deleted++;
+                }
+            }
+            return carryOn;
+        }
+
+        @Override
+        public void onFailure(Exception e) {
+            if (TransportActions.isShardNotAvailableException(e)) {
+                handOver(e);
+            } else {
+                finish(e);
+            }
+        }
+
+        /**
+         * Hands the rest of the work over to the node that holds the primary once it is started, which is typically the target of a
+         * relocation of the primary, and adds the outcome of its work to the outcome of the work that was done on this node.
+         */
+        private void handOver(Exception cause) {
+            final String localNodeId = clusterService.localNode().getId();
+            final Predicate<ClusterState> primaryStarted = state -> {
+                final IndexRoutingTable indexRoutingTable = state.routingTable().index(request.getShardId().getIndex());
+                if (indexRoutingTable == null) {
+                    return false;
+                }
+                final ShardRouting primary = indexRoutingTable.shard(request.getShardId().id()).primaryShard();
+                return primary != null && primary.started() && state.nodes().nodeExists(primary.currentNodeId())
+                    && (localNodeId.equals(primary.currentNodeId()) == false || localPrimary() != null);
+            };
+            final ClusterStateObserver observer = new ClusterStateObserver(clusterService, request.getTimeout(), logger,
+                threadPool.getThreadContext());
+            final ClusterStateObserver.Listener onPrimaryStarted = new ClusterStateObserver.Listener() {
+                @Override
+                public void onNewClusterState(ClusterState state) {
+                    final ShardRouting primary = state.routingTable().shardRoutingTable(request.getShardId()).primaryShard();
+                    if (localNodeId.equals(primary.currentNodeId())) {
+                        threadPool.generic().execute(ShardDeleter.this);
+                        return;
+                    }
+                    logger.debug("[{}]: handing delete-by-query of {} over to node [{}]", task.getId(), request.getShardId(),
+                        primary.currentNodeId());
+                    // the new primary continues from the sequence number bound of this run rather than capturing its own
+                    final ShardDeleteByQueryRequest handedOverRequest = new ShardDeleteByQueryRequest(request, maxSeqNo);
+                    transportService.sendChildRequest(state.nodes().get(primary.currentNodeId()), ShardDeleteByQueryAction.NAME,
+                        handedOverRequest, task, TransportRequestOptions.EMPTY,
+                        new ActionListenerResponseHandler<>(ActionListener.wrap(response -> {
+                            final BulkByScrollTask.Status status = response.getStatus();
+                            total += status.getTotal();
+                            deleted += status.getDeleted();
+                            versionConflicts += status.getVersionConflicts();
+                            batches += status.getBatches();
+                            failures.addAll(response.getBulkFailures());
+                            searchFailures.addAll(response.getSearchFailures());
+                            finish(null);
+                        }, ShardDeleter.this::finish), BulkByScrollResponse::new));
+                }
+
+                @Override
+                public void onClusterServiceClose() {
+                    finish(new NodeClosedException(clusterService.localNode()));
+                }
+
+                @Override
+                public void onTimeout(TimeValue timeout) {
+                    finish(cause);
+                }
+            };
+            final ClusterState state = observer.setAndGetObservedState();
+            if (primaryStarted.test(state)) {
+                onPrimaryStarted.onNewClusterState(state);
+            } else {
+                observer.waitForNextChange(onPrimaryStarted, primaryStarted);
+            }
+        }
+
+        private void finish(Exception e) {
+            if (finished.compareAndSet(false, true) == false) {
+                return;
+            }
+            if (e != null) {
+                listener.onFailure(e);
+                return;
+            }
+            final BulkByScrollTask.Status status = new BulkByScrollTask.Status(request.getSliceId(), total, 0, 0, deleted, batches,
+                versionConflicts, 0, 0, 0, TimeValue.ZERO, Float.POSITIVE_INFINITY, task.getReasonCancelled(), TimeValue.ZERO);
+            listener.onResponse(new BulkByScrollResponse(timeValueNanos(System.nanoTime() - startTime), status, failures,
+                searchFailures, false));
+        }
+    }
+}
@@ -803,6 +803,81 @@ public class AsyncBulkByScrollActionTests extends ESTestCase {
         );
     }
 
+    /**
+     * Tests that up to {@code max_concurrent_bulks} bulk requests are in flight while the scroll requests are still sent one after the
+     * other, that the bulk requests are sent in scroll order and that the request only finishes once all bulk requests completed.
+     */
+    public void testMaxConcurrentBulksPipelinesScrolls() throws Exception {
+        testRequest.setMaxConcurrentBulks(2);
+        client.holdBulks = true;
+        DummyAsyncBulkByScrollAction action = new IndexingDummyAsyncBulkByScrollAction();
+        action.start();
+
+        client.lastSearch.get().listener.onResponse(searchResponse(scrollId(), "a"));
+        // the first bulk request is in flight so the next batch is fetched right away
+        assertBusy(() -> assertThat(client.heldBulks, hasSize(1)));
+        assertBusy(() -> assertEquals(1, client.scrollAttempts.get()));
+
+        client.lastScroll.get().listener.onResponse(searchResponse(scrollId(), "b"));
+        assertBusy(() -> assertThat(client.heldBulks, hasSize(2)));
+        // both allowed bulk requests are in flight so the next batch waits for one of them
+        assertEquals(1, client.scrollAttempts.get());
+        assertEquals("a", client.heldBulks.get(0).request.requests().get(0).id());
+        assertEquals("b", client.heldBulks.get(1).request.requests().get(0).id());
+
+        RequestAndListener<BulkRequest, BulkResponse> first = client.heldBulks.get(0);
+        first.listener.onResponse(client.bulkResponse(first.request));
+        assertBusy(() -> assertEquals(2, client.scrollAttempts.get()));
+
+        client.lastScroll.get().listener.onResponse(searchResponse(scrollId()));
+        // the scroll is exhausted but the request has to wait for the second bulk request
+        assertFalse(listener.isDone());
+
+        RequestAndListener<BulkRequest, BulkResponse> second = client.heldBulks.get(1);
+        second.listener.onResponse(client.bulkResponse(second.request));
+        BulkByScrollResponse response = listener.get(10, TimeUnit.SECONDS);
+        assertEquals(2, response.getCreated() + response.getUpdated());
+        assertEquals(2, response.getBatches());
+        assertThat(client.heldBulks, hasSize(2));
+        assertThat(client.scrollsCleared, contains(scrollId));
+    }
+
+    /**
+     * Tests that a bulk request failing while the next batch is fetched fails the request, but only clears the scroll once the scroll
+     * request in flight returned so that the scroll id it returns isn't leaked.
+     */
+    public void testBulkFailureWaitsForScrollInFlight() throws Exception {
+        testRequest.setMaxConcurrentBulks(2);
+        client.holdBulks = true;
+        DummyAsyncBulkByScrollAction action = new IndexingDummyAsyncBulkByScrollAction();
+        action.start();
+
+        client.lastSearch.get().listener.onResponse(searchResponse(scrollId(), "a"));
+        assertBusy(() -> assertThat(client.heldBulks, hasSize(1)));
+        assertBusy(() -> assertEquals(1, client.scrollAttempts.get()));
+
+        client.heldBulks.get(0).listener.onFailure(new RuntimeException("bulk failed"));
+        assertThat(client.scrollsCleared, empty());
+        assertFalse(listener.isDone());
+
+        client.lastScroll.get().listener.onResponse(searchResponse(scrollId(), "b"));
+        ExecutionException e = expectThrows(ExecutionException.class, () -> listener.get(10, TimeUnit.SECONDS));
+        assertThat(e.getCause(), hasToString(containsString("bulk failed")));
+        assertThat(client.scrollsCleared, contains(scrollId));
+        // the batch returned by the scroll isn't indexed anymore
+        assertThat(client.heldBulks, hasSize(1));
+    }
+
+    private SearchResponse searchResponse(String scrollId, String... ids) {
+        SearchHit[] hits = new SearchHit[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            hits[i] = new SearchHit(i, ids[i], emptyMap(), emptyMap()).sourceRef(new BytesArray("{}"));
+        }
+        InternalSearchResponse internalResponse = new InternalSearchResponse(
+            new SearchHits(hits, new TotalHits(ids.length, TotalHits.Relation.EQUAL_TO), 0), null, null, null, false, false, 1);
+        return new SearchResponse(internalResponse, scrollId, 5, 5, 0, randomLong(), null, SearchResponse.Clusters.EMPTY);
+    }
+
     private class DummyAsyncBulkByScrollAction
         extends AbstractAsyncBulkByScrollAction<DummyAbstractBulkByScrollRequest, DummyTransportAsyncBulkByScrollAction> {
         DummyAsyncBulkByScrollAction() {
@@ -816,6 +891,16 @@ public class AsyncBulkByScrollActionTests extends ESTestCase {
         }
     }
 
+    /**
+     * An extension to {@linkplain DummyAsyncBulkByScrollAction} that indexes every hit into the {@code test} index.
+     */
+    private class IndexingDummyAsyncBulkByScrollAction extends DummyAsyncBulkByScrollAction {
+        @Override
+        protected RequestWrapper<?> buildRequest(Hit doc) {
+            return wrap(new IndexRequest().index("test").id(doc.getId()));
+        }
+    }
+
     /**
      * An extension to {@linkplain DummyAsyncBulkByScrollAction} that uses a 0 delaying backoff policy.
      */
@@ -880,9 +965,15 @@ public class AsyncBulkByScrollActionTests extends ESTestCase {
          */
         private final Set<SearchScrollRequest> usedScolls = synchronizedSet(newSetFromMap(new IdentityHashMap<>()));
 
+        /**
+         * Bulk requests that weren't responded to yet because {@link #holdBulks} is set, in the order they were sent.
+         */
+        private final List<RequestAndListener<BulkRequest, BulkResponse>> heldBulks = Collections.synchronizedList(new ArrayList<>());
+
         private int bulksToReject = 0;
         private int searchesToReject = 0;
         private int scrollsToReject = 0;
+        private boolean holdBulks = false;
 
         MyMockClient(Client in) {
             super(in);
@@ -935,57 +1026,68 @@ public class AsyncBulkByScrollActionTests extends ESTestCase {
             }
             if (request instanceof BulkRequest) {
                 BulkRequest bulk = (BulkRequest) request;
-                int toReject;
-                if (bulksAttempts.incrementAndGet() > bulksToReject) {
-                    toReject = -1;
-                } else {
-                    toReject = randomIntBetween(0, bulk.requests().size() - 1);
-                }
-                BulkItemResponse[] responses = new BulkItemResponse[bulk.requests().size()];
-                for (int i = 0; i < bulk.requests().size(); i++) {
-                    DocWriteRequest<?> item = bulk.requests().get(i);
-                    DocWriteResponse response;
-                    ShardId shardId = new ShardId(new Index(item.index(), "uuid"), 0);
-                    if (item instanceof IndexRequest) {
-                        IndexRequest index = (IndexRequest) item;
-                        response =
-                            new IndexResponse(
-                                shardId,
-                                index.id() == null ? "dummy_id" : index.id(),
-                                randomInt(20),
-                                randomIntBetween(1, 16),
-                                randomIntBetween(0, Integer.MAX_VALUE),
-                                true);
-                    } else if (item instanceof UpdateRequest) {
-                        UpdateRequest update = (UpdateRequest) item;
-                        response = new UpdateResponse(shardId, update.id(), randomNonNegativeLong(),
-                            randomIntBetween(1, Integer.MAX_VALUE), randomIntBetween(0, Integer.MAX_VALUE), Result.CREATED);
-                    } else if (item instanceof DeleteRequest) {
-                        DeleteRequest delete = (DeleteRequest) item;
-                        response =
-                            new DeleteResponse(
-                                shardId,
-                                delete.id(),
-                                randomInt(20),
-                                randomIntBetween(1, 16),
-                                randomIntBetween(0, Integer.MAX_VALUE),
-                                true);
-                    } else {
-                        throw new RuntimeException("Unknown request:  " + item);
-                    }
-                    if (i == toReject) {
-                        responses[i] = new BulkItemResponse(i, item.opType(),
-                                new Failure(response.getIndex(), response.getId(), new EsRejectedExecutionException()));
-                    } else {
-                        responses[i] = new BulkItemResponse(i, item.opType(), response);
-                    }
+                if (holdBulks) {
+                    heldBulks.add(new RequestAndListener<>(bulk, (ActionListener<BulkResponse>) listener));
+                    return;
                 }
-                listener.onResponse((Response) new BulkResponse(responses, 1));
+                listener.onResponse((Response) bulkResponse(bulk));
                 return;
             }
             super.doExecute(action, request, listener);
         }
 
+        /**
+         * Builds a successful response to the bulk request, rejecting one of its items if {@link #bulksToReject} asks for it.
+         */
+        private BulkResponse bulkResponse(BulkRequest bulk) {
+            int toReject;
+            if (bulksAttempts.incrementAndGet() > bulksToReject) {
+                toReject = -1;
+            } else {
+                toReject = randomIntBetween(0, bulk.requests().size() - 1);
+            }
+            BulkItemResponse[] responses = new BulkItemResponse[bulk.requests().size()];
+            for (int i = 0; i < bulk.requests().size(); i++) {
+                DocWriteRequest<?> item = bulk.requests().get(i);
+                DocWriteResponse response;
+                ShardId shardId = new ShardId(new Index(item.index(), "uuid"), 0);
+                if (item instanceof IndexRequest) {
+                    IndexRequest index = (IndexRequest) item;
+                    response =
+                        new IndexResponse(
+                            shardId,
+                            index.id() == null ? "dummy_id" : index.id(),
+                            randomInt(20),
+                            randomIntBetween(1, 16),
+                            randomIntBetween(0, Integer.MAX_VALUE),
+                            true);
+                } else if (item instanceof UpdateRequest) {
+                    UpdateRequest update = (UpdateRequest) item;
+                    response = new UpdateResponse(shardId, update.id(), randomNonNegativeLong(),
+                        randomIntBetween(1, Integer.MAX_VALUE), randomIntBetween(0, Integer.MAX_VALUE), Result.CREATED);
+                } else if (item instanceof DeleteRequest) {
+                    DeleteRequest delete = (DeleteRequest) item;
+                    response =
+                        new DeleteResponse(
+                            shardId,
+                            delete.id(),
+                            randomInt(20),
+                            randomIntBetween(1, 16),
+                            randomIntBetween(0, Integer.MAX_VALUE),
+                            true);
+                } else {
+                    throw new RuntimeException("Unknown request:  " + item);
+                }
+                if (i == toReject) {
+                    responses[i] = new BulkItemResponse(i, item.opType(),
+                            new Failure(response.getIndex(), response.getId(), new EsRejectedExecutionException()));
+                } else {
+                    responses[i] = new BulkItemResponse(i, item.opType(), response);
+                }
+            }
+            return new BulkResponse(responses, 1);
+        }
+
         private Exception wrappedRejectedException() {
             Exception e = new EsRejectedExecutionException();
             int wraps = randomIntBetween(0, 4);
@@ -8,14 +8,28 @@
 
 package org.elasticsearch.index.reindex;
 
+import org.elasticsearch.Version;
+import org.elasticsearch.action.admin.cluster.shards.ClusterSearchShardsGroup;
+import org.elasticsearch.action.admin.cluster.shards.ClusterSearchShardsResponse;
 import org.elasticsearch.action.search.SearchRequest;
+import org.elasticsearch.cluster.node.DiscoveryNode;
+import org.elasticsearch.cluster.node.DiscoveryNodeRole;
+import org.elasticsearch.cluster.node.DiscoveryNodes;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.index.Index;
 import org.elasticsearch.index.mapper.IdFieldMapper;
+import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.search.builder.SearchSourceBuilder;
 import org.elasticsearch.test.ESTestCase;
 
 import java.io.IOException;
+import java.util.List;
+import java.util.Set;
 
 import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.emptySet;
+import static java.util.stream.Collectors.toList;
 import static org.elasticsearch.index.reindex.BulkByScrollParallelizationHelper.sliceIntoSubRequests;
 import static org.elasticsearch.search.RandomSearchRequestGenerator.randomSearchRequest;
 import static org.elasticsearch.search.RandomSearchRequestGenerator.randomSearchSourceBuilder;
@@ -51,4 +65,61 @@ public class BulkByScrollParallelizationHelperTests extends ESTestCase {
             currentSliceId++;
         }
     }
+
+    public void testCountSlices() {
+        assertEquals(1, BulkByScrollParallelizationHelper.countSlices(searchShardsResponse(new int[0], 3)));
+        assertEquals(3, BulkByScrollParallelizationHelper.countSlices(searchShardsResponse(new int[] { 5, 3 }, 3)));
+        assertEquals(BulkByScrollParallelizationHelper.AUTO_SLICE_CEILING,
+            BulkByScrollParallelizationHelper.countSlices(searchShardsResponse(new int[] { 50 }, 3)));
+        // large clusters get at least one slice per node holding the shards
+        assertEquals(40, BulkByScrollParallelizationHelper.countSlices(searchShardsResponse(new int[] { 50 }, 40)));
+        assertEquals(50, BulkByScrollParallelizationHelper.countSlices(searchShardsResponse(new int[] { 50 }, 60)));
+    }
+
+    public void testSliceNodes() {
+        DiscoveryNode local = dataNode("node-b", Version.CURRENT);
+        DiscoveryNodes nodes = DiscoveryNodes.builder()
+            .add(local)
+            .add(dataNode("node-c", Version.CURRENT))
+            .add(dataNode("node-a", Version.CURRENT))
+            .add(dataNode("node-old", Version.CURRENT.minimumCompatibilityVersion()))
+            .add(new DiscoveryNode("node-master", buildNewFakeTransportAddress(), emptyMap(),
+                Set.of(DiscoveryNodeRole.MASTER_ROLE), Version.CURRENT))
+            .localNodeId(local.getId())
+            .build();
+
+        // the local node comes first, followed by the other current data nodes in id order
+        List<DiscoveryNode> sliceNodes = BulkByScrollParallelizationHelper.sliceNodes(nodes, local);
+        assertEquals(List.of("node-b", "node-a", "node-c"), sliceNodes.stream().map(DiscoveryNode::getId).collect(toList()));
+
+        // a coordinating-only node hands every slice to the data nodes
+        DiscoveryNode coordinating = new DiscoveryNode("node-coordinating", buildNewFakeTransportAddress(), emptyMap(), emptySet(),
+            Version.CURRENT);
+        sliceNodes = BulkByScrollParallelizationHelper.sliceNodes(DiscoveryNodes.builder(nodes).add(coordinating).build(), coordinating);
+        assertEquals(List.of("node-a", "node-b", "node-c"), sliceNodes.stream().map(DiscoveryNode::getId).collect(toList()));
+    }
+
+    private static DiscoveryNode dataNode(String id, Version version) {
+        return new DiscoveryNode(id, buildNewFakeTransportAddress(), emptyMap(), Set.of(DiscoveryNodeRole.DATA_ROLE), version);
+    }
+
+    private static ClusterSearchShardsResponse searchShardsResponse(int[] shardsPerIndex, int nodeCount) {
+        int totalShards = 0;
+        for (int shards : shardsPerIndex) {
+            totalShards += shards;
+        }
+        ClusterSearchShardsGroup[] groups = new ClusterSearchShardsGroup[totalShards];
+        int group = 0;
+        for (int index = 0; index < shardsPerIndex.length; index++) {
+            for (int shard = 0; shard < shardsPerIndex[index]; shard++) {
+                groups[group++] = new ClusterSearchShardsGroup(new ShardId(new Index("index-" + index, "uuid-" + index), shard),
+                    new ShardRouting[0]);
+            }
+        }
+        DiscoveryNode[] nodes = new DiscoveryNode[nodeCount];
+        for (int node = 0; node < nodeCount; node++) {
+            nodes[node] = new DiscoveryNode("node-" + node, buildNewFakeTransportAddress(), Version.CURRENT);
+        }
+        return new ClusterSearchShardsResponse(groups, nodes, emptyMap());
+    }
 }
@@ -83,8 +83,10 @@ public class RoundTripTests extends ESTestCase {
     public void testDeleteByQueryRequest() throws IOException {
         DeleteByQueryRequest delete = new DeleteByQueryRequest();
         randomRequest(delete);
+        delete.setShardLocal(randomBoolean());
         DeleteByQueryRequest tripped = new DeleteByQueryRequest(toInputByteStream(delete));
         assertRequestEquals(delete, tripped);
+        assertEquals(delete.isShardLocal(), tripped.isShardLocal());
 
         // Try regular slices with a version that doesn't support slices=auto, which should succeed
         delete.setSlices(between(1, Integer.MAX_VALUE));
@@ -106,6 +108,7 @@ public class RoundTripTests extends ESTestCase {
 
         int slices = ReindexTestCase.randomSlices(1, Integer.MAX_VALUE);
         request.setSlices(slices);
+        request.setMaxConcurrentBulks(between(1, 10));
     }
 
     private void randomRequest(AbstractBulkIndexByScrollRequest<?> request) {
@@ -148,6 +151,7 @@ public class RoundTripTests extends ESTestCase {
         assertEquals(request.getRetryBackoffInitialTime(), tripped.getRetryBackoffInitialTime());
         assertEquals(request.getMaxRetries(), tripped.getMaxRetries());
         assertEquals(request.getRequestsPerSecond(), tripped.getRequestsPerSecond(), 0d);
+        assertEquals(request.getMaxConcurrentBulks(), tripped.getMaxConcurrentBulks());
     }
 
     public void testRethrottleRequest() throws IOException {
@@ -0,0 +1,127 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.reindex;
+
+import org.elasticsearch.action.ActionFuture;
+import org.elasticsearch.action.index.IndexRequestBuilder;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.cluster.routing.ShardRouting;
+import org.elasticsearch.cluster.routing.allocation.command.MoveAllocationCommand;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.core.TimeValue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.elasticsearch.index.query.QueryBuilders.termQuery;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertHitCount;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.equalTo;
+
+/**
+ * Tests for {@link DeleteByQueryRequest#isShardLocal() shard local} delete-by-query.
+ */
+public class ShardLocalDeleteByQueryTests extends ReindexTestCase {
+
+    public void testDeletesMatchingDocumentsOnAllCopies() throws Exception {
+        internalCluster().ensureAtLeastNumDataNodes(2);
+        createIndex("test", Settings.builder()
+            .put(IndexMetadata.SETTING_NUMBER_OF_SHARDS, between(1, 5))
+            .put(IndexMetadata.SETTING_NUMBER_OF_REPLICAS, 1)
+            .build());
+        ensureGreen("test");
+        final int numDocs = scaledRandomIntBetween(10, 500);
+        final int matching = indexDocs(numDocs);
+
+        final DeleteByQueryRequestBuilder request = shardLocalDeleteByQuery(between(1, 50));
+        assertThat(request.get(), matcher().deleted(matching));
+        assertHitCount(client().prepareSearch("test").setSize(0).get(), numDocs - matching);
+        assertHitCount(client().prepareSearch("test").setQuery(termQuery("foo", "a")).setSize(0).get(), 0);
+        internalCluster().assertSameDocIdsOnShards();
+    }
+
+    public void testDeletesNothingIfNoDocumentMatches() throws Exception {
+        createIndex("test");
+        final int numDocs = between(0, 20);
+        for (int i = 0; i < numDocs; i++) {
+            client().prepareIndex("test").setId(Integer.toString(i)).setSource("foo", "b").get();
+        }
+        refresh("test");
+
+        assertThat(shardLocalDeleteByQuery(between(1, 10)).get(), matcher().deleted(0));
+        assertHitCount(client().prepareSearch("test").setSize(0).get(), numDocs);
+    }
+
+    public void testDeletesAllMatchingDocumentsWhilePrimaryRelocates() throws Exception {
+        final List<String> nodes = internalCluster().startDataOnlyNodes(2);
+        createIndex("test", Settings.builder()
+            .put(IndexMetadata.SETTING_NUMBER_OF_SHARDS, 1)
+            .put(IndexMetadata.SETTING_NUMBER_OF_REPLICAS, 0)
+            .put(IndexMetadata.INDEX_ROUTING_INCLUDE_GROUP_PREFIX + "._name", nodes.get(0))
+            .build());
+        ensureGreen("test");
+        final int numDocs = scaledRandomIntBetween(200, 2000);
+        final int matching = indexDocs(numDocs);
+
+        final ActionFuture<BulkByScrollResponse> future = shardLocalDeleteByQuery(between(1, 10)).execute();
+        // once the first deletes are visible the run captured its sequence number bound, which the new primary must keep using
+        assertBusy(() -> {
+            refresh("test");
+            assertThat(future.isDone() || client().prepareSearch("test").setQuery(termQuery("foo", "a")).setSize(0).get()
+                .getHits().getTotalHits().value < matching, equalTo(true));
+        });
+        final int late = between(1, 20);
+        for (int i = 0; i < late; i++) {
+            client().prepareIndex("test").setId("late-" + i).setSource("foo", "a").get();
+        }
+        client().admin().indices().prepareUpdateSettings("test")
+            .setSettings(Settings.builder().put(IndexMetadata.INDEX_ROUTING_INCLUDE_GROUP_PREFIX + "._name", nodes.get(1)))
+            .get();
+        client().admin().cluster().prepareReroute().add(new MoveAllocationCommand("test", 0, nodes.get(0), nodes.get(1))).get();
+
+        final BulkByScrollResponse response = future.actionGet(TimeValue.timeValueSeconds(30));
+        assertThat(response.getBulkFailures(), empty());
+        assertThat(response.getSearchFailures(), empty());
+        ensureGreen("test");
+        final ShardRouting primary = clusterService().state().routingTable().index("test").shard(0).primaryShard();
+        assertThat(clusterService().state().nodes().get(primary.currentNodeId()).getName(), equalTo(nodes.get(1)));
+
+        refresh("test");
+        assertHitCount(client().prepareSearch("test").setQuery(termQuery("foo", "a")).setSize(0).get(), late);
+        assertHitCount(client().prepareSearch("test").setSize(0).get(), numDocs - matching + late);
+        assertThat(response.getDeleted(), equalTo((long) matching));
+        assertThat(response.getTotal(), equalTo((long) matching));
+    }
+
+    private DeleteByQueryRequestBuilder shardLocalDeleteByQuery(int batchSize) {
+        final DeleteByQueryRequestBuilder request = deleteByQuery().source("test").filter(termQuery("foo", "a")).refresh(true);
+        request.source().setSize(batchSize);
+        request.request().setShardLocal(true);
+        return request;
+    }
+
+    /**
+     * Indexes documents of which a random subset matches {@code foo:a}.
+     *
+     * @return the number of matching documents
+     */
+    private int indexDocs(int numDocs) throws InterruptedException {
+        final List<IndexRequestBuilder> docs = new ArrayList<>(numDocs);
+        int matching = 0;
+        for (int i = 0; i < numDocs; i++) {
+            final boolean match = randomBoolean();
+            if (match) {
+                matching++;
+            }
+            docs.add(client().prepareIndex("test").setId(Integer.toString(i)).setSource("foo", match ? "a" : "b"));
+        }
+        indexRandom(true, docs);
+        return matching;
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.http.netty4;
+
+import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpObjectAggregator;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpUtil;
+import io.netty.handler.codec.http.LastHttpContent;
+
+import java.util.function.Predicate;
+
+/**
+ * A {@link HttpObjectAggregator} that lets the requests whose content is streamed to the REST layer, see
+ * {@link Netty4HttpRequestBodyStream}, and their content pass through instead of aggregating them.
+ */
+class Netty4HttpAggregator extends HttpObjectAggregator {
+
+    private final Predicate<String> streamContent;
+    private boolean streaming;
+
+    Netty4HttpAggregator(int maxContentLength, Predicate<String> streamContent) {
+        super(maxContentLength);
+        this.streamContent = streamContent;
+    }
+
+    @Override
+    public boolean acceptInboundMessage(Object msg) throws Exception {
+        if (msg instanceof HttpRequest && msg instanceof FullHttpRequest == false) {
+            final HttpRequest request = (HttpRequest) msg;
+            streaming = request.decoderResult().isSuccess()
+                && HttpUtil.is100ContinueExpected(request) == false
+                && streamContent.test(request.uri());
+        }
+        if (streaming) {
+            if (msg instanceof LastHttpContent) {
+                streaming = false;
+            }
+            return false;
+        }
+        return super.acceptInboundMessage(msg);
+    }
+}
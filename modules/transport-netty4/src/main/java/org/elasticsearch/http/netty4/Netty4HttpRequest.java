@@ -12,6 +12,7 @@ import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.handler.codec.http.DefaultFullHttpRequest;
 import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.EmptyHttpHeaders;
 import io.netty.handler.codec.http.FullHttpRequest;
 import io.netty.handler.codec.http.HttpHeaderNames;
 import io.netty.handler.codec.http.HttpHeaders;
@@ -19,7 +20,9 @@ import io.netty.handler.codec.http.HttpMethod;
 import io.netty.handler.codec.http.cookie.Cookie;
 import io.netty.handler.codec.http.cookie.ServerCookieDecoder;
 import io.netty.handler.codec.http.cookie.ServerCookieEncoder;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.http.HttpContentStream;
 import org.elasticsearch.http.HttpRequest;
 import org.elasticsearch.rest.RestRequest;
 import org.elasticsearch.rest.RestStatus;
@@ -42,6 +45,7 @@ public class Netty4HttpRequest implements HttpRequest {
     private final AtomicBoolean released;
     private final Exception inboundException;
     private final boolean pooled;
+    private final Netty4HttpRequestBodyStream contentStream;
 
     Netty4HttpRequest(FullHttpRequest request) {
         this(request, new HttpHeadersMap(request.headers()), new AtomicBoolean(false), true,
@@ -50,22 +54,32 @@ public class Netty4HttpRequest implements HttpRequest {
 
     Netty4HttpRequest(FullHttpRequest request, Exception inboundException) {
         this(request, new HttpHeadersMap(request.headers()), new AtomicBoolean(false), true,
-            Netty4Utils.toBytesReference(request.content()), inboundException);
+            Netty4Utils.toBytesReference(request.content()), inboundException, null);
+    }
+
+    /**
+     * Creates a request whose content is not aggregated but passed on through the given stream as it is received.
+     */
+    Netty4HttpRequest(io.netty.handler.codec.http.HttpRequest request, Netty4HttpRequestBodyStream contentStream) {
+        this(new DefaultFullHttpRequest(request.protocolVersion(), request.method(), request.uri(), Unpooled.EMPTY_BUFFER,
+                request.headers(), EmptyHttpHeaders.INSTANCE),
+            new HttpHeadersMap(request.headers()), new AtomicBoolean(false), false, BytesArray.EMPTY, null, contentStream);
     }
 
     private Netty4HttpRequest(FullHttpRequest request, HttpHeadersMap headers, AtomicBoolean released, boolean pooled,
                               BytesReference content) {
-        this(request, headers, released, pooled, content, null);
+        this(request, headers, released, pooled, content, null, null);
     }
 
     private Netty4HttpRequest(FullHttpRequest request, HttpHeadersMap headers, AtomicBoolean released, boolean pooled,
-                              BytesReference content, Exception inboundException) {
+                              BytesReference content, Exception inboundException, Netty4HttpRequestBodyStream contentStream) {
         this.request = request;
         this.headers = headers;
         this.content = content;
         this.pooled = pooled;
         this.released = released;
         this.inboundException = inboundException;
+        this.contentStream = contentStream;
     }
 
     @Override
@@ -117,11 +131,19 @@ public class Netty4HttpRequest implements HttpRequest {
         return content;
     }
 
+    @Override
+    public HttpContentStream contentStream() {
+        return contentStream;
+    }
+
     @Override
     public void release() {
         if (pooled && released.compareAndSet(false, true)) {
             request.release();
         }
+        if (contentStream != null) {
+            contentStream.discard();
+        }
     }
 
     @Override
@@ -180,7 +202,7 @@ public class Netty4HttpRequest implements HttpRequest {
         FullHttpRequest requestWithoutHeader = new DefaultFullHttpRequest(request.protocolVersion(), request.method(), request.uri(),
             request.content(), headersWithoutContentTypeHeader, trailingHeaders);
         return new Netty4HttpRequest(requestWithoutHeader, new HttpHeadersMap(requestWithoutHeader.headers()), released,
-            pooled, content);
+            pooled, content, null, contentStream);
     }
 
     @Override
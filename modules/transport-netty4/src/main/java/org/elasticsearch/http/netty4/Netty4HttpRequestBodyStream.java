@@ -0,0 +1,138 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.http.netty4;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.Channel;
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.http.HttpContentStream;
+import org.elasticsearch.rest.RestStatus;
+import org.elasticsearch.transport.netty4.Netty4Utils;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+
+/**
+ * A {@link HttpContentStream} on top of the content of a Netty request. Reading from the channel is paused while the request is streamed
+ * and the channel is only read from when the handler asked for the next chunk and no chunk is queued. All state is only accessed on the
+ * event loop of the channel. The content is limited to {@code http.max_content_length} like the content of aggregated requests.
+ */
+class Netty4HttpRequestBodyStream implements HttpContentStream {
+
+    private final Channel channel;
+    private final int maxContentLength;
+    private final Queue<ReleasableBytesReference> chunks = new ArrayDeque<>();
+    private volatile ChunkHandler handler;
+    private boolean requested;
+    private boolean lastReceived;
+    private boolean done;
+    private Exception failure;
+    private long receivedBytes;
+
+    Netty4HttpRequestBodyStream(Channel channel, int maxContentLength) {
+        assert channel.eventLoop().inEventLoop();
+        this.channel = channel;
+        this.maxContentLength = maxContentLength;
+        channel.config().setAutoRead(false);
+    }
+
+    @Override
+    public void setHandler(ChunkHandler handler) {
+        assert this.handler == null : "handler is already set";
+        this.handler = handler;
+    }
+
+    @Override
+    public void next() {
+        assert handler != null : "handler must be set before requesting chunks";
+        channel.eventLoop().execute(() -> {
+            assert requested == false : "the previous chunk was not delivered yet";
+            requested = true;
+            maybeDeliver();
+        });
+    }
+
+    @Override
+    public void discard() {
+        channel.eventLoop().execute(() -> {
+            if (done == false) {
+                done = true;
+                releaseQueuedChunks();
+                channel.config().setAutoRead(true);
+            }
+        });
+    }
+
+    /**
+     * Queues a chunk of the content, taking over the responsibility of releasing it.
+     */
+    void handleChunk(ByteBuf buf, boolean isLast) {
+        assert channel.eventLoop().inEventLoop();
+        if (done || failure != null) {
+            buf.release();
+            return;
+        }
+        receivedBytes += buf.readableBytes();
+        if (receivedBytes > maxContentLength) {
+            buf.release();
+            releaseQueuedChunks();
+            // drop the rest of the content as it is received, the handler is told once it asks for the next chunk
+            channel.config().setAutoRead(true);
+            handleFailure(new ElasticsearchStatusException("request content exceeds the maximum content length of [{}] bytes",
+                RestStatus.REQUEST_ENTITY_TOO_LARGE, maxContentLength));
+            return;
+        }
+        chunks.add(new ReleasableBytesReference(Netty4Utils.toBytesReference(buf), buf::release));
+        if (isLast) {
+            lastReceived = true;
+            channel.config().setAutoRead(true);
+        }
+        maybeDeliver();
+    }
+
+    /**
+     * Fails the stream if the rest of the content can not be received anymore.
+     */
+    void handleFailure(Exception e) {
+        assert channel.eventLoop().inEventLoop();
+        if (done == false && lastReceived == false && failure == null) {
+            failure = e;
+            maybeDeliver();
+        }
+    }
+
+    private void maybeDeliver() {
+        if (done || requested == false) {
+            return;
+        }
+        final ReleasableBytesReference chunk = chunks.poll();
+        if (chunk != null) {
+            requested = false;
+            final boolean isLast = lastReceived && chunks.isEmpty();
+            if (isLast) {
+                done = true;
+            }
+            handler.onNext(chunk, isLast);
+        } else if (failure != null) {
+            requested = false;
+            done = true;
+            handler.onFailure(failure);
+        } else if (lastReceived == false) {
+            channel.read();
+        }
+    }
+
+    private void releaseQueuedChunks() {
+        ReleasableBytesReference chunk;
+        while ((chunk = chunks.poll()) != null) {
+            chunk.close();
+        }
+    }
+}
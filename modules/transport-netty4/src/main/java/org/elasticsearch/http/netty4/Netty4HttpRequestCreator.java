@@ -12,27 +12,84 @@ import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToMessageDecoder;
 import io.netty.handler.codec.http.FullHttpRequest;
+import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpObject;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.util.AttributeKey;
+import io.netty.util.ReferenceCountUtil;
 import org.elasticsearch.ExceptionsHelper;
 
+import java.nio.channels.ClosedChannelException;
 import java.util.List;
 
 @ChannelHandler.Sharable
-class Netty4HttpRequestCreator extends MessageToMessageDecoder<FullHttpRequest> {
+class Netty4HttpRequestCreator extends MessageToMessageDecoder<HttpObject> {
+
+    private static final AttributeKey<Netty4HttpRequestBodyStream> BODY_STREAM_KEY = AttributeKey.newInstance("es-http-body-stream");
+
+    private final int maxContentLength;
+
+    Netty4HttpRequestCreator(int maxContentLength) {
+        this.maxContentLength = maxContentLength;
+    }
 
     @Override
-    protected void decode(ChannelHandlerContext ctx, FullHttpRequest msg, List<Object> out) {
-        if (msg.decoderResult().isFailure()) {
-            final Throwable cause = msg.decoderResult().cause();
-            final Exception nonError;
-            if (cause instanceof Error) {
-                ExceptionsHelper.maybeDieOnAnotherThread(cause);
-                nonError = new Exception(cause);
+    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
+        if (msg instanceof HttpContent && msg instanceof HttpRequest == false && ctx.channel().attr(BODY_STREAM_KEY).get() == null) {
+            // the rest of the content of a streamed request whose stream already failed, for instance on a decoding failure
+            ReferenceCountUtil.release(msg);
+            return;
+        }
+        super.channelRead(ctx, msg);
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, HttpObject msg, List<Object> out) {
+        if (msg instanceof FullHttpRequest) {
+            final FullHttpRequest request = (FullHttpRequest) msg;
+            if (request.decoderResult().isFailure()) {
+                out.add(new Netty4HttpRequest(request.retain(), toException(request.decoderResult().cause())));
             } else {
-                nonError = (Exception) cause;
+                out.add(new Netty4HttpRequest(request.retain()));
             }
-            out.add(new Netty4HttpRequest(msg.retain(), nonError));
+        } else if (msg instanceof HttpRequest) {
+            // the aggregator passed the request on without its content, which is streamed to the REST layer as it is received
+            final Netty4HttpRequestBodyStream stream = new Netty4HttpRequestBodyStream(ctx.channel(), maxContentLength);
+            ctx.channel().attr(BODY_STREAM_KEY).set(stream);
+            out.add(new Netty4HttpRequest((HttpRequest) msg, stream));
+        } else if (msg instanceof HttpContent) {
+            final HttpContent content = (HttpContent) msg;
+            final Netty4HttpRequestBodyStream stream = ctx.channel().attr(BODY_STREAM_KEY).get();
+            assert stream != null : "content of a request that is not streamed is released in channelRead";
+            if (content.decoderResult().isFailure()) {
+                ctx.channel().attr(BODY_STREAM_KEY).set(null);
+                stream.handleFailure(toException(content.decoderResult().cause()));
+            } else {
+                final boolean isLast = content instanceof LastHttpContent;
+                if (isLast) {
+                    ctx.channel().attr(BODY_STREAM_KEY).set(null);
+                }
+                stream.handleChunk(content.content().retain(), isLast);
+            }
+        }
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception {
+        final Netty4HttpRequestBodyStream stream = ctx.channel().attr(BODY_STREAM_KEY).getAndSet(null);
+        if (stream != null) {
+            stream.handleFailure(new ClosedChannelException());
+        }
+        super.channelInactive(ctx);
+    }
+
+    private static Exception toException(Throwable cause) {
+        if (cause instanceof Error) {
+            ExceptionsHelper.maybeDieOnAnotherThread(cause);
+            return new Exception(cause);
         } else {
-            out.add(new Netty4HttpRequest(msg.retain()));
+            return (Exception) cause;
         }
     }
 }
@@ -0,0 +1,233 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.http.netty4;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.http.DefaultHttpContent;
+import io.netty.handler.codec.http.DefaultHttpRequest;
+import io.netty.handler.codec.DecoderResult;
+import io.netty.handler.codec.http.DefaultLastHttpContent;
+import io.netty.handler.codec.http.HttpMethod;
+import io.netty.handler.codec.http.LastHttpContent;
+import org.elasticsearch.ElasticsearchStatusException;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.http.HttpContentStream;
+import org.elasticsearch.rest.RestStatus;
+import org.elasticsearch.test.ESTestCase;
+
+import java.nio.channels.ClosedChannelException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.netty.handler.codec.http.HttpVersion.HTTP_1_1;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+
+public class Netty4HttpRequestBodyStreamTests extends ESTestCase {
+
+    private EmbeddedChannel newChannel() {
+        return new EmbeddedChannel(new Netty4HttpAggregator(1024, uri -> uri.endsWith("/_bulk")), new Netty4HttpRequestCreator(1024));
+    }
+
+    public void testRequestsThatAreNotStreamedAreAggregated() {
+        final EmbeddedChannel channel = newChannel();
+        channel.writeInbound(new DefaultHttpRequest(HTTP_1_1, HttpMethod.POST, "/_search"));
+        channel.writeInbound(new DefaultLastHttpContent(buffer("{}")));
+        final Netty4HttpRequest request = channel.readInbound();
+        assertNull(request.contentStream());
+        assertThat(request.content().utf8ToString(), equalTo("{}"));
+        assertTrue(channel.config().isAutoRead());
+        request.release();
+        assertFalse(channel.finish());
+    }
+
+    public void testContentIsDeliveredWhenRequested() {
+        final EmbeddedChannel channel = newChannel();
+        channel.writeInbound(new DefaultHttpRequest(HTTP_1_1, HttpMethod.POST, "/_bulk?refresh=true"));
+        final Netty4HttpRequest request = channel.readInbound();
+        assertThat(request.uri(), equalTo("/_bulk?refresh=true"));
+        assertThat(request.content().length(), equalTo(0));
+        final HttpContentStream stream = request.contentStream();
+        assertNotNull(stream);
+        assertFalse(channel.config().isAutoRead());
+
+        final List<String> received = new ArrayList<>();
+        final List<Boolean> isLast = new ArrayList<>();
+        stream.setHandler(new HttpContentStream.ChunkHandler() {
+            @Override
+            public void onNext(ReleasableBytesReference chunk, boolean last) {
+                received.add(chunk.utf8ToString());
+                isLast.add(last);
+                chunk.close();
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                throw new AssertionError(e);
+            }
+        });
+
+        final int numChunks = randomIntBetween(1, 10);
+        final List<String> expected = new ArrayList<>();
+        for (int i = 0; i < numChunks; i++) {
+            final String chunk = randomAlphaOfLength(randomIntBetween(1, 100));
+            expected.add(chunk);
+            channel.writeInbound(new DefaultHttpContent(buffer(chunk)));
+        }
+        assertTrue("content must only be delivered when requested", received.isEmpty());
+        expected.add("");
+        channel.writeInbound(LastHttpContent.EMPTY_LAST_CONTENT);
+        assertTrue(channel.config().isAutoRead());
+
+        for (int i = 0; i < expected.size(); i++) {
+            stream.next();
+            channel.runPendingTasks();
+            assertThat(received.size(), equalTo(i + 1));
+        }
+        assertThat(received, equalTo(expected));
+        for (int i = 0; i < isLast.size(); i++) {
+            assertThat(isLast.get(i), equalTo(i == isLast.size() - 1));
+        }
+        assertNull("no request was passed on besides the streamed one", channel.readInbound());
+        assertFalse(channel.finish());
+    }
+
+    public void testDiscardReleasesQueuedContent() {
+        final EmbeddedChannel channel = newChannel();
+        channel.writeInbound(new DefaultHttpRequest(HTTP_1_1, HttpMethod.POST, "/_bulk"));
+        final Netty4HttpRequest request = channel.readInbound();
+        request.contentStream().setHandler(new HttpContentStream.ChunkHandler() {
+            @Override
+            public void onNext(ReleasableBytesReference chunk, boolean isLast) {
+                throw new AssertionError("content was discarded");
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                throw new AssertionError(e);
+            }
+        });
+        final ByteBuf queued = buffer("queued");
+        channel.writeInbound(new DefaultHttpContent(queued));
+        request.release();
+        channel.runPendingTasks();
+        assertThat(queued.refCnt(), equalTo(0));
+        assertTrue(channel.config().isAutoRead());
+
+        final ByteBuf dropped = buffer("dropped");
+        channel.writeInbound(new DefaultLastHttpContent(dropped));
+        assertThat(dropped.refCnt(), equalTo(0));
+        assertFalse(channel.finish());
+    }
+
+    public void testFailureIsDeliveredWhenChannelCloses() {
+        final EmbeddedChannel channel = newChannel();
+        channel.writeInbound(new DefaultHttpRequest(HTTP_1_1, HttpMethod.POST, "/_bulk"));
+        final Netty4HttpRequest request = channel.readInbound();
+        final List<Exception> failures = new ArrayList<>();
+        request.contentStream().setHandler(new HttpContentStream.ChunkHandler() {
+            @Override
+            public void onNext(ReleasableBytesReference chunk, boolean isLast) {
+                assertFalse(isLast);
+                chunk.close();
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                failures.add(e);
+            }
+        });
+        channel.writeInbound(new DefaultHttpContent(buffer("partial")));
+        request.contentStream().next();
+        channel.runPendingTasks();
+        request.contentStream().next();
+        channel.runPendingTasks();
+        assertTrue(failures.isEmpty());
+        channel.close();
+        channel.runPendingTasks();
+        assertThat(failures.size(), equalTo(1));
+        assertThat(failures.get(0), instanceOf(ClosedChannelException.class));
+        request.release();
+    }
+
+    public void testContentLongerThanMaxContentLengthFailsStream() {
+        final EmbeddedChannel channel = newChannel();
+        channel.writeInbound(new DefaultHttpRequest(HTTP_1_1, HttpMethod.POST, "/_bulk"));
+        final Netty4HttpRequest request = channel.readInbound();
+        final List<Exception> failures = new ArrayList<>();
+        request.contentStream().setHandler(new HttpContentStream.ChunkHandler() {
+            @Override
+            public void onNext(ReleasableBytesReference chunk, boolean isLast) {
+                throw new AssertionError("content exceeded the maximum content length");
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                failures.add(e);
+            }
+        });
+        final ByteBuf queued = buffer(randomAlphaOfLength(1000));
+        channel.writeInbound(new DefaultHttpContent(queued));
+        final ByteBuf tooLong = buffer(randomAlphaOfLength(100));
+        channel.writeInbound(new DefaultHttpContent(tooLong));
+        assertThat(queued.refCnt(), equalTo(0));
+        assertThat(tooLong.refCnt(), equalTo(0));
+        assertTrue(channel.config().isAutoRead());
+
+        final ByteBuf dropped = buffer("dropped");
+        channel.writeInbound(new DefaultLastHttpContent(dropped));
+        assertThat(dropped.refCnt(), equalTo(0));
+
+        request.contentStream().next();
+        channel.runPendingTasks();
+        assertThat(failures.size(), equalTo(1));
+        assertThat(failures.get(0), instanceOf(ElasticsearchStatusException.class));
+        assertThat(((ElasticsearchStatusException) failures.get(0)).status(), equalTo(RestStatus.REQUEST_ENTITY_TOO_LARGE));
+        request.release();
+        assertFalse(channel.finish());
+    }
+
+    public void testContentAfterDecodingFailureIsReleased() {
+        final EmbeddedChannel channel = newChannel();
+        channel.writeInbound(new DefaultHttpRequest(HTTP_1_1, HttpMethod.POST, "/_bulk"));
+        final Netty4HttpRequest request = channel.readInbound();
+        final List<Exception> failures = new ArrayList<>();
+        request.contentStream().setHandler(new HttpContentStream.ChunkHandler() {
+            @Override
+            public void onNext(ReleasableBytesReference chunk, boolean isLast) {
+                throw new AssertionError("content failed to decode");
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                failures.add(e);
+            }
+        });
+        final DefaultHttpContent invalid = new DefaultHttpContent(buffer("invalid"));
+        invalid.setDecoderResult(DecoderResult.failure(new IllegalArgumentException("invalid chunk")));
+        channel.writeInbound(invalid);
+        request.contentStream().next();
+        channel.runPendingTasks();
+        assertThat(failures.size(), equalTo(1));
+        assertThat(failures.get(0), instanceOf(IllegalArgumentException.class));
+
+        final ByteBuf dropped = buffer("dropped");
+        channel.writeInbound(new DefaultLastHttpContent(dropped));
+        assertThat(dropped.refCnt(), equalTo(0));
+        request.release();
+        assertFalse(channel.finish());
+    }
+
+    private static ByteBuf buffer(String content) {
+        return Unpooled.copiedBuffer(content, StandardCharsets.UTF_8);
+    }
+}
@@ -10,6 +10,7 @@ package org.elasticsearch.repositories.s3;
 
 import com.amazonaws.AmazonClientException;
 import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.AmazonS3Exception;
 import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
 import com.amazonaws.services.s3.model.DeleteObjectsRequest;
 import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
@@ -27,8 +28,15 @@ import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.message.ParameterizedMessage;
 import org.apache.lucene.util.SetOnce;
 import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.ActionRunnable;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.io.Streams;
+import org.elasticsearch.common.io.stream.ReleasableBytesStreamOutput;
+import org.elasticsearch.common.util.concurrent.ListenableFuture;
 import org.elasticsearch.core.CheckedConsumer;
 import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.Releasables;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.blobstore.BlobContainer;
 import org.elasticsearch.common.blobstore.BlobMetadata;
@@ -43,16 +51,20 @@ import org.elasticsearch.core.Tuple;
 import org.elasticsearch.common.unit.ByteSizeUnit;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.repositories.blobstore.ChunkedBlobOutputStream;
+import org.elasticsearch.rest.RestStatus;
 
 import java.io.ByteArrayInputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
@@ -92,7 +104,27 @@ class S3BlobContainer extends AbstractBlobContainer {
 
     @Override
     public InputStream readBlob(String blobName) throws IOException {
-        return new S3RetryingInputStream(blobStore, buildKey(blobName));
+        final String blobKey = buildKey(blobName);
+        if (blobStore.maxConcurrentTransfers() == 0) {
+            return new S3RetryingInputStream(blobStore, blobKey);
+        }
+        // the length of the blob is unknown until the first response, so only its first part is requested
+        final long partSize = getDownloadPartSizeInBytes();
+        final S3RetryingInputStream firstStream;
+        try {
+            firstStream = new S3RetryingInputStream(blobStore, blobKey, 0L, partSize - 1L);
+        } catch (AmazonS3Exception e) {
+            if (e.getStatusCode() == RestStatus.REQUESTED_RANGE_NOT_SATISFIED.getStatus()) {
+                // S3 rejects ranged requests for empty blobs
+                return new S3RetryingInputStream(blobStore, blobKey);
+            }
+            throw e;
+        }
+        final long length = firstStream.objectLength();
+        if (length <= partSize) {
+            return firstStream;
+        }
+        return new S3ParallelInputStream(blobStore, blobKey, firstStream, 0L, length - 1L, partSize);
     }
 
     @Override
@@ -106,10 +138,23 @@ class S3BlobContainer extends AbstractBlobContainer {
         if (length == 0) {
             return new ByteArrayInputStream(new byte[0]);
         } else {
-            return new S3RetryingInputStream(blobStore, buildKey(blobName), position, Math.addExact(position, length - 1));
+            final String blobKey = buildKey(blobName);
+            final long end = Math.addExact(position, length - 1);
+            final long partSize = getDownloadPartSizeInBytes();
+            if (blobStore.maxConcurrentTransfers() > 0 && length > partSize) {
+                // the parts of the range beyond the first one may be downloaded concurrently, so only the first part is requested
+                final S3RetryingInputStream firstStream = new S3RetryingInputStream(blobStore, blobKey, position, position + partSize - 1L);
+                return new S3ParallelInputStream(blobStore, blobKey, firstStream, position, end, partSize);
+            }
+            return new S3RetryingInputStream(blobStore, blobKey, position, end);
         }
     }
 
+    // package private for testing
+    long getDownloadPartSizeInBytes() {
+        return readBlobPreferredLength();
+    }
+
     @Override
     public long readBlobPreferredLength() {
         // This container returns streams that must be fully consumed, so we tell consumers to make bounded requests.
@@ -164,6 +209,7 @@ class S3BlobContainer extends AbstractBlobContainer {
                              buffer.bytes().streamInput(), uploadId.get(), parts.size() + 1, blobName, buffer.size(), lastPart);
                      final UploadPartResult uploadResponse =
                              SocketAccess.doPrivileged(() -> clientReference.client().uploadPart(uploadRequest));
+                     blobStore.addUploadedBytes(uploadRequest.getPartSize());
                      finishPart(uploadResponse.getPartETag());
                  }
 
@@ -463,13 +509,16 @@ class S3BlobContainer extends AbstractBlobContainer {
             SocketAccess.doPrivilegedVoid(() -> {
                 clientReference.client().putObject(putRequest);
             });
+            blobStore.addUploadedBytes(blobSize);
         } catch (final AmazonClientException e) {
             throw new IOException("Unable to upload object [" + blobName + "] using a single upload", e);
         }
     }
 
     /**
-     * Uploads a blob using multipart upload requests.
+     * Uploads a blob using multipart upload requests. Parts are read from the input stream in order, and each part but the last one
+     * is read in memory and uploaded concurrently on the transfer executor if a transfer permit of the repository is available, or
+     * uploaded directly from the input stream otherwise.
      */
     void executeMultipartUpload(final S3BlobStore blobStore,
                                 final String blobName,
@@ -499,18 +548,57 @@ class S3BlobContainer extends AbstractBlobContainer {
                 throw new IOException("Failed to initialize multipart upload " + blobName);
             }
 
-            final List<PartETag> parts = new ArrayList<>();
+            final PartETag[] partETags = new PartETag[nbParts];
+            final List<ListenableFuture<Void>> concurrentUploads = new ArrayList<>();
+            final AtomicReference<Exception> concurrentUploadFailure = new AtomicReference<>();
 
             long bytesCount = 0;
-            for (int i = 1; i <= nbParts; i++) {
-                final boolean lastPart = i == nbParts;
-                final UploadPartRequest uploadRequest =
-                        createPartUploadRequest(input, uploadId.get(), i, blobName, lastPart ? lastPartSize : partSize, lastPart);
-                bytesCount += uploadRequest.getPartSize();
-
-                final UploadPartResult uploadResponse = SocketAccess.doPrivileged(() -> clientReference.client().uploadPart(uploadRequest));
-                parts.add(uploadResponse.getPartETag());
+            Exception failure = null;
+            try {
+                for (int i = 1; i <= nbParts; i++) {
+                    final Exception concurrentFailure = concurrentUploadFailure.get();
+                    if (concurrentFailure != null) {
+                        throw concurrentFailure;
+                    }
+                    final boolean lastPart = i == nbParts;
+                    final long size = lastPart ? lastPartSize : partSize;
+                    final ReleasableBytesStreamOutput buffer = lastPart ? null : maybeReadPart(input, size);
+                    if (buffer != null) {
+                        concurrentUploads.add(uploadPartConcurrently(clientReference, uploadId.get(), i, blobName, buffer, partETags,
+                            concurrentUploadFailure));
+                        bytesCount += size;
+                    } else {
+                        final UploadPartRequest uploadRequest = createPartUploadRequest(input, uploadId.get(), i, blobName, size, lastPart);
+                        bytesCount += uploadRequest.getPartSize();
+
+                        final UploadPartResult uploadResponse =
+                            SocketAccess.doPrivileged(() -> clientReference.client().uploadPart(uploadRequest));
+                        blobStore.addUploadedBytes(uploadRequest.getPartSize());
+                        partETags[i - 1] = uploadResponse.getPartETag();
+                    }
+                }
+            } catch (Exception e) {
+                failure = e;
+            }
+            // always wait for the concurrent uploads to complete so that no part is uploaded after the upload is completed or aborted
+            for (ListenableFuture<Void> concurrentUpload : concurrentUploads) {
+                try {
+                    concurrentUpload.get();
+                } catch (ExecutionException e) {
+                    failure = ExceptionsHelper.useOrSuppress(failure, (Exception) e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    failure = ExceptionsHelper.useOrSuppress(failure, e);
+                }
             }
+            if (failure instanceof IOException) {
+                throw (IOException) failure;
+            } else if (failure instanceof RuntimeException) {
+                throw (RuntimeException) failure;
+            } else if (failure != null) {
+                throw new IOException("Failed to execute multipart upload for [" + blobName + "]", failure);
+            }
+            final List<PartETag> parts = Arrays.asList(partETags);
 
             if (bytesCount != blobSize) {
                 throw new IOException("Failed to execute multipart upload for [" + blobName + "], expected " + blobSize
@@ -532,6 +620,68 @@ class S3BlobContainer extends AbstractBlobContainer {
         }
     }
 
+    /**
+     * Reads the next part of the given size from the input stream in memory, if a transfer permit is available and the part can be
+     * buffered without tripping the circuit breaker. The returned buffer holds the transfer permit until it is uploaded.
+     *
+     * @return the buffered part, or {@code null} if the part must be uploaded directly from the input stream
+     */
+    @Nullable
+    private ReleasableBytesStreamOutput maybeReadPart(InputStream input, long size) throws IOException {
+        if (size > Integer.MAX_VALUE || blobStore.tryAcquireTransferPermit() == false) {
+            return null;
+        }
+        ReleasableBytesStreamOutput buffer = null;
+        boolean success = false;
+        try {
+            try {
+                buffer = new ReleasableBytesStreamOutput(Math.toIntExact(size), blobStore.bigArrays().withCircuitBreaking());
+            } catch (CircuitBreakingException e) {
+                logger.trace("not enough memory to buffer part of size [{}], uploading it directly", size);
+                return null;
+            }
+            final long copied = org.elasticsearch.core.internal.io.Streams.copy(Streams.limitStream(input, size), buffer, false);
+            if (copied != size) {
+                throw new EOFException("expected a part of [" + size + "] bytes but got [" + copied + "]");
+            }
+            success = true;
+            return buffer;
+        } finally {
+            if (success == false) {
+                Releasables.close(buffer);
+                blobStore.releaseTransferPermit();
+            }
+        }
+    }
+
+    /**
+     * Uploads the given buffered part on the transfer executor, releasing the buffer and its transfer permit once done.
+     */
+    private ListenableFuture<Void> uploadPartConcurrently(AmazonS3Reference clientReference,
+                                                          String uploadId,
+                                                          int partNumber,
+                                                          String blobName,
+                                                          ReleasableBytesStreamOutput buffer,
+                                                          PartETag[] partETags,
+                                                          AtomicReference<Exception> failure) {
+        final ListenableFuture<Void> future = new ListenableFuture<>();
+        final ActionListener<Void> listener = ActionListener.runAfter(future.delegateResponse((l, e) -> {
+            failure.compareAndSet(null, e);
+            l.onFailure(e);
+        }), () -> {
+            buffer.close();
+            blobStore.releaseTransferPermit();
+        });
+        blobStore.transferExecutor().execute(ActionRunnable.run(listener, () -> {
+            final UploadPartRequest uploadRequest =
+                createPartUploadRequest(buffer.bytes().streamInput(), uploadId, partNumber, blobName, buffer.size(), false);
+            final UploadPartResult uploadResponse = SocketAccess.doPrivileged(() -> clientReference.client().uploadPart(uploadRequest));
+            blobStore.addUploadedBytes(uploadRequest.getPartSize());
+            partETags[partNumber - 1] = uploadResponse.getPartETag();
+        }));
+        return future;
+    }
+
     // non-static, package private for testing
     void ensureMultiPartUploadSize(final long blobSize) {
         if (blobSize > MAX_FILE_SIZE_USING_MULTIPART.getBytes()) {
@@ -28,6 +28,8 @@ import java.io.IOException;
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
 import java.util.concurrent.atomic.AtomicLong;
 
 class S3BlobStore implements BlobStore {
@@ -52,6 +54,13 @@ class S3BlobStore implements BlobStore {
 
     private final Stats stats = new Stats();
 
+    private final int maxConcurrentTransfers;
+
+    // limits the number of parts of blobs transferred concurrently to the caller of the blob store, and buffered in memory meanwhile
+    private final Semaphore transferPermits;
+
+    private final Executor transferExecutor;
+
     final RequestMetricCollector getMetricCollector;
     final RequestMetricCollector listMetricCollector;
     final RequestMetricCollector putMetricCollector;
@@ -59,7 +68,8 @@ class S3BlobStore implements BlobStore {
 
     S3BlobStore(S3Service service, String bucket, boolean serverSideEncryption,
                 ByteSizeValue bufferSize, String cannedACL, String storageClass,
-                RepositoryMetadata repositoryMetadata, BigArrays bigArrays) {
+                RepositoryMetadata repositoryMetadata, BigArrays bigArrays,
+                int maxConcurrentTransfers, Executor transferExecutor) {
         this.service = service;
         this.bigArrays = bigArrays;
         this.bucket = bucket;
@@ -68,6 +78,9 @@ class S3BlobStore implements BlobStore {
         this.cannedACL = initCannedACL(cannedACL);
         this.storageClass = initStorageClass(storageClass);
         this.repositoryMetadata = repositoryMetadata;
+        this.maxConcurrentTransfers = maxConcurrentTransfers;
+        this.transferPermits = new Semaphore(maxConcurrentTransfers);
+        this.transferExecutor = transferExecutor;
         this.getMetricCollector = new IgnoreNoResponseMetricsCollector() {
             @Override
             public void collectMetrics(Request<?> request) {
@@ -152,6 +165,36 @@ class S3BlobStore implements BlobStore {
         return bufferSize.getBytes();
     }
 
+    public int maxConcurrentTransfers() {
+        return maxConcurrentTransfers;
+    }
+
+    /**
+     * Tries to acquire a permit to transfer a part of a blob concurrently to the caller. The permit must be released with
+     * {@link #releaseTransferPermit()} once the part is transferred and its buffer, if any, is released.
+     *
+     * @return whether a permit was acquired
+     */
+    boolean tryAcquireTransferPermit() {
+        return transferPermits.tryAcquire();
+    }
+
+    void releaseTransferPermit() {
+        transferPermits.release();
+    }
+
+    Executor transferExecutor() {
+        return transferExecutor;
+    }
+
+    void addUploadedBytes(long bytes) {
+        stats.uploadedBytes.addAndGet(bytes);
+    }
+
+    void addDownloadedBytes(long bytes) {
+        stats.downloadedBytes.addAndGet(bytes);
+    }
+
     @Override
     public BlobContainer blobContainer(BlobPath path) {
         return new S3BlobContainer(path, this);
@@ -167,6 +210,11 @@ class S3BlobStore implements BlobStore {
         return stats.toMap();
     }
 
+    @Override
+    public Map<String, Long> transferredBytes() {
+        return stats.transferredBytesToMap();
+    }
+
     public CannedAccessControlList getCannedACL() {
         return cannedACL;
     }
@@ -219,6 +267,10 @@ class S3BlobStore implements BlobStore {
 
         final AtomicLong postCount = new AtomicLong();
 
+        final AtomicLong uploadedBytes = new AtomicLong();
+
+        final AtomicLong downloadedBytes = new AtomicLong();
+
         Map<String, Long> toMap() {
             final Map<String, Long> results = new HashMap<>();
             results.put("GetObject", getCount.get());
@@ -227,5 +279,12 @@ class S3BlobStore implements BlobStore {
             results.put("PutMultipartObject", postCount.get());
             return results;
         }
+
+        Map<String, Long> transferredBytesToMap() {
+            final Map<String, Long> results = new HashMap<>();
+            results.put("upload", uploadedBytes.get());
+            results.put("download", downloadedBytes.get());
+            return results;
+        }
     }
 }
@@ -0,0 +1,268 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.repositories.s3;
+
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.common.breaker.CircuitBreakingException;
+import org.elasticsearch.common.io.stream.ReleasableBytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.common.util.concurrent.ListenableFuture;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.internal.io.IOUtils;
+import org.elasticsearch.core.internal.io.Streams;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * An input stream over a range of an S3 object that downloads the parts of the range ahead of the reader using concurrent ranged
+ * {@link GetObjectRequest}s. The reader streams the bytes from a regular {@link S3RetryingInputStream} until it reaches the first part
+ * downloaded ahead, and falls back to such a stream whenever no part could be downloaded ahead because all the transfer permits of the
+ * repository are in use, so that reading is never slower than reading with a single stream. These streams never request more than a
+ * single part, so that no bytes are requested both by them and by the parts downloaded ahead. The parts downloaded ahead are buffered in
+ * memory until they are read and each of them holds a transfer permit of the repository, which bounds the memory used by the concurrent
+ * downloads of a repository.
+ */
+class S3ParallelInputStream extends InputStream {
+
+    private static final Logger logger = LogManager.getLogger(S3ParallelInputStream.class);
+
+    private final S3BlobStore blobStore;
+    private final String blobKey;
+    private final long end;
+    private final long partSize;
+
+    // the parts downloaded ahead of the current position, contiguous and in order
+    private final Deque<Part> parts = new ArrayDeque<>();
+
+    private long position;
+    @Nullable
+    private S3RetryingInputStream currentStream;
+    private long currentStreamEnd; // inclusive
+    private boolean closed;
+
+    // both start and end are inclusive bounds, following the definition in GetObjectRequest.setRange, and the first stream must cover the
+    // first part of the range only
+    S3ParallelInputStream(S3BlobStore blobStore, String blobKey, S3RetryingInputStream firstStream, long start, long end, long partSize) {
+        if (start < 0L || end < start) {
+            throw new IllegalArgumentException("invalid range [" + start + "-" + end + "]");
+        }
+        if (partSize <= 0L) {
+            throw new IllegalArgumentException("part size must be greater than zero");
+        }
+        this.blobStore = Objects.requireNonNull(blobStore);
+        this.blobKey = Objects.requireNonNull(blobKey);
+        this.currentStream = Objects.requireNonNull(firstStream);
+        this.currentStreamEnd = Math.min(end, start + partSize - 1L);
+        this.position = start;
+        this.end = end;
+        this.partSize = partSize;
+    }
+
+    @Override
+    public int read() throws IOException {
+        final byte[] b = new byte[1];
+        final int bytesRead = read(b, 0, 1);
+        return bytesRead == -1 ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (len == 0) {
+            return 0;
+        }
+        while (position <= end) {
+            downloadAhead();
+            final Part part = parts.peekFirst();
+            if (part != null && part.start == position) {
+                closeCurrentStream();
+                final StreamInput partInput = part.awaitInput();
+                if (partInput == null) {
+                    // the part failed to download, read it with the current stream instead
+                    parts.removeFirst().release();
+                    continue;
+                }
+                final int bytesRead = partInput.read(b, off, Math.toIntExact(Math.min(len, part.end + 1L - position)));
+                if (bytesRead <= 0) {
+                    throw new EOFException("unexpected end of part [" + part.start + "-" + part.end + "] of blob [" + blobKey + "]");
+                }
+                position += bytesRead;
+                if (position > part.end) {
+                    parts.removeFirst().release();
+                }
+                return bytesRead;
+            }
+
+            if (currentStream == null) {
+                // the next part may be downloaded ahead while this stream is read, so it must not request more than a single part
+                currentStreamEnd = Math.min(part == null ? end : part.start - 1L, position + partSize - 1L);
+                currentStream = new S3RetryingInputStream(blobStore, blobKey, position, currentStreamEnd);
+            }
+            // read with the current stream up to its end or to the first part downloaded ahead
+            final long limit = Math.min(part == null ? end + 1L : part.start, currentStreamEnd + 1L);
+            final int bytesRead = currentStream.read(b, off, Math.toIntExact(Math.min(len, limit - position)));
+            if (bytesRead == -1) {
+                throw new EOFException("unexpected end of blob [" + blobKey + "] at [" + position + "], expected [" + (end + 1L) + "]");
+            }
+            position += bytesRead;
+            if (position == limit) {
+                closeCurrentStream();
+            }
+            return bytesRead;
+        }
+        return -1;
+    }
+
+    /**
+     * Starts downloading the next parts of the range, as long as there are transfer permits available. The first part downloaded
+     * ahead starts one part size after the current position, so that short reads are served by the current stream only.
+     */
+    private void downloadAhead() {
+        final Part last = parts.peekLast();
+        long next = last == null ? position + partSize : last.end + 1L;
+        while (next <= end && blobStore.tryAcquireTransferPermit()) {
+            final Part part = new Part(next, Math.min(end, next + partSize - 1L));
+            parts.addLast(part);
+            part.download();
+            next = part.end + 1L;
+        }
+    }
+
+    private void closeCurrentStream() throws IOException {
+        if (currentStream != null) {
+            try {
+                currentStream.close();
+            } finally {
+                currentStream = null;
+            }
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            assert false : "using S3ParallelInputStream after close";
+            throw new IllegalStateException("using S3ParallelInputStream after close");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            closeCurrentStream();
+        } finally {
+            Part part;
+            while ((part = parts.pollFirst()) != null) {
+                part.release();
+            }
+        }
+    }
+
+    @Override
+    public long skip(long n) {
+        throw new UnsupportedOperationException("S3ParallelInputStream does not support seeking");
+    }
+
+    @Override
+    public void reset() {
+        throw new UnsupportedOperationException("S3ParallelInputStream does not support seeking");
+    }
+
+    /**
+     * A part of the range downloaded in memory on the transfer executor. It holds a transfer permit until it is released.
+     */
+    private class Part {
+
+        private final long start;
+        private final long end;
+        private final ListenableFuture<ReleasableBytesStreamOutput> future = new ListenableFuture<>();
+        @Nullable
+        private StreamInput input;
+
+        Part(long start, long end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        void download() {
+            blobStore.transferExecutor().execute(new AbstractRunnable() {
+                @Override
+                protected void doRun() throws Exception {
+                    final long length = end - start + 1L;
+                    ReleasableBytesStreamOutput buffer = null;
+                    boolean success = false;
+                    try (InputStream stream = new S3RetryingInputStream(blobStore, blobKey, start, end)) {
+                        buffer = new ReleasableBytesStreamOutput(Math.toIntExact(length), blobStore.bigArrays().withCircuitBreaking());
+                        final long copied = Streams.copy(stream, buffer, false);
+                        if (copied != length) {
+                            throw new EOFException("expected [" + length + "] bytes for part [" + start + "-" + end + "] but got [" + copied
+                                + "]");
+                        }
+                        success = true;
+                    } finally {
+                        if (success == false) {
+                            IOUtils.closeWhileHandlingException(buffer);
+                        }
+                    }
+                    future.onResponse(buffer);
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    future.onFailure(e);
+                }
+            });
+        }
+
+        /**
+         * Waits for the part to be downloaded.
+         *
+         * @return a stream over the bytes of the part, or {@code null} if the part failed to download
+         */
+        @Nullable
+        StreamInput awaitInput() throws IOException {
+            if (input == null) {
+                try {
+                    input = future.get().bytes().streamInput();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("interrupted while downloading part [" + start + "-" + end + "] of blob [" + blobKey + "]", e);
+                } catch (ExecutionException e) {
+                    final Throwable cause = e.getCause();
+                    if (cause instanceof CircuitBreakingException == false) {
+                        logger.debug(new ParameterizedMessage("failed to download part [{}-{}] of blob [{}] ahead of reading it",
+                            start, end, blobKey), cause);
+                    }
+                    return null;
+                }
+            }
+            return input;
+        }
+
+        void release() {
+            future.addListener(
+                ActionListener.runAfter(ActionListener.wrap(ReleasableBytesStreamOutput::close, e -> {}), blobStore::releaseTransferPermit)
+            );
+        }
+    }
+}
@@ -114,6 +114,14 @@ class S3Repository extends MeteredBlobStoreRepository {
     static final Setting<ByteSizeValue> BUFFER_SIZE_SETTING =
         Setting.byteSizeSetting("buffer_size", DEFAULT_BUFFER_SIZE, MIN_PART_SIZE_USING_MULTIPART, MAX_PART_SIZE_USING_MULTIPART);
 
+    /**
+     * Maximum number of parts of blobs that are uploaded or downloaded concurrently to the snapshot and restore threads on each node, in
+     * addition to the part that each of these threads transfers itself. Each of these parts is buffered in memory, so up to this number of
+     * buffers of buffer_size length (for uploads) or 32mb (for downloads) are used by the repository. Set to 0 to transfer all the parts
+     * of a blob sequentially. Defaults to 1.
+     */
+    static final Setting<Integer> MAX_CONCURRENT_TRANSFERS_SETTING = Setting.intSetting("max_concurrent_transfers", 1, 0, 64);
+
     /**
      * Big files can be broken down into chunks during snapshotting if needed. Defaults to 5tb.
      */
@@ -164,6 +172,8 @@ class S3Repository extends MeteredBlobStoreRepository {
 
     private final ByteSizeValue chunkSize;
 
+    private final int maxConcurrentTransfers;
+
     private final boolean serverSideEncryption;
 
     private final String storageClass;
@@ -210,6 +220,7 @@ class S3Repository extends MeteredBlobStoreRepository {
                 ") can't be lower than " + BUFFER_SIZE_SETTING.getKey() + " (" + bufferSize + ").");
         }
 
+        this.maxConcurrentTransfers = MAX_CONCURRENT_TRANSFERS_SETTING.get(metadata.settings());
         this.serverSideEncryption = SERVER_SIDE_ENCRYPTION_SETTING.get(metadata.settings());
 
         this.storageClass = STORAGE_CLASS_SETTING.get(metadata.settings());
@@ -218,11 +229,13 @@ class S3Repository extends MeteredBlobStoreRepository {
         coolDown = COOLDOWN_PERIOD.get(metadata.settings());
 
         logger.debug(
-                "using bucket [{}], chunk_size [{}], server_side_encryption [{}], buffer_size [{}], cannedACL [{}], storageClass [{}]",
+                "using bucket [{}], chunk_size [{}], server_side_encryption [{}], buffer_size [{}], max_concurrent_transfers [{}], " +
+                    "cannedACL [{}], storageClass [{}]",
                 bucket,
                 chunkSize,
                 serverSideEncryption,
                 bufferSize,
+                maxConcurrentTransfers,
                 cannedACL,
                 storageClass);
     }
@@ -308,7 +321,8 @@ class S3Repository extends MeteredBlobStoreRepository {
 
     @Override
     protected S3BlobStore createBlobStore() {
-        return new S3BlobStore(service, bucket, serverSideEncryption, bufferSize, cannedACL, storageClass, metadata, bigArrays);
+        return new S3BlobStore(service, bucket, serverSideEncryption, bufferSize, cannedACL, storageClass, metadata, bigArrays,
+            maxConcurrentTransfers, threadPool.executor(S3RepositoryPlugin.TRANSFER_THREAD_POOL_NAME));
     }
 
     // only use for testing
@@ -15,6 +15,8 @@ import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.common.xcontent.NamedXContentRegistry;
 import org.elasticsearch.env.Environment;
 import org.elasticsearch.indices.recovery.RecoverySettings;
@@ -22,6 +24,8 @@ import org.elasticsearch.plugins.Plugin;
 import org.elasticsearch.plugins.ReloadablePlugin;
 import org.elasticsearch.plugins.RepositoryPlugin;
 import org.elasticsearch.repositories.Repository;
+import org.elasticsearch.threadpool.ExecutorBuilder;
+import org.elasticsearch.threadpool.ScalingExecutorBuilder;
 
 import java.io.IOException;
 import java.security.AccessController;
@@ -53,6 +57,12 @@ public class S3RepositoryPlugin extends Plugin implements RepositoryPlugin, Relo
         });
     }
 
+    /**
+     * Thread pool on which the parts of blobs are uploaded and downloaded concurrently,
+     * see {@link S3Repository#MAX_CONCURRENT_TRANSFERS_SETTING}.
+     */
+    static final String TRANSFER_THREAD_POOL_NAME = "repository_s3_transfer";
+
     protected final S3Service service;
 
     public S3RepositoryPlugin(final Settings settings) {
@@ -84,6 +94,17 @@ public class S3RepositoryPlugin extends Plugin implements RepositoryPlugin, Relo
             recoverySettings));
     }
 
+    @Override
+    public List<ExecutorBuilder<?>> getExecutorBuilders(Settings settings) {
+        return List.of(executorBuilder(settings));
+    }
+
+    static ScalingExecutorBuilder executorBuilder(Settings settings) {
+        // the transfers are blocking on network IO, and are limited per repository anyway
+        final int maxThreads = Math.min(EsExecutors.allocatedProcessors(settings) * 4, 32);
+        return new ScalingExecutorBuilder(TRANSFER_THREAD_POOL_NAME, 0, maxThreads, TimeValue.timeValueSeconds(30L));
+    }
+
     @Override
     public List<Setting<?>> getSettings() {
         return Arrays.asList(
@@ -49,6 +49,7 @@ class S3RetryingInputStream extends InputStream {
     private long currentStreamLastOffset;
     private int attempt = 1;
     private long currentOffset;
+    private long objectLength = -1L;
     private boolean closed;
     private boolean eof;
 
@@ -84,6 +85,9 @@ class S3RetryingInputStream extends InputStream {
             }
             final S3Object s3Object = SocketAccess.doPrivileged(() -> clientReference.client().getObject(getObjectRequest));
             this.currentStreamLastOffset = Math.addExact(Math.addExact(start, currentOffset), getStreamLength(s3Object));
+            if (objectLength < 0L) {
+                this.objectLength = s3Object.getObjectMetadata().getInstanceLength();
+            }
             this.currentStream = s3Object.getObjectContent();
         } catch (final AmazonClientException e) {
             if (e instanceof AmazonS3Exception) {
@@ -104,7 +108,8 @@ class S3RetryingInputStream extends InputStream {
                 assert range[1] >= range[0] : range[1] + " vs " + range[0];
                 assert range[0] == start + currentOffset :
                     "Content-Range start value [" + range[0] + "] exceeds start [" + start + "] + current offset [" + currentOffset + ']';
-                assert range[1] == end : "Content-Range end value [" + range[1] + "] exceeds end [" + end + ']';
+                // the end of the range is beyond the end of the object if the object is shorter than the requested range
+                assert range[1] <= end : "Content-Range end value [" + range[1] + "] exceeds end [" + end + ']';
                 return range[1] - range[0] + 1L;
             }
             return metadata.getContentLength();
@@ -180,6 +185,9 @@ class S3RetryingInputStream extends InputStream {
         try {
             currentStream.close();
         } finally {
+            if (closed == false) {
+                blobStore.addDownloadedBytes(currentOffset);
+            }
             closed = true;
         }
     }
@@ -218,6 +226,13 @@ class S3RetryingInputStream extends InputStream {
         return e;
     }
 
+    /**
+     * Returns the length of the whole blob, which is longer than this stream if only a range of the blob was requested.
+     */
+    long objectLength() {
+        return objectLength;
+    }
+
     // package-private for tests
     boolean isEof() {
         return eof || start + currentOffset == currentStreamLastOffset;
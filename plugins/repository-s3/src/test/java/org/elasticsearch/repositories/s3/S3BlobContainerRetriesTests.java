@@ -10,6 +10,7 @@ package org.elasticsearch.repositories.s3;
 import com.amazonaws.SdkClientException;
 import com.amazonaws.services.s3.internal.MD5DigestCalculatingInputStream;
 import com.amazonaws.util.Base16;
+import fixture.s3.S3HttpHandler;
 import org.apache.http.HttpStatus;
 import org.elasticsearch.cluster.metadata.RepositoryMetadata;
 import org.elasticsearch.common.util.BigArrays;
@@ -27,9 +28,12 @@ import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeUnit;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.core.Tuple;
 import org.elasticsearch.common.util.concurrent.CountDown;
 import org.elasticsearch.core.internal.io.IOUtils;
 import org.elasticsearch.repositories.blobstore.AbstractBlobContainerRetriesTestCase;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
 import org.junit.After;
 import org.junit.Before;
 
@@ -40,8 +44,11 @@ import java.io.InputStream;
 import java.net.InetSocketAddress;
 import java.net.SocketTimeoutException;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -54,6 +61,7 @@ import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 
 /**
  * This class tests how a {@link S3BlobContainer} and its underlying AWS S3 client are retrying requests when reading or writing blobs.
@@ -62,16 +70,24 @@ import static org.hamcrest.Matchers.is;
 public class S3BlobContainerRetriesTests extends AbstractBlobContainerRetriesTestCase {
 
     private S3Service service;
+    private ThreadPool threadPool;
+    private S3BlobStore blobStore;
+    private int maxConcurrentTransfers;
+    private long downloadPartSize;
 
     @Before
     public void setUp() throws Exception {
         service = new S3Service();
+        threadPool = new TestThreadPool(getTestName(), S3RepositoryPlugin.executorBuilder(Settings.EMPTY));
+        maxConcurrentTransfers = 0;
+        downloadPartSize = ByteSizeUnit.MB.toBytes(32);
         super.setUp();
     }
 
     @After
     public void tearDown() throws Exception {
         IOUtils.close(service);
+        ThreadPool.terminate(threadPool, 10L, TimeUnit.SECONDS);
         super.tearDown();
     }
 
@@ -123,12 +139,19 @@ public class S3BlobContainerRetriesTests extends AbstractBlobContainerRetriesTes
         final RepositoryMetadata repositoryMetadata = new RepositoryMetadata("repository", S3Repository.TYPE,
             Settings.builder().put(S3Repository.CLIENT_NAME.getKey(), clientName).build());
 
-        return new S3BlobContainer(BlobPath.EMPTY, new S3BlobStore(service, "bucket",
+        blobStore = new S3BlobStore(service, "bucket",
             S3Repository.SERVER_SIDE_ENCRYPTION_SETTING.getDefault(Settings.EMPTY),
             bufferSize == null ? S3Repository.BUFFER_SIZE_SETTING.getDefault(Settings.EMPTY) : bufferSize,
             S3Repository.CANNED_ACL_SETTING.getDefault(Settings.EMPTY),
             S3Repository.STORAGE_CLASS_SETTING.getDefault(Settings.EMPTY),
-            repositoryMetadata, BigArrays.NON_RECYCLING_INSTANCE)) {
+            repositoryMetadata, BigArrays.NON_RECYCLING_INSTANCE,
+            maxConcurrentTransfers, threadPool.executor(S3RepositoryPlugin.TRANSFER_THREAD_POOL_NAME));
+        return new S3BlobContainer(BlobPath.EMPTY, blobStore) {
+                @Override
+                long getDownloadPartSizeInBytes() {
+                    return downloadPartSize;
+                }
+
                 @Override
                 public InputStream readBlob(String blobName) throws IOException {
                     return new AssertingInputStream(super.readBlob(blobName), blobName);
@@ -298,6 +321,59 @@ public class S3BlobContainerRetriesTests extends AbstractBlobContainerRetriesTes
         assertThat(countDownComplete.isCountedDown(), is(true));
     }
 
+    public void testConcurrentMultipartUploadAndRangedDownloads() throws Exception {
+        maxConcurrentTransfers = randomIntBetween(1, 4);
+        downloadPartSize = randomLongBetween(ByteSizeUnit.KB.toBytes(64), ByteSizeUnit.MB.toBytes(2));
+        final S3HttpHandler handler = new S3HttpHandler("bucket");
+        final AtomicLong maxRequestedLength = new AtomicLong();
+        final AtomicInteger unboundedRequests = new AtomicInteger();
+        httpServer.createContext("/bucket", exchange -> {
+            if ("GET".equals(exchange.getRequestMethod()) && exchange.getRequestURI().getPath().endsWith("large_blob")) {
+                if (exchange.getRequestHeaders().containsKey("Range")) {
+                    final Tuple<Long, Long> range = getRange(exchange);
+                    maxRequestedLength.accumulateAndGet(range.v2() - range.v1() + 1L, Math::max);
+                } else {
+                    unboundedRequests.incrementAndGet();
+                }
+            }
+            handler.handle(exchange);
+        });
+
+        final ByteSizeValue bufferSize = new ByteSizeValue(5, ByteSizeUnit.MB);
+        final BlobContainer blobContainer = createBlobContainer(null, null, true, bufferSize);
+
+        final int parts = randomIntBetween(2, 3);
+        final byte[] bytes = randomByteArrayOfLength(Math.toIntExact(parts * bufferSize.getBytes() + randomIntBetween(1, 1 << 20)));
+        try (InputStream stream = new InputStreamIndexInput(new ByteArrayIndexInput("desc", bytes), bytes.length)) {
+            blobContainer.writeBlob("large_blob", stream, bytes.length, false);
+        }
+
+        try (InputStream stream = blobContainer.readBlob("large_blob")) {
+            assertArrayEquals(bytes, BytesReference.toBytes(Streams.readFully(stream)));
+        }
+
+        final int position = randomIntBetween(0, bytes.length - 1);
+        final int length = randomIntBetween(1, bytes.length - position);
+        try (InputStream stream = blobContainer.readBlob("large_blob", position, length)) {
+            assertArrayEquals(Arrays.copyOfRange(bytes, position, position + length), BytesReference.toBytes(Streams.readFully(stream)));
+        }
+
+        // no request downloads more than a single part, so no bytes are downloaded twice
+        assertThat(unboundedRequests.get(), equalTo(0));
+        assertThat(maxRequestedLength.get(), lessThanOrEqualTo(downloadPartSize));
+
+        final Map<String, Long> transferredBytes = blobStore.transferredBytes();
+        assertThat(transferredBytes.get("upload"), equalTo((long) bytes.length));
+        assertThat(transferredBytes.get("download"), equalTo((long) bytes.length + length));
+
+        // blobs shorter than a part, including empty ones, are read with a single request
+        final byte[] smallBytes = randomByteArrayOfLength(randomIntBetween(0, 1024));
+        blobContainer.writeBlob("small_blob", new ByteArrayInputStream(smallBytes), smallBytes.length, false);
+        try (InputStream stream = blobContainer.readBlob("small_blob")) {
+            assertArrayEquals(smallBytes, BytesReference.toBytes(Streams.readFully(stream)));
+        }
+    }
+
     public void testWriteLargeBlobStreaming() throws Exception {
         final boolean useTimeout = rarely();
         final TimeValue readTimeout = useTimeout ? TimeValue.timeValueMillis(randomIntBetween(100, 500)) : null;
@@ -441,7 +517,7 @@ public class S3BlobContainerRetriesTests extends AbstractBlobContainerRetriesTes
                 final S3RetryingInputStream s3Stream = (S3RetryingInputStream) in;
                 assertTrue("Stream " + toString() + " should have reached EOF or should have been aborted but got [eof=" + s3Stream.isEof()
                     + ", aborted=" + s3Stream.isAborted() + ']', s3Stream.isEof() || s3Stream.isAborted());
-            } else {
+            } else if (in instanceof S3ParallelInputStream == false) {
                 assertThat(in, instanceOf(ByteArrayInputStream.class));
                 assertThat(((ByteArrayInputStream) in).available(), equalTo(0));
             }
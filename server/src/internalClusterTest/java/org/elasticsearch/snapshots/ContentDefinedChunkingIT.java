@@ -0,0 +1,88 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.snapshots;
+
+import org.elasticsearch.action.admin.cluster.snapshots.restore.RestoreSnapshotResponse;
+import org.elasticsearch.action.bulk.BulkRequestBuilder;
+import org.elasticsearch.action.support.WriteRequest;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.repositories.RepositoryCleanupResult;
+import org.elasticsearch.repositories.blobstore.BlobStoreRepository;
+
+import java.nio.file.Path;
+
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertAcked;
+import static org.elasticsearch.test.hamcrest.ElasticsearchAssertions.assertNoFailures;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+
+public class ContentDefinedChunkingIT extends AbstractSnapshotIntegTestCase {
+
+    public void testSnapshotRestoreCloneAndCleanupWithChunks() throws Exception {
+        internalCluster().startMasterOnlyNode();
+        internalCluster().startDataOnlyNode();
+        final String repoName = "repo-name";
+        final Path repoPath = randomRepoPath();
+        createRepository(repoName, "fs", Settings.builder()
+            .put("location", repoPath)
+            .put(BlobStoreRepository.CONTENT_DEFINED_CHUNKING_SETTING.getKey(), true)
+            .put(BlobStoreRepository.CONTENT_DEFINED_CHUNK_SIZE_SETTING.getKey(), "64kb"));
+        final Path chunksPath = repoPath.resolve(BlobStoreRepository.CHUNKS_PATH);
+
+        final String indexName = "index-1";
+        createIndex(indexName, indexSettingsNoReplicas(1).build());
+        final int docCount = indexLargeDocs(indexName);
+        assertNoFailures(client().admin().indices().prepareForceMerge(indexName).setMaxNumSegments(1).setFlush(true).get());
+
+        final String sourceSnapshot = "source-snapshot";
+        createFullSnapshot(repoName, sourceSnapshot);
+        final int chunkCount = numberOfFiles(chunksPath);
+        assertThat(chunkCount, greaterThan(0));
+
+        logger.info("--> snapshot of the unchanged index must not upload any new chunks");
+        final String secondSnapshot = "second-snapshot";
+        createFullSnapshot(repoName, secondSnapshot);
+        assertThat(numberOfFiles(chunksPath), equalTo(chunkCount));
+
+        final String targetSnapshot = "target-snapshot";
+        assertAcked(clusterAdmin().prepareCloneSnapshot(repoName, sourceSnapshot, targetSnapshot).setIndices(indexName).get());
+        assertThat(numberOfFiles(chunksPath), equalTo(chunkCount));
+
+        logger.info("--> delete the source snapshots, the clone still references all chunks");
+        assertAcked(startDeleteSnapshot(repoName, sourceSnapshot).get());
+        assertAcked(startDeleteSnapshot(repoName, secondSnapshot).get());
+        assertThat(clusterAdmin().prepareCleanupRepository(repoName).get().result().blobs(), equalTo(0L));
+        assertThat(numberOfFiles(chunksPath), equalTo(chunkCount));
+
+        logger.info("--> restore from the clone");
+        assertAcked(admin().indices().prepareDelete(indexName));
+        final RestoreSnapshotResponse restoreSnapshotResponse = clusterAdmin().prepareRestoreSnapshot(repoName, targetSnapshot)
+            .setWaitForCompletion(true)
+            .get();
+        assertThat(restoreSnapshotResponse.getRestoreInfo().failedShards(), equalTo(0));
+        assertDocCount(indexName, docCount);
+
+        logger.info("--> delete the clone, which deletes all chunks since no other snapshot references them");
+        assertAcked(startDeleteSnapshot(repoName, targetSnapshot).get());
+        assertThat(numberOfFiles(chunksPath), equalTo(0));
+        final RepositoryCleanupResult cleanupResult = clusterAdmin().prepareCleanupRepository(repoName).get().result();
+        assertThat(cleanupResult.blobs(), equalTo(0L));
+    }
+
+    private int indexLargeDocs(String indexName) {
+        final int docCount = randomIntBetween(200, 400);
+        final BulkRequestBuilder bulkRequest = client().prepareBulk().setRefreshPolicy(WriteRequest.RefreshPolicy.IMMEDIATE);
+        for (int i = 0; i < docCount; i++) {
+            // random text compresses poorly, so the stored fields of the merged segment span several chunks
+            bulkRequest.add(client().prepareIndex(indexName).setId(Integer.toString(i)).setSource("field", randomAlphaOfLength(2000)));
+        }
+        assertNoFailures(bulkRequest.get());
+        return docCount;
+    }
+}
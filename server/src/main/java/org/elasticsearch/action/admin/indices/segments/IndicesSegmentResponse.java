@@ -125,6 +125,10 @@ public class IndicesSegmentResponse extends BroadcastResponse {
                         if (segment.getMergeId() != null) {
                             builder.field(Fields.MERGE_ID, segment.getMergeId());
                         }
+                        if (segment.getMinTimestamp() != null) {
+                            builder.field(Fields.MIN_TIMESTAMP, segment.getMinTimestamp());
+                            builder.field(Fields.MAX_TIMESTAMP, segment.getMaxTimestamp());
+                        }
                         if (segment.getSegmentSort() != null) {
                             toXContent(builder, segment.getSegmentSort());
                         }
@@ -212,6 +216,8 @@ public class IndicesSegmentResponse extends BroadcastResponse {
         static final String VERSION = "version";
         static final String COMPOUND = "compound";
         static final String MERGE_ID = "merge_id";
+        static final String MIN_TIMESTAMP = "min_timestamp";
+        static final String MAX_TIMESTAMP = "max_timestamp";
         static final String MEMORY = "memory";
         static final String MEMORY_IN_BYTES = "memory_in_bytes";
         static final String RAM_TREE = "ram_tree";
@@ -74,13 +74,13 @@ public final class BulkRequestParser {
         this.restApiVersion = restApiVersion;
     }
 
-    private static int findNextMarker(byte marker, int from, BytesReference data) {
+    private static int findNextMarker(byte marker, int from, BytesReference data, boolean lastData) {
         final int res = data.indexOf(marker, from);
         if (res != -1) {
             assert res >= 0;
             return res;
         }
-        if (from != data.length()) {
+        if (lastData && from != data.length()) {
             throw new IllegalArgumentException("The bulk request must be terminated by a newline [\\n]");
         }
         return res;
@@ -114,21 +114,104 @@ public final class BulkRequestParser {
             BiConsumer<IndexRequest, String> indexRequestConsumer,
             Consumer<UpdateRequest> updateRequestConsumer,
             Consumer<DeleteRequest> deleteRequestConsumer) throws IOException {
+        incrementalParser(defaultIndex, defaultRouting, defaultFetchSourceContext, defaultPipeline, defaultRequireAlias,
+            allowExplicitIndex, xContentType, indexRequestConsumer, updateRequestConsumer, deleteRequestConsumer).parse(data, true);
+    }
+
+    /**
+     * Create an {@link IncrementalParser} that parses a bulk body which is received in several chunks, assuming the provided default
+     * values. Requests are passed to the consumers as soon as they have been fully received.
+     */
+    public IncrementalParser incrementalParser(
+            @Nullable String defaultIndex,
+            @Nullable String defaultRouting, @Nullable FetchSourceContext defaultFetchSourceContext,
+            @Nullable String defaultPipeline, @Nullable Boolean defaultRequireAlias, boolean allowExplicitIndex,
+            XContentType xContentType,
+            BiConsumer<IndexRequest, String> indexRequestConsumer,
+            Consumer<UpdateRequest> updateRequestConsumer,
+            Consumer<DeleteRequest> deleteRequestConsumer) {
+        return new IncrementalParser(defaultIndex, defaultRouting, defaultFetchSourceContext, defaultPipeline, defaultRequireAlias,
+            allowExplicitIndex, xContentType, indexRequestConsumer, updateRequestConsumer, deleteRequestConsumer);
+    }
+
+    /**
+     * Parses a bulk body that is received in several chunks. Each call to {@link #parse(BytesReference, boolean)} consumes the
+     * requests that are complete in the given data and returns the number of bytes consumed; the caller is expected to pass the
+     * remaining bytes again, followed by the next chunk, on the next call.
+     */
+    public final class IncrementalParser {
+
+        private final String defaultIndex;
+        private final String defaultRouting;
+        private final FetchSourceContext defaultFetchSourceContext;
+        private final String defaultPipeline;
+        private final Boolean defaultRequireAlias;
+        private final boolean allowExplicitIndex;
+        private final XContentType xContentType;
+        private final BiConsumer<IndexRequest, String> indexRequestConsumer;
+        private final Consumer<UpdateRequest> updateRequestConsumer;
+        private final Consumer<DeleteRequest> deleteRequestConsumer;
+
+        // Bulk requests can contain a lot of repeated strings for the index, pipeline and routing parameters. This map is used to
+        // deduplicate duplicate strings parsed for these parameters. While it does not prevent instantiating the duplicate strings, it
+        // reduces their lifetime to the lifetime of this parser instead of the lifetime of the full bulk request.
+        private final Map<String, String> stringDeduplicator = new HashMap<>();
+        private int line = 0;
+        private boolean typesDeprecationLogged = false;
+
+        private IncrementalParser(@Nullable String defaultIndex, @Nullable String defaultRouting,
+                                  @Nullable FetchSourceContext defaultFetchSourceContext, @Nullable String defaultPipeline,
+                                  @Nullable Boolean defaultRequireAlias, boolean allowExplicitIndex, XContentType xContentType,
+                                  BiConsumer<IndexRequest, String> indexRequestConsumer,
+                                  Consumer<UpdateRequest> updateRequestConsumer,
+                                  Consumer<DeleteRequest> deleteRequestConsumer) {
+            this.defaultIndex = defaultIndex;
+            this.defaultRouting = defaultRouting;
+            this.defaultFetchSourceContext = defaultFetchSourceContext;
+            this.defaultPipeline = defaultPipeline;
+            this.defaultRequireAlias = defaultRequireAlias;
+            this.allowExplicitIndex = allowExplicitIndex;
+            this.xContentType = xContentType;
+            this.indexRequestConsumer = indexRequestConsumer;
+            this.updateRequestConsumer = updateRequestConsumer;
+            this.deleteRequestConsumer = deleteRequestConsumer;
+        }
+
+        /**
+         * Parse the complete requests contained in {@code data}.
+         *
+         * @param data     the unconsumed bytes of the previous call, followed by the newly received bytes
+         * @param lastData whether {@code data} contains the end of the bulk body, in which case all of it must be consumed
+         * @return the number of bytes of {@code data} that were consumed
+         */
+        public int parse(BytesReference data, boolean lastData) throws IOException {
+            return BulkRequestParser.this.parse(data, lastData, this, defaultIndex, defaultRouting, defaultFetchSourceContext,
+                defaultPipeline, defaultRequireAlias, allowExplicitIndex, xContentType, indexRequestConsumer, updateRequestConsumer,
+                deleteRequestConsumer);
+        }
+    }
+
+    private int parse(
+            BytesReference data, boolean lastData, IncrementalParser state, @Nullable String defaultIndex,
+            @Nullable String defaultRouting, @Nullable FetchSourceContext defaultFetchSourceContext,
+            @Nullable String defaultPipeline, @Nullable Boolean defaultRequireAlias, boolean allowExplicitIndex,
+            XContentType xContentType,
+            BiConsumer<IndexRequest, String> indexRequestConsumer,
+            Consumer<UpdateRequest> updateRequestConsumer,
+            Consumer<DeleteRequest> deleteRequestConsumer) throws IOException {
         XContent xContent = xContentType.xContent();
-        int line = 0;
+        int line = state.line;
         int from = 0;
         byte marker = xContent.streamSeparator();
-        // Bulk requests can contain a lot of repeated strings for the index, pipeline and routing parameters. This map is used to
-        // deduplicate duplicate strings parsed for these parameters. While it does not prevent instantiating the duplicate strings, it
-        // reduces their lifetime to the lifetime of this parse call instead of the lifetime of the full bulk request.
-        final Map<String, String> stringDeduplicator = new HashMap<>();
-        boolean typesDeprecationLogged = false;
+        final Map<String, String> stringDeduplicator = state.stringDeduplicator;
+        boolean typesDeprecationLogged = state.typesDeprecationLogged;
 
         while (true) {
-            int nextMarker = findNextMarker(marker, from, data);
+            int nextMarker = findNextMarker(marker, from, data, lastData);
             if (nextMarker == -1) {
                 break;
             }
+            final int actionFrom = from;
             line++;
 
             // now parse the action
@@ -250,8 +333,13 @@ public final class BulkRequestParser {
                     deleteRequestConsumer.accept(new DeleteRequest(index).id(id).routing(routing)
                             .version(version).versionType(versionType).setIfSeqNo(ifSeqNo).setIfPrimaryTerm(ifPrimaryTerm));
                 } else {
-                    nextMarker = findNextMarker(marker, from, data);
+                    nextMarker = findNextMarker(marker, from, data, lastData);
                     if (nextMarker == -1) {
+                        if (lastData == false) {
+                            // the source line has not been fully received yet, parse the action line again once it has
+                            from = actionFrom;
+                            line--;
+                        }
                         break;
                     }
                     line++;
@@ -315,6 +403,9 @@ public final class BulkRequestParser {
                 }
             }
         }
+        state.line = line;
+        state.typesDeprecationLogged = typesDeprecationLogged;
+        return from;
     }
 
     private static XContentParser createParser(BytesReference data, XContent xContent, RestApiVersion restApiVersion) throws IOException {
@@ -42,12 +42,14 @@ import org.elasticsearch.cluster.metadata.IndexMetadata;
 import org.elasticsearch.cluster.metadata.IndexNameExpressionResolver;
 import org.elasticsearch.cluster.metadata.MappingMetadata;
 import org.elasticsearch.cluster.metadata.Metadata;
+import org.elasticsearch.cluster.routing.TimeSeriesRouting;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.inject.Inject;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.common.util.concurrent.AtomicArray;
 import org.elasticsearch.index.Index;
+import org.elasticsearch.index.IndexMode;
 import org.elasticsearch.index.IndexNotFoundException;
 import org.elasticsearch.index.IndexingPressure;
 import org.elasticsearch.index.VersionType;
@@ -325,6 +327,22 @@ public class TransportBulkAction extends HandledTransportAction<BulkRequest, Bul
         }
     }
 
+    /**
+     * Documents in time series indices get an id that is derived from their series and timestamp, see {@link TimeSeriesRouting}.
+     */
+    static void assignTimeSeriesId(IndexRequest indexRequest, IndexMetadata indexMetadata, TimeSeriesRouting timeSeriesRouting) {
+        if (indexRequest.routing() != null) {
+            throw new IllegalArgumentException("routing is not supported by index [" + indexMetadata.getIndex().getName() + "] in ["
+                + IndexMode.TIME_SERIES + "] mode");
+        }
+        final String id = timeSeriesRouting.createId(indexRequest.source(), indexRequest.getContentType());
+        if (indexRequest.id() != null && indexRequest.id().equals(id) == false) {
+            throw new IllegalArgumentException("the _id of documents in index [" + indexMetadata.getIndex().getName() + "] in ["
+                + IndexMode.TIME_SERIES + "] mode is derived from their dimensions and timestamp and can't be set");
+        }
+        indexRequest.id(id);
+    }
+
     static void prohibitCustomRoutingOnDataStream(DocWriteRequest<?> writeRequest, Metadata metadata) {
         IndexAbstraction indexAbstraction = metadata.getIndicesLookup().get(writeRequest.index());
         if (indexAbstraction == null) {
@@ -413,6 +431,7 @@ public class TransportBulkAction extends HandledTransportAction<BulkRequest, Bul
             Metadata metadata = clusterState.metadata();
             // Group the requests by ShardId -> Operations mapping
             Map<ShardId, List<BulkItemRequest>> requestsByShard = new HashMap<>();
+            Map<Index, TimeSeriesRouting> timeSeriesRoutings = new HashMap<>();
             for (int i = 0; i < bulkRequest.requests.size(); i++) {
                 DocWriteRequest<?> docWriteRequest = bulkRequest.requests.get(i);
                 //the request can only be null because we set it to null in the previous step, so it gets ignored
@@ -449,6 +468,10 @@ public class TransportBulkAction extends HandledTransportAction<BulkRequest, Bul
                             MappingMetadata mappingMd = indexMetadata.mapping();
                             Version indexCreated = indexMetadata.getCreationVersion();
                             indexRequest.resolveRouting(metadata);
+                            if (indexMetadata.getIndexMode() == IndexMode.TIME_SERIES) {
+                                assignTimeSeriesId(indexRequest, indexMetadata,
+                                    timeSeriesRoutings.computeIfAbsent(concreteIndex, index -> TimeSeriesRouting.forIndex(indexMetadata)));
+                            }
                             indexRequest.process(indexCreated, mappingMd, concreteIndex.getName());
                             break;
                         case UPDATE:
@@ -9,8 +9,11 @@
 package org.elasticsearch.action.search;
 
 import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.node.ResponseCollectorService;
 import org.elasticsearch.search.SearchPhaseResult;
+import org.elasticsearch.search.SearchShardTarget;
 import org.elasticsearch.search.query.QuerySearchResult;
 import org.elasticsearch.transport.Transport;
 
@@ -19,26 +22,35 @@ import java.util.function.BiFunction;
 
 /**
  * A wrapper of search action listeners (search results) that unwraps the query
- * result to get the piggybacked queue size and service time EWMA, adding those
- * values to the coordinating nodes' {@link ResponseCollectorService}.
+ * result to get the piggybacked queue size and service time EWMA, as well as
+ * the number of cached bytes of the shard, adding those values to the
+ * coordinating nodes' {@link ResponseCollectorService}.
  */
 public final class SearchExecutionStatsCollector extends ActionListener.Delegating<SearchPhaseResult, SearchPhaseResult> {
 
     private final String nodeId;
+    @Nullable
+    private final ShardId shardId;
     private final ResponseCollectorService collector;
     private final long startNanos;
 
     SearchExecutionStatsCollector(ActionListener<SearchPhaseResult> listener,
                                   ResponseCollectorService collector,
-                                  String nodeId) {
+                                  String nodeId,
+                                  @Nullable ShardId shardId) {
         super(Objects.requireNonNull(listener, "listener cannot be null"));
         this.collector = Objects.requireNonNull(collector, "response collector cannot be null");
         this.startNanos = System.nanoTime();
         this.nodeId = nodeId;
+        this.shardId = shardId;
     }
 
     public static BiFunction<Transport.Connection, SearchActionListener, ActionListener> makeWrapper(ResponseCollectorService service) {
-        return (connection, originalListener) -> new SearchExecutionStatsCollector(originalListener, service, connection.getNode().getId());
+        return (connection, originalListener) -> {
+            final SearchShardTarget shardTarget = originalListener.getSearchShardTarget();
+            return new SearchExecutionStatsCollector(originalListener, service, connection.getNode().getId(),
+                shardTarget == null ? null : shardTarget.getShardId());
+        };
     }
 
     @Override
@@ -52,6 +64,11 @@ public final class SearchExecutionStatsCollector extends ActionListener.Delegati
             if (serviceTimeEWMA > 0 && queueSize >= 0) {
                 collector.addNodeStatistics(nodeId, queueSize, responseDuration, serviceTimeEWMA);
             }
+            // the cached bytes are -1 if the shard does not read its files through a cache or the query node doesn't capture them
+            final long shardCachedBytes = queryResult.shardCachedBytes();
+            if (shardId != null && shardCachedBytes >= 0) {
+                collector.addShardCachedBytes(nodeId, shardId, shardCachedBytes);
+            }
         }
         delegate.onResponse(response);
     }
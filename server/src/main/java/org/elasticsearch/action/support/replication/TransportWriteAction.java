@@ -99,8 +99,8 @@ public abstract class TransportWriteAction<
             // If this primary request was received from a local reroute initiated by the node client, we
             // must mark a new primary operation local to the coordinating node.
             if (localRerouteInitiatedByNodeClient) {
-                return indexingPressure.markPrimaryOperationLocalToCoordinatingNodeStarted(primaryOperationCount(request),
-                    primaryOperationSize(request));
+                return indexingPressure.markPrimaryOperationLocalToCoordinatingNodeStarted(request.shardId(),
+                    primaryOperationCount(request), primaryOperationSize(request));
             } else {
                 return () -> {};
             }
@@ -108,8 +108,8 @@ public abstract class TransportWriteAction<
             // If this primary request was received directly from the network, we must mark a new primary
             // operation. This happens if the write action skips the reroute step (ex: rsync) or during
             // primary delegation, after the primary relocation hand-off.
-            return indexingPressure.markPrimaryOperationStarted(primaryOperationCount(request), primaryOperationSize(request),
-                force(request));
+            return indexingPressure.markPrimaryOperationStarted(request.shardId(), primaryOperationCount(request),
+                primaryOperationSize(request), force(request));
         }
     }
 
@@ -123,7 +123,8 @@ public abstract class TransportWriteAction<
 
     @Override
     protected Releasable checkReplicaLimits(ReplicaRequest request) {
-        return indexingPressure.markReplicaOperationStarted(replicaOperationCount(request), replicaOperationSize(request), force(request));
+        return indexingPressure.markReplicaOperationStarted(request.shardId(), replicaOperationCount(request),
+            replicaOperationSize(request), force(request));
     }
 
     protected long replicaOperationSize(ReplicaRequest request) {
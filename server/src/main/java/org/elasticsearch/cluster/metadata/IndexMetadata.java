@@ -42,6 +42,7 @@ import org.elasticsearch.common.xcontent.XContentHelper;
 import org.elasticsearch.common.xcontent.XContentParser;
 import org.elasticsearch.gateway.MetadataStateFormat;
 import org.elasticsearch.index.Index;
+import org.elasticsearch.index.IndexMode;
 import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.index.seqno.SequenceNumbers;
 import org.elasticsearch.index.shard.IndexLongFieldRange;
@@ -146,6 +147,12 @@ public class IndexMetadata implements Diffable<IndexMetadata>, ToXContentFragmen
     public static final Setting<Integer> INDEX_ROUTING_PARTITION_SIZE_SETTING =
             Setting.intSetting(SETTING_ROUTING_PARTITION_SIZE, 1, 1, Property.IndexScope);
 
+    /**
+     * The fields whose values route the documents of an index in {@link IndexMode#TIME_SERIES time series mode} to their shard.
+     */
+    public static final Setting<List<String>> INDEX_ROUTING_PATH = Setting.listSetting("index.routing_path", Collections.emptyList(),
+        Function.identity(), Property.IndexScope, Property.Final);
+
     @SuppressWarnings("Convert2Diamond") // since some IntelliJs mysteriously report an error if an <Integer> is replaced with <> here:
     public static final Setting<Integer> INDEX_NUMBER_OF_ROUTING_SHARDS_SETTING = Setting.intSetting(
         "index.number_of_routing_shards",
@@ -347,6 +354,8 @@ public class IndexMetadata implements Diffable<IndexMetadata>, ToXContentFragmen
     private final int routingNumShards;
     private final int routingFactor;
     private final int routingPartitionSize;
+    private final IndexMode indexMode;
+    private final List<String> routingPaths;
 
     private final int numberOfShards;
     private final int numberOfReplicas;
@@ -411,6 +420,8 @@ public class IndexMetadata implements Diffable<IndexMetadata>, ToXContentFragmen
             final Version indexCreatedVersion,
             final int routingNumShards,
             final int routingPartitionSize,
+            final IndexMode indexMode,
+            final List<String> routingPaths,
             final ActiveShardCount waitForActiveShards,
             final ImmutableOpenMap<String, RolloverInfo> rolloverInfos,
             final boolean isSystem,
@@ -443,6 +454,8 @@ public class IndexMetadata implements Diffable<IndexMetadata>, ToXContentFragmen
         this.routingNumShards = routingNumShards;
         this.routingFactor = routingNumShards / numberOfShards;
         this.routingPartitionSize = routingPartitionSize;
+        this.indexMode = indexMode;
+        this.routingPaths = routingPaths;
         this.waitForActiveShards = waitForActiveShards;
         this.rolloverInfos = rolloverInfos;
         this.isSystem = isSystem;
@@ -529,6 +542,17 @@ public class IndexMetadata implements Diffable<IndexMetadata>, ToXContentFragmen
         return routingPartitionSize != 1;
     }
 
+    public IndexMode getIndexMode() {
+        return indexMode;
+    }
+
+    /**
+     * The fields whose values route documents to their shard if the index is in {@link IndexMode#TIME_SERIES time series mode}.
+     */
+    public List<String> getRoutingPaths() {
+        return routingPaths;
+    }
+
     public int getTotalNumberOfShards() {
         return totalNumberOfShards;
     }
@@ -1303,6 +1327,8 @@ public class IndexMetadata implements Diffable<IndexMetadata>, ToXContentFragmen
                     indexCreatedVersion,
                     getRoutingNumShards(),
                     routingPartitionSize,
+                    IndexMode.INDEX_MODE_SETTING.get(settings),
+                    INDEX_ROUTING_PATH.get(settings),
                     waitForActiveShards,
                     rolloverInfos.build(),
                     isSystem,
@@ -989,6 +989,8 @@ public class MetadataCreateIndexService {
             // we cannot validate for index shrinking since the mapping is empty
             // at this point. The validation will take place later in the process
             // (when all shards are copied in a single place).
+            indexService.getIndexSettings().getMode().validateMapping(mapperService.mappingLookup(),
+                indexService.getIndexSettings().getSettings());
             indexService.getIndexSortSupplier().get();
         }
         if (request.dataStreamName() != null) {
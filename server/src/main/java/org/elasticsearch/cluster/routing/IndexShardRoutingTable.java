@@ -274,6 +274,18 @@ public class IndexShardRoutingTable implements Iterable<ShardRouting> {
         return nodeStats;
     }
 
+    private static Map<String, Long> getShardCachedBytes(final ShardId shardId, final Set<String> nodeIds,
+                                                         final ResponseCollectorService collector) {
+        final Map<String, Long> shardCachedBytes = new HashMap<>(nodeIds.size());
+        for (String nodeId : nodeIds) {
+            final long cachedBytes = collector.getShardCachedBytes(nodeId, shardId);
+            if (cachedBytes > 0L) {
+                shardCachedBytes.put(nodeId, cachedBytes);
+            }
+        }
+        return shardCachedBytes;
+    }
+
     private static Map<String, Double> rankNodes(final Map<String, Optional<ResponseCollectorService.ComputedNodeStats>> nodeStats,
                                                  final Map<String, Long> nodeSearchCounts) {
         final Map<String, Double> nodeRanks = new HashMap<>(nodeStats.size());
@@ -335,9 +347,12 @@ public class IndexShardRoutingTable implements Iterable<ShardRouting> {
         // Retrieve all the nodes the shards exist on
         final Map<String, Double> nodeRanks = rankNodes(nodeStats, nodeSearchCounts);
 
+        // Retrieve how much of the shard each node holds in its local cache, if the shard reads its files through a cache
+        final Map<String, Long> shardCachedBytes = getShardCachedBytes(shards.get(0).shardId(), nodeIds, collector);
+
         // sort all shards based on the shard rank
         ArrayList<ShardRouting> sortedShards = new ArrayList<>(shards);
-        Collections.sort(sortedShards, new NodeRankComparator(nodeRanks));
+        Collections.sort(sortedShards, new NodeRankComparator(nodeRanks, shardCachedBytes));
 
         // adjust the non-winner nodes' stats so they will get a chance to receive queries
         if (sortedShards.size() > 1) {
@@ -361,11 +376,37 @@ public class IndexShardRoutingTable implements Iterable<ShardRouting> {
         return sortedShards;
     }
 
+    /**
+     * Orders shards by the rank of the node they are allocated on. Nodes whose ranks fall in the same bucket of
+     * {@link #RANK_TOLERANCE} are considered equally loaded and are ordered by the number of bytes of the shard they hold in their
+     * local cache, so that searches on shards which read their files through a cache (like partially mounted searchable snapshots)
+     * go to the warmest copy when it does not cost anything in terms of load. Without any cache information the order is the same
+     * as the order of the ranks.
+     */
     private static class NodeRankComparator implements Comparator<ShardRouting> {
+
+        /**
+         * Relative difference of rank below which nodes are considered equally loaded. Ranks are bucketed on a logarithmic scale
+         * rather than compared pairwise to keep the comparison transitive.
+         */
+        private static final double RANK_TOLERANCE = 0.1d;
+        private static final double LOG_RANK_TOLERANCE = Math.log1p(RANK_TOLERANCE);
+
         private final Map<String, Double> nodeRanks;
+        private final Map<String, Long> shardCachedBytes;
 
-        NodeRankComparator(Map<String, Double> nodeRanks) {
+        NodeRankComparator(Map<String, Double> nodeRanks, Map<String, Long> shardCachedBytes) {
             this.nodeRanks = nodeRanks;
+            this.shardCachedBytes = shardCachedBytes;
+        }
+
+        private static long rankBucket(double rank) {
+            return rank > 0d ? (long) Math.floor(Math.log(rank) / LOG_RANK_TOLERANCE) : Long.MIN_VALUE;
+        }
+
+        private int compareCachedBytes(String nodeId1, String nodeId2) {
+            // warmest copies go first
+            return Long.compare(shardCachedBytes.getOrDefault(nodeId2, 0L), shardCachedBytes.getOrDefault(nodeId1, 0L));
         }
 
         @Override
@@ -378,6 +419,15 @@ public class IndexShardRoutingTable implements Iterable<ShardRouting> {
             Double shard2rank = nodeRanks.get(s2.currentNodeId());
             if (shard1rank != null) {
                 if (shard2rank != null) {
+                    if (shardCachedBytes.isEmpty() == false) {
+                        int cmp = Long.compare(rankBucket(shard1rank), rankBucket(shard2rank));
+                        if (cmp == 0) {
+                            cmp = compareCachedBytes(s1.currentNodeId(), s2.currentNodeId());
+                        }
+                        if (cmp != 0) {
+                            return cmp;
+                        }
+                    }
                     return shard1rank.compareTo(shard2rank);
                 } else {
                     // place non-nulls after null values
@@ -388,8 +438,8 @@ public class IndexShardRoutingTable implements Iterable<ShardRouting> {
                     // place nulls before non-null values
                     return -1;
                 } else {
-                    // Both nodes do not have stats, they are equal
-                    return 0;
+                    // Both nodes do not have stats, prefer the warmest copy
+                    return compareCachedBytes(s1.currentNodeId(), s2.currentNodeId());
                 }
             }
         }
@@ -16,6 +16,7 @@ import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.IndexMode;
 import org.elasticsearch.index.IndexNotFoundException;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.node.ResponseCollectorService;
@@ -217,6 +218,14 @@ public class OperationRouting {
     }
 
     public static int generateShardId(IndexMetadata indexMetadata, @Nullable String id, @Nullable String routing) {
+        if (indexMetadata.getIndexMode() == IndexMode.TIME_SERIES) {
+            if (routing != null) {
+                throw new IllegalArgumentException("routing is not supported by index [" + indexMetadata.getIndex().getName()
+                    + "] in [" + IndexMode.TIME_SERIES + "] mode");
+            }
+            return scaledShardId(indexMetadata, TimeSeriesRouting.routingHash(id));
+        }
+
         final String effectiveRouting;
         final int partitionOffset;
 
@@ -238,8 +247,10 @@ public class OperationRouting {
     }
 
     private static int calculateScaledShardId(IndexMetadata indexMetadata, String effectiveRouting, int partitionOffset) {
-        final int hash = Murmur3HashFunction.hash(effectiveRouting) + partitionOffset;
+        return scaledShardId(indexMetadata, Murmur3HashFunction.hash(effectiveRouting) + partitionOffset);
+    }
 
+    private static int scaledShardId(IndexMetadata indexMetadata, int hash) {
         // we don't use IMD#getNumberOfShards since the index might have been shrunk such that we need to use the size
         // of original index to hash documents
         return Math.floorMod(hash, indexMetadata.getRoutingNumShards()) / indexMetadata.getRoutingFactor();
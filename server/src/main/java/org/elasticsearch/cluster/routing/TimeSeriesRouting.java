@@ -0,0 +1,315 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.cluster.routing;
+
+import org.apache.lucene.document.InetAddressPoint;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.cluster.metadata.DataStream;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.cluster.metadata.MappingMetadata;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.hash.MurmurHash3;
+import org.elasticsearch.common.network.InetAddresses;
+import org.elasticsearch.common.time.DateFormatter;
+import org.elasticsearch.common.time.DateFormatters;
+import org.elasticsearch.common.util.LocaleUtils;
+import org.elasticsearch.common.xcontent.DeprecationHandler;
+import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.common.xcontent.XContentHelper;
+import org.elasticsearch.common.xcontent.XContentParser;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.Tuple;
+import org.elasticsearch.index.IndexMode;
+import org.elasticsearch.index.mapper.DateFieldMapper;
+import org.elasticsearch.index.mapper.IpFieldMapper;
+import org.elasticsearch.index.mapper.KeywordFieldMapper;
+import org.elasticsearch.index.mapper.NumberFieldMapper;
+import org.elasticsearch.index.mapper.TimeSeriesIdFieldMapper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Routes the documents of indices in {@link IndexMode#TIME_SERIES time series mode}. The {@code _id} of a document is derived from its
+ * {@link TimeSeriesIdFieldMapper series id} and its {@code @timestamp}. The id starts with the hash of the series that picks the shard of
+ * the document, so that all documents of a series end up on the same shard and the shard of a document can be computed from its id alone,
+ * for instance to get the document by id.
+ * <p>
+ * The coordinating node doesn't parse documents, so it reads the values of the {@link IndexMetadata#INDEX_ROUTING_PATH routing fields}
+ * and the {@code @timestamp} from the source and converts them as their mapping would, including their {@code null_value}. A routing field
+ * that is a multi-field reads the value of its parent field. {@link IndexMode#TIME_SERIES} requires the routing fields to be all
+ * dimension fields of the index and rejects normalizers on them, so these values make up the whole series id, and the shard checks that
+ * the id matches the series id and timestamp it parsed from the document.
+ */
+public final class TimeSeriesRouting {
+
+    private static final int SERIES_HASH_BYTES = 16;
+    private static final int ID_BYTES = SERIES_HASH_BYTES + Long.BYTES;
+
+    private final String indexName;
+    private final List<String> routingPaths;
+    // the routing fields by the path of their values in the source
+    private final Map<String, List<RoutingField>> routingFields;
+    private final DateFormatter timestampFormatter;
+    private final DateFieldMapper.Resolution timestampResolution;
+
+    private TimeSeriesRouting(String indexName, List<String> routingPaths, Map<String, List<RoutingField>> routingFields,
+                              DateFormatter timestampFormatter, DateFieldMapper.Resolution timestampResolution) {
+        this.indexName = indexName;
+        this.routingPaths = routingPaths;
+        this.routingFields = routingFields;
+        this.timestampFormatter = timestampFormatter;
+        this.timestampResolution = timestampResolution;
+    }
+
+    /**
+     * Reads the types of the routing fields and the format of the {@code @timestamp} field from the mapping of the given index. The
+     * mapping is parsed once, so callers should reuse the result for all documents of a request.
+     */
+    public static TimeSeriesRouting forIndex(IndexMetadata indexMetadata) {
+        final String indexName = indexMetadata.getIndex().getName();
+        final MappingMetadata mapping = indexMetadata.mapping();
+        final Map<String, Object> properties = mapping == null ? Map.of() : mapping.sourceAsMap();
+        final Map<String, List<RoutingField>> routingFields = new HashMap<>();
+        for (String routingPath : indexMetadata.getRoutingPaths()) {
+            final Tuple<String, Map<String, Object>> field = fieldMapping(properties, routingPath);
+            final String type = field == null ? null : (String) field.v2().get("type");
+            if (type == null) {
+                throw new IllegalArgumentException("routing field [" + routingPath + "] of index [" + indexName + "] is not mapped");
+            }
+            final Object nullValue = field.v2().get("null_value");
+            routingFields.computeIfAbsent(field.v1(), k -> new ArrayList<>())
+                .add(new RoutingField(routingPath, type, nullValue == null ? null : nullDimensionValue(type, nullValue)));
+        }
+        final Tuple<String, Map<String, Object>> timestampField =
+            fieldMapping(properties, DataStream.TimestampField.FIXED_TIMESTAMP_FIELD);
+        final Map<String, Object> timestamp = timestampField == null ? null : timestampField.v2();
+        if (timestamp == null) {
+            throw new IllegalArgumentException("[" + DataStream.TimestampField.FIXED_TIMESTAMP_FIELD + "] of index [" + indexName
+                + "] is not mapped");
+        }
+        final DateFieldMapper.Resolution resolution = DateFieldMapper.DATE_NANOS_CONTENT_TYPE.equals(timestamp.get("type"))
+            ? DateFieldMapper.Resolution.NANOSECONDS : DateFieldMapper.Resolution.MILLISECONDS;
+        DateFormatter formatter = timestamp.containsKey("format") ? DateFormatter.forPattern(timestamp.get("format").toString())
+            : resolution == DateFieldMapper.Resolution.NANOSECONDS ? DateFieldMapper.DEFAULT_DATE_TIME_NANOS_FORMATTER
+            : DateFieldMapper.DEFAULT_DATE_TIME_FORMATTER;
+        formatter = formatter.withLocale(timestamp.containsKey("locale") ? LocaleUtils.parse(timestamp.get("locale").toString())
+            : Locale.ROOT);
+        return new TimeSeriesRouting(indexName, indexMetadata.getRoutingPaths(), routingFields, formatter, resolution);
+    }
+
+    /**
+     * Finds the mapping of the field with the given path along with the path of its value in the source, which is the path of the parent
+     * field if the field is a multi-field.
+     */
+    @Nullable
+    private static Tuple<String, Map<String, Object>> fieldMapping(Map<String, Object> mapping, String path) {
+        Map<String, Object> current = mapping;
+        String sourcePath = null;
+        for (String name : path.split("\\.")) {
+            Map<String, Object> field = childMapping(current, "properties", name);
+            if (field != null) {
+                sourcePath = sourcePath == null ? name : sourcePath + "." + name;
+            } else if (sourcePath != null) {
+                field = childMapping(current, "fields", name);
+            }
+            if (field == null) {
+                return null;
+            }
+            current = field;
+        }
+        return Tuple.tuple(sourcePath, current);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Nullable
+    private static Map<String, Object> childMapping(Map<String, Object> mapping, String key, String name) {
+        final Object children = mapping.get(key);
+        if (children instanceof Map == false) {
+            return null;
+        }
+        final Object child = ((Map<String, Object>) children).get(name);
+        return child instanceof Map ? (Map<String, Object>) child : null;
+    }
+
+    /**
+     * Converts the {@code null_value} of a dimension field like the field mapper does, or returns {@code null} if the field mapper would
+     * ignore it.
+     */
+    @Nullable
+    private static Object nullDimensionValue(String type, Object nullValue) {
+        if (type.equals(KeywordFieldMapper.CONTENT_TYPE)) {
+            return new BytesRef(nullValue.toString());
+        } else if (type.equals(IpFieldMapper.CONTENT_TYPE)) {
+            try {
+                return new BytesRef(InetAddressPoint.encode(InetAddresses.forString(nullValue.toString())));
+            } catch (IllegalArgumentException e) {
+                // the field mapper ignores a null_value that isn't an ip address
+                return null;
+            }
+        } else {
+            return NumberFieldMapper.NumberType.valueOf(type.toUpperCase(Locale.ROOT)).parse(nullValue, false).longValue();
+        }
+    }
+
+    /**
+     * Derives the {@code _id} of a document from the values of its routing fields and its {@code @timestamp}, converted as their mapping
+     * would, so that the same series and timestamp always give the same id whatever their representation in the source.
+     */
+    public String createId(BytesReference source, XContentType xContentType) {
+        final Document document = new Document();
+        try (XContentParser parser = XContentHelper.createParser(NamedXContentRegistry.EMPTY,
+            DeprecationHandler.THROW_UNSUPPORTED_OPERATION, source, xContentType)) {
+            if (parser.nextToken() != XContentParser.Token.START_OBJECT) {
+                throw new IllegalArgumentException("the source of a document must be an object");
+            }
+            document.extract(parser, "");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (document.dimensions.isEmpty()) {
+            throw new IllegalArgumentException("documents in index [" + indexName + "] must have a value for at least one of the "
+                + "routing fields " + routingPaths);
+        }
+        if (document.timestamp == null) {
+            throw new IllegalArgumentException("documents in index [" + indexName + "] must have a ["
+                + DataStream.TimestampField.FIXED_TIMESTAMP_FIELD + "]");
+        }
+        final BytesRef tsid;
+        try {
+            tsid = TimeSeriesIdFieldMapper.encodeTsid(document.dimensions);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return createId(tsid, document.timestamp);
+    }
+
+    /**
+     * Derives the {@code _id} of a document from its {@link TimeSeriesIdFieldMapper series id} and its {@code @timestamp} in the
+     * resolution of the timestamp field.
+     */
+    public static String createId(BytesRef tsid, long timestamp) {
+        final MurmurHash3.Hash128 hash = MurmurHash3.hash128(tsid.bytes, tsid.offset, tsid.length, 0, new MurmurHash3.Hash128());
+        final ByteBuffer id = ByteBuffer.allocate(ID_BYTES);
+        id.putLong(hash.h1);
+        id.putLong(hash.h2);
+        id.putLong(timestamp);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.array());
+    }
+
+    /**
+     * The hash of the series of a document that {@link #createId} derived the id of, which picks the shard of the document.
+     */
+    public static int routingHash(String id) {
+        final byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(id);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("[" + id + "] is not a valid id for a time series index", e);
+        }
+        if (bytes.length != ID_BYTES) {
+            throw new IllegalArgumentException("[" + id + "] is not a valid id for a time series index");
+        }
+        return ByteBuffer.wrap(bytes).getInt(0);
+    }
+
+    /**
+     * The values of the routing fields and the timestamp of a document.
+     */
+    private final class Document {
+
+        private final SortedMap<String, Object> dimensions = new TreeMap<>();
+        private Long timestamp;
+
+        void extract(XContentParser parser, String prefix) throws IOException {
+            XContentParser.Token token;
+            while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
+                assert token == XContentParser.Token.FIELD_NAME : token;
+                final String path = prefix + parser.currentName();
+                token = parser.nextToken();
+                if (token == XContentParser.Token.START_OBJECT) {
+                    if (isPrefixOfRoutingPath(path + ".")) {
+                        extract(parser, path + ".");
+                    } else {
+                        parser.skipChildren();
+                    }
+                } else if (routingFields.containsKey(path)) {
+                    if (token == XContentParser.Token.VALUE_NULL) {
+                        for (RoutingField field : routingFields.get(path)) {
+                            if (field.nullValue != null) {
+                                dimensions.put(field.name, field.nullValue);
+                            }
+                        }
+                    } else if (token.isValue() == false) {
+                        throw new IllegalArgumentException("routing field [" + path + "] must have a single value");
+                    } else {
+                        for (RoutingField field : routingFields.get(path)) {
+                            dimensions.put(field.name, dimensionValue(field.type, parser));
+                        }
+                    }
+                } else if (path.equals(DataStream.TimestampField.FIXED_TIMESTAMP_FIELD)) {
+                    if (token != XContentParser.Token.VALUE_NUMBER && token != XContentParser.Token.VALUE_STRING) {
+                        throw new IllegalArgumentException("[" + path + "] must have a single date value");
+                    }
+                    timestamp = timestampResolution.convert(
+                        DateFormatters.from(timestampFormatter.parse(parser.text()), timestampFormatter.locale()).toInstant());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+
+        /**
+         * Converts the value of a dimension field like the field mapper does before it adds the doc values that
+         * {@link TimeSeriesIdFieldMapper} encodes.
+         */
+        private Object dimensionValue(String type, XContentParser parser) throws IOException {
+            if (type.equals(KeywordFieldMapper.CONTENT_TYPE)) {
+                return new BytesRef(parser.text());
+            } else if (type.equals(IpFieldMapper.CONTENT_TYPE)) {
+                return new BytesRef(InetAddressPoint.encode(InetAddresses.forString(parser.text())));
+            } else {
+                return NumberFieldMapper.NumberType.valueOf(type.toUpperCase(Locale.ROOT)).parse(parser, true).longValue();
+            }
+        }
+
+        private boolean isPrefixOfRoutingPath(String prefix) {
+            for (String sourcePath : routingFields.keySet()) {
+                if (sourcePath.startsWith(prefix)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class RoutingField {
+
+        private final String name;
+        private final String type;
+        @Nullable
+        private final Object nullValue;
+
+        RoutingField(String name, String type, @Nullable Object nullValue) {
+            this.name = name;
+            this.type = type;
+            this.nullValue = nullValue;
+        }
+    }
+}
@@ -27,4 +27,11 @@ public interface BlobStore extends Closeable {
     default Map<String, Long> stats() {
         return Collections.emptyMap();
     }
+
+    /**
+     * Returns statistics on the number of bytes that have been transferred to and from this blob store, by direction
+     */
+    default Map<String, Long> transferredBytes() {
+        return Collections.emptyMap();
+    }
 }
@@ -17,6 +17,7 @@ import org.elasticsearch.cluster.routing.allocation.decider.MaxRetryAllocationDe
 import org.elasticsearch.cluster.routing.allocation.decider.ShardsLimitAllocationDecider;
 import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.index.IndexMode;
 import org.elasticsearch.index.IndexModule;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.IndexSortConfig;
@@ -61,6 +62,8 @@ public final class IndexScopedSettings extends AbstractScopedSettings {
             IndexMetadata.INDEX_NUMBER_OF_REPLICAS_SETTING,
             IndexMetadata.INDEX_NUMBER_OF_SHARDS_SETTING,
             IndexMetadata.INDEX_ROUTING_PARTITION_SIZE_SETTING,
+            IndexMetadata.INDEX_ROUTING_PATH,
+            IndexMode.INDEX_MODE_SETTING,
             IndexMetadata.INDEX_NUMBER_OF_ROUTING_SHARDS_SETTING,
             IndexMetadata.INDEX_READ_ONLY_SETTING,
             IndexMetadata.INDEX_BLOCKS_READ_SETTING,
@@ -95,11 +98,14 @@ public final class IndexScopedSettings extends AbstractScopedSettings {
             MergePolicyConfig.INDEX_MERGE_POLICY_MAX_MERGE_AT_ONCE_EXPLICIT_SETTING,
             MergePolicyConfig.INDEX_MERGE_POLICY_MAX_MERGED_SEGMENT_SETTING,
             MergePolicyConfig.INDEX_MERGE_POLICY_SEGMENTS_PER_TIER_SETTING,
+            MergePolicyConfig.INDEX_MERGE_POLICY_TIME_RANGE_AWARE_SETTING,
             IndexSortConfig.INDEX_SORT_FIELD_SETTING,
             IndexSortConfig.INDEX_SORT_ORDER_SETTING,
             IndexSortConfig.INDEX_SORT_MISSING_SETTING,
             IndexSortConfig.INDEX_SORT_MODE_SETTING,
             IndexSettings.INDEX_TRANSLOG_DURABILITY_SETTING,
+            IndexSettings.INDEX_TRANSLOG_COMPRESSION_ENABLED_SETTING,
+            IndexSettings.INDEX_TRANSLOG_REPLAY_CONCURRENCY_SETTING,
             IndexSettings.INDEX_WARMER_ENABLED_SETTING,
             IndexSettings.INDEX_REFRESH_INTERVAL_SETTING,
             IndexSettings.MAX_RESULT_WINDOW_SETTING,
@@ -151,6 +157,8 @@ public final class IndexScopedSettings extends AbstractScopedSettings {
             IndexModule.INDEX_RECOVERY_TYPE_SETTING,
             IndexModule.INDEX_QUERY_CACHE_ENABLED_SETTING,
             FsDirectoryFactory.INDEX_LOCK_FACTOR_SETTING,
+            FsDirectoryFactory.INDEX_STORE_HYBRID_MMAP_EXTENSIONS,
+            Store.INDEX_STORE_TRACK_READ_BYTES_SETTING,
             EngineConfig.INDEX_CODEC_SETTING,
             IndexMetadata.SETTING_WAIT_FOR_ACTIVE_SHARDS,
             IndexSettings.DEFAULT_PIPELINE,
@@ -15,6 +15,9 @@ import org.elasticsearch.common.settings.Setting.Property;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.node.Node;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.AbstractExecutorService;
@@ -29,6 +32,7 @@ import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
 
 public class EsExecutors {
 
@@ -55,6 +59,12 @@ public class EsExecutors {
         return NODE_PROCESSORS_SETTING.get(settings);
     }
 
+    /**
+     * Creates an unstarted virtual thread with the given name that runs the given task, or {@code null} if the runtime does not support
+     * virtual threads.
+     */
+    private static final BiFunction<String, Runnable, Thread> NEW_VIRTUAL_THREAD = loadNewVirtualThread();
+
     public static PrioritizedEsThreadPoolExecutor newSinglePrioritizing(String name, ThreadFactory threadFactory,
                                                                         ThreadContext contextHolder, ScheduledExecutorService timer) {
         return new PrioritizedEsThreadPoolExecutor(name, 1, 1, 0L, TimeUnit.MILLISECONDS, threadFactory, contextHolder, timer);
@@ -69,6 +79,15 @@ public class EsExecutors {
         return executor;
     }
 
+    /**
+     * Returns an executor that runs each task on a new thread of the given factory, typically a virtual thread, and that runs at most
+     * {@code maxConcurrentTasks} tasks at the same time, regardless of the number of threads.
+     */
+    public static EsVirtualThreadExecutor newThreadPerTask(String name, int maxConcurrentTasks, ThreadFactory threadFactory,
+                                                           ThreadContext contextHolder) {
+        return new EsVirtualThreadExecutor(name, maxConcurrentTasks, threadFactory, contextHolder);
+    }
+
     public static EsThreadPoolExecutor newFixed(String name, int size, int queueCapacity,
                                                 ThreadFactory threadFactory, ThreadContext contextHolder, boolean trackEWMA) {
         BlockingQueue<Runnable> queue;
@@ -200,6 +219,62 @@ public class EsExecutors {
         return new EsThreadFactory(namePrefix);
     }
 
+    /**
+     * @return whether the runtime supports virtual threads and they can be used. Virtual threads have no permissions under a security
+     * manager, so they are not used while one is installed.
+     */
+    public static boolean virtualThreadsSupported() {
+        return NEW_VIRTUAL_THREAD != null && System.getSecurityManager() == null;
+    }
+
+    /**
+     * Returns a factory of virtual threads which are named like the threads of {@link #daemonThreadFactory(String)}, so that the checks
+     * of the current thread pool based on thread names still apply. Falls back to {@link #daemonThreadFactory(String)} if virtual threads
+     * are not {@link #virtualThreadsSupported() supported}.
+     */
+    public static ThreadFactory virtualThreadFactory(String namePrefix) {
+        final BiFunction<String, Runnable, Thread> newVirtualThread = NEW_VIRTUAL_THREAD;
+        if (virtualThreadsSupported() == false) {
+            return daemonThreadFactory(namePrefix);
+        }
+        final AtomicInteger threadNumber = new AtomicInteger(1);
+        // the thread is named by its builder: renaming it once created would need the permission to modify the threads of any thread
+        // group under the security manager, since virtual threads do not belong to the thread group of the thread that creates them
+        return r -> newVirtualThread.apply(namePrefix + "[T#" + threadNumber.getAndIncrement() + "]", r);
+    }
+
+    private static BiFunction<String, Runnable, Thread> loadNewVirtualThread() {
+        try {
+            // Thread.ofVirtual().name(name).unstarted(task), which only exists on recent runtimes
+            final MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            final Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            final Class<?> ofVirtualClass = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            final MethodHandle ofVirtual = lookup.findStatic(Thread.class, "ofVirtual", MethodType.methodType(ofVirtualClass));
+            final MethodHandle name = lookup.findVirtual(ofVirtualClass, "name", MethodType.methodType(ofVirtualClass, String.class));
+            final MethodHandle unstarted = lookup.findVirtual(builderClass, "unstarted",
+                MethodType.methodType(Thread.class, Runnable.class));
+            final BiFunction<String, Runnable, Thread> newVirtualThread = (threadName, task) -> {
+                try {
+                    return (Thread) unstarted.invoke(name.invoke(ofVirtual.invoke(), threadName), task);
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable t) {
+                    throw new IllegalStateException("failed to create virtual thread [" + threadName + "]", t);
+                }
+            };
+            // virtual threads are a preview feature on some runtimes, which refuse to create them unless preview features are enabled
+            newVirtualThread.apply("virtual-thread-check", () -> {});
+            return newVirtualThread;
+        } catch (Error e) {
+            if (e instanceof LinkageError) {
+                return null;
+            }
+            throw e;
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
     static class EsThreadFactory implements ThreadFactory {
 
         final ThreadGroup group;
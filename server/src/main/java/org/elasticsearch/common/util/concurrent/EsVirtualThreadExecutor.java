@@ -0,0 +1,212 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.util.concurrent;
+
+import org.elasticsearch.common.metrics.CounterMetric;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An executor that runs each task on a new thread of its own, typically a virtual thread, and bounds the number of tasks that run at the
+ * same time with a number of permits rather than with a number of threads. Tasks that do not get a permit wait in an unbounded queue,
+ * like the tasks of a scaling executor that reached its maximum number of threads. Tasks run in the {@link ThreadContext} of the thread
+ * that submitted them.
+ */
+public final class EsVirtualThreadExecutor extends AbstractExecutorService {
+
+    private final String name;
+    private final int permits;
+    private final ThreadFactory threadFactory;
+    private final ThreadContext contextHolder;
+
+    private final BlockingQueue<Runnable> queue = ConcurrentCollections.newBlockingQueue();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicInteger largest = new AtomicInteger();
+    private final CounterMetric completed = new CounterMetric();
+    private final CounterMetric rejected = new CounterMetric();
+    private final CountDownLatch terminated = new CountDownLatch(1);
+    private volatile boolean shutdown; // only set under this, so that no task is queued once it is set
+
+    EsVirtualThreadExecutor(String name, int permits, ThreadFactory threadFactory, ThreadContext contextHolder) {
+        if (permits <= 0) {
+            throw new IllegalArgumentException("the number of permits of [" + name + "] must be positive but was [" + permits + "]");
+        }
+        this.name = name;
+        this.permits = permits;
+        this.threadFactory = threadFactory;
+        this.contextHolder = contextHolder;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        final Runnable task = contextHolder.preserveContext(command);
+        final boolean queued;
+        synchronized (this) {
+            queued = shutdown == false && queue.add(task);
+        }
+        if (queued == false) {
+            reject(task, new EsRejectedExecutionException("rejected execution of " + command + " on " + this, true));
+            return;
+        }
+        maybeStartTasks();
+    }
+
+    private void reject(Runnable task, EsRejectedExecutionException e) {
+        rejected.inc();
+        if (task instanceof AbstractRunnable) {
+            // as for EsThreadPoolExecutor, an abstract runnable handles the rejection itself
+            try {
+                ((AbstractRunnable) task).onRejection(e);
+            } finally {
+                ((AbstractRunnable) task).onAfter();
+            }
+        } else {
+            throw e;
+        }
+    }
+
+    /**
+     * Starts a thread for each queued task for which a permit is available.
+     */
+    private void maybeStartTasks() {
+        while (queue.isEmpty() == false) {
+            final int current = running.get();
+            if (current >= permits) {
+                // the task that releases a permit starts the next queued task
+                return;
+            }
+            if (running.compareAndSet(current, current + 1) == false) {
+                continue;
+            }
+            final Runnable task = queue.poll();
+            if (task == null) {
+                running.decrementAndGet();
+                continue;
+            }
+            largest.accumulateAndGet(current + 1, Math::max);
+            try {
+                threadFactory.newThread(() -> runTask(task)).start();
+            } catch (RuntimeException | OutOfMemoryError e) {
+                running.decrementAndGet();
+                final EsRejectedExecutionException rejection = new EsRejectedExecutionException(
+                    "failed to start a thread for " + contextHolder.unwrap(task) + " on " + this,
+                    shutdown
+                );
+                rejection.initCause(e);
+                reject(task, rejection);
+            }
+        }
+        maybeTerminate();
+    }
+
+    private void runTask(Runnable task) {
+        try {
+            task.run();
+            EsExecutors.rethrowErrors(contextHolder.unwrap(task));
+        } finally {
+            completed.inc();
+            running.decrementAndGet();
+            maybeStartTasks();
+        }
+    }
+
+    private void maybeTerminate() {
+        // check the queue before the running tasks: a task is counted as running before it is taken off the queue, and no task is queued
+        // once shut down, so no task can start once both are seen empty
+        if (shutdown && queue.isEmpty() && running.get() == 0) {
+            terminated.countDown();
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        synchronized (this) {
+            shutdown = true;
+        }
+        maybeTerminate();
+    }
+
+    /**
+     * Stops accepting tasks and returns the queued ones. Running tasks are not interrupted.
+     */
+    @Override
+    public List<Runnable> shutdownNow() {
+        final List<Runnable> tasks = new ArrayList<>();
+        synchronized (this) {
+            shutdown = true;
+            queue.drainTo(tasks);
+        }
+        maybeTerminate();
+        return tasks;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return terminated.getCount() == 0L;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return terminated.await(timeout, unit);
+    }
+
+    /**
+     * @return the number of running tasks, each of which runs on a thread of its own
+     */
+    public int getActiveCount() {
+        return running.get();
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    /**
+     * @return the largest number of tasks that ran at the same time
+     */
+    public int getLargestActiveCount() {
+        return largest.get();
+    }
+
+    public long getCompletedTaskCount() {
+        return completed.count();
+    }
+
+    public long getRejectedTaskCount() {
+        return rejected.count();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName()
+            + "[name = "
+            + name
+            + ", permits = "
+            + permits
+            + ", running = "
+            + running.get()
+            + ", queued = "
+            + queue.size()
+            + ", completed = "
+            + completed.count()
+            + ']';
+    }
+}
@@ -76,6 +76,7 @@ public abstract class AbstractHttpServerTransport extends AbstractLifecycleCompo
 
     protected final PortsRange port;
     protected final ByteSizeValue maxContentLength;
+    private final boolean incrementalBulk;
     private final String[] bindHosts;
     private final String[] publishHosts;
 
@@ -114,6 +115,7 @@ public abstract class AbstractHttpServerTransport extends AbstractLifecycleCompo
         this.port = SETTING_HTTP_PORT.get(settings);
 
         this.maxContentLength = SETTING_HTTP_MAX_CONTENT_LENGTH.get(settings);
+        this.incrementalBulk = HttpTransportSettings.SETTING_HTTP_INCREMENTAL_BULK_ENABLED.get(settings);
         this.tracer = new HttpTracer(settings, clusterSettings);
         clusterSettings.addSettingsUpdateConsumer(TransportSettings.SLOW_OPERATION_THRESHOLD_SETTING,
                 slowLogThreshold -> this.slowLogThresholdMs = slowLogThreshold.getMillis());
@@ -122,6 +124,20 @@ public abstract class AbstractHttpServerTransport extends AbstractLifecycleCompo
         clientStatsEnabled = HttpTransportSettings.SETTING_HTTP_CLIENT_STATS_ENABLED.get(settings);
     }
 
+    /**
+     * Whether the content of a request to the given uri is passed on to the REST layer while it is being received, see
+     * {@link HttpRequest#contentStream()}, rather than once it has been fully received. This is the case for bulk requests if
+     * {@link HttpTransportSettings#SETTING_HTTP_INCREMENTAL_BULK_ENABLED} is set.
+     */
+    protected boolean shouldStreamContent(String uri) {
+        if (incrementalBulk == false) {
+            return false;
+        }
+        final int queryStringStart = uri.indexOf('?');
+        final String path = queryStringStart == -1 ? uri : uri.substring(0, queryStringStart);
+        return path.endsWith("/_bulk");
+    }
+
     @Override
     public BoundTransportAddress boundAddress() {
         return this.boundAddress;
@@ -0,0 +1,51 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.http;
+
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+
+/**
+ * The content of an {@link HttpRequest} that is passed on to the REST layer while it is being received, see
+ * {@link HttpRequest#contentStream()}. The content is passed on in chunks, one chunk at a time and only when the consumer asks for the
+ * next chunk, so that the consumer controls how much of the content is held in memory.
+ */
+public interface HttpContentStream {
+
+    /**
+     * Sets the handler of the chunks of content. Must be called once, before the first call to {@link #next()}.
+     */
+    void setHandler(ChunkHandler handler);
+
+    /**
+     * Requests the next chunk of content, which is passed to the handler once it has been received, possibly on another thread. Must not
+     * be called again before the handler received the requested chunk, and not after the handler received the last chunk or a failure.
+     */
+    void next();
+
+    /**
+     * Releases the chunks that were received but not passed to the handler yet and drops the rest of the content as it is received. The
+     * handler is not called anymore after this call.
+     */
+    void discard();
+
+    interface ChunkHandler {
+
+        /**
+         * Handles a chunk of content. The handler is responsible for releasing the chunk.
+         *
+         * @param isLast whether this is the last chunk of the content
+         */
+        void onNext(ReleasableBytesReference chunk, boolean isLast);
+
+        /**
+         * Called if the rest of the content can not be received, for instance because the channel was closed.
+         */
+        void onFailure(Exception e);
+    }
+}
@@ -43,6 +43,15 @@ public interface HttpRequest {
 
     BytesReference content();
 
+    /**
+     * Returns the stream of the content of this request if the content is passed on while it is being received, in which case
+     * {@link #content()} is empty, or {@code null} if the content has been fully received.
+     */
+    @Nullable
+    default HttpContentStream contentStream() {
+        return null;
+    }
+
     /**
      * Get all of the headers and values associated with the headers. Modifications of this map are not supported.
      */
@@ -115,6 +115,11 @@ public final class HttpTransportSettings {
     public static final Setting<Boolean> SETTING_HTTP_CLIENT_STATS_ENABLED =
         boolSetting("http.client_stats.enabled", true, Property.Dynamic, Property.NodeScope);
 
+    public static final Setting<Boolean> SETTING_HTTP_INCREMENTAL_BULK_ENABLED =
+        boolSetting("http.incremental_bulk.enabled", false, Property.NodeScope);
+    public static final Setting<ByteSizeValue> SETTING_HTTP_INCREMENTAL_BULK_BATCH_SIZE =
+        Setting.byteSizeSetting("http.incremental_bulk.batch_size", new ByteSizeValue(10, ByteSizeUnit.MB), Property.NodeScope);
+
     private HttpTransportSettings() {
     }
 }
@@ -9,6 +9,7 @@
 package org.elasticsearch.index;
 
 import org.apache.lucene.index.FilterMergePolicy;
+import org.apache.lucene.index.MergeTrigger;
 import org.apache.lucene.index.SegmentCommitInfo;
 import org.apache.lucene.index.SegmentInfos;
 import org.apache.lucene.index.TieredMergePolicy;
@@ -20,11 +21,14 @@ import java.util.Map;
  * Wrapper around {@link TieredMergePolicy} which doesn't respect
  * {@link TieredMergePolicy#setMaxMergedSegmentMB(double)} on forced merges.
  * See https://issues.apache.org/jira/browse/LUCENE-7976.
+ * If time range aware, regular merges are split by the time ranges of their segments, see {@link TimeRangeMergeSplitter}.
  */
 final class EsTieredMergePolicy extends FilterMergePolicy {
 
     final TieredMergePolicy regularMergePolicy;
     final TieredMergePolicy forcedMergePolicy;
+    private final TimeRangeMergeSplitter timeRangeMergeSplitter = new TimeRangeMergeSplitter();
+    private volatile boolean timeRangeAware;
 
     EsTieredMergePolicy() {
         super(new TieredMergePolicy());
@@ -33,6 +37,16 @@ final class EsTieredMergePolicy extends FilterMergePolicy {
         forcedMergePolicy.setMaxMergedSegmentMB(Double.POSITIVE_INFINITY); // unlimited
     }
 
+    @Override
+    public MergeSpecification findMerges(MergeTrigger mergeTrigger, SegmentInfos infos, MergeContext mergeContext) throws IOException {
+        final MergeSpecification spec = regularMergePolicy.findMerges(mergeTrigger, infos, mergeContext);
+        if (timeRangeAware == false) {
+            return spec;
+        }
+        final long floorSegmentBytes = (long) (regularMergePolicy.getFloorSegmentMB() * 1024 * 1024);
+        return timeRangeMergeSplitter.split(spec, infos, floorSegmentBytes);
+    }
+
     @Override
     public MergeSpecification findForcedMerges(SegmentInfos infos, int maxSegmentCount,
             Map<SegmentCommitInfo, Boolean> segmentsToMerge, MergeContext mergeContext) throws IOException {
@@ -106,4 +120,15 @@ final class EsTieredMergePolicy extends FilterMergePolicy {
     public double getDeletesPctAllowed() {
         return regularMergePolicy.getDeletesPctAllowed();
     }
+
+    public void setTimeRangeAware(boolean timeRangeAware) {
+        this.timeRangeAware = timeRangeAware;
+        if (timeRangeAware == false) {
+            timeRangeMergeSplitter.clear();
+        }
+    }
+
+    public boolean isTimeRangeAware() {
+        return timeRangeAware;
+    }
 }
@@ -0,0 +1,151 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index;
+
+import org.elasticsearch.cluster.metadata.DataStream;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.mapper.DateFieldMapper;
+import org.elasticsearch.index.mapper.FieldMapper;
+import org.elasticsearch.index.mapper.KeywordFieldMapper;
+import org.elasticsearch.index.mapper.MappedFieldType;
+import org.elasticsearch.index.mapper.Mapper;
+import org.elasticsearch.index.mapper.MappingLookup;
+import org.elasticsearch.index.mapper.TimeSeriesIdFieldMapper;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The mode of an index, which decides how its documents are routed, identified and sorted.
+ */
+public enum IndexMode {
+    /**
+     * Documents are routed by their {@code _id} or custom routing and are not sorted unless an index sort is configured.
+     */
+    STANDARD {
+        @Override
+        void validateWithOtherSettings(Settings settings) {
+            if (IndexMetadata.INDEX_ROUTING_PATH.exists(settings)) {
+                throw new IllegalArgumentException("[" + IndexMetadata.INDEX_ROUTING_PATH.getKey() + "] requires ["
+                    + INDEX_MODE_SETTING.getKey() + "=" + TIME_SERIES + "]");
+            }
+        }
+
+        @Override
+        public void validateMapping(MappingLookup lookup, Settings settings) {}
+
+        @Override
+        public void validateDimensions(MappingLookup lookup, Settings settings) {}
+
+        @Override
+        public List<String> getDefaultSortFields() {
+            return List.of();
+        }
+    },
+    /**
+     * Documents hold the metrics of time series. The values of the dimension fields listed in
+     * {@link IndexMetadata#INDEX_ROUTING_PATH} route all documents of a series to the same shard, and the {@code _id} of a document is
+     * derived from its series and its {@code @timestamp}. Documents are sorted by the {@link TimeSeriesIdFieldMapper series id} and then
+     * by {@code @timestamp}.
+     */
+    TIME_SERIES {
+        @Override
+        void validateWithOtherSettings(Settings settings) {
+            if (IndexMetadata.INDEX_ROUTING_PATH.get(settings).isEmpty()) {
+                throw new IllegalArgumentException("[" + INDEX_MODE_SETTING.getKey() + "=" + TIME_SERIES + "] requires a non-empty ["
+                    + IndexMetadata.INDEX_ROUTING_PATH.getKey() + "]");
+            }
+            for (Setting<?> unsupported : List.of(IndexMetadata.INDEX_ROUTING_PARTITION_SIZE_SETTING,
+                IndexSortConfig.INDEX_SORT_FIELD_SETTING, IndexSortConfig.INDEX_SORT_ORDER_SETTING,
+                IndexSortConfig.INDEX_SORT_MODE_SETTING, IndexSortConfig.INDEX_SORT_MISSING_SETTING)) {
+                if (unsupported.exists(settings)) {
+                    throw new IllegalArgumentException("[" + INDEX_MODE_SETTING.getKey() + "=" + TIME_SERIES + "] is incompatible with ["
+                        + unsupported.getKey() + "]");
+                }
+            }
+        }
+
+        @Override
+        public void validateMapping(MappingLookup lookup, Settings settings) {
+            final MappedFieldType timestamp = lookup.getFieldType(DataStream.TimestampField.FIXED_TIMESTAMP_FIELD);
+            if (timestamp instanceof DateFieldMapper.DateFieldType == false) {
+                throw new IllegalArgumentException("[" + INDEX_MODE_SETTING.getKey() + "=" + TIME_SERIES + "] requires a ["
+                    + DataStream.TimestampField.FIXED_TIMESTAMP_FIELD + "] field of type [date] or [date_nanos]");
+            }
+            final List<String> routingPaths = IndexMetadata.INDEX_ROUTING_PATH.get(settings);
+            for (String routingPath : routingPaths) {
+                final MappedFieldType fieldType = lookup.getFieldType(routingPath);
+                if (fieldType == null || fieldType.isDimension() == false) {
+                    throw new IllegalArgumentException("all fields in [" + IndexMetadata.INDEX_ROUTING_PATH.getKey()
+                        + "] must be mapped dimension fields, but [" + routingPath + "] is not");
+                }
+            }
+            validateDimensions(lookup, settings);
+        }
+
+        @Override
+        public void validateDimensions(MappingLookup lookup, Settings settings) {
+            final List<String> routingPaths = IndexMetadata.INDEX_ROUTING_PATH.get(settings);
+            for (Mapper mapper : lookup.fieldMappers()) {
+                if (mapper instanceof FieldMapper == false || ((FieldMapper) mapper).fieldType().isDimension() == false) {
+                    continue;
+                }
+                if (routingPaths.contains(mapper.name()) == false) {
+                    throw new IllegalArgumentException("all dimension fields must be listed in ["
+                        + IndexMetadata.INDEX_ROUTING_PATH.getKey() + "] so that the _id of a document identifies its whole series, but ["
+                        + mapper.name() + "] is not");
+                }
+                // the coordinating node routes documents by the values of the dimension fields in the source, it can't normalize them
+                final MappedFieldType fieldType = ((FieldMapper) mapper).fieldType();
+                if (fieldType instanceof KeywordFieldMapper.KeywordFieldType
+                    && ((KeywordFieldMapper.KeywordFieldType) fieldType).hasNormalizer()) {
+                    throw new IllegalArgumentException("[" + INDEX_MODE_SETTING.getKey() + "=" + TIME_SERIES + "] doesn't support a "
+                        + "[normalizer] on dimension fields, but [" + mapper.name() + "] has one");
+                }
+            }
+        }
+
+        @Override
+        public List<String> getDefaultSortFields() {
+            return List.of(TimeSeriesIdFieldMapper.NAME, DataStream.TimestampField.FIXED_TIMESTAMP_FIELD);
+        }
+    };
+
+    public static final Setting<IndexMode> INDEX_MODE_SETTING = Setting.enumSetting(IndexMode.class, "index.mode", STANDARD,
+        Property.IndexScope, Property.Final);
+
+    /**
+     * Throws an {@link IllegalArgumentException} if the given index settings can't be used with this mode.
+     */
+    abstract void validateWithOtherSettings(Settings settings);
+
+    /**
+     * Throws an {@link IllegalArgumentException} if the given mapping can't be used with this mode.
+     */
+    public abstract void validateMapping(MappingLookup lookup, Settings settings);
+
+    /**
+     * Throws an {@link IllegalArgumentException} if the dimension fields of the given mapping can't be used with this mode. Unlike
+     * {@link #validateMapping} this holds for every intermediate mapping, so it is checked on every mapping update.
+     */
+    public abstract void validateDimensions(MappingLookup lookup, Settings settings);
+
+    /**
+     * The fields that indices in this mode are sorted by, in ascending order.
+     */
+    public abstract List<String> getDefaultSortFields();
+
+    @Override
+    public String toString() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -64,6 +64,17 @@ public final class IndexSettings {
     public static final Setting<Translog.Durability> INDEX_TRANSLOG_DURABILITY_SETTING =
         Setting.enumSetting(Translog.Durability.class, "index.translog.durability", Translog.Durability.REQUEST,
             Property.Dynamic, Property.IndexScope);
+    /**
+     * Whether translog operations are LZ4 compressed before they are written to disk. Each operation is compressed on its own so that
+     * translog files remain readable from any operation boundary.
+     */
+    public static final Setting<Boolean> INDEX_TRANSLOG_COMPRESSION_ENABLED_SETTING =
+        Setting.boolSetting("index.translog.compression.enabled", false, Property.Dynamic, Property.IndexScope);
+    /**
+     * The number of threads that replay translog operations concurrently during a peer recovery.
+     */
+    public static final Setting<Integer> INDEX_TRANSLOG_REPLAY_CONCURRENCY_SETTING =
+        Setting.intSetting("index.translog.replay_concurrency", 4, 1, 32, Property.Dynamic, Property.IndexScope);
     public static final Setting<Boolean> INDEX_WARMER_ENABLED_SETTING =
         Setting.boolSetting("index.warmer.enabled", true, Property.Dynamic, Property.IndexScope);
     public static final Setting<String> INDEX_CHECK_ON_STARTUP =
@@ -322,6 +333,7 @@ public final class IndexSettings {
     private final String nodeName;
     private final Settings nodeSettings;
     private final int numberOfShards;
+    private final IndexMode mode;
     // volatile fields are updated via #updateIndexMetadata(IndexMetadata) under lock
     private volatile Settings settings;
     private volatile IndexMetadata indexMetadata;
@@ -331,6 +343,8 @@ public final class IndexSettings {
     private final boolean queryStringAllowLeadingWildcard;
     private final boolean defaultAllowUnmappedFields;
     private volatile Translog.Durability durability;
+    private volatile boolean translogCompressionEnabled;
+    private volatile int translogReplayConcurrency;
     private volatile TimeValue syncInterval;
     private volatile TimeValue refreshInterval;
     private volatile ByteSizeValue flushThresholdSize;
@@ -461,6 +475,8 @@ public final class IndexSettings {
         nodeName = Node.NODE_NAME_SETTING.get(settings);
         this.indexMetadata = indexMetadata;
         numberOfShards = settings.getAsInt(IndexMetadata.SETTING_NUMBER_OF_SHARDS, null);
+        mode = scopedSettings.get(IndexMode.INDEX_MODE_SETTING);
+        mode.validateWithOtherSettings(settings);
 
         this.searchThrottled = INDEX_SEARCH_THROTTLED.get(settings);
         this.queryStringLenient = QUERY_STRING_LENIENT_SETTING.get(settings);
@@ -468,6 +484,8 @@ public final class IndexSettings {
         this.queryStringAllowLeadingWildcard = QUERY_STRING_ALLOW_LEADING_WILDCARD.get(nodeSettings);
         this.defaultAllowUnmappedFields = scopedSettings.get(ALLOW_UNMAPPED);
         this.durability = scopedSettings.get(INDEX_TRANSLOG_DURABILITY_SETTING);
+        this.translogCompressionEnabled = scopedSettings.get(INDEX_TRANSLOG_COMPRESSION_ENABLED_SETTING);
+        this.translogReplayConcurrency = scopedSettings.get(INDEX_TRANSLOG_REPLAY_CONCURRENCY_SETTING);
         defaultFields = scopedSettings.get(DEFAULT_FIELD_SETTING);
         syncInterval = INDEX_TRANSLOG_SYNC_INTERVAL_SETTING.get(settings);
         refreshInterval = scopedSettings.get(INDEX_REFRESH_INTERVAL_SETTING);
@@ -519,11 +537,15 @@ public final class IndexSettings {
             mergePolicyConfig::setMaxMergedSegment);
         scopedSettings.addSettingsUpdateConsumer(MergePolicyConfig.INDEX_MERGE_POLICY_SEGMENTS_PER_TIER_SETTING,
             mergePolicyConfig::setSegmentsPerTier);
+        scopedSettings.addSettingsUpdateConsumer(MergePolicyConfig.INDEX_MERGE_POLICY_TIME_RANGE_AWARE_SETTING,
+            mergePolicyConfig::setTimeRangeAware);
 
         scopedSettings.addSettingsUpdateConsumer(MergeSchedulerConfig.MAX_THREAD_COUNT_SETTING,
             MergeSchedulerConfig.MAX_MERGE_COUNT_SETTING, mergeSchedulerConfig::setMaxThreadAndMergeCount);
         scopedSettings.addSettingsUpdateConsumer(MergeSchedulerConfig.AUTO_THROTTLE_SETTING, mergeSchedulerConfig::setAutoThrottle);
         scopedSettings.addSettingsUpdateConsumer(INDEX_TRANSLOG_DURABILITY_SETTING, this::setTranslogDurability);
+        scopedSettings.addSettingsUpdateConsumer(INDEX_TRANSLOG_COMPRESSION_ENABLED_SETTING, this::setTranslogCompressionEnabled);
+        scopedSettings.addSettingsUpdateConsumer(INDEX_TRANSLOG_REPLAY_CONCURRENCY_SETTING, this::setTranslogReplayConcurrency);
         scopedSettings.addSettingsUpdateConsumer(INDEX_TRANSLOG_SYNC_INTERVAL_SETTING, this::setTranslogSyncInterval);
         scopedSettings.addSettingsUpdateConsumer(MAX_RESULT_WINDOW_SETTING, this::setMaxResultWindow);
         scopedSettings.addSettingsUpdateConsumer(MAX_INNER_RESULT_WINDOW_SETTING, this::setMaxInnerResultWindow);
@@ -711,6 +733,28 @@ public final class IndexSettings {
         this.durability = durability;
     }
 
+    /**
+     * Returns <code>true</code> if translog operations are compressed before they are written to disk.
+     */
+    public boolean isTranslogCompressionEnabled() {
+        return translogCompressionEnabled;
+    }
+
+    private void setTranslogCompressionEnabled(boolean translogCompressionEnabled) {
+        this.translogCompressionEnabled = translogCompressionEnabled;
+    }
+
+    /**
+     * Returns the number of threads that replay translog operations concurrently during a peer recovery.
+     */
+    public int getTranslogReplayConcurrency() {
+        return translogReplayConcurrency;
+    }
+
+    private void setTranslogReplayConcurrency(int translogReplayConcurrency) {
+        this.translogReplayConcurrency = translogReplayConcurrency;
+    }
+
     /**
      * Returns true if index warmers are enabled, otherwise <code>false</code>
      */
@@ -915,6 +959,13 @@ public final class IndexSettings {
         this.maxRegexLength = maxRegexLength;
     }
 
+    /**
+     * Returns the mode of this index.
+     */
+    public IndexMode getMode() {
+        return mode;
+    }
+
     /**
      * Returns the index sort config that should be used for this index.
      */
@@ -118,6 +118,10 @@ public final class IndexSortConfig {
         this.indexCreatedVersion = indexSettings.getIndexVersionCreated();
         this.indexName = indexSettings.getIndex().getName();
         List<String> fields = INDEX_SORT_FIELD_SETTING.get(settings);
+        if (fields.isEmpty()) {
+            // the index sort settings can't be combined with a mode that has a default sort, see IndexMode#validateWithOtherSettings
+            fields = indexSettings.getMode().getDefaultSortFields();
+        }
         this.sortSpecs = fields.stream()
             .map((name) -> new FieldSortSpec(name))
             .toArray(FieldSortSpec[]::new);
@@ -10,15 +10,20 @@ package org.elasticsearch.index;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Releasable;
+import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.stats.IndexingPressureStats;
+import org.elasticsearch.threadpool.ThreadPool;
 
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
 
 public class IndexingPressure {
 
@@ -27,6 +32,8 @@ public class IndexingPressure {
 
     private static final Logger logger = LogManager.getLogger(IndexingPressure.class);
 
+    private static final TimeValue SHARD_TRACKERS_PRUNING_INTERVAL = TimeValue.timeValueMinutes(1);
+
     private final AtomicLong currentCombinedCoordinatingAndPrimaryBytes = new AtomicLong(0);
     private final AtomicLong currentCoordinatingBytes = new AtomicLong(0);
     private final AtomicLong currentPrimaryBytes = new AtomicLong(0);
@@ -52,9 +59,31 @@ public class IndexingPressure {
     private final long primaryAndCoordinatingLimits;
     private final long replicaLimits;
 
+    private final ShardIndexingPressure shardIndexingPressure;
+
     public IndexingPressure(Settings settings) {
+        this(settings, System::nanoTime);
+    }
+
+    IndexingPressure(Settings settings, LongSupplier relativeTimeInNanos) {
         this.primaryAndCoordinatingLimits = MAX_INDEXING_BYTES.get(settings).getBytes();
         this.replicaLimits = (long) (this.primaryAndCoordinatingLimits * 1.5);
+        this.shardIndexingPressure = new ShardIndexingPressure(settings, relativeTimeInNanos);
+    }
+
+    /**
+     * Schedules the periodic removal of the per-shard trackers of shards that stopped indexing.
+     */
+    public void schedulePruning(ThreadPool threadPool) {
+        if (shardIndexingPressure.isEnabled()) {
+            threadPool.scheduleWithFixedDelay(shardIndexingPressure::pruneIdleTrackers, SHARD_TRACKERS_PRUNING_INTERVAL,
+                ThreadPool.Names.SAME);
+        }
+    }
+
+    // visible for testing
+    void pruneIdleShardTrackers() {
+        shardIndexingPressure.pruneIdleTrackers();
     }
 
     private static Releasable wrapReleasable(Releasable releasable) {
@@ -98,6 +127,13 @@ public class IndexingPressure {
     }
 
     public Releasable markPrimaryOperationLocalToCoordinatingNodeStarted(int operations, long bytes) {
+        return markPrimaryOperationLocalToCoordinatingNodeStarted(null, operations, bytes);
+    }
+
+    public Releasable markPrimaryOperationLocalToCoordinatingNodeStarted(@Nullable ShardId shardId, int operations, long bytes) {
+        // the bytes of this operation are already accounted for by the coordinating operation, but the shard may still reject them
+        final Releasable shardReleasable = markShardOperationStarted(shardId, bytes,
+            currentCombinedCoordinatingAndPrimaryBytes.get() + currentReplicaBytes.get(), false, false, primaryRejections);
         currentPrimaryBytes.getAndAdd(bytes);
         currentPrimaryOps.getAndAdd(operations);
         totalPrimaryBytes.getAndAdd(bytes);
@@ -105,10 +141,15 @@ public class IndexingPressure {
         return wrapReleasable(() -> {
             this.currentPrimaryBytes.getAndAdd(-bytes);
             this.currentPrimaryOps.getAndAdd(-operations);
+            shardReleasable.close();
         });
     }
 
     public Releasable markPrimaryOperationStarted(int operations, long bytes, boolean forceExecution) {
+        return markPrimaryOperationStarted(null, operations, bytes, forceExecution);
+    }
+
+    public Releasable markPrimaryOperationStarted(@Nullable ShardId shardId, int operations, long bytes, boolean forceExecution) {
         long combinedBytes = this.currentCombinedCoordinatingAndPrimaryBytes.addAndGet(bytes);
         long replicaWriteBytes = this.currentReplicaBytes.get();
         long totalBytes = combinedBytes + replicaWriteBytes;
@@ -124,6 +165,13 @@ public class IndexingPressure {
                 "primary_operation_bytes=" + bytes + ", " +
                 "max_coordinating_and_primary_bytes=" + primaryAndCoordinatingLimits + "]", false);
         }
+        final Releasable shardReleasable;
+        try {
+            shardReleasable = markShardOperationStarted(shardId, bytes, totalBytes, forceExecution, false, primaryRejections);
+        } catch (EsRejectedExecutionException e) {
+            this.currentCombinedCoordinatingAndPrimaryBytes.getAndAdd(-bytes);
+            throw e;
+        }
         currentPrimaryBytes.getAndAdd(bytes);
         currentPrimaryOps.getAndAdd(operations);
         totalCombinedCoordinatingAndPrimaryBytes.getAndAdd(bytes);
@@ -133,10 +181,15 @@ public class IndexingPressure {
             this.currentCombinedCoordinatingAndPrimaryBytes.getAndAdd(-bytes);
             this.currentPrimaryBytes.getAndAdd(-bytes);
             this.currentPrimaryOps.getAndAdd(-operations);
+            shardReleasable.close();
         });
     }
 
     public Releasable markReplicaOperationStarted(int operations, long bytes, boolean forceExecution) {
+        return markReplicaOperationStarted(null, operations, bytes, forceExecution);
+    }
+
+    public Releasable markReplicaOperationStarted(@Nullable ShardId shardId, int operations, long bytes, boolean forceExecution) {
         long replicaWriteBytes = this.currentReplicaBytes.addAndGet(bytes);
         if (forceExecution == false && replicaWriteBytes > replicaLimits) {
             long replicaBytesWithoutOperation = replicaWriteBytes - bytes;
@@ -147,20 +200,47 @@ public class IndexingPressure {
                 "replica_operation_bytes=" + bytes + ", " +
                 "max_replica_bytes=" + replicaLimits + "]", false);
         }
+        final Releasable shardReleasable;
+        try {
+            shardReleasable = markShardOperationStarted(shardId, bytes, replicaWriteBytes, forceExecution, true, replicaRejections);
+        } catch (EsRejectedExecutionException e) {
+            this.currentReplicaBytes.getAndAdd(-bytes);
+            throw e;
+        }
         currentReplicaOps.getAndAdd(operations);
         totalReplicaBytes.getAndAdd(bytes);
         totalReplicaOps.getAndAdd(operations);
         return wrapReleasable(() -> {
             this.currentReplicaBytes.getAndAdd(-bytes);
             this.currentReplicaOps.getAndAdd(-operations);
+            shardReleasable.close();
         });
     }
 
+    private Releasable markShardOperationStarted(@Nullable ShardId shardId, long bytes, long nodeBytes, boolean forceExecution,
+                                                 boolean replica, AtomicLong rejections) {
+        if (shardId == null || shardIndexingPressure.isEnabled() == false) {
+            return () -> {};
+        }
+        try {
+            if (replica) {
+                return shardIndexingPressure.markReplicaOperationStarted(shardId, bytes, nodeBytes, replicaLimits, forceExecution);
+            } else {
+                return shardIndexingPressure.markPrimaryOperationStarted(shardId, bytes, nodeBytes, primaryAndCoordinatingLimits,
+                    forceExecution);
+            }
+        } catch (EsRejectedExecutionException e) {
+            rejections.getAndIncrement();
+            throw e;
+        }
+    }
+
     public IndexingPressureStats stats() {
         return new IndexingPressureStats(totalCombinedCoordinatingAndPrimaryBytes.get(), totalCoordinatingBytes.get(),
             totalPrimaryBytes.get(), totalReplicaBytes.get(), currentCombinedCoordinatingAndPrimaryBytes.get(),
             currentCoordinatingBytes.get(), currentPrimaryBytes.get(), currentReplicaBytes.get(), coordinatingRejections.get(),
             primaryRejections.get(), replicaRejections.get(), primaryAndCoordinatingLimits, totalCoordinatingOps.get(),
-            totalPrimaryOps.get(), totalReplicaOps.get(), currentCoordinatingOps.get(), currentPrimaryOps.get(), currentReplicaOps.get());
+            totalPrimaryOps.get(), totalReplicaOps.get(), currentCoordinatingOps.get(), currentPrimaryOps.get(), currentReplicaOps.get(),
+            shardIndexingPressure.stats(primaryAndCoordinatingLimits, replicaLimits));
     }
 }
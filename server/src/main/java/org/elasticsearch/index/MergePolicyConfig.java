@@ -142,6 +142,8 @@ public final class MergePolicyConfig {
     public static final Setting<Double> INDEX_MERGE_POLICY_DELETES_PCT_ALLOWED_SETTING =
         Setting.doubleSetting("index.merge.policy.deletes_pct_allowed", DEFAULT_DELETES_PCT_ALLOWED, 20.0d, 50.0d,
             Property.Dynamic, Property.IndexScope);
+    public static final Setting<Boolean> INDEX_MERGE_POLICY_TIME_RANGE_AWARE_SETTING =
+        Setting.boolSetting("index.merge.policy.time_range_aware", false, Property.Dynamic, Property.IndexScope);
     // don't convert to Setting<> and register... we only set this in tests and register via a plugin
     public static final String INDEX_MERGE_ENABLED = "index.merge.enabled";
 
@@ -156,6 +158,7 @@ public final class MergePolicyConfig {
         ByteSizeValue maxMergedSegment = indexSettings.getValue(INDEX_MERGE_POLICY_MAX_MERGED_SEGMENT_SETTING);
         double segmentsPerTier = indexSettings.getValue(INDEX_MERGE_POLICY_SEGMENTS_PER_TIER_SETTING);
         double deletesPctAllowed = indexSettings.getValue(INDEX_MERGE_POLICY_DELETES_PCT_ALLOWED_SETTING);
+        boolean timeRangeAware = indexSettings.getValue(INDEX_MERGE_POLICY_TIME_RANGE_AWARE_SETTING);
         this.mergesEnabled = indexSettings.getSettings().getAsBoolean(INDEX_MERGE_ENABLED, true);
         if (mergesEnabled == false) {
             logger.warn("[{}] is set to false, this should only be used in tests and can cause serious problems in production" +
@@ -170,12 +173,13 @@ public final class MergePolicyConfig {
         mergePolicy.setMaxMergedSegmentMB(maxMergedSegment.getMbFrac());
         mergePolicy.setSegmentsPerTier(segmentsPerTier);
         mergePolicy.setDeletesPctAllowed(deletesPctAllowed);
+        mergePolicy.setTimeRangeAware(timeRangeAware);
         if (logger.isTraceEnabled()) {
             logger.trace("using [tiered] merge mergePolicy with expunge_deletes_allowed[{}], floor_segment[{}]," +
                     " max_merge_at_once[{}], max_merge_at_once_explicit[{}], max_merged_segment[{}], segments_per_tier[{}]," +
-                    " deletes_pct_allowed[{}]",
+                    " deletes_pct_allowed[{}], time_range_aware[{}]",
                 forceMergeDeletesPctAllowed, floorSegment, maxMergeAtOnce, maxMergeAtOnceExplicit, maxMergedSegment, segmentsPerTier,
-                deletesPctAllowed);
+                deletesPctAllowed, timeRangeAware);
         }
     }
 
@@ -211,6 +215,10 @@ public final class MergePolicyConfig {
         mergePolicy.setDeletesPctAllowed(deletesPctAllowed);
     }
 
+    void setTimeRangeAware(Boolean timeRangeAware) {
+        mergePolicy.setTimeRangeAware(timeRangeAware);
+    }
+
     private int adjustMaxMergeAtOnceIfNeeded(int maxMergeAtOnce, double segmentsPerTier) {
         // fixing maxMergeAtOnce, see TieredMergePolicy#setMaxMergeAtOnce
         if (segmentsPerTier < maxMergeAtOnce) {
@@ -0,0 +1,236 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index;
+
+import org.elasticsearch.common.ExponentiallyWeightedMovingAverage;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.core.Releasable;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.stats.ShardIndexingPressureStats;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Tracks in-flight primary and replica bytes per shard and derives a per-shard limit from the throughput at which each shard has
+ * recently completed its operations. Once the node-wide indexing memory usage crosses a soft limit, operations on shards whose
+ * in-flight bytes would take longer than {@link #MAX_DRAIN_TIME} to complete are rejected, so that a single slow shard cannot
+ * consume the whole node-wide budget of {@link IndexingPressure}.
+ */
+public class ShardIndexingPressure {
+
+    public static final Setting<Boolean> ENABLED =
+        Setting.boolSetting("indexing_pressure.shard.enabled", false, Setting.Property.NodeScope);
+
+    public static final Setting<Double> SOFT_LIMIT =
+        Setting.doubleSetting("indexing_pressure.shard.soft_limit", 0.5d, 0.0d, 1.0d, Setting.Property.NodeScope);
+
+    public static final Setting<ByteSizeValue> MIN_LIMIT =
+        Setting.memorySizeSetting("indexing_pressure.shard.min_limit", "0.1%", Setting.Property.NodeScope);
+
+    public static final Setting<TimeValue> MAX_DRAIN_TIME = Setting.timeSetting("indexing_pressure.shard.max_drain_time",
+        TimeValue.timeValueSeconds(10), TimeValue.timeValueMillis(1), Setting.Property.NodeScope);
+
+    // weight of the most recent window in the per-shard throughput average
+    private static final double THROUGHPUT_EWMA_ALPHA = 0.2d;
+
+    // the bytes a shard completes are summed over windows of this length of time during which the shard has operations in flight, so
+    // that concurrent operations add up to the throughput of the shard
+    static final TimeValue THROUGHPUT_WINDOW = TimeValue.timeValueSeconds(1);
+
+    // how long the throughput and rejections of a shard without indexing operations are retained
+    static final TimeValue IDLE_TRACKER_RETENTION = TimeValue.timeValueMinutes(5);
+
+    private final Map<ShardId, ShardTracker> trackers = new ConcurrentHashMap<>();
+
+    private final boolean enabled;
+    private final double softLimit;
+    private final long minLimit;
+    private final double maxDrainTimeSeconds;
+    private final LongSupplier relativeTimeInNanos;
+
+    public ShardIndexingPressure(Settings settings, LongSupplier relativeTimeInNanos) {
+        this.enabled = ENABLED.get(settings);
+        this.softLimit = SOFT_LIMIT.get(settings);
+        this.minLimit = MIN_LIMIT.get(settings).getBytes();
+        this.maxDrainTimeSeconds = MAX_DRAIN_TIME.get(settings).getMillis() / 1000d;
+        this.relativeTimeInNanos = relativeTimeInNanos;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Accounts for a primary operation on the given shard, rejecting it if the node is above its soft limit and the shard already has
+     * more bytes in flight than it can complete within {@link #MAX_DRAIN_TIME}.
+     *
+     * @param nodeBytes the node-wide coordinating, primary and replica bytes, including this operation
+     * @param nodeLimit the node-wide limit that applies to this operation
+     */
+    Releasable markPrimaryOperationStarted(ShardId shardId, long bytes, long nodeBytes, long nodeLimit, boolean forceExecution) {
+        return markOperationStarted(shardId, bytes, nodeBytes, nodeLimit, forceExecution, false);
+    }
+
+    /**
+     * Accounts for a replica operation on the given shard, see {@link #markPrimaryOperationStarted}.
+     */
+    Releasable markReplicaOperationStarted(ShardId shardId, long bytes, long nodeBytes, long nodeLimit, boolean forceExecution) {
+        return markOperationStarted(shardId, bytes, nodeBytes, nodeLimit, forceExecution, true);
+    }
+
+    private Releasable markOperationStarted(ShardId shardId, long bytes, long nodeBytes, long nodeLimit, boolean forceExecution,
+                                            boolean replica) {
+        final boolean enforce = forceExecution == false && nodeBytes > (long) (nodeLimit * softLimit);
+        final ShardTracker[] acquired = new ShardTracker[1];
+        final long[] rejectedWith = new long[]{-1L, -1L};
+        trackers.compute(shardId, (k, tracker) -> {
+            if (tracker == null) {
+                tracker = new ShardTracker();
+            }
+            final OperationTracker operations = replica ? tracker.replica : tracker.primary;
+            final long shardLimit = operations.limit(nodeLimit);
+            final long shardBytes = operations.currentBytes.get() + bytes;
+            if (enforce && shardBytes > shardLimit) {
+                operations.rejections.incrementAndGet();
+                rejectedWith[0] = shardBytes - bytes;
+                rejectedWith[1] = shardLimit;
+            } else {
+                operations.onStarted(bytes, relativeTimeInNanos.getAsLong());
+                acquired[0] = tracker;
+            }
+            tracker.lastActivityNanos = relativeTimeInNanos.getAsLong();
+            return tracker;
+        });
+        if (acquired[0] == null) {
+            throw new EsRejectedExecutionException("rejected execution of " + (replica ? "replica" : "primary") + " operation on shard " +
+                shardId + " [" +
+                "shard_bytes=" + rejectedWith[0] + ", " +
+                "node_bytes=" + (nodeBytes - bytes) + ", " +
+                "operation_bytes=" + bytes + ", " +
+                "max_shard_bytes=" + rejectedWith[1] + "]", false);
+        }
+        return () -> trackers.computeIfPresent(shardId, (k, tracker) -> {
+            final long nowNanos = relativeTimeInNanos.getAsLong();
+            final OperationTracker operations = replica ? tracker.replica : tracker.primary;
+            operations.onCompleted(bytes, nowNanos);
+            tracker.lastActivityNanos = nowNanos;
+            return tracker;
+        });
+    }
+
+    /**
+     * Drops the trackers of shards that have not seen any indexing for {@link #IDLE_TRACKER_RETENTION}, so that the trackers of idle,
+     * relocated or deleted shards do not accumulate. This is called periodically, see {@link IndexingPressure#schedulePruning}.
+     */
+    void pruneIdleTrackers() {
+        final long now = relativeTimeInNanos.getAsLong();
+        for (ShardId shardId : trackers.keySet()) {
+            trackers.computeIfPresent(shardId,
+                (k, tracker) -> tracker.isIdle() && now - tracker.lastActivityNanos > IDLE_TRACKER_RETENTION.nanos() ? null : tracker);
+        }
+    }
+
+    public List<ShardIndexingPressureStats> stats(long primaryNodeLimit, long replicaNodeLimit) {
+        final List<ShardIndexingPressureStats> stats = new ArrayList<>(trackers.size());
+        for (Map.Entry<ShardId, ShardTracker> entry : trackers.entrySet()) {
+            final ShardTracker tracker = entry.getValue();
+            stats.add(new ShardIndexingPressureStats(entry.getKey(),
+                tracker.primary.currentBytes.get(), tracker.replica.currentBytes.get(),
+                tracker.primary.rejections.get(), tracker.replica.rejections.get(),
+                tracker.primary.limit(primaryNodeLimit), tracker.replica.limit(replicaNodeLimit),
+                tracker.primary.throughput(), tracker.replica.throughput()));
+        }
+        return stats;
+    }
+
+    private final class ShardTracker {
+        private final OperationTracker primary = new OperationTracker();
+        private final OperationTracker replica = new OperationTracker();
+        // only modified while holding the lock of this tracker's entry in the map of trackers
+        private volatile long lastActivityNanos;
+
+        boolean isIdle() {
+            return primary.currentBytes.get() == 0 && replica.currentBytes.get() == 0;
+        }
+    }
+
+    /**
+     * The in-flight bytes, rejections and throughput of either the primary or the replica operations of a shard. The throughput is the
+     * number of bytes the shard completes per second while it has operations in flight, measured over windows of
+     * {@link #THROUGHPUT_WINDOW}. The methods that update the window are only called while holding the lock of the shard's entry in the
+     * map of trackers.
+     */
+    private final class OperationTracker {
+        private final AtomicLong currentBytes = new AtomicLong();
+        private final AtomicLong rejections = new AtomicLong();
+        // bytes per second at which this shard has recently completed its operations, null until the first window completed
+        private volatile ExponentiallyWeightedMovingAverage throughput;
+
+        // start of the current window, or -1 if no window is open
+        private long windowStartNanos = -1L;
+        // bytes completed since the start of the current window
+        private long windowBytes;
+        // time at which the last operation completed
+        private long lastCompletedNanos;
+
+        void onStarted(long bytes, long nowNanos) {
+            if (windowStartNanos == -1L) {
+                windowStartNanos = nowNanos;
+            } else if (currentBytes.get() == 0L) {
+                // the shard was idle since its last operation completed, which must not count against its throughput
+                windowStartNanos += nowNanos - lastCompletedNanos;
+            }
+            currentBytes.addAndGet(bytes);
+        }
+
+        void onCompleted(long bytes, long nowNanos) {
+            final long remainingBytes = currentBytes.addAndGet(-bytes);
+            windowBytes += bytes;
+            lastCompletedNanos = nowNanos;
+            final long windowNanos = nowNanos - windowStartNanos;
+            if (windowNanos >= THROUGHPUT_WINDOW.nanos()) {
+                if (windowBytes > 0L) {
+                    final double bytesPerSecond = windowBytes / (windowNanos / (double) TimeUnit.SECONDS.toNanos(1));
+                    if (throughput == null) {
+                        throughput = new ExponentiallyWeightedMovingAverage(THROUGHPUT_EWMA_ALPHA, bytesPerSecond);
+                    } else {
+                        throughput.addValue(bytesPerSecond);
+                    }
+                }
+                windowBytes = 0L;
+                windowStartNanos = remainingBytes > 0L ? nowNanos : -1L;
+            }
+        }
+
+        long throughput() {
+            final ExponentiallyWeightedMovingAverage average = throughput;
+            return average == null ? 0L : (long) average.getAverage();
+        }
+
+        long limit(long nodeLimit) {
+            final ExponentiallyWeightedMovingAverage average = throughput;
+            if (average == null) {
+                // nothing is known about this shard yet, so only the node-wide limit applies
+                return nodeLimit;
+            }
+            final long drainableBytes = (long) (average.getAverage() * maxDrainTimeSeconds);
+            return Math.min(nodeLimit, Math.max(minLimit, drainableBytes));
+        }
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.apache.lucene.codecs.Codec;
+import org.apache.lucene.codecs.PointsReader;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.FieldInfos;
+import org.apache.lucene.index.MergePolicy;
+import org.apache.lucene.index.PointValues;
+import org.apache.lucene.index.SegmentCommitInfo;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.index.SegmentReadState;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.util.StringHelper;
+import org.elasticsearch.cluster.metadata.DataStream;
+import org.elasticsearch.core.Nullable;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps merged segments of time-series indices compact in time, so that range queries on {@code @timestamp} can skip more segments by
+ * the min and max values of their points. The merges that a size-based merge policy picks are split into groups of segments whose
+ * {@code @timestamp} ranges overlap or are close to each other. A segment is close to a group if the gap between them is no larger than
+ * the time that either of them already covers. Segments that end up on their own and are smaller than the floor segment size of the
+ * merge policy are merged with each other regardless of their time ranges, since such small segments cover little data and would
+ * otherwise never be merged again if their time range stays far from any other segment. Larger segments that end up on their own are
+ * left alone, unless no group has two or more segments, in which case the merge is kept as it is so that the number of segments remains
+ * bounded.
+ */
+final class TimeRangeMergeSplitter {
+
+    private static final Logger logger = LogManager.getLogger(TimeRangeMergeSplitter.class);
+
+    static final String TIMESTAMP_FIELD = DataStream.TimestampField.FIXED_TIMESTAMP_FIELD;
+
+    private final Map<String, TimeRange> timeRanges = new ConcurrentHashMap<>();
+
+    /**
+     * Splits the merges of the given specification by the time ranges of their segments.
+     *
+     * @param floorSegmentBytes the size below which segments that are not close to any other segment are merged with each other
+     */
+    @Nullable
+    MergePolicy.MergeSpecification split(@Nullable MergePolicy.MergeSpecification spec, SegmentInfos infos, long floorSegmentBytes)
+        throws IOException {
+        pruneTimeRanges(infos);
+        if (spec == null) {
+            return null;
+        }
+        final MergePolicy.MergeSpecification adjusted = new MergePolicy.MergeSpecification();
+        for (MergePolicy.OneMerge merge : spec.merges) {
+            for (List<SegmentCommitInfo> group : groupByTimeRange(merge.segments, floorSegmentBytes)) {
+                adjusted.add(new MergePolicy.OneMerge(group));
+            }
+        }
+        return adjusted.merges.isEmpty() ? null : adjusted;
+    }
+
+    /**
+     * Drops the cached time ranges, e.g. because splitting was disabled.
+     */
+    void clear() {
+        timeRanges.clear();
+    }
+
+    /**
+     * Splits the given segments into groups of at least two segments whose time ranges are close to each other, plus a group of the
+     * remaining segments that are smaller than the given floor size.
+     */
+    List<List<SegmentCommitInfo>> groupByTimeRange(List<SegmentCommitInfo> segments, long floorSegmentBytes) throws IOException {
+        final List<SegmentCommitInfo> withRange = new ArrayList<>(segments.size());
+        final List<SegmentCommitInfo> withoutRange = new ArrayList<>();
+        for (SegmentCommitInfo segment : segments) {
+            if (timeRange(segment) == TimeRange.UNKNOWN) {
+                withoutRange.add(segment);
+            } else {
+                withRange.add(segment);
+            }
+        }
+        withRange.sort(Comparator.comparingLong(segment -> timeRange(segment).min));
+
+        final List<List<SegmentCommitInfo>> groups = new ArrayList<>();
+        List<SegmentCommitInfo> group = null;
+        long groupMin = 0;
+        long groupMax = 0;
+        for (SegmentCommitInfo segment : withRange) {
+            final TimeRange range = timeRange(segment);
+            if (group != null) {
+                final long allowedGap = Math.max(groupMax - groupMin, range.max - range.min);
+                if (range.min - groupMax <= allowedGap) {
+                    group.add(segment);
+                    groupMax = Math.max(groupMax, range.max);
+                    continue;
+                }
+            }
+            group = new ArrayList<>();
+            group.add(segment);
+            groups.add(group);
+            groupMin = range.min;
+            groupMax = range.max;
+        }
+
+        // segments without timestamps cannot widen the time range of a group, so they can join any of them
+        List<SegmentCommitInfo> largest = null;
+        for (List<SegmentCommitInfo> candidate : groups) {
+            if (largest == null || candidate.size() > largest.size()) {
+                largest = candidate;
+            }
+        }
+        if (largest == null) {
+            groups.add(withoutRange);
+        } else {
+            largest.addAll(withoutRange);
+        }
+
+        // small segments that are far from any other segment in time are merged with each other, otherwise they would be dropped from
+        // every merge that they are picked for and stay unmerged forever
+        final List<SegmentCommitInfo> smallLeftovers = new ArrayList<>();
+        for (List<SegmentCommitInfo> candidate : groups) {
+            if (candidate.size() == 1 && candidate.get(0).sizeInBytes() < floorSegmentBytes) {
+                smallLeftovers.add(candidate.get(0));
+            }
+        }
+        groups.removeIf(candidate -> candidate.size() < 2);
+        if (smallLeftovers.size() >= 2) {
+            groups.add(smallLeftovers);
+        }
+        if (groups.isEmpty()) {
+            logger.trace("no segments with close time ranges in merge of {}, merging them anyway", segments);
+            return List.of(segments);
+        }
+        return groups;
+    }
+
+    private TimeRange timeRange(SegmentCommitInfo info) {
+        return timeRanges.computeIfAbsent(key(info), k -> {
+            try {
+                return readTimeRange(info);
+            } catch (IOException e) {
+                logger.debug(new ParameterizedMessage("failed to read the time range of segment [{}]", info.info.name), e);
+                return TimeRange.UNKNOWN;
+            }
+        });
+    }
+
+    private void pruneTimeRanges(SegmentInfos infos) {
+        final Set<String> keys = new HashSet<>();
+        for (SegmentCommitInfo info : infos) {
+            keys.add(key(info));
+        }
+        timeRanges.keySet().retainAll(keys);
+    }
+
+    private static String key(SegmentCommitInfo info) {
+        return info.info.name + "_" + StringHelper.idToString(info.info.getId());
+    }
+
+    /**
+     * Reads the min and max value of the {@code @timestamp} points of the given segment, without opening a reader on the whole segment.
+     */
+    static TimeRange readTimeRange(SegmentCommitInfo info) throws IOException {
+        final Codec codec = info.info.getCodec();
+        final Directory segmentDirectory = info.info.getUseCompoundFile()
+            ? codec.compoundFormat().getCompoundReader(info.info.dir, info.info, IOContext.READ)
+            : info.info.dir;
+        try {
+            final FieldInfos fieldInfos;
+            if (info.hasFieldUpdates()) {
+                final String segmentSuffix = Long.toString(info.getFieldInfosGen(), Character.MAX_RADIX);
+                fieldInfos = codec.fieldInfosFormat().read(info.info.dir, info.info, segmentSuffix, IOContext.READONCE);
+            } else {
+                fieldInfos = codec.fieldInfosFormat().read(segmentDirectory, info.info, "", IOContext.READONCE);
+            }
+            final FieldInfo fieldInfo = fieldInfos.fieldInfo(TIMESTAMP_FIELD);
+            if (fieldInfo == null || fieldInfo.getPointDimensionCount() != 1 || fieldInfo.getPointNumBytes() != Long.BYTES) {
+                return TimeRange.UNKNOWN;
+            }
+            final SegmentReadState readState = new SegmentReadState(segmentDirectory, info.info, fieldInfos, IOContext.READ);
+            try (PointsReader pointsReader = codec.pointsFormat().fieldsReader(readState)) {
+                final PointValues values = pointsReader.getValues(TIMESTAMP_FIELD);
+                if (values == null || values.size() == 0) {
+                    return TimeRange.UNKNOWN;
+                }
+                return new TimeRange(LongPoint.decodeDimension(values.getMinPackedValue(), 0),
+                    LongPoint.decodeDimension(values.getMaxPackedValue(), 0));
+            }
+        } finally {
+            if (segmentDirectory != info.info.dir) {
+                segmentDirectory.close();
+            }
+        }
+    }
+
+    static final class TimeRange {
+        static final TimeRange UNKNOWN = new TimeRange(Long.MIN_VALUE, Long.MAX_VALUE);
+
+        final long min;
+        final long max;
+
+        TimeRange(long min, long max) {
+            this.min = min;
+            this.max = max;
+        }
+    }
+}
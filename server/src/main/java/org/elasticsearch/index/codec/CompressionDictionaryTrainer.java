@@ -0,0 +1,141 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.codec;
+
+import com.carrotsearch.hppc.LongHashSet;
+import com.carrotsearch.hppc.LongIntHashMap;
+import com.carrotsearch.hppc.cursors.LongCursor;
+
+import org.apache.lucene.util.BytesRef;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Trains a dictionary for {@link DictionaryCompressionMode} from sample documents. The samples are cut into segments of
+ * {@link #SEGMENT_LENGTH} bytes, and each segment is scored by how many samples contain each of its {@link #KMER_LENGTH}-byte
+ * sequences. The best segments are picked greedily, and the sequences of a picked segment no longer count towards the score of other
+ * segments, so that the dictionary does not repeat itself. This is a simplified version of the cover algorithm of zstd's dictionary
+ * builder.
+ */
+final class CompressionDictionaryTrainer {
+
+    static final int KMER_LENGTH = 8;
+    static final int SEGMENT_LENGTH = 128;
+
+    private CompressionDictionaryTrainer() {}
+
+    /**
+     * Returns a dictionary of at most {@code maxLength} bytes, which is empty if the samples have nothing in common.
+     */
+    static BytesRef train(List<BytesRef> samples, int maxLength) {
+        if (maxLength <= 0 || samples.size() < 2) {
+            return new BytesRef();
+        }
+
+        // the number of samples that contain each sequence, sequences that only occur in a single sample do not help compression
+        final LongIntHashMap sampleFrequencies = new LongIntHashMap();
+        for (BytesRef sample : samples) {
+            final LongHashSet kmers = new LongHashSet();
+            for (int i = 0; i + KMER_LENGTH <= sample.length; i++) {
+                kmers.add(kmer(sample, i));
+            }
+            for (LongCursor kmer : kmers) {
+                sampleFrequencies.addTo(kmer.value, 1);
+            }
+        }
+
+        final PriorityQueue<Candidate> candidates = new PriorityQueue<>(
+            Comparator.comparingLong((Candidate c) -> c.score).reversed().thenComparingInt(c -> c.order));
+        int order = 0;
+        for (BytesRef sample : samples) {
+            for (int start = 0; start + KMER_LENGTH <= sample.length; start += SEGMENT_LENGTH) {
+                final Candidate candidate = new Candidate(sample, start, Math.min(SEGMENT_LENGTH, sample.length - start), order++);
+                candidate.score = score(candidate, sampleFrequencies);
+                if (candidate.score > 0) {
+                    candidates.add(candidate);
+                }
+            }
+        }
+
+        final List<Candidate> picked = new ArrayList<>();
+        int length = 0;
+        while (length < maxLength && candidates.isEmpty() == false) {
+            final Candidate candidate = candidates.poll();
+            final long score = score(candidate, sampleFrequencies);
+            if (score <= 0) {
+                continue;
+            }
+            if (score < candidate.score && candidates.isEmpty() == false && score < candidates.peek().score) {
+                // the score dropped because of segments picked in the meantime, so it has to compete again
+                candidate.score = score;
+                candidates.add(candidate);
+                continue;
+            }
+            final int pickedLength = Math.min(candidate.length, maxLength - length);
+            picked.add(new Candidate(candidate.sample, candidate.start, pickedLength, candidate.order));
+            length += pickedLength;
+            for (int i = candidate.start; i + KMER_LENGTH <= candidate.start + candidate.length; i++) {
+                sampleFrequencies.put(kmer(candidate.sample, i), 0);
+            }
+        }
+
+        // LZ4 encodes all offsets with the same number of bytes, but the end of the dictionary stays in the window of more of the
+        // data, so the most useful segments go last
+        final byte[] dictionary = new byte[length];
+        int offset = 0;
+        for (int i = picked.size() - 1; i >= 0; i--) {
+            final Candidate segment = picked.get(i);
+            System.arraycopy(segment.sample.bytes, segment.sample.offset + segment.start, dictionary, offset, segment.length);
+            offset += segment.length;
+        }
+        assert offset == length;
+        return new BytesRef(dictionary);
+    }
+
+    private static long score(Candidate candidate, LongIntHashMap sampleFrequencies) {
+        final LongHashSet kmers = new LongHashSet();
+        long score = 0;
+        for (int i = candidate.start; i + KMER_LENGTH <= candidate.start + candidate.length; i++) {
+            final long kmer = kmer(candidate.sample, i);
+            if (kmers.add(kmer)) {
+                final int frequency = sampleFrequencies.get(kmer);
+                if (frequency > 1) {
+                    score += frequency;
+                }
+            }
+        }
+        return score;
+    }
+
+    private static long kmer(BytesRef bytes, int index) {
+        long kmer = 0;
+        for (int i = 0; i < KMER_LENGTH; i++) {
+            kmer = (kmer << 8) | (bytes.bytes[bytes.offset + index + i] & 0xFFL);
+        }
+        return kmer;
+    }
+
+    private static final class Candidate {
+        final BytesRef sample;
+        final int start;
+        final int length;
+        final int order;
+        long score;
+
+        Candidate(BytesRef sample, int start, int length, int order) {
+            this.sample = sample;
+            this.start = start;
+            this.length = length;
+            this.order = order;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.codec;
+
+import org.apache.lucene.codecs.Codec;
+import org.apache.lucene.codecs.FilterCodec;
+import org.apache.lucene.codecs.StoredFieldsFormat;
+import org.apache.lucene.codecs.lucene87.Lucene87Codec;
+
+/**
+ * A codec that stores fields with {@link DictionaryStoredFieldsFormat} and otherwise behaves like the codec that it wraps. Segments that
+ * are written with this codec are read with an instance that wraps the default Lucene codec, which reads all other formats by the names
+ * that they recorded per field.
+ */
+public final class DictionaryCompressionCodec extends FilterCodec {
+
+    public static final String NAME = "ESDictionary87";
+
+    private final StoredFieldsFormat storedFieldsFormat = new DictionaryStoredFieldsFormat();
+
+    /**
+     * Public no-arg constructor, needed for SPI loading at read-time.
+     */
+    public DictionaryCompressionCodec() {
+        this(new Lucene87Codec());
+    }
+
+    public DictionaryCompressionCodec(Codec delegate) {
+        super(NAME, delegate);
+    }
+
+    @Override
+    public StoredFieldsFormat storedFieldsFormat() {
+        return storedFieldsFormat;
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.codec;
+
+import org.apache.lucene.codecs.compressing.CompressionMode;
+import org.apache.lucene.codecs.compressing.Compressor;
+import org.apache.lucene.codecs.compressing.Decompressor;
+import org.apache.lucene.store.ByteBuffersDataOutput;
+import org.apache.lucene.store.DataInput;
+import org.apache.lucene.store.DataOutput;
+import org.apache.lucene.util.ArrayUtil;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.compress.LZ4;
+
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * A {@link CompressionMode} that compresses with LZ4 and a preset dictionary. Each chunk of documents is split into blocks of
+ * {@link #BLOCK_LENGTH} bytes that are compressed independently with the dictionary as preset, so that reading a document only
+ * decompresses the blocks that it overlaps. The dictionary is shared by all chunks of a segment, see {@link DictionaryStoredFieldsFormat}.
+ */
+final class DictionaryCompressionMode extends CompressionMode {
+
+    static final int BLOCK_LENGTH = 16 * 1024;
+
+    /**
+     * LZ4 can only refer back 64kB, so a dictionary that is longer than this would not be fully usable by the last bytes of a block.
+     */
+    static final int MAX_DICTIONARY_LENGTH = 32 * 1024;
+
+    private BytesRef dictionary;
+    private boolean compressed;
+
+    DictionaryCompressionMode(BytesRef dictionary) {
+        setDictionary(dictionary);
+    }
+
+    BytesRef getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * Sets the dictionary of a compression mode that is used for writing. The dictionary can only be changed before the first chunk was
+     * compressed, since all chunks of a segment are read with the same dictionary.
+     */
+    void setDictionary(BytesRef dictionary) {
+        Objects.requireNonNull(dictionary);
+        if (dictionary.length > MAX_DICTIONARY_LENGTH) {
+            throw new IllegalArgumentException("dictionary of [" + dictionary.length + "] bytes is longer than the maximum of ["
+                + MAX_DICTIONARY_LENGTH + "] bytes");
+        }
+        if (compressed) {
+            throw new IllegalStateException("cannot change the dictionary after compressing data");
+        }
+        this.dictionary = BytesRef.deepCopyOf(dictionary);
+    }
+
+    @Override
+    public Compressor newCompressor() {
+        return new DictionaryCompressor();
+    }
+
+    @Override
+    public Decompressor newDecompressor() {
+        return new DictionaryDecompressor(dictionary);
+    }
+
+    @Override
+    public String toString() {
+        return "DictionaryCompressionMode(blockLength=" + BLOCK_LENGTH + ", dictionaryLength=" + dictionary.length + ")";
+    }
+
+    private static int numBlocks(int length) {
+        return (length + BLOCK_LENGTH - 1) / BLOCK_LENGTH;
+    }
+
+    private final class DictionaryCompressor extends Compressor {
+
+        private final LZ4.FastCompressionHashTable hashTable = new LZ4.FastCompressionHashTable();
+        private final ByteBuffersDataOutput compressedBlocks = ByteBuffersDataOutput.newResettableInstance();
+        private int[] compressedLengths = new int[0];
+        private byte[] buffer = BytesRef.EMPTY_BYTES;
+
+        @Override
+        public void compress(byte[] bytes, int off, int len, DataOutput out) throws IOException {
+            compressed = true;
+            final int dictionaryLength = dictionary.length;
+            final int numBlocks = numBlocks(len);
+            compressedLengths = ArrayUtil.grow(compressedLengths, numBlocks);
+            buffer = ArrayUtil.grow(buffer, dictionaryLength + BLOCK_LENGTH);
+            System.arraycopy(dictionary.bytes, dictionary.offset, buffer, 0, dictionaryLength);
+            compressedBlocks.reset();
+            for (int block = 0; block < numBlocks; block++) {
+                final int blockStart = block * BLOCK_LENGTH;
+                final int blockLength = Math.min(BLOCK_LENGTH, len - blockStart);
+                System.arraycopy(bytes, off + blockStart, buffer, dictionaryLength, blockLength);
+                final long start = compressedBlocks.size();
+                LZ4.compressWithDictionary(buffer, 0, dictionaryLength, blockLength, compressedBlocks, hashTable);
+                compressedLengths[block] = Math.toIntExact(compressedBlocks.size() - start);
+            }
+            for (int block = 0; block < numBlocks; block++) {
+                out.writeVInt(compressedLengths[block]);
+            }
+            compressedBlocks.copyTo(out);
+        }
+
+        @Override
+        public void close() {}
+    }
+
+    private static final class DictionaryDecompressor extends Decompressor {
+
+        private final BytesRef dictionary;
+        private int[] compressedLengths = new int[0];
+        private final byte[] buffer;
+
+        DictionaryDecompressor(BytesRef dictionary) {
+            this.dictionary = dictionary;
+            this.buffer = new byte[dictionary.length + BLOCK_LENGTH];
+            System.arraycopy(dictionary.bytes, dictionary.offset, buffer, 0, dictionary.length);
+        }
+
+        @Override
+        public void decompress(DataInput in, int originalLength, int offset, int length, BytesRef bytes) throws IOException {
+            assert offset + length <= originalLength : offset + "+" + length + " > " + originalLength;
+            final int numBlocks = numBlocks(originalLength);
+            compressedLengths = ArrayUtil.grow(compressedLengths, numBlocks);
+            for (int block = 0; block < numBlocks; block++) {
+                compressedLengths[block] = in.readVInt();
+            }
+            if (length == 0) {
+                bytes.length = 0;
+                return;
+            }
+            final int firstBlock = offset / BLOCK_LENGTH;
+            final int lastBlock = (offset + length - 1) / BLOCK_LENGTH;
+            long skip = 0;
+            for (int block = 0; block < firstBlock; block++) {
+                skip += compressedLengths[block];
+            }
+            in.skipBytes(skip);
+
+            bytes.bytes = ArrayUtil.grow(bytes.bytes, (lastBlock - firstBlock + 1) * BLOCK_LENGTH);
+            bytes.offset = 0;
+            bytes.length = 0;
+            for (int block = firstBlock; block <= lastBlock; block++) {
+                final int blockLength = Math.min(BLOCK_LENGTH, originalLength - block * BLOCK_LENGTH);
+                // the dictionary stays at the start of the buffer, right before the decompressed block
+                LZ4.decompress(in, blockLength, buffer, dictionary.length);
+                System.arraycopy(buffer, dictionary.length, bytes.bytes, bytes.length, blockLength);
+                bytes.length += blockLength;
+            }
+            bytes.offset = offset - firstBlock * BLOCK_LENGTH;
+            bytes.length = length;
+        }
+
+        @Override
+        public Decompressor clone() {
+            return new DictionaryDecompressor(dictionary);
+        }
+    }
+}
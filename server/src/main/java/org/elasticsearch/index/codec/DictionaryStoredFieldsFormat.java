@@ -0,0 +1,255 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.codec;
+
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.codecs.StoredFieldsFormat;
+import org.apache.lucene.codecs.StoredFieldsReader;
+import org.apache.lucene.codecs.StoredFieldsWriter;
+import org.apache.lucene.codecs.compressing.CompressingStoredFieldsFormat;
+import org.apache.lucene.index.CorruptIndexException;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.FieldInfos;
+import org.apache.lucene.index.IndexFileNames;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.MergeState;
+import org.apache.lucene.index.SegmentInfo;
+import org.apache.lucene.index.StoredFieldVisitor;
+import org.apache.lucene.store.ChecksumIndexInput;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.util.Accountable;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.BytesRefBuilder;
+import org.apache.lucene.util.IOUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * A stored fields format that compresses blocks of documents with LZ4 and a dictionary per segment, see
+ * {@link DictionaryCompressionMode}. Flushed segments have an empty dictionary. When segments are merged, a dictionary is trained from
+ * documents that are sampled from all merged segments, see {@link CompressionDictionaryTrainer}, and stored in a separate file of the
+ * merged segment. Documents with a similar structure, such as log events, then compress much better than they would on their own, while
+ * decompression remains as fast as LZ4.
+ */
+public final class DictionaryStoredFieldsFormat extends StoredFieldsFormat {
+
+    static final String FORMAT_NAME = "ESDictionaryStoredFields";
+    static final String DICTIONARY_EXTENSION = "fdd";
+    static final String DICTIONARY_CODEC_NAME = "ESDictionaryStoredFieldsDictionary";
+    static final int VERSION_START = 0;
+    static final int VERSION_CURRENT = VERSION_START;
+
+    static final int CHUNK_SIZE = 8 * DictionaryCompressionMode.BLOCK_LENGTH;
+    static final int MAX_DOCS_PER_CHUNK = 1024;
+    static final int BLOCK_SHIFT = 10;
+
+    /**
+     * Documents to sample for training the dictionary of a merged segment.
+     */
+    static final int MAX_SAMPLED_DOCS = 2048;
+
+    /**
+     * Bytes of a single document to use for training, so that a few large documents do not dominate the dictionary.
+     */
+    static final int MAX_SAMPLED_BYTES_PER_DOC = 4 * 1024;
+
+    /**
+     * A dictionary should be small compared to the data that it compresses, since it is stored and kept in memory per segment.
+     */
+    static final int MIN_BYTES_PER_DICTIONARY_BYTE = 16;
+
+    @Override
+    public StoredFieldsReader fieldsReader(Directory directory, SegmentInfo si, FieldInfos fn, IOContext context) throws IOException {
+        final BytesRef dictionary = readDictionary(directory, si);
+        return newFormat(new DictionaryCompressionMode(dictionary)).fieldsReader(directory, si, fn, context);
+    }
+
+    @Override
+    public StoredFieldsWriter fieldsWriter(Directory directory, SegmentInfo si, IOContext context) throws IOException {
+        // every segment has its own compression mode, which also keeps merges from copying chunks that use another dictionary
+        final DictionaryCompressionMode compressionMode = new DictionaryCompressionMode(new BytesRef());
+        return new DictionaryStoredFieldsWriter(directory, si, context, compressionMode,
+            newFormat(compressionMode).fieldsWriter(directory, si, context));
+    }
+
+    private static StoredFieldsFormat newFormat(DictionaryCompressionMode compressionMode) {
+        return new CompressingStoredFieldsFormat(FORMAT_NAME, compressionMode, CHUNK_SIZE, MAX_DOCS_PER_CHUNK, BLOCK_SHIFT);
+    }
+
+    private static String dictionaryFileName(SegmentInfo si) {
+        return IndexFileNames.segmentFileName(si.name, "", DICTIONARY_EXTENSION);
+    }
+
+    private static BytesRef readDictionary(Directory directory, SegmentInfo si) throws IOException {
+        try (ChecksumIndexInput in = directory.openChecksumInput(dictionaryFileName(si), IOContext.READONCE)) {
+            Throwable priorE = null;
+            BytesRef dictionary = null;
+            try {
+                CodecUtil.checkIndexHeader(in, DICTIONARY_CODEC_NAME, VERSION_START, VERSION_CURRENT, si.getId(), "");
+                final int length = in.readVInt();
+                if (length > DictionaryCompressionMode.MAX_DICTIONARY_LENGTH) {
+                    throw new CorruptIndexException("invalid dictionary length [" + length + "]", in);
+                }
+                final byte[] bytes = new byte[length];
+                in.readBytes(bytes, 0, length);
+                dictionary = new BytesRef(bytes);
+            } catch (Throwable exception) {
+                priorE = exception;
+            } finally {
+                CodecUtil.checkFooter(in, priorE);
+            }
+            return dictionary;
+        }
+    }
+
+    private static final class DictionaryStoredFieldsWriter extends StoredFieldsWriter {
+
+        private final Directory directory;
+        private final SegmentInfo segmentInfo;
+        private final IOContext context;
+        private final DictionaryCompressionMode compressionMode;
+        private final StoredFieldsWriter delegate;
+        private boolean dictionaryWritten;
+
+        DictionaryStoredFieldsWriter(Directory directory, SegmentInfo segmentInfo, IOContext context,
+                                     DictionaryCompressionMode compressionMode, StoredFieldsWriter delegate) {
+            this.directory = directory;
+            this.segmentInfo = segmentInfo;
+            this.context = context;
+            this.compressionMode = compressionMode;
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void startDocument() throws IOException {
+            delegate.startDocument();
+        }
+
+        @Override
+        public void finishDocument() throws IOException {
+            delegate.finishDocument();
+        }
+
+        @Override
+        public void writeField(FieldInfo info, IndexableField field) throws IOException {
+            delegate.writeField(info, field);
+        }
+
+        @Override
+        public void finish(FieldInfos fis, int numDocs) throws IOException {
+            delegate.finish(fis, numDocs);
+            writeDictionary();
+        }
+
+        @Override
+        public int merge(MergeState mergeState) throws IOException {
+            compressionMode.setDictionary(trainDictionary(mergeState));
+            // the delegate finishes itself at the end of the merge
+            final int numDocs = delegate.merge(mergeState);
+            writeDictionary();
+            return numDocs;
+        }
+
+        private void writeDictionary() throws IOException {
+            if (dictionaryWritten) {
+                return;
+            }
+            final BytesRef dictionary = compressionMode.getDictionary();
+            try (IndexOutput out = directory.createOutput(dictionaryFileName(segmentInfo), context)) {
+                CodecUtil.writeIndexHeader(out, DICTIONARY_CODEC_NAME, VERSION_CURRENT, segmentInfo.getId(), "");
+                out.writeVInt(dictionary.length);
+                out.writeBytes(dictionary.bytes, dictionary.offset, dictionary.length);
+                CodecUtil.writeFooter(out);
+            }
+            dictionaryWritten = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            IOUtils.close(delegate);
+        }
+
+        @Override
+        public long ramBytesUsed() {
+            return delegate.ramBytesUsed();
+        }
+
+        @Override
+        public Collection<Accountable> getChildResources() {
+            return delegate.getChildResources();
+        }
+    }
+
+    /**
+     * Samples documents evenly from all segments of the merge and trains a dictionary on them.
+     */
+    static BytesRef trainDictionary(MergeState mergeState) throws IOException {
+        long totalDocs = 0;
+        for (int i = 0; i < mergeState.maxDocs.length; i++) {
+            totalDocs += mergeState.maxDocs[i];
+        }
+        if (totalDocs == 0) {
+            return new BytesRef();
+        }
+        final long step = Math.max(1, totalDocs / MAX_SAMPLED_DOCS);
+        final List<BytesRef> samples = new ArrayList<>();
+        long sampledBytes = 0;
+        long docs = 0;
+        for (int i = 0; i < mergeState.storedFieldsReaders.length; i++) {
+            final StoredFieldsReader reader = mergeState.storedFieldsReaders[i];
+            for (int docId = 0; docId < mergeState.maxDocs[i]; docId++, docs++) {
+                if (docs % step != 0 || (mergeState.liveDocs[i] != null && mergeState.liveDocs[i].get(docId) == false)) {
+                    continue;
+                }
+                final SamplingVisitor visitor = new SamplingVisitor();
+                reader.visitDocument(docId, visitor);
+                if (visitor.sample.length() > 0) {
+                    samples.add(visitor.sample.toBytesRef());
+                    sampledBytes += visitor.sample.length();
+                }
+            }
+        }
+        if (samples.isEmpty()) {
+            return new BytesRef();
+        }
+        final long estimatedBytes = sampledBytes * totalDocs / samples.size();
+        final int maxLength =
+            (int) Math.min(DictionaryCompressionMode.MAX_DICTIONARY_LENGTH, estimatedBytes / MIN_BYTES_PER_DICTIONARY_BYTE);
+        return CompressionDictionaryTrainer.train(samples, maxLength);
+    }
+
+    private static final class SamplingVisitor extends StoredFieldVisitor {
+
+        final BytesRefBuilder sample = new BytesRefBuilder();
+
+        @Override
+        public Status needsField(FieldInfo fieldInfo) {
+            return sample.length() < MAX_SAMPLED_BYTES_PER_DOC ? Status.YES : Status.STOP;
+        }
+
+        @Override
+        public void binaryField(FieldInfo fieldInfo, byte[] value) {
+            append(value);
+        }
+
+        @Override
+        public void stringField(FieldInfo fieldInfo, byte[] value) {
+            append(value);
+        }
+
+        private void append(byte[] value) {
+            sample.append(value, 0, Math.min(value.length, MAX_SAMPLED_BYTES_PER_DOC - sample.length()));
+        }
+    }
+}
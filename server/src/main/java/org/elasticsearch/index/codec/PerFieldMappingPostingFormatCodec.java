@@ -18,6 +18,7 @@ import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.index.mapper.CompletionFieldMapper;
 import org.elasticsearch.index.mapper.MappedFieldType;
 import org.elasticsearch.index.mapper.MapperService;
+import org.elasticsearch.index.mapper.NumberFieldMapper;
 
 /**
  * {@link PerFieldMappingPostingFormatCodec This postings format} is the default
@@ -32,6 +33,7 @@ public class PerFieldMappingPostingFormatCodec extends Lucene87Codec {
     private final MapperService mapperService;
     // Always enable compression on binary doc values
     private final DocValuesFormat docValuesFormat = new Lucene80DocValuesFormat(Lucene80DocValuesFormat.Mode.BEST_COMPRESSION);
+    private final DocValuesFormat timeSeriesDocValuesFormat = new TimeSeriesDocValuesFormat();
 
     static {
         assert Codec.forName(Lucene.LATEST_CODEC).getClass().isAssignableFrom(PerFieldMappingPostingFormatCodec.class) :
@@ -57,6 +59,11 @@ public class PerFieldMappingPostingFormatCodec extends Lucene87Codec {
 
     @Override
     public DocValuesFormat getDocValuesFormatForField(String field) {
+        final MappedFieldType fieldType = mapperService.fieldType(field);
+        if (fieldType instanceof NumberFieldMapper.NumberFieldType
+            && ((NumberFieldMapper.NumberFieldType) fieldType).hasTimeSeriesDocValues()) {
+            return timeSeriesDocValuesFormat;
+        }
         return docValuesFormat;
     }
 }
@@ -0,0 +1,201 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.codec;
+
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.codecs.DocValuesConsumer;
+import org.apache.lucene.codecs.DocValuesProducer;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.EmptyDocValuesProducer;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.IndexFileNames;
+import org.apache.lucene.index.SegmentWriteState;
+import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.util.IOUtils;
+import org.apache.lucene.util.packed.DirectMonotonicWriter;
+import org.apache.lucene.util.packed.PackedInts;
+import org.apache.lucene.util.packed.PackedLongValues;
+
+import java.io.IOException;
+
+import static org.elasticsearch.index.codec.TimeSeriesDocValuesFormat.DIRECT_MONOTONIC_BLOCK_SHIFT;
+import static org.elasticsearch.index.codec.TimeSeriesEncoder.BLOCK_SIZE;
+
+/**
+ * Writes the doc values of {@link TimeSeriesDocValuesFormat}. For each field the metadata file records the number of documents and values
+ * followed by the locations of up to four sections in the data file: the ids of the documents with a value, unless all documents have a
+ * value, the encoded blocks of values, the offsets of the blocks, and the offsets of the first value of each document, unless each
+ * document has a single value.
+ */
+final class TimeSeriesDocValuesConsumer extends DocValuesConsumer {
+
+    private final TimeSeriesEncoder encoder = new TimeSeriesEncoder();
+    private final int maxDoc;
+    private IndexOutput data;
+    private IndexOutput meta;
+
+    TimeSeriesDocValuesConsumer(SegmentWriteState state) throws IOException {
+        this.maxDoc = state.segmentInfo.maxDoc();
+        boolean success = false;
+        try {
+            final String dataName = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix,
+                TimeSeriesDocValuesFormat.DATA_EXTENSION);
+            data = state.directory.createOutput(dataName, state.context);
+            CodecUtil.writeIndexHeader(data, TimeSeriesDocValuesFormat.DATA_CODEC, TimeSeriesDocValuesFormat.VERSION_CURRENT,
+                state.segmentInfo.getId(), state.segmentSuffix);
+            final String metaName = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix,
+                TimeSeriesDocValuesFormat.META_EXTENSION);
+            meta = state.directory.createOutput(metaName, state.context);
+            CodecUtil.writeIndexHeader(meta, TimeSeriesDocValuesFormat.META_CODEC, TimeSeriesDocValuesFormat.VERSION_CURRENT,
+                state.segmentInfo.getId(), state.segmentSuffix);
+            success = true;
+        } finally {
+            if (success == false) {
+                IOUtils.closeWhileHandlingException(this);
+            }
+        }
+    }
+
+    @Override
+    public void addNumericField(FieldInfo field, DocValuesProducer valuesProducer) throws IOException {
+        writeField(field, new EmptyDocValuesProducer() {
+            @Override
+            public SortedNumericDocValues getSortedNumeric(FieldInfo field) throws IOException {
+                return DocValues.singleton(valuesProducer.getNumeric(field));
+            }
+        });
+    }
+
+    @Override
+    public void addSortedNumericField(FieldInfo field, DocValuesProducer valuesProducer) throws IOException {
+        writeField(field, valuesProducer);
+    }
+
+    private void writeField(FieldInfo field, DocValuesProducer valuesProducer) throws IOException {
+        meta.writeInt(field.number);
+
+        int numDocsWithField = 0;
+        long numValues = 0;
+        SortedNumericDocValues values = valuesProducer.getSortedNumeric(field);
+        for (int doc = values.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = values.nextDoc()) {
+            numDocsWithField++;
+            numValues += values.docValueCount();
+        }
+        meta.writeInt(numDocsWithField);
+        meta.writeLong(numValues);
+
+        if (numDocsWithField > 0 && numDocsWithField < maxDoc) {
+            final long start = data.getFilePointer();
+            meta.writeLong(start);
+            final DirectMonotonicWriter docs = DirectMonotonicWriter.getInstance(meta, data, numDocsWithField,
+                DIRECT_MONOTONIC_BLOCK_SHIFT);
+            values = valuesProducer.getSortedNumeric(field);
+            for (int doc = values.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = values.nextDoc()) {
+                docs.add(doc);
+            }
+            docs.finish();
+            meta.writeLong(data.getFilePointer() - start);
+        }
+
+        if (numValues > 0) {
+            final long start = data.getFilePointer();
+            meta.writeLong(start);
+            final PackedLongValues.Builder blockOffsets = PackedLongValues.monotonicBuilder(PackedInts.COMPACT);
+            final long[] block = new long[BLOCK_SIZE];
+            int blockCount = 0;
+            values = valuesProducer.getSortedNumeric(field);
+            for (int doc = values.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = values.nextDoc()) {
+                for (int i = 0, count = values.docValueCount(); i < count; i++) {
+                    block[blockCount++] = values.nextValue();
+                    if (blockCount == BLOCK_SIZE) {
+                        blockOffsets.add(data.getFilePointer() - start);
+                        encoder.encode(block, blockCount, data);
+                        blockCount = 0;
+                    }
+                }
+            }
+            if (blockCount > 0) {
+                blockOffsets.add(data.getFilePointer() - start);
+                encoder.encode(block, blockCount, data);
+            }
+            meta.writeLong(data.getFilePointer() - start);
+
+            final long offsetsStart = data.getFilePointer();
+            meta.writeLong(offsetsStart);
+            final PackedLongValues offsets = blockOffsets.build();
+            final DirectMonotonicWriter offsetsWriter = DirectMonotonicWriter.getInstance(meta, data, offsets.size(),
+                DIRECT_MONOTONIC_BLOCK_SHIFT);
+            for (PackedLongValues.Iterator it = offsets.iterator(); it.hasNext(); ) {
+                offsetsWriter.add(it.next());
+            }
+            offsetsWriter.finish();
+            meta.writeLong(data.getFilePointer() - offsetsStart);
+        }
+
+        if (numValues > numDocsWithField) {
+            final long start = data.getFilePointer();
+            meta.writeLong(start);
+            final DirectMonotonicWriter addresses = DirectMonotonicWriter.getInstance(meta, data, numDocsWithField + 1L,
+                DIRECT_MONOTONIC_BLOCK_SHIFT);
+            long address = 0;
+            addresses.add(address);
+            values = valuesProducer.getSortedNumeric(field);
+            for (int doc = values.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = values.nextDoc()) {
+                address += values.docValueCount();
+                addresses.add(address);
+            }
+            addresses.finish();
+            meta.writeLong(data.getFilePointer() - start);
+        }
+    }
+
+    @Override
+    public void addBinaryField(FieldInfo field, DocValuesProducer valuesProducer) {
+        throw unsupported(field, "binary");
+    }
+
+    @Override
+    public void addSortedField(FieldInfo field, DocValuesProducer valuesProducer) {
+        throw unsupported(field, "sorted");
+    }
+
+    @Override
+    public void addSortedSetField(FieldInfo field, DocValuesProducer valuesProducer) {
+        throw unsupported(field, "sorted set");
+    }
+
+    static IllegalArgumentException unsupported(FieldInfo field, String type) {
+        return new IllegalArgumentException("field [" + field.name + "] has " + type + " doc values but the ["
+            + TimeSeriesDocValuesFormat.NAME + "] doc values format only supports numeric doc values");
+    }
+
+    @Override
+    public void close() throws IOException {
+        boolean success = false;
+        try {
+            if (meta != null) {
+                meta.writeInt(-1); // write EOF marker
+                CodecUtil.writeFooter(meta);
+            }
+            if (data != null) {
+                CodecUtil.writeFooter(data);
+            }
+            success = true;
+        } finally {
+            if (success) {
+                IOUtils.close(data, meta);
+            } else {
+                IOUtils.closeWhileHandlingException(data, meta);
+            }
+            meta = data = null;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.codec;
+
+import org.apache.lucene.codecs.DocValuesConsumer;
+import org.apache.lucene.codecs.DocValuesFormat;
+import org.apache.lucene.codecs.DocValuesProducer;
+import org.apache.lucene.index.SegmentReadState;
+import org.apache.lucene.index.SegmentWriteState;
+
+import java.io.IOException;
+
+/**
+ * A doc values format for the numeric fields of time series, such as counters and gauges, that encodes each block of
+ * {@link TimeSeriesEncoder#BLOCK_SIZE} values with the {@link TimeSeriesEncoder encoding} that suits the block best. Values are encoded in
+ * doc id order, so the encodings work best on indices that are sorted by time series and timestamp. Only numeric and sorted numeric doc
+ * values are supported.
+ */
+public final class TimeSeriesDocValuesFormat extends DocValuesFormat {
+
+    public static final String NAME = "ESTimeSeries";
+
+    static final String DATA_CODEC = "ESTimeSeriesDocValuesData";
+    static final String DATA_EXTENSION = "tsd";
+    static final String META_CODEC = "ESTimeSeriesDocValuesMetadata";
+    static final String META_EXTENSION = "tsm";
+    static final int VERSION_START = 0;
+    static final int VERSION_CURRENT = VERSION_START;
+
+    static final int DIRECT_MONOTONIC_BLOCK_SHIFT = 16;
+
+    public TimeSeriesDocValuesFormat() {
+        super(NAME);
+    }
+
+    @Override
+    public DocValuesConsumer fieldsConsumer(SegmentWriteState state) throws IOException {
+        return new TimeSeriesDocValuesConsumer(state);
+    }
+
+    @Override
+    public DocValuesProducer fieldsProducer(SegmentReadState state) throws IOException {
+        return new TimeSeriesDocValuesProducer(state);
+    }
+}
@@ -0,0 +1,369 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.codec;
+
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.codecs.DocValuesProducer;
+import org.apache.lucene.index.BinaryDocValues;
+import org.apache.lucene.index.CorruptIndexException;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.FieldInfo;
+import org.apache.lucene.index.FieldInfos;
+import org.apache.lucene.index.IndexFileNames;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.SegmentReadState;
+import org.apache.lucene.index.SortedDocValues;
+import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.index.SortedSetDocValues;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.store.ChecksumIndexInput;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.util.IOUtils;
+import org.apache.lucene.util.LongValues;
+import org.apache.lucene.util.packed.DirectMonotonicReader;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.elasticsearch.index.codec.TimeSeriesDocValuesFormat.DIRECT_MONOTONIC_BLOCK_SHIFT;
+import static org.elasticsearch.index.codec.TimeSeriesEncoder.BLOCK_SHIFT;
+import static org.elasticsearch.index.codec.TimeSeriesEncoder.BLOCK_SIZE;
+
+/**
+ * Reads the doc values that {@link TimeSeriesDocValuesConsumer} wrote. Each iterator decodes a whole block of values at once when it
+ * first needs one of them, so that consumers that visit documents in order, like aggregations, mostly read values from the decoded block.
+ */
+final class TimeSeriesDocValuesProducer extends DocValuesProducer {
+
+    private final Map<String, NumericEntry> entries = new HashMap<>();
+    private final IndexInput data;
+    private final int maxDoc;
+    private long ramBytesUsed;
+
+    TimeSeriesDocValuesProducer(SegmentReadState state) throws IOException {
+        this.maxDoc = state.segmentInfo.maxDoc();
+        final String metaName = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix,
+            TimeSeriesDocValuesFormat.META_EXTENSION);
+        int version = -1;
+        try (ChecksumIndexInput in = state.directory.openChecksumInput(metaName, state.context)) {
+            Throwable priorE = null;
+            try {
+                version = CodecUtil.checkIndexHeader(in, TimeSeriesDocValuesFormat.META_CODEC, TimeSeriesDocValuesFormat.VERSION_START,
+                    TimeSeriesDocValuesFormat.VERSION_CURRENT, state.segmentInfo.getId(), state.segmentSuffix);
+                readFields(in, state.fieldInfos);
+            } catch (Throwable exception) {
+                priorE = exception;
+            } finally {
+                CodecUtil.checkFooter(in, priorE);
+            }
+        }
+
+        final String dataName = IndexFileNames.segmentFileName(state.segmentInfo.name, state.segmentSuffix,
+            TimeSeriesDocValuesFormat.DATA_EXTENSION);
+        this.data = state.directory.openInput(dataName, state.context);
+        boolean success = false;
+        try {
+            final int dataVersion = CodecUtil.checkIndexHeader(data, TimeSeriesDocValuesFormat.DATA_CODEC,
+                TimeSeriesDocValuesFormat.VERSION_START, TimeSeriesDocValuesFormat.VERSION_CURRENT, state.segmentInfo.getId(),
+                state.segmentSuffix);
+            if (version != dataVersion) {
+                throw new CorruptIndexException("Format versions mismatch: meta=" + version + ", data=" + dataVersion, data);
+            }
+            CodecUtil.retrieveChecksum(data);
+            success = true;
+        } finally {
+            if (success == false) {
+                IOUtils.closeWhileHandlingException(this.data);
+            }
+        }
+    }
+
+    private void readFields(IndexInput meta, FieldInfos infos) throws IOException {
+        for (int fieldNumber = meta.readInt(); fieldNumber != -1; fieldNumber = meta.readInt()) {
+            final FieldInfo info = infos.fieldInfo(fieldNumber);
+            if (info == null) {
+                throw new CorruptIndexException("Invalid field number: " + fieldNumber, meta);
+            }
+            entries.put(info.name, readEntry(meta));
+        }
+    }
+
+    private NumericEntry readEntry(IndexInput meta) throws IOException {
+        final NumericEntry entry = new NumericEntry();
+        entry.numDocsWithField = meta.readInt();
+        entry.numValues = meta.readLong();
+        if (entry.numDocsWithField > 0 && entry.numDocsWithField < maxDoc) {
+            entry.docsOffset = meta.readLong();
+            entry.docsMeta = DirectMonotonicReader.loadMeta(meta, entry.numDocsWithField, DIRECT_MONOTONIC_BLOCK_SHIFT);
+            entry.docsLength = meta.readLong();
+            ramBytesUsed += entry.docsMeta.ramBytesUsed();
+        }
+        if (entry.numValues > 0) {
+            entry.valuesOffset = meta.readLong();
+            entry.valuesLength = meta.readLong();
+            entry.blockOffsetsOffset = meta.readLong();
+            final long numBlocks = (entry.numValues + BLOCK_SIZE - 1) >>> BLOCK_SHIFT;
+            entry.blockOffsetsMeta = DirectMonotonicReader.loadMeta(meta, numBlocks, DIRECT_MONOTONIC_BLOCK_SHIFT);
+            entry.blockOffsetsLength = meta.readLong();
+            ramBytesUsed += entry.blockOffsetsMeta.ramBytesUsed();
+        }
+        if (entry.numValues > entry.numDocsWithField) {
+            entry.addressesOffset = meta.readLong();
+            entry.addressesMeta = DirectMonotonicReader.loadMeta(meta, entry.numDocsWithField + 1L, DIRECT_MONOTONIC_BLOCK_SHIFT);
+            entry.addressesLength = meta.readLong();
+            ramBytesUsed += entry.addressesMeta.ramBytesUsed();
+        }
+        return entry;
+    }
+
+    @Override
+    public NumericDocValues getNumeric(FieldInfo field) throws IOException {
+        final NumericEntry entry = entries.get(field.name);
+        if (entry.numValues == 0) {
+            return DocValues.emptyNumeric();
+        }
+        final DocIndex docs = docIndex(entry);
+        final BlockValues values = new BlockValues(entry);
+        return new NumericDocValues() {
+            @Override
+            public long longValue() throws IOException {
+                return values.get(docs.index);
+            }
+
+            @Override
+            public boolean advanceExact(int target) throws IOException {
+                return docs.advanceExact(target);
+            }
+
+            @Override
+            public int docID() {
+                return docs.doc;
+            }
+
+            @Override
+            public int nextDoc() throws IOException {
+                return docs.advance(docs.doc + 1);
+            }
+
+            @Override
+            public int advance(int target) throws IOException {
+                return docs.advance(target);
+            }
+
+            @Override
+            public long cost() {
+                return entry.numDocsWithField;
+            }
+        };
+    }
+
+    @Override
+    public SortedNumericDocValues getSortedNumeric(FieldInfo field) throws IOException {
+        final NumericEntry entry = entries.get(field.name);
+        if (entry.numValues <= entry.numDocsWithField) {
+            return DocValues.singleton(getNumeric(field));
+        }
+        final DocIndex docs = docIndex(entry);
+        final BlockValues values = new BlockValues(entry);
+        final LongValues addresses = DirectMonotonicReader.getInstance(entry.addressesMeta,
+            data.randomAccessSlice(entry.addressesOffset, entry.addressesLength));
+        return new SortedNumericDocValues() {
+
+            private long start;
+            private int count;
+            private int upTo;
+
+            @Override
+            public long nextValue() throws IOException {
+                assert upTo < count;
+                return values.get(start + upTo++);
+            }
+
+            @Override
+            public int docValueCount() {
+                return count;
+            }
+
+            @Override
+            public boolean advanceExact(int target) throws IOException {
+                if (docs.advanceExact(target)) {
+                    setDocument();
+                    return true;
+                }
+                return false;
+            }
+
+            @Override
+            public int docID() {
+                return docs.doc;
+            }
+
+            @Override
+            public int nextDoc() throws IOException {
+                return advance(docs.doc + 1);
+            }
+
+            @Override
+            public int advance(int target) throws IOException {
+                final int doc = docs.advance(target);
+                if (doc != NO_MORE_DOCS) {
+                    setDocument();
+                }
+                return doc;
+            }
+
+            private void setDocument() {
+                start = addresses.get(docs.index);
+                count = (int) (addresses.get(docs.index + 1L) - start);
+                upTo = 0;
+            }
+
+            @Override
+            public long cost() {
+                return entry.numDocsWithField;
+            }
+        };
+    }
+
+    private DocIndex docIndex(NumericEntry entry) throws IOException {
+        if (entry.numDocsWithField == maxDoc) {
+            return new DocIndex(maxDoc, null);
+        }
+        return new DocIndex(entry.numDocsWithField,
+            DirectMonotonicReader.getInstance(entry.docsMeta, data.randomAccessSlice(entry.docsOffset, entry.docsLength)));
+    }
+
+    @Override
+    public BinaryDocValues getBinary(FieldInfo field) {
+        throw TimeSeriesDocValuesConsumer.unsupported(field, "binary");
+    }
+
+    @Override
+    public SortedDocValues getSorted(FieldInfo field) {
+        throw TimeSeriesDocValuesConsumer.unsupported(field, "sorted");
+    }
+
+    @Override
+    public SortedSetDocValues getSortedSet(FieldInfo field) {
+        throw TimeSeriesDocValuesConsumer.unsupported(field, "sorted set");
+    }
+
+    @Override
+    public void checkIntegrity() throws IOException {
+        CodecUtil.checksumEntireFile(data);
+    }
+
+    @Override
+    public long ramBytesUsed() {
+        return ramBytesUsed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        data.close();
+    }
+
+    private static final class NumericEntry {
+        int numDocsWithField;
+        long numValues;
+        long docsOffset;
+        long docsLength;
+        DirectMonotonicReader.Meta docsMeta;
+        long valuesOffset;
+        long valuesLength;
+        long blockOffsetsOffset;
+        long blockOffsetsLength;
+        DirectMonotonicReader.Meta blockOffsetsMeta;
+        long addressesOffset;
+        long addressesLength;
+        DirectMonotonicReader.Meta addressesMeta;
+    }
+
+    /**
+     * Maps documents to the index of their first value, or to the index of their only value for single valued fields.
+     */
+    private static final class DocIndex {
+
+        private final int numDocsWithField;
+        private final LongValues docs; // null if all documents have a value
+        int doc = -1;
+        int index = -1;
+
+        DocIndex(int numDocsWithField, LongValues docs) {
+            this.numDocsWithField = numDocsWithField;
+            this.docs = docs;
+        }
+
+        int advance(int target) {
+            if (docs == null) {
+                index = doc = target >= numDocsWithField ? DocIdSetIterator.NO_MORE_DOCS : target;
+                return doc;
+            }
+            index = firstIndexAtOrAfter(target);
+            doc = index < numDocsWithField ? (int) docs.get(index) : DocIdSetIterator.NO_MORE_DOCS;
+            return doc;
+        }
+
+        boolean advanceExact(int target) {
+            doc = target;
+            if (docs == null) {
+                index = target;
+                return true;
+            }
+            index = firstIndexAtOrAfter(target);
+            return index < numDocsWithField && docs.get(index) == target;
+        }
+
+        private int firstIndexAtOrAfter(int target) {
+            // documents are iterated in order, so the next document with a value is usually close to the current one
+            int low = Math.max(index, 0);
+            int high = numDocsWithField - 1;
+            while (low <= high) {
+                final int mid = (low + high) >>> 1;
+                if (docs.get(mid) < target) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low;
+        }
+    }
+
+    /**
+     * Gives access to the values of a field by their index, decoding the block that contains the value if it is not the current block.
+     */
+    private final class BlockValues {
+
+        private final TimeSeriesEncoder encoder = new TimeSeriesEncoder();
+        private final long[] block = new long[BLOCK_SIZE];
+        private final IndexInput values;
+        private final LongValues blockOffsets;
+        private final long numValues;
+        private long currentBlock = -1;
+
+        BlockValues(NumericEntry entry) throws IOException {
+            this.values = data.slice("time-series-values", entry.valuesOffset, entry.valuesLength);
+            this.blockOffsets = DirectMonotonicReader.getInstance(entry.blockOffsetsMeta,
+                data.randomAccessSlice(entry.blockOffsetsOffset, entry.blockOffsetsLength));
+            this.numValues = entry.numValues;
+        }
+
+        long get(long index) throws IOException {
+            final long blockIndex = index >>> BLOCK_SHIFT;
+            if (blockIndex != currentBlock) {
+                values.seek(blockOffsets.get(blockIndex));
+                encoder.decode(values, block, (int) Math.min(BLOCK_SIZE, numValues - (blockIndex << BLOCK_SHIFT)));
+                currentBlock = blockIndex;
+            }
+            return block[(int) (index & (BLOCK_SIZE - 1))];
+        }
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.codec;
+
+import org.apache.lucene.store.DataInput;
+import org.apache.lucene.store.DataOutput;
+
+import java.io.IOException;
+
+/**
+ * Encodes blocks of up to {@link #BLOCK_SIZE} consecutive doc values of a field. Each block is encoded with whichever of the following
+ * encodings needs the fewest bits per value:
+ * <ul>
+ *     <li>delta: the differences between consecutive values, minus their minimum, which suits counters that increase at a varying
+ *     rate,</li>
+ *     <li>delta-of-delta: the differences between consecutive deltas, minus their minimum, which suits counters whose rate changes
+ *     steadily,</li>
+ *     <li>XOR: consecutive values XOR-ed, without their common trailing zero bits, which suits slowly changing floating point gauges whose
+ *     consecutive values share their sign, exponent and most significant bits of the mantissa.</li>
+ * </ul>
+ * All encodings then bit-pack the remaining numbers with the smallest number of bits that fits the largest of them.
+ */
+public final class TimeSeriesEncoder {
+
+    public static final int BLOCK_SHIFT = 7;
+    public static final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+
+    static final byte DELTA = 0;
+    static final byte DELTA_OF_DELTA = 1;
+    static final byte XOR = 2;
+
+    private final long[] scratch = new long[BLOCK_SIZE];
+
+    /**
+     * Encodes the first {@code count} values of the given array.
+     */
+    public void encode(long[] values, int count, DataOutput out) throws IOException {
+        assert count > 0 && count <= BLOCK_SIZE : count;
+
+        long minDelta = 0;
+        long maxDelta = 0;
+        long minDeltaOfDelta = 0;
+        long maxDeltaOfDelta = 0;
+        long xorBits = 0;
+        for (int i = 1; i < count; i++) {
+            final long delta = values[i] - values[i - 1];
+            if (i == 1) {
+                minDelta = maxDelta = delta;
+            } else {
+                minDelta = Math.min(minDelta, delta);
+                maxDelta = Math.max(maxDelta, delta);
+                final long deltaOfDelta = delta - (values[i - 1] - values[i - 2]);
+                if (i == 2) {
+                    minDeltaOfDelta = maxDeltaOfDelta = deltaOfDelta;
+                } else {
+                    minDeltaOfDelta = Math.min(minDeltaOfDelta, deltaOfDelta);
+                    maxDeltaOfDelta = Math.max(maxDeltaOfDelta, deltaOfDelta);
+                }
+            }
+            xorBits |= values[i] ^ values[i - 1];
+        }
+        final int deltaBits = bitsRequired(maxDelta - minDelta);
+        final int deltaOfDeltaBits = bitsRequired(maxDeltaOfDelta - minDeltaOfDelta);
+        final int xorShift = xorBits == 0 ? 0 : Long.numberOfTrailingZeros(xorBits);
+        final int xorBitsRequired = bitsRequired(xorBits >>> xorShift);
+
+        final long deltaCost = (long) deltaBits * (count - 1);
+        final long deltaOfDeltaCost = count < 3 ? Long.MAX_VALUE : (long) deltaOfDeltaBits * (count - 2);
+        final long xorCost = (long) xorBitsRequired * (count - 1);
+
+        out.writeZLong(values[0]);
+        if (deltaCost <= deltaOfDeltaCost && deltaCost <= xorCost) {
+            out.writeByte(DELTA);
+            out.writeZLong(minDelta);
+            out.writeByte((byte) deltaBits);
+            for (int i = 1; i < count; i++) {
+                scratch[i] = values[i] - values[i - 1] - minDelta;
+            }
+            pack(scratch, 1, count, deltaBits, out);
+        } else if (deltaOfDeltaCost <= xorCost) {
+            out.writeByte(DELTA_OF_DELTA);
+            out.writeZLong(values[1] - values[0]);
+            out.writeZLong(minDeltaOfDelta);
+            out.writeByte((byte) deltaOfDeltaBits);
+            for (int i = 2; i < count; i++) {
+                scratch[i] = (values[i] - values[i - 1]) - (values[i - 1] - values[i - 2]) - minDeltaOfDelta;
+            }
+            pack(scratch, 2, count, deltaOfDeltaBits, out);
+        } else {
+            out.writeByte(XOR);
+            out.writeByte((byte) xorShift);
+            out.writeByte((byte) xorBitsRequired);
+            for (int i = 1; i < count; i++) {
+                scratch[i] = (values[i] ^ values[i - 1]) >>> xorShift;
+            }
+            pack(scratch, 1, count, xorBitsRequired, out);
+        }
+    }
+
+    /**
+     * Decodes a block of {@code count} values that was encoded with {@link #encode} into the given array.
+     */
+    public void decode(DataInput in, long[] values, int count) throws IOException {
+        assert count > 0 && count <= BLOCK_SIZE : count;
+        values[0] = in.readZLong();
+        final byte encoding = in.readByte();
+        switch (encoding) {
+            case DELTA: {
+                final long minDelta = in.readZLong();
+                final int bits = in.readByte();
+                unpack(in, values, 1, count, bits);
+                for (int i = 1; i < count; i++) {
+                    values[i] += values[i - 1] + minDelta;
+                }
+                break;
+            }
+            case DELTA_OF_DELTA: {
+                long delta = in.readZLong();
+                final long minDeltaOfDelta = in.readZLong();
+                final int bits = in.readByte();
+                values[1] = values[0] + delta;
+                unpack(in, values, 2, count, bits);
+                for (int i = 2; i < count; i++) {
+                    delta += values[i] + minDeltaOfDelta;
+                    values[i] = values[i - 1] + delta;
+                }
+                break;
+            }
+            case XOR: {
+                final int shift = in.readByte();
+                final int bits = in.readByte();
+                unpack(in, values, 1, count, bits);
+                for (int i = 1; i < count; i++) {
+                    values[i] = values[i - 1] ^ (values[i] << shift);
+                }
+                break;
+            }
+            default:
+                throw new IllegalStateException("unknown time series block encoding [" + encoding + "]");
+        }
+    }
+
+    private static int bitsRequired(long unsignedValue) {
+        return 64 - Long.numberOfLeadingZeros(unsignedValue);
+    }
+
+    private static void pack(long[] values, int from, int to, int bits, DataOutput out) throws IOException {
+        if (bits == 0) {
+            return;
+        }
+        long pending = 0;
+        int pendingBits = 0;
+        for (int i = from; i < to; i++) {
+            final long value = values[i];
+            pending |= value << pendingBits;
+            pendingBits += bits;
+            if (pendingBits >= 64) {
+                out.writeLong(pending);
+                pendingBits -= 64;
+                pending = pendingBits == 0 ? 0 : value >>> (bits - pendingBits);
+            }
+        }
+        if (pendingBits > 0) {
+            out.writeLong(pending);
+        }
+    }
+
+    private static void unpack(DataInput in, long[] values, int from, int to, int bits) throws IOException {
+        if (bits == 0) {
+            for (int i = from; i < to; i++) {
+                values[i] = 0;
+            }
+            return;
+        }
+        final long mask = bits == 64 ? -1L : (1L << bits) - 1;
+        long pending = 0;
+        int pendingBits = 0;
+        for (int i = from; i < to; i++) {
+            if (pendingBits >= bits) {
+                values[i] = pending & mask;
+                pending = bits == 64 ? 0 : pending >>> bits;
+                pendingBits -= bits;
+            } else {
+                final long next = in.readLong();
+                values[i] = (pending | (next << pendingBits)) & mask;
+                final int consumed = bits - pendingBits;
+                pending = consumed == 64 ? 0 : next >>> consumed;
+                pendingBits = 64 - consumed;
+            }
+        }
+    }
+}
@@ -13,17 +13,27 @@ import org.apache.lucene.index.ConcurrentMergeScheduler;
 import org.apache.lucene.index.MergePolicy;
 import org.apache.lucene.index.MergeScheduler;
 import org.apache.lucene.index.OneMergeHelper;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FilterDirectory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.store.RateLimitedIndexOutput;
+import org.apache.lucene.store.RateLimiter;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
 import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.metrics.CounterMetric;
 import org.elasticsearch.common.metrics.MeanMetric;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.Releasable;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.MergeSchedulerConfig;
 import org.elasticsearch.index.merge.MergeStats;
+import org.elasticsearch.index.merge.NodeMergeScheduler;
 import org.elasticsearch.index.merge.OnGoingMerge;
 import org.elasticsearch.index.shard.ShardId;
 
@@ -34,13 +44,17 @@ import java.util.Set;
 
 /**
  * An extension to the {@link ConcurrentMergeScheduler} that provides tracking on merge times, total
- * and current merges.
+ * and current merges. If a {@link NodeMergeScheduler} is given, merges also wait for a slot of the node
+ * and their writes are limited by the node wide rate.
  */
 class ElasticsearchConcurrentMergeScheduler extends ConcurrentMergeScheduler {
 
     protected final Logger logger;
     private final Settings indexSettings;
+    private final IndexSettings settings;
     private final ShardId shardId;
+    @Nullable
+    private final NodeMergeScheduler nodeMergeScheduler;
 
     private final MeanMetric totalMerges = new MeanMetric();
     private final CounterMetric totalMergesNumDocs = new CounterMetric();
@@ -50,15 +64,23 @@ class ElasticsearchConcurrentMergeScheduler extends ConcurrentMergeScheduler {
     private final CounterMetric currentMergesSizeInBytes = new CounterMetric();
     private final CounterMetric totalMergeStoppedTime = new CounterMetric();
     private final CounterMetric totalMergeThrottledTime = new CounterMetric();
+    private final CounterMetric currentQueuedMerges = new CounterMetric();
+    private final CounterMetric totalMergeQueuedTime = new CounterMetric();
 
     private final Set<OnGoingMerge> onGoingMerges = ConcurrentCollections.newConcurrentSet();
     private final Set<OnGoingMerge> readOnlyOnGoingMerges = Collections.unmodifiableSet(onGoingMerges);
     private final MergeSchedulerConfig config;
 
     ElasticsearchConcurrentMergeScheduler(ShardId shardId, IndexSettings indexSettings) {
+        this(shardId, indexSettings, null);
+    }
+
+    ElasticsearchConcurrentMergeScheduler(ShardId shardId, IndexSettings indexSettings, @Nullable NodeMergeScheduler nodeMergeScheduler) {
         this.config = indexSettings.getMergeSchedulerConfig();
         this.shardId = shardId;
+        this.settings = indexSettings;
         this.indexSettings = indexSettings.getSettings();
+        this.nodeMergeScheduler = nodeMergeScheduler;
         this.logger = Loggers.getLogger(getClass(), shardId);
         refreshConfig();
     }
@@ -69,6 +91,18 @@ class ElasticsearchConcurrentMergeScheduler extends ConcurrentMergeScheduler {
 
     @Override
     protected void doMerge(MergeSource mergeSource, MergePolicy.OneMerge merge) throws IOException {
+        // a merge that waits for a node merge slot is still in flight, so beforeMerge counts it before it waits and indexing into this
+        // shard is throttled if its merges can't keep up, no matter whether they are slow or wait for the merges of other shards
+        final OnGoingMerge onGoingMerge = new OnGoingMerge(merge);
+        beforeMerge(onGoingMerge);
+        try (Releasable ignored = acquireNodeMergeSlot(merge)) {
+            runMerge(mergeSource, merge, onGoingMerge);
+        } finally {
+            afterMerge(onGoingMerge);
+        }
+    }
+
+    private void runMerge(MergeSource mergeSource, MergePolicy.OneMerge merge, OnGoingMerge onGoingMerge) throws IOException {
         int totalNumDocs = merge.totalNumDocs();
         long totalSizeInBytes = merge.totalBytesSize();
         long timeNS = System.nanoTime();
@@ -76,7 +110,6 @@ class ElasticsearchConcurrentMergeScheduler extends ConcurrentMergeScheduler {
         currentMergesNumDocs.inc(totalNumDocs);
         currentMergesSizeInBytes.inc(totalSizeInBytes);
 
-        OnGoingMerge onGoingMerge = new OnGoingMerge(merge);
         onGoingMerges.add(onGoingMerge);
 
         if (logger.isTraceEnabled()) {
@@ -85,13 +118,11 @@ class ElasticsearchConcurrentMergeScheduler extends ConcurrentMergeScheduler {
                 new ByteSizeValue(merge.estimatedMergeBytes));
         }
         try {
-            beforeMerge(onGoingMerge);
             super.doMerge(mergeSource, merge);
         } finally {
             long tookMS = TimeValue.nsecToMSec(System.nanoTime() - timeNS);
 
             onGoingMerges.remove(onGoingMerge);
-            afterMerge(onGoingMerge);
 
             currentMerges.dec();
             currentMergesNumDocs.dec(totalNumDocs);
@@ -132,6 +163,21 @@ class ElasticsearchConcurrentMergeScheduler extends ConcurrentMergeScheduler {
         }
     }
 
+    private Releasable acquireNodeMergeSlot(MergePolicy.OneMerge merge) {
+        if (nodeMergeScheduler == null) {
+            return () -> {};
+        }
+        final long startTimeNS = System.nanoTime();
+        currentQueuedMerges.inc();
+        try {
+            return nodeMergeScheduler.acquire(settings.getValue(IndexMetadata.INDEX_PRIORITY_SETTING), merge.totalBytesSize(),
+                merge::isAborted);
+        } finally {
+            currentQueuedMerges.dec();
+            totalMergeQueuedTime.inc(TimeValue.nsecToMSec(System.nanoTime() - startTimeNS));
+        }
+    }
+
     /**
      * A callback allowing for custom logic before an actual merge starts.
      */
@@ -149,6 +195,21 @@ class ElasticsearchConcurrentMergeScheduler extends ConcurrentMergeScheduler {
         return this;
     }
 
+    @Override
+    public Directory wrapForMerge(MergePolicy.OneMerge merge, Directory in) {
+        final Directory wrapped = super.wrapForMerge(merge, in);
+        final RateLimiter nodeRateLimiter = nodeMergeScheduler == null ? null : nodeMergeScheduler.rateLimiter();
+        if (nodeRateLimiter == null) {
+            return wrapped;
+        }
+        return new FilterDirectory(wrapped) {
+            @Override
+            public IndexOutput createOutput(String name, IOContext context) throws IOException {
+                return new RateLimitedIndexOutput(nodeRateLimiter, super.createOutput(name, context));
+            }
+        };
+    }
+
     @Override
     protected boolean maybeStall(MergeSource mergeSource) {
         // Don't stall here, because we do our own index throttling (in InternalEngine.IndexThrottle) when merges can't keep up
@@ -170,6 +231,7 @@ class ElasticsearchConcurrentMergeScheduler extends ConcurrentMergeScheduler {
                 totalMergeStoppedTime.count(),
                 totalMergeThrottledTime.count(),
                 config.isAutoThrottle() ? getIORateLimitMBPerSec() : Double.POSITIVE_INFINITY);
+        mergeStats.addQueued(currentQueuedMerges.count(), totalMergeQueuedTime.count());
         return mergeStats;
     }
 
@@ -10,11 +10,13 @@ package org.elasticsearch.index.engine;
 
 import org.apache.logging.log4j.Logger;
 import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.apache.lucene.document.LongPoint;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexCommit;
 import org.apache.lucene.index.IndexFileNames;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.PointValues;
 import org.apache.lucene.index.SegmentCommitInfo;
 import org.apache.lucene.index.SegmentInfos;
 import org.apache.lucene.index.SegmentReader;
@@ -30,6 +32,7 @@ import org.apache.lucene.util.Accountables;
 import org.apache.lucene.util.SetOnce;
 import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.action.index.IndexRequest;
+import org.elasticsearch.cluster.metadata.DataStream;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.collect.ImmutableOpenMap;
 import org.elasticsearch.common.logging.Loggers;
@@ -903,6 +906,16 @@ public abstract class Engine implements Closeable {
             segment.ramTree = Accountables.namedAccountable("root", segmentReader);
         }
         segment.attributes = info.info.getAttributes();
+        try {
+            final PointValues timestamps = segmentReader.getPointValues(DataStream.TimestampField.FIXED_TIMESTAMP_FIELD);
+            if (timestamps != null && timestamps.size() > 0
+                && timestamps.getNumDimensions() == 1 && timestamps.getBytesPerDimension() == Long.BYTES) {
+                segment.minTimestamp = LongPoint.decodeDimension(timestamps.getMinPackedValue(), 0);
+                segment.maxTimestamp = LongPoint.decodeDimension(timestamps.getMaxPackedValue(), 0);
+            }
+        } catch (IOException e) {
+            logger.trace(() -> new ParameterizedMessage("failed to get timestamp range for [{}]", info.info.name), e);
+        }
         // TODO: add more fine grained mem stats values to per segment info here
         segments.put(info.info.name, segment);
     }
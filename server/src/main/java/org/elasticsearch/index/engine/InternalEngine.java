@@ -71,6 +71,7 @@ import org.elasticsearch.index.mapper.SeqNoFieldMapper;
 import org.elasticsearch.index.mapper.SourceFieldMapper;
 import org.elasticsearch.index.mapper.Uid;
 import org.elasticsearch.index.merge.MergeStats;
+import org.elasticsearch.index.merge.NodeMergeScheduler;
 import org.elasticsearch.index.merge.OnGoingMerge;
 import org.elasticsearch.index.seqno.LocalCheckpointTracker;
 import org.elasticsearch.index.seqno.SeqNoStats;
@@ -188,10 +189,23 @@ public class InternalEngine extends Engine {
     private volatile String forceMergeUUID;
 
     public InternalEngine(EngineConfig engineConfig) {
-        this(engineConfig, IndexWriter.MAX_DOCS, LocalCheckpointTracker::new);
+        this(engineConfig, null);
+    }
+
+    /**
+     * @param nodeMergeScheduler the scheduler that coordinates the merges of all shards on the node, or {@code null} if the merges of this
+     *                           engine should only be limited by the merge scheduler settings of its index
+     */
+    public InternalEngine(EngineConfig engineConfig, @Nullable NodeMergeScheduler nodeMergeScheduler) {
+        this(engineConfig, IndexWriter.MAX_DOCS, LocalCheckpointTracker::new, nodeMergeScheduler);
     }
 
     InternalEngine(EngineConfig engineConfig, int maxDocs, BiFunction<Long, Long, LocalCheckpointTracker> localCheckpointTrackerSupplier) {
+        this(engineConfig, maxDocs, localCheckpointTrackerSupplier, null);
+    }
+
+    InternalEngine(EngineConfig engineConfig, int maxDocs, BiFunction<Long, Long, LocalCheckpointTracker> localCheckpointTrackerSupplier,
+                   @Nullable NodeMergeScheduler nodeMergeScheduler) {
         super(engineConfig);
         this.maxDocs = maxDocs;
         final TranslogDeletionPolicy translogDeletionPolicy = new TranslogDeletionPolicy();
@@ -204,7 +218,8 @@ public class InternalEngine extends Engine {
         boolean success = false;
         try {
             this.lastDeleteVersionPruneTimeMSec = engineConfig.getThreadPool().relativeTimeInMillis();
-            mergeScheduler = scheduler = new EngineMergeScheduler(engineConfig.getShardId(), engineConfig.getIndexSettings());
+            mergeScheduler = scheduler =
+                new EngineMergeScheduler(engineConfig.getShardId(), engineConfig.getIndexSettings(), nodeMergeScheduler);
             throttle = new IndexThrottle();
             try {
                 store.trimUnsafeCommits(config().getTranslogConfig().getTranslogPath());
@@ -2255,8 +2270,8 @@ public class InternalEngine extends Engine {
         private final AtomicInteger numMergesInFlight = new AtomicInteger(0);
         private final AtomicBoolean isThrottling = new AtomicBoolean();
 
-        EngineMergeScheduler(ShardId shardId, IndexSettings indexSettings) {
-            super(shardId, indexSettings);
+        EngineMergeScheduler(ShardId shardId, IndexSettings indexSettings, @Nullable NodeMergeScheduler nodeMergeScheduler) {
+            super(shardId, indexSettings, nodeMergeScheduler);
         }
 
         @Override
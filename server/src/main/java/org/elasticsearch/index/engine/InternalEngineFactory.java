@@ -8,9 +8,24 @@
 
 package org.elasticsearch.index.engine;
 
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.index.merge.NodeMergeScheduler;
+
 public class InternalEngineFactory implements EngineFactory {
+
+    @Nullable
+    private final NodeMergeScheduler nodeMergeScheduler;
+
+    public InternalEngineFactory() {
+        this(null);
+    }
+
+    public InternalEngineFactory(@Nullable NodeMergeScheduler nodeMergeScheduler) {
+        this.nodeMergeScheduler = nodeMergeScheduler;
+    }
+
     @Override
     public Engine newReadWriteEngine(EngineConfig config) {
-        return new InternalEngine(config);
+        return new InternalEngine(config, nodeMergeScheduler);
     }
 }
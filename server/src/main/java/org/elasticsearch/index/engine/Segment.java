@@ -16,6 +16,7 @@ import org.apache.lucene.search.SortedSetSelector;
 import org.apache.lucene.search.SortedSetSortField;
 import org.apache.lucene.util.Accountable;
 import org.apache.lucene.util.Accountables;
+import org.elasticsearch.Version;
 import org.elasticsearch.core.Nullable;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
@@ -46,6 +47,8 @@ public class Segment implements Writeable {
     public Sort segmentSort;
     public Accountable ramTree = null;
     public Map<String, String> attributes;
+    public Long minTimestamp;
+    public Long maxTimestamp;
 
     public Segment(StreamInput in) throws IOException {
         name = in.readString();
@@ -69,6 +72,10 @@ public class Segment implements Writeable {
         } else {
             attributes = null;
         }
+        if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+            minTimestamp = in.readOptionalLong();
+            maxTimestamp = in.readOptionalLong();
+        }
     }
 
     public Segment(String name) {
@@ -144,6 +151,22 @@ public class Segment implements Writeable {
         return attributes;
     }
 
+    /**
+     * Return the smallest value of the {@code @timestamp} field in this segment, or {@code null} if the segment has no such values.
+     */
+    @Nullable
+    public Long getMinTimestamp() {
+        return minTimestamp;
+    }
+
+    /**
+     * Return the largest value of the {@code @timestamp} field in this segment, or {@code null} if the segment has no such values.
+     */
+    @Nullable
+    public Long getMaxTimestamp() {
+        return maxTimestamp;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -184,6 +207,10 @@ public class Segment implements Writeable {
         if (hasAttributes) {
             out.writeMap(attributes, StreamOutput::writeString, StreamOutput::writeString);
         }
+        if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+            out.writeOptionalLong(minTimestamp);
+            out.writeOptionalLong(maxTimestamp);
+        }
     }
 
     private Sort readSegmentSort(StreamInput in) throws IOException {
@@ -318,6 +345,7 @@ public class Segment implements Writeable {
                 ", memoryInBytes=" + memoryInBytes +
                 (segmentSort != null ? ", sort=" + segmentSort : "") +
                 ", attributes=" + attributes +
+                (minTimestamp != null ? ", minTimestamp=" + minTimestamp + ", maxTimestamp=" + maxTimestamp : "") +
                 '}';
     }
 }
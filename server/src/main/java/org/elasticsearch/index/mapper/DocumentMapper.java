@@ -88,6 +88,7 @@ public class DocumentMapper {
         if (settings.getIndexSortConfig().hasIndexSort() && mappers().hasNested()) {
             throw new IllegalArgumentException("cannot have nested fields when index sort is activated");
         }
+        settings.getMode().validateDimensions(mappingLookup, settings.getSettings());
         if (checkLimits) {
             this.mappingLookup.checkLimits(settings);
         }
@@ -342,6 +342,13 @@ public final class KeywordFieldMapper extends FieldMapper {
             return normalizer;
         }
 
+        /**
+         * @return true if the values of the field are normalized before they are indexed
+         */
+        public boolean hasNormalizer() {
+            return normalizer != Lucene.KEYWORD_ANALYZER;
+        }
+
         @Override
         public IndexFieldData.Builder fielddataBuilder(String fullyQualifiedIndexName, Supplier<SearchLookup> searchLookup) {
             failIfNoDocValues();
@@ -431,6 +438,7 @@ public final class KeywordFieldMapper extends FieldMapper {
         /**
          * @return true if field has been marked as a dimension field
          */
+        @Override
         public boolean isDimension() {
             return isDimension;
         }
@@ -359,6 +359,13 @@ public abstract class MappedFieldType {
         }
     }
 
+    /**
+     * @return true if field has been marked as a dimension field, whose value identifies the time series of a document
+     */
+    public boolean isDimension() {
+        return false;
+    }
+
     /**
      * @return if this field type should load global ordinals eagerly
      */
@@ -65,6 +65,9 @@ public class NumberFieldMapper extends FieldMapper {
     public static final Setting<Boolean> COERCE_SETTING =
             Setting.boolSetting("index.mapping.coerce", true, Property.IndexScope);
 
+    public static final String DEFAULT_DOC_VALUES_ENCODING = "default";
+    public static final String TIME_SERIES_DOC_VALUES_ENCODING = "time_series";
+
     private static NumberFieldMapper toType(FieldMapper in) {
         return (NumberFieldMapper) in;
     }
@@ -83,7 +86,9 @@ public class NumberFieldMapper extends FieldMapper {
         private final Parameter<Script> script = Parameter.scriptParam(m -> toType(m).builder.script.get());
         private final Parameter<String> onScriptError = Parameter.onScriptErrorParam(m -> toType(m).onScriptError, script);
         private final Parameter<Boolean> dimension;
-
+        private final Parameter<String> docValuesEncoding
+            = Parameter.restrictedStringParam("doc_values_encoding", false, m -> toType(m).docValuesEncoding,
+                DEFAULT_DOC_VALUES_ENCODING, TIME_SERIES_DOC_VALUES_ENCODING);
 
         private final Parameter<Map<String, String>> meta = Parameter.metaParam();
 
@@ -148,7 +153,8 @@ public class NumberFieldMapper extends FieldMapper {
 
         @Override
         protected List<Parameter<?>> getParameters() {
-            return List.of(indexed, hasDocValues, stored, ignoreMalformed, coerce, nullValue, script, onScriptError, meta, dimension);
+            return List.of(indexed, hasDocValues, stored, ignoreMalformed, coerce, nullValue, script, onScriptError, meta, dimension,
+                docValuesEncoding);
         }
 
         @Override
@@ -961,22 +967,31 @@ public class NumberFieldMapper extends FieldMapper {
         private final Number nullValue;
         private final FieldValues<Number> scriptValues;
         private final boolean isDimension;
+        private final boolean timeSeriesDocValues;
 
         public NumberFieldType(String name, NumberType type, boolean isSearchable, boolean isStored,
                                boolean hasDocValues, boolean coerce, Number nullValue, Map<String, String> meta,
                                FieldValues<Number> script, boolean isDimension) {
+            this(name, type, isSearchable, isStored, hasDocValues, coerce, nullValue, meta, script, isDimension, false);
+        }
+
+        public NumberFieldType(String name, NumberType type, boolean isSearchable, boolean isStored,
+                               boolean hasDocValues, boolean coerce, Number nullValue, Map<String, String> meta,
+                               FieldValues<Number> script, boolean isDimension, boolean timeSeriesDocValues) {
             super(name, isSearchable, isStored, hasDocValues, TextSearchInfo.SIMPLE_MATCH_WITHOUT_TERMS, meta);
             this.type = Objects.requireNonNull(type);
             this.coerce = coerce;
             this.nullValue = nullValue;
             this.scriptValues = script;
             this.isDimension = isDimension;
+            this.timeSeriesDocValues = timeSeriesDocValues;
         }
 
         NumberFieldType(String name, Builder builder) {
             this(name, builder.type, builder.indexed.getValue(), builder.stored.getValue(), builder.hasDocValues.getValue(),
                 builder.coerce.getValue().value(), builder.nullValue.getValue(), builder.meta.getValue(),
-                builder.scriptValues(), builder.dimension.getValue());
+                builder.scriptValues(), builder.dimension.getValue(),
+                builder.hasDocValues.getValue() && TIME_SERIES_DOC_VALUES_ENCODING.equals(builder.docValuesEncoding.getValue()));
         }
 
         public NumberFieldType(String name, NumberType type) {
@@ -1077,9 +1092,18 @@ public class NumberFieldMapper extends FieldMapper {
         /**
          * @return true if field has been marked as a dimension field
          */
+        @Override
         public boolean isDimension() {
             return isDimension;
         }
+
+        /**
+         * @return true if the doc values of the field are encoded with the time series doc values format, which suits the values of
+         * counters and gauges
+         */
+        public boolean hasTimeSeriesDocValues() {
+            return timeSeriesDocValues;
+        }
     }
 
     private final Builder builder;
@@ -1095,6 +1119,7 @@ public class NumberFieldMapper extends FieldMapper {
     private final boolean ignoreMalformedByDefault;
     private final boolean coerceByDefault;
     private final boolean dimension;
+    private final String docValuesEncoding;
 
     private NumberFieldMapper(
             String simpleName,
@@ -1114,6 +1139,7 @@ public class NumberFieldMapper extends FieldMapper {
         this.coerceByDefault = builder.coerce.getDefaultValue().value();
         this.scriptValues = builder.scriptValues();
         this.dimension = builder.dimension.getValue();
+        this.docValuesEncoding = builder.docValuesEncoding.getValue();
         this.builder = builder;
     }
 
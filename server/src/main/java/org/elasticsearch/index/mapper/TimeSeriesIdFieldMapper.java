@@ -0,0 +1,165 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.mapper;
+
+import org.apache.lucene.document.SortedSetDocValuesField;
+import org.apache.lucene.index.DocValuesType;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.cluster.metadata.DataStream;
+import org.elasticsearch.cluster.routing.TimeSeriesRouting;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.index.IndexMode;
+import org.elasticsearch.index.fielddata.IndexFieldData;
+import org.elasticsearch.index.fielddata.plain.SortedSetOrdinalsIndexFieldData;
+import org.elasticsearch.index.query.SearchExecutionContext;
+import org.elasticsearch.search.DocValueFormat;
+import org.elasticsearch.search.aggregations.support.CoreValuesSourceType;
+import org.elasticsearch.search.lookup.SearchLookup;
+
+import java.io.IOException;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * Mapper for the {@code _tsid} field, which identifies the time series of a document in an index in {@link IndexMode#TIME_SERIES time
+ * series mode}. The id is built from the names and values of all dimension fields of the document, so documents with the same dimensions
+ * belong to the same series. Indices in time series mode are sorted by this field, and the mapper checks that the {@code _id} of each
+ * document is the one {@link TimeSeriesRouting} derives from its series id and {@code @timestamp}. In other indices the field has no
+ * values.
+ */
+public class TimeSeriesIdFieldMapper extends MetadataFieldMapper {
+
+    public static final String NAME = "_tsid";
+    public static final String CONTENT_TYPE = "_tsid";
+
+    private static final TimeSeriesIdFieldMapper INSTANCE = new TimeSeriesIdFieldMapper();
+
+    public static final TypeParser PARSER = new FixedTypeParser(c -> INSTANCE);
+
+    public static final class TimeSeriesIdFieldType extends MappedFieldType {
+
+        public static final TimeSeriesIdFieldType INSTANCE = new TimeSeriesIdFieldType();
+
+        private TimeSeriesIdFieldType() {
+            super(NAME, false, false, true, TextSearchInfo.NONE, Collections.emptyMap());
+        }
+
+        @Override
+        public String typeName() {
+            return CONTENT_TYPE;
+        }
+
+        @Override
+        public ValueFetcher valueFetcher(SearchExecutionContext context, String format) {
+            return new DocValueFetcher(docValueFormat(format, null), context.getForField(this));
+        }
+
+        @Override
+        public DocValueFormat docValueFormat(String format, ZoneId timeZone) {
+            if (format != null) {
+                throw new IllegalArgumentException("Field [" + name() + "] of type [" + typeName() + "] does not support custom formats");
+            }
+            if (timeZone != null) {
+                throw new IllegalArgumentException("Field [" + name() + "] of type [" + typeName()
+                    + "] does not support custom time zones");
+            }
+            return DocValueFormat.BINARY;
+        }
+
+        @Override
+        public IndexFieldData.Builder fielddataBuilder(String fullyQualifiedIndexName, Supplier<SearchLookup> searchLookup) {
+            failIfNoDocValues();
+            return new SortedSetOrdinalsIndexFieldData.Builder(name(), CoreValuesSourceType.KEYWORD);
+        }
+
+        @Override
+        public Query termQuery(Object value, SearchExecutionContext context) {
+            throw new IllegalArgumentException("Field [" + name() + "] of type [" + typeName() + "] is not searchable");
+        }
+    }
+
+    private TimeSeriesIdFieldMapper() {
+        super(TimeSeriesIdFieldType.INSTANCE);
+    }
+
+    @Override
+    public void postParse(ParseContext context) throws IOException {
+        if (context.indexSettings().getMode() != IndexMode.TIME_SERIES) {
+            return;
+        }
+        final SortedMap<String, Object> dimensions = new TreeMap<>();
+        Long timestamp = null;
+        for (IndexableField field : context.rootDoc()) {
+            final DocValuesType docValuesType = field.fieldType().docValuesType();
+            if (docValuesType != DocValuesType.SORTED_SET && docValuesType != DocValuesType.SORTED_NUMERIC) {
+                continue;
+            }
+            if (docValuesType == DocValuesType.SORTED_NUMERIC && field.name().equals(DataStream.TimestampField.FIXED_TIMESTAMP_FIELD)) {
+                timestamp = field.numericValue().longValue();
+                continue;
+            }
+            final MappedFieldType fieldType = context.mappingLookup().getFieldType(field.name());
+            if (fieldType == null || fieldType.isDimension() == false) {
+                continue;
+            }
+            final Object value = docValuesType == DocValuesType.SORTED_SET ? field.binaryValue() : field.numericValue().longValue();
+            if (dimensions.put(field.name(), value) != null) {
+                throw new IllegalArgumentException("Dimension field [" + field.name() + "] cannot be a multi-valued field");
+            }
+        }
+        if (dimensions.isEmpty()) {
+            throw new IllegalArgumentException("Documents in an index in [" + IndexMode.TIME_SERIES + "] mode must have at least one "
+                + "dimension field with doc values");
+        }
+        if (timestamp == null) {
+            throw new IllegalArgumentException("Documents in an index in [" + IndexMode.TIME_SERIES + "] mode must have a ["
+                + DataStream.TimestampField.FIXED_TIMESTAMP_FIELD + "] with doc values");
+        }
+        final BytesRef tsid = encodeTsid(dimensions);
+        final String id = TimeSeriesRouting.createId(tsid, timestamp);
+        if (id.equals(context.sourceToParse().id()) == false) {
+            throw new IllegalArgumentException("_id [" + context.sourceToParse().id() + "] doesn't match the dimensions and timestamp of "
+                + "the document, expected [" + id + "]");
+        }
+        context.rootDoc().add(new SortedSetDocValuesField(NAME, tsid));
+    }
+
+    /**
+     * Encodes the names and values of the given dimension fields, which must be sorted by name so that the same dimensions always give
+     * the same id. The values are the {@link BytesRef} of sorted set doc values or the {@link Long} of sorted numeric doc values.
+     */
+    public static BytesRef encodeTsid(SortedMap<String, Object> dimensions) throws IOException {
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            out.writeVInt(dimensions.size());
+            for (Map.Entry<String, Object> dimension : dimensions.entrySet()) {
+                out.writeString(dimension.getKey());
+                final Object value = dimension.getValue();
+                if (value instanceof BytesRef) {
+                    out.writeByte((byte) 's');
+                    out.writeBytesRef((BytesRef) value);
+                } else {
+                    out.writeByte((byte) 'l');
+                    out.writeLong((Long) value);
+                }
+            }
+            return out.bytes().toBytesRef();
+        }
+    }
+
+    @Override
+    protected String contentType() {
+        return CONTENT_TYPE;
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.merge;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.lucene.store.RateLimiter;
+import org.apache.lucene.store.RateLimiter.SimpleRateLimiter;
+import org.apache.lucene.util.ThreadInterruptedException;
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.core.Releasable;
+import org.elasticsearch.core.TimeValue;
+
+import java.util.ArrayDeque;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Coordinates the merges of all shards on a node. Each shard still decides which merges to run and runs them on its own merge threads,
+ * but a merge only starts writing once this scheduler grants it one of a limited number of slots. Waiting merges are granted slots in
+ * order of the priority of their index, see {@link org.elasticsearch.cluster.metadata.IndexMetadata#INDEX_PRIORITY_SETTING}, then
+ * smallest merge first, then in order of arrival. A merge that waited for longer than {@link #MAX_WAIT_TIME_SETTING} is aged to the front
+ * of the queue though, so that a steady stream of smaller merges or merges of higher priority indices can't starve it. In addition, the
+ * bytes written by all merges on the node are limited by a shared rate.
+ */
+public class NodeMergeScheduler {
+
+    private static final Logger logger = LogManager.getLogger(NodeMergeScheduler.class);
+
+    public static final Setting<Integer> MAX_CONCURRENT_MERGES_SETTING = new Setting<>(
+        "indices.merge.scheduler.max_concurrent_merges",
+        s -> Integer.toString(Math.max(2, EsExecutors.allocatedProcessors(s) / 2)),
+        s -> Setting.parseInt(s, 1, "indices.merge.scheduler.max_concurrent_merges"),
+        Property.Dynamic, Property.NodeScope);
+
+    public static final Setting<ByteSizeValue> MAX_BYTES_PER_SEC_SETTING = Setting.byteSizeSetting(
+        "indices.merge.scheduler.max_bytes_per_sec", ByteSizeValue.ZERO, Property.Dynamic, Property.NodeScope);
+
+    public static final Setting<TimeValue> MAX_WAIT_TIME_SETTING = Setting.timeSetting(
+        "indices.merge.scheduler.max_wait_time", TimeValue.timeValueMinutes(1), TimeValue.ZERO, Property.Dynamic, Property.NodeScope);
+
+    /**
+     * How often a waiting merge checks whether it was aborted, e.g. because its shard is closing.
+     */
+    private static final long ABORT_CHECK_INTERVAL_MILLIS = 100;
+
+    private final Object mutex = new Object();
+    private final PriorityQueue<PendingMerge> pendingMerges = new PriorityQueue<>(PendingMerge.COMPARATOR);
+    // the same merges as in pendingMerges, in order of arrival
+    private final ArrayDeque<PendingMerge> pendingMergesByArrival = new ArrayDeque<>();
+    private final LongSupplier relativeTimeInNanos;
+    private int runningMerges;
+    private long nextSeqNo;
+
+    private volatile int maxConcurrentMerges;
+    private volatile long maxWaitTimeInNanos;
+    private volatile SimpleRateLimiter rateLimiter;
+
+    public NodeMergeScheduler(Settings settings, ClusterSettings clusterSettings) {
+        this(settings, clusterSettings, System::nanoTime);
+    }
+
+    NodeMergeScheduler(Settings settings, ClusterSettings clusterSettings, LongSupplier relativeTimeInNanos) {
+        this.relativeTimeInNanos = relativeTimeInNanos;
+        this.maxConcurrentMerges = MAX_CONCURRENT_MERGES_SETTING.get(settings);
+        this.maxWaitTimeInNanos = MAX_WAIT_TIME_SETTING.get(settings).nanos();
+        setMaxBytesPerSec(MAX_BYTES_PER_SEC_SETTING.get(settings));
+        clusterSettings.addSettingsUpdateConsumer(MAX_CONCURRENT_MERGES_SETTING, this::setMaxConcurrentMerges);
+        clusterSettings.addSettingsUpdateConsumer(MAX_BYTES_PER_SEC_SETTING, this::setMaxBytesPerSec);
+        clusterSettings.addSettingsUpdateConsumer(MAX_WAIT_TIME_SETTING, maxWaitTime -> maxWaitTimeInNanos = maxWaitTime.nanos());
+    }
+
+    private void setMaxConcurrentMerges(int maxConcurrentMerges) {
+        synchronized (mutex) {
+            this.maxConcurrentMerges = maxConcurrentMerges;
+            grantPendingMerges();
+        }
+    }
+
+    private void setMaxBytesPerSec(ByteSizeValue maxBytesPerSec) {
+        if (maxBytesPerSec.getBytes() <= 0) {
+            rateLimiter = null;
+        } else if (rateLimiter != null) {
+            rateLimiter.setMBPerSec(maxBytesPerSec.getMbFrac());
+        } else {
+            rateLimiter = new SimpleRateLimiter(maxBytesPerSec.getMbFrac());
+        }
+    }
+
+    /**
+     * The rate limiter that all merges on this node share, or {@code null} if merges are not limited by a node wide rate.
+     */
+    @Nullable
+    public RateLimiter rateLimiter() {
+        return rateLimiter;
+    }
+
+    public int getMaxConcurrentMerges() {
+        return maxConcurrentMerges;
+    }
+
+    /**
+     * The number of merges that are waiting for a slot.
+     */
+    public int getQueuedMerges() {
+        synchronized (mutex) {
+            return pendingMerges.size();
+        }
+    }
+
+    /**
+     * The number of merges that hold a slot.
+     */
+    public int getRunningMerges() {
+        synchronized (mutex) {
+            return runningMerges;
+        }
+    }
+
+    /**
+     * Blocks the calling merge thread until the merge may run. A merge that is aborted while it waits stops waiting, so that its shard
+     * can close without waiting for the merges of other shards.
+     *
+     * @param indexPriority the priority of the index of the merge, merges of indices with a higher priority run first
+     * @param mergeBytes    the size of the merge, among indices with the same priority smaller merges run first
+     * @param aborted       whether the merge was aborted
+     * @return a releasable that returns the slot of the merge, which must be closed once the merge completed
+     */
+    public Releasable acquire(int indexPriority, long mergeBytes, BooleanSupplier aborted) {
+        final PendingMerge pendingMerge;
+        synchronized (mutex) {
+            pendingMerge = new PendingMerge(indexPriority, mergeBytes, nextSeqNo++, relativeTimeInNanos.getAsLong());
+            pendingMerges.add(pendingMerge);
+            pendingMergesByArrival.addLast(pendingMerge);
+            grantPendingMerges();
+            while (pendingMerge.granted == false) {
+                if (aborted.getAsBoolean()) {
+                    removePendingMerge(pendingMerge);
+                    return () -> {};
+                }
+                try {
+                    mutex.wait(ABORT_CHECK_INTERVAL_MILLIS);
+                } catch (InterruptedException e) {
+                    removePendingMerge(pendingMerge);
+                    if (pendingMerge.granted) {
+                        release();
+                    }
+                    throw new ThreadInterruptedException(e);
+                }
+            }
+        }
+        final AtomicBoolean released = new AtomicBoolean();
+        return () -> {
+            if (released.compareAndSet(false, true)) {
+                synchronized (mutex) {
+                    release();
+                }
+            }
+        };
+    }
+
+    private void release() {
+        assert Thread.holdsLock(mutex);
+        assert runningMerges > 0 : runningMerges;
+        runningMerges--;
+        grantPendingMerges();
+    }
+
+    private void grantPendingMerges() {
+        assert Thread.holdsLock(mutex);
+        boolean granted = false;
+        while (runningMerges < maxConcurrentMerges && pendingMerges.isEmpty() == false) {
+            final PendingMerge oldest = pendingMergesByArrival.peekFirst();
+            final PendingMerge pendingMerge;
+            if (relativeTimeInNanos.getAsLong() - oldest.enqueuedNanos >= maxWaitTimeInNanos) {
+                pendingMerge = oldest;
+            } else {
+                pendingMerge = pendingMerges.peek();
+            }
+            removePendingMerge(pendingMerge);
+            pendingMerge.granted = true;
+            runningMerges++;
+            granted = true;
+        }
+        if (granted) {
+            mutex.notifyAll();
+        }
+        if (logger.isTraceEnabled()) {
+            logger.trace("[{}] running merges, [{}] queued merges, max concurrent merges [{}]",
+                runningMerges, pendingMerges.size(), maxConcurrentMerges);
+        }
+    }
+
+    private void removePendingMerge(PendingMerge pendingMerge) {
+        assert Thread.holdsLock(mutex);
+        pendingMerges.remove(pendingMerge);
+        pendingMergesByArrival.remove(pendingMerge);
+    }
+
+    private static final class PendingMerge {
+
+        static final Comparator<PendingMerge> COMPARATOR = Comparator.<PendingMerge>comparingInt(m -> m.indexPriority).reversed()
+            .thenComparingLong(m -> m.mergeBytes)
+            .thenComparingLong(m -> m.seqNo);
+
+        final int indexPriority;
+        final long mergeBytes;
+        final long seqNo;
+        final long enqueuedNanos;
+        boolean granted;
+
+        PendingMerge(int indexPriority, long mergeBytes, long seqNo, long enqueuedNanos) {
+            this.indexPriority = indexPriority;
+            this.mergeBytes = mergeBytes;
+            this.seqNo = seqNo;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+    }
+}
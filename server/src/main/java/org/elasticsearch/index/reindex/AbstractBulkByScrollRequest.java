@@ -8,6 +8,7 @@
 
 package org.elasticsearch.index.reindex;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionRequest;
 import org.elasticsearch.action.ActionRequestValidationException;
 import org.elasticsearch.action.search.SearchRequest;
@@ -38,6 +39,7 @@ public abstract class AbstractBulkByScrollRequest<Self extends AbstractBulkByScr
     public static final int AUTO_SLICES = 0;
     public static final String AUTO_SLICES_VALUE = "auto";
     private static final int DEFAULT_SLICES = 1;
+    private static final int DEFAULT_MAX_CONCURRENT_BULKS = 1;
 
     /**
      * The search to be executed.
@@ -98,6 +100,13 @@ public abstract class AbstractBulkByScrollRequest<Self extends AbstractBulkByScr
      */
     private int slices = DEFAULT_SLICES;
 
+    /**
+     * The maximum number of bulk requests of a single worker that may be in flight at the same time. Defaults to 1, meaning that the next
+     * scroll request is only sent once the bulk request of the previous batch completed. Higher values fetch the next batch while the
+     * bulk requests of previous batches are still running.
+     */
+    private int maxConcurrentBulks = DEFAULT_MAX_CONCURRENT_BULKS;
+
     public AbstractBulkByScrollRequest(StreamInput in) throws IOException {
         super(in);
         searchRequest = new SearchRequest(in);
@@ -110,6 +119,9 @@ public abstract class AbstractBulkByScrollRequest<Self extends AbstractBulkByScr
         maxRetries = in.readVInt();
         requestsPerSecond = in.readFloat();
         slices = in.readVInt();
+        if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+            maxConcurrentBulks = in.readVInt();
+        }
     }
 
     /**
@@ -157,6 +169,11 @@ public abstract class AbstractBulkByScrollRequest<Self extends AbstractBulkByScr
         if (searchRequest.source().slice() != null && slices != DEFAULT_SLICES) {
             e = addValidationError("can't specify both manual and automatic slicing at the same time", e);
         }
+        if (maxConcurrentBulks < 1) {
+            e = addValidationError("max_concurrent_bulks must be at least 1 but was [" + maxConcurrentBulks + "]", e);
+        } else if (maxConcurrentBulks > 1 && maxDocs != MAX_DOCS_ALL_MATCHES) {
+            e = addValidationError("max_docs is not supported with more than one concurrent bulk request", e);
+        }
         return e;
     }
 
@@ -384,6 +401,22 @@ public abstract class AbstractBulkByScrollRequest<Self extends AbstractBulkByScr
         return slices;
     }
 
+    /**
+     * The maximum number of bulk requests of a single worker that may be in flight at the same time. Values higher than 1 overlap
+     * fetching the next batch of documents with writing the previous ones.
+     */
+    public Self setMaxConcurrentBulks(int maxConcurrentBulks) {
+        this.maxConcurrentBulks = maxConcurrentBulks;
+        return self();
+    }
+
+    /**
+     * The maximum number of bulk requests of a single worker that may be in flight at the same time.
+     */
+    public int getMaxConcurrentBulks() {
+        return maxConcurrentBulks;
+    }
+
     /**
      * Build a new request for a slice of the parent request.
      */
@@ -403,6 +436,7 @@ public abstract class AbstractBulkByScrollRequest<Self extends AbstractBulkByScr
                 .setShouldStoreResult(false)
                 // Split requests per second between all slices
                 .setRequestsPerSecond(requestsPerSecond / totalSlices)
+                .setMaxConcurrentBulks(maxConcurrentBulks)
                 // Sub requests don't have workers
                 .setSlices(1);
         if (maxDocs != MAX_DOCS_ALL_MATCHES) {
@@ -434,6 +468,9 @@ public abstract class AbstractBulkByScrollRequest<Self extends AbstractBulkByScr
         out.writeVInt(maxRetries);
         out.writeFloat(requestsPerSecond);
         out.writeVInt(slices);
+        if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+            out.writeVInt(maxConcurrentBulks);
+        }
     }
 
     /**
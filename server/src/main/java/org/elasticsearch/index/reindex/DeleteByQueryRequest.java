@@ -8,11 +8,13 @@
 
 package org.elasticsearch.index.reindex;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionRequestValidationException;
 import org.elasticsearch.action.IndicesRequest;
 import org.elasticsearch.action.search.SearchRequest;
 import org.elasticsearch.action.support.IndicesOptions;
 import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.xcontent.ToXContentObject;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.index.query.QueryBuilder;
@@ -42,6 +44,11 @@ import static org.elasticsearch.action.ValidateActions.addValidationError;
 public class DeleteByQueryRequest extends AbstractBulkByScrollRequest<DeleteByQueryRequest>
     implements IndicesRequest.Replaceable, ToXContentObject {
 
+    /**
+     * Whether the matching documents are deleted by the shards that hold them rather than by scrolling and bulk deleting them
+     */
+    private boolean shardLocal = false;
+
     public DeleteByQueryRequest() {
         this(new SearchRequest());
     }
@@ -56,6 +63,9 @@ public class DeleteByQueryRequest extends AbstractBulkByScrollRequest<DeleteByQu
 
     public DeleteByQueryRequest(StreamInput in) throws IOException {
         super(in);
+        if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+            shardLocal = in.readBoolean();
+        }
     }
 
     private DeleteByQueryRequest(SearchRequest search, boolean setDefaults) {
@@ -102,6 +112,22 @@ public class DeleteByQueryRequest extends AbstractBulkByScrollRequest<DeleteByQu
         return this;
     }
 
+    /**
+     * Set whether the matching documents should be deleted by the primary of each shard, which reads the ids of the matching documents
+     * straight from its own searcher instead of scrolling them through the coordinating node
+     */
+    public DeleteByQueryRequest setShardLocal(boolean shardLocal) {
+        this.shardLocal = shardLocal;
+        return this;
+    }
+
+    /**
+     * Whether the matching documents are deleted by the primary of each shard
+     */
+    public boolean isShardLocal() {
+        return shardLocal;
+    }
+
     /**
      * Gets the batch size for this request
      */
@@ -132,6 +158,17 @@ public class DeleteByQueryRequest extends AbstractBulkByScrollRequest<DeleteByQu
         } else if (getSearchRequest().source().query() == null) {
             e = addValidationError("query is missing", e);
         }
+        if (shardLocal) {
+            if (getMaxDocs() != MAX_DOCS_ALL_MATCHES) {
+                e = addValidationError("max_docs is not supported by shard local delete-by-query", e);
+            }
+            if (getRequestsPerSecond() != Float.POSITIVE_INFINITY) {
+                e = addValidationError("requests_per_second is not supported by shard local delete-by-query", e);
+            }
+            if (getSearchRequest() != null && getSearchRequest().source() != null && getSearchRequest().source().slice() != null) {
+                e = addValidationError("manual slicing is not supported by shard local delete-by-query", e);
+            }
+        }
         return e;
     }
 
@@ -144,6 +181,9 @@ public class DeleteByQueryRequest extends AbstractBulkByScrollRequest<DeleteByQu
     public String toString() {
         StringBuilder b = new StringBuilder();
         b.append("delete-by-query ");
+        if (shardLocal) {
+            b.append("[shard_local] ");
+        }
         searchToString(b);
         return b.toString();
     }
@@ -169,6 +209,14 @@ public class DeleteByQueryRequest extends AbstractBulkByScrollRequest<DeleteByQu
         return getSearchRequest().indicesOptions();
     }
 
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+            out.writeBoolean(shardLocal);
+        }
+    }
+
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject();
@@ -0,0 +1,132 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.shard;
+
+import org.elasticsearch.ExceptionsHelper;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.core.CheckedConsumer;
+import org.elasticsearch.index.translog.Translog;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Replays a batch of translog operations with several threads. The operations are partitioned by document id so that all operations on
+ * the same document are replayed in their original order by a single thread, while operations on different documents, which never
+ * conflict, are replayed concurrently. The engine tracks the processed sequence numbers itself, so the order across partitions does not
+ * matter for the local checkpoint.
+ * <p>
+ * The calling thread replays partitions too and only waits for partitions that other threads already started, so a busy executor slows
+ * down the replay but never blocks it.
+ */
+final class ConcurrentTranslogReplay {
+
+    /**
+     * Batches with fewer operations per thread than this are replayed on the calling thread only, since handing them off would cost more
+     * than it saves.
+     */
+    static final int MIN_OPERATIONS_PER_THREAD = 64;
+
+    private ConcurrentTranslogReplay() {}
+
+    static void replay(List<Translog.Operation> operations, int concurrency, Executor executor,
+                       CheckedConsumer<Translog.Operation, Exception> replayer) throws Exception {
+        final int partitionCount = Math.min(concurrency, operations.size() / MIN_OPERATIONS_PER_THREAD);
+        if (partitionCount <= 1) {
+            for (Translog.Operation operation : operations) {
+                replayer.accept(operation);
+            }
+            return;
+        }
+
+        final List<List<Translog.Operation>> partitions = partition(operations, partitionCount);
+        final AtomicInteger nextPartition = new AtomicInteger();
+        final CountDownLatch replayedPartitions = new CountDownLatch(partitionCount);
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        final Runnable worker = () -> {
+            int partition;
+            while ((partition = nextPartition.getAndIncrement()) < partitionCount) {
+                try {
+                    if (failure.get() == null) {
+                        for (Translog.Operation operation : partitions.get(partition)) {
+                            replayer.accept(operation);
+                        }
+                    }
+                } catch (Exception e) {
+                    failure.accumulateAndGet(e, (current, update) -> {
+                        if (current == null) {
+                            return update;
+                        }
+                        current.addSuppressed(update);
+                        return current;
+                    });
+                } finally {
+                    replayedPartitions.countDown();
+                }
+            }
+        };
+
+        for (int i = 1; i < partitionCount; i++) {
+            try {
+                executor.execute(new AbstractRunnable() {
+                    @Override
+                    protected void doRun() {
+                        worker.run();
+                    }
+
+                    @Override
+                    public void onRejection(Exception e) {
+                        // the calling thread replays the partitions that no other thread picks up
+                    }
+
+                    @Override
+                    public void onFailure(Exception e) {
+                        assert false : e;
+                    }
+                });
+            } catch (EsRejectedExecutionException e) {
+                // the calling thread replays the partitions that no other thread picks up
+                break;
+            }
+        }
+        worker.run();
+        replayedPartitions.await();
+        ExceptionsHelper.reThrowIfNotNull(failure.get());
+    }
+
+    static List<List<Translog.Operation>> partition(List<Translog.Operation> operations, int partitionCount) {
+        final List<List<Translog.Operation>> partitions = new ArrayList<>(partitionCount);
+        for (int i = 0; i < partitionCount; i++) {
+            partitions.add(new ArrayList<>(operations.size() / partitionCount + 1));
+        }
+        for (Translog.Operation operation : operations) {
+            final int partition;
+            switch (operation.opType()) {
+                case INDEX:
+                    partition = Math.floorMod(((Translog.Index) operation).id().hashCode(), partitionCount);
+                    break;
+                case DELETE:
+                    partition = Math.floorMod(((Translog.Delete) operation).id().hashCode(), partitionCount);
+                    break;
+                case NO_OP:
+                    partition = Math.floorMod(Long.hashCode(operation.seqNo()), partitionCount);
+                    break;
+                default:
+                    throw new IllegalStateException("unexpected operation type [" + operation.opType() + "]");
+            }
+            partitions.get(partition).add(operation);
+        }
+        return partitions;
+    }
+}
@@ -46,6 +46,7 @@ import org.elasticsearch.cluster.routing.RecoverySource;
 import org.elasticsearch.cluster.routing.RecoverySource.SnapshotRecoverySource;
 import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.cluster.routing.allocation.decider.DiskThresholdDecider;
+import org.elasticsearch.common.CheckedBiConsumer;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
 import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.common.lucene.index.ElasticsearchDirectoryReader;
@@ -1540,6 +1541,20 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
         return applyTranslogOperation(getEngine(), operation, origin);
     }
 
+    /**
+     * Applies a batch of translog operations. Operations on different documents are applied concurrently by up to
+     * {@link IndexSettings#getTranslogReplayConcurrency()} threads, while operations on the same document are applied in order. The
+     * result of each operation is passed to the given consumer on the thread that applied it, and the first exception thrown by the
+     * consumer is rethrown once all threads are done.
+     */
+    public void applyTranslogOperations(List<Translog.Operation> operations, Engine.Operation.Origin origin,
+                                        CheckedBiConsumer<Translog.Operation, Engine.Result, Exception> onResult) throws Exception {
+        final Engine engine = getEngine();
+        ConcurrentTranslogReplay.replay(operations, indexSettings.getTranslogReplayConcurrency(),
+            threadPool.executor(ThreadPool.Names.WRITE),
+            operation -> onResult.accept(operation, applyTranslogOperation(engine, operation, origin)));
+    }
+
     private Engine.Result applyTranslogOperation(Engine engine, Translog.Operation operation,
                                                  Engine.Operation.Origin origin) throws IOException {
         // If a translog op is replayed on the primary (eg. ccr), we need to use external instead of null for its version type.
@@ -1576,6 +1591,7 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
      */
     int runTranslogRecovery(Engine engine, Translog.Snapshot snapshot, Engine.Operation.Origin origin,
                             Runnable onOperationRecovered) throws IOException {
+        final long startTimeInNanos = System.nanoTime();
         int opsRecovered = 0;
         Translog.Operation operation;
         while ((operation = snapshot.next()) != null) {
@@ -1605,6 +1621,9 @@ public class IndexShard extends AbstractIndexShardComponent implements IndicesCl
                 }
             }
         }
+        if (origin == Engine.Operation.Origin.LOCAL_TRANSLOG_RECOVERY) {
+            recoveryState.getTranslog().addReplayedOperations(opsRecovered, System.nanoTime() - startTimeInNanos);
+        }
         return opsRecovered;
     }
 
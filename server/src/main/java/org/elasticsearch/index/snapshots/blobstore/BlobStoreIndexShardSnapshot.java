@@ -20,7 +20,9 @@ import org.elasticsearch.common.xcontent.XContentParserUtils;
 import org.elasticsearch.index.store.StoreFileMetadata;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.IntStream;
 
 /**
@@ -38,6 +40,7 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
         private final long partBytes;
         private final int numberOfParts;
         private final StoreFileMetadata metadata;
+        private final List<Chunk> chunks;
 
         /**
          * Constructs a new instance of file info
@@ -47,8 +50,22 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
          * @param partSize     size of the single chunk
          */
         public FileInfo(String name, StoreFileMetadata metadata, ByteSizeValue partSize) {
+            this(name, metadata, partSize, List.of());
+        }
+
+        /**
+         * Constructs a new instance of file info
+         *
+         * @param name         file name as stored in the blob store
+         * @param metadata     the files meta data
+         * @param partSize     size of the single chunk
+         * @param chunks       the content defined chunks that the file is stored as, or an empty list if the file is stored as parts
+         */
+        public FileInfo(String name, StoreFileMetadata metadata, ByteSizeValue partSize, List<Chunk> chunks) {
             this.name = name;
             this.metadata = metadata;
+            this.chunks = List.copyOf(chunks);
+            assert chunks.isEmpty() || chunks.stream().mapToLong(Chunk::length).sum() == metadata.length() : chunks + " vs " + metadata;
 
             long partBytes = Long.MAX_VALUE;
             if (partSize != null && partSize.getBytes() > 0) {
@@ -171,6 +188,15 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
             return metadata.checksum();
         }
 
+        /**
+         * Returns the content defined chunks that the file is stored as, in order. The chunks are stored by their hash in a container that
+         * all shards of the repository share, see {@link org.elasticsearch.repositories.blobstore.BlobStoreRepository#chunksContainer()}.
+         * Empty if the file is stored as parts, see {@link #partName(int)}.
+         */
+        public List<Chunk> chunks() {
+            return chunks;
+        }
+
         /**
          * Returns the StoreFileMetadata for this file info.
          */
@@ -204,6 +230,9 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
             if (name.equals(fileInfo.name) == false) {
                 return false;
             }
+            if (chunks.equals(fileInfo.chunks) == false) {
+                return false;
+            }
             if (partSize != null) {
                 if (partSize.equals(fileInfo.partSize) == false) {
                     return false;
@@ -223,6 +252,9 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
         static final String PART_SIZE = "part_size";
         static final String WRITTEN_BY = "written_by";
         static final String META_HASH = "meta_hash";
+        static final String CHUNKS = "chunks";
+        static final String CHUNK_HASH = "hash";
+        static final String CHUNK_LENGTH = "length";
 
         /**
          * Serializes file info into JSON
@@ -248,6 +280,17 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
                 BytesRef br = file.metadata.hash();
                 builder.field(META_HASH, br.bytes, br.offset, br.length);
             }
+
+            if (file.chunks.isEmpty() == false) {
+                builder.startArray(CHUNKS);
+                for (Chunk chunk : file.chunks) {
+                    builder.startObject();
+                    builder.field(CHUNK_HASH, chunk.hash);
+                    builder.field(CHUNK_LENGTH, chunk.length);
+                    builder.endObject();
+                }
+                builder.endArray();
+            }
             builder.endObject();
         }
 
@@ -266,6 +309,7 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
             ByteSizeValue partSize = null;
             String writtenBy = null;
             BytesRef metaHash = new BytesRef();
+            List<Chunk> chunks = List.of();
             XContentParserUtils.ensureExpectedToken(token, XContentParser.Token.START_OBJECT, parser);
             while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
                 if (token == XContentParser.Token.FIELD_NAME) {
@@ -291,6 +335,11 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
                         } else {
                             XContentParserUtils.throwUnknownField(currentFieldName, parser.getTokenLocation());
                         }
+                    } else if (token == XContentParser.Token.START_ARRAY && CHUNKS.equals(currentFieldName)) {
+                        chunks = new ArrayList<>();
+                        while (parser.nextToken() != XContentParser.Token.END_ARRAY) {
+                            chunks.add(Chunk.fromXContent(parser));
+                        }
                     } else {
                         XContentParserUtils.throwUnknownToken(token, parser.getTokenLocation());
                     }
@@ -310,8 +359,10 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
                 throw new ElasticsearchParseException("missing or invalid written_by [" + writtenBy + "]");
             } else if (checksum == null) {
                 throw new ElasticsearchParseException("missing checksum for name [" + name + "]");
+            } else if (chunks.isEmpty() == false && chunks.stream().mapToLong(Chunk::length).sum() != length) {
+                throw new ElasticsearchParseException("chunks of [" + name + "] do not add up to its length [" + length + "]");
             }
-            return new FileInfo(name, new StoreFileMetadata(physicalName, length, checksum, writtenBy, metaHash), partSize);
+            return new FileInfo(name, new StoreFileMetadata(physicalName, length, checksum, writtenBy, metaHash), partSize, chunks);
         }
 
         @Override
@@ -326,8 +377,82 @@ public class BlobStoreIndexShardSnapshot implements ToXContentFragment {
                 + partBytes
                 + ", metadata: "
                 + metadata
+                + ", chunks: "
+                + chunks.size()
                 + "]";
         }
+
+        /**
+         * A content defined chunk of a file, stored under its hash so that chunks with the same content are only stored once.
+         */
+        public static final class Chunk {
+
+            private final String hash;
+            private final long length;
+
+            public Chunk(String hash, long length) {
+                this.hash = Objects.requireNonNull(hash);
+                this.length = length;
+            }
+
+            /**
+             * The hex encoded SHA-256 hash of the contents of the chunk, which is also the name of its blob.
+             */
+            public String hash() {
+                return hash;
+            }
+
+            public long length() {
+                return length;
+            }
+
+            static Chunk fromXContent(XContentParser parser) throws IOException {
+                XContentParserUtils.ensureExpectedToken(XContentParser.Token.START_OBJECT, parser.currentToken(), parser);
+                String hash = null;
+                long length = -1;
+                XContentParser.Token token;
+                while ((token = parser.nextToken()) != XContentParser.Token.END_OBJECT) {
+                    XContentParserUtils.ensureExpectedToken(XContentParser.Token.FIELD_NAME, token, parser);
+                    final String currentFieldName = parser.currentName();
+                    parser.nextToken();
+                    if (CHUNK_HASH.equals(currentFieldName)) {
+                        hash = parser.text();
+                    } else if (CHUNK_LENGTH.equals(currentFieldName)) {
+                        length = parser.longValue();
+                    } else {
+                        XContentParserUtils.throwUnknownField(currentFieldName, parser.getTokenLocation());
+                    }
+                }
+                if (hash == null || Strings.validFileName(hash) == false) {
+                    throw new ElasticsearchParseException("missing or invalid chunk hash [" + hash + "]");
+                } else if (length <= 0) {
+                    throw new ElasticsearchParseException("missing or invalid chunk length");
+                }
+                return new Chunk(hash, length);
+            }
+
+            @Override
+            public boolean equals(Object o) {
+                if (this == o) {
+                    return true;
+                }
+                if (o == null || getClass() != o.getClass()) {
+                    return false;
+                }
+                final Chunk that = (Chunk) o;
+                return length == that.length && hash.equals(that.hash);
+            }
+
+            @Override
+            public int hashCode() {
+                return Objects.hash(hash, length);
+            }
+
+            @Override
+            public String toString() {
+                return "[hash: " + hash + ", length: " + length + "]";
+            }
+        }
     }
 
     /**
@@ -17,6 +17,7 @@ import org.elasticsearch.common.xcontent.ToXContentFragment;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 
 import java.io.IOException;
+import java.util.List;
 
 public class IndexingPressureStats implements Writeable, ToXContentFragment {
 
@@ -43,6 +44,8 @@ public class IndexingPressureStats implements Writeable, ToXContentFragment {
     private final long currentPrimaryOps;
     private final long currentReplicaOps;
 
+    private final List<ShardIndexingPressureStats> shardStats;
+
     public IndexingPressureStats(StreamInput in) throws IOException {
         totalCombinedCoordinatingAndPrimaryBytes = in.readVLong();
         totalCoordinatingBytes = in.readVLong();
@@ -64,6 +67,12 @@ public class IndexingPressureStats implements Writeable, ToXContentFragment {
             memoryLimit = -1L;
         }
 
+        if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+            shardStats = in.readList(ShardIndexingPressureStats::new);
+        } else {
+            shardStats = List.of();
+        }
+
         // These are not currently propagated across the network yet
         this.totalCoordinatingOps = 0;
         this.totalPrimaryOps = 0;
@@ -77,7 +86,8 @@ public class IndexingPressureStats implements Writeable, ToXContentFragment {
                                  long totalReplicaBytes, long currentCombinedCoordinatingAndPrimaryBytes, long currentCoordinatingBytes,
                                  long currentPrimaryBytes, long currentReplicaBytes, long coordinatingRejections, long primaryRejections,
                                  long replicaRejections, long memoryLimit, long totalCoordinatingOps, long totalPrimaryOps,
-                                 long totalReplicaOps, long currentCoordinatingOps, long currentPrimaryOps, long currentReplicaOps) {
+                                 long totalReplicaOps, long currentCoordinatingOps, long currentPrimaryOps, long currentReplicaOps,
+                                 List<ShardIndexingPressureStats> shardStats) {
         this.totalCombinedCoordinatingAndPrimaryBytes = totalCombinedCoordinatingAndPrimaryBytes;
         this.totalCoordinatingBytes = totalCoordinatingBytes;
         this.totalPrimaryBytes = totalPrimaryBytes;
@@ -97,6 +107,8 @@ public class IndexingPressureStats implements Writeable, ToXContentFragment {
         this.currentCoordinatingOps = currentCoordinatingOps;
         this.currentPrimaryOps = currentPrimaryOps;
         this.currentReplicaOps = currentReplicaOps;
+
+        this.shardStats = shardStats;
     }
 
     @Override
@@ -118,6 +130,10 @@ public class IndexingPressureStats implements Writeable, ToXContentFragment {
         if (out.getVersion().onOrAfter(Version.V_7_10_0)) {
             out.writeVLong(memoryLimit);
         }
+
+        if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+            out.writeList(shardStats);
+        }
     }
 
     public long getTotalCombinedCoordinatingAndPrimaryBytes() {
@@ -188,6 +204,10 @@ public class IndexingPressureStats implements Writeable, ToXContentFragment {
         return currentReplicaOps;
     }
 
+    public List<ShardIndexingPressureStats> getShardStats() {
+        return shardStats;
+    }
+
     private static final String COMBINED = "combined_coordinating_and_primary";
     private static final String COMBINED_IN_BYTES = "combined_coordinating_and_primary_in_bytes";
     private static final String COORDINATING = "coordinating";
@@ -203,6 +223,7 @@ public class IndexingPressureStats implements Writeable, ToXContentFragment {
     private static final String REPLICA_REJECTIONS = "replica_rejections";
     private static final String LIMIT = "limit";
     private static final String LIMIT_IN_BYTES = "limit_in_bytes";
+    private static final String SHARDS = "shards";
 
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
@@ -227,6 +248,13 @@ public class IndexingPressureStats implements Writeable, ToXContentFragment {
         builder.endObject();
         builder.humanReadableField(LIMIT_IN_BYTES, LIMIT, new ByteSizeValue(memoryLimit));
         builder.endObject();
+        if (shardStats.isEmpty() == false) {
+            builder.startObject(SHARDS);
+            for (ShardIndexingPressureStats shardStat : shardStats) {
+                shardStat.toXContent(builder, params);
+            }
+            builder.endObject();
+        }
         return builder.endObject();
     }
 }
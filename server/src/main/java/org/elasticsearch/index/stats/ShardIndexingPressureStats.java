@@ -0,0 +1,134 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.stats;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.xcontent.ToXContentFragment;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.index.shard.ShardId;
+
+import java.io.IOException;
+
+/**
+ * Indexing pressure of a single shard that currently has primary or replica operations in flight on a node.
+ */
+public class ShardIndexingPressureStats implements Writeable, ToXContentFragment {
+
+    private final ShardId shardId;
+    private final long currentPrimaryBytes;
+    private final long currentReplicaBytes;
+    private final long primaryRejections;
+    private final long replicaRejections;
+    private final long primaryLimit;
+    private final long replicaLimit;
+    private final long primaryThroughput;
+    private final long replicaThroughput;
+
+    public ShardIndexingPressureStats(StreamInput in) throws IOException {
+        shardId = new ShardId(in);
+        currentPrimaryBytes = in.readVLong();
+        currentReplicaBytes = in.readVLong();
+        primaryRejections = in.readVLong();
+        replicaRejections = in.readVLong();
+        primaryLimit = in.readVLong();
+        replicaLimit = in.readVLong();
+        primaryThroughput = in.readVLong();
+        replicaThroughput = in.readVLong();
+    }
+
+    public ShardIndexingPressureStats(ShardId shardId, long currentPrimaryBytes, long currentReplicaBytes, long primaryRejections,
+                                      long replicaRejections, long primaryLimit, long replicaLimit, long primaryThroughput,
+                                      long replicaThroughput) {
+        this.shardId = shardId;
+        this.currentPrimaryBytes = currentPrimaryBytes;
+        this.currentReplicaBytes = currentReplicaBytes;
+        this.primaryRejections = primaryRejections;
+        this.replicaRejections = replicaRejections;
+        this.primaryLimit = primaryLimit;
+        this.replicaLimit = replicaLimit;
+        this.primaryThroughput = primaryThroughput;
+        this.replicaThroughput = replicaThroughput;
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        shardId.writeTo(out);
+        out.writeVLong(currentPrimaryBytes);
+        out.writeVLong(currentReplicaBytes);
+        out.writeVLong(primaryRejections);
+        out.writeVLong(replicaRejections);
+        out.writeVLong(primaryLimit);
+        out.writeVLong(replicaLimit);
+        out.writeVLong(primaryThroughput);
+        out.writeVLong(replicaThroughput);
+    }
+
+    public ShardId getShardId() {
+        return shardId;
+    }
+
+    public long getCurrentPrimaryBytes() {
+        return currentPrimaryBytes;
+    }
+
+    public long getCurrentReplicaBytes() {
+        return currentReplicaBytes;
+    }
+
+    public long getPrimaryRejections() {
+        return primaryRejections;
+    }
+
+    public long getReplicaRejections() {
+        return replicaRejections;
+    }
+
+    public long getPrimaryLimit() {
+        return primaryLimit;
+    }
+
+    public long getReplicaLimit() {
+        return replicaLimit;
+    }
+
+    /**
+     * @return the recent throughput of primary operations on this shard, in bytes per second
+     */
+    public long getPrimaryThroughput() {
+        return primaryThroughput;
+    }
+
+    /**
+     * @return the recent throughput of replica operations on this shard, in bytes per second
+     */
+    public long getReplicaThroughput() {
+        return replicaThroughput;
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject(shardId.toString());
+        builder.startObject("primary");
+        builder.humanReadableField("current_in_bytes", "current", new ByteSizeValue(currentPrimaryBytes));
+        builder.humanReadableField("limit_in_bytes", "limit", new ByteSizeValue(primaryLimit));
+        builder.humanReadableField("throughput_in_bytes_per_second", "throughput_per_second", new ByteSizeValue(primaryThroughput));
+        builder.field("rejections", primaryRejections);
+        builder.endObject();
+        builder.startObject("replica");
+        builder.humanReadableField("current_in_bytes", "current", new ByteSizeValue(currentReplicaBytes));
+        builder.humanReadableField("limit_in_bytes", "limit", new ByteSizeValue(replicaLimit));
+        builder.humanReadableField("throughput_in_bytes_per_second", "throughput_per_second", new ByteSizeValue(replicaThroughput));
+        builder.field("rejections", replicaRejections);
+        builder.endObject();
+        return builder.endObject();
+    }
+}
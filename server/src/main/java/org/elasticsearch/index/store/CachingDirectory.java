@@ -0,0 +1,21 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.store;
+
+/**
+ * Implemented by directories that read the files of a shard from a remote source through a cache on the local node, so that searches
+ * can prefer the copies of a shard whose cache is the warmest, see {@link Store#cachedBytes()}.
+ */
+public interface CachingDirectory {
+
+    /**
+     * @return the number of bytes of the files of the shard that are cached on the local node
+     */
+    long cachedBytes();
+}
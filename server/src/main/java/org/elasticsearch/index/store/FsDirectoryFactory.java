@@ -31,8 +31,12 @@ import org.elasticsearch.plugins.IndexStorePlugin;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 public class FsDirectoryFactory implements IndexStorePlugin.DirectoryFactory {
 
@@ -47,6 +51,16 @@ public class FsDirectoryFactory implements IndexStorePlugin.DirectoryFactory {
         } // can we set on both - node and index level, some nodes might be running on NFS so they might need simple rather than native
     }, Property.IndexScope, Property.NodeScope);
 
+    /**
+     * The extensions of the files that {@link IndexModule.Type#HYBRIDFS hybridfs} memory-maps, all other files are read with NIO. Defaults
+     * to the extensions that {@link LuceneFilesExtensions#shouldMmap()}. Use {@code *} to memory-map all files.
+     */
+    public static final Setting<List<String>> INDEX_STORE_HYBRID_MMAP_EXTENSIONS = Setting.listSetting("index.store.hybrid.mmap.extensions",
+        Arrays.stream(LuceneFilesExtensions.values())
+            .filter(LuceneFilesExtensions::shouldMmap)
+            .map(LuceneFilesExtensions::getExtension)
+            .collect(Collectors.toList()),
+        Function.identity(), Property.IndexScope, Property.NodeScope);
 
     @Override
     public Directory newDirectory(IndexSettings indexSettings, ShardPath path) throws IOException {
@@ -73,7 +87,8 @@ public class FsDirectoryFactory implements IndexStorePlugin.DirectoryFactory {
                 final FSDirectory primaryDirectory = FSDirectory.open(location, lockFactory);
                 if (primaryDirectory instanceof MMapDirectory) {
                     MMapDirectory mMapDirectory = (MMapDirectory) primaryDirectory;
-                    return new HybridDirectory(lockFactory, setPreload(mMapDirectory, lockFactory, preLoadExtensions));
+                    final Set<String> mmapExtensions = new HashSet<>(indexSettings.getValue(INDEX_STORE_HYBRID_MMAP_EXTENSIONS));
+                    return new HybridDirectory(lockFactory, setPreload(mMapDirectory, lockFactory, preLoadExtensions), mmapExtensions);
                 } else {
                     return primaryDirectory;
                 }
@@ -111,10 +126,12 @@ public class FsDirectoryFactory implements IndexStorePlugin.DirectoryFactory {
 
     static final class HybridDirectory extends NIOFSDirectory {
         private final MMapDirectory delegate;
+        private final Set<String> mmapExtensions;
 
-        HybridDirectory(LockFactory lockFactory, MMapDirectory delegate) throws IOException {
+        HybridDirectory(LockFactory lockFactory, MMapDirectory delegate, Set<String> mmapExtensions) throws IOException {
             super(delegate.getDirectory(), lockFactory);
             this.delegate = delegate;
+            this.mmapExtensions = mmapExtensions;
         }
 
         @Override
@@ -145,14 +162,10 @@ public class FsDirectoryFactory implements IndexStorePlugin.DirectoryFactory {
                 return false;
             }
 
-            final LuceneFilesExtensions extension = LuceneFilesExtensions.fromExtension(FileSwitchDirectory.getExtension(name));
-            if (extension == null || extension.shouldMmap() == false) {
-                // Other files are either less performance-sensitive (e.g. stored field index, norms metadata)
-                // or are large and have a random access pattern and mmap leads to page cache trashing
-                // (e.g. stored fields and term vectors).
-                return false;
-            }
-            return true;
+            // By default, other files are either less performance-sensitive (e.g. stored field index, norms metadata)
+            // or are large and have a random access pattern and mmap leads to page cache trashing
+            // (e.g. stored fields and term vectors).
+            return mmapExtensions.contains("*") || mmapExtensions.contains(FileSwitchDirectory.getExtension(name));
         }
 
         MMapDirectory getDelegate() {
@@ -35,6 +35,8 @@ public enum LuceneFilesExtensions {
     // cache, so we use mmap, which provides better performance.
     DVD("dvd", "DocValues", false, true),
     DVM("dvm", "DocValues Metadata", true, false),
+    // Elasticsearch dictionary compressed stored fields
+    FDD("fdd", "Field Data Dictionary", true, false),
     FDM("fdm", "Field Metadata", true, false),
     FDT("fdt", "Field Data", false, false),
     FDX("fdx", "Field Index", false, false),
@@ -64,6 +66,9 @@ public enum LuceneFilesExtensions {
     TMD("tmd", "Term Dictionary Metadata", true, false),
     // Temporary Lucene file
     TMP("tmp", "Temporary File", false, false),
+    // Elasticsearch time series doc values, mmapped for the same reasons as doc values
+    TSD("tsd", "Time Series DocValues", false, true),
+    TSM("tsm", "Time Series DocValues Metadata", true, false),
     TVD("tvd", "Term Vector Documents", false, false),
     TVF("tvf", "Term Vector Fields", false, false),
     TVM("tvm", "Term Vector Metadata", true, false),
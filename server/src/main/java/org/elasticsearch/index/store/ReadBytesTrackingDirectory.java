@@ -0,0 +1,248 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.store;
+
+import org.apache.lucene.index.IndexFileNames;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FilterDirectory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.RandomAccessInput;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the bytes that are read from the files of a directory per file extension, so that the page cache usage of the different
+ * kinds of Lucene files can be told apart. Files with an extension that is not a {@link LuceneFilesExtensions known Lucene extension}
+ * are counted under {@link #OTHER}.
+ */
+final class ReadBytesTrackingDirectory extends FilterDirectory {
+
+    static final String OTHER = "other";
+
+    private static final int OTHER_ORDINAL = LuceneFilesExtensions.values().length;
+
+    /**
+     * The number of bytes of small reads that an input counts on its own before it adds them to the counter of its file extension.
+     */
+    static final long FLUSH_THRESHOLD_BYTES = 8192L;
+
+    // looked up here rather than with LuceneFilesExtensions#fromExtension, which asserts that all extensions are known
+    private static final Map<String, Integer> ORDINALS;
+    static {
+        final Map<String, Integer> ordinals = new HashMap<>();
+        for (LuceneFilesExtensions extension : LuceneFilesExtensions.values()) {
+            ordinals.put(extension.getExtension(), extension.ordinal());
+        }
+        ORDINALS = Map.copyOf(ordinals);
+    }
+
+    private final LongAdder[] readBytes = new LongAdder[OTHER_ORDINAL + 1];
+
+    ReadBytesTrackingDirectory(Directory in) {
+        super(in);
+        for (int i = 0; i < readBytes.length; i++) {
+            readBytes[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public IndexInput openInput(String name, IOContext context) throws IOException {
+        final String extension = IndexFileNames.getExtension(name);
+        final LongAdder counter = readBytes[extension == null ? OTHER_ORDINAL : ORDINALS.getOrDefault(extension, OTHER_ORDINAL)];
+        return new TrackingIndexInput(in.openInput(name, context), counter);
+    }
+
+    /**
+     * The bytes read so far per file extension, leaving out extensions that were not read from. Small reads of inputs that are still
+     * open may not be counted yet.
+     */
+    Map<String, Long> readBytesPerExtension() {
+        final Map<String, Long> result = new TreeMap<>();
+        final LuceneFilesExtensions[] extensions = LuceneFilesExtensions.values();
+        for (int i = 0; i < readBytes.length; i++) {
+            final long bytes = readBytes[i].sum();
+            if (bytes > 0L) {
+                result.put(i == OTHER_ORDINAL ? OTHER : extensions[i].getExtension(), bytes);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Counts the bytes of small reads in a plain field of each input, which is only used by a single thread, and adds them to the shared
+     * counter once they add up to {@link #FLUSH_THRESHOLD_BYTES}, with the next bulk read, or when the input is cloned, sliced or closed.
+     * Lucene reads many single values from hot files like doc values, so updating the shared counter for each of them would be costly.
+     * Clones and slices that are dropped without being closed may leave less than {@link #FLUSH_THRESHOLD_BYTES} uncounted.
+     */
+    private static final class TrackingIndexInput extends IndexInput {
+
+        private final IndexInput in;
+        private final LongAdder counter;
+        private long pendingBytes;
+
+        TrackingIndexInput(IndexInput in, LongAdder counter) {
+            super("TrackingIndexInput(" + in + ")");
+            this.in = in;
+            this.counter = counter;
+        }
+
+        private void count(long bytes) {
+            pendingBytes += bytes;
+            if (pendingBytes >= FLUSH_THRESHOLD_BYTES) {
+                flush();
+            }
+        }
+
+        private void flush() {
+            if (pendingBytes > 0L) {
+                counter.add(pendingBytes);
+                pendingBytes = 0L;
+            }
+        }
+
+        @Override
+        public byte readByte() throws IOException {
+            final byte b = in.readByte();
+            count(1L);
+            return b;
+        }
+
+        @Override
+        public void readBytes(byte[] b, int offset, int len) throws IOException {
+            in.readBytes(b, offset, len);
+            pendingBytes += len;
+            flush();
+        }
+
+        @Override
+        public short readShort() throws IOException {
+            final short s = in.readShort();
+            count(Short.BYTES);
+            return s;
+        }
+
+        @Override
+        public int readInt() throws IOException {
+            final int i = in.readInt();
+            count(Integer.BYTES);
+            return i;
+        }
+
+        @Override
+        public long readLong() throws IOException {
+            final long l = in.readLong();
+            count(Long.BYTES);
+            return l;
+        }
+
+        @Override
+        public void readLELongs(long[] dst, int offset, int length) throws IOException {
+            in.readLELongs(dst, offset, length);
+            pendingBytes += (long) length * Long.BYTES;
+            flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+            in.close();
+        }
+
+        @Override
+        public long getFilePointer() {
+            return in.getFilePointer();
+        }
+
+        @Override
+        public void seek(long pos) throws IOException {
+            in.seek(pos);
+        }
+
+        @Override
+        public long length() {
+            return in.length();
+        }
+
+        @Override
+        public IndexInput slice(String sliceDescription, long offset, long length) throws IOException {
+            flush();
+            return new TrackingIndexInput(in.slice(sliceDescription, offset, length), counter);
+        }
+
+        @Override
+        public RandomAccessInput randomAccessSlice(long offset, long length) throws IOException {
+            flush();
+            // keep the optimized random access of the wrapped input, e.g. of memory-mapped files
+            return new TrackingRandomAccessInput(in.randomAccessSlice(offset, length), counter);
+        }
+
+        @Override
+        public IndexInput clone() {
+            flush();
+            return new TrackingIndexInput(in.clone(), counter);
+        }
+    }
+
+    /**
+     * Counts the bytes read like {@link TrackingIndexInput}. Random access slices are never closed, so their reads are only added to the
+     * shared counter once they add up to {@link #FLUSH_THRESHOLD_BYTES}.
+     */
+    private static final class TrackingRandomAccessInput implements RandomAccessInput {
+
+        private final RandomAccessInput in;
+        private final LongAdder counter;
+        private long pendingBytes;
+
+        TrackingRandomAccessInput(RandomAccessInput in, LongAdder counter) {
+            this.in = in;
+            this.counter = counter;
+        }
+
+        private void count(long bytes) {
+            pendingBytes += bytes;
+            if (pendingBytes >= FLUSH_THRESHOLD_BYTES) {
+                counter.add(pendingBytes);
+                pendingBytes = 0L;
+            }
+        }
+
+        @Override
+        public byte readByte(long pos) throws IOException {
+            final byte b = in.readByte(pos);
+            count(1L);
+            return b;
+        }
+
+        @Override
+        public short readShort(long pos) throws IOException {
+            final short s = in.readShort(pos);
+            count(Short.BYTES);
+            return s;
+        }
+
+        @Override
+        public int readInt(long pos) throws IOException {
+            final int i = in.readInt(pos);
+            count(Integer.BYTES);
+            return i;
+        }
+
+        @Override
+        public long readLong(long pos) throws IOException {
+            final long l = in.readLong(pos);
+            count(Long.BYTES);
+            return l;
+        }
+    }
+}
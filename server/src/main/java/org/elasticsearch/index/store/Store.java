@@ -52,6 +52,7 @@ import org.elasticsearch.common.lucene.store.ByteArrayIndexInput;
 import org.elasticsearch.common.lucene.store.InputStreamIndexInput;
 import org.elasticsearch.common.settings.Setting;
 import org.elasticsearch.common.settings.Setting.Property;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.core.AbstractRefCounted;
 import org.elasticsearch.core.RefCounted;
@@ -124,6 +125,13 @@ public class Store extends AbstractIndexShardComponent implements Closeable, Ref
     public static final Setting<TimeValue> INDEX_STORE_STATS_REFRESH_INTERVAL_SETTING =
         Setting.timeSetting("index.store.stats_refresh_interval", TimeValue.timeValueSeconds(10), Property.IndexScope);
 
+    /**
+     * Whether to count the bytes read from the files of the store per file extension and report them in the {@link StoreStats}. This
+     * adds a small overhead to every read so it is disabled by default.
+     */
+    public static final Setting<Boolean> INDEX_STORE_TRACK_READ_BYTES_SETTING =
+        Setting.boolSetting("index.store.track_read_bytes", false, Property.IndexScope);
+
     /**
      * Specific {@link IOContext} indicating that we will read only the Lucene file footer (containing the file checksum)
      * See {@link MetadataSnapshot#checksumFromLuceneFile}.
@@ -132,6 +140,10 @@ public class Store extends AbstractIndexShardComponent implements Closeable, Ref
 
     private final AtomicBoolean isClosed = new AtomicBoolean(false);
     private final StoreDirectory directory;
+    @Nullable
+    private final ReadBytesTrackingDirectory readBytesTrackingDirectory;
+    @Nullable
+    private final CachingDirectory cachingDirectory;
     private final ReentrantReadWriteLock metadataLock = new ReentrantReadWriteLock();
     private final ShardLock shardLock;
     private final OnClose onClose;
@@ -153,6 +165,13 @@ public class Store extends AbstractIndexShardComponent implements Closeable, Ref
         super(shardId, indexSettings);
         final TimeValue refreshInterval = indexSettings.getValue(INDEX_STORE_STATS_REFRESH_INTERVAL_SETTING);
         logger.debug("store stats are refreshed with refresh_interval [{}]", refreshInterval);
+        this.cachingDirectory = unwrapCachingDirectory(directory);
+        if (indexSettings.getValue(INDEX_STORE_TRACK_READ_BYTES_SETTING)) {
+            this.readBytesTrackingDirectory = new ReadBytesTrackingDirectory(directory);
+            directory = readBytesTrackingDirectory;
+        } else {
+            this.readBytesTrackingDirectory = null;
+        }
         ByteSizeCachingDirectory sizeCachingDir = new ByteSizeCachingDirectory(directory, refreshInterval);
         this.directory = new StoreDirectory(sizeCachingDir, Loggers.getLogger("index.store.deletes", shardId));
         this.shardLock = shardLock;
@@ -342,7 +361,29 @@ public class Store extends AbstractIndexShardComponent implements Closeable, Ref
     public StoreStats stats(long reservedBytes, LongUnaryOperator localSizeFunction) throws IOException {
         ensureOpen();
         long sizeInBytes = directory.estimateSize();
-        return new StoreStats(localSizeFunction.applyAsLong(sizeInBytes), sizeInBytes, reservedBytes);
+        Map<String, Long> readBytesPerExtension = readBytesTrackingDirectory == null
+            ? Collections.emptyMap()
+            : readBytesTrackingDirectory.readBytesPerExtension();
+        return new StoreStats(localSizeFunction.applyAsLong(sizeInBytes), sizeInBytes, reservedBytes, readBytesPerExtension);
+    }
+
+    /**
+     * Returns the number of bytes of the files of this store that are cached on the local node if the store reads its files from a
+     * remote source through a {@link CachingDirectory}, or {@code -1} otherwise.
+     */
+    public long cachedBytes() {
+        return cachingDirectory == null ? -1L : cachingDirectory.cachedBytes();
+    }
+
+    @Nullable
+    private static CachingDirectory unwrapCachingDirectory(Directory directory) {
+        while (directory != null) {
+            if (directory instanceof CachingDirectory) {
+                return (CachingDirectory) directory;
+            }
+            directory = directory instanceof FilterDirectory ? ((FilterDirectory) directory).getDelegate() : null;
+        }
+        return null;
     }
 
     /**
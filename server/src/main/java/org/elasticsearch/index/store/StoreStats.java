@@ -17,6 +17,10 @@ import org.elasticsearch.common.xcontent.ToXContentFragment;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 
 import java.io.IOException;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
 
 public class StoreStats implements Writeable, ToXContentFragment {
 
@@ -28,10 +32,12 @@ public class StoreStats implements Writeable, ToXContentFragment {
 
     public static final Version RESERVED_BYTES_VERSION = Version.V_7_9_0;
     public static final Version TOTAL_DATA_SET_SIZE_SIZE_VERSION = Version.V_7_13_0;
+    public static final Version READ_BYTES_PER_EXTENSION_VERSION = Version.V_8_0_0;
 
     private long sizeInBytes;
     private long totalDataSetSizeInBytes;
     private long reservedSize;
+    private Map<String, Long> readBytesPerExtension = Collections.emptyMap();
 
     public StoreStats() {
 
@@ -49,6 +55,9 @@ public class StoreStats implements Writeable, ToXContentFragment {
         } else {
             reservedSize = UNKNOWN_RESERVED_BYTES;
         }
+        if (in.getVersion().onOrAfter(READ_BYTES_PER_EXTENSION_VERSION)) {
+            readBytesPerExtension = new TreeMap<>(in.readMap(StreamInput::readString, StreamInput::readVLong));
+        }
     }
 
     /**
@@ -58,10 +67,19 @@ public class StoreStats implements Writeable, ToXContentFragment {
      * @param reservedSize a prediction of how much larger the store is expected to grow, or {@link StoreStats#UNKNOWN_RESERVED_BYTES}.
      */
     public StoreStats(long sizeInBytes, long totalDataSetSizeInBytes, long reservedSize) {
+        this(sizeInBytes, totalDataSetSizeInBytes, reservedSize, Collections.emptyMap());
+    }
+
+    /**
+     * @param readBytesPerExtension the bytes read from the files of the store per file extension, empty unless
+     *                              {@link Store#INDEX_STORE_TRACK_READ_BYTES_SETTING} is enabled
+     */
+    public StoreStats(long sizeInBytes, long totalDataSetSizeInBytes, long reservedSize, Map<String, Long> readBytesPerExtension) {
         assert reservedSize == UNKNOWN_RESERVED_BYTES || reservedSize >= 0 : reservedSize;
         this.sizeInBytes = sizeInBytes;
         this.totalDataSetSizeInBytes = totalDataSetSizeInBytes;
         this.reservedSize = reservedSize;
+        this.readBytesPerExtension = Objects.requireNonNull(readBytesPerExtension);
     }
     public void add(StoreStats stats) {
         if (stats == null) {
@@ -70,6 +88,11 @@ public class StoreStats implements Writeable, ToXContentFragment {
         sizeInBytes += stats.sizeInBytes;
         totalDataSetSizeInBytes += stats.totalDataSetSizeInBytes;
         reservedSize = ignoreIfUnknown(reservedSize) + ignoreIfUnknown(stats.reservedSize);
+        if (stats.readBytesPerExtension.isEmpty() == false) {
+            final Map<String, Long> merged = new TreeMap<>(readBytesPerExtension);
+            stats.readBytesPerExtension.forEach((extension, bytes) -> merged.merge(extension, bytes, Long::sum));
+            readBytesPerExtension = merged;
+        }
     }
 
     private static long ignoreIfUnknown(long reservedSize) {
@@ -113,6 +136,14 @@ public class StoreStats implements Writeable, ToXContentFragment {
         return new ByteSizeValue(reservedSize);
     }
 
+    /**
+     * The bytes read from the files of the store per file extension, empty unless {@link Store#INDEX_STORE_TRACK_READ_BYTES_SETTING} is
+     * enabled.
+     */
+    public Map<String, Long> getReadBytesPerExtension() {
+        return readBytesPerExtension;
+    }
+
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         out.writeVLong(sizeInBytes);
@@ -122,6 +153,9 @@ public class StoreStats implements Writeable, ToXContentFragment {
         if (out.getVersion().onOrAfter(RESERVED_BYTES_VERSION)) {
             out.writeZLong(reservedSize);
         }
+        if (out.getVersion().onOrAfter(READ_BYTES_PER_EXTENSION_VERSION)) {
+            out.writeMap(readBytesPerExtension, StreamOutput::writeString, StreamOutput::writeVLong);
+        }
     }
 
     @Override
@@ -130,6 +164,21 @@ public class StoreStats implements Writeable, ToXContentFragment {
         builder.humanReadableField(Fields.SIZE_IN_BYTES, Fields.SIZE, size());
         builder.humanReadableField(Fields.TOTAL_DATA_SET_SIZE_IN_BYTES, Fields.TOTAL_DATA_SET_SIZE, totalDataSetSize());
         builder.humanReadableField(Fields.RESERVED_IN_BYTES, Fields.RESERVED, getReservedSize());
+        if (readBytesPerExtension.isEmpty() == false) {
+            builder.startObject(Fields.READ);
+            for (Map.Entry<String, Long> entry : readBytesPerExtension.entrySet()) {
+                builder.startObject(entry.getKey());
+                final LuceneFilesExtensions extension = ReadBytesTrackingDirectory.OTHER.equals(entry.getKey())
+                    ? null
+                    : LuceneFilesExtensions.fromExtension(entry.getKey());
+                if (extension != null) {
+                    builder.field(Fields.DESCRIPTION, extension.getDescription());
+                }
+                builder.humanReadableField(Fields.SIZE_IN_BYTES, Fields.SIZE, new ByteSizeValue(entry.getValue()));
+                builder.endObject();
+            }
+            builder.endObject();
+        }
         builder.endObject();
         return builder;
     }
@@ -142,5 +191,7 @@ public class StoreStats implements Writeable, ToXContentFragment {
         static final String TOTAL_DATA_SET_SIZE_IN_BYTES = "total_data_set_size_in_bytes";
         static final String RESERVED = "reserved";
         static final String RESERVED_IN_BYTES = "reserved_in_bytes";
+        static final String READ = "read";
+        static final String DESCRIPTION = "description";
     }
 }
@@ -8,8 +8,12 @@
 
 package org.elasticsearch.index.translog;
 
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
 import org.apache.logging.log4j.message.ParameterizedMessage;
 import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.util.BytesRef;
 import org.elasticsearch.Version;
 import org.elasticsearch.core.Nullable;
 import org.elasticsearch.common.Strings;
@@ -107,6 +111,18 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
     static final Pattern PARSE_STRICT_ID_PATTERN = Pattern.compile("^" + TRANSLOG_FILE_PREFIX + "(\\d+)(\\.tlog)$");
     public static final int DEFAULT_HEADER_SIZE_IN_BYTES = TranslogHeader.headerSizeInBytes(UUIDs.randomBase64UUID());
 
+    // written instead of the operation type if the operation is stored as an LZ4 block, see #writeOperationNoSize
+    static final byte COMPRESSED_OPERATION_ID = (byte) 0x7F;
+    // smaller operations are not worth compressing
+    static final int MIN_COMPRESSED_OPERATION_SIZE = 256;
+    // buffers used to compress operations are kept per thread up to this size so that indexing doesn't allocate them per operation
+    static final int MAX_REUSED_COMPRESSION_BUFFER_SIZE = 64 * 1024;
+    // an LZ4 block decompresses to at most 255 times its size, which bounds the uncompressed length of a valid compressed operation
+    private static final int MAX_DECOMPRESSION_RATIO = 255;
+    private static final LZ4Compressor COMPRESSOR = LZ4Factory.safeInstance().fastCompressor();
+    private static final ThreadLocal<BytesStreamOutput> UNCOMPRESSED_OPERATION = ThreadLocal.withInitial(BytesStreamOutput::new);
+    private static final ThreadLocal<byte[]> COMPRESSED_OPERATION = ThreadLocal.withInitial(() -> BytesRef.EMPTY_BYTES);
+
     // the list of translog readers is guaranteed to be in order of translog generation
     private final List<TranslogReader> readers = new ArrayList<>();
     private final BigArrays bigArrays;
@@ -123,6 +139,7 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
     private final String translogUUID;
     private final TranslogDeletionPolicy deletionPolicy;
     private final LongConsumer persistedSequenceNumberConsumer;
+    private final TranslogSyncStats.Recorder syncStatsRecorder = new TranslogSyncStats.Recorder();
 
     /**
      * Creates a new Translog instance. This method will create a new transaction log unless the given {@link TranslogGeneration} is
@@ -501,7 +518,8 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
                 initialMinTranslogGen, initialGlobalCheckpoint,
                 globalCheckpointSupplier, this::getMinFileGeneration, primaryTermSupplier.getAsLong(), tragedy,
                 persistedSequenceNumberConsumer,
-                bigArrays);
+                bigArrays,
+                syncStatsRecorder);
         } catch (final IOException e) {
             throw new TranslogException(shardId, "failed to create new translog file", e);
         }
@@ -520,7 +538,7 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
         try {
             final long start = out.position();
             out.skip(Integer.BYTES);
-            writeOperationNoSize(new BufferedChecksumStreamOutput(out), operation);
+            writeOperationNoSize(new BufferedChecksumStreamOutput(out), operation, indexSettings.isTranslogCompressionEnabled());
             final long end = out.position();
             final int operationSize = (int) (end - Integer.BYTES - start);
             out.seek(start);
@@ -839,7 +857,7 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
         try (ReleasableLock lock = readLock.acquire()) {
             final long uncommittedGen = minGenerationForSeqNo(deletionPolicy.getLocalCheckpointOfSafeCommit() + 1, current, readers);
             return new TranslogStats(totalOperations(), sizeInBytes(), totalOperationsByMinGen(uncommittedGen),
-                sizeInBytesByMinGen(uncommittedGen), earliestLastModifiedAge());
+                sizeInBytesByMinGen(uncommittedGen), earliestLastModifiedAge(), syncStatsRecorder.stats());
         }
     }
 
@@ -1033,7 +1051,21 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
          * {@link Operation#writeOperation(StreamOutput, Operation)}
          */
         static Operation readOperation(final StreamInput input) throws IOException {
-            final Translog.Operation.Type type = Translog.Operation.Type.fromId(input.readByte());
+            return readOperation(input, Integer.MAX_VALUE);
+        }
+
+        /**
+         * Reads the type and the operation from the given stream like {@link #readOperation(StreamInput)}, rejecting compressed
+         * operations whose lengths exceed the given size before allocating any buffer for them.
+         *
+         * @param maxSize the maximum size of the serialized operation, as framed by the enclosing stream
+         */
+        static Operation readOperation(final StreamInput input, final int maxSize) throws IOException {
+            final byte id = input.readByte();
+            if (id == COMPRESSED_OPERATION_ID) {
+                return readCompressedOperation(input, maxSize);
+            }
+            final Translog.Operation.Type type = Translog.Operation.Type.fromId(id);
             switch (type) {
                 case CREATE:
                     // the de-serialization logic in Index was identical to that of Create when create was deprecated
@@ -1539,7 +1571,7 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
                 verifyChecksum(in);
                 in.reset();
             }
-            operation = Translog.Operation.readOperation(in);
+            operation = Translog.Operation.readOperation(in, opSize - 4);
             verifyChecksum(in);
         } catch (EOFException e) {
             throw new TruncatedTranslogException(in.getSource(), "reached premature end of file, translog is truncated", e);
@@ -1564,15 +1596,101 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
     }
 
     public static void writeOperationNoSize(BufferedChecksumStreamOutput out, Translog.Operation op) throws IOException {
+        writeOperationNoSize(out, op, false);
+    }
+
+    /**
+     * Writes the given operation followed by its checksum. If {@code compress} is set then the serialized operation is stored as a
+     * single LZ4 block, provided that it is large enough and actually shrinks. Every operation is compressed on its own so that the
+     * translog stays seekable: a {@link Location} still points at a single, self-contained operation.
+     */
+    static void writeOperationNoSize(BufferedChecksumStreamOutput out, Translog.Operation op, boolean compress) throws IOException {
         // This BufferedChecksumStreamOutput remains unclosed on purpose,
         // because closing it closes the underlying stream, which we don't
         // want to do here.
         out.resetDigest();
-        Translog.Operation.writeOperation(out, op);
+        if (compress) {
+            writeCompressedOperation(out, op);
+        } else {
+            Translog.Operation.writeOperation(out, op);
+        }
         long checksum = out.getChecksum();
         out.writeInt((int) checksum);
     }
 
+    private static void writeCompressedOperation(StreamOutput out, Translog.Operation op) throws IOException {
+        // the serialized operation is only needed until it is written to the output, reset() shrinks the buffer back to a single page
+        final BytesStreamOutput uncompressed = UNCOMPRESSED_OPERATION.get();
+        uncompressed.reset();
+        uncompressed.setVersion(out.getVersion());
+        Translog.Operation.writeOperation(uncompressed, op);
+        final BytesRef bytes = uncompressed.bytes().toBytesRef();
+        if (bytes.length >= MIN_COMPRESSED_OPERATION_SIZE) {
+            final byte[] compressed = compressionBuffer(COMPRESSOR.maxCompressedLength(bytes.length));
+            final int compressedLength = COMPRESSOR.compress(bytes.bytes, bytes.offset, bytes.length, compressed, 0, compressed.length);
+            if (compressedLength < bytes.length) {
+                out.writeByte(COMPRESSED_OPERATION_ID);
+                out.writeVInt(bytes.length);
+                out.writeVInt(compressedLength);
+                out.writeBytes(compressed, 0, compressedLength);
+                return;
+            }
+        }
+        out.writeBytes(bytes.bytes, bytes.offset, bytes.length);
+    }
+
+    private static byte[] compressionBuffer(int requiredSize) {
+        if (requiredSize > MAX_REUSED_COMPRESSION_BUFFER_SIZE) {
+            return new byte[requiredSize];
+        }
+        byte[] buffer = COMPRESSED_OPERATION.get();
+        if (requiredSize > buffer.length) {
+            buffer = new byte[requiredSize];
+            COMPRESSED_OPERATION.set(buffer);
+        }
+        return buffer;
+    }
+
+    private static Translog.Operation readCompressedOperation(StreamInput in, int maxSize) throws IOException {
+        final int uncompressedLength = in.readVInt();
+        final int compressedLength = in.readVInt();
+        // the lengths are validated before allocating buffers of these lengths, since streams that can not be marked, such as the
+        // operations sent during peer recoveries, are only checksum-verified after the operation was read
+        if (compressedLength <= 0 || compressedLength > maxSize) {
+            throw new TranslogCorruptedException(source(in), "compressed operation length [" + compressedLength
+                + "] is out of bounds, the operation size is [" + maxSize + "]");
+        }
+        if (uncompressedLength <= compressedLength || uncompressedLength > (long) compressedLength * MAX_DECOMPRESSION_RATIO) {
+            throw new TranslogCorruptedException(source(in), "uncompressed operation length [" + uncompressedLength
+                + "] is invalid for a compressed length of [" + compressedLength + "]");
+        }
+        final byte[] compressed = compressionBuffer(compressedLength);
+        in.readBytes(compressed, 0, compressedLength);
+        final byte[] uncompressed = new byte[uncompressedLength];
+        try {
+            final int read = LZ4Factory.safeInstance().safeDecompressor().decompress(compressed, 0, compressedLength, uncompressed, 0);
+            if (read != uncompressedLength) {
+                throw new TranslogCorruptedException(source(in), "expected [" + uncompressedLength
+                    + "] uncompressed bytes but got [" + read + "]");
+            }
+        } catch (LZ4Exception e) {
+            throw new TranslogCorruptedException(source(in), "failed to decompress translog operation", e);
+        }
+        try (StreamInput uncompressedIn = new BytesArray(uncompressed).streamInput()) {
+            uncompressedIn.setVersion(in.getVersion());
+            final Translog.Operation operation = Translog.Operation.readOperation(uncompressedIn);
+            if (uncompressedIn.available() > 0) {
+                throw new TranslogCorruptedException(source(in), "[" + uncompressedIn.available()
+                    + "] trailing bytes after compressed translog operation");
+            }
+            return operation;
+        }
+    }
+
+    private static String source(StreamInput in) {
+        return in instanceof BufferedChecksumStreamInput ? ((BufferedChecksumStreamInput) in).getSource() : "translog operation";
+    }
+
     /**
      * Gets the minimum generation that could contain any sequence number after the specified sequence number, or the current generation if
      * there is no generation that could any such sequence number.
@@ -1876,7 +1994,7 @@ public class Translog extends AbstractIndexShardComponent implements IndexShardC
             new TragicExceptionHolder(),
             seqNo -> {
                 throw new UnsupportedOperationException();
-            }, BigArrays.NON_RECYCLING_INSTANCE);
+            }, BigArrays.NON_RECYCLING_INSTANCE, new TranslogSyncStats.Recorder());
         writer.close();
         return uuid;
     }
@@ -7,6 +7,7 @@
  */
 package org.elasticsearch.index.translog;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
@@ -24,8 +25,10 @@ public class TranslogStats implements Writeable, ToXContentFragment {
     private long uncommittedSizeInBytes;
     private int  uncommittedOperations;
     private long earliestLastModifiedAge;
+    private TranslogSyncStats syncStats;
 
     public TranslogStats() {
+        syncStats = new TranslogSyncStats();
     }
 
     public TranslogStats(StreamInput in) throws IOException {
@@ -34,10 +37,21 @@ public class TranslogStats implements Writeable, ToXContentFragment {
         uncommittedOperations = in.readVInt();
         uncommittedSizeInBytes = in.readVLong();
         earliestLastModifiedAge = in.readVLong();
+        if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+            syncStats = new TranslogSyncStats(in);
+        } else {
+            syncStats = new TranslogSyncStats();
+        }
     }
 
     public TranslogStats(int numberOfOperations, long translogSizeInBytes, int uncommittedOperations, long uncommittedSizeInBytes,
                          long earliestLastModifiedAge) {
+        this(numberOfOperations, translogSizeInBytes, uncommittedOperations, uncommittedSizeInBytes, earliestLastModifiedAge,
+            new TranslogSyncStats());
+    }
+
+    public TranslogStats(int numberOfOperations, long translogSizeInBytes, int uncommittedOperations, long uncommittedSizeInBytes,
+                         long earliestLastModifiedAge, TranslogSyncStats syncStats) {
         if (numberOfOperations < 0) {
             throw new IllegalArgumentException("numberOfOperations must be >= 0");
         }
@@ -58,6 +72,7 @@ public class TranslogStats implements Writeable, ToXContentFragment {
         this.uncommittedSizeInBytes = uncommittedSizeInBytes;
         this.uncommittedOperations = uncommittedOperations;
         this.earliestLastModifiedAge = earliestLastModifiedAge;
+        this.syncStats = syncStats;
     }
 
     public void add(TranslogStats translogStats) {
@@ -75,6 +90,7 @@ public class TranslogStats implements Writeable, ToXContentFragment {
             this.earliestLastModifiedAge =
                 Math.min(this.earliestLastModifiedAge, translogStats.earliestLastModifiedAge);
         }
+        this.syncStats.add(translogStats.syncStats);
     }
 
     public long getTranslogSizeInBytes() {
@@ -97,6 +113,11 @@ public class TranslogStats implements Writeable, ToXContentFragment {
 
     public long getEarliestLastModifiedAge() { return earliestLastModifiedAge; }
 
+    /** the number and duration of the fsyncs of the translog, and how many operations they made durable */
+    public TranslogSyncStats getSyncStats() {
+        return syncStats;
+    }
+
     @Override
     public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
         builder.startObject("translog");
@@ -105,6 +126,7 @@ public class TranslogStats implements Writeable, ToXContentFragment {
         builder.field("uncommitted_operations", uncommittedOperations);
         builder.humanReadableField("uncommitted_size_in_bytes", "uncommitted_size", new ByteSizeValue(uncommittedSizeInBytes));
         builder.field("earliest_last_modified_age", earliestLastModifiedAge);
+        syncStats.toXContent(builder, params);
         builder.endObject();
         return builder;
     }
@@ -121,5 +143,8 @@ public class TranslogStats implements Writeable, ToXContentFragment {
         out.writeVInt(uncommittedOperations);
         out.writeVLong(uncommittedSizeInBytes);
         out.writeVLong(earliestLastModifiedAge);
+        if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+            syncStats.writeTo(out);
+        }
     }
 }
@@ -0,0 +1,185 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+package org.elasticsearch.index.translog;
+
+import org.elasticsearch.common.Strings;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+import org.elasticsearch.common.xcontent.ToXContentFragment;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.core.TimeValue;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Statistics about the fsyncs of the translog: how many operations each fsync made durable and how long the fsyncs took.
+ */
+public class TranslogSyncStats implements Writeable, ToXContentFragment {
+
+    /**
+     * The exclusive upper bounds in microseconds of the buckets of the fsync latency histogram. The last bucket holds all fsyncs that
+     * took at least the last bound.
+     */
+    static final long[] LATENCY_BUCKET_BOUNDS_MICROS = new long[] { 100, 500, 1_000, 5_000, 10_000, 50_000, 100_000, 500_000, 1_000_000 };
+
+    private long syncs;
+    private long syncedOperations;
+    private long syncTimeInNanos;
+    private final long[] latencyHistogram;
+
+    public TranslogSyncStats() {
+        this.latencyHistogram = new long[LATENCY_BUCKET_BOUNDS_MICROS.length + 1];
+    }
+
+    public TranslogSyncStats(StreamInput in) throws IOException {
+        syncs = in.readVLong();
+        syncedOperations = in.readVLong();
+        syncTimeInNanos = in.readVLong();
+        latencyHistogram = in.readVLongArray();
+    }
+
+    public TranslogSyncStats(long syncs, long syncedOperations, long syncTimeInNanos, long[] latencyHistogram) {
+        if (latencyHistogram.length != LATENCY_BUCKET_BOUNDS_MICROS.length + 1) {
+            throw new IllegalArgumentException("expected [" + (LATENCY_BUCKET_BOUNDS_MICROS.length + 1) + "] latency buckets but got ["
+                + latencyHistogram.length + "]");
+        }
+        this.syncs = syncs;
+        this.syncedOperations = syncedOperations;
+        this.syncTimeInNanos = syncTimeInNanos;
+        this.latencyHistogram = latencyHistogram;
+    }
+
+    public void add(TranslogSyncStats other) {
+        if (other == null) {
+            return;
+        }
+        syncs += other.syncs;
+        syncedOperations += other.syncedOperations;
+        syncTimeInNanos += other.syncTimeInNanos;
+        for (int i = 0; i < latencyHistogram.length && i < other.latencyHistogram.length; i++) {
+            latencyHistogram[i] += other.latencyHistogram[i];
+        }
+    }
+
+    /**
+     * The number of fsyncs of translog files
+     */
+    public long getSyncs() {
+        return syncs;
+    }
+
+    /**
+     * The number of operations that were made durable by fsyncs
+     */
+    public long getSyncedOperations() {
+        return syncedOperations;
+    }
+
+    /**
+     * The average number of operations that each fsync made durable
+     */
+    public double getOperationsPerSync() {
+        return syncs == 0 ? 0d : syncedOperations / (double) syncs;
+    }
+
+    public TimeValue getSyncTime() {
+        return new TimeValue(syncTimeInNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * The number of fsyncs per latency bucket, see {@link #LATENCY_BUCKET_BOUNDS_MICROS}
+     */
+    public long[] getLatencyHistogram() {
+        return latencyHistogram.clone();
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        out.writeVLong(syncs);
+        out.writeVLong(syncedOperations);
+        out.writeVLong(syncTimeInNanos);
+        out.writeVLongArray(latencyHistogram);
+    }
+
+    @Override
+    public XContentBuilder toXContent(XContentBuilder builder, Params params) throws IOException {
+        builder.startObject("fsync");
+        builder.field("total", syncs);
+        builder.field("operations", syncedOperations);
+        builder.field("operations_per_fsync", getOperationsPerSync());
+        builder.humanReadableField("total_time_in_millis", "total_time", getSyncTime());
+        builder.startArray("latency_histogram");
+        for (int i = 0; i < latencyHistogram.length; i++) {
+            builder.startObject();
+            if (i > 0) {
+                builder.field("ge_micros", LATENCY_BUCKET_BOUNDS_MICROS[i - 1]);
+            }
+            if (i < LATENCY_BUCKET_BOUNDS_MICROS.length) {
+                builder.field("lt_micros", LATENCY_BUCKET_BOUNDS_MICROS[i]);
+            }
+            builder.field("count", latencyHistogram[i]);
+            builder.endObject();
+        }
+        builder.endArray();
+        return builder.endObject();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        TranslogSyncStats that = (TranslogSyncStats) o;
+        return syncs == that.syncs && syncedOperations == that.syncedOperations && syncTimeInNanos == that.syncTimeInNanos
+            && Arrays.equals(latencyHistogram, that.latencyHistogram);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(syncs) + Arrays.hashCode(latencyHistogram);
+    }
+
+    @Override
+    public String toString() {
+        return Strings.toString(this, true, true);
+    }
+
+    /**
+     * Records the fsyncs of all generations of a translog.
+     */
+    static final class Recorder {
+        private final AtomicLong syncs = new AtomicLong();
+        private final AtomicLong syncedOperations = new AtomicLong();
+        private final AtomicLong syncTimeInNanos = new AtomicLong();
+        private final AtomicLongArray latencyHistogram = new AtomicLongArray(LATENCY_BUCKET_BOUNDS_MICROS.length + 1);
+
+        void onSync(int operations, long tookInNanos) {
+            syncs.incrementAndGet();
+            syncedOperations.addAndGet(operations);
+            syncTimeInNanos.addAndGet(tookInNanos);
+            final long tookInMicros = TimeUnit.NANOSECONDS.toMicros(tookInNanos);
+            int bucket = 0;
+            while (bucket < LATENCY_BUCKET_BOUNDS_MICROS.length && tookInMicros >= LATENCY_BUCKET_BOUNDS_MICROS[bucket]) {
+                bucket++;
+            }
+            latencyHistogram.incrementAndGet(bucket);
+        }
+
+        TranslogSyncStats stats() {
+            final long[] histogram = new long[latencyHistogram.length()];
+            for (int i = 0; i < histogram.length; i++) {
+                histogram[i] = latencyHistogram.get(i);
+            }
+            return new TranslogSyncStats(syncs.get(), syncedOperations.get(), syncTimeInNanos.get(), histogram);
+        }
+    }
+}
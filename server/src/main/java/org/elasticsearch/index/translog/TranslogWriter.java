@@ -81,6 +81,8 @@ public class TranslogWriter extends BaseTranslogReader implements Closeable {
 
     private final Map<Long, Tuple<BytesReference, Exception>> seenSequenceNumbers;
 
+    private final TranslogSyncStats.Recorder syncStatsRecorder;
+
     private TranslogWriter(
         final ShardId shardId,
         final Checkpoint initialCheckpoint,
@@ -92,7 +94,8 @@ public class TranslogWriter extends BaseTranslogReader implements Closeable {
         final LongSupplier globalCheckpointSupplier, LongSupplier minTranslogGenerationSupplier, TranslogHeader header,
         final TragicExceptionHolder tragedy,
         final LongConsumer persistedSequenceNumberConsumer,
-        final BigArrays bigArrays)
+        final BigArrays bigArrays,
+        final TranslogSyncStats.Recorder syncStatsRecorder)
             throws
             IOException {
         super(initialCheckpoint.generation, channel, path, header);
@@ -116,13 +119,15 @@ public class TranslogWriter extends BaseTranslogReader implements Closeable {
         this.bigArrays = bigArrays;
         this.seenSequenceNumbers = Assertions.ENABLED ? new HashMap<>() : null;
         this.tragedy = tragedy;
+        this.syncStatsRecorder = syncStatsRecorder;
     }
 
     public static TranslogWriter create(ShardId shardId, String translogUUID, long fileGeneration, Path file, ChannelFactory channelFactory,
                                         ByteSizeValue bufferSize, final long initialMinTranslogGen, long initialGlobalCheckpoint,
                                         final LongSupplier globalCheckpointSupplier, final LongSupplier minTranslogGenerationSupplier,
                                         final long primaryTerm, TragicExceptionHolder tragedy,
-                                        final LongConsumer persistedSequenceNumberConsumer, final BigArrays bigArrays)
+                                        final LongConsumer persistedSequenceNumberConsumer, final BigArrays bigArrays,
+                                        final TranslogSyncStats.Recorder syncStatsRecorder)
         throws IOException {
         final Path checkpointFile = file.getParent().resolve(Translog.CHECKPOINT_FILE_NAME);
 
@@ -147,7 +152,8 @@ public class TranslogWriter extends BaseTranslogReader implements Closeable {
                 writerGlobalCheckpointSupplier = globalCheckpointSupplier;
             }
             return new TranslogWriter(shardId, checkpoint, channel, checkpointChannel, file, checkpointFile, bufferSize,
-                writerGlobalCheckpointSupplier, minTranslogGenerationSupplier, header, tragedy, persistedSequenceNumberConsumer, bigArrays);
+                writerGlobalCheckpointSupplier, minTranslogGenerationSupplier, header, tragedy, persistedSequenceNumberConsumer, bigArrays,
+                syncStatsRecorder);
         } catch (Exception exception) {
             // if we fail to bake the file-generation into the checkpoint we stick with the file and once we recover and that
             // file exists we remove it. We only apply this logic to the checkpoint.generation+1 any other file with a higher generation
@@ -414,8 +420,10 @@ public class TranslogWriter extends BaseTranslogReader implements Closeable {
                     // now do the actual fsync outside of the synchronized block such that
                     // we can continue writing to the buffer etc.
                     try {
+                        final long startTimeNanos = System.nanoTime();
                         channel.force(false);
                         writeCheckpoint(checkpointChannel, checkpointPath, checkpointToSync);
+                        syncStatsRecorder.onSync(flushedSequenceNumbers.size(), System.nanoTime() - startTimeNanos);
                     } catch (final Exception ex) {
                         closeWithTragicEvent(ex);
                         throw ex;
@@ -94,6 +94,7 @@ import org.elasticsearch.index.mapper.MapperRegistry;
 import org.elasticsearch.index.mapper.MapperService;
 import org.elasticsearch.index.mapper.MappingLookup;
 import org.elasticsearch.index.merge.MergeStats;
+import org.elasticsearch.index.merge.NodeMergeScheduler;
 import org.elasticsearch.index.query.CoordinatorRewriteContextProvider;
 import org.elasticsearch.index.query.QueryBuilder;
 import org.elasticsearch.index.query.QueryRewriteContext;
@@ -209,6 +210,7 @@ public class IndicesService extends AbstractLifecycleComponent
     private final NamedWriteableRegistry namedWriteableRegistry;
     private final Map<String, IndexStorePlugin.SnapshotCommitSupplier> snapshotCommitSuppliers;
     private final IndexingMemoryController indexingMemoryController;
+    private final NodeMergeScheduler nodeMergeScheduler;
     private final TimeValue cleanInterval;
     final IndicesRequestCache indicesRequestCache; // pkg-private for testing
     private final IndicesQueryCache indicesQueryCache;
@@ -266,6 +268,7 @@ public class IndicesService extends AbstractLifecycleComponent
         indexingMemoryController = new IndexingMemoryController(settings, threadPool,
                                                                 // ensure we pull an iter with new shards - flatten makes a copy
                                                                 () -> Iterables.flatten(this).iterator());
+        this.nodeMergeScheduler = new NodeMergeScheduler(settings, clusterService.getClusterSettings());
         this.indexScopedSettings = indexScopedSettings;
         this.circuitBreakerService = circuitBreakerService;
         this.bigArrays = bigArrays;
@@ -696,7 +699,7 @@ public class IndicesService extends AbstractLifecycleComponent
                         .filter(maybe -> Objects.requireNonNull(maybe).isPresent())
                         .collect(Collectors.toList());
         if (engineFactories.isEmpty()) {
-            return new InternalEngineFactory();
+            return new InternalEngineFactory(nodeMergeScheduler);
         } else if (engineFactories.size() == 1) {
             assert engineFactories.get(0).isPresent();
             return engineFactories.get(0).get();
@@ -20,6 +20,7 @@ import org.elasticsearch.core.Releasable;
 import org.elasticsearch.core.Releasables;
 import org.elasticsearch.core.AbstractRefCounted;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.core.internal.io.IOUtils;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.store.StoreFileMetadata;
 import org.elasticsearch.transport.Transports;
@@ -70,6 +71,20 @@ public class MultiFileWriter extends AbstractRefCounted implements Releasable {
         }
     }
 
+    /**
+     * Discards everything that was written for the given file so far, so that it can be written again from the start, e.g. after
+     * downloading it from a snapshot failed part-way through.
+     */
+    public void discardFile(String fileName) {
+        ensureOpen.run();
+        Releasables.close(fileChunkWriters.remove(fileName));
+        IOUtils.closeWhileHandlingException(openIndexOutputs.remove(fileName));
+        final String tempFileName = getTempNameForFile(fileName);
+        if (tempFileNames.remove(tempFileName) != null) {
+            store.deleteQuiet(tempFileName);
+        }
+    }
+
     /** Get a temporary name for the provided file name. */
     String getTempNameForFile(String origFile) {
         return tempFilePrefix + origFile;
@@ -83,6 +83,7 @@ public class PeerRecoveryTargetService implements IndexEventListener {
         public static final String PREPARE_TRANSLOG = "internal:index/shard/recovery/prepare_translog";
         public static final String FINALIZE = "internal:index/shard/recovery/finalize";
         public static final String HANDOFF_PRIMARY_CONTEXT = "internal:index/shard/recovery/handoff_primary_context";
+        public static final String RESTORE_FILE_FROM_SNAPSHOT = "internal:index/shard/recovery/restore_file_from_snapshot";
     }
 
     private final ThreadPool threadPool;
@@ -96,16 +97,24 @@ public class PeerRecoveryTargetService implements IndexEventListener {
 
     public PeerRecoveryTargetService(ThreadPool threadPool, TransportService transportService,
             RecoverySettings recoverySettings, ClusterService clusterService) {
+        this(threadPool, transportService, recoverySettings, clusterService, null);
+    }
+
+    public PeerRecoveryTargetService(ThreadPool threadPool, TransportService transportService,
+            RecoverySettings recoverySettings, ClusterService clusterService, @Nullable SnapshotFilesProvider snapshotFilesProvider) {
         this.threadPool = threadPool;
         this.transportService = transportService;
         this.recoverySettings = recoverySettings;
         this.clusterService = clusterService;
-        this.onGoingRecoveries = new RecoveriesCollection(logger, threadPool);
+        this.onGoingRecoveries = new RecoveriesCollection(logger, threadPool, snapshotFilesProvider);
 
         transportService.registerRequestHandler(Actions.FILES_INFO, ThreadPool.Names.GENERIC, RecoveryFilesInfoRequest::new,
             new FilesInfoRequestHandler());
         transportService.registerRequestHandler(Actions.FILE_CHUNK, ThreadPool.Names.GENERIC, RecoveryFileChunkRequest::new,
             new FileChunkTransportRequestHandler());
+        // downloading a file from a repository blocks on blob store I/O, which must not tie up generic threads
+        transportService.registerRequestHandler(Actions.RESTORE_FILE_FROM_SNAPSHOT, ThreadPool.Names.SNAPSHOT,
+            RecoverySnapshotFileRequest::new, new RestoreFileFromSnapshotTransportRequestHandler());
         transportService.registerRequestHandler(Actions.CLEAN_FILES, ThreadPool.Names.GENERIC,
             RecoveryCleanFilesRequest::new, new CleanFilesRequestHandler());
         transportService.registerRequestHandler(Actions.PREPARE_TRANSLOG, ThreadPool.Names.GENERIC,
@@ -469,6 +478,23 @@ public class PeerRecoveryTargetService implements IndexEventListener {
         }
     }
 
+    class RestoreFileFromSnapshotTransportRequestHandler implements TransportRequestHandler<RecoverySnapshotFileRequest> {
+
+        @Override
+        public void messageReceived(final RecoverySnapshotFileRequest request, TransportChannel channel, Task task) throws Exception {
+            try (RecoveryRef recoveryRef = onGoingRecoveries.getRecoverySafe(request.recoveryId(), request.shardId())) {
+                final ActionListener<Void> listener =
+                    createOrFinishListener(recoveryRef, channel, Actions.RESTORE_FILE_FROM_SNAPSHOT, request);
+                if (listener == null) {
+                    return;
+                }
+
+                recoveryRef.target().restoreFileFromSnapshot(request.repository(), request.indexId(), request.fileInfo(),
+                    request.totalTranslogOps(), listener);
+            }
+        }
+    }
+
     private ActionListener<Void> createOrFinishListener(final RecoveryRef recoveryRef, final TransportChannel channel,
                                                         final String action, final RecoveryTransportRequest request) {
         return createOrFinishListener(recoveryRef, channel, action, request, nullVal -> TransportResponse.Empty.INSTANCE);
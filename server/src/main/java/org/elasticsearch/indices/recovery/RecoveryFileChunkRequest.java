@@ -8,16 +8,27 @@
 
 package org.elasticsearch.indices.recovery;
 
+import org.elasticsearch.Version;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.bytes.ReleasableBytesReference;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.core.RefCounted;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.store.StoreFileMetadata;
+import org.elasticsearch.transport.ThinWriteable;
 
 import java.io.IOException;
 
-public final class RecoveryFileChunkRequest extends RecoveryTransportRequest implements RefCounted {
+/**
+ * A chunk of a file that the source of a peer recovery sends to the target. From {@link Version#V_8_0_0} on the content is the last field
+ * of the request, so that the transport layer can send it without copying it, see {@link ThinWriteable}.
+ */
+public final class RecoveryFileChunkRequest extends RecoveryTransportRequest implements RefCounted, ThinWriteable {
+
+    static final Version CONTENT_LAST_VERSION = Version.V_8_0_0;
+
     private final boolean lastChunk;
     private final long recoveryId;
     private final ShardId shardId;
@@ -36,12 +47,21 @@ public final class RecoveryFileChunkRequest extends RecoveryTransportRequest imp
         position = in.readVLong();
         final long length = in.readVLong();
         final String checksum = in.readString();
-        content = in.readReleasableBytesReference();
-        final String writtenBy = in.readString();
-        metadata = new StoreFileMetadata(name, length, checksum, writtenBy);
-        lastChunk = in.readBoolean();
-        totalTranslogOps = in.readVInt();
-        sourceThrottleTimeInNanos = in.readLong();
+        if (in.getVersion().onOrAfter(CONTENT_LAST_VERSION)) {
+            final String writtenBy = in.readString();
+            metadata = new StoreFileMetadata(name, length, checksum, writtenBy);
+            lastChunk = in.readBoolean();
+            totalTranslogOps = in.readVInt();
+            sourceThrottleTimeInNanos = in.readLong();
+            content = in.readReleasableBytesReference();
+        } else {
+            content = in.readReleasableBytesReference();
+            final String writtenBy = in.readString();
+            metadata = new StoreFileMetadata(name, length, checksum, writtenBy);
+            lastChunk = in.readBoolean();
+            totalTranslogOps = in.readVInt();
+            sourceThrottleTimeInNanos = in.readLong();
+        }
     }
 
     public RecoveryFileChunkRequest(long recoveryId, final long requestSeqNo, ShardId shardId, StoreFileMetadata metadata, long position,
@@ -92,6 +112,37 @@ public final class RecoveryFileChunkRequest extends RecoveryTransportRequest imp
 
     @Override
     public void writeTo(StreamOutput out) throws IOException {
+        if (out.getVersion().onOrAfter(CONTENT_LAST_VERSION)) {
+            writeWithoutContent(out);
+            out.writeBytesReference(content);
+        } else {
+            super.writeTo(out);
+            out.writeLong(recoveryId);
+            shardId.writeTo(out);
+            out.writeString(metadata.name());
+            out.writeVLong(position);
+            out.writeVLong(metadata.length());
+            out.writeString(metadata.checksum());
+            out.writeBytesReference(content);
+            out.writeString(metadata.writtenBy());
+            out.writeBoolean(lastChunk);
+            out.writeVInt(totalTranslogOps);
+            out.writeLong(sourceThrottleTimeInNanos);
+        }
+    }
+
+    @Override
+    public BytesReference writeThin(StreamOutput out) throws IOException {
+        if (out.getVersion().before(CONTENT_LAST_VERSION)) {
+            writeTo(out);
+            return BytesArray.EMPTY;
+        }
+        writeWithoutContent(out);
+        out.writeVInt(content.length());
+        return content;
+    }
+
+    private void writeWithoutContent(StreamOutput out) throws IOException {
         super.writeTo(out);
         out.writeLong(recoveryId);
         shardId.writeTo(out);
@@ -99,7 +150,6 @@ public final class RecoveryFileChunkRequest extends RecoveryTransportRequest imp
         out.writeVLong(position);
         out.writeVLong(metadata.length());
         out.writeString(metadata.checksum());
-        out.writeBytesReference(content);
         out.writeString(metadata.writtenBy());
         out.writeBoolean(lastChunk);
         out.writeVInt(totalTranslogOps);
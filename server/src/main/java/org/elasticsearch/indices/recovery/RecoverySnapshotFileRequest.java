@@ -0,0 +1,93 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.indices.recovery;
+
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
+import org.elasticsearch.index.store.StoreFileMetadata;
+import org.elasticsearch.repositories.IndexId;
+
+import java.io.IOException;
+
+/**
+ * Asks the target of a peer recovery to download a file from a shard snapshot rather than receiving it from the source in chunks.
+ */
+class RecoverySnapshotFileRequest extends RecoveryTransportRequest {
+
+    private final long recoveryId;
+    private final ShardId shardId;
+    private final String repository;
+    private final IndexId indexId;
+    private final BlobStoreIndexShardSnapshot.FileInfo fileInfo;
+    private final int totalTranslogOps;
+
+    RecoverySnapshotFileRequest(long recoveryId, long requestSeqNo, ShardId shardId, String repository, IndexId indexId,
+                                BlobStoreIndexShardSnapshot.FileInfo fileInfo, int totalTranslogOps) {
+        super(requestSeqNo);
+        this.recoveryId = recoveryId;
+        this.shardId = shardId;
+        this.repository = repository;
+        this.indexId = indexId;
+        this.fileInfo = fileInfo;
+        this.totalTranslogOps = totalTranslogOps;
+    }
+
+    RecoverySnapshotFileRequest(StreamInput in) throws IOException {
+        super(in);
+        recoveryId = in.readLong();
+        shardId = new ShardId(in);
+        repository = in.readString();
+        indexId = new IndexId(in);
+        final String name = in.readString();
+        final StoreFileMetadata metadata = new StoreFileMetadata(in);
+        final ByteSizeValue partSize = in.readOptionalWriteable(ByteSizeValue::new);
+        fileInfo = new BlobStoreIndexShardSnapshot.FileInfo(name, metadata, partSize);
+        totalTranslogOps = in.readVInt();
+    }
+
+    public long recoveryId() {
+        return recoveryId;
+    }
+
+    public ShardId shardId() {
+        return shardId;
+    }
+
+    public String repository() {
+        return repository;
+    }
+
+    public IndexId indexId() {
+        return indexId;
+    }
+
+    public BlobStoreIndexShardSnapshot.FileInfo fileInfo() {
+        return fileInfo;
+    }
+
+    public int totalTranslogOps() {
+        return totalTranslogOps;
+    }
+
+    @Override
+    public void writeTo(StreamOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeLong(recoveryId);
+        shardId.writeTo(out);
+        out.writeString(repository);
+        indexId.writeTo(out);
+        out.writeString(fileInfo.name());
+        fileInfo.metadata().writeTo(out);
+        out.writeOptionalWriteable(fileInfo.partSize());
+        out.writeVInt(totalTranslogOps);
+    }
+}
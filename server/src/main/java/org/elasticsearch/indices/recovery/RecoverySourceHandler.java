@@ -30,6 +30,7 @@ import org.elasticsearch.action.support.replication.ReplicationResponse;
 import org.elasticsearch.cluster.routing.IndexShardRoutingTable;
 import org.elasticsearch.cluster.routing.ShardRouting;
 import org.elasticsearch.core.CheckedRunnable;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.common.StopWatch;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
@@ -40,6 +41,7 @@ import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.common.util.CancellableThreads;
+import org.elasticsearch.common.util.concurrent.CountDown;
 import org.elasticsearch.common.util.concurrent.FutureUtils;
 import org.elasticsearch.common.util.concurrent.ListenableFuture;
 import org.elasticsearch.core.internal.io.IOUtils;
@@ -54,6 +56,7 @@ import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.IndexShardClosedException;
 import org.elasticsearch.index.shard.IndexShardRelocatedException;
 import org.elasticsearch.index.shard.IndexShardState;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.store.StoreFileMetadata;
 import org.elasticsearch.index.translog.Translog;
@@ -71,6 +74,7 @@ import java.util.Deque;
 import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -104,6 +108,10 @@ public class RecoverySourceHandler {
     private final int maxConcurrentFileChunks;
     private final int maxConcurrentOperations;
     private final ThreadPool threadPool;
+    @Nullable
+    private final ShardSnapshotsService shardSnapshotsService;
+    private final boolean useSnapshots;
+    private final int maxConcurrentSnapshotFileDownloads;
     private final CancellableThreads cancellableThreads = new CancellableThreads();
     private final List<Closeable> resources = new CopyOnWriteArrayList<>();
     private final ListenableFuture<RecoveryResponse> future = new ListenableFuture<>();
@@ -111,6 +119,14 @@ public class RecoverySourceHandler {
     public RecoverySourceHandler(IndexShard shard, RecoveryTargetHandler recoveryTarget, ThreadPool threadPool,
                                  StartRecoveryRequest request, int fileChunkSizeInBytes, int maxConcurrentFileChunks,
                                  int maxConcurrentOperations) {
+        this(shard, recoveryTarget, threadPool, request, fileChunkSizeInBytes, maxConcurrentFileChunks, maxConcurrentOperations,
+            null, false, 0);
+    }
+
+    public RecoverySourceHandler(IndexShard shard, RecoveryTargetHandler recoveryTarget, ThreadPool threadPool,
+                                 StartRecoveryRequest request, int fileChunkSizeInBytes, int maxConcurrentFileChunks,
+                                 int maxConcurrentOperations, @Nullable ShardSnapshotsService shardSnapshotsService,
+                                 boolean useSnapshots, int maxConcurrentSnapshotFileDownloads) {
         this.shard = shard;
         this.recoveryTarget = recoveryTarget;
         this.threadPool = threadPool;
@@ -120,6 +136,9 @@ public class RecoverySourceHandler {
         this.chunkSizeInBytes = fileChunkSizeInBytes;
         this.maxConcurrentFileChunks = maxConcurrentFileChunks;
         this.maxConcurrentOperations = maxConcurrentOperations;
+        this.shardSnapshotsService = shardSnapshotsService;
+        this.useSnapshots = useSnapshots;
+        this.maxConcurrentSnapshotFileDownloads = maxConcurrentSnapshotFileDownloads;
     }
 
     public StartRecoveryRequest getRequest() {
@@ -514,8 +533,9 @@ public class RecoverySourceHandler {
                 recoveryTarget.receiveFileInfo(phase1FileNames, phase1FileSizes, phase1ExistingFileNames,
                         phase1ExistingFileSizes, translogOps.getAsInt(), sendFileInfoStep);
 
-                sendFileInfoStep.whenComplete(r ->
-                    sendFiles(store, phase1Files.toArray(new StoreFileMetadata[0]), translogOps, sendFilesStep), listener::onFailure);
+                sendFileInfoStep.whenComplete(
+                    r -> recoverFiles(store, recoverySourceMetadata.getHistoryUUID(), phase1Files, translogOps, sendFilesStep),
+                    listener::onFailure);
 
                 sendFilesStep.whenComplete(r -> createRetentionLease(startingSeqNo, createRetentionLeaseStep), listener::onFailure);
 
@@ -559,6 +579,106 @@ public class RecoverySourceHandler {
         }
     }
 
+    /**
+     * Sends the given files to the target. If enabled, the target first downloads the files that are identical in the latest snapshot of
+     * the shard from the repository instead, and only the remaining files, as well as any files that failed to download, are sent from
+     * this node.
+     */
+    void recoverFiles(Store store, @Nullable String historyUUID, List<StoreFileMetadata> files, IntSupplier translogOps,
+                      ActionListener<Void> listener) {
+        if (useSnapshots == false || shardSnapshotsService == null || files.isEmpty() || historyUUID == null
+            || request.targetNode().getVersion().before(Version.V_8_0_0)) {
+            sendFiles(store, files.toArray(new StoreFileMetadata[0]), translogOps, listener);
+            return;
+        }
+        final ActionListener<Optional<ShardSnapshotsService.ShardSnapshot>> snapshotListener = ActionListener.wrap(
+            shardSnapshot -> {
+                if (shardSnapshot.isPresent()) {
+                    recoverFilesFromSnapshot(store, files, shardSnapshot.get(), translogOps, listener);
+                } else {
+                    sendFiles(store, files.toArray(new StoreFileMetadata[0]), translogOps, listener);
+                }
+            },
+            e -> {
+                logger.debug("failed to find a snapshot to recover files from, sending all files from the source", e);
+                sendFiles(store, files.toArray(new StoreFileMetadata[0]), translogOps, listener);
+            });
+        cancellableThreads.checkForCancel();
+        shardSnapshotsService.fetchLatestSnapshot(request.shardId(), historyUUID, snapshotListener);
+    }
+
+    private void recoverFilesFromSnapshot(Store store, List<StoreFileMetadata> files, ShardSnapshotsService.ShardSnapshot shardSnapshot,
+                                          IntSupplier translogOps, ActionListener<Void> listener) {
+        final List<StoreFileMetadata> filesToSend = new CopyOnWriteArrayList<>();
+        final List<BlobStoreIndexShardSnapshot.FileInfo> filesToRestore = new ArrayList<>();
+        final List<StoreFileMetadata> filesToRestoreMetadata = new ArrayList<>();
+        for (StoreFileMetadata md : files) {
+            final BlobStoreIndexShardSnapshot.FileInfo fileInfo = shardSnapshot.matchingFile(md);
+            if (fileInfo == null) {
+                filesToSend.add(md);
+            } else {
+                filesToRestore.add(fileInfo);
+                filesToRestoreMetadata.add(md);
+            }
+        }
+        if (filesToRestore.isEmpty()) {
+            sendFiles(store, filesToSend.toArray(new StoreFileMetadata[0]), translogOps, listener);
+            return;
+        }
+        logger.trace("recovery [phase1]: recovering [{}] files from snapshot [{}] in repository [{}]", filesToRestore.size(),
+            shardSnapshot.snapshotId(), shardSnapshot.repository());
+
+        final AtomicLong restoredBytes = new AtomicLong();
+        final AtomicInteger nextFile = new AtomicInteger();
+        final int workers = Math.min(Math.max(1, maxConcurrentSnapshotFileDownloads), filesToRestore.size());
+        final CountDown pendingWorkers = new CountDown(workers);
+        final Runnable onAllRestored = () -> {
+            logger.debug("recovery [phase1]: recovered [{}] from snapshot [{}] in repository [{}], sending [{}] files from the source",
+                new ByteSizeValue(restoredBytes.get()), shardSnapshot.snapshotId(), shardSnapshot.repository(), filesToSend.size());
+            sendFiles(store, filesToSend.toArray(new StoreFileMetadata[0]), translogOps, listener);
+        };
+        for (int i = 0; i < workers; i++) {
+            restoreNextFile(shardSnapshot, filesToRestore, filesToRestoreMetadata, nextFile, translogOps, restoredBytes, filesToSend,
+                () -> {
+                    if (pendingWorkers.countDown()) {
+                        try {
+                            onAllRestored.run();
+                        } catch (Exception e) {
+                            listener.onFailure(e);
+                        }
+                    }
+                });
+        }
+    }
+
+    private void restoreNextFile(ShardSnapshotsService.ShardSnapshot shardSnapshot, List<BlobStoreIndexShardSnapshot.FileInfo> fileInfos,
+                                 List<StoreFileMetadata> metadata, AtomicInteger nextFile, IntSupplier translogOps,
+                                 AtomicLong restoredBytes, List<StoreFileMetadata> filesToSend, Runnable onDone) {
+        final int index = nextFile.getAndIncrement();
+        if (index >= fileInfos.size() || cancellableThreads.isCancelled()) {
+            onDone.run();
+            return;
+        }
+        final BlobStoreIndexShardSnapshot.FileInfo fileInfo = fileInfos.get(index);
+        final StoreFileMetadata md = metadata.get(index);
+        recoveryTarget.restoreFileFromSnapshot(shardSnapshot.repository(), shardSnapshot.indexId(), fileInfo, translogOps.getAsInt(),
+            new ActionListener<>() {
+                @Override
+                public void onResponse(Void aVoid) {
+                    restoredBytes.addAndGet(md.length());
+                    restoreNextFile(shardSnapshot, fileInfos, metadata, nextFile, translogOps, restoredBytes, filesToSend, onDone);
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    logger.debug(new ParameterizedMessage("failed to recover [{}] from snapshot [{}] in repository [{}], sending it " +
+                        "from the source instead", md.name(), shardSnapshot.snapshotId(), shardSnapshot.repository()), e);
+                    filesToSend.add(md);
+                    restoreNextFile(shardSnapshot, fileInfos, metadata, nextFile, translogOps, restoredBytes, filesToSend, onDone);
+                }
+            });
+    }
+
     void createRetentionLease(final long startingSeqNo, ActionListener<RetentionLease> listener) {
         runUnderPrimaryPermit(() -> {
                 // Clone the peer recovery retention lease belonging to the source shard. We are retaining history between the the local
@@ -8,6 +8,7 @@
 
 package org.elasticsearch.indices.recovery;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.routing.RecoverySource;
 import org.elasticsearch.cluster.routing.ShardRouting;
@@ -32,6 +33,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Keeps track of state related to shard recovery.
@@ -343,6 +345,8 @@ public class RecoveryState implements ToXContentFragment, Writeable {
         static final String VERIFY_INDEX = "verify_index";
         static final String RECOVERED = "recovered";
         static final String RECOVERED_IN_BYTES = "recovered_in_bytes";
+        static final String RECOVERED_FROM_SNAPSHOT = "recovered_from_snapshot";
+        static final String RECOVERED_FROM_SNAPSHOT_IN_BYTES = "recovered_from_snapshot_in_bytes";
         static final String CHECK_INDEX_TIME = "check_index_time";
         static final String CHECK_INDEX_TIME_IN_MILLIS = "check_index_time_in_millis";
         static final String LENGTH = "length";
@@ -359,6 +363,9 @@ public class RecoveryState implements ToXContentFragment, Writeable {
         static final String SOURCE_THROTTLE_TIME_IN_MILLIS = "source_throttle_time_in_millis";
         static final String TARGET_THROTTLE_TIME = "target_throttle_time";
         static final String TARGET_THROTTLE_TIME_IN_MILLIS = "target_throttle_time_in_millis";
+        static final String REPLAY_TIME = "replay_time";
+        static final String REPLAY_TIME_IN_MILLIS = "replay_time_in_millis";
+        static final String REPLAYED_OPERATIONS_PER_SEC = "replayed_operations_per_sec";
     }
 
     public static class Timer implements Writeable {
@@ -478,6 +485,8 @@ public class RecoveryState implements ToXContentFragment, Writeable {
         private int total = UNKNOWN;
         private int totalOnStart = UNKNOWN;
         private int totalLocal = UNKNOWN;
+        private long replayedOperations;
+        private long replayTimeInNanos;
 
         public Translog() {
         }
@@ -488,6 +497,10 @@ public class RecoveryState implements ToXContentFragment, Writeable {
             total = in.readVInt();
             totalOnStart = in.readVInt();
             totalLocal = in.readVInt();
+            if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+                replayedOperations = in.readVLong();
+                replayTimeInNanos = in.readVLong();
+            }
         }
 
         @Override
@@ -497,6 +510,10 @@ public class RecoveryState implements ToXContentFragment, Writeable {
             out.writeVInt(total);
             out.writeVInt(totalOnStart);
             out.writeVInt(totalLocal);
+            if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+                out.writeVLong(replayedOperations);
+                out.writeVLong(replayTimeInNanos);
+            }
         }
 
         public synchronized void reset() {
@@ -505,6 +522,33 @@ public class RecoveryState implements ToXContentFragment, Writeable {
             total = UNKNOWN;
             totalOnStart = UNKNOWN;
             totalLocal = UNKNOWN;
+            replayedOperations = 0;
+            replayTimeInNanos = 0;
+        }
+
+        /**
+         * Records that the given number of operations were replayed, i.e. applied to the engine, in the given time.
+         */
+        public synchronized void addReplayedOperations(int ops, long tookInNanos) {
+            replayedOperations += ops;
+            replayTimeInNanos += tookInNanos;
+        }
+
+        /**
+         * returns the time spent replaying operations, excluding the time spent waiting for or transferring them
+         */
+        public synchronized TimeValue replayTime() {
+            return TimeValue.timeValueNanos(replayTimeInNanos);
+        }
+
+        /**
+         * returns the number of operations replayed per second of {@link #replayTime()}, or 0 if nothing was replayed yet
+         */
+        public synchronized double replayedOperationsPerSecond() {
+            if (replayTimeInNanos == 0) {
+                return 0d;
+            }
+            return replayedOperations * (double) TimeUnit.SECONDS.toNanos(1) / replayTimeInNanos;
         }
 
         public synchronized void incrementRecoveredOperations() {
@@ -595,6 +639,8 @@ public class RecoveryState implements ToXContentFragment, Writeable {
             builder.field(Fields.PERCENT, String.format(Locale.ROOT, "%1.1f%%", recoveredPercent()));
             builder.field(Fields.TOTAL_ON_START, totalOnStart);
             builder.humanReadableField(Fields.TOTAL_TIME_IN_MILLIS, Fields.TOTAL_TIME, new TimeValue(time()));
+            builder.humanReadableField(Fields.REPLAY_TIME_IN_MILLIS, Fields.REPLAY_TIME, replayTime());
+            builder.field(Fields.REPLAYED_OPERATIONS_PER_SEC, Math.round(replayedOperationsPerSecond()));
             return builder;
         }
     }
@@ -603,6 +649,7 @@ public class RecoveryState implements ToXContentFragment, Writeable {
         private String name;
         private long length;
         private long recovered;
+        private long recoveredFromSnapshot;
         private boolean reused;
 
         public FileDetail(String name, long length, boolean reused) {
@@ -617,6 +664,9 @@ public class RecoveryState implements ToXContentFragment, Writeable {
             length = in.readVLong();
             recovered = in.readVLong();
             reused = in.readBoolean();
+            if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+                recoveredFromSnapshot = in.readVLong();
+            }
         }
 
         @Override
@@ -625,6 +675,9 @@ public class RecoveryState implements ToXContentFragment, Writeable {
             out.writeVLong(length);
             out.writeVLong(recovered);
             out.writeBoolean(reused);
+            if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+                out.writeVLong(recoveredFromSnapshot);
+            }
         }
 
         void addRecoveredBytes(long bytes) {
@@ -633,6 +686,17 @@ public class RecoveryState implements ToXContentFragment, Writeable {
             recovered += bytes;
         }
 
+        void addRecoveredFromSnapshotBytes(long bytes) {
+            assert reused == false : "file is marked as reused, can't update recovered bytes";
+            assert bytes >= 0 : "can't recovered negative bytes. got [" + bytes + "]";
+            recoveredFromSnapshot += bytes;
+        }
+
+        void resetRecoveredBytes() {
+            recovered = 0;
+            recoveredFromSnapshot = 0;
+        }
+
         /**
          * file name *
          */
@@ -654,6 +718,13 @@ public class RecoveryState implements ToXContentFragment, Writeable {
             return recovered;
         }
 
+        /**
+         * number of bytes of this file that were downloaded from a snapshot rather than copied from the source (so far)
+         */
+        public long recoveredFromSnapshot() {
+            return recoveredFromSnapshot;
+        }
+
         /**
          * returns true if the file is reused from a local copy
          */
@@ -672,6 +743,8 @@ public class RecoveryState implements ToXContentFragment, Writeable {
             builder.humanReadableField(Fields.LENGTH_IN_BYTES, Fields.LENGTH, new ByteSizeValue(length));
             builder.field(Fields.REUSED, reused);
             builder.humanReadableField(Fields.RECOVERED_IN_BYTES, Fields.RECOVERED, new ByteSizeValue(recovered));
+            builder.humanReadableField(Fields.RECOVERED_FROM_SNAPSHOT_IN_BYTES, Fields.RECOVERED_FROM_SNAPSHOT,
+                new ByteSizeValue(recoveredFromSnapshot));
             builder.endObject();
             return builder;
         }
@@ -680,7 +753,8 @@ public class RecoveryState implements ToXContentFragment, Writeable {
         public boolean equals(Object obj) {
             if (obj instanceof FileDetail) {
                 FileDetail other = (FileDetail) obj;
-                return name.equals(other.name) && length == other.length() && reused == other.reused() && recovered == other.recovered();
+                return name.equals(other.name) && length == other.length() && reused == other.reused() && recovered == other.recovered()
+                    && recoveredFromSnapshot == other.recoveredFromSnapshot();
             }
             return false;
         }
@@ -690,13 +764,15 @@ public class RecoveryState implements ToXContentFragment, Writeable {
             int result = name.hashCode();
             result = 31 * result + Long.hashCode(length);
             result = 31 * result + Long.hashCode(recovered);
+            result = 31 * result + Long.hashCode(recoveredFromSnapshot);
             result = 31 * result + (reused ? 1 : 0);
             return result;
         }
 
         @Override
         public String toString() {
-            return "file (name [" + name + "], reused [" + reused + "], length [" + length + "], recovered [" + recovered + "])";
+            return "file (name [" + name + "], reused [" + reused + "], length [" + length + "], recovered [" + recovered
+                + "], recovered_from_snapshot [" + recoveredFromSnapshot + "])";
         }
     }
 
@@ -761,6 +837,18 @@ public class RecoveryState implements ToXContentFragment, Writeable {
             file.addRecoveredBytes(bytes);
         }
 
+        public void addRecoveredFromSnapshotBytesToFile(String name, long bytes) {
+            FileDetail file = fileDetails.get(name);
+            assert file != null : "file [" + name + "] hasn't been reported";
+            file.addRecoveredFromSnapshotBytes(bytes);
+        }
+
+        public void resetRecoveredBytesOfFile(String name) {
+            FileDetail file = fileDetails.get(name);
+            assert file != null : "file [" + name + "] hasn't been reported";
+            file.resetRecoveredBytes();
+        }
+
         public FileDetail get(String name) {
             return fileDetails.get(name);
         }
@@ -845,6 +933,21 @@ public class RecoveryState implements ToXContentFragment, Writeable {
             fileDetails.addRecoveredBytesToFile(name, bytes);
         }
 
+        /**
+         * Records that the given number of bytes of a file, which were also reported via {@link #addRecoveredBytesToFile}, were
+         * downloaded from a snapshot rather than copied from the source.
+         */
+        public synchronized void addRecoveredFromSnapshotBytesToFile(String name, long bytes) {
+            fileDetails.addRecoveredFromSnapshotBytesToFile(name, bytes);
+        }
+
+        /**
+         * Forgets the bytes recovered so far for the given file, because it is going to be recovered again from the start.
+         */
+        public synchronized void resetRecoveredBytesOfFile(String name) {
+            fileDetails.resetRecoveredBytesOfFile(name);
+        }
+
         public synchronized void addSourceThrottling(long timeInNanos) {
             if (sourceThrottlingInNanos == UNKNOWN) {
                 sourceThrottlingInNanos = timeInNanos;
@@ -1002,6 +1105,17 @@ public class RecoveryState implements ToXContentFragment, Writeable {
             }
         }
 
+        /**
+         * total number of bytes downloaded from a snapshot rather than copied from the source so far
+         */
+        public synchronized long recoveredFromSnapshotBytes() {
+            long recoveredFromSnapshot = 0;
+            for (FileDetail file : fileDetails.values()) {
+                recoveredFromSnapshot += file.recoveredFromSnapshot();
+            }
+            return recoveredFromSnapshot;
+        }
+
         public synchronized int reusedFileCount() {
             int reused = 0;
             for (FileDetail file : fileDetails.values()) {
@@ -1029,6 +1143,8 @@ public class RecoveryState implements ToXContentFragment, Writeable {
             builder.humanReadableField(Fields.TOTAL_IN_BYTES, Fields.TOTAL, new ByteSizeValue(totalBytes()));
             builder.humanReadableField(Fields.REUSED_IN_BYTES, Fields.REUSED, new ByteSizeValue(reusedBytes()));
             builder.humanReadableField(Fields.RECOVERED_IN_BYTES, Fields.RECOVERED, new ByteSizeValue(recoveredBytes()));
+            builder.humanReadableField(Fields.RECOVERED_FROM_SNAPSHOT_IN_BYTES, Fields.RECOVERED_FROM_SNAPSHOT,
+                new ByteSizeValue(recoveredFromSnapshotBytes()));
             builder.field(Fields.PERCENT, String.format(Locale.ROOT, "%1.1f%%", recoveredBytesPercent()));
             builder.endObject();
 
@@ -9,6 +9,7 @@
 package org.elasticsearch.indices.recovery;
 
 import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
 import org.apache.lucene.index.CorruptIndexException;
 import org.apache.lucene.index.IndexFormatTooNewException;
 import org.apache.lucene.index.IndexFormatTooOldException;
@@ -20,7 +21,9 @@ import org.elasticsearch.action.admin.indices.flush.FlushRequest;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.core.Nullable;
 import org.elasticsearch.common.UUIDs;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.io.Streams;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.lucene.Lucene;
@@ -35,11 +38,15 @@ import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.IndexShardNotRecoveringException;
 import org.elasticsearch.index.shard.IndexShardState;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
+import org.elasticsearch.index.snapshots.blobstore.RateLimitingInputStream;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.store.StoreFileMetadata;
 import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.repositories.IndexId;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.concurrent.CountDownLatch;
@@ -58,6 +65,9 @@ public class RecoveryTarget extends AbstractRefCounted implements RecoveryTarget
 
     private static final String RECOVERY_PREFIX = "recovery.";
 
+    // size of the buffer used to copy files that are downloaded from a snapshot
+    private static final int SNAPSHOT_FILE_BUFFER_SIZE = 512 * 1024;
+
     private final ShardId shardId;
     private final long recoveryId;
     private final IndexShard indexShard;
@@ -66,6 +76,8 @@ public class RecoveryTarget extends AbstractRefCounted implements RecoveryTarget
     private final RecoveryRequestTracker requestTracker = new RecoveryRequestTracker();
     private final Store store;
     private final PeerRecoveryTargetService.RecoveryListener listener;
+    @Nullable
+    private final SnapshotFilesProvider snapshotFilesProvider;
 
     private final AtomicBoolean finished = new AtomicBoolean();
 
@@ -87,7 +99,22 @@ public class RecoveryTarget extends AbstractRefCounted implements RecoveryTarget
      * @param listener                          called when recovery is completed/failed
      */
     public RecoveryTarget(IndexShard indexShard, DiscoveryNode sourceNode, PeerRecoveryTargetService.RecoveryListener listener) {
+        this(indexShard, sourceNode, null, listener);
+    }
+
+    /**
+     * Creates a new recovery target object that represents a recovery to the provided shard.
+     *
+     * @param indexShard                        local shard where we want to recover to
+     * @param sourceNode                        source node of the recovery where we recover from
+     * @param snapshotFilesProvider             gives access to files of snapshots, or {@code null} if this node cannot download
+     *                                          files from snapshots during recoveries
+     * @param listener                          called when recovery is completed/failed
+     */
+    public RecoveryTarget(IndexShard indexShard, DiscoveryNode sourceNode, @Nullable SnapshotFilesProvider snapshotFilesProvider,
+                          PeerRecoveryTargetService.RecoveryListener listener) {
         super("recovery_status");
+        this.snapshotFilesProvider = snapshotFilesProvider;
         this.cancellableThreads = new CancellableThreads();
         this.recoveryId = idGenerator.incrementAndGet();
         this.listener = listener;
@@ -110,7 +137,7 @@ public class RecoveryTarget extends AbstractRefCounted implements RecoveryTarget
      * @return a copy of this recovery target
      */
     public RecoveryTarget retryCopy() {
-        return new RecoveryTarget(indexShard, sourceNode, listener);
+        return new RecoveryTarget(indexShard, sourceNode, snapshotFilesProvider, listener);
     }
 
     @Nullable
@@ -382,8 +409,8 @@ public class RecoveryTarget extends AbstractRefCounted implements RecoveryTarget
              * the policy.
              */
             indexShard().updateRetentionLeasesOnReplica(retentionLeases);
-            for (Translog.Operation operation : operations) {
-                Engine.Result result = indexShard().applyTranslogOperation(operation, Engine.Operation.Origin.PEER_RECOVERY);
+            final long startTimeInNanos = System.nanoTime();
+            indexShard().applyTranslogOperations(operations, Engine.Operation.Origin.PEER_RECOVERY, (operation, result) -> {
                 if (result.getResultType() == Engine.Result.Type.MAPPING_UPDATE_REQUIRED) {
                     throw new MapperException("mapping updates are not allowed [" + operation + "]");
                 }
@@ -393,9 +420,10 @@ public class RecoveryTarget extends AbstractRefCounted implements RecoveryTarget
                     }
                     ExceptionsHelper.reThrowIfNotNull(result.getFailure());
                 }
-            }
+            });
             // update stats only after all operations completed (to ensure that mapping updates don't mess with stats)
             translog.incrementRecoveredOperations(operations.size());
+            translog.addReplayedOperations(operations.size(), System.nanoTime() - startTimeInNanos);
             indexShard().sync();
             // roll over / flush / trim if needed
             indexShard().afterWriteOperation();
@@ -495,6 +523,51 @@ public class RecoveryTarget extends AbstractRefCounted implements RecoveryTarget
         }
     }
 
+    @Override
+    public void restoreFileFromSnapshot(String repository, IndexId indexId, BlobStoreIndexShardSnapshot.FileInfo fileInfo,
+                                        int totalTranslogOps, ActionListener<Void> listener) {
+        if (snapshotFilesProvider == null) {
+            listener.onFailure(new UnsupportedOperationException("recovering files from snapshots is not supported on this node"));
+            return;
+        }
+        final StoreFileMetadata metadata = fileInfo.metadata();
+        final RecoveryState.Index indexState = state().getIndex();
+        try {
+            state().getTranslog().totalOperations(totalTranslogOps);
+            final RateLimitingInputStream.Listener throttleListener = throttleTimeInNanos -> {
+                indexState.addTargetThrottling(throttleTimeInNanos);
+                indexShard.recoveryStats().addThrottleTime(throttleTimeInNanos);
+            };
+            try (InputStream stream = snapshotFilesProvider.openSnapshotFile(repository, indexId, shardId, fileInfo, throttleListener)) {
+                final byte[] buffer = new byte[Math.toIntExact(Math.max(1L, Math.min(SNAPSHOT_FILE_BUFFER_SIZE, metadata.length())))];
+                long position = 0;
+                do {
+                    cancellableThreads.checkForCancel();
+                    final int length = Streams.readFully(stream, buffer, 0, Math.toIntExact(Math.min(buffer.length,
+                        metadata.length() - position)));
+                    final boolean lastChunk = position + length >= metadata.length();
+                    if (length == 0 && lastChunk == false) {
+                        throw new IOException("unexpected end of snapshot file [" + fileInfo.name() + "] for [" + metadata.name()
+                            + "] at position [" + position + "] of [" + metadata.length() + "]");
+                    }
+                    // the chunk is in order and hence written before this returns, so the buffer can be reused afterwards
+                    multiFileWriter.writeFileChunk(metadata, position, ReleasableBytesReference.wrap(new BytesArray(buffer, 0, length)),
+                        lastChunk);
+                    indexState.addRecoveredFromSnapshotBytesToFile(metadata.name(), length);
+                    position += length;
+                } while (position < metadata.length());
+            }
+            listener.onResponse(null);
+        } catch (Exception e) {
+            // the source falls back to sending this file itself, so start over with it
+            logger.debug(() -> new ParameterizedMessage("failed to download [{}] from snapshot in repository [{}]", metadata.name(),
+                repository), e);
+            multiFileWriter.discardFile(metadata.name());
+            indexState.resetRecoveredBytesOfFile(metadata.name());
+            listener.onFailure(e);
+        }
+    }
+
     /** Get a temporary name for the provided file name. */
     public String getTempNameForFile(String origFile) {
         return multiFileWriter.getTempNameForFile(origFile);
@@ -11,9 +11,11 @@ import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.common.bytes.ReleasableBytesReference;
 import org.elasticsearch.index.seqno.ReplicationTracker;
 import org.elasticsearch.index.seqno.RetentionLeases;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.store.StoreFileMetadata;
 import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.repositories.IndexId;
 
 import java.util.List;
 
@@ -96,5 +98,13 @@ public interface RecoveryTargetHandler {
     void writeFileChunk(StoreFileMetadata fileMetadata, long position, ReleasableBytesReference content,
                         boolean lastChunk, int totalTranslogOps, ActionListener<Void> listener);
 
+    /**
+     * Downloads a file of a snapshot of the shard from the given repository into the target store, instead of receiving it from the
+     * source via {@link #writeFileChunk}. If this fails then the target discards what it downloaded so far, so that the source can
+     * send the file itself.
+     */
+    void restoreFileFromSnapshot(String repository, IndexId indexId, BlobStoreIndexShardSnapshot.FileInfo fileInfo,
+                                 int totalTranslogOps, ActionListener<Void> listener);
+
     default void cancel() {}
 }
@@ -30,9 +30,11 @@ import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
 import org.elasticsearch.index.seqno.ReplicationTracker;
 import org.elasticsearch.index.seqno.RetentionLeases;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.store.StoreFileMetadata;
 import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.repositories.IndexId;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.ConnectTransportException;
 import org.elasticsearch.transport.RemoteTransportException;
@@ -217,6 +219,19 @@ public class RemoteRecoveryTargetHandler implements RecoveryTargetHandler {
                 reader)));
     }
 
+    @Override
+    public void restoreFileFromSnapshot(String repository, IndexId indexId, BlobStoreIndexShardSnapshot.FileInfo fileInfo,
+                                        int totalTranslogOps, ActionListener<Void> listener) {
+        final String action = PeerRecoveryTargetService.Actions.RESTORE_FILE_FROM_SNAPSHOT;
+        final long requestSeqNo = requestSeqNoGenerator.getAndIncrement();
+        final RecoverySnapshotFileRequest request =
+            new RecoverySnapshotFileRequest(recoveryId, requestSeqNo, shardId, repository, indexId, fileInfo, totalTranslogOps);
+        final Writeable.Reader<TransportResponse.Empty> reader = in -> TransportResponse.Empty.INSTANCE;
+        // the target throttles the download itself, and downloading a large file may take a while
+        executeRetryableAction(action, request, TransportRequestOptions.timeout(recoverySettings.internalActionLongTimeout()),
+            listener.map(r -> null), reader);
+    }
+
     @Override
     public void cancel() {
         isCancelled = true;
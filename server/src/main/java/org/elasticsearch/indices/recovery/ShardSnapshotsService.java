@@ -0,0 +1,211 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.indices.recovery;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.ActionRunnable;
+import org.elasticsearch.action.support.GroupedActionListener;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.index.engine.Engine;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
+import org.elasticsearch.index.store.StoreFileMetadata;
+import org.elasticsearch.repositories.IndexId;
+import org.elasticsearch.repositories.RepositoriesService;
+import org.elasticsearch.repositories.Repository;
+import org.elasticsearch.repositories.RepositoryData;
+import org.elasticsearch.repositories.blobstore.BlobStoreRepository;
+import org.elasticsearch.snapshots.SnapshotId;
+import org.elasticsearch.snapshots.SnapshotState;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Finds the latest successful snapshot of a shard in the repositories that are registered with
+ * {@link BlobStoreRepository#USE_FOR_PEER_RECOVERY_SETTING}, so that a peer recovery can let its target download the files that did
+ * not change since that snapshot from the repository instead of copying them from the primary.
+ */
+public class ShardSnapshotsService {
+
+    private static final Logger logger = LogManager.getLogger(ShardSnapshotsService.class);
+
+    private final RepositoriesService repositoriesService;
+    private final ThreadPool threadPool;
+
+    public ShardSnapshotsService(RepositoriesService repositoriesService, ThreadPool threadPool) {
+        this.repositoriesService = repositoriesService;
+        this.threadPool = threadPool;
+    }
+
+    /**
+     * Looks up the latest successful snapshot of the given shard that was taken from the same index, as identified by its UUID, and of
+     * a shard copy with the given history UUID. Failures to read a repository are logged and otherwise ignored, since the recovery can
+     * always fall back to copying all files from the primary.
+     */
+    public void fetchLatestSnapshot(ShardId shardId, String historyUUID, ActionListener<Optional<ShardSnapshot>> listener) {
+        final List<BlobStoreRepository> repositories = new ArrayList<>();
+        for (Repository repository : repositoriesService.getRepositories().values()) {
+            if (repository instanceof BlobStoreRepository && ((BlobStoreRepository) repository).useForPeerRecovery()) {
+                repositories.add((BlobStoreRepository) repository);
+            }
+        }
+        if (repositories.isEmpty()) {
+            listener.onResponse(Optional.empty());
+            return;
+        }
+        final ActionListener<Collection<Optional<ShardSnapshot>>> groupListener = listener.map(snapshots -> snapshots.stream()
+            .flatMap(Optional::stream)
+            .max(Comparator.comparingLong(ShardSnapshot::startTime)));
+        final GroupedActionListener<Optional<ShardSnapshot>> groupedListener =
+            new GroupedActionListener<>(groupListener, repositories.size());
+        for (BlobStoreRepository repository : repositories) {
+            final ActionListener<Optional<ShardSnapshot>> repositoryListener = ActionListener.wrap(groupedListener::onResponse, e -> {
+                logger.debug(() -> new ParameterizedMessage("failed to find a snapshot of {} in repository [{}]", shardId,
+                    repository.getMetadata().name()), e);
+                groupedListener.onResponse(Optional.empty());
+            });
+            repository.getRepositoryData(repositoryListener.delegateFailure((l, repositoryData) ->
+                threadPool.executor(ThreadPool.Names.SNAPSHOT_META).execute(ActionRunnable.supply(l,
+                    () -> latestSnapshot(repository, repositoryData, shardId, historyUUID)))));
+        }
+    }
+
+    private static Optional<ShardSnapshot> latestSnapshot(BlobStoreRepository repository, RepositoryData repositoryData, ShardId shardId,
+                                                          String historyUUID) throws IOException {
+        final IndexId indexId = repositoryData.getIndices().get(shardId.getIndexName());
+        if (indexId == null) {
+            return Optional.empty();
+        }
+        // walk the snapshots newest first, the repository lists them in the order in which they completed
+        final List<SnapshotId> snapshotIds = new ArrayList<>(repositoryData.getSnapshots(indexId));
+        Collections.reverse(snapshotIds);
+        snapshotIds.sort(Comparator.comparingLong((SnapshotId snapshotId) ->
+            repositoryData.getSnapshotDetails(snapshotId).getStartTimeMillis()).reversed());
+        for (SnapshotId snapshotId : snapshotIds) {
+            if (repositoryData.getSnapshotState(snapshotId) != SnapshotState.SUCCESS) {
+                continue;
+            }
+            // the index may have been deleted and recreated under the same name since the snapshot was taken, in which case all older
+            // snapshots are of older incarnations of the index too
+            if (isSameIndex(repository, repositoryData, snapshotId, indexId, shardId) == false) {
+                break;
+            }
+            final BlobStoreIndexShardSnapshot shardSnapshot =
+                repository.loadShardSnapshot(repository.shardContainer(indexId, shardId.id()), snapshotId);
+            // a shard copy with a different history, e.g. one that was restored from another snapshot, shares no files with this shard,
+            // and neither do the older snapshots since a shard never returns to a previous history
+            if (historyUUID.equals(historyUUID(shardSnapshot)) == false) {
+                break;
+            }
+            return Optional.of(new ShardSnapshot(repository.getMetadata().name(), indexId, snapshotId, shardSnapshot));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Checks whether the given snapshot is a snapshot of the index of the given shard. The index UUID is part of the identifier of the
+     * index metadata that the repository data tracks, so the index metadata blob is only read for snapshots of older versions.
+     */
+    private static boolean isSameIndex(BlobStoreRepository repository, RepositoryData repositoryData, SnapshotId snapshotId,
+                                       IndexId indexId, ShardId shardId) throws IOException {
+        final String indexUUID = shardId.getIndex().getUUID();
+        final String identifier = repositoryData.indexMetaDataGenerations().snapshotIndexMetadataIdentifier(snapshotId, indexId);
+        if (identifier != null) {
+            return identifier.startsWith(indexUUID + "-");
+        }
+        final IndexMetadata indexMetadata = repository.getSnapshotIndexMetaData(repositoryData, snapshotId, indexId);
+        return indexUUID.equals(indexMetadata.getIndexUUID());
+    }
+
+    /**
+     * Reads the history UUID of the commit that the given shard snapshot was taken of. The segments file and the segment infos are small
+     * enough for their contents to be stored in the snapshot metadata, so this doesn't need to read any blobs.
+     */
+    @Nullable
+    static String historyUUID(BlobStoreIndexShardSnapshot shardSnapshot) throws IOException {
+        try (Directory directory = new ByteBuffersDirectory()) {
+            for (BlobStoreIndexShardSnapshot.FileInfo fileInfo : shardSnapshot.indexFiles()) {
+                final StoreFileMetadata md = fileInfo.metadata();
+                if (md.hashEqualsContents()) {
+                    final BytesRef content = md.hash();
+                    try (IndexOutput output = directory.createOutput(md.name(), IOContext.DEFAULT)) {
+                        output.writeBytes(content.bytes, content.offset, content.length);
+                    }
+                }
+            }
+            return SegmentInfos.readLatestCommit(directory).getUserData().get(Engine.HISTORY_UUID_KEY);
+        }
+    }
+
+    /**
+     * The files of a snapshot of a shard, and where to find them.
+     */
+    public static final class ShardSnapshot {
+        private final String repository;
+        private final IndexId indexId;
+        private final SnapshotId snapshotId;
+        private final long startTime;
+        private final Map<String, BlobStoreIndexShardSnapshot.FileInfo> files = new HashMap<>();
+
+        ShardSnapshot(String repository, IndexId indexId, SnapshotId snapshotId, BlobStoreIndexShardSnapshot shardSnapshot) {
+            this.repository = Objects.requireNonNull(repository);
+            this.indexId = Objects.requireNonNull(indexId);
+            this.snapshotId = Objects.requireNonNull(snapshotId);
+            this.startTime = shardSnapshot.startTime();
+            for (BlobStoreIndexShardSnapshot.FileInfo fileInfo : shardSnapshot.indexFiles()) {
+                files.put(fileInfo.physicalName(), fileInfo);
+            }
+        }
+
+        public String repository() {
+            return repository;
+        }
+
+        public IndexId indexId() {
+            return indexId;
+        }
+
+        public SnapshotId snapshotId() {
+            return snapshotId;
+        }
+
+        public long startTime() {
+            return startTime;
+        }
+
+        /**
+         * @return the file of this snapshot that is identical to the given file, or {@code null} if the snapshot has no such file
+         */
+        @Nullable
+        public BlobStoreIndexShardSnapshot.FileInfo matchingFile(StoreFileMetadata md) {
+            final BlobStoreIndexShardSnapshot.FileInfo fileInfo = files.get(md.name());
+            return fileInfo != null && fileInfo.isSame(md) ? fileInfo : null;
+        }
+    }
+}
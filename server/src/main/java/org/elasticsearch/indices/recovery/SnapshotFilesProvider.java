@@ -0,0 +1,45 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.indices.recovery;
+
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
+import org.elasticsearch.index.snapshots.blobstore.RateLimitingInputStream;
+import org.elasticsearch.repositories.IndexId;
+import org.elasticsearch.repositories.RepositoriesService;
+import org.elasticsearch.repositories.Repository;
+import org.elasticsearch.repositories.blobstore.BlobStoreRepository;
+
+import java.io.InputStream;
+import java.util.Objects;
+
+/**
+ * Gives the target of a peer recovery access to the files of shard snapshots, see {@link ShardSnapshotsService}.
+ */
+public class SnapshotFilesProvider {
+
+    private final RepositoriesService repositoriesService;
+
+    public SnapshotFilesProvider(RepositoriesService repositoriesService) {
+        this.repositoriesService = Objects.requireNonNull(repositoriesService);
+    }
+
+    /**
+     * Opens a stream over the contents of the given file of a snapshot of the given shard. The stream is throttled by the restore rate
+     * limit of the repository as well as by the recovery rate limit.
+     */
+    public InputStream openSnapshotFile(String repositoryName, IndexId indexId, ShardId shardId,
+                                        BlobStoreIndexShardSnapshot.FileInfo fileInfo, RateLimitingInputStream.Listener throttleListener) {
+        final Repository repository = repositoriesService.repository(repositoryName);
+        if (repository instanceof BlobStoreRepository == false) {
+            throw new IllegalStateException("repository [" + repositoryName + "] is not a blob store repository");
+        }
+        return ((BlobStoreRepository) repository).openSnapshotFileForRecovery(indexId, shardId.id(), fileInfo, throttleListener);
+    }
+}
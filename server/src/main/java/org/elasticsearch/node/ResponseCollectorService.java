@@ -17,6 +17,8 @@ import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.shard.ShardId;
 
 import java.io.IOException;
 import java.util.HashMap;
@@ -28,7 +30,9 @@ import java.util.concurrent.ConcurrentMap;
 /**
  * Collects statistics about queue size, response time, and service time of
  * tasks executed on each node, making the EWMA of the values available to the
- * coordinating node.
+ * coordinating node. It also keeps track of the last reported number of cached
+ * bytes of the shard copies held by each node, for shards which read their
+ * files through a local cache.
  */
 public final class ResponseCollectorService implements ClusterStateListener {
 
@@ -38,6 +42,7 @@ public final class ResponseCollectorService implements ClusterStateListener {
     public static final double ALPHA = 0.3;
 
     private final ConcurrentMap<String, NodeStatistics> nodeIdToStats = ConcurrentCollections.newConcurrentMap();
+    private final ConcurrentMap<String, ConcurrentMap<ShardId, Long>> nodeIdToShardCachedBytes = ConcurrentCollections.newConcurrentMap();
 
     public ResponseCollectorService(ClusterService clusterService) {
         clusterService.addListener(this);
@@ -50,10 +55,43 @@ public final class ResponseCollectorService implements ClusterStateListener {
                 removeNode(removedNode.getId());
             }
         }
+        for (Index deletedIndex : event.indicesDeleted()) {
+            removeIndex(deletedIndex);
+        }
     }
 
     void removeNode(String nodeId) {
         nodeIdToStats.remove(nodeId);
+        nodeIdToShardCachedBytes.remove(nodeId);
+    }
+
+    void removeIndex(Index index) {
+        for (ConcurrentMap<ShardId, Long> shardCachedBytes : nodeIdToShardCachedBytes.values()) {
+            shardCachedBytes.keySet().removeIf(shardId -> shardId.getIndex().equals(index));
+        }
+    }
+
+    /**
+     * Records the number of bytes of the given shard that the given node reported to hold in its local cache.
+     */
+    public void addShardCachedBytes(String nodeId, ShardId shardId, long cachedBytes) {
+        assert cachedBytes >= 0L : cachedBytes;
+        nodeIdToShardCachedBytes.computeIfAbsent(nodeId, id -> ConcurrentCollections.newConcurrentMap()).put(shardId, cachedBytes);
+    }
+
+    /**
+     * Returns the last reported number of bytes of the given shard held in the local cache of the given node, or {@code -1} if the
+     * node never reported it.
+     */
+    public long getShardCachedBytes(String nodeId, ShardId shardId) {
+        final ConcurrentMap<ShardId, Long> shardCachedBytes = nodeIdToShardCachedBytes.get(nodeId);
+        if (shardCachedBytes != null) {
+            final Long cachedBytes = shardCachedBytes.get(shardId);
+            if (cachedBytes != null) {
+                return cachedBytes;
+            }
+        }
+        return -1L;
     }
 
     public void addNodeStatistics(String nodeId, int queueSize, long responseTimeNanos, long avgServiceTimeNanos) {
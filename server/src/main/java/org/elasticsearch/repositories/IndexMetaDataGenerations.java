@@ -65,6 +65,20 @@ public final class IndexMetaDataGenerations {
         return identifiers.get(metaIdentifier);
     }
 
+    /**
+     * Get the identifier of the {@link IndexMetadata} of the given index in the given snapshot, as computed by
+     * {@link #buildUniqueIdentifier}, or {@code null} if the repository does not track it, which is the case for snapshots taken by
+     * versions older than {@link org.elasticsearch.snapshots.SnapshotsService#SHARD_GEN_IN_REPO_DATA_VERSION}.
+     *
+     * @param snapshotId Snapshot Id
+     * @param indexId    Index Id
+     * @return identifier of the index metadata or {@code null}
+     */
+    @Nullable
+    public String snapshotIndexMetadataIdentifier(SnapshotId snapshotId, IndexId indexId) {
+        return lookup.getOrDefault(snapshotId, Collections.emptyMap()).get(indexId);
+    }
+
     /**
      * Get the blob id by {@link SnapshotId} and {@link IndexId} and fall back to the value of {@link SnapshotId#getUUID()} if none is
      * known to enable backwards compatibility with versions older than
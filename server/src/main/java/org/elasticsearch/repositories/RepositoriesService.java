@@ -42,7 +42,9 @@ import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.core.internal.io.IOUtils;
 import org.elasticsearch.index.Index;
+import org.elasticsearch.repositories.blobstore.BlobStoreRepository;
 import org.elasticsearch.repositories.blobstore.MeteredBlobStoreRepository;
+import org.elasticsearch.repositories.blobstore.ShardSnapshotsCache;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.transport.TransportService;
 
@@ -96,6 +98,7 @@ public class RepositoriesService extends AbstractLifecycleComponent implements C
     private final Map<String, Repository> internalRepositories = ConcurrentCollections.newConcurrentMap();
     private volatile Map<String, Repository> repositories = Collections.emptyMap();
     private final RepositoriesStatsArchive repositoriesStatsArchive;
+    private final ShardSnapshotsCache shardSnapshotsCache;
 
     public RepositoriesService(
         Settings settings,
@@ -122,6 +125,7 @@ public class RepositoriesService extends AbstractLifecycleComponent implements C
             REPOSITORIES_STATS_ARCHIVE_MAX_ARCHIVED_STATS.get(settings),
             threadPool::relativeTimeInMillis
         );
+        this.shardSnapshotsCache = new ShardSnapshotsCache(settings);
     }
 
     /**
@@ -657,6 +661,13 @@ public class RepositoriesService extends AbstractLifecycleComponent implements C
         Repository repository = null;
         try {
             repository = factory.create(repositoryMetadata, factories::get);
+            Repository unwrapped = repository;
+            while (unwrapped instanceof FilterRepository) {
+                unwrapped = ((FilterRepository) unwrapped).getDelegate();
+            }
+            if (unwrapped instanceof BlobStoreRepository) {
+                ((BlobStoreRepository) unwrapped).setShardSnapshotsCache(shardSnapshotsCache);
+            }
             repository.start();
             return repository;
         } catch (Exception e) {
@@ -8,6 +8,7 @@
 
 package org.elasticsearch.repositories;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.io.stream.StreamOutput;
 import org.elasticsearch.common.io.stream.Writeable;
@@ -23,27 +24,58 @@ public class RepositoryStats implements Writeable {
     public static final RepositoryStats EMPTY_STATS = new RepositoryStats(Collections.emptyMap());
 
     public final Map<String, Long> requestCounts;
+    public final Map<String, Long> transferredBytes;
+    public final Map<String, Long> restoreStats;
 
     public RepositoryStats(Map<String, Long> requestCounts) {
+        this(requestCounts, Collections.emptyMap());
+    }
+
+    public RepositoryStats(Map<String, Long> requestCounts, Map<String, Long> transferredBytes) {
+        this(requestCounts, transferredBytes, Collections.emptyMap());
+    }
+
+    public RepositoryStats(Map<String, Long> requestCounts, Map<String, Long> transferredBytes, Map<String, Long> restoreStats) {
         this.requestCounts = Collections.unmodifiableMap(requestCounts);
+        this.transferredBytes = Collections.unmodifiableMap(transferredBytes);
+        this.restoreStats = Collections.unmodifiableMap(restoreStats);
     }
 
     public RepositoryStats(StreamInput in) throws IOException {
         this.requestCounts = in.readMap(StreamInput::readString, StreamInput::readLong);
+        if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+            this.transferredBytes = in.readMap(StreamInput::readString, StreamInput::readLong);
+            this.restoreStats = in.readMap(StreamInput::readString, StreamInput::readLong);
+        } else {
+            this.transferredBytes = Collections.emptyMap();
+            this.restoreStats = Collections.emptyMap();
+        }
     }
 
     public RepositoryStats merge(RepositoryStats otherStats) {
+        return new RepositoryStats(
+            merge(requestCounts, otherStats.requestCounts),
+            merge(transferredBytes, otherStats.transferredBytes),
+            merge(restoreStats, otherStats.restoreStats)
+        );
+    }
+
+    private static Map<String, Long> merge(Map<String, Long> stats, Map<String, Long> otherStats) {
         final Map<String, Long> result = new HashMap<>();
-        result.putAll(requestCounts);
-        for (Map.Entry<String, Long> entry : otherStats.requestCounts.entrySet()) {
+        result.putAll(stats);
+        for (Map.Entry<String, Long> entry : otherStats.entrySet()) {
             result.merge(entry.getKey(), entry.getValue(), Math::addExact);
         }
-        return new RepositoryStats(result);
+        return result;
     }
 
     @Override
     public void writeTo(StreamOutput out) throws IOException {
         out.writeMap(requestCounts, StreamOutput::writeString, StreamOutput::writeLong);
+        if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+            out.writeMap(transferredBytes, StreamOutput::writeString, StreamOutput::writeLong);
+            out.writeMap(restoreStats, StreamOutput::writeString, StreamOutput::writeLong);
+        }
     }
 
     @Override
@@ -51,16 +83,19 @@ public class RepositoryStats implements Writeable {
         if (this == o) return true;
         if (o == null || getClass() != o.getClass()) return false;
         RepositoryStats that = (RepositoryStats) o;
-        return requestCounts.equals(that.requestCounts);
+        return requestCounts.equals(that.requestCounts)
+            && transferredBytes.equals(that.transferredBytes)
+            && restoreStats.equals(that.restoreStats);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(requestCounts);
+        return Objects.hash(requestCounts, transferredBytes, restoreStats);
     }
 
     @Override
     public String toString() {
-        return "RepositoryStats{" + "requestCounts=" + requestCounts + '}';
+        return "RepositoryStats{" + "requestCounts=" + requestCounts + ", transferredBytes=" + transferredBytes
+            + ", restoreStats=" + restoreStats + '}';
     }
 }
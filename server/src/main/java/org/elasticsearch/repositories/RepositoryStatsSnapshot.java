@@ -69,6 +69,8 @@ public final class RepositoryStatsSnapshot implements Writeable, ToXContentObjec
         builder.startObject();
         repositoryInfo.toXContent(builder, params);
         builder.field("request_counts", repositoryStats.requestCounts);
+        builder.field("transferred_bytes", repositoryStats.transferredBytes);
+        builder.field("restore", repositoryStats.restoreStats);
         builder.field("archived", archived);
         if (archived) {
             builder.field("cluster_version", clusterVersion);
@@ -55,6 +55,7 @@ import org.elasticsearch.common.blobstore.fs.FsBlobContainer;
 import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.component.AbstractLifecycleComponent;
 import org.elasticsearch.common.compress.NotXContentException;
+import org.elasticsearch.common.hash.MessageDigests;
 import org.elasticsearch.common.io.Streams;
 import org.elasticsearch.common.lucene.Lucene;
 import org.elasticsearch.common.lucene.store.InputStreamIndexInput;
@@ -114,14 +115,17 @@ import org.elasticsearch.snapshots.SnapshotsService;
 import org.elasticsearch.tasks.TaskCancelledException;
 import org.elasticsearch.threadpool.ThreadPool;
 
+import java.io.ByteArrayInputStream;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.NoSuchFileException;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -225,6 +229,16 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         Setting.Property.NodeScope
     );
 
+    /**
+     * When set to true, peer recoveries may download the files of a shard that are identical to those of the latest snapshot of the
+     * shard in this repository, rather than copying them from the primary.
+     */
+    public static final Setting<Boolean> USE_FOR_PEER_RECOVERY_SETTING = Setting.boolSetting(
+        "use_for_peer_recovery",
+        false,
+        Setting.Property.NodeScope
+    );
+
     /**
      * Setting to disable writing the {@code index.latest} blob which enables the contents of this repository to be used with a
      * url-repository.
@@ -242,6 +256,37 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         Setting.Property.NodeScope
     );
 
+    /**
+     * When set to true, files are split into content defined chunks which are stored by their hash in a container that all shards share,
+     * so that chunks with the same content are uploaded and stored only once across all shards and snapshots of the repository. Chunks
+     * that are no longer referenced are removed when deleting the snapshots that referenced them and by the repository cleanup, see
+     * {@link #cleanup}. Changing the setting does not invalidate
+     * existing snapshots, since each file records whether it was stored as chunks. Files are only stored as chunks once all nodes can read
+     * them, see {@link SnapshotsService#useContentDefinedChunks}.
+     */
+    public static final Setting<Boolean> CONTENT_DEFINED_CHUNKING_SETTING = Setting.boolSetting(
+        "content_defined_chunking",
+        false,
+        Setting.Property.NodeScope
+    );
+
+    /**
+     * The average size of the content defined chunks, see {@link #CONTENT_DEFINED_CHUNKING_SETTING}. Smaller chunks find more duplicate
+     * content but require more requests to the repository.
+     */
+    public static final Setting<ByteSizeValue> CONTENT_DEFINED_CHUNK_SIZE_SETTING = Setting.byteSizeSetting(
+        "content_defined_chunking.average_size",
+        new ByteSizeValue(1, ByteSizeUnit.MB),
+        new ByteSizeValue(64, ByteSizeUnit.KB),
+        new ByteSizeValue(64, ByteSizeUnit.MB),
+        Setting.Property.NodeScope
+    );
+
+    /**
+     * Name of the container that holds the content defined chunks of all shards.
+     */
+    public static final String CHUNKS_PATH = "chunks";
+
     protected final boolean supportURLRepo;
 
     private final boolean compress;
@@ -256,6 +301,17 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
 
     private final CounterMetric restoreRateLimitingTimeInNanos = new CounterMetric();
 
+    private volatile long maxRestoreBytesInFlight;
+
+    private final FileRestoreScheduler restoreScheduler;
+
+    /**
+     * Node level cache of shard level snapshot metadata that is shared with the other repositories of the node, set by the
+     * {@link RepositoriesService} before it starts this repository, or {@code null} if this repository does not use a cache.
+     */
+    @Nullable
+    private volatile ShardSnapshotsCache shardSnapshotsCache;
+
     public static final ChecksumBlobStoreFormat<Metadata> GLOBAL_METADATA_FORMAT = new ChecksumBlobStoreFormat<>(
         "metadata",
         METADATA_NAME_FORMAT,
@@ -302,16 +358,32 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         Setting.Property.NodeScope
     );
 
+    /**
+     * Setting that defines how many bytes the node reads from this repository at once to restore files, across all the shards it restores.
+     * Each file being restored counts with the smaller of its length and {@link #BUFFER_SIZE_SETTING}, the window it is read through.
+     */
+    public static final Setting<ByteSizeValue> MAX_RESTORE_BYTES_IN_FLIGHT = Setting.byteSizeSetting(
+        "max_restore_bytes_in_flight",
+        new ByteSizeValue(128, ByteSizeUnit.MB),
+        ByteSizeValue.ZERO,
+        new ByteSizeValue(Long.MAX_VALUE),
+        Setting.Property.Dynamic,
+        Setting.Property.NodeScope
+    );
+
     /**
      * Repository settings that can be updated dynamically without having to create a new repository.
      */
     private static final Set<String> DYNAMIC_SETTING_NAMES = Set.of(
         MAX_SNAPSHOT_BYTES_PER_SEC.getKey(),
-        MAX_RESTORE_BYTES_PER_SEC.getKey()
+        MAX_RESTORE_BYTES_PER_SEC.getKey(),
+        MAX_RESTORE_BYTES_IN_FLIGHT.getKey()
     );
 
     private final boolean readOnly;
 
+    private final boolean useForPeerRecovery;
+
     private final Object lock = new Object();
 
     private final SetOnce<BlobContainer> blobContainer = new SetOnce<>();
@@ -363,6 +435,12 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
      */
     private final int maxSnapshotCount;
 
+    /**
+     * Splits files into content defined chunks, or {@code null} if files are stored as parts.
+     */
+    @Nullable
+    private final ContentDefinedChunker chunker;
+
     /**
      * Constructs new BlobStoreRepository
      * @param metadata   The metadata for this repository including name and settings
@@ -385,12 +463,18 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         this.supportURLRepo = SUPPORT_URL_REPO.get(metadata.settings());
         snapshotRateLimiter = getRateLimiter(metadata.settings(), MAX_SNAPSHOT_BYTES_PER_SEC);
         restoreRateLimiter = getRateLimiter(metadata.settings(), MAX_RESTORE_BYTES_PER_SEC);
+        maxRestoreBytesInFlight = MAX_RESTORE_BYTES_IN_FLIGHT.get(metadata.settings()).getBytes();
         readOnly = metadata.settings().getAsBoolean(READONLY_SETTING_KEY, false);
+        useForPeerRecovery = USE_FOR_PEER_RECOVERY_SETTING.get(metadata.settings());
         cacheRepositoryData = CACHE_REPOSITORY_DATA.get(metadata.settings());
         bufferSize = Math.toIntExact(BUFFER_SIZE_SETTING.get(metadata.settings()).getBytes());
+        restoreScheduler = new FileRestoreScheduler(threadPool, () -> maxRestoreBytesInFlight, bufferSize);
         this.namedXContentRegistry = namedXContentRegistry;
         this.basePath = basePath;
         this.maxSnapshotCount = MAX_SNAPSHOTS_SETTING.get(metadata.settings());
+        this.chunker = CONTENT_DEFINED_CHUNKING_SETTING.get(metadata.settings())
+            ? new ContentDefinedChunker(CONTENT_DEFINED_CHUNK_SIZE_SETTING.get(metadata.settings()).getBytes())
+            : null;
     }
 
     @Override
@@ -401,6 +485,15 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         if (chunkSize != null && chunkSize.getBytes() <= 0) {
             throw new IllegalArgumentException("the chunk size cannot be negative: [" + chunkSize + "]");
         }
+        if (chunker != null && chunkSize != null && chunker.maxSize() > chunkSize.getBytes()) {
+            throw new IllegalArgumentException(
+                "content defined chunks can grow to four times ["
+                    + CONTENT_DEFINED_CHUNK_SIZE_SETTING.getKey()
+                    + "] which must not exceed the chunk size ["
+                    + chunkSize
+                    + "]"
+            );
+        }
     }
 
     @Override
@@ -555,12 +648,7 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                 target.getUUID(),
                 compress
             );
-            INDEX_SHARD_SNAPSHOTS_FORMAT.write(
-                existingSnapshots.withClone(source.getName(), target.getName()),
-                shardContainer,
-                newGen,
-                compress
-            );
+            writeShardSnapshots(existingSnapshots.withClone(source.getName(), target.getName()), shardContainer, newGen);
             return new ShardSnapshotResult(
                 newGen,
                 ByteSizeValue.ofBytes(sourceMeta.totalSize()),
@@ -598,6 +686,7 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         if (updatedSettings.equals(previousSettings) == false) {
             snapshotRateLimiter = getRateLimiter(metadata.settings(), MAX_SNAPSHOT_BYTES_PER_SEC);
             restoreRateLimiter = getRateLimiter(metadata.settings(), MAX_RESTORE_BYTES_PER_SEC);
+            maxRestoreBytesInFlight = MAX_RESTORE_BYTES_IN_FLIGHT.get(metadata.settings()).getBytes();
         }
 
         uncleanStart = uncleanStart && metadata.generation() != metadata.pendingGeneration();
@@ -722,6 +811,13 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         return basePath;
     }
 
+    /**
+     * Returns the container that holds the content defined chunks of all shards, see {@link #CONTENT_DEFINED_CHUNKING_SETTING}.
+     */
+    public BlobContainer chunksContainer() {
+        return blobStore().blobContainer(basePath().add(CHUNKS_PATH));
+    }
+
     /**
      * Returns true if metadata and snapshot files should be compressed
      *
@@ -753,7 +849,7 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         if (store == null) {
             return RepositoryStats.EMPTY_STATS;
         }
-        return new RepositoryStats(store.stats());
+        return new RepositoryStats(store.stats(), store.transferredBytes(), restoreScheduler.stats());
     }
 
     @Override
@@ -894,7 +990,7 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                 // Run unreferenced blobs cleanup in parallel to shard-level snapshot deletion
                 final ActionListener<Void> afterCleanupsListener = new GroupedActionListener<>(
                     ActionListener.wrap(() -> listener.onResponse(updatedRepoData)),
-                    2
+                    3
                 );
                 cleanupUnlinkedRootAndIndicesBlobs(snapshotIds, foundIndices, rootBlobs, updatedRepoData, afterCleanupsListener);
                 asyncCleanupUnlinkedShardLevelBlobs(
@@ -903,6 +999,13 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                     writeShardMetaDataAndComputeDeletesStep.result(),
                     afterCleanupsListener
                 );
+                asyncCleanupUnlinkedChunks(
+                    updatedRepoData,
+                    foundIndices,
+                    snapshotIds,
+                    writeShardMetaDataAndComputeDeletesStep.result(),
+                    afterCleanupsListener
+                );
             }, listener::onFailure);
         } else {
             // Write the new repository data first (with the removed snapshot), using no shard generations
@@ -956,6 +1059,43 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         }));
     }
 
+    /**
+     * Deletes the content defined chunks that the deleted snapshots referenced and that no remaining shard snapshot references. A delete
+     * only runs while no snapshot writes to the repository, so no running snapshot can reference any of these chunks.
+     */
+    private void asyncCleanupUnlinkedChunks(
+        RepositoryData updatedRepoData,
+        Map<String, BlobContainer> foundIndices,
+        Collection<SnapshotId> snapshotIds,
+        Collection<ShardSnapshotMetaDeleteResult> deleteResults,
+        ActionListener<Void> listener
+    ) {
+        final Set<String> candidates = new HashSet<>();
+        for (ShardSnapshotMetaDeleteResult deleteResult : deleteResults) {
+            if (deleteResult != null) {
+                candidates.addAll(deleteResult.chunksToDelete);
+            }
+        }
+        if (candidates.isEmpty()) {
+            listener.onResponse(null);
+            return;
+        }
+        threadPool.executor(ThreadPool.Names.SNAPSHOT).execute(ActionRunnable.wrap(listener, l -> {
+            try {
+                // other shards may store the same content as the same chunks
+                removeReferencedChunks(updatedRepoData, foundIndices, candidates);
+                if (candidates.isEmpty() == false) {
+                    logger.debug("[{}] Found [{}] stale chunks. Cleaning them up", metadata.name(), candidates.size());
+                    deleteFromContainer(chunksContainer(), candidates.iterator());
+                }
+            } catch (Exception e) {
+                // the repository cleanup removes the chunks left behind
+                logger.warn(() -> new ParameterizedMessage("{} Failed to delete some chunks during snapshot delete", snapshotIds), e);
+            }
+            l.onResponse(null);
+        }));
+    }
+
     // updates the shard state metadata for shards of a snapshot that is to be deleted. Also computes the files to be cleaned up.
     private void writeUpdatedShardMetaDataAndComputeDeletes(
         Collection<SnapshotId> snapshotIds,
@@ -1157,6 +1297,7 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
      * <ul>
      *     <li>Deleting stale indices {@link #cleanupStaleIndices}</li>
      *     <li>Deleting unreferenced root level blobs {@link #cleanupStaleRootFiles}</li>
+     *     <li>Deleting unreferenced content defined chunks {@link #cleanupStaleChunks}</li>
      * </ul>
      * @param repositoryStateId     Current repository state id
      * @param repositoryMetaVersion version of the updated repository metadata to write
@@ -1176,7 +1317,8 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                 .map(IndexId::getId)
                 .collect(Collectors.toSet());
             final List<String> staleRootBlobs = staleRootBlobs(repositoryData, rootBlobs.keySet());
-            if (survivingIndexIds.equals(foundIndices.keySet()) && staleRootBlobs.isEmpty()) {
+            final Map<String, BlobMetadata> staleChunks = staleChunks(repositoryData, foundIndices);
+            if (survivingIndexIds.equals(foundIndices.keySet()) && staleRootBlobs.isEmpty() && staleChunks.isEmpty()) {
                 // Nothing to clean up we return
                 listener.onResponse(new RepositoryCleanupResult(DeleteResult.ZERO));
             } else {
@@ -1192,7 +1334,7 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                             foundIndices,
                             rootBlobs,
                             repositoryData,
-                            listener.map(RepositoryCleanupResult::new)
+                            listener.map(deleteResult -> new RepositoryCleanupResult(deleteResult.add(cleanupStaleChunks(staleChunks))))
                         ),
                         listener::onFailure
                     )
@@ -1203,6 +1345,80 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         }
     }
 
+    /**
+     * Finds the content defined chunks that no shard snapshot references any more. Must only be called while no snapshot runs, since a
+     * running snapshot may have uploaded chunks that no shard generation references yet.
+     */
+    private Map<String, BlobMetadata> staleChunks(RepositoryData repositoryData, Map<String, BlobContainer> foundIndices)
+        throws IOException {
+        final Map<String, BlobMetadata> staleChunks = new HashMap<>(chunksContainer().listBlobs());
+        if (staleChunks.isEmpty() == false) {
+            removeReferencedChunks(repositoryData, foundIndices, staleChunks.keySet());
+        }
+        return staleChunks;
+    }
+
+    /**
+     * Removes the chunks that the latest shard generation of any shard references from the given chunks.
+     */
+    private void removeReferencedChunks(RepositoryData repositoryData, Map<String, BlobContainer> foundIndices, Set<String> chunks)
+        throws IOException {
+        for (IndexId indexId : repositoryData.getIndices().values()) {
+            final BlobContainer indexContainer = foundIndices.get(indexId.getId());
+            if (indexContainer == null) {
+                continue;
+            }
+            for (String shardPath : indexContainer.children().keySet()) {
+                final int shardId;
+                try {
+                    shardId = Integer.parseInt(shardPath);
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                final String generation = repositoryData.shardGenerations().getShardGen(indexId, shardId);
+                if (ShardGenerations.DELETED_SHARD_GEN.equals(generation) || ShardGenerations.NEW_SHARD_GEN.equals(generation)) {
+                    continue;
+                }
+                final BlobContainer shardContainer = shardContainer(indexId, shardId);
+                // without a known generation the latest index-N blob is found by listing the shard container
+                final Set<String> blobs = generation == null
+                    ? shardContainer.listBlobsByPrefix(INDEX_FILE_PREFIX).keySet()
+                    : Collections.emptySet();
+                for (SnapshotFiles snapshotFiles : buildBlobStoreIndexShardSnapshots(blobs, shardContainer, generation).v1()) {
+                    for (BlobStoreIndexShardSnapshot.FileInfo fileInfo : snapshotFiles.indexFiles()) {
+                        for (BlobStoreIndexShardSnapshot.FileInfo.Chunk chunk : fileInfo.chunks()) {
+                            chunks.remove(chunk.hash());
+                        }
+                    }
+                }
+                if (chunks.isEmpty()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private DeleteResult cleanupStaleChunks(Map<String, BlobMetadata> staleChunks) {
+        if (staleChunks.isEmpty()) {
+            return DeleteResult.ZERO;
+        }
+        try {
+            logger.debug("[{}] Found [{}] stale chunks. Cleaning them up", metadata.name(), staleChunks.size());
+            deleteFromContainer(chunksContainer(), staleChunks.keySet().iterator());
+            return new DeleteResult(staleChunks.size(), staleChunks.values().stream().mapToLong(BlobMetadata::length).sum());
+        } catch (Exception e) {
+            logger.warn(
+                () -> new ParameterizedMessage(
+                    "[{}] [{}] chunks are no longer part of any snapshot but failed to remove them",
+                    metadata.name(),
+                    staleChunks.size()
+                ),
+                e
+            );
+        }
+        return DeleteResult.ZERO;
+    }
+
     // Finds all blobs directly under the repository root path that are not referenced by the current RepositoryData
     private static List<String> staleRootBlobs(RepositoryData repositoryData, Set<String> rootBlobNames) {
         final Set<String> allSnapshotIds = repositoryData.getSnapshotIds().stream().map(SnapshotId::getUUID).collect(Collectors.toSet());
@@ -1566,6 +1782,51 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         return blobStore().blobContainer(indicesPath().add(indexId.getId()).add(Integer.toString(shardId)));
     }
 
+    /**
+     * Opens a stream over the contents of a file of a shard snapshot for a peer recovery. The stream is throttled like a restore, see
+     * {@link #maybeRateLimitRestores(InputStream, RateLimitingInputStream.Listener)}.
+     */
+    public InputStream openSnapshotFileForRecovery(
+        IndexId indexId,
+        int shardId,
+        BlobStoreIndexShardSnapshot.FileInfo fileInfo,
+        RateLimitingInputStream.Listener throttleListener
+    ) {
+        if (fileInfo.name().startsWith(VIRTUAL_DATA_BLOB_PREFIX)) {
+            // the contents of small files are stored in the shard snapshot metadata itself
+            final BytesRef hash = fileInfo.metadata().hash();
+            return new ByteArrayInputStream(hash.bytes, hash.offset, hash.length);
+        }
+        return maybeRateLimitRestores(openFile(shardContainer(indexId, shardId), fileInfo, () -> {}), throttleListener);
+    }
+
+    /**
+     * Opens a stream over the contents of a file of a shard snapshot, reading its parts from the given shard container or its content
+     * defined chunks from the {@link #chunksContainer()}.
+     *
+     * @param beforeRead runs before each part or chunk is opened, e.g. to abort the read
+     */
+    private InputStream openFile(BlobContainer shardContainer, BlobStoreIndexShardSnapshot.FileInfo fileInfo, Runnable beforeRead) {
+        final List<BlobStoreIndexShardSnapshot.FileInfo.Chunk> chunks = fileInfo.chunks();
+        if (chunks.isEmpty()) {
+            return new SlicedInputStream(fileInfo.numberOfParts()) {
+                @Override
+                protected InputStream openSlice(int slice) throws IOException {
+                    beforeRead.run();
+                    return shardContainer.readBlob(fileInfo.partName(slice));
+                }
+            };
+        }
+        final BlobContainer chunksContainer = chunksContainer();
+        return new SlicedInputStream(chunks.size()) {
+            @Override
+            protected InputStream openSlice(int slice) throws IOException {
+                beforeRead.run();
+                return chunksContainer.readBlob(chunks.get(slice).hash());
+            }
+        };
+    }
+
     /**
      * Configures RateLimiter based on repository and global settings
      *
@@ -2068,6 +2329,13 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         return readOnly;
     }
 
+    /**
+     * @return whether peer recoveries may download files from the snapshots in this repository, see {@link #USE_FOR_PEER_RECOVERY_SETTING}
+     */
+    public boolean useForPeerRecovery() {
+        return useForPeerRecovery;
+    }
+
     /**
      * Writing a new index generation is a three step process.
      * First, the {@link RepositoryMetadata} entry for this repository is set into a pending state by incrementing its
@@ -2669,33 +2937,52 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
 
             final String indexGeneration;
             final boolean writeShardGens = SnapshotsService.useShardGenerations(context.getRepositoryMetaVersion());
-            // build a new BlobStoreIndexShardSnapshot, that includes this one and all the saved ones
-            List<SnapshotFiles> newSnapshotsList = new ArrayList<>();
-            newSnapshotsList.add(new SnapshotFiles(snapshotId.getName(), indexCommitPointFiles, context.stateIdentifier()));
-            for (SnapshotFiles point : snapshots) {
-                newSnapshotsList.add(point);
+            // files are only stored as content defined chunks once all nodes can read them
+            final ChunkedUploads chunkedUploads;
+            if (chunker != null
+                && SnapshotsService.useContentDefinedChunks(context.getRepositoryMetaVersion())
+                && filesToSnapshot.stream().anyMatch(fileInfo -> fileInfo.length() >= chunker.averageSize())) {
+                chunkedUploads = new ChunkedUploads(snapshots);
+            } else {
+                chunkedUploads = null;
             }
-            final BlobStoreIndexShardSnapshots updatedBlobStoreIndexShardSnapshots = new BlobStoreIndexShardSnapshots(newSnapshotsList);
-            final Runnable afterWriteSnapBlob;
+            // build a new BlobStoreIndexShardSnapshot, that includes this one and all the saved ones
+            final Function<List<BlobStoreIndexShardSnapshot.FileInfo>, BlobStoreIndexShardSnapshots> updatedShardSnapshots = files -> {
+                List<SnapshotFiles> newSnapshotsList = new ArrayList<>();
+                newSnapshotsList.add(new SnapshotFiles(snapshotId.getName(), files, context.stateIdentifier()));
+                for (SnapshotFiles point : snapshots) {
+                    newSnapshotsList.add(point);
+                }
+                return new BlobStoreIndexShardSnapshots(newSnapshotsList);
+            };
+            final Consumer<List<BlobStoreIndexShardSnapshot.FileInfo>> afterWriteSnapBlob;
             if (writeShardGens) {
-                // When using shard generations we can safely write the index-${uuid} blob before writing out any of the actual data
-                // for this shard since the uuid named blob will simply not be referenced in case of error and thus we will never
-                // reference a generation that has not had all its files fully upload.
                 indexGeneration = UUIDs.randomBase64UUID();
-                try {
-                    INDEX_SHARD_SNAPSHOTS_FORMAT.write(updatedBlobStoreIndexShardSnapshots, shardContainer, indexGeneration, compress);
-                } catch (IOException e) {
-                    throw new IndexShardSnapshotFailedException(
-                        shardId,
-                        "Failed to write shard level snapshot metadata for ["
-                            + snapshotId
-                            + "] to ["
-                            + INDEX_SHARD_SNAPSHOTS_FORMAT.blobName(indexGeneration)
-                            + "]",
-                        e
-                    );
+                final Consumer<List<BlobStoreIndexShardSnapshot.FileInfo>> writeShardGeneration = files -> {
+                    try {
+                        writeShardSnapshots(updatedShardSnapshots.apply(files), shardContainer, indexGeneration);
+                    } catch (IOException e) {
+                        throw new IndexShardSnapshotFailedException(
+                            shardId,
+                            "Failed to write shard level snapshot metadata for ["
+                                + snapshotId
+                                + "] to ["
+                                + INDEX_SHARD_SNAPSHOTS_FORMAT.blobName(indexGeneration)
+                                + "]",
+                            e
+                        );
+                    }
+                };
+                if (chunkedUploads == null) {
+                    // When using shard generations we can safely write the index-${uuid} blob before writing out any of the actual data
+                    // for this shard since the uuid named blob will simply not be referenced in case of error and thus we will never
+                    // reference a generation that has not had all its files fully upload.
+                    writeShardGeneration.accept(indexCommitPointFiles);
+                    afterWriteSnapBlob = files -> {};
+                } else {
+                    // The chunks of the files are only known once they are uploaded, so the index-${uuid} blob is written afterwards.
+                    afterWriteSnapBlob = writeShardGeneration;
                 }
-                afterWriteSnapBlob = () -> {};
             } else {
                 // When not using shard generations we can only write the index-${N} blob after all other work for this shard has
                 // completed.
@@ -2714,9 +3001,9 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                         + indexGeneration
                         + "] when deleting index-N blobs "
                         + blobsToDelete;
-                afterWriteSnapBlob = () -> {
+                afterWriteSnapBlob = files -> {
                     try {
-                        writeShardIndexBlobAtomic(shardContainer, newGen, updatedBlobStoreIndexShardSnapshots);
+                        writeShardIndexBlobAtomic(shardContainer, newGen, updatedShardSnapshots.apply(files));
                     } catch (IOException e) {
                         throw new IndexShardSnapshotFailedException(
                             shardId,
@@ -2749,10 +3036,13 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
 
                 // now create and write the commit point
                 logger.trace("[{}] [{}] writing shard snapshot file", shardId, snapshotId);
+                final List<BlobStoreIndexShardSnapshot.FileInfo> snapshotFiles = chunkedUploads == null
+                    ? indexCommitPointFiles
+                    : chunkedUploads.withChunks(indexCommitPointFiles);
                 final BlobStoreIndexShardSnapshot blobStoreIndexShardSnapshot = new BlobStoreIndexShardSnapshot(
                     snapshotId.getName(),
                     lastSnapshotStatus.getIndexVersion(),
-                    indexCommitPointFiles,
+                    snapshotFiles,
                     lastSnapshotStatus.getStartTime(),
                     threadPool.absoluteTimeInMillis() - lastSnapshotStatus.getStartTime(),
                     lastSnapshotStatus.getIncrementalFileCount(),
@@ -2764,7 +3054,7 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                 } catch (IOException e) {
                     throw new IndexShardSnapshotFailedException(shardId, "Failed to write commit point", e);
                 }
-                afterWriteSnapBlob.run();
+                afterWriteSnapBlob.accept(snapshotFiles);
                 final ShardSnapshotResult shardSnapshotResult = new ShardSnapshotResult(
                     indexGeneration,
                     ByteSizeValue.ofBytes(blobStoreIndexShardSnapshot.totalSize()),
@@ -2782,7 +3072,16 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
             final int workers = Math.min(threadPool.info(ThreadPool.Names.SNAPSHOT).getMax(), indexIncrementalFileCount);
             final ActionListener<Void> filesListener = fileQueueListener(filesToSnapshot, workers, allFilesUploadedListener);
             for (int i = 0; i < workers; ++i) {
-                executeOneFileSnapshot(store, snapshotId, context.indexId(), snapshotStatus, filesToSnapshot, executor, filesListener);
+                executeOneFileSnapshot(
+                    store,
+                    snapshotId,
+                    context.indexId(),
+                    snapshotStatus,
+                    filesToSnapshot,
+                    chunkedUploads,
+                    executor,
+                    filesListener
+                );
             }
         } catch (Exception e) {
             context.onFailure(e);
@@ -2795,6 +3094,7 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         IndexId indexId,
         IndexShardSnapshotStatus snapshotStatus,
         BlockingQueue<BlobStoreIndexShardSnapshot.FileInfo> filesToSnapshot,
+        @Nullable ChunkedUploads chunkedUploads,
         Executor executor,
         ActionListener<Void> listener
     ) throws InterruptedException {
@@ -2805,8 +3105,8 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         } else {
             executor.execute(ActionRunnable.wrap(listener, l -> {
                 try (Releasable ignored = incrementStoreRef(store, snapshotStatus, shardId)) {
-                    snapshotFile(snapshotFileInfo, indexId, shardId, snapshotId, snapshotStatus, store);
-                    executeOneFileSnapshot(store, snapshotId, indexId, snapshotStatus, filesToSnapshot, executor, l);
+                    snapshotFile(snapshotFileInfo, indexId, shardId, snapshotId, snapshotStatus, store, chunkedUploads);
+                    executeOneFileSnapshot(store, snapshotId, indexId, snapshotStatus, filesToSnapshot, chunkedUploads, executor, l);
                 }
             }));
         }
@@ -2870,45 +3170,16 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                     Store store,
                     ActionListener<Void> listener
                 ) {
-                    if (filesToRecover.isEmpty()) {
-                        listener.onResponse(null);
-                    } else {
-                        // Start as many workers as fit into the snapshot pool at once at the most
-                        final int workers = Math.min(
-                            threadPool.info(ThreadPool.Names.SNAPSHOT).getMax(),
-                            snapshotFiles.indexFiles().size()
-                        );
-                        final BlockingQueue<BlobStoreIndexShardSnapshot.FileInfo> files = new LinkedBlockingQueue<>(filesToRecover);
-                        final ActionListener<Void> allFilesListener = fileQueueListener(files, workers, listener.map(v -> null));
-                        // restore the files from the snapshot to the Lucene store
-                        for (int i = 0; i < workers; ++i) {
-                            try {
-                                executeOneFileRestore(files, allFilesListener);
-                            } catch (Exception e) {
-                                allFilesListener.onFailure(e);
-                            }
+                    // restore the files from the snapshot to the Lucene store, together with the files of the other shards that this
+                    // node restores from the repository
+                    restoreScheduler.restoreFiles(filesToRecover, fileToRecover -> {
+                        store.incRef();
+                        try {
+                            restoreFile(fileToRecover, store);
+                        } finally {
+                            store.decRef();
                         }
-                    }
-                }
-
-                private void executeOneFileRestore(
-                    BlockingQueue<BlobStoreIndexShardSnapshot.FileInfo> files,
-                    ActionListener<Void> allFilesListener
-                ) throws InterruptedException {
-                    final BlobStoreIndexShardSnapshot.FileInfo fileToRecover = files.poll(0L, TimeUnit.MILLISECONDS);
-                    if (fileToRecover == null) {
-                        allFilesListener.onResponse(null);
-                    } else {
-                        executor.execute(ActionRunnable.wrap(allFilesListener, filesListener -> {
-                            store.incRef();
-                            try {
-                                restoreFile(fileToRecover, store);
-                            } finally {
-                                store.decRef();
-                            }
-                            executeOneFileRestore(files, filesListener);
-                        }));
-                    }
+                    }, listener);
                 }
 
                 private void restoreFile(BlobStoreIndexShardSnapshot.FileInfo fileInfo, Store store) throws IOException {
@@ -2927,13 +3198,9 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                             indexOutput.writeBytes(hash.bytes, hash.offset, hash.length);
                             recoveryState.getIndex().addRecoveredBytesToFile(fileInfo.physicalName(), hash.length);
                         } else {
-                            try (InputStream stream = maybeRateLimitRestores(new SlicedInputStream(fileInfo.numberOfParts()) {
-                                @Override
-                                protected InputStream openSlice(int slice) throws IOException {
-                                    ensureNotClosing(store);
-                                    return container.readBlob(fileInfo.partName(slice));
-                                }
-                            })) {
+                            try (
+                                InputStream stream = maybeRateLimitRestores(openFile(container, fileInfo, () -> ensureNotClosing(store)))
+                            ) {
                                 final byte[] buffer = new byte[Math.toIntExact(Math.min(bufferSize, fileInfo.length()))];
                                 int length;
                                 while ((length = stream.read(buffer)) > 0) {
@@ -3125,15 +3392,22 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                 newSnapshotsList.add(point);
             }
         }
+        final Set<String> unusedChunks = unusedChunks(snapshots, newSnapshotsList);
         String writtenGeneration = null;
         try {
             if (newSnapshotsList.isEmpty()) {
-                return new ShardSnapshotMetaDeleteResult(indexId, snapshotShardId, ShardGenerations.DELETED_SHARD_GEN, blobs);
+                return new ShardSnapshotMetaDeleteResult(
+                    indexId,
+                    snapshotShardId,
+                    ShardGenerations.DELETED_SHARD_GEN,
+                    blobs,
+                    unusedChunks
+                );
             } else {
                 final BlobStoreIndexShardSnapshots updatedSnapshots = new BlobStoreIndexShardSnapshots(newSnapshotsList);
                 if (indexGeneration < 0L) {
                     writtenGeneration = UUIDs.randomBase64UUID();
-                    INDEX_SHARD_SNAPSHOTS_FORMAT.write(updatedSnapshots, shardContainer, writtenGeneration, compress);
+                    writeShardSnapshots(updatedSnapshots, shardContainer, writtenGeneration);
                 } else {
                     writtenGeneration = String.valueOf(indexGeneration);
                     writeShardIndexBlobAtomic(shardContainer, indexGeneration, updatedSnapshots);
@@ -3143,7 +3417,8 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
                     indexId,
                     snapshotShardId,
                     writtenGeneration,
-                    unusedBlobs(blobs, survivingSnapshotUUIDs, updatedSnapshots)
+                    unusedBlobs(blobs, survivingSnapshotUUIDs, updatedSnapshots),
+                    unusedChunks
                 );
             }
         } catch (IOException e) {
@@ -3181,6 +3456,27 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         );
     }
 
+    // Unused chunks are the content defined chunks of the shard that none of its surviving snapshots references, other shards may
+    // still reference them though
+    private static Set<String> unusedChunks(BlobStoreIndexShardSnapshots snapshots, List<SnapshotFiles> survivingSnapshots) {
+        final Set<String> chunks = new HashSet<>();
+        for (SnapshotFiles snapshotFiles : snapshots) {
+            for (BlobStoreIndexShardSnapshot.FileInfo fileInfo : snapshotFiles.indexFiles()) {
+                for (BlobStoreIndexShardSnapshot.FileInfo.Chunk chunk : fileInfo.chunks()) {
+                    chunks.add(chunk.hash());
+                }
+            }
+        }
+        for (SnapshotFiles snapshotFiles : survivingSnapshots) {
+            for (BlobStoreIndexShardSnapshot.FileInfo fileInfo : snapshotFiles.indexFiles()) {
+                for (BlobStoreIndexShardSnapshot.FileInfo.Chunk chunk : fileInfo.chunks()) {
+                    chunks.remove(chunk.hash());
+                }
+            }
+        }
+        return chunks;
+    }
+
     // Unused blobs are all previous index-, data- and meta-blobs and that are not referenced by the new index- as well as all
     // temporary blobs
     private static List<String> unusedBlobs(
@@ -3239,15 +3535,55 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
             if (generation.equals(ShardGenerations.NEW_SHARD_GEN)) {
                 return new Tuple<>(BlobStoreIndexShardSnapshots.EMPTY, ShardGenerations.NEW_SHARD_GEN);
             }
-            return new Tuple<>(
-                INDEX_SHARD_SNAPSHOTS_FORMAT.read(metadata.name(), shardContainer, generation, namedXContentRegistry),
-                generation
-            );
+            return new Tuple<>(readShardSnapshots(shardContainer, generation), generation);
         }
         final Tuple<BlobStoreIndexShardSnapshots, Long> legacyIndex = buildBlobStoreIndexShardSnapshots(blobs, shardContainer);
         return new Tuple<>(legacyIndex.v1(), String.valueOf(legacyIndex.v2()));
     }
 
+    /**
+     * Sets the node level cache of shard level snapshot metadata that this repository shares with the other repositories of the node.
+     */
+    public void setShardSnapshotsCache(ShardSnapshotsCache shardSnapshotsCache) {
+        this.shardSnapshotsCache = shardSnapshotsCache;
+    }
+
+    /**
+     * Reads the shard level snapshot metadata of the given generation, from the {@link ShardSnapshotsCache} if possible.
+     */
+    private BlobStoreIndexShardSnapshots readShardSnapshots(BlobContainer shardContainer, String generation) throws IOException {
+        final ShardSnapshotsCache cache = shardSnapshotsCache;
+        if (cache != null) {
+            final BlobStoreIndexShardSnapshots cached = cache.get(metadata.name(), shardContainer.path(), generation);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        final BlobStoreIndexShardSnapshots shardSnapshots = INDEX_SHARD_SNAPSHOTS_FORMAT.read(
+            metadata.name(),
+            shardContainer,
+            generation,
+            namedXContentRegistry
+        );
+        if (cache != null) {
+            cache.put(metadata.name(), shardContainer.path(), generation, shardSnapshots);
+        }
+        return shardSnapshots;
+    }
+
+    /**
+     * Writes the shard level snapshot metadata of the given generation and keeps it in the {@link ShardSnapshotsCache}, so that the next
+     * snapshot of the shard on this node does not need to read it back.
+     */
+    private void writeShardSnapshots(BlobStoreIndexShardSnapshots shardSnapshots, BlobContainer shardContainer, String generation)
+        throws IOException {
+        INDEX_SHARD_SNAPSHOTS_FORMAT.write(shardSnapshots, shardContainer, generation, compress);
+        final ShardSnapshotsCache cache = shardSnapshotsCache;
+        if (cache != null) {
+            cache.put(metadata.name(), shardContainer.path(), generation, shardSnapshots);
+        }
+    }
+
     /**
      * Loads all available snapshots in the repository
      *
@@ -3277,6 +3613,8 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
     /**
      * Snapshot individual file
      * @param fileInfo file to be snapshotted
+     * @param chunkedUploads the chunks of the shard snapshot if files are stored as content defined chunks, see
+     *                       {@link #CONTENT_DEFINED_CHUNKING_SETTING}
      */
     private void snapshotFile(
         BlobStoreIndexShardSnapshot.FileInfo fileInfo,
@@ -3284,40 +3622,31 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         ShardId shardId,
         SnapshotId snapshotId,
         IndexShardSnapshotStatus snapshotStatus,
-        Store store
+        Store store,
+        @Nullable ChunkedUploads chunkedUploads
     ) throws IOException {
         final BlobContainer shardContainer = shardContainer(indexId, shardId);
         final String file = fileInfo.physicalName();
         try (IndexInput indexInput = store.openVerifyingInput(file, IOContext.READONCE, fileInfo.metadata())) {
-            for (int i = 0; i < fileInfo.numberOfParts(); i++) {
-                final long partBytes = fileInfo.partBytes(i);
-
-                // Make reads abortable by mutating the snapshotStatus object
-                final InputStream inputStream = new FilterInputStream(
-                    maybeRateLimitSnapshots(new InputStreamIndexInput(indexInput, partBytes))
-                ) {
-                    @Override
-                    public int read() throws IOException {
-                        checkAborted();
-                        return super.read();
-                    }
-
-                    @Override
-                    public int read(byte[] b, int off, int len) throws IOException {
-                        checkAborted();
-                        return super.read(b, off, len);
-                    }
-
-                    private void checkAborted() {
-                        if (snapshotStatus.isAborted()) {
-                            logger.debug("[{}] [{}] Aborted on the file [{}], exiting", shardId, snapshotId, fileInfo.physicalName());
-                            throw new AbortedSnapshotException();
-                        }
-                    }
-                };
-                final String partName = fileInfo.partName(i);
-                logger.trace(() -> new ParameterizedMessage("[{}] Writing [{}] to [{}]", metadata.name(), partName, shardContainer.path()));
-                shardContainer.writeBlob(partName, inputStream, partBytes, false);
+            if (chunkedUploads != null && fileInfo.length() >= chunker.averageSize()) {
+                snapshotFileAsChunks(fileInfo, indexInput, shardId, snapshotId, snapshotStatus, store, chunkedUploads);
+            } else {
+                for (int i = 0; i < fileInfo.numberOfParts(); i++) {
+                    final long partBytes = fileInfo.partBytes(i);
+                    final InputStream inputStream = abortableInputStream(
+                        indexInput,
+                        partBytes,
+                        fileInfo,
+                        shardId,
+                        snapshotId,
+                        snapshotStatus
+                    );
+                    final String partName = fileInfo.partName(i);
+                    logger.trace(
+                        () -> new ParameterizedMessage("[{}] Writing [{}] to [{}]", metadata.name(), partName, shardContainer.path())
+                    );
+                    shardContainer.writeBlob(partName, inputStream, partBytes, false);
+                }
             }
             Store.verify(indexInput);
             snapshotStatus.addProcessedFile(fileInfo.length());
@@ -3328,6 +3657,158 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         }
     }
 
+    /**
+     * Splits a file into content defined chunks while reading it once through the given verifying input, and uploads each chunk that
+     * isn't in the repository yet as soon as its end is found. The bytes of a chunk to upload are read again from a second input, which
+     * is cheap since they were just read, and are checked against the hash of the chunk before the upload completes. Chunks are written
+     * atomically, so a chunk blob that exists is complete and holds the content that its name says.
+     */
+    private void snapshotFileAsChunks(
+        BlobStoreIndexShardSnapshot.FileInfo fileInfo,
+        IndexInput indexInput,
+        ShardId shardId,
+        SnapshotId snapshotId,
+        IndexShardSnapshotStatus snapshotStatus,
+        Store store,
+        ChunkedUploads chunkedUploads
+    ) throws IOException {
+        final BlobContainer chunksContainer = chunksContainer();
+        final List<BlobStoreIndexShardSnapshot.FileInfo.Chunk> chunks = new ArrayList<>();
+        final byte[] buffer = new byte[Math.toIntExact(Math.min(bufferSize, chunker.maxSize()))];
+        try (IndexInput chunkInput = store.directory().openInput(fileInfo.physicalName(), IOContext.READONCE)) {
+            chunker.split(new InputStreamIndexInput(indexInput, fileInfo.length()), chunk -> {
+                if (snapshotStatus.isAborted()) {
+                    logger.debug("[{}] [{}] Aborted on the file [{}], exiting", shardId, snapshotId, fileInfo.physicalName());
+                    throw new AbortedSnapshotException();
+                }
+                // the chunk input is always at the start of the chunk
+                if (chunkedUploads.exists(chunk)) {
+                    chunkInput.seek(chunkInput.getFilePointer() + chunk.length());
+                } else {
+                    final InputStream inputStream = abortableInputStream(
+                        chunkInput,
+                        chunk.length(),
+                        fileInfo,
+                        shardId,
+                        snapshotId,
+                        snapshotStatus
+                    );
+                    logger.trace(
+                        () -> new ParameterizedMessage("[{}] Writing chunk [{}] of [{}]", metadata.name(), chunk.hash(), fileInfo.name())
+                    );
+                    chunksContainer.writeBlob(chunk.hash(), false, true, out -> {
+                        final MessageDigest digest = MessageDigests.sha256();
+                        int read;
+                        while ((read = inputStream.read(buffer)) != -1) {
+                            digest.update(buffer, 0, read);
+                            out.write(buffer, 0, read);
+                        }
+                        if (MessageDigests.toHexString(digest.digest()).equals(chunk.hash()) == false) {
+                            throw new IOException(
+                                "chunk [" + chunk.hash() + "] of [" + fileInfo.physicalName() + "] changed while it was uploaded"
+                            );
+                        }
+                    });
+                    chunkedUploads.uploaded(chunk);
+                }
+                chunks.add(chunk);
+            });
+        }
+        chunkedUploads.put(fileInfo, chunks);
+    }
+
+    /**
+     * The content defined chunks of a shard snapshot, see {@link #CONTENT_DEFINED_CHUNKING_SETTING}. A chunk is only uploaded if it is
+     * neither referenced by an earlier snapshot of the shard nor found in the chunks container. Most chunks of a shard snapshot are
+     * usually referenced by the earlier snapshot of the shard, so only the remaining ones are looked up in the chunks container, each by
+     * listing the blobs whose name starts with its hash, rather than listing the whole container that all shards share. Since chunks are
+     * written atomically, a chunk blob of the expected length is complete, even if another shard is uploading the same chunk concurrently.
+     */
+    private final class ChunkedUploads {
+
+        private final Set<String> knownChunks = ConcurrentHashMap.newKeySet();
+
+        private final Map<String, List<BlobStoreIndexShardSnapshot.FileInfo.Chunk>> chunksByFile = ConcurrentCollections.newConcurrentMap();
+
+        ChunkedUploads(BlobStoreIndexShardSnapshots snapshots) {
+            for (SnapshotFiles snapshotFiles : snapshots) {
+                for (BlobStoreIndexShardSnapshot.FileInfo fileInfo : snapshotFiles.indexFiles()) {
+                    for (BlobStoreIndexShardSnapshot.FileInfo.Chunk chunk : fileInfo.chunks()) {
+                        knownChunks.add(chunk.hash());
+                    }
+                }
+            }
+        }
+
+        boolean exists(BlobStoreIndexShardSnapshot.FileInfo.Chunk chunk) throws IOException {
+            if (knownChunks.contains(chunk.hash())) {
+                return true;
+            }
+            final BlobMetadata listed = chunksContainer().listBlobsByPrefix(chunk.hash()).get(chunk.hash());
+            if (listed != null && listed.length() == chunk.length()) {
+                knownChunks.add(chunk.hash());
+                return true;
+            }
+            return false;
+        }
+
+        void uploaded(BlobStoreIndexShardSnapshot.FileInfo.Chunk chunk) {
+            knownChunks.add(chunk.hash());
+        }
+
+        void put(BlobStoreIndexShardSnapshot.FileInfo fileInfo, List<BlobStoreIndexShardSnapshot.FileInfo.Chunk> chunks) {
+            chunksByFile.put(fileInfo.name(), chunks);
+        }
+
+        /**
+         * Returns the given files with the chunks that each file was stored as.
+         */
+        List<BlobStoreIndexShardSnapshot.FileInfo> withChunks(List<BlobStoreIndexShardSnapshot.FileInfo> files) {
+            final List<BlobStoreIndexShardSnapshot.FileInfo> result = new ArrayList<>(files.size());
+            for (BlobStoreIndexShardSnapshot.FileInfo fileInfo : files) {
+                final List<BlobStoreIndexShardSnapshot.FileInfo.Chunk> chunks = chunksByFile.get(fileInfo.name());
+                result.add(
+                    chunks == null ? fileInfo : new BlobStoreIndexShardSnapshot.FileInfo(fileInfo.name(), fileInfo.metadata(), null, chunks)
+                );
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Reads the given number of bytes from the input, throttled by the snapshot rate limit. Reads are made abortable by mutating the
+     * snapshotStatus object.
+     */
+    private InputStream abortableInputStream(
+        IndexInput indexInput,
+        long length,
+        BlobStoreIndexShardSnapshot.FileInfo fileInfo,
+        ShardId shardId,
+        SnapshotId snapshotId,
+        IndexShardSnapshotStatus snapshotStatus
+    ) {
+        return new FilterInputStream(maybeRateLimitSnapshots(new InputStreamIndexInput(indexInput, length))) {
+            @Override
+            public int read() throws IOException {
+                checkAborted();
+                return super.read();
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                checkAborted();
+                return super.read(b, off, len);
+            }
+
+            private void checkAborted() {
+                if (snapshotStatus.isAborted()) {
+                    logger.debug("[{}] [{}] Aborted on the file [{}], exiting", shardId, snapshotId, fileInfo.physicalName());
+                    throw new AbortedSnapshotException();
+                }
+            }
+        };
+    }
+
     private static void failStoreIfCorrupted(Store store, Exception e) {
         if (Lucene.isCorruptionException(e)) {
             try {
@@ -3369,11 +3850,21 @@ public abstract class BlobStoreRepository extends AbstractLifecycleComponent imp
         // Blob names in the shard directory that have become unreferenced in the new shard generation
         private final Collection<String> blobsToDelete;
 
-        ShardSnapshotMetaDeleteResult(IndexId indexId, int shardId, String newGeneration, Collection<String> blobsToDelete) {
+        // Content defined chunks that the shard no longer references, but other shards may
+        private final Set<String> chunksToDelete;
+
+        ShardSnapshotMetaDeleteResult(
+            IndexId indexId,
+            int shardId,
+            String newGeneration,
+            Collection<String> blobsToDelete,
+            Set<String> chunksToDelete
+        ) {
             this.indexId = indexId;
             this.shardId = shardId;
             this.newGeneration = newGeneration;
             this.blobsToDelete = blobsToDelete;
+            this.chunksToDelete = chunksToDelete;
         }
     }
 }
@@ -0,0 +1,129 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.repositories.blobstore;
+
+import org.elasticsearch.common.hash.MessageDigests;
+import org.elasticsearch.core.CheckedConsumer;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot.FileInfo.Chunk;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits files into chunks at positions that depend on their content only, so that the same content is split into the same chunks
+ * wherever it is found, even if it is shifted by inserted or removed bytes. The boundaries are found with a gear rolling hash over the
+ * last 64 bytes, using a stricter condition before the average chunk size and a looser one after it so that chunk sizes cluster around
+ * the average, see <a href="https://www.usenix.org/conference/atc16/technical-sessions/presentation/xia">FastCDC</a>. Chunks are
+ * between a quarter and four times the average size, except for the last chunk of a file which may be smaller.
+ */
+final class ContentDefinedChunker {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Random values for each byte value. The table must never change, since chunks of previously written snapshots are only found again if
+     * the same content is split at the same positions.
+     */
+    private static final long[] GEAR = new long[256];
+    static {
+        // SplitMix64 with a fixed seed
+        long state = 0x5DEECE66DL;
+        for (int i = 0; i < GEAR.length; i++) {
+            state += 0x9E3779B97F4A7C15L;
+            long z = state;
+            z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+            z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+            GEAR[i] = z ^ (z >>> 31);
+        }
+    }
+
+    private final long averageSize;
+    private final long minSize;
+    private final long maxSize;
+    private final long strictMask;
+    private final long looseMask;
+
+    /**
+     * @param averageSize the average size of the chunks, rounded down to a power of two
+     */
+    ContentDefinedChunker(long averageSize) {
+        if (averageSize < 64) {
+            throw new IllegalArgumentException("average chunk size must be at least [64] bytes but was [" + averageSize + "]");
+        }
+        final int bits = 63 - Long.numberOfLeadingZeros(averageSize);
+        this.averageSize = 1L << bits;
+        this.minSize = this.averageSize / 4;
+        this.maxSize = this.averageSize * 4;
+        // a boundary is where the top bits of the hash are all zero, the top bits depend on the last 64 bytes
+        this.strictMask = -1L << (64 - (bits + 1));
+        this.looseMask = -1L << (64 - (bits - 1));
+    }
+
+    long averageSize() {
+        return averageSize;
+    }
+
+    long minSize() {
+        return minSize;
+    }
+
+    long maxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Splits the given stream into chunks, naming each chunk by the SHA-256 hash of its contents.
+     */
+    List<Chunk> split(InputStream input) throws IOException {
+        final List<Chunk> chunks = new ArrayList<>();
+        split(input, chunks::add);
+        return chunks;
+    }
+
+    /**
+     * Splits the given stream into chunks, naming each chunk by the SHA-256 hash of its contents, and passes each chunk to the given
+     * consumer as soon as its end is found so that the caller can process it while the rest of the stream is read.
+     */
+    void split(InputStream input, CheckedConsumer<Chunk, IOException> consumer) throws IOException {
+        final MessageDigest digest = MessageDigests.sha256();
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        long chunkLength = 0;
+        long hash = 0;
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            int chunkStart = 0;
+            int i = 0;
+            while (i < read) {
+                if (chunkLength < minSize) {
+                    // there can't be a boundary before the minimum size, no need to hash these bytes
+                    final int skip = (int) Math.min(minSize - chunkLength, read - i);
+                    chunkLength += skip;
+                    i += skip;
+                    continue;
+                }
+                hash = (hash << 1) + GEAR[buffer[i++] & 0xFF];
+                chunkLength++;
+                if ((hash & (chunkLength < averageSize ? strictMask : looseMask)) == 0 || chunkLength >= maxSize) {
+                    digest.update(buffer, chunkStart, i - chunkStart);
+                    consumer.accept(new Chunk(MessageDigests.toHexString(digest.digest()), chunkLength));
+                    chunkStart = i;
+                    chunkLength = 0;
+                    hash = 0;
+                }
+            }
+            digest.update(buffer, chunkStart, read - chunkStart);
+        }
+        if (chunkLength > 0) {
+            consumer.accept(new Chunk(MessageDigests.toHexString(digest.digest()), chunkLength));
+        }
+    }
+}
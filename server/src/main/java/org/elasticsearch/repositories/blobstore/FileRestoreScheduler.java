@@ -0,0 +1,319 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.repositories.blobstore;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.common.metrics.CounterMetric;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
+import org.elasticsearch.core.CheckedConsumer;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot.FileInfo;
+import org.elasticsearch.threadpool.ThreadPool;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Restores the files of all the shards that a node restores from a repository out of a single queue, on the
+ * {@link ThreadPool.Names#SNAPSHOT} pool. Shards do not start workers of their own: the scheduler starts workers as long as the bytes in
+ * flight to the repository stay below a target, so that a node restoring many small shards keeps enough bytes in flight while a node
+ * restoring a few large shards does not read more than the target at once. A file is read sequentially through a buffer, so it only
+ * counts with the smaller of its length and the read window towards the bytes in flight. Each worker takes consecutive small files as a
+ * single batch, regardless of the shard they belong to, and goes back to the pool before taking the next batch.
+ */
+final class FileRestoreScheduler {
+
+    private static final Logger logger = LogManager.getLogger(FileRestoreScheduler.class);
+
+    /**
+     * Workers keep adding files to their current batch for as long as the batch holds at most this many bytes.
+     */
+    static final long BATCH_SIZE_IN_BYTES = ByteSizeUnit.MB.toBytes(1);
+
+    private final ThreadPool threadPool;
+
+    private final LongSupplier targetBytesInFlight;
+
+    private final long readWindowInBytes;
+
+    // all fields below are guarded by this
+    private final Deque<PendingFile> queue = new ArrayDeque<>();
+    private int workers;
+    private long queuedBytes;
+    private int filesInFlight;
+    private long bytesInFlight;
+
+    private final CounterMetric restoredFiles = new CounterMetric();
+    private final CounterMetric restoredBytes = new CounterMetric();
+
+    FileRestoreScheduler(ThreadPool threadPool, LongSupplier targetBytesInFlight, long readWindowInBytes) {
+        assert readWindowInBytes > 0L : readWindowInBytes;
+        this.threadPool = threadPool;
+        this.targetBytesInFlight = targetBytesInFlight;
+        this.readWindowInBytes = readWindowInBytes;
+    }
+
+    /**
+     * Restores the given files of a shard. The listener is completed once all the files are restored, or once the first failure to restore
+     * one of the files is known and the other files of the shard that were being restored at the time completed. Files of the shard that
+     * were still queued at the time of the failure are not restored.
+     *
+     * @param files       files to restore
+     * @param restoreFile restores a single file, called on the {@link ThreadPool.Names#SNAPSHOT} pool
+     * @param listener    listener to complete once all files are restored
+     */
+    void restoreFiles(Collection<FileInfo> files, CheckedConsumer<FileInfo, Exception> restoreFile, ActionListener<Void> listener) {
+        if (files.isEmpty()) {
+            listener.onResponse(null);
+            return;
+        }
+        final ShardFiles shardFiles = new ShardFiles(files.size(), restoreFile, listener);
+        synchronized (this) {
+            for (FileInfo file : files) {
+                queue.add(new PendingFile(shardFiles, file));
+                queuedBytes += file.length();
+            }
+        }
+        maybeStartWorkers();
+    }
+
+    /**
+     * @return the number and size of the queued, in flight and restored files
+     */
+    synchronized Map<String, Long> stats() {
+        return Map.of(
+            "queued_files",
+            (long) queue.size(),
+            "queued_bytes",
+            queuedBytes,
+            "in_flight_files",
+            (long) filesInFlight,
+            "in_flight_bytes",
+            bytesInFlight,
+            "restored_files",
+            restoredFiles.count(),
+            "restored_bytes",
+            restoredBytes.count()
+        );
+    }
+
+    private void maybeStartWorkers() {
+        final List<List<PendingFile>> batches = new ArrayList<>();
+        synchronized (this) {
+            final int maxWorkers = threadPool.info(ThreadPool.Names.SNAPSHOT).getMax();
+            while (workers < maxWorkers) {
+                final List<PendingFile> batch = pollBatch();
+                if (batch == null) {
+                    break;
+                }
+                workers++;
+                batches.add(batch);
+            }
+        }
+        for (List<PendingFile> batch : batches) {
+            runWorker(batch);
+        }
+    }
+
+    /**
+     * Restores the given batch on the {@link ThreadPool.Names#SNAPSHOT} pool, on behalf of a worker that was already counted.
+     */
+    private void runWorker(List<PendingFile> batch) {
+        threadPool.executor(ThreadPool.Names.SNAPSHOT).execute(new AbstractRunnable() {
+            @Override
+            protected void doRun() {
+                for (PendingFile file : batch) {
+                    restoreFile(file);
+                }
+                final List<PendingFile> nextBatch;
+                synchronized (FileRestoreScheduler.this) {
+                    nextBatch = pollBatch();
+                    if (nextBatch == null) {
+                        workers--;
+                    }
+                }
+                if (nextBatch != null) {
+                    // go back to the pool rather than looping here, so that other tasks on the pool get their turn in between batches
+                    runWorker(nextBatch);
+                }
+            }
+
+            @Override
+            public void onRejection(Exception e) {
+                // the node is shutting down, so fail all the queued files at once rather than trying to start a worker for each
+                // batch in turn, which would recurse through onFileCompleted for as many batches as there are queued
+                final List<PendingFile> queuedFiles;
+                synchronized (FileRestoreScheduler.this) {
+                    workers--;
+                    queuedFiles = new ArrayList<>(queue);
+                    queue.clear();
+                    queuedBytes = 0L;
+                    for (PendingFile file : batch) {
+                        filesInFlight--;
+                        bytesInFlight -= inFlightBytes(file);
+                    }
+                }
+                for (PendingFile file : batch) {
+                    file.shardFiles.fail(e);
+                }
+                for (PendingFile file : queuedFiles) {
+                    file.shardFiles.fail(e);
+                }
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                logger.warn("unexpected failure while restoring files", e);
+                assert false : e;
+            }
+        });
+    }
+
+    /**
+     * @return the number of bytes that restoring the given file holds in flight to the repository at any time
+     */
+    private long inFlightBytes(PendingFile file) {
+        return Math.min(file.fileInfo.length(), readWindowInBytes);
+    }
+
+    /**
+     * Takes the next batch of files off the queue, or returns {@code null} if the queue is empty or enough bytes are in flight already.
+     * A batch is always returned if the queue is not empty and no file is being restored, so that restores make progress even if the
+     * target is smaller than the read window.
+     */
+    @Nullable
+    private List<PendingFile> pollBatch() {
+        assert Thread.holdsLock(this);
+        if (queue.isEmpty() || (filesInFlight > 0 && bytesInFlight >= targetBytesInFlight.getAsLong())) {
+            return null;
+        }
+        final List<PendingFile> batch = new ArrayList<>();
+        long batchBytes = 0L;
+        do {
+            final PendingFile file = queue.poll();
+            final long length = file.fileInfo.length();
+            queuedBytes -= length;
+            filesInFlight++;
+            bytesInFlight += inFlightBytes(file);
+            batchBytes += length;
+            batch.add(file);
+        } while (queue.isEmpty() == false && batchBytes + queue.peek().fileInfo.length() <= BATCH_SIZE_IN_BYTES);
+        return batch;
+    }
+
+    private void restoreFile(PendingFile file) {
+        if (file.shardFiles.failure.get() != null) {
+            onFileCompleted(file, false, null);
+            return;
+        }
+        Exception failure = null;
+        try {
+            file.shardFiles.restoreFile.accept(file.fileInfo);
+        } catch (Exception e) {
+            failure = e;
+        }
+        onFileCompleted(file, failure == null, failure);
+    }
+
+    private void onFileCompleted(PendingFile file, boolean restored, @Nullable Exception failure) {
+        synchronized (this) {
+            filesInFlight--;
+            bytesInFlight -= inFlightBytes(file);
+        }
+        if (restored) {
+            restoredFiles.inc();
+            restoredBytes.inc(file.fileInfo.length());
+        }
+        if (failure != null && file.shardFiles.failure.compareAndSet(null, failure)) {
+            file.shardFiles.countDown(dropQueuedFiles(file.shardFiles));
+        }
+        file.shardFiles.countDown(1);
+        maybeStartWorkers();
+    }
+
+    /**
+     * Removes the queued files of a shard that failed to restore one of its files.
+     *
+     * @return the number of removed files
+     */
+    private synchronized int dropQueuedFiles(ShardFiles shardFiles) {
+        int removed = 0;
+        final Iterator<PendingFile> iterator = queue.iterator();
+        while (iterator.hasNext()) {
+            final PendingFile file = iterator.next();
+            if (file.shardFiles == shardFiles) {
+                iterator.remove();
+                queuedBytes -= file.fileInfo.length();
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    private static final class ShardFiles {
+
+        private final AtomicInteger remaining;
+
+        private final CheckedConsumer<FileInfo, Exception> restoreFile;
+
+        private final ActionListener<Void> listener;
+
+        private final AtomicReference<Exception> failure = new AtomicReference<>();
+
+        ShardFiles(int files, CheckedConsumer<FileInfo, Exception> restoreFile, ActionListener<Void> listener) {
+            this.remaining = new AtomicInteger(files);
+            this.restoreFile = restoreFile;
+            this.listener = listener;
+        }
+
+        /**
+         * Fails a single file of the shard that was dropped without being restored.
+         */
+        void fail(Exception e) {
+            failure.compareAndSet(null, e);
+            countDown(1);
+        }
+
+        void countDown(int files) {
+            final int left = remaining.addAndGet(-files);
+            assert left >= 0 : "counted down more files than were submitted";
+            if (files > 0 && left == 0) {
+                final Exception e = failure.get();
+                if (e == null) {
+                    listener.onResponse(null);
+                } else {
+                    listener.onFailure(e);
+                }
+            }
+        }
+    }
+
+    private static final class PendingFile {
+
+        private final ShardFiles shardFiles;
+
+        private final FileInfo fileInfo;
+
+        PendingFile(ShardFiles shardFiles, FileInfo fileInfo) {
+            this.shardFiles = shardFiles;
+            this.fileInfo = fileInfo;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.repositories.blobstore;
+
+import org.elasticsearch.common.blobstore.BlobPath;
+import org.elasticsearch.common.cache.Cache;
+import org.elasticsearch.common.cache.CacheBuilder;
+import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.core.Nullable;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshots;
+import org.elasticsearch.index.snapshots.blobstore.SnapshotFiles;
+import org.elasticsearch.snapshots.SnapshotsService;
+
+/**
+ * Node level cache of the shard level snapshot metadata ({@code index-${uuid}} blobs) that the repositories of a node read or wrote last.
+ * A generation named by a UUID never changes once written, so a snapshot of a shard whose generation did not change since the node last
+ * read or wrote it skips reading it from the repository. All the repositories of a node share the single budget of
+ * {@link #SIZE_SETTING}, so registering more repositories does not use more heap.
+ */
+public final class ShardSnapshotsCache {
+
+    /**
+     * Size of the cache, shared by all the repositories of the node. Set to {@code 0} to disable the cache.
+     */
+    public static final Setting<ByteSizeValue> SIZE_SETTING = Setting.memorySizeSetting(
+        "repositories.blobstore.shard_snapshots_cache.size",
+        "1%",
+        Setting.Property.NodeScope
+    );
+
+    private static final long ESTIMATED_SNAPSHOT_SIZE_IN_BYTES = 128L;
+
+    private static final long ESTIMATED_FILE_SIZE_IN_BYTES = 256L;
+
+    /**
+     * Shard level snapshot metadata by repository, shard path and generation, or {@code null} if the cache is disabled.
+     */
+    @Nullable
+    private final Cache<String, BlobStoreIndexShardSnapshots> cache;
+
+    public ShardSnapshotsCache(Settings settings) {
+        final long size = SIZE_SETTING.get(settings).getBytes();
+        this.cache = size > 0L
+            ? CacheBuilder.<String, BlobStoreIndexShardSnapshots>builder()
+                .setMaximumWeight(size)
+                .weigher((key, shardSnapshots) -> estimateSizeInBytes(shardSnapshots))
+                .build()
+            : null;
+    }
+
+    /**
+     * @return the cached shard level snapshot metadata of the given generation, or {@code null} if it is not cached
+     */
+    @Nullable
+    BlobStoreIndexShardSnapshots get(String repositoryName, BlobPath shardPath, String generation) {
+        final String key = key(repositoryName, shardPath, generation);
+        return key == null ? null : cache.get(key);
+    }
+
+    void put(String repositoryName, BlobPath shardPath, String generation, BlobStoreIndexShardSnapshots shardSnapshots) {
+        final String key = key(repositoryName, shardPath, generation);
+        if (key != null) {
+            cache.put(key, shardSnapshots);
+        }
+    }
+
+    /**
+     * @return the key of the given shard generation, or {@code null} if the generation must not be cached because the cache is disabled
+     *         or the generation is numeric: the {@code index-N} blobs of repositories that predate
+     *         {@link SnapshotsService#SHARD_GEN_IN_REPO_DATA_VERSION} may be deleted and written again with different contents, unlike the
+     *         blobs of generations named by a UUID
+     */
+    @Nullable
+    private String key(String repositoryName, BlobPath shardPath, String generation) {
+        if (cache == null || generation.chars().allMatch(Character::isDigit)) {
+            return null;
+        }
+        // repository names are valid file names so they never contain the separator
+        return repositoryName + '/' + shardPath.buildAsString() + generation;
+    }
+
+    /**
+     * Estimates the heap used by the given shard level snapshot metadata, counting each file once for every snapshot that references it.
+     */
+    private static long estimateSizeInBytes(BlobStoreIndexShardSnapshots shardSnapshots) {
+        long size = 0L;
+        for (SnapshotFiles snapshotFiles : shardSnapshots) {
+            size += ESTIMATED_SNAPSHOT_SIZE_IN_BYTES + snapshotFiles.indexFiles().size() * ESTIMATED_FILE_SIZE_IN_BYTES;
+        }
+        return size;
+    }
+}
@@ -237,6 +237,11 @@ public abstract class BaseRestHandler implements RestHandler {
             return delegate.supportsContentStream();
         }
 
+        @Override
+        public boolean supportsIncrementalContent() {
+            return delegate.supportsIncrementalContent();
+        }
+
         @Override
         public boolean allowsUnsafeBuffers() {
             return delegate.allowsUnsafeBuffers();
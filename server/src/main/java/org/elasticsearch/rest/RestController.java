@@ -253,7 +253,12 @@ public class RestController implements HttpServerTransport.Dispatcher {
                                  ThreadContext threadContext)
         throws Exception {
         final int contentLength = request.contentLength();
-        if (contentLength > 0) {
+        if (request.isIncrementalContent() && handler.supportsIncrementalContent() == false) {
+            channel.sendResponse(BytesRestResponse.createSimpleErrorResponse(channel, RestStatus.BAD_REQUEST,
+                "request body of [" + request.path() + "] must be fully received before it is handled"));
+            return;
+        }
+        if (request.hasContent()) {
             final XContentType xContentType = request.getXContentType();
             if (xContentType == null) {
                 sendContentTypeErrorMessage(request.getAllHeaderValues("Content-Type"), channel);
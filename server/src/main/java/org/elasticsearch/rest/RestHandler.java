@@ -47,6 +47,14 @@ public interface RestHandler {
         return false;
     }
 
+    /**
+     * Indicates if the RestHandler supports requests whose content is passed on while it is being received, see
+     * {@link RestRequest#contentStream()}. Such requests are rejected by handlers that do not support them.
+     */
+    default boolean supportsIncrementalContent() {
+        return false;
+    }
+
     /**
      * Indicates if the RestHandler supports working with pooled buffers. If the request handler will not escape the return
      * {@link RestRequest#content()} or any buffers extracted from it then there is no need to make a copies of any pooled buffers in the
@@ -28,6 +28,7 @@ import org.elasticsearch.common.xcontent.XContent;
 import org.elasticsearch.common.xcontent.XContentParser;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.http.HttpChannel;
+import org.elasticsearch.http.HttpContentStream;
 import org.elasticsearch.http.HttpRequest;
 
 import java.io.IOException;
@@ -225,7 +226,7 @@ public class RestRequest implements ToXContent.Params {
     }
 
     public boolean hasContent() {
-        return contentLength() > 0;
+        return contentLength() > 0 || isIncrementalContent();
     }
 
     public int contentLength() {
@@ -237,6 +238,23 @@ public class RestRequest implements ToXContent.Params {
         return httpRequest.content();
     }
 
+    /**
+     * @return whether the content of this request is passed on while it is being received, see {@link #contentStream()}
+     */
+    public boolean isIncrementalContent() {
+        return httpRequest.contentStream() != null;
+    }
+
+    /**
+     * @return the stream of the content of this request if the content is passed on while it is being received, in which case
+     * {@link #content()} is empty, or {@code null} otherwise
+     */
+    @Nullable
+    public HttpContentStream contentStream() {
+        this.contentConsumed = true;
+        return httpRequest.contentStream();
+    }
+
     /**
      * @return content of the request body or throw an exception if the body or content type is missing
      */
@@ -8,21 +8,38 @@
 
 package org.elasticsearch.rest.action.document;
 
+import org.elasticsearch.action.ActionListener;
 import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkRequest;
+import org.elasticsearch.action.bulk.BulkRequestParser;
+import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.bulk.BulkShardRequest;
 import org.elasticsearch.action.support.ActiveShardCount;
+import org.elasticsearch.action.support.WriteRequest;
 import org.elasticsearch.client.Requests;
 import org.elasticsearch.client.node.NodeClient;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
+import org.elasticsearch.core.Releasable;
+import org.elasticsearch.core.Releasables;
 import org.elasticsearch.core.RestApiVersion;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.http.HttpContentStream;
+import org.elasticsearch.http.HttpTransportSettings;
 import org.elasticsearch.rest.BaseRestHandler;
 import org.elasticsearch.rest.RestRequest;
 import org.elasticsearch.rest.action.RestStatusToXContentListener;
 import org.elasticsearch.search.fetch.subphase.FetchSourceContext;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.elasticsearch.rest.RestRequest.Method.POST;
 import static org.elasticsearch.rest.RestRequest.Method.PUT;
@@ -41,9 +58,11 @@ public class RestBulkAction extends BaseRestHandler {
         " Specifying types in bulk requests is deprecated.";
 
     private final boolean allowExplicitIndex;
+    private final ByteSizeValue incrementalBatchSize;
 
     public RestBulkAction(Settings settings) {
         this.allowExplicitIndex = MULTI_ALLOW_EXPLICIT_INDEX.get(settings);
+        this.incrementalBatchSize = HttpTransportSettings.SETTING_HTTP_INCREMENTAL_BULK_BATCH_SIZE.get(settings);
     }
 
     @Override
@@ -83,6 +102,20 @@ public class RestBulkAction extends BaseRestHandler {
         Boolean defaultRequireAlias = request.paramAsBoolean(DocWriteRequest.REQUIRE_ALIAS, null);
         bulkRequest.timeout(request.paramAsTime("timeout", BulkShardRequest.DEFAULT_TIMEOUT));
         bulkRequest.setRefreshPolicy(request.param("refresh"));
+        if (request.isIncrementalContent()) {
+            final HttpContentStream contentStream = request.contentStream();
+            final BulkRequestParser parser = new BulkRequestParser(true, request.getRestApiVersion());
+            return channel -> {
+                final IncrementalBulkHandler handler = new IncrementalBulkHandler(client, bulkRequest.waitForActiveShards(),
+                    bulkRequest.timeout(), bulkRequest.getRefreshPolicy(), contentStream, new RestStatusToXContentListener<>(channel));
+                handler.parser = parser.incrementalParser(defaultIndex, defaultRouting, defaultFetchSourceContext, defaultPipeline,
+                    defaultRequireAlias, allowExplicitIndex, request.getXContentType(),
+                    (indexRequest, type) -> handler.bulkRequest.add(indexRequest), r -> handler.bulkRequest.add(r),
+                    r -> handler.bulkRequest.add(r));
+                contentStream.setHandler(handler);
+                contentStream.next();
+            };
+        }
         bulkRequest.add(request.requiredContent(), defaultIndex, defaultRouting,
             defaultFetchSourceContext, defaultPipeline, defaultRequireAlias, allowExplicitIndex, request.getXContentType(),
             request.getRestApiVersion());
@@ -99,4 +132,219 @@ public class RestBulkAction extends BaseRestHandler {
     public boolean allowsUnsafeBuffers() {
         return true;
     }
+
+    @Override
+    public boolean supportsIncrementalContent() {
+        return true;
+    }
+
+    /**
+     * Parses the chunks of a bulk body as they are received and executes the parsed items in batches of
+     * {@link HttpTransportSettings#SETTING_HTTP_INCREMENTAL_BULK_BATCH_SIZE}. The next batch is parsed while the previous one executes, but
+     * at most one batch executes at a time so that only about two batches of the body are held in memory. The items of all batches are
+     * merged into a single response, and a batch that fails as a whole fails each of its items like a per-item failure.
+     */
+    private final class IncrementalBulkHandler implements HttpContentStream.ChunkHandler {
+
+        private final NodeClient client;
+        private final ActiveShardCount waitForActiveShards;
+        private final TimeValue timeout;
+        private final WriteRequest.RefreshPolicy refreshPolicy;
+        private final HttpContentStream contentStream;
+        private final ActionListener<BulkResponse> listener;
+        private final Supplier<ThreadContext.StoredContext> contextSupplier;
+
+        private final List<BulkItemResponse> responses = new ArrayList<>();
+        private long tookInMillis = 0;
+        private long ingestTookInMillis = BulkResponse.NO_INGEST_TOOK;
+        // the received bytes that have not been parsed yet, because they do not hold a complete item
+        private List<ReleasableBytesReference> unparsed = new ArrayList<>();
+        // the received bytes that the items of the batch being parsed were parsed from
+        private final List<Releasable> batchBytes = new ArrayList<>();
+        private BulkRequestParser.IncrementalParser parser;
+        private BulkRequest bulkRequest;
+        // whether a batch is executing
+        private boolean executing;
+        // whether the batch being parsed is full and waits for the executing batch before more content is requested
+        private boolean waitingForExecution;
+        // whether the last chunk was parsed
+        private boolean lastParsed;
+        // whether the listener was completed, or will be completed with pendingFailure once the executing batch completes
+        private boolean completed;
+        private Exception pendingFailure;
+
+        IncrementalBulkHandler(NodeClient client, ActiveShardCount waitForActiveShards, TimeValue timeout,
+                               WriteRequest.RefreshPolicy refreshPolicy, HttpContentStream contentStream,
+                               ActionListener<BulkResponse> listener) {
+            this.client = client;
+            this.waitForActiveShards = waitForActiveShards;
+            this.timeout = timeout;
+            this.refreshPolicy = refreshPolicy;
+            this.contentStream = contentStream;
+            this.listener = listener;
+            this.contextSupplier = client.threadPool().getThreadContext().newRestorableContext(false);
+            this.bulkRequest = newBatch();
+        }
+
+        private BulkRequest newBatch() {
+            final BulkRequest request = Requests.bulkRequest();
+            request.waitForActiveShards(waitForActiveShards);
+            request.timeout(timeout);
+            request.setRefreshPolicy(refreshPolicy);
+            return request;
+        }
+
+        @Override
+        public void onNext(ReleasableBytesReference chunk, boolean isLast) {
+            try (ThreadContext.StoredContext ignore = contextSupplier.get()) {
+                synchronized (this) {
+                    if (completed) {
+                        chunk.close();
+                        return;
+                    }
+                    unparsed.add(chunk);
+                    final BytesReference data = CompositeBytesReference.of(unparsed.toArray(new BytesReference[0]));
+                    final int consumed = parser.parse(data, isLast);
+                    splitUnparsed(consumed);
+                    if (isLast) {
+                        lastParsed = true;
+                        if (executing == false) {
+                            executeLastBatchOrRespond();
+                        }
+                    } else if (bulkRequest.estimatedSizeInBytes() >= incrementalBatchSize.getBytes()) {
+                        if (executing) {
+                            // the executing batch requests more content once it completed
+                            waitingForExecution = true;
+                        } else {
+                            executeBatch();
+                            contentStream.next();
+                        }
+                    } else {
+                        contentStream.next();
+                    }
+                }
+            } catch (Exception e) {
+                onFailure(e);
+            }
+        }
+
+        /**
+         * Moves the bytes the parser consumed to the current batch and keeps the rest for the next chunk.
+         */
+        private void splitUnparsed(int consumed) {
+            final List<ReleasableBytesReference> remaining = new ArrayList<>();
+            int offset = 0;
+            for (ReleasableBytesReference bytes : unparsed) {
+                final int length = bytes.length();
+                if (offset + length <= consumed) {
+                    batchBytes.add(bytes);
+                } else if (offset >= consumed) {
+                    remaining.add(bytes);
+                } else {
+                    remaining.add(bytes.retainedSlice(consumed - offset, length - (consumed - offset)));
+                    batchBytes.add(bytes);
+                }
+                offset += length;
+            }
+            unparsed = remaining;
+        }
+
+        private void executeLastBatchOrRespond() {
+            assert Thread.holdsLock(this);
+            if (bulkRequest.numberOfActions() > 0 || responses.isEmpty()) {
+                // an empty body is executed anyway to fail validation the same way as if it was not streamed
+                executeBatch();
+            } else {
+                Releasables.close(batchBytes);
+                batchBytes.clear();
+                completed = true;
+                respond();
+            }
+        }
+
+        private void executeBatch() {
+            assert Thread.holdsLock(this);
+            assert executing == false : "a batch is already executing";
+            final BulkRequest batch = bulkRequest;
+            final List<Releasable> bytes = new ArrayList<>(batchBytes);
+            batchBytes.clear();
+            bulkRequest = newBatch();
+            executing = true;
+            client.bulk(batch, ActionListener.runBefore(new ActionListener<BulkResponse>() {
+                @Override
+                public void onResponse(BulkResponse response) {
+                    onBatchCompleted(response.getItems(), response.getTook().millis(), response.getIngestTookInMillis());
+                }
+
+                @Override
+                public void onFailure(Exception e) {
+                    final List<DocWriteRequest<?>> requests = batch.requests();
+                    final BulkItemResponse[] items = new BulkItemResponse[requests.size()];
+                    for (int i = 0; i < items.length; i++) {
+                        final DocWriteRequest<?> request = requests.get(i);
+                        items[i] = new BulkItemResponse(i, request.opType(),
+                            new BulkItemResponse.Failure(request.index(), request.id(), e));
+                    }
+                    onBatchCompleted(items, 0L, BulkResponse.NO_INGEST_TOOK);
+                }
+            }, () -> Releasables.close(bytes)));
+        }
+
+        private synchronized void onBatchCompleted(BulkItemResponse[] items, long batchTookInMillis, long batchIngestTookInMillis) {
+            final int offset = responses.size();
+            for (BulkItemResponse item : items) {
+                responses.add(item.isFailed()
+                    ? new BulkItemResponse(offset + item.getItemId(), item.getOpType(), item.getFailure())
+                    : new BulkItemResponse(offset + item.getItemId(), item.getOpType(), item.getResponse()));
+            }
+            tookInMillis += batchTookInMillis;
+            if (batchIngestTookInMillis != BulkResponse.NO_INGEST_TOOK) {
+                ingestTookInMillis = Math.max(ingestTookInMillis, 0L) + batchIngestTookInMillis;
+            }
+            executing = false;
+            if (completed) {
+                if (pendingFailure != null) {
+                    final Exception e = pendingFailure;
+                    pendingFailure = null;
+                    listener.onFailure(e);
+                }
+                return;
+            }
+            // the next batch executes in the context of the request rather than in the context of the response of this batch
+            try (ThreadContext.StoredContext ignore = contextSupplier.get()) {
+                if (lastParsed) {
+                    executeLastBatchOrRespond();
+                } else if (waitingForExecution) {
+                    waitingForExecution = false;
+                    executeBatch();
+                    contentStream.next();
+                }
+            } catch (Exception e) {
+                onFailure(e);
+            }
+        }
+
+        private void respond() {
+            listener.onResponse(new BulkResponse(responses.toArray(new BulkItemResponse[0]), tookInMillis, ingestTookInMillis));
+        }
+
+        @Override
+        public synchronized void onFailure(Exception e) {
+            if (completed) {
+                return;
+            }
+            completed = true;
+            contentStream.discard();
+            Releasables.close(batchBytes);
+            batchBytes.clear();
+            Releasables.close(unparsed);
+            unparsed.clear();
+            if (executing) {
+                // the batch that executes still has to release its bytes
+                pendingFailure = e;
+            } else {
+                listener.onFailure(e);
+            }
+        }
+    }
 }
@@ -302,6 +302,7 @@ public class QueryPhase {
                     queryResult.nodeQueueSize(rExecutor.getCurrentQueueSize());
                     queryResult.serviceTimeEWMA((long) rExecutor.getTaskExecutionEWMA());
                 }
+                queryResult.shardCachedBytes(searchContext.indexShard().store().cachedBytes());
 
                 return shouldRescore;
             } finally {
@@ -56,6 +56,7 @@ public final class QuerySearchResult extends SearchPhaseResult {
     private boolean hasProfileResults;
     private long serviceTimeEWMA = -1;
     private int nodeQueueSize = -1;
+    private long shardCachedBytes = -1;
 
     private final boolean isNull;
 
@@ -305,6 +306,19 @@ public final class QuerySearchResult extends SearchPhaseResult {
         return this;
     }
 
+    /**
+     * The number of bytes of the shard that are cached on the node that executed the query, or {@code -1} if the shard does not read
+     * its files through a cache, see {@link org.elasticsearch.index.store.Store#cachedBytes()}.
+     */
+    public long shardCachedBytes() {
+        return this.shardCachedBytes;
+    }
+
+    public QuerySearchResult shardCachedBytes(long shardCachedBytes) {
+        this.shardCachedBytes = shardCachedBytes;
+        return this;
+    }
+
     /**
      * Returns <code>true</code> if this result has any suggest score docs
      */
@@ -346,6 +360,9 @@ public final class QuerySearchResult extends SearchPhaseResult {
             setShardSearchRequest(in.readOptionalWriteable(ShardSearchRequest::new));
             setRescoreDocIds(new RescoreDocIds(in));
         }
+        if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+            shardCachedBytes = in.readZLong();
+        }
     }
 
     @Override
@@ -387,6 +404,9 @@ public final class QuerySearchResult extends SearchPhaseResult {
             out.writeOptionalWriteable(getShardSearchRequest());
             getRescoreDocIds().writeTo(out);
         }
+        if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+            out.writeZLong(shardCachedBytes);
+        }
     }
 
     public TotalHits getTotalHits() {
@@ -128,6 +128,8 @@ public class SnapshotsService extends AbstractLifecycleComponent implements Clus
 
     public static final Version UUIDS_IN_REPO_DATA_VERSION = Version.V_7_12_0;
 
+    public static final Version CONTENT_DEFINED_CHUNKS_VERSION = Version.V_8_0_0;
+
     public static final Version OLD_SNAPSHOT_FORMAT = Version.V_7_5_0;
 
     private static final Logger logger = LogManager.getLogger(SnapshotsService.class);
@@ -2131,6 +2133,17 @@ public class SnapshotsService extends AbstractLifecycleComponent implements Clus
         return repositoryMetaVersion.onOrAfter(INDEX_GEN_IN_REPO_DATA_VERSION);
     }
 
+    /**
+     * Checks whether the metadata version supports storing files as content defined chunks, see
+     * {@link org.elasticsearch.repositories.blobstore.BlobStoreRepository#CONTENT_DEFINED_CHUNKING_SETTING}.
+     *
+     * @param repositoryMetaVersion version to check
+     * @return true if version supports files stored as content defined chunks
+     */
+    public static boolean useContentDefinedChunks(Version repositoryMetaVersion) {
+        return repositoryMetaVersion.onOrAfter(CONTENT_DEFINED_CHUNKS_VERSION);
+    }
+
     /**
      * Checks whether the metadata version supports writing the cluster- and repository-uuid to the repository.
      *
@@ -19,7 +19,6 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -30,6 +29,7 @@ public final class ScalingExecutorBuilder extends ExecutorBuilder<ScalingExecuto
     private final Setting<Integer> coreSetting;
     private final Setting<Integer> maxSetting;
     private final Setting<TimeValue> keepAliveSetting;
+    private final Setting<Boolean> virtualThreadsSetting; // null unless the executor may run on virtual threads
 
     /**
      * Construct a scaling executor builder; the settings will have the
@@ -45,6 +45,29 @@ public final class ScalingExecutorBuilder extends ExecutorBuilder<ScalingExecuto
         this(name, core, max, keepAlive, "thread_pool." + name);
     }
 
+    /**
+     * Construct a scaling executor builder; the settings will have the
+     * key prefix "thread_pool." followed by the executor name.
+     *
+     * @param name                the name of the executor
+     * @param core                the minimum number of threads in the pool
+     * @param max                 the maximum number of threads in the pool
+     * @param keepAlive           the time that spare threads above {@code core}
+     *                            threads will be kept alive
+     * @param allowVirtualThreads whether the executor can be configured to run
+     *                            its tasks on virtual threads, which suits
+     *                            executors of blocking I/O tasks
+     */
+    public ScalingExecutorBuilder(
+        final String name,
+        final int core,
+        final int max,
+        final TimeValue keepAlive,
+        final boolean allowVirtualThreads
+    ) {
+        this(name, core, max, keepAlive, allowVirtualThreads, "thread_pool." + name);
+    }
+
     /**
      * Construct a scaling executor builder; the settings will have the
      * specified key prefix.
@@ -57,16 +80,46 @@ public final class ScalingExecutorBuilder extends ExecutorBuilder<ScalingExecuto
      * @param prefix    the prefix for the settings keys
      */
     public ScalingExecutorBuilder(final String name, final int core, final int max, final TimeValue keepAlive, final String prefix) {
+        this(name, core, max, keepAlive, false, prefix);
+    }
+
+    /**
+     * Construct a scaling executor builder; the settings will have the
+     * specified key prefix.
+     *
+     * @param name                the name of the executor
+     * @param core                the minimum number of threads in the pool
+     * @param max                 the maximum number of threads in the pool
+     * @param keepAlive           the time that spare threads above {@code core}
+     *                            threads will be kept alive
+     * @param allowVirtualThreads whether the executor can be configured to run
+     *                            its tasks on virtual threads
+     * @param prefix              the prefix for the settings keys
+     */
+    public ScalingExecutorBuilder(
+        final String name,
+        final int core,
+        final int max,
+        final TimeValue keepAlive,
+        final boolean allowVirtualThreads,
+        final String prefix
+    ) {
         super(name);
         this.coreSetting =
             Setting.intSetting(settingsKey(prefix, "core"), core, Setting.Property.NodeScope);
         this.maxSetting = Setting.intSetting(settingsKey(prefix, "max"), max, Setting.Property.NodeScope);
         this.keepAliveSetting =
             Setting.timeSetting(settingsKey(prefix, "keep_alive"), keepAlive, Setting.Property.NodeScope);
+        this.virtualThreadsSetting = allowVirtualThreads
+            ? Setting.boolSetting(settingsKey(prefix, "virtual_threads"), false, Setting.Property.NodeScope)
+            : null;
     }
 
     @Override
     public List<Setting<?>> getRegisteredSettings() {
+        if (virtualThreadsSetting != null) {
+            return Arrays.asList(coreSetting, maxSetting, keepAliveSetting, virtualThreadsSetting);
+        }
         return Arrays.asList(coreSetting, maxSetting, keepAliveSetting);
     }
 
@@ -76,7 +129,8 @@ public final class ScalingExecutorBuilder extends ExecutorBuilder<ScalingExecuto
         final int coreThreads = coreSetting.get(settings);
         final int maxThreads = maxSetting.get(settings);
         final TimeValue keepAlive = keepAliveSetting.get(settings);
-        return new ScalingExecutorSettings(nodeName, coreThreads, maxThreads, keepAlive);
+        final boolean virtualThreads = virtualThreadsSetting != null && virtualThreadsSetting.get(settings);
+        return new ScalingExecutorSettings(nodeName, coreThreads, maxThreads, keepAlive, virtualThreads);
     }
 
     ThreadPool.ExecutorHolder build(final ScalingExecutorSettings settings, final ThreadContext threadContext) {
@@ -84,16 +138,28 @@ public final class ScalingExecutorBuilder extends ExecutorBuilder<ScalingExecuto
         int core = settings.core;
         int max = settings.max;
         final ThreadPool.Info info = new ThreadPool.Info(name(), ThreadPool.ThreadPoolType.SCALING, core, max, keepAlive, null);
-        final ThreadFactory threadFactory = EsExecutors.daemonThreadFactory(EsExecutors.threadName(settings.nodeName, name()));
-        final ExecutorService executor =
-            EsExecutors.newScaling(
+        final String threadName = EsExecutors.threadName(settings.nodeName, name());
+        final ExecutorService executor;
+        if (settings.virtualThreads && EsExecutors.virtualThreadsSupported()) {
+            // every task runs on a virtual thread of its own, which is cheap to block on I/O, and max bounds the number of concurrent
+            // tasks rather than the number of threads
+            executor = EsExecutors.newThreadPerTask(
+                    settings.nodeName + "/" + name(),
+                    max,
+                    EsExecutors.virtualThreadFactory(threadName),
+                    threadContext);
+        } else {
+            // runtimes without virtual threads, and nodes running under a security manager which grants virtual threads no permissions,
+            // fall back to platform threads
+            executor = EsExecutors.newScaling(
                     settings.nodeName + "/" + name(),
                     core,
                     max,
                     keepAlive.millis(),
                     TimeUnit.MILLISECONDS,
-                    threadFactory,
+                    EsExecutors.daemonThreadFactory(threadName),
                     threadContext);
+        }
         return new ThreadPool.ExecutorHolder(executor, info);
     }
 
@@ -113,12 +179,20 @@ public final class ScalingExecutorBuilder extends ExecutorBuilder<ScalingExecuto
         private final int core;
         private final int max;
         private final TimeValue keepAlive;
+        private final boolean virtualThreads;
 
-        ScalingExecutorSettings(final String nodeName, final int core, final int max, final TimeValue keepAlive) {
+        ScalingExecutorSettings(
+            final String nodeName,
+            final int core,
+            final int max,
+            final TimeValue keepAlive,
+            final boolean virtualThreads
+        ) {
             super(nodeName);
             this.core = core;
             this.max = max;
             this.keepAlive = keepAlive;
+            this.virtualThreads = virtualThreads;
         }
     }
 
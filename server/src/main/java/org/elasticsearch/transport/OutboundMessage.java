@@ -54,10 +54,9 @@ abstract class OutboundMessage extends NetworkMessage {
             if (variableHeaderLength == -1) {
                 writeVariableHeader(stream);
             }
-            if (message instanceof BytesTransportRequest) {
-                BytesTransportRequest bRequest = (BytesTransportRequest) message;
-                bRequest.writeThin(stream);
-                zeroCopyBuffer = bRequest.bytes;
+            if (compress == false && message instanceof ThinWriteable) {
+                // the trailing bytes are appended to the message as they are, so this only works if the message is not compressed
+                zeroCopyBuffer = ((ThinWriteable) message).writeThin(stream);
             } else if (message instanceof RemoteTransportException) {
                 stream.writeException((RemoteTransportException) message);
                 zeroCopyBuffer = BytesArray.EMPTY;
@@ -0,0 +1,30 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.transport;
+
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.io.stream.Writeable;
+
+import java.io.IOException;
+
+/**
+ * Messages that implement this interface end with a, typically large, block of bytes. Unless the message is compressed, the transport
+ * layer serializes everything but these bytes with {@link #writeThin} and then sends the bytes as they are, without copying them into
+ * the buffer that holds the rest of the message.
+ */
+public interface ThinWriteable extends Writeable {
+
+    /**
+     * Writes the message without its trailing bytes, but including their length, and returns the trailing bytes, which must be sent
+     * right after what this method wrote. Returns an empty reference if the whole message was written already, e.g. because the version
+     * of the stream predates a wire format with trailing bytes.
+     */
+    BytesReference writeThin(StreamOutput out) throws IOException;
+}
@@ -11,6 +11,8 @@ package org.elasticsearch.action.bulk;
 import org.elasticsearch.action.index.IndexRequest;
 import org.elasticsearch.core.RestApiVersion;
 import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.test.ESTestCase;
 import org.hamcrest.Matchers;
@@ -164,4 +166,80 @@ public class BulkRequestParserTests extends ESTestCase {
         assertSame(first.getPipeline(), second.getPipeline());
         assertSame(first.routing(), second.routing());
     }
+
+    public void testIncrementalParse() throws IOException {
+        final int numRequests = randomIntBetween(1, 20);
+        final StringBuilder body = new StringBuilder();
+        final List<String> expectedIds = new ArrayList<>();
+        for (int i = 0; i < numRequests; i++) {
+            final String id = Integer.toString(i);
+            expectedIds.add(id);
+            switch (randomIntBetween(0, 2)) {
+                case 0:
+                    body.append("{ \"index\":{ \"_id\": \"").append(id).append("\" } }\n{ \"field\": \"value\" }\n");
+                    break;
+                case 1:
+                    body.append("{ \"update\":{ \"_id\": \"").append(id).append("\" } }\n{ \"doc\": { \"field\": \"value\" } }\n");
+                    break;
+                default:
+                    body.append("{ \"delete\":{ \"_id\": \"").append(id).append("\" } }\n");
+                    break;
+            }
+        }
+        final BytesReference bytes = new BytesArray(body.toString());
+
+        final List<String> parsedIds = new ArrayList<>();
+        BulkRequestParser.IncrementalParser parser = new BulkRequestParser(randomBoolean(), RestApiVersion.current())
+            .incrementalParser("foo", null, null, null, null, false, XContentType.JSON,
+                (indexRequest, type) -> parsedIds.add(indexRequest.id()),
+                updateRequest -> parsedIds.add(updateRequest.id()),
+                deleteRequest -> parsedIds.add(deleteRequest.id()));
+
+        BytesReference pending = BytesArray.EMPTY;
+        int offset = 0;
+        while (offset < bytes.length()) {
+            final int chunkLength = randomIntBetween(1, bytes.length() - offset);
+            final BytesReference data = CompositeBytesReference.of(pending, bytes.slice(offset, chunkLength));
+            offset += chunkLength;
+            final int consumed = parser.parse(data, offset == bytes.length());
+            assertThat(consumed, Matchers.lessThanOrEqualTo(data.length()));
+            pending = data.slice(consumed, data.length() - consumed);
+        }
+        assertEquals(0, pending.length());
+        assertEquals(expectedIds, parsedIds);
+    }
+
+    public void testIncrementalParseWaitsForSourceLine() throws IOException {
+        final List<String> parsedIds = new ArrayList<>();
+        BulkRequestParser.IncrementalParser parser = new BulkRequestParser(randomBoolean(), RestApiVersion.current())
+            .incrementalParser("foo", null, null, null, null, false, XContentType.JSON,
+                (indexRequest, type) -> parsedIds.add(indexRequest.id()), req -> fail(), req -> fail());
+
+        final String actionLine = "{ \"index\":{ \"_id\": \"bar\" } }\n";
+        assertEquals(0, parser.parse(new BytesArray(actionLine), false));
+        assertEquals(0, parser.parse(new BytesArray(actionLine + "{}"), false));
+        assertThat(parsedIds, Matchers.empty());
+        assertEquals(actionLine.length() + 3, parser.parse(new BytesArray(actionLine + "{}\n"), false));
+        assertEquals(List.of("bar"), parsedIds);
+
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
+            () -> parser.parse(new BytesArray(actionLine + "{}"), true));
+        assertEquals("The bulk request must be terminated by a newline [\\n]", e.getMessage());
+    }
+
+    public void testIncrementalParseDoesNotWaitAfterDeleteLine() throws IOException {
+        final List<String> parsedIds = new ArrayList<>();
+        BulkRequestParser.IncrementalParser parser = new BulkRequestParser(randomBoolean(), RestApiVersion.current())
+            .incrementalParser("foo", null, null, null, null, false, XContentType.JSON,
+                (indexRequest, type) -> parsedIds.add(indexRequest.id()), req -> fail(),
+                deleteRequest -> parsedIds.add(deleteRequest.id()));
+
+        final String deleteLine = "{ \"delete\":{ \"_id\": \"bar\" } }\n";
+        assertEquals(deleteLine.length(), parser.parse(new BytesArray(deleteLine), false));
+        assertEquals(List.of("bar"), parsedIds);
+
+        final String actionLine = "{ \"index\":{ \"_id\": \"baz\" } }\n";
+        assertEquals(deleteLine.length(), parser.parse(new BytesArray(deleteLine + actionLine), false));
+        assertEquals(List.of("bar", "bar"), parsedIds);
+    }
 }
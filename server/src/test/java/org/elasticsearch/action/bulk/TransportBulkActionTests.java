@@ -26,12 +26,15 @@ import org.elasticsearch.cluster.metadata.IndexAbstraction;
 import org.elasticsearch.cluster.metadata.IndexAbstraction.Index;
 import org.elasticsearch.cluster.metadata.IndexMetadata;
 import org.elasticsearch.cluster.metadata.Metadata;
+import org.elasticsearch.cluster.routing.TimeSeriesRouting;
 import org.elasticsearch.cluster.node.DiscoveryNode;
 import org.elasticsearch.cluster.node.DiscoveryNodeRole;
 import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.index.IndexMode;
 import org.elasticsearch.index.IndexNotFoundException;
 import org.elasticsearch.index.IndexingPressure;
 import org.elasticsearch.index.VersionType;
@@ -57,8 +60,10 @@ import java.util.concurrent.TimeUnit;
 import static org.elasticsearch.action.bulk.TransportBulkAction.prohibitCustomRoutingOnDataStream;
 import static org.elasticsearch.cluster.metadata.MetadataCreateDataStreamServiceTests.createDataStream;
 import static org.elasticsearch.test.ClusterServiceUtils.createClusterService;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
 
 public class TransportBulkActionTests extends ESTestCase {
 
@@ -237,6 +242,44 @@ public class TransportBulkActionTests extends ESTestCase {
         prohibitCustomRoutingOnDataStream(writeRequestAgainstIndex, metadata);
     }
 
+    public void testAssignTimeSeriesId() {
+        IndexMetadata indexMetadata = IndexMetadata.builder("metrics")
+            .settings(settings(Version.CURRENT)
+                .put(IndexMode.INDEX_MODE_SETTING.getKey(), "time_series")
+                .putList(IndexMetadata.INDEX_ROUTING_PATH.getKey(), "host"))
+            .putMapping("{\"properties\": {\"@timestamp\": {\"type\": \"date\"}, "
+                + "\"host\": {\"type\": \"keyword\", \"dimension\": true}}}")
+            .numberOfShards(1)
+            .numberOfReplicas(0)
+            .build();
+        TimeSeriesRouting timeSeriesRouting = TimeSeriesRouting.forIndex(indexMetadata);
+
+        IndexRequest request = new IndexRequest("metrics").source(XContentType.JSON, "@timestamp", 1000, "host", "a");
+        TransportBulkAction.assignTimeSeriesId(request, indexMetadata, timeSeriesRouting);
+        String id = request.id();
+        assertThat(id, equalTo(timeSeriesRouting.createId(request.source(), XContentType.JSON)));
+
+        // the same document sent again, with its id, gets the same id
+        IndexRequest retry = new IndexRequest("metrics").id(id).source(XContentType.JSON, "host", "a", "@timestamp", 1000);
+        TransportBulkAction.assignTimeSeriesId(retry, indexMetadata, timeSeriesRouting);
+        assertThat(retry.id(), equalTo(id));
+
+        IndexRequest otherSeries = new IndexRequest("metrics").source(XContentType.JSON, "@timestamp", 1000, "host", "b");
+        TransportBulkAction.assignTimeSeriesId(otherSeries, indexMetadata, timeSeriesRouting);
+        assertThat(otherSeries.id(), not(equalTo(id)));
+
+        IndexRequest customId = new IndexRequest("metrics").id(id).source(XContentType.JSON, "@timestamp", 1000, "host", "b");
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
+            () -> TransportBulkAction.assignTimeSeriesId(customId, indexMetadata, timeSeriesRouting));
+        assertThat(e.getMessage(), containsString("is derived from their dimensions and timestamp and can't be set"));
+
+        IndexRequest customRouting = new IndexRequest("metrics").routing("custom")
+            .source(XContentType.JSON, "@timestamp", 1000, "host", "a");
+        e = expectThrows(IllegalArgumentException.class,
+            () -> TransportBulkAction.assignTimeSeriesId(customRouting, indexMetadata, timeSeriesRouting));
+        assertThat(e.getMessage(), containsString("routing is not supported"));
+    }
+
     public void testOnlySystem() {
         SortedMap<String, IndexAbstraction> indicesLookup = new TreeMap<>();
         Settings settings = Settings.builder().put("index.version.created", Version.CURRENT).build();
@@ -12,11 +12,14 @@ import org.elasticsearch.action.support.replication.ClusterStateCreationUtils;
 import org.elasticsearch.cluster.ClusterState;
 import org.elasticsearch.cluster.metadata.IndexMetadata;
 import org.elasticsearch.cluster.service.ClusterService;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.core.internal.io.IOUtils;
 import org.elasticsearch.index.Index;
+import org.elasticsearch.index.IndexMode;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.node.ResponseCollectorService;
 import org.elasticsearch.test.ClusterServiceUtils;
@@ -37,6 +40,7 @@ import static org.hamcrest.CoreMatchers.containsString;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.object.HasToString.hasToString;
 
 public class OperationRoutingTests extends ESTestCase{
@@ -99,6 +103,40 @@ public class OperationRoutingTests extends ESTestCase{
         }
     }
 
+    public void testTimeSeriesIndex() {
+        int numberOfShards = between(1, 10);
+        IndexMetadata metadata = IndexMetadata.builder("test")
+            .settings(settings(Version.CURRENT)
+                .put(IndexMode.INDEX_MODE_SETTING.getKey(), "time_series")
+                .putList(IndexMetadata.INDEX_ROUTING_PATH.getKey(), "host"))
+            .putMapping("{\"properties\": {\"@timestamp\": {\"type\": \"date\"}, "
+                + "\"host\": {\"type\": \"keyword\", \"dimension\": true}}}")
+            .numberOfShards(numberOfShards)
+            .numberOfReplicas(1)
+            .build();
+        TimeSeriesRouting timeSeriesRouting = TimeSeriesRouting.forIndex(metadata);
+        for (int i = 0; i < 20; i++) {
+            String host = randomAlphaOfLength(10);
+            Set<Integer> shards = new HashSet<>();
+            for (int k = 0; k < 10; k++) {
+                String id = timeSeriesRouting.createId(
+                    new BytesArray("{\"@timestamp\": " + randomNonNegativeLong() % 1_000_000_000 + ", \"host\": \"" + host + "\"}"),
+                    XContentType.JSON);
+                int shard = OperationRouting.generateShardId(metadata, id, null);
+                assertThat(shard, lessThan(numberOfShards));
+                shards.add(shard);
+            }
+            // all documents of a series land on the same shard, whatever their timestamp
+            assertEquals(1, shards.size());
+        }
+
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
+            () -> OperationRouting.generateShardId(metadata, "id", "routing"));
+        assertThat(e.getMessage(), containsString("routing is not supported"));
+        e = expectThrows(IllegalArgumentException.class, () -> OperationRouting.generateShardId(metadata, "not an id", null));
+        assertThat(e.getMessage(), containsString("is not a valid id for a time series index"));
+    }
+
     public void testPartitionedIndex() {
         // make sure the same routing value always has each _id fall within the configured partition size
         for (int shards = 1; shards < 5; shards++) {
@@ -687,4 +725,41 @@ public class OperationRoutingTests extends ESTestCase{
         terminate(threadPool);
     }
 
+    public void testARSPrefersWarmestCacheAmongEquallyLoadedNodes() throws Exception {
+        String[] indexNames = new String[] { "test0" };
+        ClusterState state = ClusterStateCreationUtils.stateWithAssignedPrimariesAndReplicas(indexNames, 1, 2);
+        OperationRouting opRouting = new OperationRouting(Settings.EMPTY,
+            new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS));
+        opRouting.setUseAdaptiveReplicaSelection(true);
+        TestThreadPool threadPool = new TestThreadPool("test");
+        ClusterService clusterService = ClusterServiceUtils.createClusterService(threadPool);
+        ShardId shardId = state.routingTable().index("test0").shard(0).shardId();
+
+        ResponseCollectorService collector = new ResponseCollectorService(clusterService);
+
+        // Three nodes with similar statistics, the third one holding most of the shard in its cache
+        collector.addNodeStatistics("node_0", 1, TimeValue.timeValueMillis(50).nanos(), TimeValue.timeValueMillis(40).nanos());
+        collector.addNodeStatistics("node_1", 1, TimeValue.timeValueMillis(51).nanos(), TimeValue.timeValueMillis(40).nanos());
+        collector.addNodeStatistics("node_2", 1, TimeValue.timeValueMillis(52).nanos(), TimeValue.timeValueMillis(40).nanos());
+        collector.addShardCachedBytes("node_0", shardId, 0L);
+        collector.addShardCachedBytes("node_1", shardId, 1024L);
+        collector.addShardCachedBytes("node_2", shardId, 4096L);
+
+        GroupShardsIterator<ShardIterator> groupIterator = opRouting.searchShards(
+            state, indexNames, null, null, collector, new HashMap<>());
+        ShardIterator shardIterator = groupIterator.get(0);
+        assertThat(shardIterator.nextOrNull().currentNodeId(), equalTo("node_2"));
+        assertThat(shardIterator.nextOrNull().currentNodeId(), equalTo("node_1"));
+        assertThat(shardIterator.nextOrNull().currentNodeId(), equalTo("node_0"));
+
+        // The warmest node becomes much more loaded
+        collector.addNodeStatistics("node_2", 6, TimeValue.timeValueMillis(300).nanos(), TimeValue.timeValueMillis(200).nanos());
+
+        groupIterator = opRouting.searchShards(state, indexNames, null, null, collector, new HashMap<>());
+        assertThat(groupIterator.get(0).nextOrNull().currentNodeId(), equalTo("node_1"));
+
+        IOUtils.close(clusterService);
+        terminate(threadPool);
+    }
+
 }
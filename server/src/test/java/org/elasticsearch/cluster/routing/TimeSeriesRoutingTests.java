@@ -0,0 +1,168 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.cluster.routing;
+
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.index.IndexMode;
+import org.elasticsearch.index.mapper.TimeSeriesIdFieldMapper;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+
+public class TimeSeriesRoutingTests extends ESTestCase {
+
+    public void testSameSeriesHasSameRoutingHash() {
+        IndexMetadata indexMetadata = timeSeriesIndex(between(1, 20));
+        String first = createId(indexMetadata, "{\"@timestamp\": 1000, \"host\": \"a\", \"dc\": {\"name\": \"east\"}, \"cpu\": 3}");
+        String second = createId(indexMetadata, "{\"dc\": {\"name\": \"east\"}, \"cpu\": 5, \"host\": \"a\", \"@timestamp\": 2000}");
+        assertThat(first, not(equalTo(second)));
+        assertThat(TimeSeriesRouting.routingHash(first), equalTo(TimeSeriesRouting.routingHash(second)));
+
+        assertThat(OperationRouting.generateShardId(indexMetadata, first, null),
+            equalTo(OperationRouting.generateShardId(indexMetadata, second, null)));
+        expectThrows(IllegalArgumentException.class, () -> OperationRouting.generateShardId(indexMetadata, first, "routing"));
+    }
+
+    public void testSameDocumentHasSameId() {
+        IndexMetadata indexMetadata = timeSeriesIndex(1);
+        assertThat(createId(indexMetadata, "{\"@timestamp\": \"2021-04-28T18:50:04.467Z\", \"host\": \"a\"}"),
+            equalTo(createId(indexMetadata, "{\"host\": \"a\", \"@timestamp\": 1619635804467}")));
+    }
+
+    public void testValuesAreConvertedLikeTheirMapping() {
+        IndexMetadata indexMetadata = timeSeriesIndex(1);
+        assertThat(createId(indexMetadata, "{\"@timestamp\": 1000, \"host\": \"a\", \"port\": 80, \"ip\": \"::1\"}"),
+            equalTo(createId(indexMetadata, "{\"@timestamp\": 1000, \"host\": \"a\", \"port\": \"80\", \"ip\": \"0:0:0:0:0:0:0:1\"}")));
+        assertThat(createId(indexMetadata, "{\"@timestamp\": 1000, \"host\": \"1\"}"),
+            not(equalTo(createId(indexMetadata, "{\"@timestamp\": 1000, \"host\": \"1.0\"}"))));
+        expectThrows(IllegalArgumentException.class, () -> createId(indexMetadata, "{\"@timestamp\": 1000, \"ip\": \"not an ip\"}"));
+    }
+
+    public void testTimestampUsesMappedFormat() {
+        IndexMetadata seconds = timeSeriesIndex(1, "\"type\": \"date\", \"format\": \"epoch_second\"");
+        assertThat(createId(seconds, "{\"@timestamp\": 1619635804, \"host\": \"a\"}"),
+            equalTo(createId(timeSeriesIndex(1), "{\"@timestamp\": \"2021-04-28T18:50:04Z\", \"host\": \"a\"}")));
+        expectThrows(IllegalArgumentException.class,
+            () -> createId(seconds, "{\"@timestamp\": \"2021-04-28T18:50:04Z\", \"host\": \"a\"}"));
+
+        IndexMetadata nanos = timeSeriesIndex(1, "\"type\": \"date_nanos\"");
+        String id = createId(nanos, "{\"@timestamp\": \"2021-04-28T18:50:04.467000001Z\", \"host\": \"a\"}");
+        assertThat(id, equalTo(TimeSeriesRouting.createId(tsid("host", new BytesRef("a")), 1619635804467000001L)));
+    }
+
+    public void testIdMatchesSeriesIdAndTimestamp() {
+        IndexMetadata indexMetadata = timeSeriesIndex(1);
+        String id = createId(indexMetadata, "{\"@timestamp\": 1000, \"host\": \"a\", \"dc\": {\"name\": \"east\"}, \"port\": 80}");
+        BytesRef tsid = tsid("dc.name", new BytesRef("east"), "host", new BytesRef("a"), "port", 80L);
+        assertThat(id, equalTo(TimeSeriesRouting.createId(tsid, 1000)));
+    }
+
+    public void testDifferentSeriesHaveDifferentIds() {
+        IndexMetadata indexMetadata = timeSeriesIndex(1);
+        assertThat(createId(indexMetadata, "{\"@timestamp\": 1000, \"host\": \"a\"}"),
+            not(equalTo(createId(indexMetadata, "{\"@timestamp\": 1000, \"host\": \"b\"}"))));
+        assertThat(createId(indexMetadata, "{\"@timestamp\": 1000, \"host\": \"a\"}"),
+            not(equalTo(createId(indexMetadata, "{\"@timestamp\": 1000, \"host\": \"a\", \"dc\": {\"name\": \"east\"}}"))));
+    }
+
+    public void testMissingValues() {
+        IndexMetadata indexMetadata = timeSeriesIndex(1);
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
+            () -> createId(indexMetadata, "{\"@timestamp\": 1000, \"cpu\": 3}"));
+        assertThat(e.getMessage(), containsString("must have a value for at least one of the routing fields"));
+        e = expectThrows(IllegalArgumentException.class, () -> createId(indexMetadata, "{\"host\": \"a\"}"));
+        assertThat(e.getMessage(), containsString("must have a [@timestamp]"));
+        e = expectThrows(IllegalArgumentException.class,
+            () -> createId(indexMetadata, "{\"@timestamp\": 1000, \"host\": [\"a\", \"b\"]}"));
+        assertThat(e.getMessage(), containsString("must have a single value"));
+    }
+
+    public void testNullValues() {
+        IndexMetadata indexMetadata = IndexMetadata.builder("test")
+            .settings(settings(Version.CURRENT)
+                .put(IndexMode.INDEX_MODE_SETTING.getKey(), "time_series")
+                .putList(IndexMetadata.INDEX_ROUTING_PATH.getKey(), "host", "port"))
+            .putMapping("{\"properties\": {\"@timestamp\": {\"type\": \"date\"}, "
+                + "\"host\": {\"type\": \"keyword\", \"dimension\": true, \"null_value\": \"none\"}, "
+                + "\"port\": {\"type\": \"integer\", \"dimension\": true}}}")
+            .numberOfShards(1)
+            .numberOfReplicas(0)
+            .build();
+        // like the field mappers, a null value is replaced by the null_value of the field, or ignored if the field has none
+        assertThat(createId(indexMetadata, "{\"@timestamp\": 1000, \"host\": null, \"port\": null}"),
+            equalTo(TimeSeriesRouting.createId(tsid("host", new BytesRef("none")), 1000)));
+        assertThat(createId(indexMetadata, "{\"@timestamp\": 1000, \"host\": null, \"port\": 80}"),
+            equalTo(createId(indexMetadata, "{\"@timestamp\": 1000, \"host\": \"none\", \"port\": 80}")));
+    }
+
+    public void testMultiFieldUsesValueOfParent() {
+        IndexMetadata indexMetadata = IndexMetadata.builder("test")
+            .settings(settings(Version.CURRENT)
+                .put(IndexMode.INDEX_MODE_SETTING.getKey(), "time_series")
+                .putList(IndexMetadata.INDEX_ROUTING_PATH.getKey(), "host.name.raw"))
+            .putMapping("{\"properties\": {\"@timestamp\": {\"type\": \"date\"}, \"host\": {\"properties\": {\"name\": {"
+                + "\"type\": \"text\", \"fields\": {\"raw\": {\"type\": \"keyword\", \"dimension\": true}}}}}}}")
+            .numberOfShards(1)
+            .numberOfReplicas(0)
+            .build();
+        assertThat(createId(indexMetadata, "{\"@timestamp\": 1000, \"host\": {\"name\": \"a\"}}"),
+            equalTo(TimeSeriesRouting.createId(tsid("host.name.raw", new BytesRef("a")), 1000)));
+    }
+
+    public void testInvalidId() {
+        expectThrows(IllegalArgumentException.class, () -> TimeSeriesRouting.routingHash("not an id"));
+        expectThrows(IllegalArgumentException.class, () -> TimeSeriesRouting.routingHash("abcd"));
+    }
+
+    private static IndexMetadata timeSeriesIndex(int numberOfShards) {
+        return timeSeriesIndex(numberOfShards, "\"type\": \"date\"");
+    }
+
+    private static IndexMetadata timeSeriesIndex(int numberOfShards, String timestampMapping) {
+        return IndexMetadata.builder("test")
+            .settings(settings(Version.CURRENT)
+                .put(IndexMode.INDEX_MODE_SETTING.getKey(), "time_series")
+                .putList(IndexMetadata.INDEX_ROUTING_PATH.getKey(), "host", "dc.name", "port", "ip"))
+            .putMapping("{\"properties\": {\"@timestamp\": {" + timestampMapping + "}, "
+                + "\"host\": {\"type\": \"keyword\", \"dimension\": true}, "
+                + "\"dc\": {\"properties\": {\"name\": {\"type\": \"keyword\", \"dimension\": true}}}, "
+                + "\"port\": {\"type\": \"integer\", \"dimension\": true}, "
+                + "\"ip\": {\"type\": \"ip\", \"dimension\": true}, "
+                + "\"cpu\": {\"type\": \"long\"}}}")
+            .numberOfShards(numberOfShards)
+            .numberOfReplicas(0)
+            .build();
+    }
+
+    private static String createId(IndexMetadata indexMetadata, String source) {
+        return TimeSeriesRouting.forIndex(indexMetadata).createId(new BytesArray(source), XContentType.JSON);
+    }
+
+    private static BytesRef tsid(Object... dimensions) {
+        SortedMap<String, Object> map = new TreeMap<>();
+        for (int i = 0; i < dimensions.length; i += 2) {
+            map.put((String) dimensions[i], dimensions[i + 1]);
+        }
+        try {
+            return TimeSeriesIdFieldMapper.encodeTsid(map);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
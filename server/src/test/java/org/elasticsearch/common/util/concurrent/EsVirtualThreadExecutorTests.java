@@ -0,0 +1,159 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.common.util.concurrent;
+
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class EsVirtualThreadExecutorTests extends ESTestCase {
+
+    private final ThreadContext threadContext = new ThreadContext(Settings.EMPTY);
+
+    private ThreadFactory threadFactory() {
+        // virtual threads where the runtime supports them, platform threads otherwise
+        return EsExecutors.virtualThreadFactory(getTestName());
+    }
+
+    public void testPermitsBoundConcurrentTasks() throws Exception {
+        final int permits = randomIntBetween(1, 8);
+        final EsVirtualThreadExecutor executor = EsExecutors.newThreadPerTask(getTestName(), permits, threadFactory(), threadContext);
+        try {
+            final int numberOfTasks = permits + randomIntBetween(1, 32);
+            final CountDownLatch latch = new CountDownLatch(1);
+            final CountDownLatch tasksLatch = new CountDownLatch(numberOfTasks);
+            final AtomicInteger running = new AtomicInteger();
+            final AtomicInteger maxRunning = new AtomicInteger();
+            for (int i = 0; i < numberOfTasks; i++) {
+                executor.execute(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        latch.await();
+                    } catch (InterruptedException e) {
+                        throw new AssertionError(e);
+                    } finally {
+                        running.decrementAndGet();
+                        tasksLatch.countDown();
+                    }
+                });
+            }
+            assertThat(executor.getActiveCount(), equalTo(permits));
+            assertThat(executor.getQueueSize(), equalTo(numberOfTasks - permits));
+
+            latch.countDown();
+            assertTrue(tasksLatch.await(10L, TimeUnit.SECONDS));
+            assertThat(maxRunning.get(), lessThanOrEqualTo(permits));
+            assertThat(executor.getLargestActiveCount(), equalTo(permits));
+            assertBusy(() -> assertThat(executor.getCompletedTaskCount(), equalTo((long) numberOfTasks)));
+        } finally {
+            terminate(executor);
+        }
+    }
+
+    public void testTasksRunInContextOfCaller() throws Exception {
+        final EsVirtualThreadExecutor executor = EsExecutors.newThreadPerTask(getTestName(), 1, threadFactory(), threadContext);
+        try {
+            final CountDownLatch latch = new CountDownLatch(1);
+            final AtomicBoolean header = new AtomicBoolean();
+            try (ThreadContext.StoredContext ignored = threadContext.stashContext()) {
+                threadContext.putHeader("header", "value");
+                executor.execute(() -> {
+                    header.set("value".equals(threadContext.getHeader("header")));
+                    latch.countDown();
+                });
+            }
+            assertTrue(latch.await(10L, TimeUnit.SECONDS));
+            assertTrue(header.get());
+        } finally {
+            terminate(executor);
+        }
+    }
+
+    public void testRejectsTasksOnceShutdown() throws Exception {
+        final EsVirtualThreadExecutor executor = EsExecutors.newThreadPerTask(getTestName(), 1, threadFactory(), threadContext);
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10L, TimeUnit.SECONDS));
+        assertTrue(executor.isTerminated());
+
+        final AtomicBoolean rejected = new AtomicBoolean();
+        executor.execute(new AbstractRunnable() {
+            @Override
+            public void onFailure(Exception e) {
+                throw new AssertionError(e);
+            }
+
+            @Override
+            public void onRejection(Exception e) {
+                assertTrue(((EsRejectedExecutionException) e).isExecutorShutdown());
+                rejected.set(true);
+            }
+
+            @Override
+            protected void doRun() {
+                throw new AssertionError("should not run");
+            }
+        });
+        assertTrue(rejected.get());
+        expectThrows(EsRejectedExecutionException.class, () -> executor.execute(() -> {
+            throw new AssertionError("should not run");
+        }));
+        assertThat(executor.getRejectedTaskCount(), equalTo(2L));
+    }
+
+    public void testNoTaskRunsAfterTermination() throws Exception {
+        final EsVirtualThreadExecutor executor = EsExecutors.newThreadPerTask(getTestName(), between(1, 4), threadFactory(), threadContext);
+        final AtomicBoolean terminated = new AtomicBoolean();
+        final AtomicInteger submitted = new AtomicInteger();
+        final AtomicInteger ran = new AtomicInteger();
+        final AtomicInteger rejected = new AtomicInteger();
+        final CountDownLatch startLatch = new CountDownLatch(1);
+        final Thread[] submitters = new Thread[between(1, 4)];
+        for (int i = 0; i < submitters.length; i++) {
+            submitters[i] = new Thread(() -> {
+                try {
+                    startLatch.await();
+                } catch (InterruptedException e) {
+                    throw new AssertionError(e);
+                }
+                // submits tasks concurrently with the shutdown until they are rejected
+                while (true) {
+                    submitted.incrementAndGet();
+                    try {
+                        executor.execute(() -> {
+                            assertFalse("task ran after the executor terminated", terminated.get());
+                            ran.incrementAndGet();
+                        });
+                    } catch (EsRejectedExecutionException e) {
+                        assertTrue(e.isExecutorShutdown());
+                        rejected.incrementAndGet();
+                        return;
+                    }
+                }
+            });
+            submitters[i].start();
+        }
+        startLatch.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(10L, TimeUnit.SECONDS));
+        terminated.set(true);
+        for (Thread submitter : submitters) {
+            submitter.join();
+        }
+        assertThat(rejected.get(), equalTo(submitters.length));
+        assertThat(ran.get() + rejected.get(), equalTo(submitted.get()));
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.analysis.AnalyzerScope;
+import org.elasticsearch.index.analysis.IndexAnalyzers;
+import org.elasticsearch.index.analysis.LowercaseNormalizer;
+import org.elasticsearch.index.analysis.NamedAnalyzer;
+import org.elasticsearch.index.mapper.MapperService;
+import org.elasticsearch.index.mapper.MapperServiceTestCase;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.containsString;
+
+public class IndexModeTests extends MapperServiceTestCase {
+
+    private static final Settings TIME_SERIES_SETTINGS = Settings.builder()
+        .put(IndexMode.INDEX_MODE_SETTING.getKey(), "time_series")
+        .putList(IndexMetadata.INDEX_ROUTING_PATH.getKey(), "host", "dc.name")
+        .build();
+
+    public void testValidTimeSeriesMapping() throws IOException {
+        MapperService mapperService = createMapperService(TIME_SERIES_SETTINGS, mapping(b -> {
+            b.startObject("@timestamp").field("type", "date_nanos").endObject();
+            b.startObject("host").field("type", "keyword").field("dimension", true).endObject();
+            b.startObject("dc").startObject("properties");
+            b.startObject("name").field("type", "keyword").field("dimension", true).endObject();
+            b.endObject().endObject();
+            b.startObject("cpu").field("type", "long").endObject();
+        }));
+        IndexMode.TIME_SERIES.validateMapping(mapperService.mappingLookup(), TIME_SERIES_SETTINGS);
+    }
+
+    public void testTimeSeriesRequiresDateTimestamp() throws IOException {
+        MapperService withoutTimestamp = createMapperService(TIME_SERIES_SETTINGS, mapping(b -> {
+            b.startObject("host").field("type", "keyword").field("dimension", true).endObject();
+        }));
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
+            () -> IndexMode.TIME_SERIES.validateMapping(withoutTimestamp.mappingLookup(), TIME_SERIES_SETTINGS));
+        assertThat(e.getMessage(), containsString("requires a [@timestamp] field of type [date] or [date_nanos]"));
+
+        MapperService keywordTimestamp = createMapperService(TIME_SERIES_SETTINGS, mapping(b -> {
+            b.startObject("@timestamp").field("type", "keyword").endObject();
+            b.startObject("host").field("type", "keyword").field("dimension", true).endObject();
+        }));
+        e = expectThrows(IllegalArgumentException.class,
+            () -> IndexMode.TIME_SERIES.validateMapping(keywordTimestamp.mappingLookup(), TIME_SERIES_SETTINGS));
+        assertThat(e.getMessage(), containsString("requires a [@timestamp] field of type [date] or [date_nanos]"));
+    }
+
+    public void testRoutingPathsMustBeDimensions() throws IOException {
+        MapperService unmapped = createMapperService(TIME_SERIES_SETTINGS, mapping(b -> {
+            b.startObject("@timestamp").field("type", "date").endObject();
+            b.startObject("host").field("type", "keyword").field("dimension", true).endObject();
+        }));
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class,
+            () -> IndexMode.TIME_SERIES.validateMapping(unmapped.mappingLookup(), TIME_SERIES_SETTINGS));
+        assertThat(e.getMessage(), containsString("must be mapped dimension fields, but [dc.name] is not"));
+
+        MapperService notDimension = createMapperService(TIME_SERIES_SETTINGS, mapping(b -> {
+            b.startObject("@timestamp").field("type", "date").endObject();
+            b.startObject("host").field("type", "keyword").field("dimension", true).endObject();
+            b.startObject("dc").startObject("properties");
+            b.startObject("name").field("type", "keyword").endObject();
+            b.endObject().endObject();
+        }));
+        e = expectThrows(IllegalArgumentException.class,
+            () -> IndexMode.TIME_SERIES.validateMapping(notDimension.mappingLookup(), TIME_SERIES_SETTINGS));
+        assertThat(e.getMessage(), containsString("must be mapped dimension fields, but [dc.name] is not"));
+    }
+
+    /**
+     * Documents that only differ in a dimension that isn't a routing field would get the same {@code _id}, so such mappings are
+     * rejected, both when the index is created and when the mapping is updated later.
+     */
+    public void testDimensionsMustBeRoutingPaths() throws IOException {
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> createMapperService(TIME_SERIES_SETTINGS,
+            mapping(b -> {
+                b.startObject("@timestamp").field("type", "date").endObject();
+                b.startObject("host").field("type", "keyword").field("dimension", true).endObject();
+                b.startObject("port").field("type", "integer").field("dimension", true).endObject();
+            })));
+        assertThat(e.getMessage(), containsString("all dimension fields must be listed in [index.routing_path]"));
+        assertThat(e.getMessage(), containsString("but [port] is not"));
+
+        MapperService mapperService = createMapperService(TIME_SERIES_SETTINGS, mapping(b -> {
+            b.startObject("@timestamp").field("type", "date").endObject();
+            b.startObject("host").field("type", "keyword").field("dimension", true).endObject();
+        }));
+        e = expectThrows(IllegalArgumentException.class, () -> merge(mapperService, mapping(b -> {
+            b.startObject("port").field("type", "integer").field("dimension", true).endObject();
+        })));
+        assertThat(e.getMessage(), containsString("but [port] is not"));
+    }
+
+    /**
+     * The coordinating node derives the {@code _id} of a document from the values of its dimensions in the source, so it would route
+     * {@code "A"} and {@code "a"} to different series even though a lowercase normalizer puts them into the same one.
+     */
+    public void testDimensionsMustNotBeNormalized() throws IOException {
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> createMapperService(TIME_SERIES_SETTINGS,
+            mapping(b -> {
+                b.startObject("@timestamp").field("type", "date").endObject();
+                b.startObject("host").field("type", "keyword").field("dimension", true).field("normalizer", "lowercase").endObject();
+            })));
+        assertThat(e.getMessage(), containsString("doesn't support a [normalizer] on dimension fields, but [host] has one"));
+    }
+
+    public void testStandardModeAcceptsAnyMapping() throws IOException {
+        MapperService mapperService = createMapperService(mapping(b -> {
+            b.startObject("port").field("type", "integer").field("dimension", true).endObject();
+            b.startObject("host").field("type", "keyword").field("dimension", true).field("normalizer", "lowercase").endObject();
+        }));
+        IndexMode.STANDARD.validateMapping(mapperService.mappingLookup(), Settings.EMPTY);
+        IndexMode.STANDARD.validateDimensions(mapperService.mappingLookup(), Settings.EMPTY);
+    }
+
+    @Override
+    protected IndexAnalyzers createIndexAnalyzers(IndexSettings indexSettings) {
+        return new IndexAnalyzers(
+            Map.of("default", new NamedAnalyzer("default", AnalyzerScope.INDEX, new StandardAnalyzer())),
+            Map.of("lowercase", new NamedAnalyzer("lowercase", AnalyzerScope.INDEX, new LowercaseNormalizer())),
+            Map.of()
+        );
+    }
+}
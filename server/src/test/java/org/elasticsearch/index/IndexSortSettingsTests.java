@@ -10,6 +10,7 @@ package org.elasticsearch.index;
 
 import org.apache.lucene.search.Query;
 import org.elasticsearch.Version;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.index.fielddata.IndexFieldData;
 import org.elasticsearch.index.fielddata.IndexFieldDataService;
@@ -83,6 +84,42 @@ public class IndexSortSettingsTests extends ESTestCase {
         assertNull(config.sortSpecs[1].mode);
     }
 
+    public void testTimeSeriesModeSortsBySeriesAndTimestamp() {
+        Settings settings = Settings.builder()
+            .put(IndexMode.INDEX_MODE_SETTING.getKey(), "time_series")
+            .putList(IndexMetadata.INDEX_ROUTING_PATH.getKey(), "host")
+            .build();
+        IndexSortConfig config = indexSettings(settings).getIndexSortConfig();
+        assertTrue(config.hasIndexSort());
+        assertThat(config.sortSpecs.length, equalTo(2));
+        assertThat(config.sortSpecs[0].field, equalTo("_tsid"));
+        assertThat(config.sortSpecs[1].field, equalTo("@timestamp"));
+        assertNull(config.sortSpecs[0].order);
+        assertNull(config.sortSpecs[1].order);
+    }
+
+    public void testTimeSeriesModeRejectsIndexSort() {
+        Settings settings = Settings.builder()
+            .put(IndexMode.INDEX_MODE_SETTING.getKey(), "time_series")
+            .putList(IndexMetadata.INDEX_ROUTING_PATH.getKey(), "host")
+            .put("index.sort.field", "field1")
+            .build();
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> indexSettings(settings));
+        assertThat(e.getMessage(), containsString("index.sort.field"));
+    }
+
+    public void testTimeSeriesModeRequiresRoutingPath() {
+        Settings settings = Settings.builder().put(IndexMode.INDEX_MODE_SETTING.getKey(), "time_series").build();
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> indexSettings(settings));
+        assertThat(e.getMessage(), containsString(IndexMetadata.INDEX_ROUTING_PATH.getKey()));
+    }
+
+    public void testStandardModeRejectsRoutingPath() {
+        Settings settings = Settings.builder().putList(IndexMetadata.INDEX_ROUTING_PATH.getKey(), "host").build();
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> indexSettings(settings));
+        assertThat(e.getMessage(), containsString(IndexMetadata.INDEX_ROUTING_PATH.getKey()));
+    }
+
     public void testInvalidIndexSort() {
         final Settings settings = Settings.builder()
             .put("index.sort.field", "field1")
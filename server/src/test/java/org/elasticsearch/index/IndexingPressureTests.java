@@ -9,11 +9,19 @@
 package org.elasticsearch.index;
 
 import org.elasticsearch.core.Releasable;
+import org.elasticsearch.core.Releasables;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.stats.IndexingPressureStats;
+import org.elasticsearch.index.stats.ShardIndexingPressureStats;
 import org.elasticsearch.test.ESTestCase;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
 public class IndexingPressureTests extends ESTestCase {
 
     private final Settings settings = Settings.builder().put(IndexingPressure.MAX_INDEXING_BYTES.getKey(), "10KB").build();
@@ -143,4 +151,77 @@ public class IndexingPressureTests extends ESTestCase {
         }
         assertEquals(0, indexingPressure.stats().getCurrentCoordinatingBytes());
     }
+
+    public void testShardRejectionsBasedOnThroughput() {
+        final Settings shardSettings = Settings.builder().put(settings)
+            .put(ShardIndexingPressure.ENABLED.getKey(), true)
+            .put(ShardIndexingPressure.MIN_LIMIT.getKey(), "1KB")
+            .put(ShardIndexingPressure.MAX_DRAIN_TIME.getKey(), "1s")
+            .build();
+        final AtomicLong relativeTimeInNanos = new AtomicLong();
+        final IndexingPressure indexingPressure = new IndexingPressure(shardSettings, relativeTimeInNanos::get);
+        final ShardId slowShard = new ShardId("index", "_na_", 0);
+        final ShardId fastShard = new ShardId("index", "_na_", 1);
+
+        // the fast shard completes 10KB in its first second with two rounds of 5 concurrent operations of 1KB
+        for (int round = 0; round < 2; round++) {
+            final List<Releasable> fast = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                fast.add(indexingPressure.markPrimaryOperationStarted(fastShard, 1, 1024, false));
+            }
+            relativeTimeInNanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(400));
+            Releasables.close(fast.subList(0, 4));
+            relativeTimeInNanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+            fast.get(4).close();
+        }
+        // time without operations in flight does not count against the throughput of a shard
+        relativeTimeInNanos.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        // the slow shard completes 1KB per second
+        Releasable slow = indexingPressure.markPrimaryOperationStarted(slowShard, 1, 1024, false);
+        relativeTimeInNanos.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        slow.close();
+        assertEquals(2, indexingPressure.stats().getShardStats().size());
+        for (ShardIndexingPressureStats shardStats : indexingPressure.stats().getShardStats()) {
+            assertEquals(shardStats.getShardId().equals(slowShard) ? 1024 : 1024 * 10, shardStats.getPrimaryThroughput());
+        }
+
+        // below the soft limit shards are only bound by the node limit
+        try (Releasable ignored = indexingPressure.markPrimaryOperationStarted(slowShard, 1, 1024 * 4, false)) {
+            assertEquals(0, indexingPressure.stats().getPrimaryRejections());
+            relativeTimeInNanos.addAndGet(TimeUnit.SECONDS.toNanos(4));
+        }
+
+        try (Releasable coordinating = indexingPressure.markCoordinatingOperationStarted(1, 1024 * 6, false);
+             Releasable slowPrimary = indexingPressure.markPrimaryOperationStarted(slowShard, 1, 512, false)) {
+            expectThrows(EsRejectedExecutionException.class, () -> indexingPressure.markPrimaryOperationStarted(slowShard, 1, 1024, false));
+            try (Releasable fastPrimary = indexingPressure.markPrimaryOperationStarted(fastShard, 1, 1024 * 2, false)) {
+                IndexingPressureStats stats = indexingPressure.stats();
+                assertEquals(1, stats.getPrimaryRejections());
+                assertEquals(1024 * 6 + 512 + 1024 * 2, stats.getCurrentCombinedCoordinatingAndPrimaryBytes());
+                assertEquals(2, stats.getShardStats().size());
+                for (ShardIndexingPressureStats shardStats : stats.getShardStats()) {
+                    if (shardStats.getShardId().equals(slowShard)) {
+                        assertEquals(512, shardStats.getCurrentPrimaryBytes());
+                        assertEquals(1, shardStats.getPrimaryRejections());
+                        assertEquals(1024, shardStats.getPrimaryLimit());
+                    } else {
+                        assertEquals(fastShard, shardStats.getShardId());
+                        assertEquals(1024 * 2, shardStats.getCurrentPrimaryBytes());
+                        assertEquals(0, shardStats.getPrimaryRejections());
+                        assertEquals(1024 * 10, shardStats.getPrimaryLimit());
+                    }
+                }
+            }
+
+            // slow shards can be forced
+            indexingPressure.markPrimaryOperationStarted(slowShard, 1, 1024, true).close();
+        }
+
+        // idle shards are eventually dropped
+        indexingPressure.pruneIdleShardTrackers();
+        assertEquals(2, indexingPressure.stats().getShardStats().size());
+        relativeTimeInNanos.addAndGet(ShardIndexingPressure.IDLE_TRACKER_RETENTION.nanos() + 1);
+        indexingPressure.pruneIdleShardTrackers();
+        assertTrue(indexingPressure.stats().getShardStats().isEmpty());
+    }
 }
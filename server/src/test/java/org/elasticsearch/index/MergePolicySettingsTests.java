@@ -126,6 +126,11 @@ public class MergePolicySettingsTests extends ESTestCase {
             Settings.builder().put(MergePolicyConfig.INDEX_MERGE_POLICY_DELETES_PCT_ALLOWED_SETTING.getKey(), 22).build()));
         assertEquals(((EsTieredMergePolicy) indexSettings.getMergePolicy()).getDeletesPctAllowed(), 22, 0);
 
+        assertFalse(((EsTieredMergePolicy) indexSettings.getMergePolicy()).isTimeRangeAware());
+        indexSettings.updateIndexMetadata(newIndexMeta("index",
+            Settings.builder().put(MergePolicyConfig.INDEX_MERGE_POLICY_TIME_RANGE_AWARE_SETTING.getKey(), true).build()));
+        assertTrue(((EsTieredMergePolicy) indexSettings.getMergePolicy()).isTimeRangeAware());
+
         IllegalArgumentException exc = expectThrows(IllegalArgumentException.class, () ->
             indexSettings.updateIndexMetadata(newIndexMeta("index",
                 Settings.builder().put(MergePolicyConfig.INDEX_MERGE_POLICY_DELETES_PCT_ALLOWED_SETTING.getKey(), 53).build())));
@@ -146,6 +151,7 @@ public class MergePolicySettingsTests extends ESTestCase {
             MergePolicyConfig.DEFAULT_SEGMENTS_PER_TIER, 0);
         assertEquals(((EsTieredMergePolicy) indexSettings.getMergePolicy()).getDeletesPctAllowed(),
             MergePolicyConfig.DEFAULT_DELETES_PCT_ALLOWED, 0);
+        assertFalse(((EsTieredMergePolicy) indexSettings.getMergePolicy()).isTimeRangeAware());
     }
 
     public Settings build(String value) {
@@ -0,0 +1,150 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.MergePolicy;
+import org.apache.lucene.index.NoMergePolicy;
+import org.apache.lucene.index.SegmentCommitInfo;
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.store.Directory;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class TimeRangeMergeSplitterTests extends ESTestCase {
+
+    public void testReadTimeRange() throws IOException {
+        try (Directory dir = newDirectory()) {
+            try (IndexWriter writer = new IndexWriter(dir, noMergesConfig())) {
+                addSegment(writer, 100, 200, 150);
+                addSegment(writer);
+            }
+            final SegmentInfos infos = SegmentInfos.readLatestCommit(dir);
+            assertThat(infos.size(), equalTo(2));
+            final TimeRangeMergeSplitter.TimeRange range = TimeRangeMergeSplitter.readTimeRange(infos.info(0));
+            assertThat(range.min, equalTo(100L));
+            assertThat(range.max, equalTo(200L));
+            assertThat(TimeRangeMergeSplitter.readTimeRange(infos.info(1)), sameInstance(TimeRangeMergeSplitter.TimeRange.UNKNOWN));
+        }
+    }
+
+    public void testGroupsSegmentsWithCloseTimeRanges() throws IOException {
+        try (Directory dir = newDirectory()) {
+            try (IndexWriter writer = new IndexWriter(dir, noMergesConfig())) {
+                addSegment(writer, 0, 100);
+                addSegment(writer, 50, 150);
+                addSegment(writer, 10_000, 10_100);
+                addSegment(writer, 10_150, 10_200);
+                addSegment(writer);
+                addSegment(writer, 1_000_000, 1_000_010);
+            }
+            final SegmentInfos infos = SegmentInfos.readLatestCommit(dir);
+            final List<SegmentCommitInfo> segments = new ArrayList<>();
+            infos.forEach(segments::add);
+            final List<SegmentCommitInfo> shuffled = new ArrayList<>(segments);
+            Collections.shuffle(shuffled, random());
+            final List<List<SegmentCommitInfo>> groups = new TimeRangeMergeSplitter().groupByTimeRange(shuffled, 0L);
+            assertThat(groups, hasSize(2));
+            final Set<Set<SegmentCommitInfo>> actual = new HashSet<>();
+            for (List<SegmentCommitInfo> group : groups) {
+                actual.add(new HashSet<>(group));
+            }
+            // the segment without timestamps joins the first of the largest groups, the segment far away in time is left alone
+            assertThat(actual, equalTo(Set.of(
+                Set.of(segments.get(0), segments.get(1), segments.get(4)),
+                Set.of(segments.get(2), segments.get(3)))));
+        }
+    }
+
+    public void testKeepsMergeIfNoSegmentsAreClose() throws IOException {
+        try (Directory dir = newDirectory()) {
+            try (IndexWriter writer = new IndexWriter(dir, noMergesConfig())) {
+                addSegment(writer, 0, 10);
+                addSegment(writer, 1_000, 1_010);
+                addSegment(writer, 100_000, 100_010);
+            }
+            final SegmentInfos infos = SegmentInfos.readLatestCommit(dir);
+            final List<SegmentCommitInfo> segments = new ArrayList<>();
+            infos.forEach(segments::add);
+            final TimeRangeMergeSplitter splitter = new TimeRangeMergeSplitter();
+            final MergePolicy.MergeSpecification spec = new MergePolicy.MergeSpecification();
+            spec.add(new MergePolicy.OneMerge(segments));
+            final MergePolicy.MergeSpecification split = splitter.split(spec, infos, 0L);
+            assertThat(split.merges, hasSize(1));
+            assertThat(split.merges.get(0).segments, containsInAnyOrder(segments.toArray()));
+            assertNull(splitter.split(null, infos, 0L));
+        }
+    }
+
+    public void testMergesSmallSegmentsThatAreFarFromOthers() throws IOException {
+        try (Directory dir = newDirectory()) {
+            try (IndexWriter writer = new IndexWriter(dir, noMergesConfig())) {
+                addSegment(writer, 0, 100);
+                addSegment(writer, 50, 150);
+                addSegment(writer, 100_000, 100_010);
+                addSegment(writer, 10_000_000, 10_000_010);
+            }
+            final SegmentInfos infos = SegmentInfos.readLatestCommit(dir);
+            final List<SegmentCommitInfo> segments = new ArrayList<>();
+            infos.forEach(segments::add);
+            final TimeRangeMergeSplitter splitter = new TimeRangeMergeSplitter();
+            final MergePolicy.MergeSpecification spec = new MergePolicy.MergeSpecification();
+            spec.add(new MergePolicy.OneMerge(segments));
+
+            // below the floor size, the segments that are far from any other segment are merged with each other
+            final MergePolicy.MergeSpecification split = splitter.split(spec, infos, Long.MAX_VALUE);
+            final Set<Set<SegmentCommitInfo>> actual = new HashSet<>();
+            for (MergePolicy.OneMerge merge : split.merges) {
+                actual.add(new HashSet<>(merge.segments));
+            }
+            assertThat(actual, equalTo(Set.of(
+                Set.of(segments.get(0), segments.get(1)),
+                Set.of(segments.get(2), segments.get(3)))));
+
+            // above the floor size, they are left alone
+            final MergePolicy.MergeSpecification splitWithoutFloor = splitter.split(spec, infos, 0L);
+            assertThat(splitWithoutFloor.merges, hasSize(1));
+            assertThat(splitWithoutFloor.merges.get(0).segments, containsInAnyOrder(segments.get(0), segments.get(1)));
+        }
+    }
+
+    private static IndexWriterConfig noMergesConfig() {
+        return new IndexWriterConfig().setMergePolicy(NoMergePolicy.INSTANCE);
+    }
+
+    private static void addSegment(IndexWriter writer, long... timestamps) throws IOException {
+        if (timestamps.length == 0) {
+            final Document doc = new Document();
+            doc.add(new StringField("id", randomAlphaOfLength(10), Field.Store.NO));
+            writer.addDocument(doc);
+        }
+        for (long timestamp : timestamps) {
+            final Document doc = new Document();
+            doc.add(new LongPoint(TimeRangeMergeSplitter.TIMESTAMP_FIELD, timestamp));
+            writer.addDocument(doc);
+        }
+        writer.commit();
+    }
+}
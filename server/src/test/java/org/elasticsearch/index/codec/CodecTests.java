@@ -15,6 +15,7 @@ import org.apache.lucene.codecs.lucene87.Lucene87Codec;
 import org.apache.lucene.codecs.lucene87.Lucene87StoredFieldsFormat;
 import org.apache.lucene.document.BinaryDocValuesField;
 import org.apache.lucene.document.Document;
+import org.apache.lucene.document.StoredField;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
@@ -35,8 +36,11 @@ import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.test.IndexSettingsModule;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 
+import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.instanceOf;
 
 @SuppressCodecs("*") // we test against default codec so never get a random one here!
@@ -61,6 +65,57 @@ public class CodecTests extends ESTestCase {
         assertDocValuesCompressionEquals(Lucene80DocValuesFormat.Mode.BEST_COMPRESSION, codec);
     }
 
+    public void testDictionaryCompression() throws Exception {
+        Codec codec = createCodecService().codec("dictionary_compression");
+        assertThat(codec, instanceOf(DictionaryCompressionCodec.class));
+        assertThat(codec.storedFieldsFormat(), instanceOf(DictionaryStoredFieldsFormat.class));
+        assertDocValuesCompressionEquals(Lucene80DocValuesFormat.Mode.BEST_COMPRESSION, codec);
+
+        try (Directory dir = newDirectory()) {
+            IndexWriterConfig iwc = newIndexWriterConfig(null);
+            iwc.setCodec(codec);
+            final List<String> sources = new ArrayList<>();
+            try (IndexWriter iw = new IndexWriter(dir, iwc)) {
+                final int numSegments = randomIntBetween(2, 5);
+                for (int segment = 0; segment < numSegments; segment++) {
+                    final int numDocs = randomIntBetween(1, 500);
+                    for (int i = 0; i < numDocs; i++) {
+                        final String source = "{\"@timestamp\":\"2021-06-0" + randomIntBetween(1, 9) + "T12:00:00Z\",\"host\":{\"name\":\""
+                            + randomFrom("web-1", "web-2", "db-1") + "\"},\"message\":\"" + randomAlphaOfLengthBetween(0, 2000) + "\"}";
+                        Document doc = new Document();
+                        doc.add(new StoredField("_source", new BytesRef(source)));
+                        doc.add(new StoredField("id", Integer.toString(sources.size())));
+                        iw.addDocument(doc);
+                        sources.add(source);
+                    }
+                    iw.commit();
+                }
+                assertStoredFields(dir, sources);
+
+                iw.forceMerge(1);
+                iw.commit();
+            }
+            assertStoredFields(dir, sources);
+            try (DirectoryReader ir = DirectoryReader.open(dir)) {
+                SegmentReader sr = (SegmentReader) ir.leaves().get(0).reader();
+                assertThat(sr.getSegmentInfo().info.getCodec().getName(), equalTo(DictionaryCompressionCodec.NAME));
+                assertTrue(sr.getSegmentInfo().files().stream().anyMatch(file -> file.endsWith(".fdd")) ||
+                    sr.getSegmentInfo().info.getUseCompoundFile());
+            }
+        }
+    }
+
+    private static void assertStoredFields(Directory dir, List<String> sources) throws IOException {
+        try (DirectoryReader ir = DirectoryReader.open(dir)) {
+            assertEquals(sources.size(), ir.numDocs());
+            for (int docId = 0; docId < ir.maxDoc(); docId++) {
+                Document doc = ir.document(docId);
+                int id = Integer.parseInt(doc.get("id"));
+                assertEquals(sources.get(id), doc.getBinaryValue("_source").utf8ToString());
+            }
+        }
+    }
+
     // write some docs with it, inspect .si to see this was the used compression
     private void assertStoredFieldsCompressionEquals(Lucene87StoredFieldsFormat.Mode expected, Codec actual) throws Exception {
         Directory dir = newDirectory();
@@ -0,0 +1,161 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.codec;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedNumericDocValuesField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.SortedNumericDocValues;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.util.TestUtil;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.Matchers.equalTo;
+
+public class TimeSeriesDocValuesFormatTests extends ESTestCase {
+
+    public void testNumeric() throws IOException {
+        final int numDocs = between(1, 5000);
+        final boolean sparse = randomBoolean();
+        final Long[] expected = new Long[numDocs];
+        long value = randomLongBetween(0, 1L << 40);
+        for (int i = 0; i < numDocs; i++) {
+            value += randomLongBetween(0, 100);
+            if (sparse == false || randomBoolean()) {
+                expected[i] = randomBoolean() ? value : randomLong();
+            }
+        }
+        try (Directory dir = newDirectory()) {
+            try (IndexWriter writer = new IndexWriter(dir, timeSeriesConfig())) {
+                for (Long expectedValue : expected) {
+                    final Document doc = new Document();
+                    if (expectedValue != null) {
+                        doc.add(new NumericDocValuesField("field", expectedValue));
+                    }
+                    writer.addDocument(doc);
+                    if (rarely()) {
+                        writer.commit();
+                    }
+                }
+                if (randomBoolean()) {
+                    writer.forceMerge(1);
+                }
+            }
+            try (DirectoryReader reader = DirectoryReader.open(dir)) {
+                int docBase = 0;
+                for (var leaf : reader.leaves()) {
+                    final LeafReader leafReader = leaf.reader();
+                    NumericDocValues values = leafReader.getNumericDocValues("field");
+                    if (values == null) {
+                        values = DocValues.emptyNumeric();
+                    }
+                    int doc = values.nextDoc();
+                    for (int i = 0; i < leafReader.maxDoc(); i++) {
+                        final Long expectedValue = expected[docBase + i];
+                        if (expectedValue != null) {
+                            assertThat(doc, equalTo(i));
+                            assertThat(values.longValue(), equalTo(expectedValue));
+                            doc = values.nextDoc();
+                        }
+                    }
+                    assertThat(doc, equalTo(DocIdSetIterator.NO_MORE_DOCS));
+
+                    values = leafReader.getNumericDocValues("field");
+                    if (values == null) {
+                        values = DocValues.emptyNumeric();
+                    }
+                    for (int target = between(0, 10); target < leafReader.maxDoc(); target += between(1, 100)) {
+                        final Long expectedValue = expected[docBase + target];
+                        assertThat(values.advanceExact(target), equalTo(expectedValue != null));
+                        if (expectedValue != null) {
+                            assertThat(values.longValue(), equalTo(expectedValue));
+                        }
+                    }
+                    docBase += leafReader.maxDoc();
+                }
+            }
+        }
+    }
+
+    public void testSortedNumeric() throws IOException {
+        final int numDocs = between(1, 5000);
+        final List<long[]> expected = new ArrayList<>(numDocs);
+        long value = randomLongBetween(0, 1L << 40);
+        for (int i = 0; i < numDocs; i++) {
+            final long[] docValues = new long[between(0, 3)];
+            for (int j = 0; j < docValues.length; j++) {
+                value += randomLongBetween(0, 100);
+                docValues[j] = randomBoolean() ? value : randomLong();
+            }
+            Arrays.sort(docValues);
+            expected.add(docValues);
+        }
+        try (Directory dir = newDirectory()) {
+            try (IndexWriter writer = new IndexWriter(dir, timeSeriesConfig())) {
+                for (long[] docValues : expected) {
+                    final Document doc = new Document();
+                    for (long docValue : docValues) {
+                        doc.add(new SortedNumericDocValuesField("field", docValue));
+                    }
+                    writer.addDocument(doc);
+                    if (rarely()) {
+                        writer.commit();
+                    }
+                }
+                if (randomBoolean()) {
+                    writer.forceMerge(1);
+                }
+            }
+            try (DirectoryReader reader = DirectoryReader.open(dir)) {
+                int docBase = 0;
+                for (var leaf : reader.leaves()) {
+                    final LeafReader leafReader = leaf.reader();
+                    SortedNumericDocValues values = leafReader.getSortedNumericDocValues("field");
+                    if (values == null) {
+                        values = DocValues.emptySortedNumeric();
+                    }
+                    int doc = values.nextDoc();
+                    for (int i = 0; i < leafReader.maxDoc(); i++) {
+                        final long[] expectedValues = expected.get(docBase + i);
+                        if (expectedValues.length == 0) {
+                            continue;
+                        }
+                        assertThat(doc, equalTo(i));
+                        final long[] actualValues = new long[values.docValueCount()];
+                        for (int j = 0; j < actualValues.length; j++) {
+                            actualValues[j] = values.nextValue();
+                        }
+                        assertArrayEquals(expectedValues, actualValues);
+                        doc = values.nextDoc();
+                    }
+                    assertThat(doc, equalTo(DocIdSetIterator.NO_MORE_DOCS));
+                    docBase += leafReader.maxDoc();
+                }
+            }
+        }
+    }
+
+    private static IndexWriterConfig timeSeriesConfig() {
+        // merge adjacent segments only so that documents keep their order
+        return new IndexWriterConfig().setCodec(TestUtil.alwaysDocValuesFormat(new TimeSeriesDocValuesFormat()))
+            .setMergePolicy(newLogMergePolicy());
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.codec;
+
+import org.apache.lucene.store.ByteArrayDataInput;
+import org.apache.lucene.store.ByteArrayDataOutput;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.lessThan;
+
+public class TimeSeriesEncoderTests extends ESTestCase {
+
+    public void testConstant() throws IOException {
+        final long[] values = new long[between(1, TimeSeriesEncoder.BLOCK_SIZE)];
+        Arrays.fill(values, randomLong());
+        assertThat(encodingOf(values), equalTo(TimeSeriesEncoder.DELTA));
+        // no bits per value, only the header
+        assertThat(assertRoundTrip(values).length, lessThan(16));
+    }
+
+    public void testCounter() throws IOException {
+        final long[] values = new long[TimeSeriesEncoder.BLOCK_SIZE];
+        values[0] = randomLongBetween(0, 1L << 40);
+        for (int i = 1; i < values.length; i++) {
+            values[i] = values[i - 1] + randomLongBetween(0, 1000);
+        }
+        assertThat(encodingOf(values), equalTo(TimeSeriesEncoder.DELTA));
+        // 10 bits per value and a few bytes of header
+        assertThat(assertRoundTrip(values).length, lessThan(TimeSeriesEncoder.BLOCK_SIZE * 10 / 8 + 32));
+    }
+
+    public void testCounterWithGrowingRate() throws IOException {
+        final long[] values = new long[TimeSeriesEncoder.BLOCK_SIZE];
+        values[0] = randomLongBetween(0, 1L << 40);
+        long delta = randomLongBetween(0, 1000);
+        for (int i = 1; i < values.length; i++) {
+            delta += between(10, 12);
+            values[i] = values[i - 1] + delta;
+        }
+        assertThat(encodingOf(values), equalTo(TimeSeriesEncoder.DELTA_OF_DELTA));
+        assertRoundTrip(values);
+    }
+
+    public void testAlternatingGauge() throws IOException {
+        final long[] values = new long[TimeSeriesEncoder.BLOCK_SIZE];
+        final double low = randomFrom(1.5, 100.25, -8.5);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Double.doubleToLongBits(randomBoolean() ? low : low * 1.25);
+        }
+        assertThat(encodingOf(values), equalTo(TimeSeriesEncoder.XOR));
+        assertRoundTrip(values);
+    }
+
+    public void testGauge() throws IOException {
+        final long[] values = new long[TimeSeriesEncoder.BLOCK_SIZE];
+        double value = randomDoubleBetween(-1000, 1000, true);
+        for (int i = 0; i < values.length; i++) {
+            if (randomBoolean()) {
+                value += randomFrom(-0.5, 0.25, 0.5);
+            }
+            values[i] = Double.doubleToLongBits(value);
+        }
+        assertRoundTrip(values);
+    }
+
+    public void testRandom() throws IOException {
+        final long[] values = new long[between(1, TimeSeriesEncoder.BLOCK_SIZE)];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = randomFrom(randomLong(), Long.MIN_VALUE, Long.MAX_VALUE, 0L);
+        }
+        assertRoundTrip(values);
+    }
+
+    private static byte encodingOf(long[] values) throws IOException {
+        final byte[] bytes = new byte[TimeSeriesEncoder.BLOCK_SIZE * Long.BYTES * 2];
+        final ByteArrayDataOutput out = new ByteArrayDataOutput(bytes);
+        new TimeSeriesEncoder().encode(values, values.length, out);
+        final ByteArrayDataInput in = new ByteArrayDataInput(bytes, 0, out.getPosition());
+        in.readZLong();
+        return in.readByte();
+    }
+
+    private static byte[] assertRoundTrip(long[] values) throws IOException {
+        final TimeSeriesEncoder encoder = new TimeSeriesEncoder();
+        final byte[] bytes = new byte[TimeSeriesEncoder.BLOCK_SIZE * Long.BYTES * 2];
+        final ByteArrayDataOutput out = new ByteArrayDataOutput(bytes);
+        encoder.encode(values, values.length, out);
+        final int length = out.getPosition();
+
+        final long[] decoded = new long[TimeSeriesEncoder.BLOCK_SIZE];
+        final ByteArrayDataInput in = new ByteArrayDataInput(bytes, 0, length);
+        encoder.decode(in, decoded, values.length);
+        assertThat(in.getPosition(), equalTo(length));
+        assertArrayEquals(values, Arrays.copyOf(decoded, values.length));
+        return Arrays.copyOf(bytes, length);
+    }
+}
@@ -24,6 +24,7 @@ import org.apache.lucene.document.NumericDocValuesField;
 import org.apache.lucene.document.StoredField;
 import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.FilterMergePolicy;
 import org.apache.lucene.index.IndexCommit;
 import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
@@ -38,6 +39,7 @@ import org.apache.lucene.index.MergePolicy;
 import org.apache.lucene.index.NoMergePolicy;
 import org.apache.lucene.index.NumericDocValues;
 import org.apache.lucene.index.PointValues;
+import org.apache.lucene.index.SegmentCommitInfo;
 import org.apache.lucene.index.SegmentInfos;
 import org.apache.lucene.index.SoftDeletesRetentionMergePolicy;
 import org.apache.lucene.index.Term;
@@ -86,6 +88,7 @@ import org.elasticsearch.common.lucene.index.SequentialStoredFieldsLeafReader;
 import org.elasticsearch.common.lucene.uid.Versions;
 import org.elasticsearch.common.lucene.uid.VersionsAndSeqNoResolver;
 import org.elasticsearch.common.lucene.uid.VersionsAndSeqNoResolver.DocIdAndSeqNo;
+import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.BigArrays;
 import org.elasticsearch.common.util.concurrent.AbstractRunnable;
@@ -93,11 +96,13 @@ import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.common.util.concurrent.ReleasableLock;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.core.CheckedRunnable;
+import org.elasticsearch.core.Releasable;
 import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.core.Tuple;
 import org.elasticsearch.core.internal.io.IOUtils;
 import org.elasticsearch.index.IndexModule;
 import org.elasticsearch.index.IndexSettings;
+import org.elasticsearch.index.MergeSchedulerConfig;
 import org.elasticsearch.index.VersionType;
 import org.elasticsearch.index.codec.CodecService;
 import org.elasticsearch.index.fieldvisitor.FieldsVisitor;
@@ -111,6 +116,7 @@ import org.elasticsearch.index.mapper.SeqNoFieldMapper;
 import org.elasticsearch.index.mapper.SourceFieldMapper;
 import org.elasticsearch.index.mapper.Uid;
 import org.elasticsearch.index.mapper.VersionFieldMapper;
+import org.elasticsearch.index.merge.NodeMergeScheduler;
 import org.elasticsearch.index.seqno.LocalCheckpointTracker;
 import org.elasticsearch.index.seqno.ReplicationTracker;
 import org.elasticsearch.index.seqno.RetentionLease;
@@ -1358,6 +1364,80 @@ public class InternalEngineTests extends EngineTestCase {
         }
     }
 
+    public void testMergesWaitingForNodeMergeSlotThrottleIndexing() throws Exception {
+        final Settings nodeSettings = Settings.builder().put(NodeMergeScheduler.MAX_CONCURRENT_MERGES_SETTING.getKey(), 1).build();
+        final NodeMergeScheduler nodeMergeScheduler =
+            new NodeMergeScheduler(nodeSettings, new ClusterSettings(nodeSettings, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS));
+        final Settings.Builder settings = Settings.builder()
+            .put(defaultSettings.getSettings())
+            .put(MergeSchedulerConfig.MAX_THREAD_COUNT_SETTING.getKey(), 1)
+            .put(MergeSchedulerConfig.MAX_MERGE_COUNT_SETTING.getKey(), 1);
+        final IndexMetadata indexMetadata = IndexMetadata.builder(defaultSettings.getIndexMetadata()).settings(settings).build();
+        final IndexSettings indexSettings = IndexSettingsModule.newIndexSettings(indexMetadata);
+        // merges the segments pairwise, so that a force merge of four segments starts with two merges
+        final MergePolicy pairwiseMergePolicy = new FilterMergePolicy(new TieredMergePolicy()) {
+            @Override
+            public MergeSpecification findForcedMerges(SegmentInfos infos, int maxSegmentCount,
+                                                       Map<SegmentCommitInfo, Boolean> segmentsToMerge,
+                                                       MergeContext mergeContext) {
+                final List<SegmentCommitInfo> eligible = new ArrayList<>();
+                for (SegmentCommitInfo info : infos) {
+                    if (mergeContext.getMergingSegments().contains(info) == false) {
+                        eligible.add(info);
+                    }
+                }
+                if (infos.size() <= maxSegmentCount || eligible.size() < 2) {
+                    return null;
+                }
+                final MergeSpecification spec = new MergeSpecification();
+                for (int i = 0; i + 1 < eligible.size(); i += 2) {
+                    spec.add(new OneMerge(eligible.subList(i, i + 2)));
+                }
+                return spec;
+            }
+        };
+        // a merge of another shard holds the only slot of the node
+        final Releasable otherMerge = nodeMergeScheduler.acquire(0, 0L, () -> false);
+        try (Store store = createStore()) {
+            final EngineConfig config = config(indexSettings, store, createTempDir(), pairwiseMergePolicy, null);
+            store.createEmpty();
+            final String translogUUID = Translog.createEmptyTranslog(config.getTranslogConfig().getTranslogPath(),
+                SequenceNumbers.NO_OPS_PERFORMED, shardId, primaryTerm.get());
+            store.associateIndexWithNewTranslog(translogUUID);
+            try (InternalEngine engine = new InternalEngine(config, nodeMergeScheduler)) {
+                engine.recoverFromTranslog(translogHandler, Long.MAX_VALUE);
+                for (int i = 0; i < 4; i++) {
+                    engine.index(indexForDoc(testParsedDocument(Integer.toString(i), null, testDocument(), B_1, null)));
+                    engine.refresh("test");
+                }
+                final Thread forceMerge = new Thread(() -> {
+                    try {
+                        engine.forceMerge(false, 1, false, UUIDs.randomBase64UUID());
+                    } catch (IOException e) {
+                        throw new AssertionError(e);
+                    }
+                });
+                forceMerge.start();
+                assertBusy(() -> assertThat(nodeMergeScheduler.getQueuedMerges(), equalTo(2)));
+                // the waiting merges are reported as queued rather than as current merges, but they are in flight, and since there are
+                // more of them than the max merge count of the shard, indexing into the starved shard is throttled
+                assertThat(engine.getMergeStats().getQueued(), equalTo(2L));
+                assertThat(engine.getMergeStats().getCurrent(), equalTo(0L));
+                assertBusy(() -> assertTrue(engine.isThrottled()));
+
+                otherMerge.close();
+                forceMerge.join();
+                assertBusy(() -> assertFalse(engine.isThrottled()));
+                assertThat(engine.getMergeStats().getQueued(), equalTo(0L));
+                assertThat(engine.getMergeStats().getCurrent(), equalTo(0L));
+                assertThat(engine.getMergeStats().getTotal(), greaterThanOrEqualTo(2L));
+                assertThat(nodeMergeScheduler.getRunningMerges(), equalTo(0));
+            }
+        } finally {
+            otherMerge.close();
+        }
+    }
+
     public void testForceMergeWithSoftDeletesRetention() throws Exception {
         final long retainedExtraOps = randomLongBetween(0, 10);
         Settings.Builder settings = Settings.builder()
@@ -50,6 +50,7 @@ public abstract class NumberFieldMapperTests extends MapperTestCase {
         checker.registerConflictCheck("index", b -> b.field("index", false));
         checker.registerConflictCheck("store", b -> b.field("store", true));
         checker.registerConflictCheck("null_value", b -> b.field("null_value", 1));
+        checker.registerConflictCheck("doc_values_encoding", b -> b.field("doc_values_encoding", "time_series"));
         checker.registerUpdateCheck(b -> b.field("coerce", false),
             m -> assertFalse(((NumberFieldMapper) m).coerce()));
         checker.registerUpdateCheck(b -> b.field("ignore_malformed", true),
@@ -0,0 +1,130 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.mapper;
+
+import org.apache.lucene.document.InetAddressPoint;
+import org.apache.lucene.util.BytesRef;
+import org.elasticsearch.Version;
+import org.elasticsearch.cluster.metadata.IndexMetadata;
+import org.elasticsearch.cluster.routing.TimeSeriesRouting;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.network.InetAddresses;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.XContentBuilder;
+import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.common.xcontent.json.JsonXContent;
+import org.elasticsearch.core.CheckedConsumer;
+import org.elasticsearch.index.IndexMode;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
+
+public class TimeSeriesIdFieldMapperTests extends MapperServiceTestCase {
+
+    private static final Settings TIME_SERIES_SETTINGS = Settings.builder()
+        .put(IndexMode.INDEX_MODE_SETTING.getKey(), "time_series")
+        .putList(IndexMetadata.INDEX_ROUTING_PATH.getKey(), "host", "port", "ip")
+        .build();
+
+    private MapperService createTimeSeriesMapperService() throws IOException {
+        return createMapperService(TIME_SERIES_SETTINGS, mapping(b -> {
+            b.startObject("@timestamp").field("type", "date").endObject();
+            b.startObject("host").field("type", "keyword").field("dimension", true).endObject();
+            b.startObject("port").field("type", "integer").field("dimension", true).endObject();
+            b.startObject("ip").field("type", "ip").field("dimension", true).endObject();
+            b.startObject("cpu").field("type", "long").endObject();
+        }));
+    }
+
+    public void testEncodesAllDimensions() throws IOException {
+        MapperService mapperService = createTimeSeriesMapperService();
+        ParsedDocument doc = parse(mapperService,
+            b -> b.field("@timestamp", 1000).field("host", "a").field("port", 80).field("ip", "::1").field("cpu", 5));
+
+        SortedMap<String, Object> dimensions = new TreeMap<>();
+        dimensions.put("host", new BytesRef("a"));
+        dimensions.put("ip", new BytesRef(InetAddressPoint.encode(InetAddresses.forString("::1"))));
+        dimensions.put("port", 80L);
+        BytesRef tsid = TimeSeriesIdFieldMapper.encodeTsid(dimensions);
+        assertThat(doc.rootDoc().getBinaryValue(TimeSeriesIdFieldMapper.NAME), equalTo(tsid));
+        assertThat(doc.id(), equalTo(TimeSeriesRouting.createId(tsid, 1000)));
+    }
+
+    public void testMissingDimensionsArePartOfTheSeries() throws IOException {
+        MapperService mapperService = createTimeSeriesMapperService();
+        ParsedDocument withPort = parse(mapperService, b -> b.field("@timestamp", 1000).field("host", "a").field("port", 80));
+        ParsedDocument withoutPort = parse(mapperService, b -> b.field("@timestamp", 1000).field("host", "a"));
+        assertThat(withPort.rootDoc().getBinaryValue(TimeSeriesIdFieldMapper.NAME),
+            not(equalTo(withoutPort.rootDoc().getBinaryValue(TimeSeriesIdFieldMapper.NAME))));
+        assertThat(withPort.id(), not(equalTo(withoutPort.id())));
+    }
+
+    public void testRejectsIdOfAnotherDocument() throws IOException {
+        MapperService mapperService = createTimeSeriesMapperService();
+        String idOfA = parse(mapperService, b -> b.field("@timestamp", 1000).field("host", "a")).id();
+        String idOfLaterA = parse(mapperService, b -> b.field("@timestamp", 2000).field("host", "a")).id();
+        assertThat(idOfA, not(equalTo(idOfLaterA)));
+
+        MapperParsingException e = expectThrows(MapperParsingException.class,
+            () -> mapperService.documentMapper().parse(source(idOfA, b -> b.field("@timestamp", 1000).field("host", "b"), null)));
+        assertThat(e.getCause().getMessage(), containsString("doesn't match the dimensions and timestamp of the document"));
+        e = expectThrows(MapperParsingException.class,
+            () -> mapperService.documentMapper().parse(source(idOfA, b -> b.field("@timestamp", 2000).field("host", "a"), null)));
+        assertThat(e.getCause().getMessage(), containsString("doesn't match the dimensions and timestamp of the document"));
+    }
+
+    public void testRequiresDimensionAndTimestamp() throws IOException {
+        MapperService mapperService = createTimeSeriesMapperService();
+        MapperParsingException e = expectThrows(MapperParsingException.class,
+            () -> mapperService.documentMapper().parse(source(b -> b.field("@timestamp", 1000).field("cpu", 5))));
+        assertThat(e.getCause().getMessage(), containsString("must have at least one dimension field"));
+        e = expectThrows(MapperParsingException.class,
+            () -> mapperService.documentMapper().parse(source(b -> b.field("host", "a"))));
+        assertThat(e.getCause().getMessage(), containsString("must have a [@timestamp]"));
+    }
+
+    public void testRejectsMultiValuedDimension() throws IOException {
+        MapperService mapperService = createTimeSeriesMapperService();
+        MapperParsingException e = expectThrows(MapperParsingException.class,
+            () -> mapperService.documentMapper().parse(source(b -> b.field("@timestamp", 1000).array("host", "a", "b"))));
+        assertThat(e.getCause().getMessage(), containsString("Dimension field [host] cannot be a multi-valued field"));
+    }
+
+    public void testNoValueOutsideTimeSeriesMode() throws IOException {
+        DocumentMapper mapper = createDocumentMapper(mapping(b -> {
+            b.startObject("host").field("type", "keyword").field("dimension", true).endObject();
+        }));
+        ParsedDocument doc = mapper.parse(source(b -> b.field("host", "a")));
+        assertNull(doc.rootDoc().getField(TimeSeriesIdFieldMapper.NAME));
+    }
+
+    /**
+     * Parses the document with the id that the coordinating node would derive from its source.
+     */
+    private static ParsedDocument parse(MapperService mapperService, CheckedConsumer<XContentBuilder, IOException> build)
+        throws IOException {
+        XContentBuilder builder = JsonXContent.contentBuilder().startObject();
+        build.accept(builder);
+        BytesReference source = BytesReference.bytes(builder.endObject());
+        IndexMetadata indexMetadata = IndexMetadata.builder("test")
+            .settings(Settings.builder().put(TIME_SERIES_SETTINGS).put(IndexMetadata.SETTING_VERSION_CREATED, Version.CURRENT))
+            .putMapping(mapperService.documentMapper().mappingSource().string())
+            .numberOfShards(1)
+            .numberOfReplicas(0)
+            .build();
+        String id = TimeSeriesRouting.forIndex(indexMetadata).createId(source, XContentType.JSON);
+        return mapperService.documentMapper().parse(new SourceToParse("test", id, source, XContentType.JSON, null, Map.of()));
+    }
+}
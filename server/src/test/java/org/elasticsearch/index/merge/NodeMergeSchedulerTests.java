@@ -0,0 +1,163 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.merge;
+
+import org.elasticsearch.common.settings.ClusterSettings;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.core.Releasable;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+
+public class NodeMergeSchedulerTests extends ESTestCase {
+
+    public void testGrantsSlotsByIndexPriorityThenSize() throws Exception {
+        final NodeMergeScheduler scheduler = newScheduler(Settings.builder()
+            .put(NodeMergeScheduler.MAX_CONCURRENT_MERGES_SETTING.getKey(), 1).build());
+        final Releasable running = scheduler.acquire(0, 1L, () -> false);
+        assertThat(scheduler.getRunningMerges(), equalTo(1));
+
+        // index priority, merge size
+        final long[][] merges = new long[][] { { 0, 100 }, { 10, 1000 }, { 0, 10 }, { 10, 100 } };
+        final List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < merges.length; i++) {
+            final int merge = i;
+            final Thread thread = new Thread(() -> {
+                try (Releasable ignored = scheduler.acquire((int) merges[merge][0], merges[merge][1], () -> false)) {
+                    order.add(merge);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+            final int expectedQueued = i + 1;
+            assertBusy(() -> assertThat(scheduler.getQueuedMerges(), equalTo(expectedQueued)));
+        }
+
+        running.close();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(order, equalTo(List.of(3, 1, 2, 0)));
+        assertThat(scheduler.getRunningMerges(), equalTo(0));
+        assertThat(scheduler.getQueuedMerges(), equalTo(0));
+    }
+
+    public void testMergesThatWaitedTooLongRunFirst() throws Exception {
+        final Settings settings = Settings.builder()
+            .put(NodeMergeScheduler.MAX_CONCURRENT_MERGES_SETTING.getKey(), 1)
+            .put(NodeMergeScheduler.MAX_WAIT_TIME_SETTING.getKey(), "1m")
+            .build();
+        final AtomicLong relativeTimeInNanos = new AtomicLong(randomNonNegativeLong() / 2);
+        final NodeMergeScheduler scheduler = new NodeMergeScheduler(settings,
+            new ClusterSettings(settings, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS), relativeTimeInNanos::get);
+        final Releasable running = scheduler.acquire(0, 1L, () -> false);
+
+        // a large merge of a low priority index, then a small merge of a high priority index once the large one waited too long
+        final long[][] merges = new long[][] { { 0, 1000 }, { 10, 10 } };
+        final List<Integer> order = Collections.synchronizedList(new ArrayList<>());
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < merges.length; i++) {
+            final int merge = i;
+            final Thread thread = new Thread(() -> {
+                try (Releasable ignored = scheduler.acquire((int) merges[merge][0], merges[merge][1], () -> false)) {
+                    order.add(merge);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+            final int expectedQueued = i + 1;
+            assertBusy(() -> assertThat(scheduler.getQueuedMerges(), equalTo(expectedQueued)));
+            relativeTimeInNanos.addAndGet(TimeValue.timeValueMinutes(1).nanos());
+        }
+
+        running.close();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(order, equalTo(List.of(0, 1)));
+    }
+
+    public void testAbortedMergeStopsWaiting() throws Exception {
+        final NodeMergeScheduler scheduler = newScheduler(Settings.builder()
+            .put(NodeMergeScheduler.MAX_CONCURRENT_MERGES_SETTING.getKey(), 1).build());
+        try (Releasable ignored = scheduler.acquire(0, 1L, () -> false)) {
+            final AtomicBoolean aborted = new AtomicBoolean();
+            final CountDownLatch stoppedWaiting = new CountDownLatch(1);
+            final Thread thread = new Thread(() -> {
+                try (Releasable slot = scheduler.acquire(0, 1L, aborted::get)) {
+                    stoppedWaiting.countDown();
+                }
+            });
+            thread.start();
+            assertBusy(() -> assertThat(scheduler.getQueuedMerges(), equalTo(1)));
+            aborted.set(true);
+            stoppedWaiting.await();
+            thread.join();
+            assertThat(scheduler.getQueuedMerges(), equalTo(0));
+            assertThat(scheduler.getRunningMerges(), equalTo(1));
+        }
+        assertThat(scheduler.getRunningMerges(), equalTo(0));
+    }
+
+    public void testReleaseIsIdempotent() {
+        final NodeMergeScheduler scheduler = newScheduler(Settings.EMPTY);
+        final Releasable slot = scheduler.acquire(randomInt(), randomNonNegativeLong(), () -> false);
+        assertThat(scheduler.getRunningMerges(), equalTo(1));
+        slot.close();
+        slot.close();
+        assertThat(scheduler.getRunningMerges(), equalTo(0));
+    }
+
+    public void testUpdateSettings() throws Exception {
+        final ClusterSettings clusterSettings = new ClusterSettings(Settings.EMPTY, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS);
+        final NodeMergeScheduler scheduler = new NodeMergeScheduler(Settings.builder()
+            .put(NodeMergeScheduler.MAX_CONCURRENT_MERGES_SETTING.getKey(), 1).build(), clusterSettings);
+        assertThat(scheduler.rateLimiter(), nullValue());
+
+        final Releasable first = scheduler.acquire(0, 1L, () -> false);
+        final CountDownLatch acquired = new CountDownLatch(1);
+        final Thread thread = new Thread(() -> {
+            try (Releasable ignored = scheduler.acquire(0, 1L, () -> false)) {
+                acquired.countDown();
+            }
+        });
+        thread.start();
+        assertBusy(() -> assertThat(scheduler.getQueuedMerges(), equalTo(1)));
+
+        clusterSettings.applySettings(Settings.builder()
+            .put(NodeMergeScheduler.MAX_CONCURRENT_MERGES_SETTING.getKey(), 2)
+            .put(NodeMergeScheduler.MAX_BYTES_PER_SEC_SETTING.getKey(), "20mb")
+            .build());
+        // raising the limit lets the waiting merge run
+        acquired.await();
+        thread.join();
+        first.close();
+        assertThat(scheduler.getMaxConcurrentMerges(), equalTo(2));
+        assertThat(scheduler.rateLimiter(), notNullValue());
+        assertThat(scheduler.rateLimiter().getMBPerSec(), equalTo(20.0));
+
+        clusterSettings.applySettings(Settings.EMPTY);
+        assertThat(scheduler.rateLimiter(), nullValue());
+    }
+
+    private static NodeMergeScheduler newScheduler(Settings settings) {
+        return new NodeMergeScheduler(settings, new ClusterSettings(settings, ClusterSettings.BUILT_IN_CLUSTER_SETTINGS));
+    }
+}
@@ -93,6 +93,42 @@ public class DeleteByQueryRequestTests extends AbstractBulkByScrollRequestTestCa
         assertThat(e, is(nullValue()));
     }
 
+    public void testValidateShardLocal() {
+        SearchRequest searchRequest = new SearchRequest();
+        DeleteByQueryRequest deleteByQueryRequest = new DeleteByQueryRequest(searchRequest);
+        deleteByQueryRequest.indices("*");
+        searchRequest.source().query(QueryBuilders.matchAllQuery());
+        deleteByQueryRequest.setShardLocal(true);
+        assertThat(deleteByQueryRequest.validate(), is(nullValue()));
+
+        deleteByQueryRequest.setMaxDocs(10);
+        deleteByQueryRequest.setRequestsPerSecond(100);
+        ActionRequestValidationException e = deleteByQueryRequest.validate();
+
+        assertThat(e, is(not(nullValue())));
+        assertThat(e.getMessage(), containsString("max_docs is not supported by shard local delete-by-query"));
+        assertThat(e.getMessage(), containsString("requests_per_second is not supported by shard local delete-by-query"));
+    }
+
+    public void testValidateMaxConcurrentBulks() {
+        SearchRequest searchRequest = new SearchRequest();
+        DeleteByQueryRequest deleteByQueryRequest = new DeleteByQueryRequest(searchRequest);
+        deleteByQueryRequest.indices("*");
+        searchRequest.source().query(QueryBuilders.matchAllQuery());
+        deleteByQueryRequest.setMaxConcurrentBulks(between(2, 10));
+        assertThat(deleteByQueryRequest.validate(), is(nullValue()));
+
+        deleteByQueryRequest.setMaxDocs(10);
+        ActionRequestValidationException e = deleteByQueryRequest.validate();
+        assertThat(e, is(not(nullValue())));
+        assertThat(e.getMessage(), containsString("max_docs is not supported with more than one concurrent bulk request"));
+
+        deleteByQueryRequest.setMaxConcurrentBulks(0);
+        e = deleteByQueryRequest.validate();
+        assertThat(e, is(not(nullValue())));
+        assertThat(e.getMessage(), containsString("max_concurrent_bulks must be at least 1 but was [0]"));
+    }
+
     // TODO: Implement standard to/from x-content parsing tests
 
     @Override
@@ -0,0 +1,131 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.shard;
+
+import org.elasticsearch.common.util.concurrent.EsExecutors;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class ConcurrentTranslogReplayTests extends ESTestCase {
+
+    public void testReplaysEachOperationOnceAndInOrderPerId() throws Exception {
+        final List<Translog.Operation> operations = randomOperations();
+        final int concurrency = between(1, 8);
+        final ExecutorService executor = Executors.newFixedThreadPool(concurrency, EsExecutors.daemonThreadFactory("replay"));
+        try {
+            final Set<Long> replayed = ConcurrentHashMap.newKeySet();
+            final AtomicInteger replayCount = new AtomicInteger();
+            final Map<String, List<Long>> seqNosById = new ConcurrentHashMap<>();
+            ConcurrentTranslogReplay.replay(operations, concurrency, executor, operation -> {
+                replayed.add(operation.seqNo());
+                replayCount.incrementAndGet();
+                if (operation.opType() != Translog.Operation.Type.NO_OP) {
+                    // all operations on the same id are replayed by the same thread
+                    seqNosById.computeIfAbsent(id(operation), k -> new ArrayList<>()).add(operation.seqNo());
+                }
+            });
+            assertThat(replayed.size(), equalTo(operations.size()));
+            assertThat(replayCount.get(), equalTo(operations.size()));
+            for (Map.Entry<String, List<Long>> entry : seqNosById.entrySet()) {
+                final List<Long> sorted = new ArrayList<>(entry.getValue());
+                Collections.sort(sorted);
+                assertThat("operations on [" + entry.getKey() + "] were replayed out of order", entry.getValue(), equalTo(sorted));
+            }
+        } finally {
+            assertTrue(terminate(executor));
+        }
+    }
+
+    public void testRethrowsFailures() throws Exception {
+        final List<Translog.Operation> operations = randomOperations();
+        operations.add(new Translog.NoOp(operations.size(), 1, "test"));
+        final Translog.Operation failing = randomFrom(operations);
+        final RuntimeException failure = new RuntimeException("simulated");
+        final ExecutorService executor = Executors.newFixedThreadPool(4, EsExecutors.daemonThreadFactory("replay"));
+        try {
+            final Exception e = expectThrows(RuntimeException.class, () ->
+                ConcurrentTranslogReplay.replay(operations, 4, executor, operation -> {
+                    if (operation == failing) {
+                        throw failure;
+                    }
+                }));
+            assertThat(e, sameInstance(failure));
+        } finally {
+            assertTrue(terminate(executor));
+        }
+    }
+
+    public void testReplaysOnCallingThreadIfExecutorRejects() throws Exception {
+        final List<Translog.Operation> operations = randomOperations();
+        final Set<Long> replayed = ConcurrentHashMap.newKeySet();
+        ConcurrentTranslogReplay.replay(operations, 8, command -> {
+            throw new EsRejectedExecutionException("rejected");
+        }, operation -> assertTrue(replayed.add(operation.seqNo())));
+        assertThat(replayed.size(), equalTo(operations.size()));
+    }
+
+    public void testPartitionKeepsOperationsOnTheSameIdTogether() {
+        final List<Translog.Operation> operations = randomOperations();
+        final List<List<Translog.Operation>> partitions = ConcurrentTranslogReplay.partition(operations, between(1, 8));
+        final Map<String, Integer> partitionById = new ConcurrentHashMap<>();
+        int total = 0;
+        for (int i = 0; i < partitions.size(); i++) {
+            for (Translog.Operation operation : partitions.get(i)) {
+                if (operation.opType() != Translog.Operation.Type.NO_OP) {
+                    final Integer previous = partitionById.put(id(operation), i);
+                    assertTrue(previous == null || previous == i);
+                }
+                total++;
+            }
+        }
+        assertThat(total, equalTo(operations.size()));
+    }
+
+    private static List<Translog.Operation> randomOperations() {
+        final int numOps = between(0, 2000);
+        final int numIds = between(1, 500);
+        final List<Translog.Operation> operations = new ArrayList<>(numOps);
+        for (long seqNo = 0; seqNo < numOps; seqNo++) {
+            final String id = Integer.toString(between(0, numIds - 1));
+            switch (between(0, 9)) {
+                case 0:
+                    operations.add(new Translog.NoOp(seqNo, 1, "test"));
+                    break;
+                case 1:
+                case 2:
+                    operations.add(new Translog.Delete(id, seqNo, 1));
+                    break;
+                default:
+                    operations.add(new Translog.Index(id, seqNo, 1, new byte[] { 1 }));
+                    break;
+            }
+        }
+        return operations;
+    }
+
+    private static String id(Translog.Operation operation) {
+        return operation.opType() == Translog.Operation.Type.INDEX
+            ? ((Translog.Index) operation).id()
+            : ((Translog.Delete) operation).id();
+    }
+}
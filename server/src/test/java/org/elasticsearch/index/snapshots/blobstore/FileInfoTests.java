@@ -22,6 +22,9 @@ import org.elasticsearch.index.store.StoreFileMetadata;
 import org.elasticsearch.test.ESTestCase;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
@@ -69,6 +72,82 @@ public class FileInfoTests extends ESTestCase {
         }
     }
 
+    /**
+     * Nodes before {@link org.elasticsearch.snapshots.SnapshotsService#CONTENT_DEFINED_CHUNKS_VERSION} reject unknown fields, so files
+     * that aren't stored as chunks must serialize exactly as they did before chunks existed, and their serialized form must still parse.
+     */
+    public void testWithoutChunksSerializesAsBefore() throws IOException {
+        StoreFileMetadata meta = new StoreFileMetadata("foobar", 1234, "666", Version.LATEST.toString());
+        FileInfo info = new FileInfo("_foobar", meta, new ByteSizeValue(1000));
+        XContentBuilder builder = XContentFactory.contentBuilder(XContentType.JSON);
+        FileInfo.toXContent(info, builder);
+
+        XContentBuilder expected = XContentFactory.contentBuilder(XContentType.JSON);
+        expected.startObject();
+        expected.field(FileInfo.NAME, "_foobar");
+        expected.field(FileInfo.PHYSICAL_NAME, "foobar");
+        expected.field(FileInfo.LENGTH, 1234);
+        expected.field(FileInfo.CHECKSUM, "666");
+        expected.field(FileInfo.PART_SIZE, 1000);
+        expected.field(FileInfo.WRITTEN_BY, Version.LATEST.toString());
+        expected.endObject();
+        assertThat(BytesReference.bytes(builder).utf8ToString(), equalTo(BytesReference.bytes(expected).utf8ToString()));
+
+        final FileInfo parsedInfo;
+        try (XContentParser parser = createParser(expected)) {
+            parser.nextToken();
+            parsedInfo = FileInfo.fromXContent(parser);
+        }
+        assertThat(parsedInfo.chunks(), equalTo(List.of()));
+        assertThat(parsedInfo.numberOfParts(), equalTo(2));
+        assertTrue(parsedInfo.isSame(info));
+    }
+
+    public void testChunksToFromXContent() throws IOException {
+        final List<FileInfo.Chunk> chunks = new ArrayList<>();
+        long length = 0;
+        for (int i = between(1, 10); i > 0; i--) {
+            final String hash = randomAlphaOfLength(64).toLowerCase(Locale.ROOT);
+            final FileInfo.Chunk chunk = new FileInfo.Chunk(hash, randomLongBetween(1, 1 << 20));
+            chunks.add(chunk);
+            length += chunk.length();
+        }
+        StoreFileMetadata meta = new StoreFileMetadata("foobar", length, randomAlphaOfLengthBetween(1, 10), Version.LATEST.toString());
+        FileInfo info = new FileInfo("_foobar", meta, null, chunks);
+        XContentBuilder builder = XContentFactory.contentBuilder(XContentType.JSON);
+        FileInfo.toXContent(info, builder);
+        byte[] xcontent = BytesReference.toBytes(BytesReference.bytes(shuffleXContent(builder)));
+
+        final FileInfo parsedInfo;
+        try (XContentParser parser = createParser(JsonXContent.jsonXContent, xcontent)) {
+            parser.nextToken();
+            parsedInfo = FileInfo.fromXContent(parser);
+        }
+        assertThat(parsedInfo.chunks(), equalTo(chunks));
+        assertThat(parsedInfo.numberOfParts(), equalTo(1));
+        assertTrue(parsedInfo.isSame(info));
+        assertFalse(parsedInfo.isSame(new FileInfo("_foobar", meta, null)));
+
+        builder = XContentFactory.contentBuilder(XContentType.JSON);
+        builder.startObject();
+        builder.field(FileInfo.NAME, "_foobar");
+        builder.field(FileInfo.PHYSICAL_NAME, "foobar");
+        builder.field(FileInfo.LENGTH, length + 1);
+        builder.field(FileInfo.WRITTEN_BY, Version.LATEST.toString());
+        builder.field(FileInfo.CHECKSUM, "666");
+        builder.startArray(FileInfo.CHUNKS);
+        for (FileInfo.Chunk chunk : chunks) {
+            builder.startObject().field(FileInfo.CHUNK_HASH, chunk.hash()).field(FileInfo.CHUNK_LENGTH, chunk.length()).endObject();
+        }
+        builder.endArray();
+        builder.endObject();
+        try (XContentParser parser = createParser(JsonXContent.jsonXContent, BytesReference.bytes(builder))) {
+            parser.nextToken();
+            ElasticsearchParseException e = expectThrows(ElasticsearchParseException.class, () -> FileInfo.fromXContent(parser));
+            assertThat(e.getMessage(), containsString("do not add up to its length"));
+        }
+    }
+
     public void testInvalidFieldsInFromXContent() throws IOException {
         final int iters = scaledRandomIntBetween(1, 10);
         for (int iter = 0; iter < iters; iter++) {
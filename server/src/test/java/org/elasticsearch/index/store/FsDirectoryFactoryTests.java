@@ -65,6 +65,32 @@ public class FsDirectoryFactoryTests extends ESTestCase {
         }
     }
 
+    public void testHybridMmapExtensions() throws IOException {
+        Settings build = Settings.builder()
+            .put(IndexModule.INDEX_STORE_TYPE_SETTING.getKey(), IndexModule.Type.HYBRIDFS.name().toLowerCase(Locale.ROOT))
+            .putList(FsDirectoryFactory.INDEX_STORE_HYBRID_MMAP_EXTENSIONS.getKey(), "fdt", "dvd")
+            .build();
+        try (Directory directory = newDirectory(build)) {
+            assertTrue(FsDirectoryFactory.isHybridFs(directory));
+            FsDirectoryFactory.HybridDirectory hybridDirectory = (FsDirectoryFactory.HybridDirectory) directory;
+            assertTrue(hybridDirectory.useDelegate("foo.fdt", newIOContext(random())));
+            assertTrue(hybridDirectory.useDelegate("foo.dvd", newIOContext(random())));
+            assertFalse(hybridDirectory.useDelegate("foo.fdt", Store.READONCE_CHECKSUM));
+            assertFalse(hybridDirectory.useDelegate("foo.tim", newIOContext(random())));
+            assertFalse(hybridDirectory.useDelegate("foo.nvd", newIOContext(random())));
+        }
+
+        build = Settings.builder()
+            .put(IndexModule.INDEX_STORE_TYPE_SETTING.getKey(), IndexModule.Type.HYBRIDFS.name().toLowerCase(Locale.ROOT))
+            .putList(FsDirectoryFactory.INDEX_STORE_HYBRID_MMAP_EXTENSIONS.getKey(), "*")
+            .build();
+        try (Directory directory = newDirectory(build)) {
+            FsDirectoryFactory.HybridDirectory hybridDirectory = (FsDirectoryFactory.HybridDirectory) directory;
+            assertTrue(hybridDirectory.useDelegate("foo.fdt", newIOContext(random())));
+            assertTrue(hybridDirectory.useDelegate("foo.tmp", newIOContext(random())));
+        }
+    }
+
     private Directory newDirectory(Settings settings) throws IOException {
         IndexSettings idxSettings = IndexSettingsModule.newIndexSettings("foo", settings);
         Path tempDir = createTempDir().resolve(idxSettings.getUUID()).resolve("0");
@@ -0,0 +1,76 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.index.store;
+
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.store.RandomAccessInput;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.anEmptyMap;
+import static org.hamcrest.Matchers.equalTo;
+
+public class ReadBytesTrackingDirectoryTests extends ESTestCase {
+
+    public void testCountsReadBytesPerExtension() throws IOException {
+        try (ReadBytesTrackingDirectory directory = new ReadBytesTrackingDirectory(newDirectory())) {
+            writeFile(directory, "_0.dvd", 100);
+            writeFile(directory, "_0.tim", 50);
+            writeFile(directory, "_0.foo", 10);
+            assertThat(directory.readBytesPerExtension(), anEmptyMap());
+
+            try (IndexInput input = directory.openInput("_0.dvd", IOContext.DEFAULT)) {
+                input.readBytes(new byte[10], 0, 10);
+                input.readLong();
+                // small reads of clones and slices, which are usually not closed, are counted with the next bulk read
+                IndexInput clone = input.clone();
+                clone.readByte();
+                clone.readBytes(new byte[4], 0, 4);
+                IndexInput slice = input.slice("slice", 20, 40);
+                slice.readInt();
+                slice.readBytes(new byte[2], 0, 2);
+                // or once they add up to the flush threshold
+                RandomAccessInput randomAccessSlice = input.randomAccessSlice(0, 100);
+                randomAccessSlice.readShort(50);
+                assertThat(directory.readBytesPerExtension().get("dvd"), equalTo(10L + Long.BYTES + 1L + 4L + Integer.BYTES + 2L));
+                for (long i = Short.BYTES; i < ReadBytesTrackingDirectory.FLUSH_THRESHOLD_BYTES; i += Short.BYTES) {
+                    randomAccessSlice.readShort(50);
+                }
+            }
+            try (IndexInput input = directory.openInput("_0.tim", IOContext.DEFAULT)) {
+                input.readBytes(new byte[50], 0, 50);
+            }
+            try (IndexInput input = directory.openInput("_0.foo", IOContext.DEFAULT)) {
+                input.readByte();
+            }
+            assertThat(directory.readBytesPerExtension(), equalTo(Map.of(
+                "dvd", 10L + Long.BYTES + 1L + 4L + Integer.BYTES + 2L + ReadBytesTrackingDirectory.FLUSH_THRESHOLD_BYTES,
+                "tim", 50L,
+                ReadBytesTrackingDirectory.OTHER, 1L)));
+        }
+    }
+
+    public void testStoreStatsReportReadBytes() {
+        StoreStats stats = new StoreStats(10, 10, 0, Map.of("dvd", 5L, "tim", 3L));
+        stats.add(new StoreStats(10, 10, 0, Map.of("dvd", 2L, ReadBytesTrackingDirectory.OTHER, 1L)));
+        stats.add(new StoreStats(10, 10, 0));
+        assertThat(stats.getReadBytesPerExtension(), equalTo(Map.of("dvd", 7L, "tim", 3L, ReadBytesTrackingDirectory.OTHER, 1L)));
+    }
+
+    private static void writeFile(Directory directory, String name, int length) throws IOException {
+        try (IndexOutput output = directory.createOutput(name, IOContext.DEFAULT)) {
+            output.writeBytes(randomByteArrayOfLength(length), length);
+        }
+    }
+}
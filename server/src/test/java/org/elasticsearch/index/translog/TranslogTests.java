@@ -35,6 +35,7 @@ import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.bytes.ReleasableBytesReference;
 import org.elasticsearch.common.io.FileSystemUtils;
 import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.InputStreamStreamInput;
 import org.elasticsearch.common.io.stream.StreamInput;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeUnit;
@@ -71,7 +72,9 @@ import org.junit.Before;
 
 import java.io.Closeable;
 import java.io.EOFException;
+import java.io.FilterInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
@@ -133,6 +136,7 @@ import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.startsWith;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.stub;
 
@@ -465,9 +469,9 @@ public class TranslogTests extends ESTestCase {
                 builder.startObject();
                 copy.toXContent(builder, ToXContent.EMPTY_PARAMS);
                 builder.endObject();
-                assertThat(Strings.toString(builder), equalTo("{\"translog\":{\"operations\":4,\"size_in_bytes\":" + 326
+                assertThat(Strings.toString(builder), startsWith("{\"translog\":{\"operations\":4,\"size_in_bytes\":" + 326
                     + ",\"uncommitted_operations\":4,\"uncommitted_size_in_bytes\":" + 271
-                    + ",\"earliest_last_modified_age\":" + stats.getEarliestLastModifiedAge() + "}}"));
+                    + ",\"earliest_last_modified_age\":" + stats.getEarliestLastModifiedAge() + ",\"fsync\":{\"total\":"));
             }
         }
         translog.getDeletionPolicy().setLocalCheckpointOfSafeCommit(randomLongBetween(3, Long.MAX_VALUE));
@@ -569,6 +573,70 @@ public class TranslogTests extends ESTestCase {
         assertThat(e, hasToString(containsString("earliestLastModifiedAge must be >= 0")));
     }
 
+    public void testCompressedOperations() throws IOException {
+        final Settings settings = Settings.builder()
+            .put(IndexMetadata.SETTING_VERSION_CREATED, org.elasticsearch.Version.CURRENT)
+            .put(IndexSettings.INDEX_TRANSLOG_COMPRESSION_ENABLED_SETTING.getKey(), true)
+            .build();
+        final int numOps = randomIntBetween(1, 32);
+        final List<Translog.Operation> ops = new ArrayList<>();
+        for (int i = 0; i < numOps; i++) {
+            final byte[] source = new byte[randomFrom(1, Translog.MIN_COMPRESSED_OPERATION_SIZE, 4096)];
+            Arrays.fill(source, (byte) randomIntBetween(0, 16));
+            ops.add(new Translog.Index(Integer.toString(i), i, primaryTerm.get(), source));
+        }
+        try (Translog compressed = createTranslog(getTranslogConfig(createTempDir(), settings));
+             Translog uncompressed = createTranslog(getTranslogConfig(createTempDir()))) {
+            final List<Location> locations = new ArrayList<>();
+            for (Translog.Operation op : ops) {
+                locations.add(compressed.add(op));
+                uncompressed.add(op);
+            }
+            compressed.sync();
+            uncompressed.sync();
+            for (int i = 0; i < numOps; i++) {
+                assertThat(compressed.readOperation(locations.get(i)), equalTo(ops.get(i)));
+            }
+            try (Translog.Snapshot snapshot = compressed.newSnapshot()) {
+                assertThat(snapshot, SnapshotMatchers.equalsTo(ops));
+            }
+            assertThat(compressed.sizeInBytes(), lessThanOrEqualTo(uncompressed.sizeInBytes()));
+
+            final TranslogSyncStats syncStats = compressed.stats().getSyncStats();
+            assertThat(syncStats.getSyncs(), greaterThan(0L));
+            assertThat(syncStats.getSyncedOperations(), equalTo((long) numOps));
+            assertThat(LongStream.of(syncStats.getLatencyHistogram()).sum(), equalTo(syncStats.getSyncs()));
+        }
+    }
+
+    public void testRejectsCompressedOperationsWithInvalidLengths() throws IOException {
+        final boolean compressedLengthExceedsOperation = randomBoolean();
+        final BytesStreamOutput out = new BytesStreamOutput();
+        out.writeInt(1); // number of operations
+        final int opSize = randomIntBetween(16, 64);
+        out.writeInt(opSize);
+        out.writeByte(Translog.COMPRESSED_OPERATION_ID);
+        if (compressedLengthExceedsOperation) {
+            out.writeVInt(Integer.MAX_VALUE);
+            out.writeVInt(randomIntBetween(opSize, Integer.MAX_VALUE - 1));
+        } else {
+            final int compressedLength = randomIntBetween(1, opSize - 8);
+            out.writeVInt(randomIntBetween(compressedLength * 255 + 1, Integer.MAX_VALUE));
+            out.writeVInt(compressedLength);
+        }
+        out.writeBytes(new byte[opSize]);
+        // operations received during peer recoveries are read from streams that can not be marked, so their checksum is verified last
+        final InputStream nonMarkable = new FilterInputStream(out.bytes().streamInput()) {
+            @Override
+            public boolean markSupported() {
+                return false;
+            }
+        };
+        final TranslogCorruptedException e = expectThrows(TranslogCorruptedException.class,
+            () -> Translog.readOperations(new InputStreamStreamInput(nonMarkable), "test"));
+        assertThat(e.getMessage(), containsString(compressedLengthExceedsOperation ? "compressed operation length" : "uncompressed"));
+    }
+
     public void testBasicSnapshot() throws IOException {
         ArrayList<Translog.Operation> ops = new ArrayList<>();
         try (Translog.Snapshot snapshot = translog.newSnapshot()) {
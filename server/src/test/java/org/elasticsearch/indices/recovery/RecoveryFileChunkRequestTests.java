@@ -0,0 +1,90 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.indices.recovery;
+
+import org.elasticsearch.Version;
+import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.CompositeBytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.store.StoreFileMetadata;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.IOException;
+
+import static org.elasticsearch.test.VersionUtils.randomCompatibleVersion;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class RecoveryFileChunkRequestTests extends ESTestCase {
+
+    public void testSerialization() throws IOException {
+        final Version version = randomCompatibleVersion(random(), Version.CURRENT);
+        final RecoveryFileChunkRequest outRequest = randomRequest();
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            out.setVersion(version);
+            outRequest.writeTo(out);
+            assertRequestEquals(outRequest, readRequest(out.bytes(), version));
+        } finally {
+            outRequest.decRef();
+        }
+    }
+
+    public void testThinSerialization() throws IOException {
+        final Version version = randomCompatibleVersion(random(), Version.CURRENT);
+        final RecoveryFileChunkRequest outRequest = randomRequest();
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            out.setVersion(version);
+            final BytesReference trailingBytes = outRequest.writeThin(out);
+            if (version.onOrAfter(RecoveryFileChunkRequest.CONTENT_LAST_VERSION)) {
+                assertThat(trailingBytes, sameInstance(outRequest.content()));
+            } else {
+                assertThat(trailingBytes.length(), equalTo(0));
+            }
+            assertRequestEquals(outRequest, readRequest(CompositeBytesReference.of(out.bytes(), trailingBytes), version));
+        } finally {
+            outRequest.decRef();
+        }
+    }
+
+    private static RecoveryFileChunkRequest randomRequest() {
+        final byte[] content = randomByteArrayOfLength(between(0, 1024));
+        final StoreFileMetadata metadata =
+            new StoreFileMetadata(randomAlphaOfLength(10), between(content.length, 4096), randomAlphaOfLength(8), "8.0.0");
+        return new RecoveryFileChunkRequest(randomNonNegativeLong(), randomNonNegativeLong(), new ShardId("test", "_na_", between(0, 5)),
+            metadata, randomNonNegativeLong(), ReleasableBytesReference.wrap(new BytesArray(content)), randomBoolean(),
+            between(0, 1000), randomNonNegativeLong());
+    }
+
+    private static RecoveryFileChunkRequest readRequest(BytesReference bytes, Version version) throws IOException {
+        try (StreamInput in = bytes.streamInput()) {
+            in.setVersion(version);
+            final RecoveryFileChunkRequest request = new RecoveryFileChunkRequest(in);
+            assertThat(in.available(), equalTo(0));
+            return request;
+        }
+    }
+
+    private static void assertRequestEquals(RecoveryFileChunkRequest expected, RecoveryFileChunkRequest actual) {
+        assertThat(actual.recoveryId(), equalTo(expected.recoveryId()));
+        assertThat(actual.shardId(), equalTo(expected.shardId()));
+        assertThat(actual.metadata().name(), equalTo(expected.metadata().name()));
+        assertThat(actual.metadata().length(), equalTo(expected.metadata().length()));
+        assertThat(actual.metadata().checksum(), equalTo(expected.metadata().checksum()));
+        assertThat(actual.position(), equalTo(expected.position()));
+        assertThat(actual.content(), equalTo(expected.content()));
+        assertThat(actual.lastChunk(), equalTo(expected.lastChunk()));
+        assertThat(actual.totalTranslogOps(), equalTo(expected.totalTranslogOps()));
+        assertThat(actual.sourceThrottleTimeInNanos(), equalTo(expected.sourceThrottleTimeInNanos()));
+        actual.decRef();
+    }
+}
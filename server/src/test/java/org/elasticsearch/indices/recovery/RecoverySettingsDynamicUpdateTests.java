@@ -69,4 +69,20 @@ public class RecoverySettingsDynamicUpdateTests extends ESTestCase {
         ).build());
         assertEquals(new TimeValue(duration, timeUnit), recoverySettings.internalActionLongTimeout());
     }
+
+    public void testUseSnapshots() {
+        assertTrue(recoverySettings.getUseSnapshotsDuringRecovery());
+        clusterSettings.applySettings(Settings.builder().put(
+                RecoverySettings.INDICES_RECOVERY_USE_SNAPSHOTS_SETTING.getKey(), false
+        ).build());
+        assertFalse(recoverySettings.getUseSnapshotsDuringRecovery());
+    }
+
+    public void testMaxConcurrentSnapshotFileDownloads() {
+        int downloads = between(1, 20);
+        clusterSettings.applySettings(Settings.builder().put(
+                RecoverySettings.INDICES_RECOVERY_MAX_CONCURRENT_SNAPSHOT_FILE_DOWNLOADS_SETTING.getKey(), downloads
+        ).build());
+        assertEquals(downloads, recoverySettings.getMaxConcurrentSnapshotFileDownloads());
+    }
 }
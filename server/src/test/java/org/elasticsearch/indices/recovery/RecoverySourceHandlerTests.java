@@ -16,11 +16,13 @@ import org.apache.lucene.index.CorruptIndexException;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexCommit;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.RandomIndexWriter;
 import org.apache.lucene.index.Term;
 import org.apache.lucene.store.BaseDirectoryWrapper;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.util.SetOnce;
 import org.elasticsearch.ExceptionsHelper;
 import org.elasticsearch.Version;
@@ -65,9 +67,12 @@ import org.elasticsearch.index.shard.IndexShard;
 import org.elasticsearch.index.shard.IndexShardRelocatedException;
 import org.elasticsearch.index.shard.IndexShardState;
 import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.index.store.StoreFileMetadata;
 import org.elasticsearch.index.translog.Translog;
+import org.elasticsearch.repositories.IndexId;
+import org.elasticsearch.snapshots.SnapshotId;
 import org.elasticsearch.test.CorruptionUtils;
 import org.elasticsearch.test.DummyShardLock;
 import org.elasticsearch.test.ESTestCase;
@@ -92,6 +97,7 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
@@ -194,6 +200,98 @@ public class RecoverySourceHandlerTests extends ESTestCase {
         IOUtils.close(reader, store, multiFileWriter, targetStore);
     }
 
+    public void testRecoverFilesFromSnapshot() throws Throwable {
+        final RecoverySettings recoverySettings = new RecoverySettings(Settings.EMPTY, service);
+        final StartRecoveryRequest request = getStartRecoveryRequest();
+        final String historyUUID = UUIDs.randomBase64UUID();
+        Store store = newStore(createTempDir());
+        try (IndexWriter writer = new IndexWriter(store.directory(), newIndexWriterConfig())) {
+            int numDocs = randomIntBetween(10, 100);
+            for (int i = 0; i < numDocs; i++) {
+                Document document = new Document();
+                document.add(new StringField("id", Integer.toString(i), Field.Store.YES));
+                document.add(newField("field", randomUnicodeOfCodepointLengthBetween(1, 10), TextField.TYPE_STORED));
+                writer.addDocument(document);
+            }
+            writer.setLiveCommitData(Collections.singletonMap(Engine.HISTORY_UUID_KEY, historyUUID).entrySet());
+            writer.commit();
+        }
+
+        Store.MetadataSnapshot metadata = store.getMetadata(null);
+        List<StoreFileMetadata> metas = new ArrayList<>();
+        List<BlobStoreIndexShardSnapshot.FileInfo> snapshotFiles = new ArrayList<>();
+        for (StoreFileMetadata md : metadata) {
+            metas.add(md);
+            snapshotFiles.add(new BlobStoreIndexShardSnapshot.FileInfo("__" + UUIDs.randomBase64UUID(), md, null));
+        }
+        BlobStoreIndexShardSnapshot shardSnapshot = new BlobStoreIndexShardSnapshot("snapshot", 0, snapshotFiles, 0L, 0L, 0, 0L);
+        // the history UUID is read from the segments file that is stored in the snapshot metadata
+        assertEquals(historyUUID, ShardSnapshotsService.historyUUID(shardSnapshot));
+
+        ShardSnapshotsService shardSnapshotsService = new ShardSnapshotsService(null, threadPool) {
+            @Override
+            public void fetchLatestSnapshot(ShardId shardId, String uuid, ActionListener<Optional<ShardSnapshot>> listener) {
+                assertEquals(historyUUID, uuid);
+                listener.onResponse(Optional.of(new ShardSnapshot("repository", new IndexId("index", UUIDs.randomBase64UUID()),
+                    new SnapshotId("snapshot", UUIDs.randomBase64UUID()), shardSnapshot)));
+            }
+        };
+        // files that fail to download from the snapshot are sent by the source instead
+        Set<String> failingFiles = new HashSet<>(randomSubsetOf(between(1, metas.size()),
+            metas.stream().map(StoreFileMetadata::name).collect(Collectors.toList())));
+        Set<String> restoredFiles = ConcurrentCollections.newConcurrentSet();
+        Set<String> sentFiles = ConcurrentCollections.newConcurrentSet();
+        Store targetStore = newStore(createTempDir());
+        MultiFileWriter multiFileWriter = new MultiFileWriter(targetStore, mock(RecoveryState.Index.class), "", logger, () -> {});
+        RecoveryTargetHandler target = new TestRecoveryTargetHandler() {
+            @Override
+            public void writeFileChunk(StoreFileMetadata md, long position, ReleasableBytesReference content, boolean lastChunk,
+                                       int totalTranslogOps, ActionListener<Void> listener) {
+                sentFiles.add(md.name());
+                ActionListener.completeWith(listener, () -> {
+                    multiFileWriter.writeFileChunk(md, position, content, lastChunk);
+                    return null;
+                });
+            }
+
+            @Override
+            public void restoreFileFromSnapshot(String repository, IndexId indexId, BlobStoreIndexShardSnapshot.FileInfo fileInfo,
+                                                int totalTranslogOps, ActionListener<Void> listener) {
+                final StoreFileMetadata md = fileInfo.metadata();
+                if (failingFiles.contains(md.name())) {
+                    listener.onFailure(new IOException("simulated failure to download [" + md.name() + "]"));
+                    return;
+                }
+                ActionListener.completeWith(listener, () -> {
+                    final byte[] content = new byte[Math.toIntExact(md.length())];
+                    try (IndexInput input = store.directory().openInput(md.name(), IOContext.READONCE)) {
+                        input.readBytes(content, 0, content.length);
+                    }
+                    multiFileWriter.writeFileChunk(md, 0, ReleasableBytesReference.wrap(new BytesArray(content)), true);
+                    restoredFiles.add(md.name());
+                    return null;
+                });
+            }
+        };
+        RecoverySourceHandler handler = new RecoverySourceHandler(null, new AsyncRecoveryTarget(target, recoveryExecutor),
+            threadPool, request, Math.toIntExact(recoverySettings.getChunkSize().getBytes()), between(1, 5), between(1, 5),
+            shardSnapshotsService, true, between(1, 3));
+        PlainActionFuture<Void> recoverFilesFuture = new PlainActionFuture<>();
+        handler.recoverFiles(store, historyUUID, metas, () -> 0, recoverFilesFuture);
+        recoverFilesFuture.actionGet();
+
+        assertEquals(failingFiles, sentFiles);
+        assertEquals(metas.size() - failingFiles.size(), restoredFiles.size());
+        for (String restoredFile : restoredFiles) {
+            assertFalse(failingFiles.contains(restoredFile));
+        }
+        Store.RecoveryDiff recoveryDiff = targetStore.getMetadata(null).recoveryDiff(metadata);
+        assertEquals(metas.size(), recoveryDiff.identical.size());
+        assertEquals(0, recoveryDiff.different.size());
+        assertEquals(0, recoveryDiff.missing.size());
+        IOUtils.close(store, multiFileWriter, targetStore);
+    }
+
     public StartRecoveryRequest getStartRecoveryRequest() throws IOException {
         Store.MetadataSnapshot metadataSnapshot = randomBoolean() ? Store.MetadataSnapshot.EMPTY :
             new Store.MetadataSnapshot(Collections.emptyMap(),
@@ -882,6 +980,11 @@ public class RecoverySourceHandlerTests extends ESTestCase {
         public void writeFileChunk(StoreFileMetadata fileMetadata, long position, ReleasableBytesReference content, boolean lastChunk,
                                    int totalTranslogOps, ActionListener<Void> listener) {
         }
+
+        @Override
+        public void restoreFileFromSnapshot(String repository, IndexId indexId, BlobStoreIndexShardSnapshot.FileInfo fileInfo,
+                                            int totalTranslogOps, ActionListener<Void> listener) {
+        }
     }
 
     private Translog.Snapshot newTranslogSnapshot(List<Translog.Operation> operations, List<Translog.Operation> operationsToSkip) {
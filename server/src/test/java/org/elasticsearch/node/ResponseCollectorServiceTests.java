@@ -17,6 +17,8 @@ import org.elasticsearch.cluster.service.ClusterService;
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.transport.TransportAddress;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.threadpool.TestThreadPool;
 import org.elasticsearch.threadpool.ThreadPool;
@@ -126,4 +128,28 @@ public class ResponseCollectorServiceTests extends ESTestCase {
         assertTrue(nodeStats.containsKey("node1"));
         assertFalse(nodeStats.containsKey("node2"));
     }
+
+    public void testShardCachedBytes() {
+        final ShardId shardId = new ShardId(new Index("index", "_na_"), 0);
+        final ShardId otherShardId = new ShardId(new Index("other", "_na_"), 0);
+        assertThat(collector.getShardCachedBytes("node1", shardId), equalTo(-1L));
+
+        collector.addShardCachedBytes("node1", shardId, 42L);
+        collector.addShardCachedBytes("node1", otherShardId, 7L);
+        collector.addShardCachedBytes("node2", shardId, 0L);
+        assertThat(collector.getShardCachedBytes("node1", shardId), equalTo(42L));
+        assertThat(collector.getShardCachedBytes("node2", shardId), equalTo(0L));
+        assertThat(collector.getShardCachedBytes("node2", otherShardId), equalTo(-1L));
+
+        collector.addShardCachedBytes("node1", shardId, 1024L);
+        assertThat(collector.getShardCachedBytes("node1", shardId), equalTo(1024L));
+
+        collector.removeIndex(shardId.getIndex());
+        assertThat(collector.getShardCachedBytes("node1", shardId), equalTo(-1L));
+        assertThat(collector.getShardCachedBytes("node2", shardId), equalTo(-1L));
+        assertThat(collector.getShardCachedBytes("node1", otherShardId), equalTo(7L));
+
+        collector.removeNode("node1");
+        assertThat(collector.getShardCachedBytes("node1", otherShardId), equalTo(-1L));
+    }
 }
@@ -37,6 +37,8 @@ import org.elasticsearch.test.ESIntegTestCase;
 import org.elasticsearch.test.ESSingleNodeTestCase;
 import org.elasticsearch.threadpool.ThreadPool;
 
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collection;
@@ -145,6 +147,61 @@ public class BlobStoreRepositoryTests extends ESSingleNodeTestCase {
         assertThat(snapshotIds, equalTo(originalSnapshots));
     }
 
+    public void testSnapshotReadsUnchangedShardGenerationFromCache() throws Exception {
+        final Client client = client();
+        final Path location = ESIntegTestCase.randomRepoPath(node().settings());
+        final String repositoryName = "test-repo";
+        assertAcked(
+            client.admin()
+                .cluster()
+                .preparePutRepository(repositoryName)
+                .setType(REPO_TYPE)
+                .setSettings(Settings.builder().put(node().settings()).put("location", location))
+        );
+
+        final String indexName = "test-idx";
+        createIndex(indexName, Settings.builder().put(IndexMetadata.SETTING_NUMBER_OF_SHARDS, 1).build());
+        ensureGreen();
+        final int numDocs = randomIntBetween(10, 20);
+        for (int i = 0; i < numDocs; i++) {
+            client().prepareIndex(indexName).setId(Integer.toString(i)).setSource("text", "sometext").get();
+        }
+        client().admin().indices().prepareFlush(indexName).get();
+
+        for (String snapshot : List.of("test-snap-1", "test-snap-2")) {
+            final CreateSnapshotResponse createSnapshotResponse = client.admin()
+                .cluster()
+                .prepareCreateSnapshot(repositoryName, snapshot)
+                .setWaitForCompletion(true)
+                .setIndices(indexName)
+                .get();
+            assertThat(createSnapshotResponse.getSnapshotInfo().state(), equalTo(SnapshotState.SUCCESS));
+        }
+
+        logger.info("--> deleting the shard level snapshot metadata from the repository");
+        final RepositoriesService repositoriesService = getInstanceFromNode(RepositoriesService.class);
+        final BlobStoreRepository repository = (BlobStoreRepository) repositoriesService.repository(repositoryName);
+        final IndexId indexId = ESBlobStoreRepositoryIntegTestCase.getRepositoryData(repository).resolveIndexId(indexName);
+        final Path shardPath = location.resolve("indices").resolve(indexId.getId()).resolve("0");
+        int deleted = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(shardPath, BlobStoreRepository.INDEX_FILE_PREFIX + "*")) {
+            for (Path path : stream) {
+                Files.delete(path);
+                deleted++;
+            }
+        }
+        assertThat(deleted, greaterThanOrEqualTo(1));
+
+        logger.info("--> the next snapshot of the shard reads its unchanged generation from the cache");
+        final CreateSnapshotResponse createSnapshotResponse = client.admin()
+            .cluster()
+            .prepareCreateSnapshot(repositoryName, "test-snap-3")
+            .setWaitForCompletion(true)
+            .setIndices(indexName)
+            .get();
+        assertThat(createSnapshotResponse.getSnapshotInfo().state(), equalTo(SnapshotState.SUCCESS));
+    }
+
     public void testReadAndWriteSnapshotsThroughIndexFile() throws Exception {
         final BlobStoreRepository repository = setupRepo();
         final long pendingGeneration = repository.metadata.pendingGeneration();
@@ -0,0 +1,87 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.repositories.blobstore;
+
+import org.elasticsearch.common.hash.MessageDigests;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot.FileInfo.Chunk;
+import org.elasticsearch.test.ESTestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class ContentDefinedChunkerTests extends ESTestCase {
+
+    public void testChunksCoverContent() throws IOException {
+        final ContentDefinedChunker chunker = new ContentDefinedChunker(1 << between(6, 12));
+        final byte[] content = randomByteArrayOfLength(between(0, 1 << 16));
+        final List<Chunk> chunks = chunker.split(new ByteArrayInputStream(content));
+        long offset = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+            final Chunk chunk = chunks.get(i);
+            assertThat(chunk.length(), lessThanOrEqualTo(chunker.maxSize()));
+            if (i < chunks.size() - 1) {
+                assertThat(chunk.length(), greaterThanOrEqualTo(chunker.minSize()));
+            }
+            final byte[] chunkContent = Arrays.copyOfRange(content, Math.toIntExact(offset), Math.toIntExact(offset + chunk.length()));
+            assertThat(chunk.hash(), equalTo(MessageDigests.toHexString(MessageDigests.sha256().digest(chunkContent))));
+            offset += chunk.length();
+        }
+        assertThat(offset, equalTo((long) content.length));
+    }
+
+    public void testSplitDoesNotDependOnReadSizes() throws IOException {
+        final ContentDefinedChunker chunker = new ContentDefinedChunker(1 << between(6, 12));
+        final byte[] content = randomByteArrayOfLength(between(0, 1 << 16));
+        final List<Chunk> chunks = chunker.split(new ByteArrayInputStream(content));
+        final List<Chunk> chunksFromShortReads = chunker.split(new ByteArrayInputStream(content) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, between(1, 100)));
+            }
+        });
+        assertThat(chunksFromShortReads, equalTo(chunks));
+    }
+
+    public void testInsertedBytesOnlyChangeNearbyChunks() throws IOException {
+        final ContentDefinedChunker chunker = new ContentDefinedChunker(1024);
+        final byte[] content = randomByteArrayOfLength(1 << 18);
+        final int insertAt = between(0, content.length);
+        final byte[] inserted = randomByteArrayOfLength(between(1, 100));
+        final byte[] shifted = new byte[content.length + inserted.length];
+        System.arraycopy(content, 0, shifted, 0, insertAt);
+        System.arraycopy(inserted, 0, shifted, insertAt, inserted.length);
+        System.arraycopy(content, insertAt, shifted, insertAt + inserted.length, content.length - insertAt);
+
+        final List<Chunk> chunks = chunker.split(new ByteArrayInputStream(content));
+        final Set<String> hashes = chunks.stream().map(Chunk::hash).collect(Collectors.toSet());
+        final Set<String> shiftedHashes = new HashSet<>();
+        for (Chunk chunk : chunker.split(new ByteArrayInputStream(shifted))) {
+            shiftedHashes.add(chunk.hash());
+        }
+        final Set<String> changed = new HashSet<>(hashes);
+        changed.removeAll(shiftedHashes);
+        assertThat(chunks.size(), greaterThan(100));
+        // only the chunks around the inserted bytes change since the boundaries resynchronize shortly after them
+        assertThat(changed.size(), lessThanOrEqualTo(chunks.size() / 10));
+    }
+
+    public void testRejectsTinyChunks() {
+        expectThrows(IllegalArgumentException.class, () -> new ContentDefinedChunker(between(0, 63)));
+    }
+}
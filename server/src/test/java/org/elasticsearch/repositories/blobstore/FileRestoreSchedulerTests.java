@@ -0,0 +1,210 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.repositories.blobstore;
+
+import org.apache.lucene.util.Version;
+import org.elasticsearch.action.support.PlainActionFuture;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot.FileInfo;
+import org.elasticsearch.index.store.StoreFileMetadata;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.junit.After;
+import org.junit.Before;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class FileRestoreSchedulerTests extends ESTestCase {
+
+    private ThreadPool threadPool;
+
+    @Before
+    public void setUpThreadPool() {
+        threadPool = new TestThreadPool(getTestName());
+    }
+
+    @After
+    public void tearDownThreadPool() {
+        ThreadPool.terminate(threadPool, 10L, TimeUnit.SECONDS);
+    }
+
+    public void testRestoresFilesOfAllShards() throws Exception {
+        final long targetBytesInFlight = randomLongBetween(0L, FileRestoreScheduler.BATCH_SIZE_IN_BYTES * 4);
+        final long readWindowInBytes = randomLongBetween(1L, FileRestoreScheduler.BATCH_SIZE_IN_BYTES * 4);
+        final FileRestoreScheduler scheduler = new FileRestoreScheduler(threadPool, () -> targetBytesInFlight, readWindowInBytes);
+
+        final AtomicLong bytesInFlight = new AtomicLong();
+        final AtomicLong maxBytesInFlight = new AtomicLong();
+        final Set<String> restored = ConcurrentHashMap.newKeySet();
+
+        final List<PlainActionFuture<Void>> futures = new ArrayList<>();
+        long maxLength = 0L;
+        long totalBytes = 0L;
+        int totalFiles = 0;
+        final int shards = randomIntBetween(1, 20);
+        for (int shard = 0; shard < shards; shard++) {
+            final List<FileInfo> files = randomFiles("shard-" + shard);
+            for (FileInfo file : files) {
+                maxLength = Math.max(maxLength, file.length());
+                totalBytes += file.length();
+            }
+            totalFiles += files.size();
+            final PlainActionFuture<Void> future = PlainActionFuture.newFuture();
+            scheduler.restoreFiles(files, file -> {
+                final long fileBytesInFlight = Math.min(file.length(), readWindowInBytes);
+                maxBytesInFlight.accumulateAndGet(bytesInFlight.addAndGet(fileBytesInFlight), Math::max);
+                assertTrue("file " + file.name() + " restored twice", restored.add(file.name()));
+                bytesInFlight.addAndGet(-fileBytesInFlight);
+            }, future);
+            futures.add(future);
+        }
+        for (PlainActionFuture<Void> future : futures) {
+            future.get(30L, TimeUnit.SECONDS);
+        }
+
+        assertThat(restored.size(), equalTo(totalFiles));
+        // a new batch is only started while the bytes in flight are below the target
+        final long maxBatchBytes = Math.max(FileRestoreScheduler.BATCH_SIZE_IN_BYTES, maxLength);
+        assertThat(maxBytesInFlight.get(), lessThan(targetBytesInFlight + maxBatchBytes + 1));
+        final Map<String, Long> stats = scheduler.stats();
+        assertThat(stats.get("restored_files"), equalTo((long) totalFiles));
+        assertThat(stats.get("restored_bytes"), equalTo(totalBytes));
+        assertThat(stats.get("queued_files"), equalTo(0L));
+        assertThat(stats.get("queued_bytes"), equalTo(0L));
+        assertThat(stats.get("in_flight_files"), equalTo(0L));
+        assertThat(stats.get("in_flight_bytes"), equalTo(0L));
+    }
+
+    public void testRestoresFilesLargerThanTargetConcurrently() throws Exception {
+        final long readWindowInBytes = randomLongBetween(1L, FileRestoreScheduler.BATCH_SIZE_IN_BYTES);
+        final int maxWorkers = threadPool.info(ThreadPool.Names.SNAPSHOT).getMax();
+        final long targetBytesInFlight = readWindowInBytes * maxWorkers;
+        final FileRestoreScheduler scheduler = new FileRestoreScheduler(threadPool, () -> targetBytesInFlight, readWindowInBytes);
+
+        // each file is larger than the target, but only holds a read window in flight so they are restored up to the worker cap at once
+        final List<FileInfo> files = new ArrayList<>();
+        for (int i = 0; i < maxWorkers + randomIntBetween(0, 5); i++) {
+            final String name = "large-" + i;
+            final long length = targetBytesInFlight + randomLongBetween(1L, FileRestoreScheduler.BATCH_SIZE_IN_BYTES);
+            files.add(new FileInfo(name, new StoreFileMetadata(name, length, "0", Version.LATEST.toString()), null));
+        }
+        final CountDownLatch allWorkersRunning = new CountDownLatch(maxWorkers);
+        final PlainActionFuture<Void> future = PlainActionFuture.newFuture();
+        scheduler.restoreFiles(files, file -> {
+            allWorkersRunning.countDown();
+            assertTrue(allWorkersRunning.await(30L, TimeUnit.SECONDS));
+        }, future);
+        future.get(30L, TimeUnit.SECONDS);
+        assertThat(scheduler.stats().get("restored_files"), equalTo((long) files.size()));
+        assertThat(scheduler.stats().get("in_flight_bytes"), equalTo(0L));
+    }
+
+    public void testFailureOnlyFailsShardOfFailingFile() throws Exception {
+        final long targetBytesInFlight = randomLongBetween(0L, Long.MAX_VALUE);
+        final FileRestoreScheduler scheduler = new FileRestoreScheduler(
+            threadPool,
+            () -> targetBytesInFlight,
+            randomLongBetween(1L, Long.MAX_VALUE)
+        );
+
+        final List<FileInfo> failingShardFiles = randomFiles("failing");
+        final FileInfo failingFile = randomFrom(failingShardFiles);
+        final IOException failure = new IOException("simulated");
+        final PlainActionFuture<Void> failingShardFuture = PlainActionFuture.newFuture();
+        scheduler.restoreFiles(failingShardFiles, file -> {
+            if (file == failingFile) {
+                throw failure;
+            }
+        }, failingShardFuture);
+
+        final List<FileInfo> otherShardFiles = randomFiles("other");
+        final PlainActionFuture<Void> otherShardFuture = PlainActionFuture.newFuture();
+        scheduler.restoreFiles(otherShardFiles, file -> {}, otherShardFuture);
+
+        final ExecutionException e = expectThrows(ExecutionException.class, () -> failingShardFuture.get(30L, TimeUnit.SECONDS));
+        assertThat(e.getCause(), sameInstance(failure));
+        otherShardFuture.get(30L, TimeUnit.SECONDS);
+
+        final Map<String, Long> stats = scheduler.stats();
+        assertThat(stats.get("restored_files"), lessThanOrEqualTo((long) (failingShardFiles.size() - 1 + otherShardFiles.size())));
+        assertThat(stats.get("queued_files"), equalTo(0L));
+    }
+
+    public void testFailsAllQueuedFilesOnRejection() throws Exception {
+        ThreadPool.terminate(threadPool, 10L, TimeUnit.SECONDS);
+        final FileRestoreScheduler scheduler = new FileRestoreScheduler(
+            threadPool,
+            () -> Long.MAX_VALUE,
+            randomLongBetween(1L, Long.MAX_VALUE)
+        );
+
+        // every file is a batch of its own, enough of them to overflow the stack if each rejected batch started the next one
+        final List<PlainActionFuture<Void>> futures = new ArrayList<>();
+        final int shards = randomIntBetween(1, 10);
+        for (int shard = 0; shard < shards; shard++) {
+            final List<FileInfo> files = new ArrayList<>();
+            for (int i = 0; i < 10_000; i++) {
+                final String name = "shard-" + shard + "-" + i;
+                final long length = FileRestoreScheduler.BATCH_SIZE_IN_BYTES;
+                files.add(new FileInfo(name, new StoreFileMetadata(name, length, "0", Version.LATEST.toString()), null));
+            }
+            final PlainActionFuture<Void> future = PlainActionFuture.newFuture();
+            scheduler.restoreFiles(files, file -> fail("no file can be restored"), future);
+            futures.add(future);
+        }
+        for (PlainActionFuture<Void> future : futures) {
+            final ExecutionException e = expectThrows(ExecutionException.class, () -> future.get(30L, TimeUnit.SECONDS));
+            assertThat(e.getCause(), instanceOf(EsRejectedExecutionException.class));
+        }
+
+        final Map<String, Long> stats = scheduler.stats();
+        assertThat(stats.get("restored_files"), equalTo(0L));
+        assertThat(stats.get("queued_files"), equalTo(0L));
+        assertThat(stats.get("queued_bytes"), equalTo(0L));
+        assertThat(stats.get("in_flight_files"), equalTo(0L));
+        assertThat(stats.get("in_flight_bytes"), equalTo(0L));
+    }
+
+    public void testRestoresNothingWithoutFiles() {
+        final FileRestoreScheduler scheduler = new FileRestoreScheduler(threadPool, () -> 0L, randomLongBetween(1L, Long.MAX_VALUE));
+        final PlainActionFuture<Void> future = PlainActionFuture.newFuture();
+        scheduler.restoreFiles(List.of(), file -> fail("no file to restore"), future);
+        assertTrue(future.isDone());
+        assertThat(scheduler.stats().get("restored_files"), equalTo(0L));
+    }
+
+    private static List<FileInfo> randomFiles(String prefix) {
+        final int count = randomIntBetween(1, 20);
+        final List<FileInfo> files = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final long length = randomBoolean()
+                ? randomLongBetween(0L, FileRestoreScheduler.BATCH_SIZE_IN_BYTES / 10)
+                : randomLongBetween(0L, FileRestoreScheduler.BATCH_SIZE_IN_BYTES * 4);
+            final String name = prefix + "-" + i;
+            files.add(new FileInfo(name, new StoreFileMetadata(name, length, "0", Version.LATEST.toString()), null));
+        }
+        return files;
+    }
+}
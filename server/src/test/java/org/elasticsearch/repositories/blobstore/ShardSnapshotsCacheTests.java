@@ -0,0 +1,80 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0 and the Server Side Public License, v 1; you may not use this file except
+ * in compliance with, at your election, the Elastic License 2.0 or the Server
+ * Side Public License, v 1.
+ */
+
+package org.elasticsearch.repositories.blobstore;
+
+import org.apache.lucene.util.Version;
+import org.elasticsearch.common.UUIDs;
+import org.elasticsearch.common.blobstore.BlobPath;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot.FileInfo;
+import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshots;
+import org.elasticsearch.index.snapshots.blobstore.SnapshotFiles;
+import org.elasticsearch.index.store.StoreFileMetadata;
+import org.elasticsearch.test.ESTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+public class ShardSnapshotsCacheTests extends ESTestCase {
+
+    private static final BlobPath SHARD_PATH = BlobPath.EMPTY.add("indices").add("index-uuid").add("0");
+
+    public void testCachesGenerationsNamedByUUID() {
+        final ShardSnapshotsCache cache = new ShardSnapshotsCache(Settings.EMPTY);
+        final String generation = UUIDs.randomBase64UUID();
+        final BlobStoreIndexShardSnapshots shardSnapshots = shardSnapshots(randomIntBetween(1, 10));
+        cache.put("repo", SHARD_PATH, generation, shardSnapshots);
+        assertThat(cache.get("repo", SHARD_PATH, generation), sameInstance(shardSnapshots));
+        assertThat(cache.get("other-repo", SHARD_PATH, generation), nullValue());
+        assertThat(cache.get("repo", SHARD_PATH, UUIDs.randomBase64UUID()), nullValue());
+    }
+
+    public void testDoesNotCacheNumericGenerations() {
+        final ShardSnapshotsCache cache = new ShardSnapshotsCache(Settings.EMPTY);
+        final String generation = Long.toString(randomNonNegativeLong());
+        cache.put("repo", SHARD_PATH, generation, shardSnapshots(randomIntBetween(1, 10)));
+        assertThat(cache.get("repo", SHARD_PATH, generation), nullValue());
+    }
+
+    public void testDisabled() {
+        final ShardSnapshotsCache cache = new ShardSnapshotsCache(
+            Settings.builder().put(ShardSnapshotsCache.SIZE_SETTING.getKey(), "0b").build()
+        );
+        final String generation = UUIDs.randomBase64UUID();
+        cache.put("repo", SHARD_PATH, generation, shardSnapshots(randomIntBetween(1, 10)));
+        assertThat(cache.get("repo", SHARD_PATH, generation), nullValue());
+    }
+
+    public void testRepositoriesShareTheBudget() {
+        // each entry weighs 128 + 3 * 256 bytes, so only one of them fits
+        final ShardSnapshotsCache cache = new ShardSnapshotsCache(
+            Settings.builder().put(ShardSnapshotsCache.SIZE_SETTING.getKey(), "1kb").build()
+        );
+        final String generation = UUIDs.randomBase64UUID();
+        final BlobStoreIndexShardSnapshots first = shardSnapshots(3);
+        final BlobStoreIndexShardSnapshots second = shardSnapshots(3);
+        cache.put("repo-1", SHARD_PATH, generation, first);
+        assertThat(cache.get("repo-1", SHARD_PATH, generation), sameInstance(first));
+        cache.put("repo-2", SHARD_PATH, generation, second);
+        assertThat(cache.get("repo-1", SHARD_PATH, generation), nullValue());
+        assertThat(cache.get("repo-2", SHARD_PATH, generation), sameInstance(second));
+    }
+
+    private static BlobStoreIndexShardSnapshots shardSnapshots(int fileCount) {
+        final List<FileInfo> files = new ArrayList<>();
+        for (int i = 0; i < fileCount; i++) {
+            final String name = "_" + i + ".cfs";
+            files.add(new FileInfo("__" + i, new StoreFileMetadata(name, randomNonNegativeLong(), "0", Version.LATEST.toString()), null));
+        }
+        return new BlobStoreIndexShardSnapshots(List.of(new SnapshotFiles("snapshot", files, null)));
+    }
+}
@@ -25,6 +25,8 @@ import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentType;
 import org.elasticsearch.common.xcontent.yaml.YamlXContent;
 import org.elasticsearch.core.internal.io.IOUtils;
+import org.elasticsearch.http.HttpChannel;
+import org.elasticsearch.http.HttpContentStream;
 import org.elasticsearch.http.HttpInfo;
 import org.elasticsearch.http.HttpRequest;
 import org.elasticsearch.http.HttpResponse;
@@ -472,6 +474,37 @@ public class RestControllerTests extends ESTestCase {
         assertTrue(channel.getSendResponseCalled());
     }
 
+    public void testDispatchIncrementalContentRequiresSupportingHandler() {
+        final boolean supportsIncrementalContent = randomBoolean();
+        final HttpRequest httpRequest = new FakeRestRequest.FakeHttpRequest(RestRequest.Method.GET, "/foo", BytesArray.EMPTY,
+            Collections.singletonMap("Content-Type", Collections.singletonList("application/json"))) {
+            @Override
+            public HttpContentStream contentStream() {
+                return mock(HttpContentStream.class);
+            }
+        };
+        final RestRequest request = RestRequest.request(NamedXContentRegistry.EMPTY, httpRequest, mock(HttpChannel.class));
+        AssertingChannel channel =
+            new AssertingChannel(request, true, supportsIncrementalContent ? RestStatus.OK : RestStatus.BAD_REQUEST);
+        restController.registerHandler(new Route(GET, "/foo"), new RestHandler() {
+            @Override
+            public void handleRequest(RestRequest request, RestChannel channel, NodeClient client) throws Exception {
+                assertNotNull(request.contentStream());
+                channel.sendResponse(new BytesRestResponse(RestStatus.OK, BytesRestResponse.TEXT_CONTENT_TYPE, BytesArray.EMPTY));
+            }
+
+            @Override
+            public boolean supportsIncrementalContent() {
+                return supportsIncrementalContent;
+            }
+        });
+
+        assertTrue(request.hasContent());
+        assertFalse(channel.getSendResponseCalled());
+        restController.dispatchRequest(request, channel, client.threadPool().getThreadContext());
+        assertTrue(channel.getSendResponseCalled());
+    }
+
     public void testNonStreamingXContentCausesErrorResponse() throws IOException {
         FakeRestRequest fakeRestRequest = new FakeRestRequest.Builder(NamedXContentRegistry.EMPTY)
             .withContent(BytesReference.bytes(YamlXContent.contentBuilder().startObject().endObject()),
@@ -11,22 +11,40 @@ package org.elasticsearch.rest.action.document;
 import org.apache.lucene.util.SetOnce;
 import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionListener;
+import org.elasticsearch.action.DocWriteRequest;
+import org.elasticsearch.action.bulk.BulkItemResponse;
 import org.elasticsearch.action.bulk.BulkRequest;
 import org.elasticsearch.action.bulk.BulkResponse;
 import org.elasticsearch.action.update.UpdateRequest;
 import org.elasticsearch.client.node.NodeClient;
 import org.elasticsearch.common.bytes.BytesArray;
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.bytes.ReleasableBytesReference;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.xcontent.XContentHelper;
 import org.elasticsearch.common.xcontent.XContentType;
+import org.elasticsearch.core.Tuple;
+import org.elasticsearch.http.HttpChannel;
+import org.elasticsearch.http.HttpContentStream;
+import org.elasticsearch.http.HttpTransportSettings;
 import org.elasticsearch.rest.RestChannel;
 import org.elasticsearch.rest.RestRequest;
+import org.elasticsearch.rest.RestStatus;
 import org.elasticsearch.test.ESTestCase;
 import org.elasticsearch.test.client.NoOpNodeClient;
+import org.elasticsearch.test.rest.FakeRestChannel;
 import org.elasticsearch.test.rest.FakeRestRequest;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.Mockito.mock;
 
@@ -66,4 +84,250 @@ public class RestBulkActionTests extends ESTestCase {
             assertThat(bulkCalled.get(), equalTo(true));
         }
     }
+
+    public void testIncrementalBulkIsExecutedInBatches() throws Exception {
+        final int numDocs = randomIntBetween(1, 50);
+        final StringBuilder body = new StringBuilder();
+        for (int i = 0; i < numDocs; i++) {
+            if (randomBoolean()) {
+                body.append("{\"index\":{\"_index\":\"test\",\"_id\":\"").append(i).append("\"}}\n");
+                body.append("{\"field\":\"").append(randomAlphaOfLength(10)).append("\"}\n");
+            } else {
+                body.append("{\"delete\":{\"_index\":\"test\",\"_id\":\"").append(i).append("\"}}\n");
+            }
+        }
+        final TestContentStream contentStream = new TestContentStream(new BytesArray(body.toString()));
+        final List<BulkRequest> batches = new ArrayList<>();
+        final List<String> ids = new ArrayList<>();
+        try (NodeClient client = new NoOpNodeClient(getTestName()) {
+            @Override
+            public void bulk(BulkRequest request, ActionListener<BulkResponse> listener) {
+                batches.add(request);
+                final BulkItemResponse[] items = new BulkItemResponse[request.numberOfActions()];
+                for (int i = 0; i < items.length; i++) {
+                    final DocWriteRequest<?> item = request.requests().get(i);
+                    ids.add(item.id());
+                    items[i] = new BulkItemResponse(i, item.opType(),
+                        new BulkItemResponse.Failure(item.index(), item.id(), new IllegalStateException("test")));
+                }
+                listener.onResponse(new BulkResponse(items, 1));
+            }
+        }) {
+            final Settings settings = Settings.builder()
+                .put(HttpTransportSettings.SETTING_HTTP_INCREMENTAL_BULK_BATCH_SIZE.getKey(), randomIntBetween(1, 200) + "b")
+                .build();
+            final RestRequest request = streamedRequest(contentStream);
+            final FakeRestChannel channel = new FakeRestChannel(request, true, 1);
+            new RestBulkAction(settings).handleRequest(request, channel, client);
+
+            assertThat(channel.responses().get(), equalTo(1));
+            assertThat(batches.size(), greaterThan(0));
+            final List<String> expectedIds = new ArrayList<>();
+            for (int i = 0; i < numDocs; i++) {
+                expectedIds.add(Integer.toString(i));
+            }
+            assertThat(ids, equalTo(expectedIds));
+            assertThat(contentStream.released.get(), equalTo(contentStream.delivered));
+            assertFalse(contentStream.discarded);
+        }
+    }
+
+    public void testIncrementalBulkFailsOnMalformedItem() throws Exception {
+        final String body = "{\"index\":{\"_index\":\"test\",\"_id\":\"1\"}}\n{\"field\":\"value\"}\n{\"unknown\":{}}\n{}\n";
+        final TestContentStream contentStream = new TestContentStream(new BytesArray(body));
+        try (NodeClient client = new NoOpNodeClient(getTestName()) {
+            @Override
+            public void bulk(BulkRequest request, ActionListener<BulkResponse> listener) {
+                listener.onResponse(new BulkResponse(new BulkItemResponse[0], 1));
+            }
+        }) {
+            final RestRequest request = streamedRequest(contentStream);
+            final FakeRestChannel channel = new FakeRestChannel(request, true, 1);
+            new RestBulkAction(Settings.EMPTY).handleRequest(request, channel, client);
+
+            assertThat(channel.errors().get(), equalTo(1));
+            assertThat(channel.capturedResponse().status(), equalTo(RestStatus.BAD_REQUEST));
+            assertTrue(contentStream.discarded);
+            assertThat(contentStream.released.get(), equalTo(contentStream.delivered));
+        }
+    }
+
+    public void testIncrementalBulkParsesWhileBatchExecutes() throws Exception {
+        final int numDocs = randomIntBetween(5, 50);
+        final StringBuilder body = new StringBuilder();
+        for (int i = 0; i < numDocs; i++) {
+            body.append("{\"delete\":{\"_index\":\"test\",\"_id\":\"").append(i).append("\"}}\n");
+        }
+        final TestContentStream contentStream = new TestContentStream(new BytesArray(body.toString()));
+        final Queue<Tuple<BulkRequest, ActionListener<BulkResponse>>> executing = new ArrayDeque<>();
+        final AtomicInteger deliveredAtFirstBatch = new AtomicInteger(-1);
+        final List<String> ids = new ArrayList<>();
+        try (NodeClient client = new NoOpNodeClient(getTestName()) {
+            @Override
+            public void bulk(BulkRequest request, ActionListener<BulkResponse> listener) {
+                assertThat("only one batch executes at a time", executing, hasSize(0));
+                deliveredAtFirstBatch.compareAndSet(-1, contentStream.delivered);
+                executing.add(Tuple.tuple(request, listener));
+            }
+        }) {
+            final Settings settings = Settings.builder()
+                .put(HttpTransportSettings.SETTING_HTTP_INCREMENTAL_BULK_BATCH_SIZE.getKey(), "1b")
+                .build();
+            final RestRequest request = streamedRequest(contentStream);
+            final FakeRestChannel channel = new FakeRestChannel(request, true, 1);
+            new RestBulkAction(settings).handleRequest(request, channel, client);
+
+            assertThat(executing, hasSize(1));
+            assertThat("the next batch is parsed while the first one executes", contentStream.delivered,
+                greaterThan(deliveredAtFirstBatch.get()));
+
+            Tuple<BulkRequest, ActionListener<BulkResponse>> batch;
+            while ((batch = executing.poll()) != null) {
+                final BulkRequest batchRequest = batch.v1();
+                final BulkItemResponse[] items = new BulkItemResponse[batchRequest.numberOfActions()];
+                for (int i = 0; i < items.length; i++) {
+                    final DocWriteRequest<?> item = batchRequest.requests().get(i);
+                    ids.add(item.id());
+                    items[i] = new BulkItemResponse(i, item.opType(),
+                        new BulkItemResponse.Failure(item.index(), item.id(), new IllegalStateException("test")));
+                }
+                batch.v2().onResponse(new BulkResponse(items, 1));
+            }
+
+            assertThat(channel.responses().get(), equalTo(1));
+            assertThat(itemIds(channel), equalTo(ids));
+            assertThat(ids.size(), equalTo(numDocs));
+            assertThat(contentStream.released.get(), equalTo(contentStream.delivered));
+        }
+    }
+
+    public void testIncrementalBulkKeepsItemsOfEarlierBatchesWhenBatchFails() throws Exception {
+        final int numDocs = randomIntBetween(5, 50);
+        final StringBuilder body = new StringBuilder();
+        for (int i = 0; i < numDocs; i++) {
+            body.append("{\"delete\":{\"_index\":\"test\",\"_id\":\"").append(i).append("\"}}\n");
+        }
+        final TestContentStream contentStream = new TestContentStream(new BytesArray(body.toString()));
+        final AtomicInteger batches = new AtomicInteger();
+        final AtomicInteger itemsOfFirstBatch = new AtomicInteger();
+        try (NodeClient client = new NoOpNodeClient(getTestName()) {
+            @Override
+            public void bulk(BulkRequest request, ActionListener<BulkResponse> listener) {
+                if (batches.incrementAndGet() == 1) {
+                    itemsOfFirstBatch.set(request.numberOfActions());
+                    final BulkItemResponse[] items = new BulkItemResponse[request.numberOfActions()];
+                    for (int i = 0; i < items.length; i++) {
+                        final DocWriteRequest<?> item = request.requests().get(i);
+                        items[i] = new BulkItemResponse(i, item.opType(),
+                            new BulkItemResponse.Failure(item.index(), item.id(), new IllegalStateException("first")));
+                    }
+                    listener.onResponse(new BulkResponse(items, 1));
+                } else {
+                    listener.onFailure(new IllegalStateException("later"));
+                }
+            }
+        }) {
+            final Settings settings = Settings.builder()
+                .put(HttpTransportSettings.SETTING_HTTP_INCREMENTAL_BULK_BATCH_SIZE.getKey(), "1b")
+                .build();
+            final RestRequest request = streamedRequest(contentStream);
+            final FakeRestChannel channel = new FakeRestChannel(request, true, 1);
+            new RestBulkAction(settings).handleRequest(request, channel, client);
+
+            assertThat(channel.responses().get(), equalTo(1));
+            assertThat(batches.get(), greaterThan(1));
+            final List<String> expectedIds = new ArrayList<>();
+            for (int i = 0; i < numDocs; i++) {
+                expectedIds.add(Integer.toString(i));
+            }
+            assertThat(itemIds(channel), equalTo(expectedIds));
+            final List<String> reasons = itemErrorReasons(channel);
+            for (int i = 0; i < numDocs; i++) {
+                assertThat(reasons.get(i), equalTo(i < itemsOfFirstBatch.get() ? "first" : "later"));
+            }
+            assertThat(contentStream.released.get(), equalTo(contentStream.delivered));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> items(FakeRestChannel channel) {
+        final Map<String, Object> response = XContentHelper.convertToMap(channel.capturedResponse().content(), false, XContentType.JSON)
+            .v2();
+        final List<Map<String, Object>> items = new ArrayList<>();
+        for (Object item : (List<Object>) response.get("items")) {
+            items.add((Map<String, Object>) ((Map<String, Object>) item).values().iterator().next());
+        }
+        return items;
+    }
+
+    private static List<String> itemIds(FakeRestChannel channel) {
+        final List<String> ids = new ArrayList<>();
+        for (Map<String, Object> item : items(channel)) {
+            ids.add((String) item.get("_id"));
+        }
+        return ids;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> itemErrorReasons(FakeRestChannel channel) {
+        final List<String> reasons = new ArrayList<>();
+        for (Map<String, Object> item : items(channel)) {
+            reasons.add((String) ((Map<String, Object>) item.get("error")).get("reason"));
+        }
+        return reasons;
+    }
+
+    private RestRequest streamedRequest(HttpContentStream contentStream) {
+        final Map<String, List<String>> headers = Map.of("Content-Type", List.of("application/json"));
+        final FakeRestRequest.FakeHttpRequest httpRequest =
+            new FakeRestRequest.FakeHttpRequest(RestRequest.Method.POST, "/_bulk", BytesArray.EMPTY, headers) {
+                @Override
+                public HttpContentStream contentStream() {
+                    return contentStream;
+                }
+            };
+        return RestRequest.request(xContentRegistry(), httpRequest, mock(HttpChannel.class));
+    }
+
+    /**
+     * Delivers the given content in random chunks, on the thread that requests them.
+     */
+    private static class TestContentStream implements HttpContentStream {
+
+        private final Queue<BytesReference> chunks = new ArrayDeque<>();
+        private final AtomicInteger released = new AtomicInteger();
+        private ChunkHandler handler;
+        private int delivered;
+        private boolean discarded;
+
+        TestContentStream(BytesReference content) {
+            int from = 0;
+            while (from < content.length()) {
+                final int length = randomIntBetween(1, Math.min(64, content.length() - from));
+                chunks.add(content.slice(from, length));
+                from += length;
+            }
+            if (randomBoolean()) {
+                chunks.add(BytesArray.EMPTY);
+            }
+        }
+
+        @Override
+        public void setHandler(ChunkHandler handler) {
+            this.handler = handler;
+        }
+
+        @Override
+        public void next() {
+            final BytesReference chunk = chunks.poll();
+            assertNotNull("chunk requested after the last chunk", chunk);
+            delivered++;
+            handler.onNext(new ReleasableBytesReference(chunk, released::incrementAndGet), chunks.isEmpty());
+        }
+
+        @Override
+        public void discard() {
+            discarded = true;
+        }
+    }
 }
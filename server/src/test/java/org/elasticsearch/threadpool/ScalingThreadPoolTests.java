@@ -10,13 +10,17 @@ package org.elasticsearch.threadpool;
 
 import org.elasticsearch.common.settings.ClusterSettings;
 import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.common.util.concurrent.EsThreadPoolExecutor;
+import org.elasticsearch.common.util.concurrent.EsVirtualThreadExecutor;
+import org.elasticsearch.common.util.concurrent.ThreadContext;
 
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
 
@@ -174,6 +178,73 @@ public class ScalingThreadPoolTests extends ESThreadPoolTestCase {
         }));
     }
 
+    public void testScalingThreadPoolOnVirtualThreads() throws InterruptedException {
+        final String threadPoolName = randomFrom(ThreadPool.Names.SNAPSHOT, ThreadPool.Names.SNAPSHOT_META);
+        final int size = randomIntBetween(1, 32);
+        final Settings settings =
+                Settings.builder()
+                        .put("thread_pool." + threadPoolName + ".max", size)
+                        .put("thread_pool." + threadPoolName + ".virtual_threads", true)
+                        .build();
+        // runtimes without virtual threads, and tests running under the security manager, fall back to a scaling pool of platform threads
+        final boolean virtualThreads = EsExecutors.virtualThreadsSupported();
+        runScalingThreadPoolTest(settings, (clusterSettings, threadPool) -> {
+            assertThat(threadPool.info(threadPoolName).getMax(), equalTo(size));
+            if (virtualThreads) {
+                assertThat(threadPool.executor(threadPoolName), instanceOf(EsVirtualThreadExecutor.class));
+            } else {
+                assertThat(threadPool.executor(threadPoolName), instanceOf(EsThreadPoolExecutor.class));
+            }
+            final CountDownLatch latch = new CountDownLatch(1);
+            final int numberOfTasks = 2 * size;
+            final CountDownLatch taskLatch = new CountDownLatch(numberOfTasks);
+            final AtomicInteger failures = new AtomicInteger();
+            // the threads are created under the security manager of the tests, like on a node
+            try (ThreadContext.StoredContext ignored = threadPool.getThreadContext().stashContext()) {
+                threadPool.getThreadContext().putHeader("header", "value");
+                for (int i = 0; i < numberOfTasks; i++) {
+                    threadPool.executor(threadPoolName).execute(() -> {
+                        try {
+                            latch.await();
+                            final Thread thread = Thread.currentThread();
+                            if (thread.isDaemon() == false
+                                || isVirtual(thread) != virtualThreads
+                                || thread.getName().contains("[" + threadPoolName + "]") == false
+                                || "value".equals(threadPool.getThreadContext().getHeader("header")) == false) {
+                                failures.incrementAndGet();
+                            }
+                            taskLatch.countDown();
+                        } catch (final InterruptedException e) {
+                            throw new RuntimeException(e);
+                        }
+                    });
+                }
+            }
+            // max bounds the number of concurrent tasks, whether they run on virtual threads or on platform threads
+            final ThreadPoolStats.Stats stats = stats(threadPool, threadPoolName);
+            assertThat(stats.getQueue(), equalTo(numberOfTasks - size));
+            assertThat(stats.getLargest(), equalTo(size));
+            latch.countDown();
+            try {
+                taskLatch.await();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+            assertThat(failures.get(), equalTo(0));
+        });
+    }
+
+    private static boolean isVirtual(Thread thread) {
+        try {
+            // Thread#isVirtual only exists on runtimes that support virtual threads
+            return (boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+        } catch (NoSuchMethodException e) {
+            return false;
+        } catch (ReflectiveOperationException e) {
+            throw new AssertionError(e);
+        }
+    }
+
     public void runScalingThreadPoolTest(
             final Settings settings,
             final BiConsumer<ClusterSettings, ThreadPool> consumer) throws InterruptedException {
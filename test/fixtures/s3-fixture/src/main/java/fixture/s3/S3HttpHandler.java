@@ -221,13 +221,18 @@ public class S3HttpHandler implements HttpHandler {
                             throw new AssertionError("Bytes range does not match expected pattern: " + range);
                         }
 
-                        final int start = Integer.parseInt(matcher.group(1));
-                        final int end = Integer.parseInt(matcher.group(2));
+                        final long start = Long.parseLong(matcher.group(1));
+                        if (start >= blob.length()) {
+                            exchange.sendResponseHeaders(RestStatus.REQUESTED_RANGE_NOT_SATISFIED.getStatus(), -1);
+                            return;
+                        }
+                        // like S3, serve the end of the blob if the requested range goes beyond it
+                        final long end = Math.min(Long.parseLong(matcher.group(2)), blob.length() - 1L);
 
-                        final BytesReference rangeBlob = blob.slice(start, end + 1 - start);
+                        final BytesReference rangeBlob = blob.slice(Math.toIntExact(start), Math.toIntExact(end + 1 - start));
                         exchange.getResponseHeaders().add("Content-Type", "application/octet-stream");
                         exchange.getResponseHeaders()
-                            .add("Content-Range", String.format(Locale.ROOT, "bytes %d-%d/%d", start, end, rangeBlob.length()));
+                            .add("Content-Range", String.format(Locale.ROOT, "bytes %d-%d/%d", start, end, blob.length()));
                         exchange.sendResponseHeaders(RestStatus.OK.getStatus(), rangeBlob.length());
                         rangeBlob.writeTo(exchange.getResponseBody());
                     }
@@ -146,6 +146,7 @@ public class SearchableSnapshotShardStats implements Writeable, ToXContentObject
         private final TimedCounter optimizedBytesRead;
         private final Counter blobStoreBytesRequested;
         private final Counter luceneBytesRead;
+        private final Counter readAheadBytesRequested;
         private final long currentIndexCacheFills;
 
         public CacheIndexInputStats(String fileExt, long numFiles, ByteSizeValue totalSize, ByteSizeValue minSize, ByteSizeValue maxSize,
@@ -156,7 +157,7 @@ public class SearchableSnapshotShardStats implements Writeable, ToXContentObject
                                     Counter cachedBytesRead, Counter indexCacheBytesRead,
                                     TimedCounter cachedBytesWritten, TimedCounter directBytesRead, TimedCounter optimizedBytesRead,
                                     Counter blobStoreBytesRequested, Counter luceneBytesRead,
-                                    long currentIndexCacheFills) {
+                                    Counter readAheadBytesRequested, long currentIndexCacheFills) {
             this.fileExt = fileExt;
             this.numFiles = numFiles;
             this.totalSize = totalSize;
@@ -177,6 +178,7 @@ public class SearchableSnapshotShardStats implements Writeable, ToXContentObject
             this.optimizedBytesRead = optimizedBytesRead;
             this.blobStoreBytesRequested = blobStoreBytesRequested;
             this.luceneBytesRead = luceneBytesRead;
+            this.readAheadBytesRequested = readAheadBytesRequested;
             this.currentIndexCacheFills = currentIndexCacheFills;
         }
 
@@ -217,6 +219,11 @@ public class SearchableSnapshotShardStats implements Writeable, ToXContentObject
             } else {
                 this.luceneBytesRead = new Counter(0, 0, 0, 0);
             }
+            if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+                this.readAheadBytesRequested = new Counter(in);
+            } else {
+                this.readAheadBytesRequested = new Counter(0, 0, 0, 0);
+            }
             this.currentIndexCacheFills = in.readVLong();
         }
 
@@ -247,6 +254,7 @@ public class SearchableSnapshotShardStats implements Writeable, ToXContentObject
                 cis1.optimizedBytesRead.add(cis2.optimizedBytesRead),
                 cis1.blobStoreBytesRequested.add(cis2.blobStoreBytesRequested),
                 cis1.luceneBytesRead.add(cis2.luceneBytesRead),
+                cis1.readAheadBytesRequested.add(cis2.readAheadBytesRequested),
                 cis1.currentIndexCacheFills + cis2.currentIndexCacheFills
             );
         }
@@ -286,6 +294,9 @@ public class SearchableSnapshotShardStats implements Writeable, ToXContentObject
             if (out.getVersion().onOrAfter(Version.V_7_13_0)) {
                 luceneBytesRead.writeTo(out);
             }
+            if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+                readAheadBytesRequested.writeTo(out);
+            }
             out.writeVLong(currentIndexCacheFills);
         }
 
@@ -374,6 +385,10 @@ public class SearchableSnapshotShardStats implements Writeable, ToXContentObject
             return luceneBytesRead;
         }
 
+        public Counter getReadAheadBytesRequested() {
+            return readAheadBytesRequested;
+        }
+
         public long getCurrentIndexCacheFills() {
             return currentIndexCacheFills;
         }
@@ -415,6 +430,7 @@ public class SearchableSnapshotShardStats implements Writeable, ToXContentObject
                 }
                 builder.field("blob_store_bytes_requested", getBlobStoreBytesRequested(), params);
                 builder.field("lucene_bytes_read", getLuceneBytesRead(), params);
+                builder.field("read_ahead_bytes_requested", getReadAheadBytesRequested(), params);
                 builder.field("current_index_cache_fills", getCurrentIndexCacheFills());
             }
             return builder.endObject();
@@ -449,6 +465,7 @@ public class SearchableSnapshotShardStats implements Writeable, ToXContentObject
                 && Objects.equals(optimizedBytesRead, stats.optimizedBytesRead)
                 && Objects.equals(blobStoreBytesRequested, stats.blobStoreBytesRequested)
                 && Objects.equals(luceneBytesRead, stats.luceneBytesRead)
+                && Objects.equals(readAheadBytesRequested, stats.readAheadBytesRequested)
                 && currentIndexCacheFills == stats.currentIndexCacheFills;
         }
 
@@ -462,7 +479,7 @@ public class SearchableSnapshotShardStats implements Writeable, ToXContentObject
                 contiguousReads, nonContiguousReads,
                 cachedBytesRead, indexCacheBytesRead,
                 cachedBytesWritten, directBytesRead, optimizedBytesRead,
-                blobStoreBytesRequested, luceneBytesRead, currentIndexCacheFills);
+                blobStoreBytesRequested, luceneBytesRead, readAheadBytesRequested, currentIndexCacheFills);
         }
     }
 
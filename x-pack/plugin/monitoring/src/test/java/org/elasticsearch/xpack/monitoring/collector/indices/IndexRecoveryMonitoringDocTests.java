@@ -163,6 +163,7 @@ public class IndexRecoveryMonitoringDocTests extends BaseMonitoringDocTestCase<I
                     + "            \"total_in_bytes\": 0,"
                     + "            \"reused_in_bytes\": 0,"
                     + "            \"recovered_in_bytes\": 0,"
+                    + "            \"recovered_from_snapshot_in_bytes\": 0,"
                     + "            \"percent\": \"0.0%%\""
                     + "          },"
                     + "          \"files\": {"
@@ -180,7 +181,9 @@ public class IndexRecoveryMonitoringDocTests extends BaseMonitoringDocTestCase<I
                     + "          \"total\": -1,"
                     + "          \"percent\": \"-1.0%%\","
                     + "          \"total_on_start\": -1,"
-                    + "          \"total_time_in_millis\": 0"
+                    + "          \"total_time_in_millis\": 0,"
+                    + "          \"replay_time_in_millis\": 0,"
+                    + "          \"replayed_operations_per_sec\": 0"
                     + "        },"
                     + "        \"verify_index\": {"
                     + "          \"check_index_time_in_millis\": 0,"
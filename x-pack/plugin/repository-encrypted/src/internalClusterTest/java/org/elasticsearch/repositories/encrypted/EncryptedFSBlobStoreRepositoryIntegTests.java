@@ -7,6 +7,10 @@
 package org.elasticsearch.repositories.encrypted;
 
 import org.elasticsearch.action.support.PlainActionFuture;
+import org.elasticsearch.common.blobstore.BlobContainer;
+import org.elasticsearch.common.blobstore.BlobPath;
+import org.elasticsearch.common.blobstore.BlobStore;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.settings.MockSecureSettings;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeUnit;
@@ -23,6 +27,7 @@ import org.elasticsearch.repositories.fs.FsRepository;
 import org.junit.BeforeClass;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -104,6 +109,27 @@ public final class EncryptedFSBlobStoreRepositoryIntegTests extends ESFsBasedRep
         return EncryptedRepositoryPlugin.REPOSITORY_TYPE_NAME;
     }
 
+    public void testReadRange() throws IOException {
+        try (BlobStore store = newBlobStore()) {
+            final BlobContainer container = store.blobContainer(BlobPath.EMPTY);
+            final byte[] data = randomBytes(randomIntBetween(1, 4 * EncryptedRepository.PACKET_LENGTH_IN_BYTES));
+            writeBlob(container, "foobar", new BytesArray(data), randomBoolean());
+            for (int i = 0; i < 10; i++) {
+                final int position = randomIntBetween(0, data.length - 1);
+                final int length = randomIntBetween(0, data.length - position);
+                try (InputStream stream = container.readBlob("foobar", position, length)) {
+                    assertArrayEquals(Arrays.copyOfRange(data, position, position + length), stream.readAllBytes());
+                }
+            }
+            // ranges past the end of the blob are cut short
+            final int position = randomIntBetween(0, data.length - 1);
+            try (InputStream stream = container.readBlob("foobar", position, data.length)) {
+                assertArrayEquals(Arrays.copyOfRange(data, position, data.length), stream.readAllBytes());
+            }
+            container.delete();
+        }
+    }
+
     public void testTamperedEncryptionMetadata() throws Exception {
         final String repoName = randomRepositoryName();
         final Path repoPath = randomRepoPath();
@@ -59,6 +59,7 @@ public final class DecryptionPacketsInputStream extends ChainingInputStream {
 
     private boolean hasNext;
     private long counter;
+    private long remainingPackets;
 
     /**
      * Computes and returns the length of the plaintext given the {@code ciphertextLength} and the {@code packetLength}
@@ -80,6 +81,18 @@ public final class DecryptionPacketsInputStream extends ChainingInputStream {
     }
 
     public DecryptionPacketsInputStream(InputStream source, SecretKey secretKey, int packetLength) {
+        this(source, secretKey, packetLength, 0L, Long.MAX_VALUE);
+    }
+
+    /**
+     * Decrypts only the {@code packetCount} consecutive packets starting with the packet at index {@code firstPacketIndex}. The
+     * {@code source} must start with the first of these packets, which is how ranges of encrypted blobs are decrypted without
+     * reading the packets before the range. The packets are authenticated just the same, including their position in the blob.
+     */
+    DecryptionPacketsInputStream(InputStream source, SecretKey secretKey, int packetLength, long firstPacketIndex, long packetCount) {
+        if (firstPacketIndex < 0L || packetCount <= 0L) {
+            throw new IllegalArgumentException("Invalid packet range [" + firstPacketIndex + "][" + packetCount + "]");
+        }
         this.source = Objects.requireNonNull(source);
         this.secretKey = Objects.requireNonNull(secretKey);
         if (packetLength <= 0 || packetLength >= EncryptedRepository.MAX_PACKET_LENGTH_IN_BYTES) {
@@ -88,7 +101,8 @@ public final class DecryptionPacketsInputStream extends ChainingInputStream {
         this.packetLength = packetLength;
         this.packetBuffer = new byte[packetLength + GCM_TAG_LENGTH_IN_BYTES];
         this.hasNext = true;
-        this.counter = EncryptedRepository.PACKET_START_COUNTER;
+        this.counter = EncryptedRepository.PACKET_START_COUNTER + firstPacketIndex;
+        this.remainingPackets = packetCount;
     }
 
     @Override
@@ -106,7 +120,7 @@ public final class DecryptionPacketsInputStream extends ChainingInputStream {
         );
         int currentPacketLength = decrypt(packetInputStream);
         // only the last packet is shorter, so this must be the last packet
-        if (currentPacketLength != packetLength) {
+        if (currentPacketLength != packetLength || --remainingPackets == 0L) {
             hasNext = false;
         }
         return new ByteArrayInputStream(packetBuffer, 0, currentPacketLength);
@@ -47,6 +47,7 @@ import org.elasticsearch.repositories.SnapshotShardContext;
 import org.elasticsearch.repositories.blobstore.BlobStoreRepository;
 import org.elasticsearch.snapshots.SnapshotInfo;
 
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -77,6 +78,8 @@ public class EncryptedRepository extends BlobStoreRepository {
     // this should be smaller than {@code #MAX_PACKET_LENGTH_IN_BYTES} and it's what {@code EncryptionPacketsInputStream} uses
     // during encryption and what {@code DecryptionPacketsInputStream} expects during decryption (it is not configurable)
     static final int PACKET_LENGTH_IN_BYTES = 64 * (1 << 10); // 64KB
+    // the number of packets that are encrypted concurrently by the {@code ParallelEncryptionPacketsInputStream}
+    static final int PACKETS_PER_ENCRYPTION_BATCH = 16; // 1MB
     // the path of the blob container holding all the DEKs
     // this is relative to the root base path holding the encrypted blobs (i.e. the repository root base path)
     static final String DEK_ROOT_CONTAINER = ".encryption-metadata"; // package private for tests
@@ -570,9 +573,67 @@ public class EncryptedRepository extends BlobStoreRepository {
             }
         }
 
+        /**
+         * Returns a new {@link InputStream} that reads and decrypts the given range of the contents of the blob. Only the encrypted
+         * packets that overlap the range are read from the delegated blob container, since every packet is authenticated on its own.
+         *
+         * @param   blobName The name of the blob to get an {@link InputStream} for.
+         * @param   position The position in the decrypted contents of the blob where the range starts.
+         * @param   length The length of the range, in bytes of decrypted contents.
+         */
         @Override
         public InputStream readBlob(String blobName, long position, long length) throws IOException {
-            throw new UnsupportedOperationException("Not yet implemented");
+            if (position < 0L) {
+                throw new IllegalArgumentException("position must be non-negative");
+            }
+            if (length < 0L) {
+                throw new IllegalArgumentException("length must be non-negative");
+            }
+            final SecretKey dek;
+            try (InputStream dekIdInputStream = delegatedBlobContainer.readBlob(blobName, 0L, DEK_ID_LENGTH)) {
+                final byte[] dekIdBytes = new byte[DEK_ID_LENGTH];
+                final int bytesRead = Streams.readFully(dekIdInputStream, dekIdBytes);
+                if (bytesRead != DEK_ID_LENGTH) {
+                    throw new RepositoryException(repositoryName, "The encrypted blob [" + blobName + "] is too small [" + bytesRead + "]");
+                }
+                // might open a connection to read and decrypt the DEK, but most likely it will be served from cache
+                dek = getDEKById.apply(new String(dekIdBytes, StandardCharsets.UTF_8));
+            }
+            final long encryptedPacketLength = PACKET_LENGTH_IN_BYTES + GCM_IV_LENGTH_IN_BYTES + GCM_TAG_LENGTH_IN_BYTES;
+            final long firstPacket = position / PACKET_LENGTH_IN_BYTES;
+            final long lastPacket = (position + Math.max(length, 1L) - 1L) / PACKET_LENGTH_IN_BYTES;
+            final long packetCount = lastPacket - firstPacket + 1L;
+            final InputStream encryptedDataInputStream = delegatedBlobContainer.readBlob(
+                blobName,
+                DEK_ID_LENGTH + firstPacket * encryptedPacketLength,
+                packetCount * encryptedPacketLength
+            );
+            try {
+                final InputStream decryptedInputStream = new DecryptionPacketsInputStream(
+                    encryptedDataInputStream,
+                    dek,
+                    PACKET_LENGTH_IN_BYTES,
+                    firstPacket,
+                    packetCount
+                );
+                // skip the decrypted bytes of the first packet that come before the range
+                long toSkip = position - firstPacket * PACKET_LENGTH_IN_BYTES;
+                while (toSkip > 0L) {
+                    final long skipped = decryptedInputStream.skip(toSkip);
+                    if (skipped <= 0L) {
+                        throw new EOFException("position [" + position + "] is past the end of the blob [" + blobName + "]");
+                    }
+                    toSkip -= skipped;
+                }
+                return Streams.limitStream(decryptedInputStream, length);
+            } catch (Exception e) {
+                try {
+                    encryptedDataInputStream.close();
+                } catch (IOException closeEx) {
+                    e.addSuppressed(closeEx);
+                }
+                throw e;
+            }
         }
 
         /**
@@ -646,11 +707,13 @@ public class EncryptedRepository extends BlobStoreRepository {
             throws IOException {
             return ChainingInputStream.chain(
                 dekIdBytes.streamInput(),
-                new EncryptionPacketsInputStream(
+                new ParallelEncryptionPacketsInputStream(
                     inputStream,
                     singleUseNonceAndDEK.getKey(),
                     singleUseNonceAndDEK.getNonce(),
-                    PACKET_LENGTH_IN_BYTES
+                    PACKET_LENGTH_IN_BYTES,
+                    PACKETS_PER_ENCRYPTION_BATCH,
+                    threadPool.executor(EncryptedRepositoryPlugin.ENCRYPTION_THREAD_POOL_NAME)
                 )
             );
         }
@@ -17,8 +17,11 @@ import org.elasticsearch.common.Strings;
 import org.elasticsearch.common.settings.SecureSetting;
 import org.elasticsearch.common.settings.SecureString;
 import org.elasticsearch.common.settings.Setting;
+import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.util.BigArrays;
+import org.elasticsearch.common.util.concurrent.EsExecutors;
 import org.elasticsearch.common.xcontent.NamedXContentRegistry;
+import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.env.Environment;
 import org.elasticsearch.indices.recovery.RecoverySettings;
 import org.elasticsearch.license.LicenseUtils;
@@ -27,6 +30,8 @@ import org.elasticsearch.plugins.Plugin;
 import org.elasticsearch.plugins.RepositoryPlugin;
 import org.elasticsearch.repositories.Repository;
 import org.elasticsearch.repositories.blobstore.BlobStoreRepository;
+import org.elasticsearch.threadpool.ExecutorBuilder;
+import org.elasticsearch.threadpool.ScalingExecutorBuilder;
 import org.elasticsearch.xpack.core.XPackPlugin;
 
 import java.security.GeneralSecurityException;
@@ -70,6 +75,7 @@ public class EncryptedRepositoryPlugin extends Plugin implements RepositoryPlugi
     );
     static final Setting<String> DELEGATE_TYPE_SETTING = Setting.simpleString("delegate_type", "");
     static final Setting<String> PASSWORD_NAME_SETTING = Setting.simpleString("password_name", "");
+    static final String ENCRYPTION_THREAD_POOL_NAME = "repository_encryption";
 
     // "protected" because it is overloaded for tests
     protected XPackLicenseState getLicenseState() {
@@ -81,6 +87,13 @@ public class EncryptedRepositoryPlugin extends Plugin implements RepositoryPlugi
         return List.of(ENCRYPTION_PASSWORD_SETTING);
     }
 
+    @Override
+    public List<ExecutorBuilder<?>> getExecutorBuilders(Settings settings) {
+        // encryption is CPU bound, the threads help the writing threads encrypt the packets of the blobs being written
+        final int maxThreads = EsExecutors.allocatedProcessors(settings);
+        return List.of(new ScalingExecutorBuilder(ENCRYPTION_THREAD_POOL_NAME, 0, maxThreads, TimeValue.timeValueSeconds(30L)));
+    }
+
     // public for testing
     // Checks if the plugin is currently disabled because we're running a release build or the feature flag is turned off
     public static boolean isDisabled() {
@@ -0,0 +1,309 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.repositories.encrypted;
+
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.security.GeneralSecurityException;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+
+/**
+ * A {@code ParallelEncryptionPacketsInputStream} wraps another input stream and encrypts its contents in the exact same format as the
+ * {@link EncryptionPacketsInputStream}, so that the result is decrypted by the {@link DecryptionPacketsInputStream}. Since every packet is
+ * encrypted with its own {@link Cipher}, packets are encrypted independently of each other: this stream reads the plaintext of a batch
+ * of consecutive packets from the wrapped stream and encrypts the packets of the batch concurrently, on the calling thread and on the
+ * threads of the given {@link Executor}. The calling thread encrypts every packet that no other thread picked up, so a busy executor
+ * only makes the encryption sequential again but never makes it wait. The encrypted batch is buffered in memory, which bounds the memory
+ * use to about twice the batch size.
+ * <p>
+ * This input stream supports the {@code mark} and {@code reset} operations, but only if the wrapped stream supports them as well. A
+ * {@code mark} call keeps the current encrypted batch in memory and marks the wrapped stream on the next batch boundary. Upon a
+ * {@code reset} call, the kept batch is replayed and new batches are encrypted starting from the marked batch boundary of the wrapped
+ * stream.
+ * <p>
+ * This is NOT thread-safe, multiple threads sharing a single instance must synchronize access.
+ *
+ * @see EncryptionPacketsInputStream
+ */
+public final class ParallelEncryptionPacketsInputStream extends InputStream {
+
+    private final InputStream source;
+    private final SecretKey secretKey;
+    private final int nonce;
+    private final int packetLength;
+    private final int encryptedPacketLength;
+    private final int packetsPerBatch;
+    private final Executor executor;
+
+    // plaintext of the packets of the batch being encrypted
+    private final byte[] plaintext;
+    private final int[] plaintextLengths;
+
+    // counter of the next packet read from the source stream
+    private long counter;
+    // whether the source stream was read up to its end, i.e. the last (shorter) packet was read
+    private boolean lastPacketRead;
+
+    // the current encrypted batch
+    private byte[] batch;
+    private int batchLength;
+    private int batchPosition;
+
+    // the state of the stream at the time of the last mark
+    private boolean marked;
+    private byte[] markBatch;
+    private int markBatchLength;
+    private int markBatchPosition;
+    // the read limit to mark the source stream with on the next batch boundary, or -1 if the source stream is marked already
+    private int markSourceOnNextBatch;
+    private long markCounter;
+
+    private boolean closed;
+
+    /**
+     * @param source          the stream to encrypt
+     * @param secretKey       the key to encrypt the packets with
+     * @param nonce           the nonce of the packet IVs, which must not be reused for other streams with the same key
+     * @param packetLength    the length of the plaintext packets
+     * @param packetsPerBatch the number of packets encrypted concurrently
+     * @param executor        the executor on which to encrypt the packets other than the ones the calling thread encrypts
+     */
+    public ParallelEncryptionPacketsInputStream(
+        InputStream source,
+        SecretKey secretKey,
+        int nonce,
+        int packetLength,
+        int packetsPerBatch,
+        Executor executor
+    ) {
+        this.source = Objects.requireNonNull(source);
+        this.secretKey = Objects.requireNonNull(secretKey);
+        this.executor = Objects.requireNonNull(executor);
+        if (packetLength <= 0 || packetLength >= EncryptedRepository.MAX_PACKET_LENGTH_IN_BYTES) {
+            throw new IllegalArgumentException("Invalid packet length [" + packetLength + "]");
+        }
+        if (packetsPerBatch <= 0 || (long) packetsPerBatch * packetLength > EncryptedRepository.MAX_PACKET_LENGTH_IN_BYTES) {
+            throw new IllegalArgumentException("Invalid number of packets per batch [" + packetsPerBatch + "]");
+        }
+        this.nonce = nonce;
+        this.packetLength = packetLength;
+        this.encryptedPacketLength = packetLength + EncryptedRepository.GCM_IV_LENGTH_IN_BYTES
+            + EncryptedRepository.GCM_TAG_LENGTH_IN_BYTES;
+        this.packetsPerBatch = packetsPerBatch;
+        this.plaintext = new byte[packetsPerBatch * packetLength];
+        this.plaintextLengths = new int[packetsPerBatch];
+        this.counter = EncryptedRepository.PACKET_START_COUNTER;
+        this.markSourceOnNextBatch = -1;
+    }
+
+    @Override
+    public int read() throws IOException {
+        ensureOpen();
+        if (ensureBatch() == false) {
+            return -1;
+        }
+        return batch[batchPosition++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (len == 0) {
+            return 0;
+        }
+        if (ensureBatch() == false) {
+            return -1;
+        }
+        final int bytesRead = Math.min(len, batchLength - batchPosition);
+        System.arraycopy(batch, batchPosition, b, off, bytesRead);
+        batchPosition += bytesRead;
+        return bytesRead;
+    }
+
+    @Override
+    public int available() throws IOException {
+        ensureOpen();
+        return batch == null ? 0 : batchLength - batchPosition;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return source.markSupported();
+    }
+
+    @Override
+    public void mark(int readlimit) {
+        if (markSupported()) {
+            if (readlimit <= 0) {
+                throw new IllegalArgumentException("Mark readlimit must be a positive integer");
+            }
+            marked = true;
+            markBatch = batch;
+            markBatchLength = batchLength;
+            markBatchPosition = batchPosition;
+            // the source is marked when the next batch is read, since it is read past the current batch already
+            markSourceOnNextBatch = readlimit;
+        }
+    }
+
+    @Override
+    public void reset() throws IOException {
+        ensureOpen();
+        if (false == markSupported()) {
+            throw new IOException("Mark/reset not supported");
+        }
+        if (false == marked) {
+            throw new IOException("Mark not set");
+        }
+        if (markSourceOnNextBatch == -1) {
+            // batches were read past the marked one, read them again from the marked source
+            source.reset();
+            counter = markCounter;
+            lastPacketRead = false;
+        }
+        batch = markBatch;
+        batchLength = markBatchLength;
+        batchPosition = markBatchPosition;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (false == closed) {
+            closed = true;
+            source.close();
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("Stream has been closed");
+        }
+    }
+
+    /**
+     * Makes sure that there are bytes left to read in the current batch, encrypting the next batch if necessary.
+     *
+     * @return {@code false} if the end of the encrypted stream has been reached
+     */
+    private boolean ensureBatch() throws IOException {
+        while (batch == null || batchPosition == batchLength) {
+            if (lastPacketRead) {
+                return false;
+            }
+            encryptNextBatch();
+        }
+        return true;
+    }
+
+    private void encryptNextBatch() throws IOException {
+        if (markSourceOnNextBatch != -1) {
+            source.mark(markSourceOnNextBatch);
+            markSourceOnNextBatch = -1;
+            markCounter = counter;
+        }
+        int packets = 0;
+        while (packets < packetsPerBatch && lastPacketRead == false) {
+            final int length = source.readNBytes(plaintext, packets * packetLength, packetLength);
+            plaintextLengths[packets++] = length;
+            // only the last packet is shorter than the packet length, and it can be empty
+            lastPacketRead = length < packetLength;
+        }
+        if (batch == null || batch == markBatch) {
+            // do not overwrite the batch kept for a reset
+            batch = new byte[packetsPerBatch * encryptedPacketLength];
+        }
+        final long firstCounter = counter;
+        for (int i = 0; i < packets; i++) {
+            counter++;
+            // counter wrap around
+            if (counter == EncryptedRepository.PACKET_START_COUNTER) {
+                throw new IOException("Maximum packet count limit exceeded");
+            }
+        }
+        encryptPackets(batch, firstCounter, packets);
+        // all packets but the last one of the batch are complete
+        batchLength = packets * encryptedPacketLength - packetLength + plaintextLengths[packets - 1];
+        batchPosition = 0;
+    }
+
+    private void encryptPackets(byte[] target, long firstCounter, int packets) throws IOException {
+        final AtomicInteger nextPacket = new AtomicInteger();
+        final CountDownLatch encryptedPackets = new CountDownLatch(packets);
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        final Runnable encryptor = () -> {
+            int packet;
+            while ((packet = nextPacket.getAndIncrement()) < packets) {
+                try {
+                    encryptPacket(target, firstCounter, packet);
+                } catch (Exception e) {
+                    if (failure.compareAndSet(null, e) == false) {
+                        failure.get().addSuppressed(e);
+                    }
+                } finally {
+                    encryptedPackets.countDown();
+                }
+            }
+        };
+        for (int i = 1; i < packets; i++) {
+            try {
+                executor.execute(encryptor);
+            } catch (EsRejectedExecutionException e) {
+                // the calling thread encrypts the packets left over
+                break;
+            }
+        }
+        encryptor.run();
+        try {
+            encryptedPackets.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while encrypting packets", e);
+        }
+        final Exception e = failure.get();
+        if (e != null) {
+            throw new IOException("Exception during packet encryption", e);
+        }
+    }
+
+    private void encryptPacket(byte[] target, long firstCounter, int packet) throws GeneralSecurityException {
+        final int targetOffset = packet * encryptedPacketLength;
+        // the nonce takes up the first 4 bytes of the packet IV and the counter the last 8 bytes
+        final ByteBuffer packetIv = ByteBuffer.wrap(target, targetOffset, EncryptedRepository.GCM_IV_LENGTH_IN_BYTES)
+            .order(ByteOrder.LITTLE_ENDIAN);
+        packetIv.putInt(targetOffset, nonce);
+        packetIv.putLong(targetOffset + Integer.BYTES, firstCounter + packet);
+        final GCMParameterSpec gcmParameterSpec = new GCMParameterSpec(
+            EncryptedRepository.GCM_TAG_LENGTH_IN_BYTES * Byte.SIZE,
+            target,
+            targetOffset,
+            EncryptedRepository.GCM_IV_LENGTH_IN_BYTES
+        );
+        final Cipher packetCipher = Cipher.getInstance(EncryptedRepository.DATA_ENCRYPTION_SCHEME);
+        packetCipher.init(Cipher.ENCRYPT_MODE, secretKey, gcmParameterSpec);
+        packetCipher.doFinal(
+            plaintext,
+            packet * packetLength,
+            plaintextLengths[packet],
+            target,
+            targetOffset + EncryptedRepository.GCM_IV_LENGTH_IN_BYTES
+        );
+    }
+}
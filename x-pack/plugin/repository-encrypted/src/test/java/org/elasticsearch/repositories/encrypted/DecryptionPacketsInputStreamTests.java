@@ -56,6 +56,62 @@ public class DecryptionPacketsInputStreamTests extends ESTestCase {
         }
     }
 
+    public void testSuccessDecryptPacketRange() throws Exception {
+        int packetLen = 1 + Randomness.get().nextInt(256);
+        int len = Randomness.get().nextInt(packetLen * 16);
+        byte[] plainBytes = new byte[len];
+        Randomness.get().nextBytes(plainBytes);
+        SecretKey secretKey = generateSecretKey();
+        byte[] encryptedBytes;
+        try (
+            InputStream in = new EncryptionPacketsInputStream(
+                new ByteArrayInputStream(plainBytes),
+                secretKey,
+                Randomness.get().nextInt(),
+                packetLen
+            )
+        ) {
+            encryptedBytes = in.readAllBytes();
+        }
+        int encryptedPacketLen = packetLen + EncryptedRepository.GCM_IV_LENGTH_IN_BYTES + EncryptedRepository.GCM_TAG_LENGTH_IN_BYTES;
+        // there is always a last packet, which is shorter than the others and possibly empty
+        int packets = len / packetLen + 1;
+        int firstPacket = Randomness.get().nextInt(packets);
+        int packetCount = 1 + Randomness.get().nextInt(packets - firstPacket);
+        int encryptedOffset = firstPacket * encryptedPacketLen;
+        int encryptedLength = Math.min(packetCount * encryptedPacketLen, encryptedBytes.length - encryptedOffset);
+        byte[] decryptedBytes;
+        try (
+            InputStream in = new DecryptionPacketsInputStream(
+                new ReadLessFilterInputStream(new ByteArrayInputStream(encryptedBytes, encryptedOffset, encryptedLength)),
+                secretKey,
+                packetLen,
+                firstPacket,
+                packetCount
+            )
+        ) {
+            decryptedBytes = in.readAllBytes();
+        }
+        int plainOffset = firstPacket * packetLen;
+        int plainLength = Math.min(packetCount * packetLen, len - plainOffset);
+        assertArrayEquals(Arrays.copyOfRange(plainBytes, plainOffset, plainOffset + plainLength), decryptedBytes);
+        if (firstPacket > 0) {
+            // packets decrypted at the wrong position fail the counter validation
+            try (
+                InputStream in = new DecryptionPacketsInputStream(
+                    new ByteArrayInputStream(encryptedBytes, encryptedOffset, encryptedLength),
+                    secretKey,
+                    packetLen,
+                    firstPacket - 1,
+                    packetCount
+                )
+            ) {
+                IOException e = expectThrows(IOException.class, in::readAllBytes);
+                assertThat(e.getMessage(), Matchers.startsWith("Packet counter mismatch."));
+            }
+        }
+    }
+
     public void testFailureEncryptAndDecryptWrongKey() throws Exception {
         int len = 256 + Randomness.get().nextInt(256);
         // 2-3 packets
@@ -0,0 +1,195 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.repositories.encrypted;
+
+import org.elasticsearch.common.Randomness;
+import org.elasticsearch.common.util.concurrent.EsRejectedExecutionException;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.threadpool.TestThreadPool;
+import org.elasticsearch.threadpool.ThreadPool;
+import org.hamcrest.Matchers;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+
+public class ParallelEncryptionPacketsInputStreamTests extends ESTestCase {
+
+    private static ThreadPool threadPool;
+    private static SecretKey secretKey;
+
+    @BeforeClass
+    public static void createThreadPoolAndSecretKey() throws Exception {
+        threadPool = new TestThreadPool(ParallelEncryptionPacketsInputStreamTests.class.getName());
+        KeyGenerator keyGen = KeyGenerator.getInstance("AES");
+        keyGen.init(256, new SecureRandom());
+        secretKey = keyGen.generateKey();
+    }
+
+    @AfterClass
+    public static void terminateThreadPool() {
+        ThreadPool.terminate(threadPool, 10L, TimeUnit.SECONDS);
+        threadPool = null;
+    }
+
+    public void testSameCiphertextAsEncryptionPacketsInputStream() throws Exception {
+        int packetSize = 1 + Randomness.get().nextInt(2048);
+        int packetsPerBatch = 1 + Randomness.get().nextInt(32);
+        int size = randomFrom(0, packetSize, packetSize * packetsPerBatch, Randomness.get().nextInt(packetSize * packetsPerBatch * 4));
+        byte[] plaintext = new byte[size];
+        Randomness.get().nextBytes(plaintext);
+        int nonce = Randomness.get().nextInt();
+        byte[] referenceCiphertext = referenceCiphertext(plaintext, nonce, packetSize);
+        try (
+            InputStream in = new ParallelEncryptionPacketsInputStream(
+                new ReadLessFilterInputStream(new ByteArrayInputStream(plaintext)),
+                secretKey,
+                nonce,
+                packetSize,
+                packetsPerBatch,
+                randomExecutor()
+            )
+        ) {
+            byte[] ciphertext = randomBoolean() ? in.readAllBytes() : readInRandomChunks(in);
+            assertArrayEquals(referenceCiphertext, ciphertext);
+            assertThat(in.read(), Matchers.is(-1));
+        }
+        try (
+            InputStream in = new DecryptionPacketsInputStream(new ByteArrayInputStream(referenceCiphertext), secretKey, packetSize)
+        ) {
+            assertArrayEquals(plaintext, in.readAllBytes());
+        }
+    }
+
+    public void testMarkAndReset() throws Exception {
+        int packetSize = 1 + Randomness.get().nextInt(512);
+        int packetsPerBatch = 1 + Randomness.get().nextInt(8);
+        int size = Randomness.get().nextInt(packetSize * packetsPerBatch * 4);
+        byte[] plaintext = new byte[size];
+        Randomness.get().nextBytes(plaintext);
+        int nonce = Randomness.get().nextInt();
+        byte[] referenceCiphertext = referenceCiphertext(plaintext, nonce, packetSize);
+        try (
+            InputStream in = new ParallelEncryptionPacketsInputStream(
+                new ByteArrayInputStream(plaintext),
+                secretKey,
+                nonce,
+                packetSize,
+                packetsPerBatch,
+                randomExecutor()
+            )
+        ) {
+            assertTrue(in.markSupported());
+            int position = 0;
+            for (int i = 0; i < 8; i++) {
+                int markPosition = position;
+                in.mark(Integer.MAX_VALUE);
+                int beyondMark = Randomness.get().nextInt(referenceCiphertext.length - markPosition + 1);
+                byte[] read = in.readNBytes(beyondMark);
+                assertArrayEquals(Arrays.copyOfRange(referenceCiphertext, markPosition, markPosition + beyondMark), read);
+                if (randomBoolean()) {
+                    in.reset();
+                    position = markPosition;
+                } else {
+                    position = markPosition + beyondMark;
+                }
+                int next = Randomness.get().nextInt(referenceCiphertext.length - position + 1);
+                read = in.readNBytes(next);
+                assertArrayEquals(Arrays.copyOfRange(referenceCiphertext, position, position + next), read);
+                position += next;
+            }
+            assertArrayEquals(Arrays.copyOfRange(referenceCiphertext, position, referenceCiphertext.length), in.readAllBytes());
+        }
+    }
+
+    public void testMarkAndResetNotSupported() throws Exception {
+        try (
+            InputStream in = new ParallelEncryptionPacketsInputStream(
+                new FilterInputStream(new ByteArrayInputStream(new byte[randomIntBetween(0, 64)])) {
+                    @Override
+                    public boolean markSupported() {
+                        return false;
+                    }
+                },
+                secretKey,
+                Randomness.get().nextInt(),
+                1 + Randomness.get().nextInt(16),
+                1 + Randomness.get().nextInt(4),
+                randomExecutor()
+            )
+        ) {
+            assertFalse(in.markSupported());
+            in.mark(Integer.MAX_VALUE);
+            IOException e = expectThrows(IOException.class, in::reset);
+            assertThat(e.getMessage(), Matchers.is("Mark/reset not supported"));
+        }
+    }
+
+    private static byte[] referenceCiphertext(byte[] plaintext, int nonce, int packetSize) throws IOException {
+        try (InputStream in = new EncryptionPacketsInputStream(new ByteArrayInputStream(plaintext), secretKey, nonce, packetSize)) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static byte[] readInRandomChunks(InputStream in) throws IOException {
+        byte[] buffer = new byte[1 << 16];
+        int length = 0;
+        while (true) {
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            if (randomBoolean()) {
+                int b = in.read();
+                if (b == -1) {
+                    break;
+                }
+                buffer[length++] = (byte) b;
+            } else {
+                int read = in.read(buffer, length, randomIntBetween(1, buffer.length - length));
+                if (read == -1) {
+                    break;
+                }
+                length += read;
+            }
+        }
+        return Arrays.copyOf(buffer, length);
+    }
+
+    private static Executor randomExecutor() {
+        return ESTestCase.<Executor>randomFrom(threadPool.generic(), Runnable::run, command -> {
+            // the calling thread encrypts all packets of the batch
+            throw new EsRejectedExecutionException("rejected", true);
+        });
+    }
+
+    // input stream that reads less bytes than asked to, testing that batches of packets are read completely
+    private static class ReadLessFilterInputStream extends FilterInputStream {
+
+        protected ReadLessFilterInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            return super.read(b, off, randomIntBetween(1, len));
+        }
+    }
+}
@@ -30,6 +30,7 @@ import org.elasticsearch.common.util.CollectionUtils;
 import org.elasticsearch.common.xcontent.XContentBuilder;
 import org.elasticsearch.common.xcontent.XContentFactory;
 import org.elasticsearch.index.IndexNotFoundException;
+import org.elasticsearch.index.query.QueryBuilders;
 import org.elasticsearch.index.shard.IndexingStats;
 import org.elasticsearch.plugins.ClusterPlugin;
 import org.elasticsearch.plugins.Plugin;
@@ -318,6 +319,72 @@ public class SearchableSnapshotsBlobStoreCacheIntegTests extends BaseFrozenSearc
         // TODO also test when prewarming is enabled
     }
 
+    public void testRecordedRangesAreReadFromBlobStoreCache() throws Exception {
+        final String indexName = randomAlphaOfLength(10).toLowerCase(Locale.ROOT);
+        createIndex(indexName);
+
+        final List<IndexRequestBuilder> indexRequestBuilders = new ArrayList<>();
+        for (int i = scaledRandomIntBetween(100, 5_000); i > 0; i--) {
+            XContentBuilder builder = XContentFactory.smileBuilder();
+            builder.startObject().field("text", randomRealisticUnicodeOfCodepointLengthBetween(5, 50)).field("num", i).endObject();
+            indexRequestBuilders.add(client().prepareIndex(indexName).setSource(builder));
+        }
+        indexRandom(true, true, true, indexRequestBuilders);
+        final int numberOfDocs = indexRequestBuilders.size();
+
+        final String repositoryName = randomAlphaOfLength(10).toLowerCase(Locale.ROOT);
+        createRepository(repositoryName, "fs", randomRepoPath());
+        final SnapshotId snapshot = createSnapshot(repositoryName, "test-snapshot", List.of(indexName)).snapshotId();
+        assertAcked(client().admin().indices().prepareDelete(indexName));
+
+        final Storage storage = randomFrom(Storage.values());
+        final Settings mountSettings = Settings.builder()
+            .put(SearchableSnapshots.SNAPSHOT_CACHE_ENABLED_SETTING.getKey(), true)
+            .put(SearchableSnapshots.SNAPSHOT_CACHE_PREWARM_ENABLED_SETTING.getKey(), false)
+            .put(SearchableSnapshots.SNAPSHOT_READ_AHEAD_MAX_SIZE_SETTING.getKey(), ByteSizeValue.ZERO)
+            .put(SearchableSnapshots.SNAPSHOT_BLOB_CACHE_METADATA_FILES_MAX_LENGTH, blobCacheMaxLength)
+            .put(SearchableSnapshots.SNAPSHOT_BLOB_CACHE_RECORDED_RANGES_MAX_LENGTH_SETTING.getKey(), ByteSizeValue.ofMb(10))
+            .build();
+
+        logger.info("--> mount snapshot [{}] for the first time and record the ranges read by a search [storage={}]", snapshot, storage);
+        final String restoredIndex = randomAlphaOfLength(10).toLowerCase(Locale.ROOT);
+        mountSnapshot(repositoryName, snapshot.getName(), indexName, restoredIndex, mountSettings, storage);
+        ensureGreen(restoredIndex);
+        assertHitCount(client().prepareSearch(restoredIndex).setSize(10).setTrackTotalHits(true).get(), numberOfDocs);
+
+        logger.info("--> waiting for the recorded ranges to be stored in system index [{}]", SNAPSHOT_BLOB_CACHE_INDEX);
+        assertBusy(() -> {
+            refreshSystemIndex();
+            assertHitCount(
+                systemClient().prepareSearch(SNAPSHOT_BLOB_CACHE_INDEX)
+                    .setQuery(QueryBuilders.termQuery("blob.name", RecordedBlobCacheRanges.BLOB_NAME))
+                    .setSize(0)
+                    .get(),
+                1L
+            );
+            final IndexingStats indexingStats = systemClient().admin()
+                .indices()
+                .prepareStats(SNAPSHOT_BLOB_CACHE_INDEX)
+                .clear()
+                .setIndexing(true)
+                .get()
+                .getTotal()
+                .getIndexing();
+            assertThat(indexingStats.getTotal().getIndexCurrent(), equalTo(0L));
+        });
+        refreshSystemIndex();
+        assertAcked(client().admin().indices().prepareDelete(restoredIndex));
+
+        logger.info("--> mount snapshot [{}] for the second time and run the same search", snapshot);
+        final String restoredAgainIndex = randomAlphaOfLength(10).toLowerCase(Locale.ROOT);
+        mountSnapshot(repositoryName, snapshot.getName(), indexName, restoredAgainIndex, mountSettings, storage);
+        ensureGreen(restoredAgainIndex);
+        assertHitCount(client().prepareSearch(restoredAgainIndex).setSize(10).setTrackTotalHits(true).get(), numberOfDocs);
+
+        logger.info("--> verifying the shards of [{}] were opened and searched without reading from the blob store", restoredAgainIndex);
+        checkNoBlobStoreAccess();
+    }
+
     private void checkNoBlobStoreAccess() {
         for (final SearchableSnapshotShardStats shardStats : client().execute(
             SearchableSnapshotsStatsAction.INSTANCE,
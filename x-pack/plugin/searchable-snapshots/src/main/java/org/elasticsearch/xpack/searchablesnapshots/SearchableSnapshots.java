@@ -109,6 +109,7 @@ import org.elasticsearch.xpack.searchablesnapshots.rest.RestClearSearchableSnaps
 import org.elasticsearch.xpack.searchablesnapshots.rest.RestMountSearchableSnapshotAction;
 import org.elasticsearch.xpack.searchablesnapshots.rest.RestSearchableSnapshotsNodeCachesStatsAction;
 import org.elasticsearch.xpack.searchablesnapshots.rest.RestSearchableSnapshotsStatsAction;
+import org.elasticsearch.xpack.searchablesnapshots.store.BlobCacheRangesRecordingListener;
 import org.elasticsearch.xpack.searchablesnapshots.store.SearchableSnapshotDirectory;
 import org.elasticsearch.xpack.searchablesnapshots.upgrade.SearchableSnapshotIndexMetadataUpgrader;
 
@@ -208,6 +209,16 @@ public class SearchableSnapshots extends Plugin implements IndexStorePlugin, Eng
         Setting.Property.NodeScope,
         Setting.Property.NotCopyableOnResize
     );
+    // The maximum number of bytes fetched ahead of sequential reads of a file, zero disables read-ahead
+    public static final Setting<ByteSizeValue> SNAPSHOT_READ_AHEAD_MAX_SIZE_SETTING = Setting.byteSizeSetting(
+        "index.store.snapshot.read_ahead.max_size",
+        new ByteSizeValue(64L, ByteSizeUnit.MB),
+        ByteSizeValue.ZERO,
+        new ByteSizeValue(Long.MAX_VALUE),
+        Setting.Property.IndexScope,
+        Setting.Property.NodeScope,
+        Setting.Property.NotCopyableOnResize
+    );
     public static final String SNAPSHOT_BLOB_CACHE_METADATA_FILES_MAX_LENGTH = "index.store.snapshot.blob_cache.metadata_files.max_length";
     public static final Setting<ByteSizeValue> SNAPSHOT_BLOB_CACHE_METADATA_FILES_MAX_LENGTH_SETTING = new Setting<>(
         new Setting.SimpleKey(SNAPSHOT_BLOB_CACHE_METADATA_FILES_MAX_LENGTH),
@@ -233,6 +244,17 @@ public class SearchableSnapshots extends Plugin implements IndexStorePlugin, Eng
         Setting.Property.IndexScope,
         Setting.Property.NotCopyableOnResize
     );
+    // The maximum number of bytes of the ranges read during the opening and the first search of a shard that are stored in the blob
+    // store cache index on top of the headers and footers of the files, zero disables the recording of read ranges. All the recorded
+    // bytes are stored in the blob store cache index and read back by every later mount of the shard snapshot, hence the 64mb maximum.
+    public static final Setting<ByteSizeValue> SNAPSHOT_BLOB_CACHE_RECORDED_RANGES_MAX_LENGTH_SETTING = Setting.byteSizeSetting(
+        "index.store.snapshot.blob_cache.recorded_ranges.max_length",
+        ByteSizeValue.ZERO,
+        ByteSizeValue.ZERO,
+        new ByteSizeValue(64L, ByteSizeUnit.MB),
+        Setting.Property.IndexScope,
+        Setting.Property.NotCopyableOnResize
+    );
 
     /**
      * Prefer to allocate to the data content tier and then the hot tier.
@@ -283,8 +305,10 @@ public class SearchableSnapshots extends Plugin implements IndexStorePlugin, Eng
             SNAPSHOT_CACHE_PREWARM_ENABLED_SETTING,
             SNAPSHOT_CACHE_EXCLUDED_FILE_TYPES_SETTING,
             SNAPSHOT_UNCACHED_CHUNK_SIZE_SETTING,
+            SNAPSHOT_READ_AHEAD_MAX_SIZE_SETTING,
             SearchableSnapshotsConstants.SNAPSHOT_PARTIAL_SETTING,
             SNAPSHOT_BLOB_CACHE_METADATA_FILES_MAX_LENGTH_SETTING,
+            SNAPSHOT_BLOB_CACHE_RECORDED_RANGES_MAX_LENGTH_SETTING,
             CacheService.SNAPSHOT_CACHE_RANGE_SIZE_SETTING,
             CacheService.SNAPSHOT_CACHE_RECOVERY_RANGE_SIZE_SETTING,
             CacheService.SNAPSHOT_CACHE_SYNC_INTERVAL_SETTING,
@@ -298,7 +322,9 @@ public class SearchableSnapshots extends Plugin implements IndexStorePlugin, Eng
             FrozenCacheService.FROZEN_CACHE_RECOVERY_RANGE_SIZE_SETTING,
             FrozenCacheService.SNAPSHOT_CACHE_MAX_FREQ_SETTING,
             FrozenCacheService.SNAPSHOT_CACHE_DECAY_INTERVAL_SETTING,
-            FrozenCacheService.SNAPSHOT_CACHE_MIN_TIME_DELTA_SETTING
+            FrozenCacheService.SNAPSHOT_CACHE_MIN_TIME_DELTA_SETTING,
+            FrozenCacheService.SNAPSHOT_CACHE_PERSISTENT_SETTING,
+            FrozenCacheService.SNAPSHOT_CACHE_EVICTION_POLICY_SETTING
         );
     }
 
@@ -354,6 +380,9 @@ public class SearchableSnapshots extends Plugin implements IndexStorePlugin, Eng
                 new SearchableSnapshotIndexEventListener(settings, cacheService.get(), frozenCacheService.get())
             );
             indexModule.addIndexEventListener(failShardsListener.get());
+            if (SNAPSHOT_BLOB_CACHE_RECORDED_RANGES_MAX_LENGTH_SETTING.get(indexModule.getSettings()).getBytes() > 0L) {
+                indexModule.addSearchOperationListener(new BlobCacheRangesRecordingListener());
+            }
 
             indexModule.addSettingsUpdateConsumer(IndexMetadata.INDEX_BLOCKS_WRITE_SETTING, s -> {}, write -> {
                 if (write == false) {
@@ -542,6 +571,7 @@ public class SearchableSnapshots extends Plugin implements IndexStorePlugin, Eng
                 0,
                 Math.min(processors * 3, 50),
                 TimeValue.timeValueSeconds(30L),
+                true,
                 CACHE_FETCH_ASYNC_THREAD_POOL_SETTING
             ),
             new ScalingExecutorBuilder(
@@ -549,6 +579,7 @@ public class SearchableSnapshots extends Plugin implements IndexStorePlugin, Eng
                 0,
                 16,
                 TimeValue.timeValueSeconds(30L),
+                true,
                 CACHE_PREWARMING_THREAD_POOL_SETTING
             ) };
     }
@@ -119,6 +119,7 @@ public class TransportSearchableSnapshotsStatsAction extends AbstractTransportSe
             toTimedCounter(inputStats.getOptimizedBytesRead()),
             toCounter(inputStats.getBlobStoreBytesRequested()),
             toCounter(inputStats.getLuceneBytesRead()),
+            toCounter(inputStats.getReadAheadBytesRequested()),
             inputStats.getCurrentIndexCacheFills()
         );
     }
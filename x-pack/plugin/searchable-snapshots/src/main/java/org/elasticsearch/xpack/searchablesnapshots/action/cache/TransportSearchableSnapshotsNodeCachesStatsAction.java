@@ -6,6 +6,7 @@
  */
 package org.elasticsearch.xpack.searchablesnapshots.action.cache;
 
+import org.elasticsearch.Version;
 import org.elasticsearch.action.ActionType;
 import org.elasticsearch.action.FailedNodeException;
 import org.elasticsearch.action.support.ActionFilters;
@@ -134,7 +135,11 @@ public class TransportSearchableSnapshotsNodeCachesStatsAction extends Transport
             frozenCacheStats.getWriteBytes(),
             frozenCacheStats.getReadCount(),
             frozenCacheStats.getReadBytes(),
-            frozenCacheStats.getEvictCount()
+            frozenCacheStats.getCapacityEvictCount(),
+            frozenCacheStats.getExplicitEvictCount(),
+            frozenCacheStats.getHitCount(),
+            frozenCacheStats.getMissCount(),
+            frozenCacheStats.getRejectCount()
         );
     }
 
@@ -177,7 +182,11 @@ public class TransportSearchableSnapshotsNodeCachesStatsAction extends Transport
         private final long bytesWritten;
         private final long reads;
         private final long bytesRead;
-        private final long evictions;
+        private final long capacityEvictions;
+        private final long explicitEvictions;
+        private final long hits;
+        private final long misses;
+        private final long rejections;
 
         public NodeCachesStatsResponse(
             DiscoveryNode node,
@@ -188,7 +197,11 @@ public class TransportSearchableSnapshotsNodeCachesStatsAction extends Transport
             long bytesWritten,
             long reads,
             long bytesRead,
-            long evictions
+            long capacityEvictions,
+            long explicitEvictions,
+            long hits,
+            long misses,
+            long rejections
         ) {
             super(node);
             this.numRegions = numRegions;
@@ -198,7 +211,11 @@ public class TransportSearchableSnapshotsNodeCachesStatsAction extends Transport
             this.bytesWritten = bytesWritten;
             this.reads = reads;
             this.bytesRead = bytesRead;
-            this.evictions = evictions;
+            this.capacityEvictions = capacityEvictions;
+            this.explicitEvictions = explicitEvictions;
+            this.hits = hits;
+            this.misses = misses;
+            this.rejections = rejections;
         }
 
         public NodeCachesStatsResponse(StreamInput in) throws IOException {
@@ -210,7 +227,20 @@ public class TransportSearchableSnapshotsNodeCachesStatsAction extends Transport
             this.bytesWritten = in.readVLong();
             this.reads = in.readVLong();
             this.bytesRead = in.readVLong();
-            this.evictions = in.readVLong();
+            if (in.getVersion().onOrAfter(Version.V_8_0_0)) {
+                this.capacityEvictions = in.readVLong();
+                this.explicitEvictions = in.readVLong();
+                this.hits = in.readVLong();
+                this.misses = in.readVLong();
+                this.rejections = in.readVLong();
+            } else {
+                // older nodes do not tell the reasons of the evictions apart
+                this.capacityEvictions = in.readVLong();
+                this.explicitEvictions = 0L;
+                this.hits = 0L;
+                this.misses = 0L;
+                this.rejections = 0L;
+            }
         }
 
         @Override
@@ -223,7 +253,15 @@ public class TransportSearchableSnapshotsNodeCachesStatsAction extends Transport
             out.writeVLong(bytesWritten);
             out.writeVLong(reads);
             out.writeVLong(bytesRead);
-            out.writeVLong(evictions);
+            if (out.getVersion().onOrAfter(Version.V_8_0_0)) {
+                out.writeVLong(capacityEvictions);
+                out.writeVLong(explicitEvictions);
+                out.writeVLong(hits);
+                out.writeVLong(misses);
+                out.writeVLong(rejections);
+            } else {
+                out.writeVLong(getEvictions());
+            }
         }
 
         @Override
@@ -236,7 +274,17 @@ public class TransportSearchableSnapshotsNodeCachesStatsAction extends Transport
                     builder.humanReadableField("bytes_read_in_bytes", "bytes_read", ByteSizeValue.ofBytes(bytesRead));
                     builder.field("writes", writes);
                     builder.humanReadableField("bytes_written_in_bytes", "bytes_written", ByteSizeValue.ofBytes(bytesWritten));
-                    builder.field("evictions", evictions);
+                    builder.field("hits", hits);
+                    builder.field("misses", misses);
+                    builder.field("hit_ratio", getHitRatio());
+                    builder.field("admission_rejections", rejections);
+                    builder.field("evictions", getEvictions());
+                    builder.startObject("evictions_by_reason");
+                    {
+                        builder.field("capacity", capacityEvictions);
+                        builder.field("explicit", explicitEvictions);
+                    }
+                    builder.endObject();
                     builder.field("num_regions", numRegions);
                     builder.humanReadableField("size_in_bytes", "size", ByteSizeValue.ofBytes(size));
                     builder.humanReadableField("region_size_in_bytes", "region_size", ByteSizeValue.ofBytes(regionSize));
@@ -276,7 +324,32 @@ public class TransportSearchableSnapshotsNodeCachesStatsAction extends Transport
         }
 
         public long getEvictions() {
-            return evictions;
+            return capacityEvictions + explicitEvictions;
+        }
+
+        public long getCapacityEvictions() {
+            return capacityEvictions;
+        }
+
+        public long getExplicitEvictions() {
+            return explicitEvictions;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        public double getHitRatio() {
+            final long lookups = hits + misses;
+            return lookups == 0L ? 0.0d : (double) hits / lookups;
+        }
+
+        public long getRejections() {
+            return rejections;
         }
     }
 
@@ -0,0 +1,205 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.searchablesnapshots.cache.blob;
+
+import org.elasticsearch.common.bytes.BytesReference;
+import org.elasticsearch.common.io.stream.BytesStreamOutput;
+import org.elasticsearch.common.io.stream.StreamInput;
+import org.elasticsearch.common.io.stream.StreamOutput;
+import org.elasticsearch.common.unit.ByteSizeUnit;
+import org.elasticsearch.xpack.searchablesnapshots.cache.common.ByteRange;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * The ranges of the files of a shard snapshot that were read while the shard was opened and searched for the first time, on top of the
+ * headers and footers of the files. The bytes of the ranges are stored in the blob store cache index like the headers, and the ranges
+ * themselves are stored in the blob store cache index under {@link #BLOB_NAME}, so that later mounts or relocations of the same shard
+ * snapshot can read all these ranges from the blob store cache index instead of the repository.
+ *
+ * Each read is recorded as the smallest range aligned on a fixed range size that covers it, and ranges that overlap or touch are
+ * coalesced so that the bytes of neighbouring ranges are stored in a single document of the blob store cache index. Coalesced ranges are
+ * split on multiples of {@link #MAX_DOCUMENT_LENGTH} when they are stored, so that no document holds more than that many bytes.
+ */
+public final class RecordedBlobCacheRanges {
+
+    /**
+     * The name under which the recorded ranges of a shard snapshot are stored in the blob store cache index. This can not collide with
+     * the name of a Lucene file.
+     */
+    public static final String BLOB_NAME = "__recorded_ranges";
+
+    public static final long DEFAULT_RANGE_SIZE = ByteSizeUnit.KB.toBytes(4L);
+
+    /**
+     * The maximum number of bytes of a single document of the blob store cache index that holds the bytes of recorded ranges.
+     */
+    public static final long MAX_DOCUMENT_LENGTH = ByteSizeUnit.MB.toBytes(1L);
+
+    public static final RecordedBlobCacheRanges EMPTY = new RecordedBlobCacheRanges(DEFAULT_RANGE_SIZE, Map.of());
+
+    private final long rangeSize;
+
+    // the coalesced ranges of each file, from their start to their end. They are only modified under this lock while recording, and never
+    // once read back from the blob store cache index.
+    private final Map<String, NavigableMap<Long, Long>> ranges;
+    private long recordedBytes; // guarded by this, only used when recording
+
+    private RecordedBlobCacheRanges(long rangeSize, Map<String, NavigableMap<Long, Long>> ranges) {
+        if (rangeSize <= 0L) {
+            throw new IllegalArgumentException("range size must be positive but got [" + rangeSize + "]");
+        }
+        this.rangeSize = rangeSize;
+        this.ranges = ranges;
+    }
+
+    /**
+     * @return a new instance to record ranges aligned on {@code rangeSize} bytes into
+     */
+    public static RecordedBlobCacheRanges newRecording(long rangeSize) {
+        return new RecordedBlobCacheRanges(rangeSize, new HashMap<>());
+    }
+
+    /**
+     * @return the name under which the bytes of the recorded ranges of the given file are stored in the blob store cache index
+     */
+    public static String cachedBlobName(String fileName) {
+        return fileName + "#recorded";
+    }
+
+    public static RecordedBlobCacheRanges readFrom(BytesReference bytes) throws IOException {
+        try (StreamInput in = bytes.streamInput()) {
+            final long rangeSize = in.readVLong();
+            final Map<String, NavigableMap<Long, Long>> ranges = in.readMap(StreamInput::readString, i -> {
+                final NavigableMap<Long, Long> fileRanges = new TreeMap<>();
+                final int count = i.readVInt();
+                for (int j = 0; j < count; j++) {
+                    fileRanges.put(i.readVLong(), i.readVLong());
+                }
+                return fileRanges;
+            });
+            // ranges read back are never recorded into
+            return new RecordedBlobCacheRanges(rangeSize, Map.copyOf(ranges));
+        }
+    }
+
+    public synchronized BytesReference toBytes() throws IOException {
+        try (BytesStreamOutput out = new BytesStreamOutput()) {
+            out.writeVLong(rangeSize);
+            // write the ranges as they are stored in documents, so that the ranges read back each map to a single document
+            out.writeMap(rangesByFile(), StreamOutput::writeString, (o, fileRanges) -> {
+                o.writeVInt(fileRanges.size());
+                for (ByteRange range : fileRanges) {
+                    o.writeVLong(range.start());
+                    o.writeVLong(range.end());
+                }
+            });
+            return out.bytes();
+        }
+    }
+
+    /**
+     * Returns the smallest aligned range of a file that holds the bytes {@code [start, end)}, which may span several times the range size.
+     */
+    public ByteRange alignedRange(long fileLength, long start, long end) {
+        final long rangeStart = (start / rangeSize) * rangeSize;
+        final long rangeEnd = Math.min(((end + rangeSize - 1L) / rangeSize) * rangeSize, fileLength);
+        return ByteRange.of(rangeStart, Math.max(rangeStart, rangeEnd));
+    }
+
+    /**
+     * Returns the recorded range of the file that holds the bytes {@code [start, end)}, or {@link ByteRange#EMPTY} if there is none. Must
+     * only be called on ranges read back from the blob store cache index.
+     */
+    public ByteRange get(String fileName, long start, long end) {
+        final NavigableMap<Long, Long> fileRanges = ranges.get(fileName);
+        if (fileRanges == null) {
+            return ByteRange.EMPTY;
+        }
+        final Map.Entry<Long, Long> range = fileRanges.floorEntry(start);
+        if (range == null || range.getValue() < end) {
+            return ByteRange.EMPTY;
+        }
+        return ByteRange.of(range.getKey(), range.getValue());
+    }
+
+    /**
+     * Records the given aligned range of the file, coalescing it with the recorded ranges it overlaps or touches, unless the recorded
+     * ranges would then hold more than {@code maxRecordedBytes}.
+     *
+     * @return whether the range is recorded
+     */
+    public synchronized boolean record(String fileName, ByteRange range, long maxRecordedBytes) {
+        assert range.start() % rangeSize == 0L : range;
+        if (range.isEmpty()) {
+            return true;
+        }
+        final NavigableMap<Long, Long> fileRanges = ranges.getOrDefault(fileName, new TreeMap<>());
+        long coveredBytes = 0L;
+        long mergedStart = range.start();
+        long mergedEnd = range.end();
+        final Map.Entry<Long, Long> before = fileRanges.floorEntry(range.start());
+        if (before != null && before.getValue() >= range.start()) {
+            coveredBytes += Math.min(before.getValue(), range.end()) - range.start();
+            mergedStart = before.getKey();
+            mergedEnd = Math.max(mergedEnd, before.getValue());
+        }
+        for (Map.Entry<Long, Long> after : fileRanges.subMap(range.start(), false, range.end(), true).entrySet()) {
+            coveredBytes += Math.min(after.getValue(), range.end()) - after.getKey();
+            mergedEnd = Math.max(mergedEnd, after.getValue());
+        }
+        final long newBytes = range.length() - coveredBytes;
+        if (newBytes == 0L) {
+            return true;
+        }
+        if (recordedBytes + newBytes > maxRecordedBytes) {
+            return false;
+        }
+        fileRanges.subMap(mergedStart, true, mergedEnd, true).clear();
+        fileRanges.put(mergedStart, mergedEnd);
+        ranges.putIfAbsent(fileName, fileRanges);
+        recordedBytes += newBytes;
+        return true;
+    }
+
+    /**
+     * @return the recorded ranges of each file, split so that each range holds at most {@link #MAX_DOCUMENT_LENGTH} bytes and can be
+     * stored in a single document of the blob store cache index
+     */
+    public synchronized Map<String, List<ByteRange>> rangesByFile() {
+        final Map<String, List<ByteRange>> rangesByFile = new HashMap<>();
+        for (Map.Entry<String, NavigableMap<Long, Long>> fileRanges : ranges.entrySet()) {
+            final List<ByteRange> list = new ArrayList<>();
+            for (Map.Entry<Long, Long> range : fileRanges.getValue().entrySet()) {
+                long start = range.getKey();
+                while (start < range.getValue()) {
+                    final long end = Math.min(range.getValue(), (start / MAX_DOCUMENT_LENGTH + 1L) * MAX_DOCUMENT_LENGTH);
+                    list.add(ByteRange.of(start, end));
+                    start = end;
+                }
+            }
+            rangesByFile.put(fileRanges.getKey(), List.copyOf(list));
+        }
+        return Map.copyOf(rangesByFile);
+    }
+
+    public synchronized boolean isEmpty() {
+        return ranges.isEmpty();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "RecordedBlobCacheRanges{rangeSize=" + rangeSize + ", files=" + ranges.size() + '}';
+    }
+}
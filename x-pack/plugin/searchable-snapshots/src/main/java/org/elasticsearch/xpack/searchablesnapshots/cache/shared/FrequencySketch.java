@@ -0,0 +1,95 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.searchablesnapshots.cache.shared;
+
+/**
+ * A count-min sketch that estimates how often keys were accessed recently, with 4-bit counters that saturate at 15. Four counters are
+ * updated per access and the estimate is the smallest of them. Once the number of accesses reaches ten times the width of the sketch all
+ * counters are halved, so that the estimates reflect recent accesses rather than all accesses since the node started.
+ * <p>
+ * This class is not thread-safe.
+ */
+final class FrequencySketch {
+
+    static final int MAX_FREQUENCY = 15;
+
+    private static final long[] SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+
+    /**
+     * @param expectedKeys the number of distinct keys that the sketch should tell apart, typically the number of entries of the cache
+     */
+    FrequencySketch(int expectedKeys) {
+        // one long of 16 counters per expected key, since each access updates 4 counters
+        final int length = Integer.highestOneBit(Math.max(Math.min(expectedKeys, 1 << 24), 16) * 2 - 1);
+        this.table = new long[length];
+        this.tableMask = length - 1;
+        this.sampleSize = 10 * length;
+    }
+
+    /**
+     * @return the estimated number of recent accesses of the key with the given hash, at most {@link #MAX_FREQUENCY}
+     */
+    int frequency(int keyHash) {
+        int frequency = MAX_FREQUENCY;
+        for (int i = 0; i < SEEDS.length; i++) {
+            final long hash = hash(keyHash, i);
+            frequency = Math.min(frequency, (int) ((table[index(hash)] >>> offset(hash)) & 0xfL));
+        }
+        return frequency;
+    }
+
+    /**
+     * Records an access of the key with the given hash.
+     */
+    void increment(int keyHash) {
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++) {
+            final long hash = hash(keyHash, i);
+            final int index = index(hash);
+            final int offset = offset(hash);
+            if (((table[index] >>> offset) & 0xfL) != MAX_FREQUENCY) {
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+        if (added && ++additions == sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions >>>= 1;
+    }
+
+    private static long hash(int keyHash, int i) {
+        long hash = (keyHash + SEEDS[i]) * SEEDS[i];
+        return hash ^ (hash >>> 29);
+    }
+
+    private int index(long hash) {
+        return (int) hash & tableMask;
+    }
+
+    private static int offset(long hash) {
+        return (int) ((hash >>> 40) & 0xfL) << 2;
+    }
+
+    // used by tests
+    int additions() {
+        return additions;
+    }
+}
@@ -9,6 +9,7 @@ package org.elasticsearch.xpack.searchablesnapshots.cache.shared;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
 import org.apache.lucene.store.AlreadyClosedException;
 import org.elasticsearch.Assertions;
 import org.elasticsearch.action.ActionListener;
@@ -25,6 +26,7 @@ import org.elasticsearch.common.util.concurrent.AbstractAsyncTask;
 import org.elasticsearch.common.util.concurrent.AbstractRunnable;
 import org.elasticsearch.common.util.concurrent.KeyedLock;
 import org.elasticsearch.core.AbstractRefCounted;
+import org.elasticsearch.core.Nullable;
 import org.elasticsearch.core.Releasable;
 import org.elasticsearch.core.Releasables;
 import org.elasticsearch.core.TimeValue;
@@ -41,13 +43,18 @@ import org.elasticsearch.xpack.searchablesnapshots.cache.common.SparseFileTracke
 
 import java.io.IOException;
 import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.SortedSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Executor;
@@ -213,8 +220,54 @@ public class FrozenCacheService implements Releasable {
         Setting.Property.NodeScope
     );
 
+    public static final Setting<Boolean> SNAPSHOT_CACHE_PERSISTENT_SETTING = Setting.boolSetting(
+        SHARED_CACHE_SETTINGS_PREFIX + "persistent",
+        false,
+        Setting.Property.NodeScope
+    );
+
+    public static final Setting<EvictionPolicy> SNAPSHOT_CACHE_EVICTION_POLICY_SETTING = Setting.enumSetting(
+        EvictionPolicy.class,
+        SHARED_CACHE_SETTINGS_PREFIX + "eviction_policy",
+        EvictionPolicy.LFU,
+        Setting.Property.NodeScope
+    );
+
+    /**
+     * How the shared cache picks the region to evict when a new region is needed and no region is free.
+     */
+    public enum EvictionPolicy {
+        /**
+         * Evicts the least frequently used region that is not in use. Frequencies decay over time so that regions that are not accessed
+         * anymore are eventually evicted.
+         */
+        LFU,
+        /**
+         * Like {@link #LFU}, but new regions are only admitted if they were recently accessed more often than the region they would
+         * replace, based on a frequency sketch of the recent accesses of all regions including the ones that are not cached. Regions that
+         * were not admitted are read directly from the repository. In addition, regions that were accessed again after being cached
+         * are protected: their frequency never decays back to the lowest frequency, which acts as a probationary segment that is evicted
+         * first. This keeps a large scan over regions that are accessed once from evicting the regions that are accessed regularly.
+         */
+        TINY_LFU;
+
+        @Override
+        public String toString() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
     private static final Logger logger = LogManager.getLogger(FrozenCacheService.class);
 
+    /**
+     * Name of the logger that logs every lookup of a region at {@code TRACE} level, so that the accesses of a production workload can be
+     * recorded and replayed against the eviction policies. Each line of the trace is made of the relative time of the access in
+     * milliseconds, the file and the region of the file, separated by spaces.
+     */
+    public static final String ACCESS_TRACE_LOGGER_NAME = FrozenCacheService.class.getName() + ".access_trace";
+
+    private static final Logger accessTraceLogger = LogManager.getLogger(ACCESS_TRACE_LOGGER_NAME);
+
     private final ConcurrentHashMap<RegionKey, Entry<CacheFileRegion>> keyMapping;
 
     private final LongSupplier currentTimeSupplier;
@@ -243,7 +296,31 @@ public class FrozenCacheService implements Releasable {
     private final LongAdder readCount = new LongAdder();
     private final LongAdder readBytes = new LongAdder();
 
-    private final LongAdder evictCount = new LongAdder();
+    private final LongAdder capacityEvictCount = new LongAdder();
+    private final LongAdder explicitEvictCount = new LongAdder();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder rejectCount = new LongAdder();
+
+    private final int minDecayedFreq;
+    @Nullable // if the eviction policy does not filter the admission of new regions
+    private final FrequencySketch frequencySketch; // guarded by this
+    // the cached regions whose accesses were recorded in the frequency sketch since the start of the current window, so that the
+    // repeated accesses of a single search to the same cached region are recorded once
+    private final Set<RegionKey> recordedAccesses = new HashSet<>(); // guarded by this
+    private long recordedAccessesWindowStart; // guarded by this
+
+    private final boolean persistent;
+    private final Path dataPath;
+
+    // file lengths of the files with regions that were recovered on startup but not yet verified against the snapshot files
+    private final Map<CacheKey, Long> unverifiedFileLengths = new ConcurrentHashMap<>();
+
+    // number of bytes of the shared cache allocated to the regions of each shard
+    private final Map<ShardKey, Long> shardAllocatedBytes = new ConcurrentHashMap<>();
+
+    private boolean closed; // guarded by this
 
     @SuppressWarnings({ "unchecked", "rawtypes" })
     public FrozenCacheService(NodeEnvironment environment, Settings settings, ThreadPool threadPool) {
@@ -266,25 +343,104 @@ public class FrozenCacheService implements Releasable {
         } else {
             regionOwners = null;
         }
-        for (int i = 0; i < numRegions; i++) {
-            freeRegions.add(i);
-        }
         this.regionSize = regionSize;
         assert regionSize > 0L;
         this.maxFreq = SNAPSHOT_CACHE_MAX_FREQ_SETTING.get(settings);
         this.minTimeDelta = SNAPSHOT_CACHE_MIN_TIME_DELTA_SETTING.get(settings).millis();
         freqs = new Entry[maxFreq];
+        if (SNAPSHOT_CACHE_EVICTION_POLICY_SETTING.get(settings) == EvictionPolicy.TINY_LFU) {
+            this.minDecayedFreq = Math.min(1, maxFreq - 1);
+            this.frequencySketch = new FrequencySketch(numRegions);
+        } else {
+            this.minDecayedFreq = 0;
+            this.frequencySketch = null;
+        }
+        this.persistent = SNAPSHOT_CACHE_PERSISTENT_SETTING.get(settings);
+        this.dataPath = environment.nodeDataPath();
         try {
-            sharedBytes = new SharedBytes(numRegions, regionSize, environment, writeBytes::add, readBytes::add);
+            sharedBytes = new SharedBytes(numRegions, regionSize, environment, writeBytes::add, readBytes::add, persistent);
         } catch (IOException e) {
             throw new UncheckedIOException(e);
         }
+        final Set<Integer> recoveredRegions = recoverRegions();
+        for (int i = 0; i < numRegions; i++) {
+            if (recoveredRegions.contains(i) == false) {
+                freeRegions.add(i);
+            }
+        }
         decayTask = new CacheDecayTask(threadPool, SNAPSHOT_CACHE_DECAY_INTERVAL_SETTING.get(settings));
         decayTask.rescheduleIfNecessary();
         this.rangeSize = SHARED_CACHE_RANGE_SIZE_SETTING.get(settings);
         this.recoveryRangeSize = FROZEN_CACHE_RECOVERY_RANGE_SIZE_SETTING.get(settings);
     }
 
+    /**
+     * Restores the regions that were persisted when the service was last closed, if the shared cache is persistent. The persisted index of
+     * the regions is always deleted since the regions are reused while the node is running.
+     *
+     * @return the regions of the shared cache file that are in use by a restored region
+     */
+    private Set<Integer> recoverRegions() {
+        List<PersistentRegionIndex.PersistedRegion> persistedRegions = List.of();
+        if (persistent && numRegions > 0 && sharedBytes.isReused()) {
+            try {
+                persistedRegions = PersistentRegionIndex.read(dataPath, regionSize, numRegions);
+            } catch (Exception e) {
+                logger.warn("failed to read the persisted regions of the shared cache, starting with an empty cache", e);
+            }
+        }
+        try {
+            PersistentRegionIndex.delete(dataPath);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (persistedRegions.isEmpty()) {
+            return Set.of();
+        }
+
+        final long now = currentTimeSupplier.getAsLong();
+        final Set<Integer> recoveredRegions = new HashSet<>();
+        for (PersistentRegionIndex.PersistedRegion persisted : persistedRegions) {
+            final RegionKey regionKey = new RegionKey(persisted.cacheKey, persisted.region);
+            if (persisted.sharedBytesPos < 0
+                || persisted.sharedBytesPos >= numRegions
+                || recoveredRegions.contains(persisted.sharedBytesPos)
+                || persisted.fileLength <= 0L
+                || persisted.region < 0
+                || persisted.region > getEndingRegion(persisted.fileLength)
+                || keyMapping.containsKey(regionKey)) {
+                logger.debug("ignoring invalid persisted region [{}]", persisted);
+                continue;
+            }
+            final CacheFileRegion chunk;
+            try {
+                chunk = new CacheFileRegion(
+                    regionKey,
+                    getRegionSize(persisted.fileLength, persisted.region),
+                    persisted.fileLength,
+                    persisted.checksum,
+                    persisted.ranges
+                );
+            } catch (IllegalArgumentException e) {
+                logger.debug(new ParameterizedMessage("ignoring invalid persisted region [{}]", persisted), e);
+                continue;
+            }
+            chunk.sharedBytesPos = persisted.sharedBytesPos;
+            final Entry<CacheFileRegion> entry = new Entry<>(chunk, now);
+            entry.freq = Math.min(persisted.freq, maxFreq - 1);
+            keyMapping.put(regionKey, entry);
+            assert regionOwners[chunk.sharedBytesPos].compareAndSet(null, chunk);
+            synchronized (this) {
+                pushEntryToBack(entry);
+            }
+            updateShardAllocatedBytes(chunk, chunk.tracker.getLength());
+            unverifiedFileLengths.put(persisted.cacheKey, persisted.fileLength);
+            recoveredRegions.add(chunk.sharedBytesPos);
+        }
+        logger.info("recovered [{}] regions of the shared cache", recoveredRegions.size());
+        return recoveredRegions;
+    }
+
     static long calculateCacheSize(Settings settings, long totalFsSize) {
         return SNAPSHOT_CACHE_SIZE_SETTING.get(settings)
             .calculateValue(ByteSizeValue.ofBytes(totalFsSize), SNAPSHOT_CACHE_SIZE_MAX_HEADROOM_SETTING.get(settings))
@@ -356,39 +512,63 @@ public class FrozenCacheService implements Releasable {
     }
 
     public CacheFileRegion get(CacheKey cacheKey, long fileLength, int region) {
+        return get(cacheKey, fileLength, null, region);
+    }
+
+    /**
+     * @param checksum the checksum of the file, which is required for the region to be persisted if the shared cache is persistent
+     */
+    public CacheFileRegion get(CacheKey cacheKey, long fileLength, @Nullable String checksum, int region) {
+        final CacheFileRegion fileRegion = getIfAdmitted(cacheKey, fileLength, checksum, region);
+        if (fileRegion == null) {
+            throw new AlreadyClosedException("region not admitted in the shared cache");
+        }
+        return fileRegion;
+    }
+
+    /**
+     * Same as {@link #get(CacheKey, long, String, int)} but returns {@code null} if the eviction policy did not admit the region in the
+     * cache, in which case the region should be read directly from the repository.
+     */
+    @Nullable
+    CacheFileRegion getIfAdmitted(CacheKey cacheKey, long fileLength, @Nullable String checksum, int region) {
         final long regionSize = getRegionSize(fileLength, region);
         try (Releasable ignore = keyedLock.acquire(cacheKey)) {
             final RegionKey regionKey = new RegionKey(cacheKey, region);
             final long now = currentTimeSupplier.getAsLong();
+            if (accessTraceLogger.isTraceEnabled()) {
+                accessTraceLogger.trace("{} {} {}", now, traceFileName(cacheKey), region);
+            }
             final Entry<CacheFileRegion> entry = keyMapping.computeIfAbsent(
                 regionKey,
-                key -> new Entry<>(new CacheFileRegion(regionKey, regionSize), now)
+                key -> new Entry<>(new CacheFileRegion(regionKey, regionSize, fileLength, checksum, Collections.emptySortedSet()), now)
             );
             if (entry.chunk.sharedBytesPos == -1) {
                 // new item
                 assert entry.freq == 0;
                 assert entry.prev == null;
                 assert entry.next == null;
+                missCount.increment();
+                recordAccess(regionKey, now, false);
                 final Integer freeSlot = freeRegions.poll();
                 if (freeSlot != null) {
                     // no need to evict an item, just add
-                    entry.chunk.sharedBytesPos = freeSlot;
-                    assert regionOwners[freeSlot].compareAndSet(null, entry.chunk);
-                    synchronized (this) {
-                        pushEntryToBack(entry);
-                    }
+                    assignRegion(entry, freeSlot);
                 } else {
                     // need to evict something
+                    final boolean admitted;
                     synchronized (this) {
-                        maybeEvict();
+                        admitted = maybeEvict(regionKey);
+                    }
+                    if (admitted == false) {
+                        rejectCount.increment();
+                        boolean removed = keyMapping.remove(regionKey, entry);
+                        assert removed;
+                        return null;
                     }
                     final Integer freeSlotRetry = freeRegions.poll();
                     if (freeSlotRetry != null) {
-                        entry.chunk.sharedBytesPos = freeSlotRetry;
-                        assert regionOwners[freeSlotRetry].compareAndSet(null, entry.chunk);
-                        synchronized (this) {
-                            pushEntryToBack(entry);
-                        }
+                        assignRegion(entry, freeSlotRetry);
                     } else {
                         boolean removed = keyMapping.remove(regionKey, entry);
                         assert removed;
@@ -396,8 +576,10 @@ public class FrozenCacheService implements Releasable {
                     }
                 }
             } else {
+                hitCount.increment();
                 // check if we need to promote item
                 synchronized (this) {
+                    recordAccess(regionKey, now, true);
                     if (now - entry.lastAccessed >= minTimeDelta && entry.freq + 1 < maxFreq) {
                         unlink(entry);
                         entry.freq++;
@@ -410,8 +592,82 @@ public class FrozenCacheService implements Releasable {
         }
     }
 
+    private static String traceFileName(CacheKey cacheKey) {
+        return String.join(
+            "/",
+            cacheKey.getSnapshotUUID(),
+            cacheKey.getSnapshotIndexName(),
+            String.valueOf(cacheKey.getShardId().id()),
+            cacheKey.getFileName()
+        );
+    }
+
+    private void assignRegion(Entry<CacheFileRegion> entry, int freeSlot) {
+        synchronized (this) {
+            if (closed) {
+                // the regions may be persisted, they must not be reused for other files
+                freeRegions.add(freeSlot);
+                boolean removed = keyMapping.remove(entry.chunk.regionKey, entry);
+                assert removed;
+                throw new AlreadyClosedException("shared cache is closed");
+            }
+            entry.chunk.sharedBytesPos = freeSlot;
+            assert regionOwners[freeSlot].compareAndSet(null, entry.chunk);
+            pushEntryToBack(entry);
+        }
+        updateShardAllocatedBytes(entry.chunk, entry.chunk.tracker.getLength());
+    }
+
+    private void updateShardAllocatedBytes(CacheFileRegion chunk, long delta) {
+        final CacheKey cacheKey = chunk.regionKey.file;
+        shardAllocatedBytes.compute(
+            new ShardKey(cacheKey.getSnapshotUUID(), cacheKey.getSnapshotIndexName(), cacheKey.getShardId()),
+            (key, bytes) -> {
+                final long updated = (bytes == null ? 0L : bytes) + delta;
+                assert updated >= 0L : key + " has negative allocated bytes " + updated;
+                return updated > 0L ? updated : null;
+            }
+        );
+    }
+
+    /**
+     * Returns the number of bytes of the shared cache allocated to the regions of the given shard. Regions are not necessarily fully
+     * populated, so this is an upper bound of the number of bytes of the shard that can be read from the shared cache.
+     */
+    public long getCachedBytes(String snapshotUUID, String snapshotIndexName, ShardId shardId) {
+        return shardAllocatedBytes.getOrDefault(new ShardKey(snapshotUUID, snapshotIndexName, shardId), 0L);
+    }
+
+    /**
+     * Records an access to the given region in the frequency sketch of the admission filter. Repeated accesses to a cached region within
+     * {@link #SNAPSHOT_CACHE_MIN_TIME_DELTA_SETTING} are recorded once, but every access to a region that is not cached is recorded,
+     * since each of them reads the region from the repository and a region that a search keeps reading must eventually be admitted.
+     */
+    private void recordAccess(RegionKey regionKey, long now, boolean cached) {
+        if (frequencySketch != null) {
+            synchronized (this) {
+                if (now - recordedAccessesWindowStart >= minTimeDelta || recordedAccesses.size() >= Math.max(numRegions, 16) * 4) {
+                    recordedAccesses.clear();
+                    recordedAccessesWindowStart = now;
+                }
+                if (recordedAccesses.add(regionKey) || cached == false) {
+                    frequencySketch.increment(regionKey.hashCode());
+                }
+            }
+        }
+    }
+
+    /**
+     * @return whether the admission filter of the eviction policy lets the given candidate region replace the given victim region
+     */
+    private boolean admit(RegionKey candidate, RegionKey victim) {
+        assert Thread.holdsLock(this);
+        return frequencySketch == null || frequencySketch.frequency(candidate.hashCode()) > frequencySketch.frequency(victim.hashCode());
+    }
+
     public void onClose(CacheFileRegion chunk) {
         assert regionOwners[chunk.sharedBytesPos].compareAndSet(chunk, null);
+        updateShardAllocatedBytes(chunk, -chunk.tracker.getLength());
         freeRegions.add(chunk.sharedBytesPos);
     }
 
@@ -425,11 +681,15 @@ public class FrozenCacheService implements Releasable {
             numRegions,
             cacheSize,
             regionSize,
-            evictCount.sum(),
+            capacityEvictCount.sum(),
+            explicitEvictCount.sum(),
             writeCount.sum(),
             writeBytes.sum(),
             readCount.sum(),
-            readBytes.sum()
+            readBytes.sum(),
+            hitCount.sum(),
+            missCount.sum(),
+            rejectCount.sum()
         );
     }
 
@@ -462,18 +722,28 @@ public class FrozenCacheService implements Releasable {
         return true;
     }
 
-    private void maybeEvict() {
+    /**
+     * Evicts the least frequently used region that is not in use, unless the eviction policy does not admit the given candidate region in
+     * place of it.
+     *
+     * @return {@code false} if the candidate region was not admitted, {@code true} otherwise even if no region could be evicted
+     */
+    private boolean maybeEvict(RegionKey candidate) {
         assert Thread.holdsLock(this);
         for (int i = 0; i < maxFreq; i++) {
             for (Entry<CacheFileRegion> entry = freqs[i]; entry != null; entry = entry.next) {
+                if (admit(candidate, entry.chunk.regionKey) == false) {
+                    return false;
+                }
                 boolean evicted = entry.chunk.tryEvict();
                 if (evicted) {
                     unlink(entry);
                     keyMapping.remove(entry.chunk.regionKey, entry);
-                    return;
+                    return true;
                 }
             }
         }
+        return true;
     }
 
     private void pushEntryToBack(final Entry<CacheFileRegion> entry) {
@@ -534,7 +804,7 @@ public class FrozenCacheService implements Releasable {
             for (int i = 0; i < maxFreq; i++) {
                 for (Entry<CacheFileRegion> entry = freqs[i]; entry != null; entry = entry.next) {
                     if (now - entry.lastAccessed >= 2 * minTimeDelta) {
-                        if (entry.freq > 0) {
+                        if (entry.freq > minDecayedFreq) {
                             unlink(entry);
                             entry.freq--;
                             pushEntryToBack(entry);
@@ -584,10 +854,77 @@ public class FrozenCacheService implements Releasable {
 
     @Override
     public void close() {
+        final List<PersistentRegionIndex.PersistedRegion> regions = new ArrayList<>();
+        synchronized (this) {
+            closed = true;
+            if (persistent) {
+                for (int i = 0; i < maxFreq; i++) {
+                    for (Entry<CacheFileRegion> entry = freqs[i]; entry != null; entry = entry.next) {
+                        final CacheFileRegion chunk = entry.chunk;
+                        if (chunk.checksum == null || chunk.isEvicted()) {
+                            continue;
+                        }
+                        final SortedSet<ByteRange> ranges = chunk.tracker.getCompletedRanges();
+                        if (ranges.isEmpty() == false) {
+                            regions.add(
+                                new PersistentRegionIndex.PersistedRegion(
+                                    chunk.regionKey.file,
+                                    chunk.fileLength,
+                                    chunk.checksum,
+                                    chunk.regionKey.region,
+                                    chunk.sharedBytesPos,
+                                    entry.freq,
+                                    ranges
+                                )
+                            );
+                        }
+                    }
+                }
+            }
+        }
+        if (persistent && numRegions > 0) {
+            persistRegions(regions);
+        }
         sharedBytes.decRef();
         decayTask.close();
     }
 
+    private void persistRegions(List<PersistentRegionIndex.PersistedRegion> regions) {
+        try {
+            // the completed ranges must be durable before the index refers to them
+            sharedBytes.fsync();
+            PersistentRegionIndex.write(dataPath, regionSize, numRegions, regions);
+            logger.debug("persisted [{}] regions of the shared cache", regions.size());
+        } catch (Exception e) {
+            logger.warn("failed to persist the regions of the shared cache", e);
+            try {
+                PersistentRegionIndex.delete(dataPath);
+            } catch (IOException inner) {
+                e.addSuppressed(inner);
+                logger.warn("failed to delete the persisted regions of the shared cache", inner);
+            }
+        }
+    }
+
+    /**
+     * Evicts the regions of the given file that were recovered on startup but do not match the length and checksum of the file in the
+     * snapshot anymore.
+     */
+    private void verifyRecoveredRegions(CacheKey cacheKey, long persistedLength, long length, String checksum) {
+        for (int region = 0; region <= getEndingRegion(persistedLength); region++) {
+            final Entry<CacheFileRegion> entry = keyMapping.get(new RegionKey(cacheKey, region));
+            if (entry != null && entry.chunk.matches(length, checksum) == false) {
+                logger.debug("evicting recovered region [{}] of [{}] which does not match the snapshot file", region, cacheKey);
+                synchronized (this) {
+                    if (entry.chunk.forceEvict()) {
+                        unlink(entry);
+                        keyMapping.remove(entry.chunk.regionKey, entry);
+                    }
+                }
+            }
+        }
+    }
+
     class CacheDecayTask extends AbstractAsyncTask {
 
         CacheDecayTask(ThreadPool threadPool, TimeValue interval) {
@@ -643,6 +980,38 @@ public class FrozenCacheService implements Releasable {
         }
     }
 
+    private static class ShardKey {
+        private final String snapshotUUID;
+        private final String snapshotIndexName;
+        private final ShardId shardId;
+
+        ShardKey(String snapshotUUID, String snapshotIndexName, ShardId shardId) {
+            this.snapshotUUID = snapshotUUID;
+            this.snapshotIndexName = snapshotIndexName;
+            this.shardId = shardId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            ShardKey shardKey = (ShardKey) o;
+            return snapshotUUID.equals(shardKey.snapshotUUID)
+                && snapshotIndexName.equals(shardKey.snapshotIndexName)
+                && shardId.equals(shardKey.shardId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(snapshotUUID, snapshotIndexName, shardId);
+        }
+
+        @Override
+        public String toString() {
+            return "ShardKey{" + "snapshotUUID=" + snapshotUUID + ", snapshotIndexName=" + snapshotIndexName + ", shardId=" + shardId + '}';
+        }
+    }
+
     static class Entry<T> {
         final T chunk;
         Entry<T> prev;
@@ -659,13 +1028,22 @@ public class FrozenCacheService implements Releasable {
     class CacheFileRegion extends AbstractRefCounted {
         final RegionKey regionKey;
         final SparseFileTracker tracker;
+        final long fileLength;
+        @Nullable
+        final String checksum;
         volatile int sharedBytesPos = -1;
 
-        CacheFileRegion(RegionKey regionKey, long regionSize) {
+        CacheFileRegion(RegionKey regionKey, long regionSize, long fileLength, @Nullable String checksum, SortedSet<ByteRange> ranges) {
             super("CacheFileRegion");
             this.regionKey = regionKey;
+            this.fileLength = fileLength;
+            this.checksum = checksum;
             assert regionSize > 0L;
-            tracker = new SparseFileTracker("file", regionSize);
+            tracker = new SparseFileTracker("file", regionSize, ranges);
+        }
+
+        boolean matches(long length, @Nullable String checksum) {
+            return fileLength == length && this.checksum != null && this.checksum.equals(checksum);
         }
 
         public long physicalStartOffset() {
@@ -683,7 +1061,7 @@ public class FrozenCacheService implements Releasable {
         public boolean tryEvict() {
             if (refCount() <= 1 && evicted.compareAndSet(false, true)) {
                 logger.trace("evicted {} with channel offset {}", regionKey, physicalStartOffset());
-                evictCount.increment();
+                capacityEvictCount.increment();
                 decRef();
                 return true;
             }
@@ -693,7 +1071,7 @@ public class FrozenCacheService implements Releasable {
         public boolean forceEvict() {
             if (evicted.compareAndSet(false, true)) {
                 logger.trace("force evicted {} with channel offset {}", regionKey, physicalStartOffset());
-                evictCount.increment();
+                explicitEvictCount.increment();
                 decRef();
                 return true;
             }
@@ -828,10 +1206,12 @@ public class FrozenCacheService implements Releasable {
 
         private final CacheKey cacheKey;
         private final long length;
+        private final String checksum;
 
-        private FrozenCacheFile(CacheKey cacheKey, long length) {
+        private FrozenCacheFile(CacheKey cacheKey, long length, String checksum) {
             this.cacheKey = cacheKey;
             this.length = length;
+            this.checksum = checksum;
         }
 
         public long getLength() {
@@ -847,6 +1227,7 @@ public class FrozenCacheService implements Releasable {
             final ByteRange rangeToRead,
             final RangeAvailableHandler reader,
             final RangeMissingHandler writer,
+            final RangeNotAdmittedHandler notAdmittedReader,
             final Executor executor
         ) {
             StepListener<Integer> stepListener = null;
@@ -863,7 +1244,16 @@ public class FrozenCacheService implements Releasable {
                     }
                     continue;
                 }
-                final CacheFileRegion fileRegion = get(cacheKey, length, region);
+                final CacheFileRegion fileRegion = getIfAdmitted(cacheKey, length, checksum, region);
+                if (fileRegion == null) {
+                    final StepListener<Integer> lis = new StepListener<>();
+                    ActionListener.completeWith(
+                        lis,
+                        () -> notAdmittedReader.onRangeNotAdmitted(subRangeToRead.start() - readStart, subRangeToRead.length())
+                    );
+                    stepListener = stepListener == null ? lis : stepListener.thenCombine(lis, Math::addExact);
+                    continue;
+                }
                 final long regionStart = getRegionStart(region);
                 final long writeOffset = writeStart - regionStart;
                 final long readOffset = readStart - regionStart;
@@ -899,8 +1289,20 @@ public class FrozenCacheService implements Releasable {
         }
     }
 
-    public FrozenCacheFile getFrozenCacheFile(CacheKey cacheKey, long length) {
-        return new FrozenCacheFile(cacheKey, length);
+    /**
+     * @param length   the length of the file in the snapshot
+     * @param checksum the checksum of the file in the snapshot, used to verify the regions recovered on startup
+     */
+    public FrozenCacheFile getFrozenCacheFile(CacheKey cacheKey, long length, String checksum) {
+        if (unverifiedFileLengths.isEmpty() == false) {
+            try (Releasable ignore = keyedLock.acquire(cacheKey)) {
+                final Long persistedLength = unverifiedFileLengths.remove(cacheKey);
+                if (persistedLength != null) {
+                    verifyRecoveredRegions(cacheKey, persistedLength, length, checksum);
+                }
+            }
+        }
+        return new FrozenCacheFile(cacheKey, length, checksum);
     }
 
     @FunctionalInterface
@@ -916,37 +1318,55 @@ public class FrozenCacheService implements Releasable {
             throws IOException;
     }
 
+    @FunctionalInterface
+    public interface RangeNotAdmittedHandler {
+        // caller should read the given range directly from the repository, relativePos is relative to the start of the range to read
+        int onRangeNotAdmitted(long relativePos, long length) throws IOException;
+    }
+
     public static class Stats {
 
-        public static final Stats EMPTY = new Stats(0, 0L, 0L, 0L, 0L, 0L, 0L, 0L);
+        public static final Stats EMPTY = new Stats(0, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0L);
 
         private final int numberOfRegions;
         private final long size;
         private final long regionSize;
-        private final long evictCount;
+        private final long capacityEvictCount;
+        private final long explicitEvictCount;
         private final long writeCount;
         private final long writeBytes;
         private final long readCount;
         private final long readBytes;
+        private final long hitCount;
+        private final long missCount;
+        private final long rejectCount;
 
         private Stats(
             int numberOfRegions,
             long size,
             long regionSize,
-            long evictCount,
+            long capacityEvictCount,
+            long explicitEvictCount,
             long writeCount,
             long writeBytes,
             long readCount,
-            long readBytes
+            long readBytes,
+            long hitCount,
+            long missCount,
+            long rejectCount
         ) {
             this.numberOfRegions = numberOfRegions;
             this.size = size;
             this.regionSize = regionSize;
-            this.evictCount = evictCount;
+            this.capacityEvictCount = capacityEvictCount;
+            this.explicitEvictCount = explicitEvictCount;
             this.writeCount = writeCount;
             this.writeBytes = writeBytes;
             this.readCount = readCount;
             this.readBytes = readBytes;
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.rejectCount = rejectCount;
         }
 
         public int getNumberOfRegions() {
@@ -962,7 +1382,21 @@ public class FrozenCacheService implements Releasable {
         }
 
         public long getEvictCount() {
-            return evictCount;
+            return capacityEvictCount + explicitEvictCount;
+        }
+
+        /**
+         * @return the number of regions that were evicted to make room for other regions
+         */
+        public long getCapacityEvictCount() {
+            return capacityEvictCount;
+        }
+
+        /**
+         * @return the number of regions that were evicted because their files were removed from the cache, e.g. when a shard was deleted
+         */
+        public long getExplicitEvictCount() {
+            return explicitEvictCount;
         }
 
         public long getWriteCount() {
@@ -980,5 +1414,26 @@ public class FrozenCacheService implements Releasable {
         public long getReadBytes() {
             return readBytes;
         }
+
+        /**
+         * @return the number of times a region was looked up and was already in the cache
+         */
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        /**
+         * @return the number of times a region was looked up and was not in the cache
+         */
+        public long getMissCount() {
+            return missCount;
+        }
+
+        /**
+         * @return the number of times a region was not admitted in the cache by the eviction policy
+         */
+        public long getRejectCount() {
+            return rejectCount;
+        }
     }
 }
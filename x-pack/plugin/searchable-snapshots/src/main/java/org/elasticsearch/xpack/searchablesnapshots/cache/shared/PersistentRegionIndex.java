@@ -0,0 +1,190 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.searchablesnapshots.cache.shared;
+
+import org.apache.lucene.codecs.CodecUtil;
+import org.apache.lucene.store.ChecksumIndexInput;
+import org.apache.lucene.store.DataInput;
+import org.apache.lucene.store.DataOutput;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexOutput;
+import org.apache.lucene.store.NIOFSDirectory;
+import org.elasticsearch.index.Index;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.xpack.searchablesnapshots.cache.common.ByteRange;
+import org.elasticsearch.xpack.searchablesnapshots.cache.common.CacheKey;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Persists which parts of which files are held by the regions of the {@link SharedBytes} file, so that the shared cache can be reused
+ * after a restart of the node.
+ * <p>
+ * Regions are reused for other files while the node is running, so the index is only written when the {@link FrozenCacheService} is
+ * closed, after the shared cache file has been fsynced, and it is deleted as soon as it has been read back on startup. A node that stops
+ * without closing the service therefore starts with an empty cache rather than with regions whose content is unknown.
+ */
+final class PersistentRegionIndex {
+
+    static final String INDEX_FILE_NAME = "shared_snapshot_cache_regions";
+    private static final String TEMP_FILE_NAME = INDEX_FILE_NAME + ".tmp";
+
+    private static final String CODEC_NAME = "shared_snapshot_cache_regions";
+    private static final int VERSION_START = 0;
+    private static final int VERSION_CURRENT = VERSION_START;
+
+    private PersistentRegionIndex() {}
+
+    /**
+     * Writes the index of the given regions in the given directory, replacing any existing index.
+     */
+    static void write(Path path, long regionSize, int numRegions, Collection<PersistedRegion> regions) throws IOException {
+        delete(path);
+        try (Directory directory = new NIOFSDirectory(path)) {
+            try (IndexOutput output = directory.createOutput(TEMP_FILE_NAME, IOContext.DEFAULT)) {
+                CodecUtil.writeHeader(output, CODEC_NAME, VERSION_CURRENT);
+                output.writeLong(regionSize);
+                output.writeVInt(numRegions);
+                output.writeVInt(regions.size());
+                for (PersistedRegion region : regions) {
+                    region.writeTo(output);
+                }
+                CodecUtil.writeFooter(output);
+            }
+            directory.sync(Collections.singleton(TEMP_FILE_NAME));
+            directory.rename(TEMP_FILE_NAME, INDEX_FILE_NAME);
+            directory.syncMetaData();
+        }
+    }
+
+    /**
+     * Reads the index of the regions from the given directory. Returns an empty list if there is no index or if it was written for a
+     * shared cache with a different number or size of regions.
+     */
+    static List<PersistedRegion> read(Path path, long regionSize, int numRegions) throws IOException {
+        if (Files.exists(path.resolve(INDEX_FILE_NAME)) == false) {
+            return List.of();
+        }
+        try (
+            Directory directory = new NIOFSDirectory(path);
+            ChecksumIndexInput input = directory.openChecksumInput(INDEX_FILE_NAME, IOContext.READONCE)
+        ) {
+            CodecUtil.checkHeader(input, CODEC_NAME, VERSION_START, VERSION_CURRENT);
+            final long persistedRegionSize = input.readLong();
+            final int persistedNumRegions = input.readVInt();
+            final int count = input.readVInt();
+            final List<PersistedRegion> regions = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                regions.add(PersistedRegion.readFrom(input));
+            }
+            CodecUtil.checkFooter(input);
+            if (persistedRegionSize != regionSize || persistedNumRegions != numRegions) {
+                return List.of();
+            }
+            return regions;
+        }
+    }
+
+    static void delete(Path path) throws IOException {
+        Files.deleteIfExists(path.resolve(TEMP_FILE_NAME));
+        Files.deleteIfExists(path.resolve(INDEX_FILE_NAME));
+    }
+
+    /**
+     * The persisted state of a region of the shared cache file.
+     */
+    static final class PersistedRegion {
+
+        final CacheKey cacheKey;
+        final long fileLength;
+        final String checksum;
+        final int region;
+        final int sharedBytesPos;
+        final int freq;
+        final SortedSet<ByteRange> ranges;
+
+        PersistedRegion(
+            CacheKey cacheKey,
+            long fileLength,
+            String checksum,
+            int region,
+            int sharedBytesPos,
+            int freq,
+            SortedSet<ByteRange> ranges
+        ) {
+            this.cacheKey = Objects.requireNonNull(cacheKey);
+            this.fileLength = fileLength;
+            this.checksum = Objects.requireNonNull(checksum);
+            this.region = region;
+            this.sharedBytesPos = sharedBytesPos;
+            this.freq = freq;
+            this.ranges = Objects.requireNonNull(ranges);
+        }
+
+        void writeTo(DataOutput output) throws IOException {
+            output.writeString(cacheKey.getSnapshotUUID());
+            output.writeString(cacheKey.getSnapshotIndexName());
+            output.writeString(cacheKey.getShardId().getIndexName());
+            output.writeString(cacheKey.getShardId().getIndex().getUUID());
+            output.writeVInt(cacheKey.getShardId().id());
+            output.writeString(cacheKey.getFileName());
+            output.writeVLong(fileLength);
+            output.writeString(checksum);
+            output.writeVInt(region);
+            output.writeVInt(sharedBytesPos);
+            output.writeVInt(freq);
+            output.writeVInt(ranges.size());
+            for (ByteRange range : ranges) {
+                output.writeVLong(range.start());
+                output.writeVLong(range.end());
+            }
+        }
+
+        static PersistedRegion readFrom(DataInput input) throws IOException {
+            final String snapshotUUID = input.readString();
+            final String snapshotIndexName = input.readString();
+            final Index index = new Index(input.readString(), input.readString());
+            final ShardId shardId = new ShardId(index, input.readVInt());
+            final CacheKey cacheKey = new CacheKey(snapshotUUID, snapshotIndexName, shardId, input.readString());
+            final long fileLength = input.readVLong();
+            final String checksum = input.readString();
+            final int region = input.readVInt();
+            final int sharedBytesPos = input.readVInt();
+            final int freq = input.readVInt();
+            final int numRanges = input.readVInt();
+            final SortedSet<ByteRange> ranges = new TreeSet<>();
+            for (int i = 0; i < numRanges; i++) {
+                ranges.add(ByteRange.of(input.readVLong(), input.readVLong()));
+            }
+            return new PersistedRegion(cacheKey, fileLength, checksum, region, sharedBytesPos, freq, ranges);
+        }
+
+        @Override
+        public String toString() {
+            return "PersistedRegion{cacheKey="
+                + cacheKey
+                + ", region="
+                + region
+                + ", sharedBytesPos="
+                + sharedBytesPos
+                + ", ranges="
+                + ranges
+                + '}';
+        }
+    }
+}
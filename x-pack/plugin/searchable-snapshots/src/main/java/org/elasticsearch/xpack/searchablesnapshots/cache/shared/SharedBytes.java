@@ -49,16 +49,34 @@ public class SharedBytes extends AbstractRefCounted {
     private final FileChannel fileChannel;
     private final Path path;
 
+    // whether the cache file is kept on close so that its content can be reused after a restart
+    private final boolean persistent;
+    // whether the cache file already existed with the expected size
+    private final boolean reused;
+
     private final IntConsumer writeBytes;
     private final IntConsumer readBytes;
 
     SharedBytes(int numRegions, long regionSize, NodeEnvironment environment, IntConsumer writeBytes, IntConsumer readBytes)
         throws IOException {
+        this(numRegions, regionSize, environment, writeBytes, readBytes, false);
+    }
+
+    SharedBytes(
+        int numRegions,
+        long regionSize,
+        NodeEnvironment environment,
+        IntConsumer writeBytes,
+        IntConsumer readBytes,
+        boolean persistent
+    ) throws IOException {
         super("shared-bytes");
         this.numRegions = numRegions;
         this.regionSize = regionSize;
+        this.persistent = persistent;
         final long fileSize = numRegions * regionSize;
         Path cacheFile = null;
+        boolean reused = false;
         if (fileSize > 0) {
             cacheFile = findCacheSnapshotCacheFilePath(environment, fileSize);
             Preallocate.preallocate(cacheFile, fileSize);
@@ -68,6 +86,7 @@ public class SharedBytes extends AbstractRefCounted {
             final ByteBuffer fillBytes = ByteBuffer.allocate(Channels.WRITE_CHUNK_SIZE);
             this.fileChannel = FileChannel.open(cacheFile, OPEN_OPTIONS);
             long written = fileChannel.size();
+            reused = written == fileSize;
             if (fileSize < written) {
                 logger.info("creating shared snapshot cache file [size={}, path={}]", fileSize, cacheFile);
             } else if (fileSize == written) {
@@ -88,6 +107,7 @@ public class SharedBytes extends AbstractRefCounted {
             Files.deleteIfExists(environment.nodeDataPath().resolve(CACHE_FILE_NAME));
         }
         this.path = cacheFile;
+        this.reused = reused;
         this.writeBytes = writeBytes;
         this.readBytes = readBytes;
     }
@@ -117,12 +137,28 @@ public class SharedBytes extends AbstractRefCounted {
     @Override
     protected void closeInternal() {
         try {
-            IOUtils.close(fileChannel, path == null ? null : () -> Files.deleteIfExists(path));
+            IOUtils.close(fileChannel, path == null || persistent ? null : () -> Files.deleteIfExists(path));
         } catch (IOException e) {
             logger.warn("Failed to clean up shared bytes file", e);
         }
     }
 
+    /**
+     * @return whether the cache file already existed with the expected size, in which case its content may be reused
+     */
+    boolean isReused() {
+        return reused;
+    }
+
+    /**
+     * Forces all the writes to the cache file to be persisted on disk.
+     */
+    void fsync() throws IOException {
+        if (fileChannel != null) {
+            fileChannel.force(true);
+        }
+    }
+
     private final Map<Integer, IO> ios = ConcurrentCollections.newConcurrentMap();
 
     IO getFileChannel(int sharedBytesPos) {
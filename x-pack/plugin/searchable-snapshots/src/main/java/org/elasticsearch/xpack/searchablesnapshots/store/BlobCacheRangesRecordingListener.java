@@ -0,0 +1,39 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.searchablesnapshots.store;
+
+import org.elasticsearch.index.shard.SearchOperationListener;
+import org.elasticsearch.search.internal.SearchContext;
+
+import static org.elasticsearch.xpack.searchablesnapshots.store.SearchableSnapshotDirectory.unwrapDirectory;
+
+/**
+ * Stops the recording of the ranges read by a searchable snapshot shard once the shard completed its first search, which is when the
+ * first fetch phase completes or, for searches that fetch no documents, when the first query phase completes.
+ */
+public class BlobCacheRangesRecordingListener implements SearchOperationListener {
+
+    @Override
+    public void onQueryPhase(SearchContext searchContext, long tookInNanos) {
+        if (searchContext.size() == 0) {
+            stopRecording(searchContext);
+        }
+    }
+
+    @Override
+    public void onFetchPhase(SearchContext searchContext, long tookInNanos) {
+        stopRecording(searchContext);
+    }
+
+    private static void stopRecording(SearchContext searchContext) {
+        final SearchableSnapshotDirectory directory = unwrapDirectory(searchContext.indexShard().store().directory());
+        if (directory != null) {
+            directory.stopRecordingBlobStoreCacheRanges();
+        }
+    }
+}
@@ -14,6 +14,7 @@ import org.apache.lucene.store.IndexInput;
 import org.apache.lucene.store.IndexOutput;
 import org.apache.lucene.store.NoLockFactory;
 import org.elasticsearch.core.internal.io.IOUtils;
+import org.elasticsearch.index.store.CachingDirectory;
 import org.elasticsearch.index.store.ImmutableDirectoryException;
 
 import java.io.FileNotFoundException;
@@ -27,7 +28,7 @@ import java.util.Set;
  * A {@link Directory} which wraps a read-only "real" directory with a wrapper that allows no-op (in-memory) commits, and peer recoveries
  * of the same, so that we can start a shard on a completely readonly data set.
  */
-public class InMemoryNoOpCommitDirectory extends FilterDirectory {
+public class InMemoryNoOpCommitDirectory extends FilterDirectory implements CachingDirectory {
 
     private final Directory realDirectory;
 
@@ -40,6 +41,11 @@ public class InMemoryNoOpCommitDirectory extends FilterDirectory {
         return realDirectory;
     }
 
+    @Override
+    public long cachedBytes() {
+        return realDirectory instanceof CachingDirectory ? ((CachingDirectory) realDirectory).cachedBytes() : -1L;
+    }
+
     @Override
     public String[] listAll() throws IOException {
         final String[] ephemeralFiles = in.listAll();
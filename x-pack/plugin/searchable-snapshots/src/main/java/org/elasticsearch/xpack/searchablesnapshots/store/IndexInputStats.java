@@ -53,6 +53,7 @@ public class IndexInputStats {
     private final TimedCounter cachedBytesWritten = new TimedCounter();
 
     private final Counter blobStoreBytesRequested = new Counter();
+    private final Counter readAheadBytesRequested = new Counter();
     private final AtomicLong currentIndexCacheFills = new AtomicLong();
 
     private final Counter luceneBytesRead = new Counter();
@@ -142,6 +143,10 @@ public class IndexInputStats {
         blobStoreBytesRequested.add(bytesRequested);
     }
 
+    public void addReadAheadBytesRequested(long bytesRequested) {
+        readAheadBytesRequested.add(bytesRequested);
+    }
+
     public Releasable addIndexCacheFill() {
         final long openValue = currentIndexCacheFills.incrementAndGet();
         assert openValue > 0 : openValue;
@@ -227,6 +232,13 @@ public class IndexInputStats {
         return blobStoreBytesRequested;
     }
 
+    /**
+     * @return the ranges that were fetched ahead of sequential reads, some of which may already have been in cache
+     */
+    public Counter getReadAheadBytesRequested() {
+        return readAheadBytesRequested;
+    }
+
     public Counter getLuceneBytesRead() {
         return luceneBytesRead;
     }
@@ -26,11 +26,13 @@ import org.elasticsearch.cluster.metadata.IndexMetadata;
 import org.elasticsearch.cluster.routing.RecoverySource;
 import org.elasticsearch.common.blobstore.BlobContainer;
 import org.elasticsearch.common.blobstore.support.FilterBlobContainer;
+import org.elasticsearch.common.bytes.BytesArray;
 import org.elasticsearch.common.bytes.BytesReference;
 import org.elasticsearch.common.lucene.store.ByteArrayIndexInput;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.util.LazyInitializable;
+import org.elasticsearch.common.util.concurrent.AbstractRunnable;
 import org.elasticsearch.common.util.concurrent.ConcurrentCollections;
 import org.elasticsearch.core.CheckedRunnable;
 import org.elasticsearch.core.Nullable;
@@ -41,6 +43,7 @@ import org.elasticsearch.index.IndexSettings;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.index.shard.ShardPath;
 import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
+import org.elasticsearch.index.store.CachingDirectory;
 import org.elasticsearch.index.store.Store;
 import org.elasticsearch.indices.recovery.RecoveryState;
 import org.elasticsearch.repositories.IndexId;
@@ -54,6 +57,7 @@ import org.elasticsearch.xpack.core.searchablesnapshots.SearchableSnapshotsConst
 import org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots;
 import org.elasticsearch.xpack.searchablesnapshots.cache.blob.BlobStoreCacheService;
 import org.elasticsearch.xpack.searchablesnapshots.cache.blob.CachedBlob;
+import org.elasticsearch.xpack.searchablesnapshots.cache.blob.RecordedBlobCacheRanges;
 import org.elasticsearch.xpack.searchablesnapshots.cache.common.ByteRange;
 import org.elasticsearch.xpack.searchablesnapshots.cache.common.CacheFile;
 import org.elasticsearch.xpack.searchablesnapshots.cache.common.CacheKey;
@@ -84,6 +88,7 @@ import java.util.concurrent.Executor;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.LongSupplier;
 import java.util.function.Supplier;
 
@@ -93,6 +98,7 @@ import static org.elasticsearch.xpack.core.searchablesnapshots.SearchableSnapsho
 import static org.elasticsearch.xpack.core.searchablesnapshots.SearchableSnapshotsConstants.SNAPSHOT_DIRECTORY_FACTORY_KEY;
 import static org.elasticsearch.xpack.core.searchablesnapshots.SearchableSnapshotsConstants.SNAPSHOT_PARTIAL_SETTING;
 import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SNAPSHOT_BLOB_CACHE_METADATA_FILES_MAX_LENGTH_SETTING;
+import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SNAPSHOT_BLOB_CACHE_RECORDED_RANGES_MAX_LENGTH_SETTING;
 import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SNAPSHOT_CACHE_ENABLED_SETTING;
 import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SNAPSHOT_CACHE_EXCLUDED_FILE_TYPES_SETTING;
 import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SNAPSHOT_CACHE_PREWARM_ENABLED_SETTING;
@@ -102,6 +108,7 @@ import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SN
 import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SNAPSHOT_REPOSITORY_UUID_SETTING;
 import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SNAPSHOT_SNAPSHOT_ID_SETTING;
 import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SNAPSHOT_SNAPSHOT_NAME_SETTING;
+import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SNAPSHOT_READ_AHEAD_MAX_SIZE_SETTING;
 import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SNAPSHOT_UNCACHED_CHUNK_SIZE_SETTING;
 
 /**
@@ -115,7 +122,7 @@ import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SN
  * shard files and what it stored in the snapshot the {@link BlobStoreIndexShardSnapshot} is used to map a physical file name as expected by
  * Lucene with the one (or the ones) corresponding blob(s) in the snapshot.
  */
-public class SearchableSnapshotDirectory extends BaseDirectory {
+public class SearchableSnapshotDirectory extends BaseDirectory implements CachingDirectory {
 
     private static final Logger logger = LogManager.getLogger(SearchableSnapshotDirectory.class);
 
@@ -135,12 +142,19 @@ public class SearchableSnapshotDirectory extends BaseDirectory {
     private final boolean prewarmCache;
     private final Set<String> excludedFileTypes;
     private final long uncachedChunkSize; // if negative use BlobContainer#readBlobPreferredLength, see #getUncachedChunkSize()
+    private final long readAheadMaxSize;
     private final Path cacheDir;
     private final ShardPath shardPath;
     private final AtomicBoolean closed;
     private final boolean partial;
     private final FrozenCacheService frozenCacheService;
     private final ByteSizeValue blobStoreCacheMaxLength;
+    private final long blobStoreCacheRecordedRangesMaxLength;
+    // the ranges being recorded, or null if the ranges are not recorded or the recording stopped
+    private final AtomicReference<RecordedBlobCacheRanges> recordingBlobStoreCacheRanges;
+
+    // the ranges read from the blob store cache index on top of the headers and footers
+    private volatile RecordedBlobCacheRanges recordedBlobStoreCacheRanges = RecordedBlobCacheRanges.EMPTY;
 
     // volatile fields are updated once under `this` lock, all together, iff loaded is not true.
     private volatile BlobStoreIndexShardSnapshot snapshot;
@@ -183,8 +197,11 @@ public class SearchableSnapshotDirectory extends BaseDirectory {
         this.prewarmCache = partial == false && useCache ? SNAPSHOT_CACHE_PREWARM_ENABLED_SETTING.get(indexSettings) : false;
         this.excludedFileTypes = new HashSet<>(SNAPSHOT_CACHE_EXCLUDED_FILE_TYPES_SETTING.get(indexSettings));
         this.uncachedChunkSize = SNAPSHOT_UNCACHED_CHUNK_SIZE_SETTING.get(indexSettings).getBytes();
+        this.readAheadMaxSize = SNAPSHOT_READ_AHEAD_MAX_SIZE_SETTING.get(indexSettings).getBytes();
         this.blobStoreCachePath = String.join("/", snapshotId.getUUID(), indexId.getId(), String.valueOf(shardId.id()));
         this.blobStoreCacheMaxLength = SNAPSHOT_BLOB_CACHE_METADATA_FILES_MAX_LENGTH_SETTING.get(indexSettings);
+        this.blobStoreCacheRecordedRangesMaxLength = SNAPSHOT_BLOB_CACHE_RECORDED_RANGES_MAX_LENGTH_SETTING.get(indexSettings).getBytes();
+        this.recordingBlobStoreCacheRanges = new AtomicReference<>();
         this.threadPool = threadPool;
         this.loaded = false;
         this.frozenCacheService = frozenCacheService;
@@ -227,12 +244,26 @@ public class SearchableSnapshotDirectory extends BaseDirectory {
             synchronized (this) {
                 alreadyLoaded = this.loaded;
                 if (alreadyLoaded == false) {
+                    final BlobStoreIndexShardSnapshot snapshot = snapshotSupplier.get();
+                    for (BlobStoreIndexShardSnapshot.FileInfo file : snapshot.indexFiles()) {
+                        if (file.chunks().isEmpty() == false) {
+                            // reads of chunked files can't be mapped to ranges of a single blob per part
+                            throw new IllegalArgumentException(
+                                "snapshot ["
+                                    + snapshotId
+                                    + "] stores file ["
+                                    + file.physicalName()
+                                    + "] as content defined chunks which searchable snapshots do not support"
+                            );
+                        }
+                    }
                     this.blobContainer = blobContainerSupplier.get();
-                    this.snapshot = snapshotSupplier.get();
+                    this.snapshot = snapshot;
                     this.loaded = true;
                     cleanExistingRegularShardFiles();
                     waitForPendingEvictions();
                     this.recoveryState = (SearchableSnapshotRecoveryState) recoveryState;
+                    loadRecordedBlobStoreCacheRanges();
                     prewarmCache(preWarmListener);
                 }
             }
@@ -365,6 +396,18 @@ public class SearchableSnapshotDirectory extends BaseDirectory {
         }
     }
 
+    /**
+     * Returns the number of bytes of the shared cache allocated to this shard if the snapshot is partially mounted, or {@code -1}
+     * otherwise since fully mounted shards are fully cached on every node once recovered.
+     */
+    @Override
+    public long cachedBytes() {
+        if (partial) {
+            return frozenCacheService.getCachedBytes(snapshotId.getUUID(), indexId.getName(), shardId);
+        }
+        return -1L;
+    }
+
     protected IndexInputStats createIndexInputStats(long numFiles, long totalSize, long minSize, long maxSize) {
         return new IndexInputStats(numFiles, totalSize, minSize, maxSize, statsCurrentTimeNanosSupplier);
     }
@@ -456,6 +499,13 @@ public class SearchableSnapshotDirectory extends BaseDirectory {
         }
     }
 
+    /**
+     * @return the maximum number of bytes fetched ahead of sequential reads of a file, zero if read-ahead is disabled
+     */
+    public long getReadAheadMaxSize() {
+        return readAheadMaxSize;
+    }
+
     private boolean isExcludedFromCache(String name) {
         final String ext = IndexFileNames.getExtension(name);
         return ext != null && excludedFileTypes.contains(ext);
@@ -723,8 +773,97 @@ public class SearchableSnapshotDirectory extends BaseDirectory {
         blobStoreCacheService.putAsync(repository, name, blobStoreCachePath, offset, content, listener);
     }
 
-    public FrozenCacheFile getFrozenCacheFile(String fileName, long length) {
-        return frozenCacheService.getFrozenCacheFile(createCacheKey(fileName), length);
+    /**
+     * Reads the ranges that were recorded by a previous mount of the same shard snapshot from the blob store cache index, or starts
+     * recording the ranges that are read if there are none.
+     */
+    private void loadRecordedBlobStoreCacheRanges() {
+        if (blobStoreCacheRecordedRangesMaxLength <= 0L) {
+            return;
+        }
+        final CachedBlob cachedBlob = blobStoreCacheService.get(repository, RecordedBlobCacheRanges.BLOB_NAME, blobStoreCachePath, 0L);
+        if (cachedBlob == CachedBlob.CACHE_MISS || cachedBlob == CachedBlob.CACHE_NOT_READY) {
+            // also record on CACHE_NOT_READY since the cache index is only created on the first put
+            recordingBlobStoreCacheRanges.set(RecordedBlobCacheRanges.newRecording(RecordedBlobCacheRanges.DEFAULT_RANGE_SIZE));
+            logger.debug("{} recording ranges read from snapshot [{}]", shardId, snapshotId);
+        } else {
+            try {
+                recordedBlobStoreCacheRanges = RecordedBlobCacheRanges.readFrom(cachedBlob.bytes());
+                logger.debug("{} loaded {} of snapshot [{}]", shardId, recordedBlobStoreCacheRanges, snapshotId);
+            } catch (IOException e) {
+                logger.warn(new ParameterizedMessage("{} failed to read recorded ranges of snapshot [{}]", shardId, snapshotId), e);
+            }
+        }
+    }
+
+    /**
+     * Returns the recorded range that holds the bytes {@code [start, end)} of the given file, if the range can be read from the blob
+     * store cache index. While the ranges are recorded, the aligned range that covers the bytes is recorded if the maximum length of the
+     * recorded ranges allows it, but it is only read from the blob store cache index by later mounts of the shard snapshot.
+     *
+     * @return the range to read from the blob store cache index, or {@link ByteRange#EMPTY}
+     */
+    public ByteRange getRecordedBlobCacheByteRange(String fileName, long fileLength, long start, long end) {
+        final RecordedBlobCacheRanges recording = recordingBlobStoreCacheRanges.get();
+        if (recording != null) {
+            final ByteRange range = recording.alignedRange(fileLength, start, end);
+            if (recording.record(fileName, range, blobStoreCacheRecordedRangesMaxLength) == false) {
+                stopRecordingBlobStoreCacheRanges();
+            }
+            return ByteRange.EMPTY;
+        }
+        return recordedBlobStoreCacheRanges.get(fileName, start, end);
+    }
+
+    /**
+     * Stops the recording of the ranges that are read, if they are being recorded, and stores the recorded ranges in the blob store cache
+     * index. Called once the shard completed its first search, or once the maximum length of the recorded ranges is reached.
+     */
+    public void stopRecordingBlobStoreCacheRanges() {
+        final RecordedBlobCacheRanges ranges = recordingBlobStoreCacheRanges.getAndSet(null);
+        if (ranges == null || ranges.isEmpty()) {
+            return;
+        }
+        prewarmExecutor().execute(new AbstractRunnable() {
+            @Override
+            protected void doRun() throws Exception {
+                storeRecordedBlobStoreCacheRanges(ranges);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                logger.warn(new ParameterizedMessage("{} failed to store recorded ranges of snapshot [{}]", shardId, snapshotId), e);
+            }
+        });
+    }
+
+    /**
+     * Stores the bytes of each of the given ranges, which hold at most {@link RecordedBlobCacheRanges#MAX_DOCUMENT_LENGTH} bytes each, in
+     * a single document of the blob store cache index, then the ranges themselves. The bytes are read through this directory, so they
+     * usually come from the cache on disk that the recorded reads populated.
+     */
+    private void storeRecordedBlobStoreCacheRanges(RecordedBlobCacheRanges ranges) throws IOException {
+        final ActionListener<Void> listener = ActionListener.wrap(
+            ignored -> {},
+            e -> logger.debug(new ParameterizedMessage("{} failed to store recorded ranges of snapshot [{}]", shardId, snapshotId), e)
+        );
+        for (Map.Entry<String, List<ByteRange>> fileRanges : ranges.rangesByFile().entrySet()) {
+            final String fileName = fileRanges.getKey();
+            try (IndexInput input = openInput(fileName, IOContext.READ)) {
+                for (ByteRange range : fileRanges.getValue()) {
+                    final byte[] bytes = new byte[Math.toIntExact(range.length())];
+                    input.seek(range.start());
+                    input.readBytes(bytes, 0, bytes.length);
+                    putCachedBlob(RecordedBlobCacheRanges.cachedBlobName(fileName), range.start(), new BytesArray(bytes), listener);
+                }
+            }
+        }
+        putCachedBlob(RecordedBlobCacheRanges.BLOB_NAME, 0L, ranges.toBytes(), listener);
+        logger.debug("{} stored {} of snapshot [{}]", shardId, ranges, snapshotId);
+    }
+
+    public FrozenCacheFile getFrozenCacheFile(String fileName, BlobStoreIndexShardSnapshot.FileInfo fileInfo) {
+        return frozenCacheService.getFrozenCacheFile(createCacheKey(fileName), fileInfo.length(), fileInfo.checksum());
     }
 
     private static Repository repositoryByUuid(Map<String, Repository> repositories, String repositoryUuid, String originalName) {
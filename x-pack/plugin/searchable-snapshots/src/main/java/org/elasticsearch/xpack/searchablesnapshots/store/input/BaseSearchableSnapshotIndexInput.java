@@ -162,7 +162,7 @@ public abstract class BaseSearchableSnapshotIndexInput extends BufferedIndexInpu
         } else if (footerBlobCacheByteRange.contains(position, end)) {
             return footerBlobCacheByteRange;
         }
-        return ByteRange.EMPTY;
+        return directory.getRecordedBlobCacheByteRange(fileInfo.physicalName(), fileInfo.length(), position, end);
     }
 
     /**
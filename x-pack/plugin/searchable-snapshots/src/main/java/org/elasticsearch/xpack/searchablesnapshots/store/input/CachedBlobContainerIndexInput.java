@@ -9,6 +9,7 @@ package org.elasticsearch.xpack.searchablesnapshots.store.input;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.message.ParameterizedMessage;
 import org.apache.lucene.codecs.CodecUtil;
 import org.apache.lucene.index.IndexFileNames;
 import org.apache.lucene.store.IOContext;
@@ -132,10 +133,31 @@ public class CachedBlobContainerIndexInput extends MetadataCachingIndexInput {
             directory.cacheFetchAsyncExecutor()
         );
 
+        for (ByteRange readAheadRange : readAheadRanges(position, length, rangeToWrite)) {
+            readAhead(cacheFile, readAheadRange);
+        }
+
         final int bytesRead = populateCacheFuture.get();
         assert bytesRead == length : bytesRead + " vs " + length;
     }
 
+    /**
+     * Populates the given range in cache without waiting for it, failures are ignored since the range is fetched again when it is read.
+     */
+    private void readAhead(CacheFile cacheFile, ByteRange range) {
+        try {
+            cacheFile.populateAndRead(
+                range,
+                range,
+                channel -> toIntBytes(range.length()),
+                this::writeCacheFile,
+                directory.cacheFetchAsyncExecutor()
+            );
+        } catch (Exception e) {
+            logger.debug(new ParameterizedMessage("failed to read ahead range [{}] of [{}]", range, cacheFileReference), e);
+        }
+    }
+
     /**
      * Prefetches a complete part and writes it in cache. This method is used to prewarm the cache.
      * @return a tuple with {@code Tuple<Persistent Cache Length, Prefetched Length>} values
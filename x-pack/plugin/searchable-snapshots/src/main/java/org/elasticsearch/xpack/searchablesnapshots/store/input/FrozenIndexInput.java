@@ -59,7 +59,7 @@ public class FrozenIndexInput extends MetadataCachingIndexInput {
             0L,
             fileInfo.length(),
             new CacheFileReference(directory, fileInfo.physicalName(), fileInfo.length()),
-            directory.getFrozenCacheFile(name, fileInfo.length()),
+            directory.getFrozenCacheFile(name, fileInfo),
             rangeSize,
             recoveryRangeSize,
             directory.getBlobCacheByteRange(name, fileInfo.length()),
@@ -162,9 +162,20 @@ public class FrozenIndexInput extends MetadataCachingIndexInput {
                         writeCacheFile(channel, input, channelPos, relativePos, len, progressUpdater, startTimeNanos);
                     }
                 },
+                (relativePos, len) -> {
+                    // the region was not admitted in the shared cache, read it directly on the current thread
+                    final ByteBuffer dup = b.duplicate();
+                    dup.position(originalByteBufPosition + toIntBytes(relativePos));
+                    dup.limit(dup.position() + toIntBytes(len));
+                    return readDirectly(position + relativePos, dup);
+                },
                 directory.cacheFetchAsyncExecutor()
             );
 
+            for (ByteRange readAheadRange : readAheadRanges(position, length, rangeToWrite)) {
+                readAhead(readAheadRange);
+            }
+
             final int bytesRead = populateCacheFuture.asFuture().get();
             assert bytesRead == length : bytesRead + " vs " + length;
             assert luceneByteBufLock.getReadHoldCount() == 0;
@@ -176,6 +187,29 @@ public class FrozenIndexInput extends MetadataCachingIndexInput {
         }
     }
 
+    /**
+     * Populates the given range in cache without waiting for it, failures are ignored since the range is fetched again when it is read.
+     */
+    private void readAhead(ByteRange range) {
+        try {
+            frozenCacheFile.populateAndRead(
+                range,
+                range,
+                (channel, pos, relativePos, len) -> Math.toIntExact(len),
+                (channel, channelPos, relativePos, len, progressUpdater) -> {
+                    final long startTimeNanos = stats.currentTimeNanos();
+                    try (InputStream input = openInputStreamFromBlobStore(range.start() + relativePos, len)) {
+                        writeCacheFile(channel, input, channelPos, relativePos, len, progressUpdater, startTimeNanos);
+                    }
+                },
+                (relativePos, len) -> Math.toIntExact(len), // nothing to read ahead for regions not admitted in the shared cache
+                directory.cacheFetchAsyncExecutor()
+            );
+        } catch (Exception e) {
+            logger.debug(new ParameterizedMessage("failed to read ahead range [{}] of [{}]", range, frozenCacheFile), e);
+        }
+    }
+
     private static int positionalWrite(SharedBytes.IO fc, long start, ByteBuffer byteBuffer) throws IOException {
         assert assertCurrentThreadMayWriteCacheFile();
         byteBuffer.flip();
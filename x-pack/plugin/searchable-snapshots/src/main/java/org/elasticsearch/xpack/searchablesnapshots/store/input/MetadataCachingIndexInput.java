@@ -22,6 +22,7 @@ import org.elasticsearch.core.SuppressForbidden;
 import org.elasticsearch.index.snapshots.blobstore.BlobStoreIndexShardSnapshot;
 import org.elasticsearch.xpack.searchablesnapshots.cache.blob.BlobStoreCacheService;
 import org.elasticsearch.xpack.searchablesnapshots.cache.blob.CachedBlob;
+import org.elasticsearch.xpack.searchablesnapshots.cache.blob.RecordedBlobCacheRanges;
 import org.elasticsearch.xpack.searchablesnapshots.cache.common.ByteRange;
 import org.elasticsearch.xpack.searchablesnapshots.cache.common.CacheFile;
 import org.elasticsearch.xpack.searchablesnapshots.cache.common.CacheKey;
@@ -33,6 +34,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicReference;
@@ -64,6 +67,9 @@ public abstract class MetadataCachingIndexInput extends BaseSearchableSnapshotIn
     // last seek position is kept around in order to detect forward/backward seeks for stats
     protected long lastSeekPosition;
 
+    // only mutable so that it can be reset after cloning
+    private ReadAheadPolicy readAheadPolicy = new ReadAheadPolicy(directory.getReadAheadMaxSize());
+
     public MetadataCachingIndexInput(
         Logger logger,
         String name,
@@ -136,7 +142,7 @@ public abstract class MetadataCachingIndexInput extends BaseSearchableSnapshotIn
             return;
         }
 
-        final CachedBlob cachedBlob = directory.getCachedBlob(fileInfo.physicalName(), blobCacheByteRange);
+        final CachedBlob cachedBlob = directory.getCachedBlob(blobCacheName(blobCacheByteRange), blobCacheByteRange);
         assert cachedBlob == CachedBlob.CACHE_MISS || cachedBlob == CachedBlob.CACHE_NOT_READY || cachedBlob.from() <= position;
         assert cachedBlob == CachedBlob.CACHE_MISS || cachedBlob == CachedBlob.CACHE_NOT_READY || length <= cachedBlob.length();
 
@@ -287,7 +293,7 @@ public abstract class MetadataCachingIndexInput extends BaseSearchableSnapshotIn
             // NB use Channels.readFromFileChannelWithEofException not readCacheFile() to avoid counting this in the stats
             byteBuffer.flip();
             final BytesReference content = BytesReference.fromByteBuffer(byteBuffer);
-            directory.putCachedBlob(fileInfo.physicalName(), indexCacheMiss.start(), content, new ActionListener<Void>() {
+            directory.putCachedBlob(blobCacheName(indexCacheMiss), indexCacheMiss.start(), content, new ActionListener<Void>() {
                 @Override
                 public void onResponse(Void response) {
                     onCacheFillComplete.close();
@@ -309,6 +315,17 @@ public abstract class MetadataCachingIndexInput extends BaseSearchableSnapshotIn
         }
     }
 
+    /**
+     * Returns the name under which the given range is stored in the blob store cache index. Recorded ranges are stored under a name of
+     * their own since they can start where the header of a file or of a slice of a compound file starts.
+     */
+    private String blobCacheName(ByteRange blobCacheByteRange) {
+        if (blobCacheByteRange.equals(headerBlobCacheByteRange) || blobCacheByteRange.equals(footerBlobCacheByteRange)) {
+            return fileInfo.physicalName();
+        }
+        return RecordedBlobCacheRanges.cachedBlobName(fileInfo.physicalName());
+    }
+
     /**
      * Perform a single {@code read()} from {@code inputStream} into {@code copyBuffer}, handling an EOF by throwing an {@link EOFException}
      * rather than returning {@code -1}. Returns the number of bytes read, which is always positive.
@@ -364,45 +381,7 @@ public abstract class MetadataCachingIndexInput extends BaseSearchableSnapshotIn
         if (e instanceof AlreadyClosedException || (e.getCause() != null && e.getCause() instanceof AlreadyClosedException)) {
             try {
                 // cache file was evicted during the range fetching, read bytes directly from blob container
-                final long length = b.remaining();
-                final byte[] copyBuffer = new byte[toIntBytes(Math.min(COPY_BUFFER_SIZE, length))];
-                logger.trace(
-                    () -> new ParameterizedMessage(
-                        "direct reading of range [{}-{}] for cache file [{}]",
-                        position,
-                        position + length,
-                        cacheFileReference
-                    )
-                );
-
-                int bytesCopied = 0;
-                final long startTimeNanos = stats.currentTimeNanos();
-                try (InputStream input = openInputStreamFromBlobStore(position, length)) {
-                    long remaining = length;
-                    while (remaining > 0) {
-                        final int len = (remaining < copyBuffer.length) ? (int) remaining : copyBuffer.length;
-                        int bytesRead = input.read(copyBuffer, 0, len);
-                        if (bytesRead == -1) {
-                            throw new EOFException(
-                                String.format(
-                                    Locale.ROOT,
-                                    "unexpected EOF reading [%d-%d] ([%d] bytes remaining) from %s",
-                                    position,
-                                    position + length,
-                                    remaining,
-                                    cacheFileReference
-                                )
-                            );
-                        }
-                        b.put(copyBuffer, 0, bytesRead);
-                        bytesCopied += bytesRead;
-                        remaining -= bytesRead;
-                        assert remaining == b.remaining() : remaining + " vs " + b.remaining();
-                    }
-                    final long endTimeNanos = stats.currentTimeNanos();
-                    stats.addDirectBytesRead(bytesCopied, endTimeNanos - startTimeNanos);
-                }
-                return bytesCopied;
+                return readDirectly(position, b);
             } catch (Exception inner) {
                 e.addSuppressed(inner);
             }
@@ -410,8 +389,76 @@ public abstract class MetadataCachingIndexInput extends BaseSearchableSnapshotIn
         throw new IOException("failed to read data from cache", e);
     }
 
+    /**
+     * Reads the remaining bytes of the given buffer directly from the blob container, starting at the given position.
+     */
+    protected int readDirectly(long position, ByteBuffer b) throws IOException {
+        final long length = b.remaining();
+        final byte[] copyBuffer = new byte[toIntBytes(Math.min(COPY_BUFFER_SIZE, length))];
+        logger.trace(
+            () -> new ParameterizedMessage(
+                "direct reading of range [{}-{}] for cache file [{}]",
+                position,
+                position + length,
+                cacheFileReference
+            )
+        );
+
+        int bytesCopied = 0;
+        final long startTimeNanos = stats.currentTimeNanos();
+        try (InputStream input = openInputStreamFromBlobStore(position, length)) {
+            long remaining = length;
+            while (remaining > 0) {
+                final int len = (remaining < copyBuffer.length) ? (int) remaining : copyBuffer.length;
+                int bytesRead = input.read(copyBuffer, 0, len);
+                if (bytesRead == -1) {
+                    throw new EOFException(
+                        String.format(
+                            Locale.ROOT,
+                            "unexpected EOF reading [%d-%d] ([%d] bytes remaining) from %s",
+                            position,
+                            position + length,
+                            remaining,
+                            cacheFileReference
+                        )
+                    );
+                }
+                b.put(copyBuffer, 0, bytesRead);
+                bytesCopied += bytesRead;
+                remaining -= bytesRead;
+                assert remaining == b.remaining() : remaining + " vs " + b.remaining();
+            }
+            final long endTimeNanos = stats.currentTimeNanos();
+            stats.addDirectBytesRead(bytesCopied, endTimeNanos - startTimeNanos);
+        }
+        return bytesCopied;
+    }
+
     protected abstract long getDefaultRangeSize();
 
+    /**
+     * Records a read of {@code length} bytes at {@code position} which populates {@code rangeToWrite} in cache, and returns the ranges that
+     * should be fetched ahead of it. The ranges are aligned on the range size so that they can be fetched in parallel.
+     */
+    protected List<ByteRange> readAheadRanges(long position, int length, ByteRange rangeToWrite) {
+        final long rangeSize = getDefaultRangeSize();
+        final long limit = computeRange(this.offset + Math.max(length() - 1L, 0L)).end();
+        final ByteRange readAhead = readAheadPolicy.onRead(position, length, rangeToWrite.end(), rangeSize, limit);
+        if (readAhead.isEmpty()) {
+            return List.of();
+        }
+        final List<ByteRange> ranges = new ArrayList<>();
+        long start = readAhead.start();
+        while (start < readAhead.end()) {
+            final ByteRange range = computeRange(start);
+            ranges.add(range);
+            stats.addReadAheadBytesRequested(range.length());
+            start = range.end();
+        }
+        logger.trace("readAheadRanges: reading ahead [{}] in [{}] ranges for [{}]", readAhead, ranges.size(), this);
+        return ranges;
+    }
+
     protected ByteRange computeRange(long position) {
         final long rangeSize = getDefaultRangeSize();
         long start = (position / rangeSize) * rangeSize;
@@ -431,6 +478,13 @@ public abstract class MetadataCachingIndexInput extends BaseSearchableSnapshotIn
         lastSeekPosition = position;
     }
 
+    @Override
+    public MetadataCachingIndexInput clone() {
+        final MetadataCachingIndexInput clone = (MetadataCachingIndexInput) super.clone();
+        clone.readAheadPolicy = new ReadAheadPolicy(directory.getReadAheadMaxSize());
+        return clone;
+    }
+
     @Override
     public void doClose() {
         if (isClone == false) {
@@ -0,0 +1,78 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.searchablesnapshots.store.input;
+
+import org.elasticsearch.xpack.searchablesnapshots.cache.common.ByteRange;
+
+/**
+ * Tracks the reads of an index input in order to fetch the ranges that follow sequential reads before they are actually read. Read-ahead
+ * only starts after {@link #SEQUENTIAL_READS_BEFORE_READ_AHEAD} reads that each continue where the previous one stopped, then the size of
+ * the read-ahead window doubles every time the reads consumed half of it, up to a maximum size. A read that does not continue the previous
+ * reads, nor falls in the range that was already read ahead, is considered random and disables read-ahead until reads are sequential again.
+ * <p>
+ * This class is not thread safe, each index input (and clone) should use its own instance.
+ */
+final class ReadAheadPolicy {
+
+    static final int SEQUENTIAL_READS_BEFORE_READ_AHEAD = 2;
+
+    private final long maxSize;
+
+    private long nextPosition = -1L;
+    private int sequentialReads;
+    private long size;
+    private long end;
+
+    ReadAheadPolicy(long maxSize) {
+        if (maxSize < 0L) {
+            throw new IllegalArgumentException("read-ahead size must be positive or zero but was [" + maxSize + "]");
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Records a read and returns the range that should be read ahead of it, if any.
+     *
+     * @param position     the position of the read
+     * @param length       the number of bytes read
+     * @param rangeEnd     the end of the range that is populated in cache by the read, the read-ahead range starts at or after it
+     * @param rangeSize    the size of the ranges the cache is populated with, the read-ahead range is aligned on it
+     * @param limit        the position after which nothing is read ahead
+     * @return the range to read ahead, or {@link ByteRange#EMPTY}
+     */
+    ByteRange onRead(long position, long length, long rangeEnd, long rangeSize, long limit) {
+        assert rangeSize > 0L : rangeSize;
+        final boolean sequential = nextPosition >= 0L && nextPosition <= position && position <= Math.max(nextPosition, end);
+        nextPosition = position + length;
+        if (sequential == false) {
+            sequentialReads = 0;
+            size = 0L;
+            end = 0L;
+            return ByteRange.EMPTY;
+        }
+        if (maxSize == 0L || ++sequentialReads < SEQUENTIAL_READS_BEFORE_READ_AHEAD) {
+            return ByteRange.EMPTY;
+        }
+        if (size > 0L && end - nextPosition > size / 2L) {
+            // enough bytes are already read ahead
+            return ByteRange.EMPTY;
+        }
+        size = size == 0L ? rangeSize : Math.max(rangeSize, Math.min(size * 2L, maxSize));
+        final long start = Math.max(rangeEnd, end);
+        final long alignedEnd = Math.min(limit, ((start + size + rangeSize - 1L) / rangeSize) * rangeSize);
+        if (alignedEnd <= start) {
+            return ByteRange.EMPTY;
+        }
+        end = alignedEnd;
+        return ByteRange.of(start, alignedEnd);
+    }
+
+    long size() {
+        return size;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.searchablesnapshots.cache.blob;
+
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.xpack.searchablesnapshots.cache.common.ByteRange;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class RecordedBlobCacheRangesTests extends ESTestCase {
+
+    public void testAlignedRange() {
+        final long rangeSize = randomLongBetween(1L, 1L << 16);
+        final RecordedBlobCacheRanges ranges = RecordedBlobCacheRanges.newRecording(rangeSize);
+        final long fileLength = randomLongBetween(1L, rangeSize * 10L);
+        final long start = randomLongBetween(0L, fileLength - 1L);
+        final long end = randomLongBetween(start + 1L, fileLength);
+
+        // reads that straddle a boundary or span several ranges are covered too
+        final ByteRange range = ranges.alignedRange(fileLength, start, end);
+        assertTrue(range + " contains [" + start + "-" + end + "]", range.contains(start, end));
+        assertThat(range.start() % rangeSize, equalTo(0L));
+        assertThat(range.start(), equalTo((start / rangeSize) * rangeSize));
+        assertTrue(range.end() == fileLength || range.end() % rangeSize == 0L);
+        assertTrue(range.end() - end < rangeSize);
+    }
+
+    public void testRecordUpToMaxRecordedBytes() {
+        final long rangeSize = randomLongBetween(1L, 1L << 10);
+        final RecordedBlobCacheRanges ranges = RecordedBlobCacheRanges.newRecording(rangeSize);
+        final long fileLength = rangeSize * randomLongBetween(1L, 100L);
+        final long maxRecordedBytes = randomLongBetween(0L, fileLength);
+        assertTrue(ranges.isEmpty());
+
+        long recordedBytes = 0L;
+        // record every other range so that no ranges are coalesced
+        for (long start = 0L; start < fileLength; start += 2L * rangeSize) {
+            final ByteRange range = ranges.alignedRange(fileLength, start, start + 1L);
+            final boolean fits = recordedBytes + range.length() <= maxRecordedBytes;
+            assertThat(ranges.record("file", range, maxRecordedBytes), is(fits));
+            if (fits) {
+                recordedBytes += range.length();
+                // recording the same range again does not count twice
+                assertTrue(ranges.record("file", range, maxRecordedBytes));
+            }
+        }
+        assertThat(ranges.isEmpty(), is(recordedBytes == 0L));
+        final long recorded = ranges.rangesByFile()
+            .getOrDefault("file", List.of())
+            .stream()
+            .mapToLong(ByteRange::length)
+            .sum();
+        assertThat(recorded, equalTo(recordedBytes));
+        assertThat(ranges.rangesByFile().containsKey("other"), is(false));
+    }
+
+    public void testCoalescesNeighbouringRanges() throws Exception {
+        final long rangeSize = randomLongBetween(1L, 1L << 10);
+        final RecordedBlobCacheRanges ranges = RecordedBlobCacheRanges.newRecording(rangeSize);
+        final long fileLength = rangeSize * 10L;
+
+        assertTrue(ranges.record("file", ranges.alignedRange(fileLength, rangeSize * 2L, rangeSize * 3L), Long.MAX_VALUE));
+        assertTrue(ranges.record("file", ranges.alignedRange(fileLength, rangeSize * 6L, rangeSize * 7L), Long.MAX_VALUE));
+        assertThat(
+            ranges.rangesByFile(),
+            equalTo(Map.of("file", List.of(ByteRange.of(rangeSize * 2L, rangeSize * 3L), ByteRange.of(rangeSize * 6L, rangeSize * 7L))))
+        );
+
+        // a read that touches the first range and overlaps the second one coalesces all three
+        final ByteRange range = ranges.alignedRange(fileLength, rangeSize * 3L, rangeSize * 6L + 1L);
+        assertThat(range, equalTo(ByteRange.of(rangeSize * 3L, rangeSize * 7L)));
+        // only the three ranges in between are new, and they must fit
+        assertFalse(ranges.record("file", range, rangeSize * 5L - 1L));
+        assertTrue(ranges.record("file", range, rangeSize * 5L));
+        assertThat(ranges.rangesByFile(), equalTo(Map.of("file", List.of(ByteRange.of(rangeSize * 2L, rangeSize * 7L)))));
+
+        final RecordedBlobCacheRanges copy = RecordedBlobCacheRanges.readFrom(ranges.toBytes());
+        assertThat(copy.get("file", rangeSize * 2L, rangeSize * 7L), equalTo(ByteRange.of(rangeSize * 2L, rangeSize * 7L)));
+        assertThat(copy.get("file", rangeSize * 4L, rangeSize * 4L + 1L), equalTo(ByteRange.of(rangeSize * 2L, rangeSize * 7L)));
+        assertThat(copy.get("file", rangeSize * 6L, rangeSize * 7L + 1L), equalTo(ByteRange.EMPTY));
+        assertThat(copy.get("file", 0L, 1L), equalTo(ByteRange.EMPTY));
+        assertThat(copy.get("other", rangeSize * 2L, rangeSize * 3L), equalTo(ByteRange.EMPTY));
+    }
+
+    public void testSplitsCoalescedRangesIntoBoundedDocuments() throws Exception {
+        final long documentLength = RecordedBlobCacheRanges.MAX_DOCUMENT_LENGTH;
+        final RecordedBlobCacheRanges ranges = RecordedBlobCacheRanges.newRecording(RecordedBlobCacheRanges.DEFAULT_RANGE_SIZE);
+        final long fileLength = documentLength * randomLongBetween(3L, 10L);
+        final long start = randomLongBetween(0L, documentLength - 1L);
+        final long end = randomLongBetween(documentLength * 2L + 1L, fileLength);
+        final ByteRange range = ranges.alignedRange(fileLength, start, end);
+        assertTrue(ranges.record("file", range, Long.MAX_VALUE));
+
+        // the coalesced range is split on multiples of the maximum document length, without gaps
+        final List<ByteRange> documents = ranges.rangesByFile().get("file");
+        assertThat(documents.get(0).start(), equalTo(range.start()));
+        assertThat(documents.get(documents.size() - 1).end(), equalTo(range.end()));
+        for (int i = 0; i < documents.size(); i++) {
+            final ByteRange document = documents.get(i);
+            assertThat(document.length(), lessThanOrEqualTo(documentLength));
+            if (i > 0) {
+                assertThat(document.start(), equalTo(documents.get(i - 1).end()));
+                assertThat(document.start() % documentLength, equalTo(0L));
+            }
+        }
+
+        // reads within a single document are served from it, reads across two documents are not
+        final RecordedBlobCacheRanges copy = RecordedBlobCacheRanges.readFrom(ranges.toBytes());
+        assertThat(copy.get("file", documentLength, documentLength + 1L), equalTo(documents.get(1)));
+        assertThat(copy.get("file", documentLength - 1L, documentLength + 1L), equalTo(ByteRange.EMPTY));
+    }
+
+    public void testSerialization() throws Exception {
+        final long rangeSize = randomLongBetween(1L, 1L << 16);
+        final RecordedBlobCacheRanges ranges = RecordedBlobCacheRanges.newRecording(rangeSize);
+        final List<String> fileNames = new ArrayList<>();
+        final List<ByteRange> reads = new ArrayList<>();
+        final int count = randomIntBetween(0, 20);
+        for (int i = 0; i < count; i++) {
+            final String fileName = randomAlphaOfLength(5);
+            final long fileLength = randomLongBetween(1L, rangeSize * 10L);
+            final long start = randomLongBetween(0L, fileLength - 1L);
+            final long end = randomLongBetween(start + 1L, fileLength);
+            assertTrue(ranges.record(fileName, ranges.alignedRange(fileLength, start, end), Long.MAX_VALUE));
+            fileNames.add(fileName);
+            reads.add(ByteRange.of(start, end));
+        }
+
+        final RecordedBlobCacheRanges copy = RecordedBlobCacheRanges.readFrom(ranges.toBytes());
+        assertThat(copy.isEmpty(), is(count == 0));
+        assertThat(copy.rangesByFile(), equalTo(ranges.rangesByFile()));
+        for (int i = 0; i < count; i++) {
+            final ByteRange read = reads.get(i);
+            final ByteRange range = copy.get(fileNames.get(i), read.start(), read.end());
+            assertTrue(range + " contains " + read, range.contains(read.start(), read.end()));
+        }
+        assertThat(copy.toString(), equalTo(ranges.toString()));
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.searchablesnapshots.cache.shared;
+
+import org.elasticsearch.test.ESTestCase;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class FrequencySketchTests extends ESTestCase {
+
+    public void testFrequencyOfUnknownKeyIsZero() {
+        final FrequencySketch sketch = new FrequencySketch(between(1, 1024));
+        assertThat(sketch.frequency(randomInt()), equalTo(0));
+    }
+
+    public void testEstimatesAreNeverLowerThanTheActualFrequency() {
+        final FrequencySketch sketch = new FrequencySketch(between(64, 1024));
+        final int key = randomInt();
+        final int increments = between(1, FrequencySketch.MAX_FREQUENCY);
+        for (int i = 0; i < increments; i++) {
+            sketch.increment(key);
+        }
+        for (int i = 0; i < 32; i++) {
+            sketch.increment(randomValueOtherThan(key, ESTestCase::randomInt));
+        }
+        assertThat(sketch.frequency(key), greaterThanOrEqualTo(increments));
+        assertThat(sketch.frequency(key), lessThanOrEqualTo(FrequencySketch.MAX_FREQUENCY));
+    }
+
+    public void testFrequencySaturates() {
+        final FrequencySketch sketch = new FrequencySketch(between(64, 1024));
+        final int key = randomInt();
+        for (int i = 0; i < FrequencySketch.MAX_FREQUENCY * 2; i++) {
+            sketch.increment(key);
+        }
+        assertThat(sketch.frequency(key), equalTo(FrequencySketch.MAX_FREQUENCY));
+        // a saturated key does not count as an addition anymore
+        assertThat(sketch.additions(), equalTo(FrequencySketch.MAX_FREQUENCY));
+    }
+
+    public void testFrequenciesAreHalvedPeriodically() {
+        final FrequencySketch sketch = new FrequencySketch(16);
+        final int key = randomInt();
+        for (int i = 0; i < 10; i++) {
+            sketch.increment(key);
+        }
+        int frequencyBeforeReset;
+        int additionsBeforeReset;
+        do {
+            frequencyBeforeReset = sketch.frequency(key);
+            additionsBeforeReset = sketch.additions();
+            sketch.increment(randomValueOtherThan(key, ESTestCase::randomInt));
+        } while (sketch.additions() >= additionsBeforeReset);
+        // the sketch of 16 keys is halved after 160 additions
+        assertThat(additionsBeforeReset, equalTo(159));
+        assertThat(sketch.additions(), equalTo(80));
+        assertThat(frequencyBeforeReset, greaterThanOrEqualTo(10));
+        // the last increment may have shared a counter with the key before it was halved
+        assertThat(sketch.frequency(key), greaterThanOrEqualTo(frequencyBeforeReset / 2));
+        assertThat(sketch.frequency(key), lessThanOrEqualTo((frequencyBeforeReset + 1) / 2));
+    }
+}
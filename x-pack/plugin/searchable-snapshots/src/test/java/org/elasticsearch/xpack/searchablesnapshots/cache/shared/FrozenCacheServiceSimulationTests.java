@@ -0,0 +1,167 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.searchablesnapshots.cache.shared;
+
+import org.elasticsearch.cluster.coordination.DeterministicTaskQueue;
+import org.elasticsearch.common.settings.Settings;
+import org.elasticsearch.common.unit.ByteSizeValue;
+import org.elasticsearch.core.PathUtils;
+import org.elasticsearch.core.TimeValue;
+import org.elasticsearch.env.NodeEnvironment;
+import org.elasticsearch.env.TestEnvironment;
+import org.elasticsearch.index.shard.ShardId;
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.xpack.searchablesnapshots.cache.common.CacheKey;
+import org.elasticsearch.xpack.searchablesnapshots.cache.shared.FrozenCacheService.EvictionPolicy;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.elasticsearch.node.Node.NODE_NAME_SETTING;
+import static org.hamcrest.Matchers.greaterThan;
+
+/**
+ * Replays traces of region accesses against the shared cache to compare the hit ratios of the eviction policies. A trace of a production
+ * workload is recorded by setting the {@link FrozenCacheService#ACCESS_TRACE_LOGGER_NAME} logger to {@code TRACE} and keeping only the
+ * messages of the log lines. It can be replayed with {@code -Dtests.shared_cache.trace=<path> -Dtests.security.manager=false}, optionally
+ * with the number of regions of the cache in {@code -Dtests.shared_cache.regions}. Lines starting with {@code #} are ignored.
+ */
+public class FrozenCacheServiceSimulationTests extends ESTestCase {
+
+    private static final long REGION_SIZE = SharedBytes.PAGE_SIZE;
+
+    public void testTinyLfuKeepsRegularlyAccessedRegionsDuringScans() throws IOException {
+        final List<Access> trace = new ArrayList<>();
+        final long day = TimeValue.timeValueHours(24L).millis();
+        for (int i = 0; i < 10; i++) {
+            // dashboards read the same regions a few times every day
+            for (int pass = 0; pass < 3; pass++) {
+                for (int region = 0; region < 10; region++) {
+                    trace.add(new Access(i * day + TimeValue.timeValueMinutes(pass).millis(), "dashboards", region));
+                }
+            }
+            // and an exploratory search reads many regions once
+            for (int region = 0; region < 100; region++) {
+                trace.add(new Access(i * day + TimeValue.timeValueMinutes(30L).millis(), "scan-" + i, region));
+            }
+        }
+
+        final double lfuHitRatio = simulate(trace, EvictionPolicy.LFU, 20);
+        final double tinyLfuHitRatio = simulate(trace, EvictionPolicy.TINY_LFU, 20);
+        assertThat(tinyLfuHitRatio, greaterThan(lfuHitRatio));
+    }
+
+    public void testReplayRecordedTrace() throws IOException {
+        final String trace = System.getProperty("tests.shared_cache.trace");
+        assumeTrue("replays a recorded trace set with [tests.shared_cache.trace]", trace != null);
+        final int numRegions = Integer.parseInt(System.getProperty("tests.shared_cache.regions", "1024"));
+        final List<Access> accesses = readTrace(PathUtils.get(trace));
+        for (EvictionPolicy evictionPolicy : EvictionPolicy.values()) {
+            simulate(accesses, evictionPolicy, numRegions);
+        }
+    }
+
+    /**
+     * @return the hit ratio of the shared cache with the given eviction policy and number of regions over the given trace
+     */
+    private double simulate(List<Access> trace, EvictionPolicy evictionPolicy, int numRegions) throws IOException {
+        final Map<String, Long> fileLengths = new HashMap<>();
+        for (Access access : trace) {
+            fileLengths.merge(access.file, (access.region + 1) * REGION_SIZE, Math::max);
+        }
+        final Settings settings = Settings.builder()
+            .put(NODE_NAME_SETTING.getKey(), "node")
+            .put(FrozenCacheService.SNAPSHOT_CACHE_SIZE_SETTING.getKey(), ByteSizeValue.ofBytes(numRegions * REGION_SIZE).getStringRep())
+            .put(FrozenCacheService.SNAPSHOT_CACHE_REGION_SIZE_SETTING.getKey(), ByteSizeValue.ofBytes(REGION_SIZE).getStringRep())
+            .put(FrozenCacheService.SNAPSHOT_CACHE_EVICTION_POLICY_SETTING.getKey(), evictionPolicy)
+            .put("path.home", createTempDir())
+            .build();
+        final DeterministicTaskQueue taskQueue = new DeterministicTaskQueue(settings, random());
+        try (
+            NodeEnvironment environment = new NodeEnvironment(settings, TestEnvironment.newEnvironment(settings));
+            FrozenCacheService cacheService = new FrozenCacheService(environment, settings, taskQueue.getThreadPool())
+        ) {
+            final Map<String, CacheKey> cacheKeys = new HashMap<>();
+            for (Access access : trace) {
+                advanceTo(taskQueue, access.timeMillis);
+                final CacheKey cacheKey = cacheKeys.computeIfAbsent(
+                    access.file,
+                    file -> new CacheKey("_snapshot", "_index", new ShardId("_index", "_na_", 0), file)
+                );
+                // regions that are not admitted in the cache would be read directly from the repository
+                cacheService.getIfAdmitted(cacheKey, fileLengths.get(access.file), null, access.region);
+            }
+            final FrozenCacheService.Stats stats = cacheService.getStats();
+            final double hitRatio = (double) stats.getHitCount() / (stats.getHitCount() + stats.getMissCount());
+            logger.info(
+                "eviction policy [{}] with [{}] regions: hit ratio [{}], [{}] hits, [{}] misses, [{}] rejections, [{}] evictions",
+                evictionPolicy,
+                numRegions,
+                hitRatio,
+                stats.getHitCount(),
+                stats.getMissCount(),
+                stats.getRejectCount(),
+                stats.getCapacityEvictCount()
+            );
+            return hitRatio;
+        }
+    }
+
+    /**
+     * Advances the time to the given time, running the tasks of the cache such as the decay of the frequencies on the way.
+     */
+    private static void advanceTo(DeterministicTaskQueue taskQueue, long timeMillis) {
+        if (taskQueue.getCurrentTimeMillis() < timeMillis) {
+            taskQueue.scheduleAt(timeMillis, () -> {});
+            while (taskQueue.getCurrentTimeMillis() < timeMillis) {
+                taskQueue.advanceTime();
+                taskQueue.runAllRunnableTasks();
+            }
+        }
+    }
+
+    private static List<Access> readTrace(Path path) throws IOException {
+        final List<Access> trace = new ArrayList<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                final String[] parts = line.split("\\s+");
+                if (parts.length != 3) {
+                    throw new IllegalArgumentException("expected [<time in millis> <file> <region>] but got [" + line + "]");
+                }
+                trace.add(new Access(Long.parseLong(parts[0]), parts[1], Integer.parseInt(parts[2])));
+            }
+        }
+        trace.sort(Comparator.comparingLong(access -> access.timeMillis));
+        return trace;
+    }
+
+    private static final class Access {
+        final long timeMillis;
+        final String file;
+        final int region;
+
+        Access(long timeMillis, String file, int region) {
+            this.timeMillis = timeMillis;
+            this.file = file;
+            this.region = region;
+        }
+    }
+}
@@ -7,30 +7,39 @@
 
 package org.elasticsearch.xpack.searchablesnapshots.cache.shared;
 
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.elasticsearch.cluster.coordination.DeterministicTaskQueue;
 import org.elasticsearch.cluster.node.DiscoveryNodeRole;
+import org.elasticsearch.common.logging.Loggers;
 import org.elasticsearch.common.settings.Settings;
 import org.elasticsearch.common.settings.SettingsException;
 import org.elasticsearch.common.unit.ByteSizeValue;
 import org.elasticsearch.common.unit.RatioValue;
 import org.elasticsearch.common.unit.RelativeByteSizeValue;
 import org.elasticsearch.common.util.set.Sets;
+import org.elasticsearch.core.TimeValue;
 import org.elasticsearch.env.NodeEnvironment;
 import org.elasticsearch.env.TestEnvironment;
 import org.elasticsearch.index.shard.ShardId;
 import org.elasticsearch.node.NodeRoleSettings;
 import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.test.MockLogAppender;
+import org.elasticsearch.test.junit.annotations.TestLogging;
 import org.elasticsearch.threadpool.ThreadPool;
 import org.elasticsearch.xpack.searchablesnapshots.cache.common.ByteRange;
 import org.elasticsearch.xpack.searchablesnapshots.cache.common.CacheKey;
 import org.elasticsearch.xpack.searchablesnapshots.cache.shared.FrozenCacheService.CacheFileRegion;
 
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.stream.Collectors;
 
 import static org.elasticsearch.node.Node.NODE_NAME_SETTING;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
@@ -151,6 +160,123 @@ public class FrozenCacheServiceTests extends ESTestCase {
         }
     }
 
+    public void testCachedBytesPerShard() throws IOException {
+        Settings settings = Settings.builder()
+            .put(NODE_NAME_SETTING.getKey(), "node")
+            .put(FrozenCacheService.SNAPSHOT_CACHE_SIZE_SETTING.getKey(), new ByteSizeValue(size(500)).getStringRep())
+            .put(FrozenCacheService.SNAPSHOT_CACHE_REGION_SIZE_SETTING.getKey(), new ByteSizeValue(size(100)).getStringRep())
+            .put("path.home", createTempDir())
+            .build();
+        final DeterministicTaskQueue taskQueue = new DeterministicTaskQueue(settings, random());
+        try (
+            NodeEnvironment environment = new NodeEnvironment(settings, TestEnvironment.newEnvironment(settings));
+            FrozenCacheService cacheService = new FrozenCacheService(environment, settings, taskQueue.getThreadPool())
+        ) {
+            final CacheKey cacheKey1 = generateCacheKey();
+            final CacheKey cacheKey2 = new CacheKey(
+                cacheKey1.getSnapshotUUID(),
+                cacheKey1.getSnapshotIndexName(),
+                cacheKey1.getShardId(),
+                randomValueOtherThan(cacheKey1.getFileName(), () -> randomAlphaOfLength(10))
+            );
+            final CacheKey otherShardCacheKey = generateCacheKey();
+            final String snapshotUUID = cacheKey1.getSnapshotUUID();
+            final String snapshotIndexName = cacheKey1.getSnapshotIndexName();
+            final ShardId shardId = cacheKey1.getShardId();
+            assertThat(cacheService.getCachedBytes(snapshotUUID, snapshotIndexName, shardId), equalTo(0L));
+
+            cacheService.get(cacheKey1, size(250), 0);
+            cacheService.get(cacheKey1, size(250), 2);
+            assertThat(cacheService.getCachedBytes(snapshotUUID, snapshotIndexName, shardId), equalTo(size(150)));
+            cacheService.get(cacheKey2, size(100), 0);
+            cacheService.get(otherShardCacheKey, size(100), 0);
+            assertThat(cacheService.getCachedBytes(snapshotUUID, snapshotIndexName, shardId), equalTo(size(250)));
+
+            cacheService.removeFromCache(cacheKey1);
+            assertThat(cacheService.getCachedBytes(snapshotUUID, snapshotIndexName, shardId), equalTo(size(100)));
+            cacheService.markShardAsEvictedInCache(snapshotUUID, snapshotIndexName, shardId);
+            assertThat(cacheService.getCachedBytes(snapshotUUID, snapshotIndexName, shardId), equalTo(0L));
+            assertThat(
+                cacheService.getCachedBytes(
+                    otherShardCacheKey.getSnapshotUUID(),
+                    otherShardCacheKey.getSnapshotIndexName(),
+                    otherShardCacheKey.getShardId()
+                ),
+                equalTo(size(100))
+            );
+        }
+    }
+
+    public void testPersistentCache() throws IOException {
+        Settings settings = Settings.builder()
+            .put(NODE_NAME_SETTING.getKey(), "node")
+            .put(FrozenCacheService.SNAPSHOT_CACHE_SIZE_SETTING.getKey(), new ByteSizeValue(size(500)).getStringRep())
+            .put(FrozenCacheService.SNAPSHOT_CACHE_REGION_SIZE_SETTING.getKey(), new ByteSizeValue(size(100)).getStringRep())
+            .put(FrozenCacheService.SNAPSHOT_CACHE_PERSISTENT_SETTING.getKey(), true)
+            .put("path.home", createTempDir())
+            .build();
+        final DeterministicTaskQueue taskQueue = new DeterministicTaskQueue(settings, random());
+        final CacheKey cacheKey = generateCacheKey();
+        final CacheKey otherCacheKey = generateCacheKey();
+        final byte[] bytes = randomByteArrayOfLength(SharedBytes.PAGE_SIZE);
+        final ByteRange range = ByteRange.of(0L, bytes.length);
+        try (NodeEnvironment environment = new NodeEnvironment(settings, TestEnvironment.newEnvironment(settings))) {
+            try (FrozenCacheService cacheService = new FrozenCacheService(environment, settings, taskQueue.getThreadPool())) {
+                final CacheFileRegion region = cacheService.get(cacheKey, size(250), "_checksum", 1);
+                region.populateAndRead(
+                    range,
+                    range,
+                    (channel, channelPos, relativePos, length) -> Math.toIntExact(length),
+                    (channel, channelPos, relativePos, length, progressUpdater) -> {
+                        channel.write(ByteBuffer.wrap(bytes), channelPos);
+                        progressUpdater.accept(length);
+                    },
+                    taskQueue.getThreadPool().executor(ThreadPool.Names.GENERIC)
+                );
+                final CacheFileRegion otherRegion = cacheService.get(otherCacheKey, size(250), "_other_checksum", 0);
+                otherRegion.populateAndRead(
+                    range,
+                    range,
+                    (channel, channelPos, relativePos, length) -> Math.toIntExact(length),
+                    (channel, channelPos, relativePos, length, progressUpdater) -> progressUpdater.accept(length),
+                    taskQueue.getThreadPool().executor(ThreadPool.Names.GENERIC)
+                );
+                // regions without a checksum are not persisted
+                cacheService.get(generateCacheKey(), size(250), 0);
+                taskQueue.runAllRunnableTasks();
+                assertEquals(2, cacheService.freeRegionCount());
+            }
+
+            try (FrozenCacheService cacheService = new FrozenCacheService(environment, settings, taskQueue.getThreadPool())) {
+                assertEquals(3, cacheService.freeRegionCount());
+                cacheService.getFrozenCacheFile(cacheKey, size(250), "_checksum");
+                assertEquals(3, cacheService.freeRegionCount());
+                // the file changed in the snapshot, its region cannot be reused
+                cacheService.getFrozenCacheFile(otherCacheKey, size(250), "_changed_checksum");
+                assertEquals(4, cacheService.freeRegionCount());
+
+                final CacheFileRegion region = cacheService.get(cacheKey, size(250), "_checksum", 1);
+                assertThat(region.tracker.getCompletedRanges(), contains(range));
+                final ByteBuffer read = ByteBuffer.allocate(bytes.length);
+                region.populateAndRead(
+                    range,
+                    range,
+                    (channel, channelPos, relativePos, length) -> channel.read(read, channelPos),
+                    (channel, channelPos, relativePos, length, progressUpdater) -> fail("range should be in cache"),
+                    taskQueue.getThreadPool().executor(ThreadPool.Names.GENERIC)
+                );
+                taskQueue.runAllRunnableTasks();
+                assertArrayEquals(bytes, read.array());
+                assertEquals(4, cacheService.freeRegionCount());
+            }
+
+            // the regions that are still in cache are persisted again
+            try (FrozenCacheService cacheService = new FrozenCacheService(environment, settings, taskQueue.getThreadPool())) {
+                assertEquals(4, cacheService.freeRegionCount());
+            }
+        }
+    }
+
     public void testDecay() throws IOException {
         Settings settings = Settings.builder()
             .put(NODE_NAME_SETTING.getKey(), "node")
@@ -205,6 +331,165 @@ public class FrozenCacheServiceTests extends ESTestCase {
         }
     }
 
+    public void testTinyLfuAdmission() throws IOException {
+        Settings settings = Settings.builder()
+            .put(NODE_NAME_SETTING.getKey(), "node")
+            .put(FrozenCacheService.SNAPSHOT_CACHE_SIZE_SETTING.getKey(), new ByteSizeValue(size(200)).getStringRep())
+            .put(FrozenCacheService.SNAPSHOT_CACHE_REGION_SIZE_SETTING.getKey(), new ByteSizeValue(size(100)).getStringRep())
+            .put(FrozenCacheService.SNAPSHOT_CACHE_EVICTION_POLICY_SETTING.getKey(), "tiny_lfu")
+            .put(FrozenCacheService.SNAPSHOT_CACHE_MIN_TIME_DELTA_SETTING.getKey(), TimeValue.ZERO.getStringRep())
+            .put("path.home", createTempDir())
+            .build();
+        final DeterministicTaskQueue taskQueue = new DeterministicTaskQueue(settings, random());
+        try (
+            NodeEnvironment environment = new NodeEnvironment(settings, TestEnvironment.newEnvironment(settings));
+            FrozenCacheService cacheService = new FrozenCacheService(environment, settings, taskQueue.getThreadPool())
+        ) {
+            final CacheKey cacheKey = generateCacheKey();
+            final CacheFileRegion region0 = cacheService.get(cacheKey, size(250), 0);
+            assertSame(region0, cacheService.get(cacheKey, size(250), 0));
+            final CacheFileRegion region1 = cacheService.get(cacheKey, size(250), 1);
+            assertEquals(0, cacheService.freeRegionCount());
+
+            // a region accessed once is not admitted in place of the least frequently used region
+            final CacheKey otherCacheKey = generateCacheKey();
+            assertNull(cacheService.getIfAdmitted(otherCacheKey, size(100), null, 0));
+            assertFalse(region0.isEvicted());
+            assertFalse(region1.isEvicted());
+
+            // once accessed more often than region 1, the region replaces it
+            final CacheFileRegion otherRegion = cacheService.get(otherCacheKey, size(100), 0);
+            assertFalse(otherRegion.isEvicted());
+            assertFalse(region0.isEvicted());
+            assertTrue(region1.isEvicted());
+
+            final FrozenCacheService.Stats stats = cacheService.getStats();
+            assertEquals(1L, stats.getHitCount());
+            assertEquals(4L, stats.getMissCount());
+            assertEquals(1L, stats.getRejectCount());
+            assertEquals(1L, stats.getCapacityEvictCount());
+            assertEquals(0L, stats.getExplicitEvictCount());
+
+            cacheService.removeFromCache(otherCacheKey);
+            assertTrue(otherRegion.isEvicted());
+            assertEquals(1L, cacheService.getStats().getExplicitEvictCount());
+            assertEquals(2L, cacheService.getStats().getEvictCount());
+        }
+    }
+
+    public void testTinyLfuAdmitsRegionThatKeepsMissing() throws IOException {
+        Settings settings = Settings.builder()
+            .put(NODE_NAME_SETTING.getKey(), "node")
+            .put(FrozenCacheService.SNAPSHOT_CACHE_SIZE_SETTING.getKey(), new ByteSizeValue(size(200)).getStringRep())
+            .put(FrozenCacheService.SNAPSHOT_CACHE_REGION_SIZE_SETTING.getKey(), new ByteSizeValue(size(100)).getStringRep())
+            .put(FrozenCacheService.SNAPSHOT_CACHE_EVICTION_POLICY_SETTING.getKey(), "tiny_lfu")
+            .put("path.home", createTempDir())
+            .build();
+        final DeterministicTaskQueue taskQueue = new DeterministicTaskQueue(settings, random());
+        try (
+            NodeEnvironment environment = new NodeEnvironment(settings, TestEnvironment.newEnvironment(settings));
+            FrozenCacheService cacheService = new FrozenCacheService(environment, settings, taskQueue.getThreadPool())
+        ) {
+            final CacheKey cacheKey = generateCacheKey();
+            final CacheFileRegion region0 = cacheService.get(cacheKey, size(250), 0);
+            final CacheFileRegion region1 = cacheService.get(cacheKey, size(250), 1);
+            // repeated hits within min_time_delta are recorded once
+            assertSame(region0, cacheService.get(cacheKey, size(250), 0));
+            assertSame(region1, cacheService.get(cacheKey, size(250), 1));
+            assertEquals(0, cacheService.freeRegionCount());
+
+            // but every miss of a region that is not admitted reads from the repository and counts towards its admission, even within
+            // min_time_delta, so that the region does not keep missing
+            final CacheKey otherCacheKey = generateCacheKey();
+            assertNull(cacheService.getIfAdmitted(otherCacheKey, size(100), null, 0));
+            final CacheFileRegion otherRegion = cacheService.getIfAdmitted(otherCacheKey, size(100), null, 0);
+            assertNotNull(otherRegion);
+            assertFalse(otherRegion.isEvicted());
+            assertTrue(region0.isEvicted() || region1.isEvicted());
+            assertEquals(1L, cacheService.getStats().getRejectCount());
+        }
+    }
+
+    @TestLogging(
+        value = "org.elasticsearch.xpack.searchablesnapshots.cache.shared.FrozenCacheService.access_trace:TRACE",
+        reason = "asserts the access trace"
+    )
+    public void testAccessTrace() throws Exception {
+        Settings settings = Settings.builder()
+            .put(NODE_NAME_SETTING.getKey(), "node")
+            .put(FrozenCacheService.SNAPSHOT_CACHE_SIZE_SETTING.getKey(), new ByteSizeValue(size(100)).getStringRep())
+            .put(FrozenCacheService.SNAPSHOT_CACHE_REGION_SIZE_SETTING.getKey(), new ByteSizeValue(size(100)).getStringRep())
+            .put("path.home", createTempDir())
+            .build();
+        final DeterministicTaskQueue taskQueue = new DeterministicTaskQueue(settings, random());
+        final Logger accessTraceLogger = LogManager.getLogger(FrozenCacheService.ACCESS_TRACE_LOGGER_NAME);
+        final MockLogAppender appender = new MockLogAppender();
+        appender.start();
+        Loggers.addAppender(accessTraceLogger, appender);
+        try (
+            NodeEnvironment environment = new NodeEnvironment(settings, TestEnvironment.newEnvironment(settings));
+            FrozenCacheService cacheService = new FrozenCacheService(environment, settings, taskQueue.getThreadPool())
+        ) {
+            final CacheKey cacheKey = generateCacheKey();
+            final String file = String.join(
+                "/",
+                cacheKey.getSnapshotUUID(),
+                cacheKey.getSnapshotIndexName(),
+                String.valueOf(cacheKey.getShardId().id()),
+                cacheKey.getFileName()
+            );
+            appender.addExpectation(
+                new MockLogAppender.SeenEventExpectation(
+                    "access",
+                    FrozenCacheService.ACCESS_TRACE_LOGGER_NAME,
+                    Level.TRACE,
+                    taskQueue.getCurrentTimeMillis() + " " + file + " 1"
+                )
+            );
+            cacheService.get(cacheKey, size(250), 1);
+            appender.assertAllExpectationsMatched();
+        } finally {
+            Loggers.removeAppender(accessTraceLogger, appender);
+            appender.stop();
+        }
+    }
+
+    public void testTinyLfuProtectsRegionsAccessedAgainFromDecay() throws IOException {
+        Settings settings = Settings.builder()
+            .put(NODE_NAME_SETTING.getKey(), "node")
+            .put(FrozenCacheService.SNAPSHOT_CACHE_SIZE_SETTING.getKey(), new ByteSizeValue(size(500)).getStringRep())
+            .put(FrozenCacheService.SNAPSHOT_CACHE_REGION_SIZE_SETTING.getKey(), new ByteSizeValue(size(100)).getStringRep())
+            .put(FrozenCacheService.SNAPSHOT_CACHE_EVICTION_POLICY_SETTING.getKey(), "tiny_lfu")
+            .put("path.home", createTempDir())
+            .build();
+        final DeterministicTaskQueue taskQueue = new DeterministicTaskQueue(settings, random());
+        try (
+            NodeEnvironment environment = new NodeEnvironment(settings, TestEnvironment.newEnvironment(settings));
+            FrozenCacheService cacheService = new FrozenCacheService(environment, settings, taskQueue.getThreadPool())
+        ) {
+            final CacheKey cacheKey1 = generateCacheKey();
+            final CacheKey cacheKey2 = generateCacheKey();
+            final CacheFileRegion region0 = cacheService.get(cacheKey1, size(250), 0);
+            final CacheFileRegion region1 = cacheService.get(cacheKey2, size(250), 1);
+
+            for (int i = 0; i < 2; i++) {
+                taskQueue.advanceTime();
+                taskQueue.runAllRunnableTasks();
+                assertSame(region0, cacheService.get(cacheKey1, size(250), 0));
+            }
+            assertEquals(2, cacheService.getFreq(region0));
+            assertEquals(0, cacheService.getFreq(region1));
+
+            // the frequency of region 0 decays but the region does not go back to the probationary segment
+            for (int i = 0; i < 5; i++) {
+                taskQueue.advanceTime();
+                taskQueue.runAllRunnableTasks();
+            }
+            assertEquals(1, cacheService.getFreq(region0));
+            assertEquals(0, cacheService.getFreq(region1));
+        }
+    }
+
     public void testCacheSizeRejectedOnNonFrozenNodes() {
         String cacheSize = randomBoolean() ? new ByteSizeValue(size(500)).getStringRep() : new RatioValue(between(1, 100)).toString();
         final Settings settings = Settings.builder()
@@ -52,6 +52,7 @@ import java.util.function.LongSupplier;
 import static org.elasticsearch.xpack.core.searchablesnapshots.SearchableSnapshotsUtils.toIntBytes;
 import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SNAPSHOT_CACHE_ENABLED_SETTING;
 import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SNAPSHOT_CACHE_PREWARM_ENABLED_SETTING;
+import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SNAPSHOT_READ_AHEAD_MAX_SIZE_SETTING;
 import static org.elasticsearch.xpack.searchablesnapshots.SearchableSnapshots.SNAPSHOT_UNCACHED_CHUNK_SIZE_SETTING;
 import static org.elasticsearch.xpack.searchablesnapshots.cache.common.TestUtils.assertCounter;
 import static org.elasticsearch.xpack.searchablesnapshots.cache.common.TestUtils.singleBlobContainer;
@@ -426,6 +427,72 @@ public class SearchableSnapshotDirectoryStatsTests extends AbstractSearchableSna
         });
     }
 
+    public void testReadAheadOnSequentialReads() throws Exception {
+        final ByteSizeValue rangeSize = new ByteSizeValue(SharedBytes.PAGE_SIZE, ByteSizeUnit.BYTES);
+        final ByteSizeValue cacheSize = new ByteSizeValue(10, ByteSizeUnit.MB);
+
+        executeTestCaseWithCache(cacheSize, rangeSize, (fileName, fileContent, directory) -> {
+            try (IndexInput input = directory.openInput(fileName, IOContext.DEFAULT)) {
+                final long length = input.length();
+                final IndexInputStats inputStats = directory.getStats(fileName);
+                assertCounter(inputStats.getReadAheadBytesRequested(), 0L, 0L, 0L, 0L);
+
+                // read the input sequentially using small reads that go through the internal buffer
+                final byte[] result = new byte[toIntBytes(length)];
+                for (int bytesRead = 0; bytesRead < result.length;) {
+                    final int size = between(1, Math.min(512, result.length - bytesRead));
+                    input.readBytes(result, bytesRead, size);
+                    bytesRead += size;
+                }
+                assertArrayEquals(fileContent, result);
+
+                final IndexInputStats.Counter readAhead = inputStats.getReadAheadBytesRequested();
+                if (length > 2L * rangeSize.getBytes()) {
+                    // the third buffered read is sequential and fetches the range that follows the one it reads from
+                    assertThat(readAhead.count(), greaterThan(0L));
+                    assertThat(readAhead.max(), lessThanOrEqualTo(rangeSize.getBytes()));
+                } else {
+                    assertCounter(readAhead, 0L, 0L, 0L, 0L);
+                }
+                assertThat(readAhead.total(), lessThanOrEqualTo(length));
+
+                // read-ahead does not fetch any range twice
+                assertBusy(() -> assertThat(inputStats.getCachedBytesWritten().total(), equalTo(length)));
+            } catch (Exception e) {
+                throw new AssertionError(e);
+            }
+        });
+    }
+
+    public void testReadAheadDisabled() throws Exception {
+        final ByteSizeValue rangeSize = new ByteSizeValue(SharedBytes.PAGE_SIZE, ByteSizeUnit.BYTES);
+        executeTestCase(
+            createCacheService(rangeSize),
+            createFrozenCacheService(new ByteSizeValue(10, ByteSizeUnit.MB), rangeSize),
+            Settings.builder()
+                .put(SNAPSHOT_CACHE_ENABLED_SETTING.getKey(), true)
+                .put(SNAPSHOT_CACHE_PREWARM_ENABLED_SETTING.getKey(), false) // disable prewarming as it impacts the stats
+                .put(SNAPSHOT_READ_AHEAD_MAX_SIZE_SETTING.getKey(), ByteSizeValue.ZERO)
+                .put(SearchableSnapshotsConstants.SNAPSHOT_PARTIAL_SETTING.getKey(), randomBoolean())
+                .build(),
+            (fileName, fileContent, directory) -> {
+                try (IndexInput input = directory.openInput(fileName, IOContext.DEFAULT)) {
+                    // same sequential reads as in testReadAheadOnSequentialReads
+                    final byte[] result = new byte[toIntBytes(input.length())];
+                    for (int bytesRead = 0; bytesRead < result.length;) {
+                        final int size = between(1, Math.min(512, result.length - bytesRead));
+                        input.readBytes(result, bytesRead, size);
+                        bytesRead += size;
+                    }
+                    assertArrayEquals(fileContent, result);
+                    assertCounter(directory.getStats(fileName).getReadAheadBytesRequested(), 0L, 0L, 0L, 0L);
+                } catch (IOException e) {
+                    throw new AssertionError(e);
+                }
+            }
+        );
+    }
+
     public void testForwardSeeks() throws Exception {
         executeTestCaseWithDefaultCache((fileName, fileContent, cacheDirectory) -> {
             final IOContext ioContext = randomIOContext();
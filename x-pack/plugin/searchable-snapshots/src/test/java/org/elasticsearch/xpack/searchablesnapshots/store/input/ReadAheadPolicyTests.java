@@ -0,0 +1,90 @@
+/*
+ * Copyright Elasticsearch B.V. and/or licensed to Elasticsearch B.V. under one
+ * or more contributor license agreements. Licensed under the Elastic License
+ * 2.0; you may not use this file except in compliance with the Elastic License
+ * 2.0.
+ */
+
+package org.elasticsearch.xpack.searchablesnapshots.store.input;
+
+import org.elasticsearch.test.ESTestCase;
+import org.elasticsearch.xpack.searchablesnapshots.cache.common.ByteRange;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+public class ReadAheadPolicyTests extends ESTestCase {
+
+    private static final long RANGE_SIZE = 1024L;
+
+    public void testReadAheadGrowsOnSequentialReads() {
+        final long maxSize = RANGE_SIZE * randomIntBetween(1, 16);
+        final long limit = RANGE_SIZE * 1_000L;
+        final ReadAheadPolicy policy = new ReadAheadPolicy(maxSize);
+
+        final int readSize = 128;
+        long position = randomLongBetween(0L, 100L) * RANGE_SIZE;
+        long readAheadEnd = -1L;
+        long previousSize = 0L;
+        for (int i = 0; i < 500; i++) {
+            final long rangeEnd = (position / RANGE_SIZE + 1L) * RANGE_SIZE;
+            final ByteRange readAhead = policy.onRead(position, readSize, rangeEnd, RANGE_SIZE, limit);
+            if (i < ReadAheadPolicy.SEQUENTIAL_READS_BEFORE_READ_AHEAD) {
+                assertThat(readAhead, equalTo(ByteRange.EMPTY));
+            } else if (readAhead.isEmpty() == false) {
+                // ranges are aligned, contiguous and never overlap what was already read ahead
+                assertThat(readAhead.start() % RANGE_SIZE, equalTo(0L));
+                assertThat(readAhead.end() % RANGE_SIZE, equalTo(0L));
+                if (readAheadEnd >= 0L) {
+                    assertThat(readAhead.start(), equalTo(Math.max(rangeEnd, readAheadEnd)));
+                }
+                assertThat(policy.size(), lessThanOrEqualTo(Math.max(maxSize, RANGE_SIZE)));
+                assertThat(policy.size(), previousSize == 0L ? equalTo(RANGE_SIZE) : lessThanOrEqualTo(previousSize * 2L));
+                previousSize = policy.size();
+                readAheadEnd = readAhead.end();
+            }
+            position += readSize;
+        }
+        // the read-ahead window stays ahead of the reads
+        assertThat(readAheadEnd, greaterThanOrEqualTo(position));
+        assertThat(policy.size(), equalTo(maxSize));
+    }
+
+    public void testNoReadAheadOnRandomReads() {
+        final ReadAheadPolicy policy = new ReadAheadPolicy(RANGE_SIZE * 16L);
+        final long limit = RANGE_SIZE * 1_000L;
+        long previousEnd = -1L;
+        for (int i = 0; i < 100; i++) {
+            final long position = randomValueOtherThan(previousEnd, () -> randomLongBetween(0L, limit - 1L));
+            final int length = randomIntBetween(1, 128);
+            final long rangeEnd = Math.min(limit, (position / RANGE_SIZE + 1L) * RANGE_SIZE);
+            assertThat(policy.onRead(position, length, rangeEnd, RANGE_SIZE, limit), equalTo(ByteRange.EMPTY));
+            previousEnd = position + length;
+        }
+        assertThat(policy.size(), equalTo(0L));
+    }
+
+    public void testReadAheadStopsAtLimit() {
+        final ReadAheadPolicy policy = new ReadAheadPolicy(RANGE_SIZE * 4L);
+        final long limit = RANGE_SIZE * 2L;
+        ByteRange readAhead = ByteRange.EMPTY;
+        for (long position = 0L; position < limit; position += 256L) {
+            final ByteRange range = policy.onRead(position, 256L, (position / RANGE_SIZE + 1L) * RANGE_SIZE, RANGE_SIZE, limit);
+            if (range.isEmpty() == false) {
+                assertThat(range.end(), lessThanOrEqualTo(limit));
+                readAhead = range;
+            }
+        }
+        assertThat(readAhead, equalTo(ByteRange.of(RANGE_SIZE, limit)));
+    }
+
+    public void testDisabled() {
+        final ReadAheadPolicy policy = new ReadAheadPolicy(0L);
+        for (long position = 0L; position < RANGE_SIZE * 10L; position += 128L) {
+            final long rangeEnd = (position / RANGE_SIZE + 1L) * RANGE_SIZE;
+            assertThat(policy.onRead(position, 128L, rangeEnd, RANGE_SIZE, RANGE_SIZE * 10L), equalTo(ByteRange.EMPTY));
+        }
+        expectThrows(IllegalArgumentException.class, () -> new ReadAheadPolicy(-1L));
+    }
+}
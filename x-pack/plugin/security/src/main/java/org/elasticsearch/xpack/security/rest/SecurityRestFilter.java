@@ -135,6 +135,11 @@ public class SecurityRestFilter implements RestHandler {
         return restHandler.supportsContentStream();
     }
 
+    @Override
+    public boolean supportsIncrementalContent() {
+        return restHandler.supportsIncrementalContent();
+    }
+
     @Override
     public boolean allowsUnsafeBuffers() {
         return restHandler.allowsUnsafeBuffers();